@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.ai.triton.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import inference.GRPCInferenceServiceGrpc;
+import inference.GRPCInferenceServiceGrpc.GRPCInferenceServiceBlockingStub;
+import inference.GRPCInferenceServiceGrpc.GRPCInferenceServiceStub;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+
+/**
+ * A fixed set of gRPC channels towards the same server, used in round robin.
+ * <br>
+ * A single HTTP/2 connection limits the number of concurrent streams and shares one flow control window among all
+ * of them, spreading the requests over several connections lets large concurrent inferences proceed in parallel.
+ * The model management calls always use the first channel.
+ */
+final class TritonServerChannelPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(TritonServerChannelPool.class);
+
+    private final List<ManagedChannel> channels;
+    private final List<GRPCInferenceServiceBlockingStub> blockingStubs = new ArrayList<>();
+    private final List<GRPCInferenceServiceStub> asyncStubs = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    TritonServerChannelPool(List<ManagedChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("At least one channel is required");
+        }
+
+        this.channels = Collections.unmodifiableList(new ArrayList<>(channels));
+        for (ManagedChannel channel : this.channels) {
+            this.blockingStubs.add(GRPCInferenceServiceGrpc.newBlockingStub(channel));
+            this.asyncStubs.add(GRPCInferenceServiceGrpc.newStub(channel));
+        }
+    }
+
+    static TritonServerChannelPool create(String address, TritonServerServiceOptions options) {
+        List<ManagedChannel> channels = new ArrayList<>(options.getGrpcChannels());
+
+        for (int i = 0; i < options.getGrpcChannels(); i++) {
+            NettyChannelBuilder builder = NettyChannelBuilder.forAddress(address, options.getGrpcPort())
+                    .usePlaintext().maxInboundMessageSize(options.getGrpcMaxMessageSize())
+                    .maxInboundMetadataSize(Integer.MAX_VALUE).flowControlWindow(options.getGrpcFlowControlWindow());
+
+            if (options.getGrpcKeepAliveTime() > 0) {
+                builder.keepAliveTime(options.getGrpcKeepAliveTime(), TimeUnit.SECONDS)
+                        .keepAliveTimeout(options.getGrpcKeepAliveTimeout(), TimeUnit.SECONDS)
+                        .keepAliveWithoutCalls(true);
+            }
+
+            channels.add(builder.build());
+        }
+
+        return new TritonServerChannelPool(channels);
+    }
+
+    int size() {
+        return this.channels.size();
+    }
+
+    GRPCInferenceServiceBlockingStub getManagementStub() {
+        return this.blockingStubs.get(0);
+    }
+
+    GRPCInferenceServiceBlockingStub nextBlockingStub() {
+        return this.blockingStubs.get(nextIndex());
+    }
+
+    GRPCInferenceServiceStub nextAsyncStub() {
+        return this.asyncStubs.get(nextIndex());
+    }
+
+    void shutdown() {
+        this.channels.forEach(ManagedChannel::shutdownNow);
+
+        try {
+            for (ManagedChannel channel : this.channels) {
+                if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("Unable to terminate grpc channel gracefully");
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Unable to terminate grpc channel gracefully", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int nextIndex() {
+        return Math.floorMod(this.next.getAndIncrement(), this.channels.size());
+    }
+}
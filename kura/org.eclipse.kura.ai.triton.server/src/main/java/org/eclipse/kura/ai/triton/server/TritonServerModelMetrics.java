@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.ai.triton.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free counters for the inferences of a single model: requests in flight, completed and failed requests and a
+ * latency histogram with fixed bucket bounds.
+ */
+final class TritonServerModelMetrics {
+
+    static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+    private final String modelName;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+
+    TritonServerModelMetrics(String modelName) {
+        this.modelName = modelName;
+    }
+
+    /**
+     * Records the start of an inference.
+     *
+     * @return the start time, to be passed to {@link #end(long, boolean)}
+     */
+    long start() {
+        this.inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void end(long startNanos, boolean success) {
+        long latencyNanos = System.nanoTime() - startNanos;
+
+        this.inFlight.decrementAndGet();
+        if (success) {
+            this.completed.increment();
+        } else {
+            this.failed.increment();
+        }
+        this.totalLatencyNanos.add(latencyNanos);
+        this.maxLatencyNanos.accumulate(latencyNanos);
+        this.buckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMillis(latencyNanos)));
+    }
+
+    TritonServerModelStatistics toStatistics() {
+        long[] bucketCounts = new long[this.buckets.length()];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = this.buckets.get(i);
+        }
+
+        long completedCount = this.completed.sum();
+        long failedCount = this.failed.sum();
+        long count = completedCount + failedCount;
+
+        return new TritonServerModelStatistics(this.modelName, this.inFlight.get(), completedCount, failedCount,
+                count == 0 ? 0 : this.totalLatencyNanos.sum() / count, this.maxLatencyNanos.get(),
+                BUCKET_BOUNDS_MILLIS.clone(), bucketCounts);
+    }
+
+    private static int bucketOf(long latencyMillis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (latencyMillis < BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+}
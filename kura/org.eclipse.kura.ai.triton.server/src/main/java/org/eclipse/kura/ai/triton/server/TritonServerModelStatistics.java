@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.ai.triton.server;
+
+/**
+ * Snapshot of the inference statistics of a model.
+ */
+public class TritonServerModelStatistics {
+
+    private final String modelName;
+    private final int inFlightCount;
+    private final long completedCount;
+    private final long failedCount;
+    private final long meanLatencyNanos;
+    private final long maxLatencyNanos;
+    private final long[] latencyBucketBoundsMillis;
+    private final long[] latencyBucketCounts;
+
+    TritonServerModelStatistics(String modelName, int inFlightCount, long completedCount, long failedCount,
+            long meanLatencyNanos, long maxLatencyNanos, long[] latencyBucketBoundsMillis,
+            long[] latencyBucketCounts) {
+        this.modelName = modelName;
+        this.inFlightCount = inFlightCount;
+        this.completedCount = completedCount;
+        this.failedCount = failedCount;
+        this.meanLatencyNanos = meanLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.latencyBucketBoundsMillis = latencyBucketBoundsMillis;
+        this.latencyBucketCounts = latencyBucketCounts;
+    }
+
+    public String getModelName() {
+        return this.modelName;
+    }
+
+    /**
+     * @return the number of inferences sent to the server and not completed yet.
+     */
+    public int getInFlightCount() {
+        return this.inFlightCount;
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount;
+    }
+
+    public long getFailedCount() {
+        return this.failedCount;
+    }
+
+    /**
+     * @return the mean round trip time of the completed and failed inferences, in nanoseconds.
+     */
+    public long getMeanLatencyNanos() {
+        return this.meanLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return this.maxLatencyNanos;
+    }
+
+    /**
+     * @return the exclusive upper bounds of the latency histogram buckets, in milliseconds. The last bucket, with
+     *         no upper bound, is not included.
+     */
+    public long[] getLatencyBucketBoundsMillis() {
+        return this.latencyBucketBoundsMillis.clone();
+    }
+
+    /**
+     * @return the number of inferences in each latency bucket. The array has one more element than
+     *         {@link #getLatencyBucketBoundsMillis()}, counting the inferences slower than the last bound.
+     */
+    public long[] getLatencyBucketCounts() {
+        return this.latencyBucketCounts.clone();
+    }
+}
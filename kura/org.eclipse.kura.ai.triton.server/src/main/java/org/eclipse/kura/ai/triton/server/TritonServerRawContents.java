@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.ai.triton.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+/**
+ * Converts tensors from and to the binary representation used by the raw_input_contents and raw_output_contents
+ * fields of the inference protocol: values are stored in little endian byte order, booleans as a single byte and
+ * BYTES tensors as a 4 bytes length followed by the content.
+ * <br>
+ * Buffer backed tensors are wrapped without copying their content whenever their byte order allows it, the buffers
+ * must not be modified until the request has been sent.
+ */
+final class TritonServerRawContents {
+
+    private static final String EXPECTED_MESSAGE = "Expected a list of ";
+
+    private TritonServerRawContents() {
+    }
+
+    static ByteString encode(Tensor input) {
+        DataType dataType = DataType.valueOf(input.getDescriptor().getType());
+        Optional<ByteBuffer> buffer = input.getBuffer();
+
+        if (buffer.isPresent()) {
+            return encodeBuffer(input, dataType, buffer.get());
+        } else {
+            return encodeList(input, dataType);
+        }
+    }
+
+    static Tensor decode(ByteString contents, TensorDescriptor descriptor) {
+        DataType dataType = DataType.valueOf(descriptor.getType());
+        ByteBuffer buffer = contents.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+
+        if (dataType == DataType.BYTES) {
+            if (buffer.remaining() < Integer.BYTES) {
+                throw new IllegalArgumentException("Too few bytes in buffer; cannot read array length");
+            }
+            buffer.position(buffer.position() + Integer.BYTES);
+        }
+
+        return new Tensor(getType(dataType), descriptor, buffer);
+    }
+
+    private static ByteString encodeBuffer(Tensor input, DataType dataType, ByteBuffer buffer) {
+        Class<?> type = getType(dataType);
+
+        if (input.getType() != type) {
+            throw new IllegalArgumentException(
+                    "Expected a tensor of " + type.getSimpleName() + " but got a tensor of " + input.getType());
+        }
+
+        if (dataType == DataType.BYTES) {
+            return lengthOf(buffer.remaining()).concat(UnsafeByteOperations.unsafeWrap(buffer));
+        }
+
+        int elementSize = getElementSize(dataType);
+
+        if (elementSize == 1 || buffer.order() == ByteOrder.LITTLE_ENDIAN) {
+            return UnsafeByteOperations.unsafeWrap(buffer);
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(buffer.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+
+        if (elementSize == Short.BYTES) {
+            result.asShortBuffer().put(buffer.asShortBuffer());
+        } else if (elementSize == Integer.BYTES) {
+            result.asIntBuffer().put(buffer.asIntBuffer());
+        } else {
+            result.asLongBuffer().put(buffer.asLongBuffer());
+        }
+
+        return UnsafeByteOperations.unsafeWrap(result.array());
+    }
+
+    private static ByteString encodeList(Tensor input, DataType dataType) {
+        Class<?> inputType = input.getType();
+
+        switch (dataType) {
+        case UINT8:
+        case INT8:
+        case UINT16:
+        case INT16:
+            if (inputType != getType(dataType) && inputType != Integer.class) {
+                throw new IllegalArgumentException(EXPECTED_MESSAGE + getType(dataType).getSimpleName()
+                        + " or Integer but got a list of " + inputType);
+            }
+            break;
+        case FP16:
+            throw new IllegalArgumentException("Data type " + dataType + " not supported");
+        default:
+            if (inputType != getType(dataType)) {
+                throw new IllegalArgumentException(
+                        EXPECTED_MESSAGE + getType(dataType).getSimpleName() + " but got a list of " + inputType);
+            }
+        }
+
+        List<?> values = input.getData(inputType).orElse(Collections.emptyList());
+
+        if (dataType == DataType.BYTES) {
+            byte[] bytes = new byte[values.size()];
+
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (Byte) values.get(i);
+            }
+
+            return lengthOf(bytes.length).concat(UnsafeByteOperations.unsafeWrap(bytes));
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(values.size() * getElementSize(dataType))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        for (Object value : values) {
+            putValue(result, dataType, value);
+        }
+
+        return UnsafeByteOperations.unsafeWrap(result.array());
+    }
+
+    private static void putValue(ByteBuffer buffer, DataType dataType, Object value) {
+        switch (dataType) {
+        case BOOL:
+            buffer.put((Boolean) value ? (byte) 1 : (byte) 0);
+            break;
+        case UINT8:
+        case INT8:
+            buffer.put(((Number) value).byteValue());
+            break;
+        case UINT16:
+        case INT16:
+            buffer.putShort(((Number) value).shortValue());
+            break;
+        case UINT32:
+        case INT32:
+            buffer.putInt((Integer) value);
+            break;
+        case UINT64:
+        case INT64:
+            buffer.putLong((Long) value);
+            break;
+        case FP32:
+            buffer.putFloat((Float) value);
+            break;
+        case FP64:
+            buffer.putDouble((Double) value);
+            break;
+        default:
+            throw new IllegalArgumentException("Data type " + dataType + " not supported");
+        }
+    }
+
+    private static ByteString lengthOf(int length) {
+        return UnsafeByteOperations
+                .unsafeWrap(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(length).array());
+    }
+
+    private static Class<?> getType(DataType dataType) {
+        switch (dataType) {
+        case BOOL:
+            return Boolean.class;
+        case UINT8:
+        case INT8:
+        case BYTES:
+            return Byte.class;
+        case UINT16:
+        case INT16:
+            return Short.class;
+        case UINT32:
+        case INT32:
+            return Integer.class;
+        case UINT64:
+        case INT64:
+            return Long.class;
+        case FP32:
+            return Float.class;
+        case FP64:
+            return Double.class;
+        default:
+            throw new IllegalArgumentException("Data type " + dataType + " not supported");
+        }
+    }
+
+    private static int getElementSize(DataType dataType) {
+        switch (dataType) {
+        case BOOL:
+        case UINT8:
+        case INT8:
+        case BYTES:
+            return Byte.BYTES;
+        case UINT16:
+        case INT16:
+            return Short.BYTES;
+        case UINT32:
+        case INT32:
+        case FP32:
+            return Integer.BYTES;
+        default:
+            return Long.BYTES;
+        }
+    }
+}
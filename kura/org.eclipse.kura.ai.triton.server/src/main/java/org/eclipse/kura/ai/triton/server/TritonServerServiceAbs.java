@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -16,23 +16,18 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.DoubleBuffer;
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.nio.LongBuffer;
-import java.nio.ShortBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.KuraIOException;
@@ -52,8 +47,6 @@ import org.slf4j.LoggerFactory;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.ProtocolStringList;
 
-import inference.GRPCInferenceServiceGrpc;
-import inference.GRPCInferenceServiceGrpc.GRPCInferenceServiceBlockingStub;
 import inference.GrpcService.InferParameter;
 import inference.GrpcService.InferTensorContents;
 import inference.GrpcService.ModelInferRequest;
@@ -71,8 +64,8 @@ import inference.GrpcService.RepositoryModelUnloadRequest;
 import inference.GrpcService.ServerLiveRequest;
 import inference.GrpcService.ServerLiveResponse;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
 
 public abstract class TritonServerServiceAbs implements InferenceEngineService, ConfigurableComponent {
 
@@ -85,8 +78,9 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
     protected TritonServerServiceOptions options;
     private TritonServerInstanceManager tritonServerInstanceManager;
 
-    private ManagedChannel grpcChannel;
-    private GRPCInferenceServiceBlockingStub grpcStub;
+    private TritonServerChannelPool grpcChannelPool;
+    private final Map<String, ModelMetadataResponse> modelMetadataCache = new ConcurrentHashMap<>();
+    private final Map<String, TritonServerModelMetrics> modelMetrics = new ConcurrentHashMap<>();
     private String decryptionFolderPath = "";
     private boolean decryptionFolderNeedsCleanup = false;
 
@@ -142,15 +136,12 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
     protected void deactivate() {
         logger.info("Deactivate TritonServerService...");
         stopManagedInstance();
-        this.grpcChannel.shutdownNow();
-        try {
-            boolean isTerminated = this.grpcChannel.awaitTermination(5, TimeUnit.SECONDS);
-            if (!isTerminated) {
-                logger.warn("Unable to terminate grpc channel gracefully");
-            }
-        } catch (InterruptedException e) {
-            logger.warn("Unable to terminate grpc channel gracefully", e);
-            Thread.currentThread().interrupt();
+        getModelStatistics().forEach(statistics -> logger.info(
+                "Model {}: {} inferences completed, {} failed, mean latency {} ms, max latency {} ms",
+                statistics.getModelName(), statistics.getCompletedCount(), statistics.getFailedCount(),
+                statistics.getMeanLatencyNanos() / 1000000, statistics.getMaxLatencyNanos() / 1000000));
+        if (nonNull(this.grpcChannelPool)) {
+            this.grpcChannelPool.shutdown();
         }
     }
 
@@ -196,14 +187,37 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
     }
 
     private void setGrpcResources() {
-        this.grpcChannel = ManagedChannelBuilder.forAddress(getServerAddress(), this.options.getGrpcPort())
-                .usePlaintext().maxInboundMessageSize(this.options.getGrpcMaxMessageSize())
-                .maxInboundMetadataSize(Integer.MAX_VALUE).build();
-        setGrpcStub(GRPCInferenceServiceGrpc.newBlockingStub(this.grpcChannel));
+        setGrpcChannelPool(TritonServerChannelPool.create(getServerAddress(), this.options));
     }
 
-    protected void setGrpcStub(GRPCInferenceServiceBlockingStub grpcStub) {
-        this.grpcStub = grpcStub;
+    protected void setGrpcChannels(List<ManagedChannel> channels) {
+        setGrpcChannelPool(new TritonServerChannelPool(channels));
+    }
+
+    private void setGrpcChannelPool(TritonServerChannelPool channelPool) {
+        if (nonNull(this.grpcChannelPool)) {
+            this.grpcChannelPool.shutdown();
+        }
+        this.grpcChannelPool = channelPool;
+        this.modelMetadataCache.clear();
+    }
+
+    private void invalidateModelCache(String modelName) {
+        this.modelMetadataCache.remove(modelName);
+    }
+
+    /**
+     * Returns the inference statistics of the models used since the activation of the service.
+     *
+     * @return a snapshot of the statistics of each model
+     */
+    public List<TritonServerModelStatistics> getModelStatistics() {
+        return this.modelMetrics.values().stream().map(TritonServerModelMetrics::toStatistics)
+                .collect(Collectors.toList());
+    }
+
+    private TritonServerModelMetrics getModelMetrics(String modelName) {
+        return this.modelMetrics.computeIfAbsent(modelName, TritonServerModelMetrics::new);
     }
 
     protected boolean isNullOrEmpty(String property) {
@@ -254,8 +268,9 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
 
         RepositoryModelLoadRequest.Builder builder = RepositoryModelLoadRequest.newBuilder();
         builder.setModelName(modelName);
+        invalidateModelCache(modelName);
         try {
-            this.grpcStub.repositoryModelLoad(builder.build());
+            this.grpcChannelPool.getManagementStub().repositoryModelLoad(builder.build());
         } catch (StatusRuntimeException e) {
             if (isModelEncryptionEnabled()) {
                 TritonServerEncryptionUtils.cleanRepository(this.decryptionFolderPath);
@@ -280,8 +295,9 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
     public void unloadModel(String modelName) throws KuraException {
         RepositoryModelUnloadRequest.Builder builder = RepositoryModelUnloadRequest.newBuilder();
         builder.setModelName(modelName);
+        invalidateModelCache(modelName);
         try {
-            this.grpcStub.repositoryModelUnload(builder.build());
+            this.grpcChannelPool.getManagementStub().repositoryModelUnload(builder.build());
         } catch (StatusRuntimeException e) {
             throw new KuraIOException(e, "Cannot unload the model " + modelName);
         }
@@ -290,12 +306,14 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
 
     @Override
     public boolean isModelLoaded(String modelName) throws KuraException {
+        // the ready state is not cached, the server can be restarted or the model unloaded by another client
         boolean isLoaded = false;
 
         ModelReadyRequest.Builder builder = ModelReadyRequest.newBuilder();
         builder.setName(modelName);
         try {
-            ModelReadyResponse modelReadyResponse = this.grpcStub.modelReady(builder.build());
+            ModelReadyResponse modelReadyResponse = this.grpcChannelPool.getManagementStub()
+                    .modelReady(builder.build());
             isLoaded = modelReadyResponse.getReady();
         } catch (StatusRuntimeException e) {
             throw new KuraIOException(e, "Cannot check if the model " + modelName + " is loaded");
@@ -309,7 +327,8 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
 
         RepositoryIndexRequest repositoryIndexRequest = RepositoryIndexRequest.getDefaultInstance();
         try {
-            RepositoryIndexResponse repositoryIndexResponse = this.grpcStub.repositoryIndex(repositoryIndexRequest);
+            RepositoryIndexResponse repositoryIndexResponse = this.grpcChannelPool.getManagementStub()
+                    .repositoryIndex(repositoryIndexRequest);
             List<ModelIndex> models = repositoryIndexResponse.getModelsList();
             models.forEach(model -> modelNames.add(model.getName()));
         } catch (StatusRuntimeException e) {
@@ -321,10 +340,8 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
     @Override
     public Optional<ModelInfo> getModelInfo(String modelName) throws KuraException {
         Optional<ModelInfo> modelInfo = Optional.empty();
-        ModelMetadataRequest.Builder builder = ModelMetadataRequest.newBuilder();
-        builder.setName(modelName);
         try {
-            ModelMetadataResponse modelMetadataResponse = this.grpcStub.modelMetadata(builder.build());
+            ModelMetadataResponse modelMetadataResponse = getModelMetadata(modelName);
 
             ModelInfoBuilder infoBuilder = ModelInfo.builder(modelMetadataResponse.getName());
             String modelPlatform = modelMetadataResponse.getPlatform();
@@ -349,17 +366,33 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
 
     }
 
+    private ModelMetadataResponse getModelMetadata(String modelName) {
+        ModelMetadataResponse modelMetadataResponse = this.modelMetadataCache.get(modelName);
+
+        if (isNull(modelMetadataResponse)) {
+            ModelMetadataRequest.Builder builder = ModelMetadataRequest.newBuilder();
+            builder.setName(modelName);
+            modelMetadataResponse = this.grpcChannelPool.getManagementStub().modelMetadata(builder.build());
+            this.modelMetadataCache.put(modelName, modelMetadataResponse);
+        }
+        return modelMetadataResponse;
+    }
+
     @Override
     public boolean isEngineReady() {
         boolean isAlive = false;
 
         ServerLiveRequest serverLiveRequest = ServerLiveRequest.getDefaultInstance();
         try {
-            ServerLiveResponse serverLiveResponse = this.grpcStub.serverLive(serverLiveRequest);
+            ServerLiveResponse serverLiveResponse = this.grpcChannelPool.getManagementStub()
+                    .serverLive(serverLiveRequest);
             isAlive = serverLiveResponse.getLive();
         } catch (StatusRuntimeException e) {
             logger.debug("Cannot get the status of the server: ", e);
-            return false;
+        }
+        if (!isAlive) {
+            // the server may come back with different models
+            this.modelMetadataCache.clear();
         }
         return isAlive;
     }
@@ -367,27 +400,96 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
     @Override
     public List<Tensor> infer(ModelInfo modelInfo, List<Tensor> inputData) throws KuraException {
         List<Tensor> inferenceResults = new ArrayList<>();
+        TritonServerModelMetrics metrics = getModelMetrics(modelInfo.getName());
+        long start = metrics.start();
+        boolean success = false;
 
-        ModelInferRequest.Builder inferRequest = ModelInferRequest.newBuilder();
-        inferRequest.setModelName(modelInfo.getName());
         try {
-            if (!modelInfo.getParameters().isEmpty()) {
-                inferRequest.putAllParameters(getInferParameters(modelInfo.getParameters()));
-            }
-            inputData.forEach(input -> inferRequest.addInputs(createInputDataBuilder(input)));
-            modelInfo.getOutputs().forEach(
-                    outputDescriptor -> inferRequest.addOutputs(createRequestedOutputBuilder(outputDescriptor)));
-
-            ModelInferResponse inferResponse = this.grpcStub.modelInfer(inferRequest.build());
+            ModelInferResponse inferResponse = this.grpcChannelPool.nextBlockingStub()
+                    .modelInfer(createInferRequest(modelInfo, inputData));
 
             inferenceResults = createOutputInferenceData(inferResponse);
-        } catch (StatusRuntimeException | IllegalArgumentException e) {
+            success = true;
+        } catch (StatusRuntimeException e) {
+            invalidateModelCache(modelInfo.getName());
             logger.warn("Cannot infer outputs for " + modelInfo.getName() + " model", e);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Cannot infer outputs for " + modelInfo.getName() + " model", e);
+        } finally {
+            metrics.end(start, success);
         }
         return inferenceResults;
 
     }
 
+    @Override
+    public CompletionStage<List<Tensor>> inferAsync(ModelInfo modelInfo, List<Tensor> inputData) {
+        CompletableFuture<List<Tensor>> result = new CompletableFuture<>();
+
+        ModelInferRequest inferRequest;
+        try {
+            inferRequest = createInferRequest(modelInfo, inputData);
+        } catch (IllegalArgumentException e) {
+            result.completeExceptionally(
+                    new KuraIOException(e, "Cannot infer outputs for " + modelInfo.getName() + " model"));
+            return result;
+        }
+
+        TritonServerModelMetrics metrics = getModelMetrics(modelInfo.getName());
+        long start = metrics.start();
+
+        this.grpcChannelPool.nextAsyncStub().modelInfer(inferRequest, new StreamObserver<ModelInferResponse>() {
+
+            @Override
+            public void onNext(ModelInferResponse inferResponse) {
+                try {
+                    List<Tensor> outputs = createOutputInferenceData(inferResponse);
+                    metrics.end(start, true);
+                    result.complete(outputs);
+                } catch (IllegalArgumentException e) {
+                    metrics.end(start, false);
+                    result.completeExceptionally(
+                            new KuraIOException(e, "Cannot infer outputs for " + modelInfo.getName() + " model"));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                metrics.end(start, false);
+                invalidateModelCache(modelInfo.getName());
+                result.completeExceptionally(
+                        new KuraIOException(t, "Cannot infer outputs for " + modelInfo.getName() + " model"));
+            }
+
+            @Override
+            public void onCompleted() {
+                // the result is completed by onNext
+            }
+        });
+
+        return result;
+    }
+
+    private ModelInferRequest createInferRequest(ModelInfo modelInfo, List<Tensor> inputData) {
+        ModelInferRequest.Builder inferRequest = ModelInferRequest.newBuilder();
+        inferRequest.setModelName(modelInfo.getName());
+        if (!modelInfo.getParameters().isEmpty()) {
+            inferRequest.putAllParameters(getInferParameters(modelInfo.getParameters()));
+        }
+        // raw contents must be used either for all the inputs or for none of them
+        if (inputData.stream().anyMatch(input -> input.getBuffer().isPresent())) {
+            inputData.forEach(input -> {
+                inferRequest.addInputs(createInputTensorBuilder(input));
+                inferRequest.addRawInputContents(TritonServerRawContents.encode(input));
+            });
+        } else {
+            inputData.forEach(input -> inferRequest.addInputs(createInputDataBuilder(input)));
+        }
+        modelInfo.getOutputs()
+                .forEach(outputDescriptor -> inferRequest.addOutputs(createRequestedOutputBuilder(outputDescriptor)));
+        return inferRequest.build();
+    }
+
     private Map<String, InferParameter> getInferParameters(Map<String, Object> parameters) {
         Map<String, InferParameter> inferParameters = new HashMap<>();
         parameters.forEach((key, value) -> {
@@ -482,11 +584,16 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
             throw new IllegalArgumentException("Date type " + modelInputType + " not supported");
         }
 
+        ModelInferRequest.InferInputTensor.Builder inputBuilder = createInputTensorBuilder(input);
+        inputBuilder.setContents(inputDataBuilder);
+        return inputBuilder;
+    }
+
+    private ModelInferRequest.InferInputTensor.Builder createInputTensorBuilder(Tensor input) {
         ModelInferRequest.InferInputTensor.Builder inputBuilder = ModelInferRequest.InferInputTensor.newBuilder();
         inputBuilder.setName(input.getDescriptor().getName());
         inputBuilder.setDatatype(input.getDescriptor().getType());
         input.getDescriptor().getShape().forEach(inputBuilder::addShape);
-        inputBuilder.setContents(inputDataBuilder);
         if (!input.getDescriptor().getParameters().isEmpty()) {
             inputBuilder.putAllParameters(getInferParameters(input.getDescriptor().getParameters()));
         }
@@ -595,212 +702,13 @@ public abstract class TritonServerServiceAbs implements InferenceEngineService,
                 }
                 TensorDescriptor outputDescriptor = outputDescriptorBuilder.build();
 
-                switch (outputType) {
-                case BOOL:
-                    List<Boolean> booleanList = bufferToBooleanList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN));
-                    results.add(new Tensor(Boolean.class, outputDescriptor, booleanList));
-                    break;
-                case UINT8:
-                case INT8:
-                    List<Byte> byteList = bufferToByteList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN));
-                    results.add(new Tensor(Byte.class, outputDescriptor, byteList));
-                    break;
-                case UINT16:
-                case INT16:
-                    List<Short> shortList = bufferToShortList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer());
-                    results.add(new Tensor(Short.class, outputDescriptor, shortList));
-                    break;
-                case UINT32:
-                case INT32:
-                    List<Integer> integerList = bufferToIntList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
-                    results.add(new Tensor(Integer.class, outputDescriptor, integerList));
-                    break;
-                case UINT64:
-                case INT64:
-                    List<Long> longList = bufferToLongList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
-                    results.add(new Tensor(Long.class, outputDescriptor, longList));
-                    break;
-                case FP32:
-                    List<Float> floatList = bufferToFloatList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
-                    results.add(new Tensor(Float.class, outputDescriptor, floatList));
-                    break;
-                case FP64:
-                    List<Double> doubleList = bufferToDoubleList(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer());
-                    results.add(new Tensor(Double.class, outputDescriptor, doubleList));
-                    break;
-                case BYTES:
-                    List<Byte> bytesList = bufferToBytes(
-                            byteStringResponse.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN));
-                    results.add(new Tensor(Byte.class, outputDescriptor, bytesList));
-                    break;
-                default:
-                    throw new IllegalArgumentException("Date type " + outputType + " not supported");
-                }
+                results.add(TritonServerRawContents.decode(byteStringResponse, outputDescriptor));
             }
         }
 
         return results;
     }
 
-    private List<Byte> bufferToBytes(ByteBuffer buffer) {
-        List<Byte> byteList = new ArrayList<>();
-        if (buffer.capacity() < 4) {
-            throw new IllegalArgumentException("Too few bytes in buffer; cannot read array length");
-        }
-        buffer.getInt();
-        while (buffer.hasRemaining()) {
-            byteList.add(buffer.get());
-        }
-        return byteList;
-    }
-
-    private List<Float> bufferToFloatList(FloatBuffer buffer) {
-        List<Float> floatList = new ArrayList<>();
-        float[] floatArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                floatArray = buffer.array();
-            } else {
-                floatArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            floatArray = new float[buffer.remaining()];
-            buffer.get(floatArray);
-        }
-        for (float floatValue : floatArray) {
-            floatList.add(floatValue);
-        }
-        return floatList;
-    }
-
-    private List<Double> bufferToDoubleList(DoubleBuffer buffer) {
-        List<Double> doubleList = new ArrayList<>();
-        double[] doubleArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                doubleArray = buffer.array();
-            } else {
-                doubleArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            doubleArray = new double[buffer.remaining()];
-            buffer.get(doubleArray);
-        }
-        for (double doubleValue : doubleArray) {
-            doubleList.add(doubleValue);
-        }
-        return doubleList;
-    }
-
-    private List<Long> bufferToLongList(LongBuffer buffer) {
-        List<Long> longList = new ArrayList<>();
-        long[] longArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                longArray = buffer.array();
-            } else {
-                longArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            longArray = new long[buffer.remaining()];
-            buffer.get(longArray);
-        }
-        for (long longValue : longArray) {
-            longList.add(longValue);
-        }
-        return longList;
-    }
-
-    private List<Integer> bufferToIntList(IntBuffer buffer) {
-        List<Integer> intList = new ArrayList<>();
-        int[] intArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                intArray = buffer.array();
-            } else {
-                intArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            intArray = new int[buffer.remaining()];
-            buffer.get(intArray);
-        }
-        for (int intValue : intArray) {
-            intList.add(intValue);
-        }
-        return intList;
-    }
-
-    private List<Short> bufferToShortList(ShortBuffer buffer) {
-        List<Short> shortList = new ArrayList<>();
-        short[] shortArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                shortArray = buffer.array();
-            } else {
-                shortArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            shortArray = new short[buffer.remaining()];
-            buffer.get(shortArray);
-        }
-        for (short shortValue : shortArray) {
-            shortList.add(shortValue);
-        }
-        return shortList;
-    }
-
-    private List<Byte> bufferToByteList(ByteBuffer buffer) {
-        List<Byte> byteList = new ArrayList<>();
-        byte[] byteArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                byteArray = buffer.array();
-            } else {
-                byteArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            byteArray = new byte[buffer.remaining()];
-            buffer.get(byteArray);
-        }
-        for (byte byteValue : byteArray) {
-            byteList.add(byteValue);
-        }
-        return byteList;
-    }
-
-    private List<Boolean> bufferToBooleanList(ByteBuffer buffer) {
-        List<Boolean> booleanList = new ArrayList<>();
-        byte[] byteArray;
-        if (buffer.hasArray()) {
-            if (buffer.arrayOffset() == 0) {
-                byteArray = buffer.array();
-            } else {
-                byteArray = Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.array().length);
-            }
-        } else {
-            buffer.rewind();
-            byteArray = new byte[buffer.remaining()];
-            buffer.get(byteArray);
-        }
-        for (byte byteValue : byteArray) {
-            booleanList.add(byteValue == 0x01);
-        }
-        return booleanList;
-    }
-
     private static void sleepFor(long timeout) {
         try {
             Thread.sleep(timeout);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -43,10 +43,18 @@ public class TritonServerServiceOptions {
     private static final String PROPERTY_LOCAL = "enable.local";
     private static final String PROPERTY_TIMEOUT = "timeout";
     private static final String PROPERTY_MAX_GRPC_MESSAGE_SIZE = "grpc.max.size";
+    private static final String PROPERTY_GRPC_CHANNELS = "grpc.channels";
+    private static final String PROPERTY_GRPC_KEEPALIVE_TIME = "grpc.keepalive.time";
+    private static final String PROPERTY_GRPC_KEEPALIVE_TIMEOUT = "grpc.keepalive.timeout";
+    private static final String PROPERTY_GRPC_FLOW_CONTROL_WINDOW = "grpc.flow.control.window";
     private final Map<String, Object> properties;
 
     private static final int RETRY_INTERVAL = 500; // ms
     private static final int DEFAULT_MAX_GRPC_MESSAGE_SIZE = 4194304; // bytes
+    private static final int DEFAULT_GRPC_CHANNELS = 1;
+    private static final int DEFAULT_GRPC_KEEPALIVE_TIME = 0; // s, disabled
+    private static final int DEFAULT_GRPC_KEEPALIVE_TIMEOUT = 20; // s
+    private static final int DEFAULT_GRPC_FLOW_CONTROL_WINDOW = 1048576; // bytes
 
     private final int httpPort;
     private final int grpcPort;
@@ -55,6 +63,10 @@ public class TritonServerServiceOptions {
     private final int timeout;
     private final int nRetries;
     private final int grpcMaxMessageSize;
+    private final int grpcChannels;
+    private final int grpcKeepAliveTime;
+    private final int grpcKeepAliveTimeout;
+    private final int grpcFlowControlWindow;
     private final Optional<Long> containerMemory;
     private final Optional<Float> containerCpus;
     private final Optional<String> containerGpus;
@@ -106,6 +118,13 @@ public class TritonServerServiceOptions {
             this.grpcMaxMessageSize = DEFAULT_MAX_GRPC_MESSAGE_SIZE;
         }
 
+        this.grpcChannels = getPositiveIntegerProperty(PROPERTY_GRPC_CHANNELS, DEFAULT_GRPC_CHANNELS);
+        this.grpcKeepAliveTime = getPositiveIntegerProperty(PROPERTY_GRPC_KEEPALIVE_TIME, DEFAULT_GRPC_KEEPALIVE_TIME);
+        this.grpcKeepAliveTimeout = getPositiveIntegerProperty(PROPERTY_GRPC_KEEPALIVE_TIMEOUT,
+                DEFAULT_GRPC_KEEPALIVE_TIMEOUT);
+        this.grpcFlowControlWindow = getPositiveIntegerProperty(PROPERTY_GRPC_FLOW_CONTROL_WINDOW,
+                DEFAULT_GRPC_FLOW_CONTROL_WINDOW);
+
         final Object propertyContainerMemory = properties.get(CONTAINER_MEMORY);
         if (propertyContainerMemory instanceof String) {
             this.containerMemory = parseMemoryString(Optional.of((String) propertyContainerMemory));
@@ -212,6 +231,22 @@ public class TritonServerServiceOptions {
         return this.grpcMaxMessageSize;
     }
 
+    public int getGrpcChannels() {
+        return this.grpcChannels;
+    }
+
+    public int getGrpcKeepAliveTime() {
+        return this.grpcKeepAliveTime;
+    }
+
+    public int getGrpcKeepAliveTimeout() {
+        return this.grpcKeepAliveTimeout;
+    }
+
+    public int getGrpcFlowControlWindow() {
+        return this.grpcFlowControlWindow;
+    }
+
     public Optional<Long> getContainerMemory() {
         return this.containerMemory;
     }
@@ -233,6 +268,14 @@ public class TritonServerServiceOptions {
         return stringProperty;
     }
 
+    private int getPositiveIntegerProperty(String propertyName, int defaultValue) {
+        final Object propertyValue = this.properties.get(propertyName);
+        if (propertyValue instanceof Integer && (Integer) propertyValue > 0) {
+            return (Integer) propertyValue;
+        }
+        return defaultValue;
+    }
+
     private Optional<Long> parseMemoryString(Optional<String> value) {
         if (value.isPresent() && !value.get().trim().isEmpty()) {
             String stringValue = value.get().trim();
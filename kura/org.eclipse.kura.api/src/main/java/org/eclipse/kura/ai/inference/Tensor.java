@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -12,14 +12,21 @@
  ******************************************************************************/
 package org.eclipse.kura.ai.inference;
 
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 
 import org.osgi.annotation.versioning.ProviderType;
 
 /**
  * The Tensor class represents the input or output of a model
  * for Artificial Intelligence and Machine Learning algorithms
+ * <br>
+ * The data of a tensor can be provided as a list of values or as a {@link ByteBuffer} containing the values in
+ * their binary representation. In the latter case the list returned by {@link #getData(Class)} is a read only view
+ * of the buffer and the values are decoded only when accessed.
  *
  * @since 2.3
  */
@@ -29,6 +36,7 @@ public class Tensor {
     private final TensorDescriptor descriptor;
     private final Class<?> type;
     private final List<?> data;
+    private final ByteBuffer buffer;
 
     /**
      * Instantiates a Tensor
@@ -44,6 +52,40 @@ public class Tensor {
         this.type = type;
         this.descriptor = descriptor;
         this.data = data;
+        this.buffer = null;
+    }
+
+    /**
+     * Instantiates a Tensor backed by a {@link ByteBuffer}
+     * <br>
+     * The tensor data consists of the bytes between the position and the limit of the buffer, that are not copied.
+     * Multi-byte values are decoded using the byte order of the buffer. Boolean values are represented by a single
+     * byte, any value different from 0 is decoded as {@code true}.
+     *
+     * @param type
+     *            the type of tensor data as Java class. Supported types are {@link Boolean}, {@link Byte},
+     *            {@link Short}, {@link Integer}, {@link Long}, {@link Float} and {@link Double}
+     * @param descriptor
+     *            the {@link TensorDescriptor} of this tensor
+     * @param buffer
+     *            the buffer containing the data of this tensor
+     * @throws IllegalArgumentException
+     *             if the type is not supported or the number of remaining bytes in the buffer is not a multiple of the
+     *             size of the type
+     * @since 2.6
+     */
+    public <T> Tensor(Class<T> type, TensorDescriptor descriptor, ByteBuffer buffer) {
+        final int elementSize = elementSize(type);
+
+        if (buffer.remaining() % elementSize != 0) {
+            throw new IllegalArgumentException(
+                    "The buffer size is not a multiple of the size of " + type.getSimpleName());
+        }
+
+        this.type = type;
+        this.descriptor = descriptor;
+        this.buffer = buffer.slice().order(buffer.order());
+        this.data = new BufferListView<>(type, this.buffer, elementSize);
     }
 
     /**
@@ -79,4 +121,81 @@ public class Tensor {
     public Class<?> getType() {
         return this.type;
     }
+
+    /**
+     * Return the buffer containing the data of the tensor, if the tensor is backed by a {@link ByteBuffer}
+     *
+     * @return a read only {@link ByteBuffer} with the byte order of the original buffer, or an empty optional if the
+     *         data of the tensor has been provided as a list
+     * @since 2.6
+     */
+    public Optional<ByteBuffer> getBuffer() {
+        if (this.buffer == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(this.buffer.asReadOnlyBuffer().order(this.buffer.order()));
+    }
+
+    private static int elementSize(final Class<?> type) {
+        if (type == Boolean.class || type == Byte.class) {
+            return Byte.BYTES;
+        } else if (type == Short.class) {
+            return Short.BYTES;
+        } else if (type == Integer.class || type == Float.class) {
+            return Integer.BYTES;
+        } else if (type == Long.class || type == Double.class) {
+            return Long.BYTES;
+        } else {
+            throw new IllegalArgumentException("Type " + type + " is not supported for buffer backed tensors");
+        }
+    }
+
+    private static final class BufferListView<T> extends AbstractList<T> implements RandomAccess {
+
+        private final Class<T> type;
+        private final ByteBuffer buffer;
+        private final int elementSize;
+        private final int size;
+
+        BufferListView(final Class<T> type, final ByteBuffer buffer, final int elementSize) {
+            this.type = type;
+            this.buffer = buffer;
+            this.elementSize = elementSize;
+            this.size = buffer.remaining() / elementSize;
+        }
+
+        @Override
+        public T get(final int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+
+            final int offset = index * this.elementSize;
+            final Object value;
+
+            if (this.type == Boolean.class) {
+                value = this.buffer.get(offset) != 0;
+            } else if (this.type == Byte.class) {
+                value = this.buffer.get(offset);
+            } else if (this.type == Short.class) {
+                value = this.buffer.getShort(offset);
+            } else if (this.type == Integer.class) {
+                value = this.buffer.getInt(offset);
+            } else if (this.type == Long.class) {
+                value = this.buffer.getLong(offset);
+            } else if (this.type == Float.class) {
+                value = this.buffer.getFloat(offset);
+            } else {
+                value = this.buffer.getDouble(offset);
+            }
+
+            return this.type.cast(value);
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+    }
 }
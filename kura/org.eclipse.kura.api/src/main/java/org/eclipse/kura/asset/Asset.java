@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@ package org.eclipse.kura.asset;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.channel.ChannelRecord;
@@ -93,6 +95,56 @@ public interface Asset {
      */
     public List<ChannelRecord> readAllChannels() throws KuraException;
 
+    /**
+     * Asynchronous version of {@link #read(Set)}. The returned {@link CompletionStage} is completed with the
+     * list of channel records when the read operation completes, or exceptionally with a {@link KuraException} in
+     * the cases in which {@link #read(Set)} would throw it.
+     * <br>
+     * Implementations should not block the calling thread while the driver performs the read operation. The default
+     * implementation performs the read operation synchronously and returns an already completed
+     * {@link CompletionStage}.
+     *
+     * @param channelNames
+     *            the set of channel names which are to be read.
+     * @return a {@link CompletionStage} completed with the list of channel records
+     * @since 2.6
+     */
+    public default CompletionStage<List<ChannelRecord>> readAsync(final Set<String> channelNames) {
+        final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+
+        try {
+            result.complete(read(channelNames));
+        } catch (final Exception e) {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Asynchronous version of {@link #readAllChannels()}. The returned {@link CompletionStage} is completed with
+     * the list of channel records when the read operation completes, or exceptionally with a {@link KuraException}
+     * in the cases in which {@link #readAllChannels()} would throw it.
+     * <br>
+     * Implementations should not block the calling thread while the driver performs the read operation. The default
+     * implementation performs the read operation synchronously and returns an already completed
+     * {@link CompletionStage}.
+     *
+     * @return a {@link CompletionStage} completed with the list of channel records
+     * @since 2.6
+     */
+    public default CompletionStage<List<ChannelRecord>> readAllChannelsAsync() {
+        final CompletableFuture<List<ChannelRecord>> result = new CompletableFuture<>();
+
+        try {
+            result.complete(readAllChannels());
+        } catch (final Exception e) {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
     /**
      * Registers a channel listener for the provided channel name for a monitor
      * operation on it.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2019, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -12,7 +12,11 @@
  ******************************************************************************/
 package org.eclipse.kura.executor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
 import org.osgi.annotation.versioning.ProviderType;
@@ -45,6 +49,39 @@ public interface CommandExecutorService {
      */
     public void execute(Command command, Consumer<CommandStatus> callback);
 
+    /**
+     * Asynchronously executes a system command. This method is intended for short lived commands: implementations may
+     * run the command through a pool of long running helper processes, that is busy until the command returns.
+     *
+     * @param command
+     *            the {@link Command} to be executed
+     * @return a {@link CompletionStage} completed with the {@link CommandStatus} when the command returns
+     * @since 2.6
+     */
+    public default CompletionStage<CommandStatus> executeAsync(Command command) {
+        final CompletableFuture<CommandStatus> result = new CompletableFuture<>();
+        execute(command, result::complete);
+        return result;
+    }
+
+    /**
+     * Synchronously executes a list of system commands, one after another in the given order. Every command is
+     * executed regardless of the exit status of the previous ones. Implementations may pipe the commands to a long
+     * running helper process instead of starting a new process for each of them.
+     *
+     * @param commands
+     *            the list of {@link Command}s to be executed
+     * @return the {@link CommandStatus} of each command, in the same order as the given commands
+     * @since 2.6
+     */
+    public default List<CommandStatus> executeBatch(List<Command> commands) {
+        final List<CommandStatus> result = new ArrayList<>(commands.size());
+        for (final Command command : commands) {
+            result.add(execute(command));
+        }
+        return result;
+    }
+
     /**
      * Stops the system process identified by the given {@link Pid}.
      *
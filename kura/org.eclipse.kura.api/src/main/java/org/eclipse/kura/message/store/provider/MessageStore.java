@@ -12,7 +12,11 @@
  ******************************************************************************/
 package org.eclipse.kura.message.store.provider;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 
 import org.eclipse.kura.KuraStoreException;
@@ -81,6 +85,25 @@ public interface MessageStore {
      */
     public void markAsConfirmed(int msgId) throws KuraStoreException;
 
+    /**
+     * Sets the value of the <code>confirmedOn</code> parameter of a group of
+     * messages to the current time. This method is equivalent to calling
+     * {@link #markAsConfirmed(int)} for each identifier in <code>msgIds</code>.
+     * <br>
+     * Implementations should apply all the updates in a single transaction, if
+     * supported by the underlying storage. The default implementation invokes the
+     * single message method.
+     *
+     * @param msgIds the identifiers of the confirmed messages.
+     * @throws KuraStoreException
+     * @since 2.6
+     */
+    public default void markAsConfirmed(List<Integer> msgIds) throws KuraStoreException {
+        for (final Integer msgId : msgIds) {
+            markAsConfirmed(msgId);
+        }
+    }
+
     /**
      * Gets the next message that should be published, if any.
      * 
@@ -102,6 +125,112 @@ public interface MessageStore {
      */
     public Optional<StoredMessage> getNextMessage() throws KuraStoreException;
 
+    /**
+     * Gets up to <code>maxCount</code> messages that should be published, if any.
+     * 
+     * The returned list must be sorted in the same order that would be obtained by
+     * repeatedly calling {@link #getNextMessage()} and marking each returned
+     * message as published. In other words, the returned messages must be the
+     * oldest ones between the messages with highest priority that have not been
+     * published yet.
+     * <br>
+     * The default implementation returns at most one message obtained by calling
+     * {@link #getNextMessage()}, implementations should override it to retrieve
+     * the messages with a single store access.
+     *
+     * @param maxCount the maximum number of messages to return, must be greater than 0.
+     * @return the list of next messages that should be published, possibly empty.
+     * @throws KuraStoreException
+     * @since 2.6
+     */
+    public default List<StoredMessage> getNextMessages(int maxCount) throws KuraStoreException {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be greater than 0");
+        }
+
+        final Optional<StoredMessage> next = getNextMessage();
+
+        if (next.isPresent()) {
+            return Collections.singletonList(next.get());
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Gets up to <code>maxCount</code> messages that should be published, whose
+     * <code>priority</code> is between <code>minPriority</code> and
+     * <code>maxPriority</code>, inclusive.
+     * 
+     * The returned list must be sorted in the same order as
+     * {@link #getNextMessages(int)}.
+     * <br>
+     * The default implementation filters the result of
+     * {@link #getUnpublishedMessages()} and loads each returned message with
+     * {@link #get(int)}, implementations should override it to retrieve the
+     * messages with a single store access.
+     *
+     * @param maxCount    the maximum number of messages to return, must be greater than 0.
+     * @param minPriority the minimum priority of the returned messages.
+     * @param maxPriority the maximum priority of the returned messages.
+     * @return the list of next messages that should be published, possibly empty.
+     * @throws KuraStoreException
+     * @since 2.6
+     */
+    public default List<StoredMessage> getNextMessages(int maxCount, int minPriority, int maxPriority)
+            throws KuraStoreException {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be greater than 0");
+        }
+
+        final List<StoredMessage> result = new ArrayList<>();
+
+        for (final StoredMessage message : getUnpublishedMessages()) {
+            if (result.size() >= maxCount) {
+                break;
+            }
+
+            if (message.getPriority() < minPriority || message.getPriority() > maxPriority) {
+                continue;
+            }
+
+            final Optional<StoredMessage> withPayload = get(message.getId());
+
+            if (withPayload.isPresent()) {
+                result.add(withPayload.get());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Marks a group of messages as published. This method is equivalent to calling
+     * {@link #markAsPublished(int)} for each identifier in <code>msgIds</code> and
+     * {@link #markAsPublished(int, DataTransportToken)} for each entry in
+     * <code>inFlightMessages</code>.
+     * <br>
+     * Implementations should apply all the updates in a single transaction, if
+     * supported by the underlying storage. The default implementation invokes the
+     * single message methods.
+     *
+     * @param msgIds           the identifiers of the published messages with QoS = 0.
+     * @param inFlightMessages the identifiers of the published messages with QoS >= 1,
+     *                         associated with the corresponding {@link DataTransportToken}.
+     * @throws KuraStoreException
+     * @since 2.6
+     */
+    public default void markAsPublished(List<Integer> msgIds, Map<Integer, DataTransportToken> inFlightMessages)
+            throws KuraStoreException {
+        for (final Integer msgId : msgIds) {
+            markAsPublished(msgId);
+        }
+
+        for (final Entry<Integer, DataTransportToken> e : inFlightMessages.entrySet()) {
+            markAsPublished(e.getKey(), e.getValue());
+        }
+    }
+
     /**
      * Retrieves the message with the given identifier from the store.
      * 
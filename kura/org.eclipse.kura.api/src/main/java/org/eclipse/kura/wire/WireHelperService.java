@@ -13,6 +13,10 @@
  ******************************************************************************/
 package org.eclipse.kura.wire;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.kura.wire.graph.WireDeliveryStatistics;
 import org.osgi.annotation.versioning.ProviderType;
 import org.osgi.framework.ServiceReference;
 
@@ -104,4 +108,15 @@ public interface WireHelperService {
      */
     public WireSupport newWireSupport(WireComponent wireComponent, ServiceReference<WireComponent> wireComponentRef);
 
+    /**
+     * Returns the delivery statistics of the Wires connected to the {@link WireSupport} instances created by this
+     * service whose envelopes are delivered asynchronously.
+     *
+     * @return the list of the delivery statistics, possibly empty
+     * @since 2.6
+     */
+    public default List<WireDeliveryStatistics> getWireDeliveryStatistics() {
+        return Collections.emptyList();
+    }
+
 }
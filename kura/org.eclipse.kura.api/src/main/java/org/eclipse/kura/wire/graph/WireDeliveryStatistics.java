@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.graph;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Represents the delivery statistics of a Wire whose envelopes are delivered asynchronously to the receiver
+ * component.
+ *
+ * @since 2.6
+ * @noextend This class is not intended to be extended by clients.
+ */
+@ProviderType
+public class WireDeliveryStatistics {
+
+    private final String emitterPid;
+    private final String receiverPid;
+    private final int emitterPort;
+    private final int receiverPort;
+    private final int queueDepth;
+    private final long deliveredCount;
+    private final long droppedCount;
+    private final long meanDeliveryLatencyNanos;
+    private final long maxDeliveryLatencyNanos;
+
+    private WireDeliveryStatistics(final Builder b) {
+        this.emitterPid = b.emitterPid;
+        this.receiverPid = b.receiverPid;
+        this.emitterPort = b.emitterPort;
+        this.receiverPort = b.receiverPort;
+        this.queueDepth = b.queueDepth;
+        this.deliveredCount = b.deliveredCount;
+        this.droppedCount = b.droppedCount;
+        this.meanDeliveryLatencyNanos = b.meanDeliveryLatencyNanos;
+        this.maxDeliveryLatencyNanos = b.maxDeliveryLatencyNanos;
+    }
+
+    /**
+     * Returns the pid of the emitter component of the Wire.
+     *
+     * @return the emitter pid.
+     */
+    public String getEmitterPid() {
+        return this.emitterPid;
+    }
+
+    /**
+     * Returns the pid of the receiver component of the Wire.
+     *
+     * @return the receiver pid.
+     */
+    public String getReceiverPid() {
+        return this.receiverPid;
+    }
+
+    /**
+     * Returns the emitter port of the Wire.
+     *
+     * @return the emitter port.
+     */
+    public int getEmitterPort() {
+        return this.emitterPort;
+    }
+
+    /**
+     * Returns the receiver port of the Wire.
+     *
+     * @return the receiver port.
+     */
+    public int getReceiverPort() {
+        return this.receiverPort;
+    }
+
+    /**
+     * Returns the number of envelopes emitted on the Wire that are waiting to be delivered to the receiver.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    /**
+     * Returns the number of envelopes delivered to the receiver since the Wire has been connected.
+     *
+     * @return the delivered envelope count.
+     */
+    public long getDeliveredCount() {
+        return this.deliveredCount;
+    }
+
+    /**
+     * Returns the number of envelopes discarded because the receiver queue was full, since the Wire has been
+     * connected.
+     *
+     * @return the dropped envelope count.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * Returns the mean time elapsed between the emission of an envelope and the completion of its delivery to the
+     * receiver, in nanoseconds.
+     *
+     * @return the mean delivery latency, or 0 if no envelopes have been delivered.
+     */
+    public long getMeanDeliveryLatencyNanos() {
+        return this.meanDeliveryLatencyNanos;
+    }
+
+    /**
+     * Returns the maximum time elapsed between the emission of an envelope and the completion of its delivery to the
+     * receiver, in nanoseconds.
+     *
+     * @return the maximum delivery latency, or 0 if no envelopes have been delivered.
+     */
+    public long getMaxDeliveryLatencyNanos() {
+        return this.maxDeliveryLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "WireDeliveryStatistics [emitterPid=" + this.emitterPid + ", emitterPort=" + this.emitterPort
+                + ", receiverPid=" + this.receiverPid + ", receiverPort=" + this.receiverPort + ", queueDepth="
+                + this.queueDepth + ", deliveredCount=" + this.deliveredCount + ", droppedCount=" + this.droppedCount
+                + ", meanDeliveryLatencyNanos=" + this.meanDeliveryLatencyNanos + ", maxDeliveryLatencyNanos="
+                + this.maxDeliveryLatencyNanos + "]";
+    }
+
+    /**
+     * A builder for {@link WireDeliveryStatistics} instances.
+     *
+     * @noextend This class is not intended to be extended by clients.
+     */
+    @ProviderType
+    public static class Builder {
+
+        private final String emitterPid;
+        private final String receiverPid;
+        private int emitterPort;
+        private int receiverPort;
+        private int queueDepth;
+        private long deliveredCount;
+        private long droppedCount;
+        private long meanDeliveryLatencyNanos;
+        private long maxDeliveryLatencyNanos;
+
+        public Builder(final String emitterPid, final String receiverPid) {
+            this.emitterPid = emitterPid;
+            this.receiverPid = receiverPid;
+        }
+
+        public Builder withEmitterPort(final int emitterPort) {
+            this.emitterPort = emitterPort;
+            return this;
+        }
+
+        public Builder withReceiverPort(final int receiverPort) {
+            this.receiverPort = receiverPort;
+            return this;
+        }
+
+        public Builder withQueueDepth(final int queueDepth) {
+            this.queueDepth = queueDepth;
+            return this;
+        }
+
+        public Builder withDeliveredCount(final long deliveredCount) {
+            this.deliveredCount = deliveredCount;
+            return this;
+        }
+
+        public Builder withDroppedCount(final long droppedCount) {
+            this.droppedCount = droppedCount;
+            return this;
+        }
+
+        public Builder withMeanDeliveryLatencyNanos(final long meanDeliveryLatencyNanos) {
+            this.meanDeliveryLatencyNanos = meanDeliveryLatencyNanos;
+            return this;
+        }
+
+        public Builder withMaxDeliveryLatencyNanos(final long maxDeliveryLatencyNanos) {
+            this.maxDeliveryLatencyNanos = maxDeliveryLatencyNanos;
+            return this;
+        }
+
+        public WireDeliveryStatistics build() {
+            return new WireDeliveryStatistics(this);
+        }
+    }
+}
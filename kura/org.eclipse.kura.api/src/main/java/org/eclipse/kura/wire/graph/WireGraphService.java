@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.eclipse.kura.wire.graph;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.kura.KuraException;
 import org.osgi.annotation.versioning.ProviderType;
 
@@ -55,4 +58,15 @@ public interface WireGraphService {
      */
     public WireGraphConfiguration get() throws KuraException;
 
+    /**
+     * Returns the delivery statistics of the Wires of the current graph whose envelopes are delivered asynchronously.
+     * Wires with synchronous delivery are not included in the result.
+     *
+     * @return the list of the delivery statistics, possibly empty
+     * @since 2.6
+     */
+    public default List<WireDeliveryStatistics> getWireDeliveryStatistics() {
+        return Collections.emptyList();
+    }
+
 }
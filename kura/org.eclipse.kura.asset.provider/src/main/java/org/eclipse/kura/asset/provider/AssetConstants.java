@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -52,7 +52,35 @@ public enum AssetConstants {
     VALUE_OFFSET(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "offset"),
 
     /** Unit Property to be used in the configuration. */
-    VALUE_UNIT(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "unit");
+    VALUE_UNIT(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "unit"),
+
+    /**
+     * Deadband type Property to be used in the configuration.
+     *
+     * @since 2.6
+     */
+    DEADBAND_TYPE(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "deadband.type"),
+
+    /**
+     * Deadband Property to be used in the configuration.
+     *
+     * @since 2.6
+     */
+    DEADBAND(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "deadband"),
+
+    /**
+     * Minimum reporting interval Property to be used in the configuration.
+     *
+     * @since 2.6
+     */
+    REPORT_MIN_INTERVAL(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "report.min.interval"),
+
+    /**
+     * Maximum reporting interval Property to be used in the configuration.
+     *
+     * @since 2.6
+     */
+    REPORT_MAX_INTERVAL(CHANNEL_DEFAULT_PROPERTY_PREFIX.value() + "report.max.interval");
 
     /** The value. */
     private String value;
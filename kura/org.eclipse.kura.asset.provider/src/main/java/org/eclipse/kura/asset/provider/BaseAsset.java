@@ -23,6 +23,7 @@ import static org.eclipse.kura.channel.ChannelType.READ_WRITE;
 import static org.eclipse.kura.channel.ChannelType.WRITE;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,6 +33,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -59,6 +63,7 @@ import org.eclipse.kura.core.configuration.metatype.Tocd;
 import org.eclipse.kura.driver.Driver;
 import org.eclipse.kura.driver.PreparedRead;
 import org.eclipse.kura.internal.asset.provider.BaseAssetConfiguration;
+import org.eclipse.kura.internal.asset.provider.ChannelReportFilter;
 import org.eclipse.kura.internal.asset.provider.DriverTrackerCustomizer;
 import org.eclipse.kura.type.DataType;
 import org.eclipse.kura.type.DoubleValue;
@@ -154,6 +159,10 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
 
     private final AtomicReference<DriverState> driverState = new AtomicReference<>();
 
+    private final Map<String, ChannelReadLatency.Accumulator> channelReadLatencies = new ConcurrentHashMap<>();
+
+    private Map<String, ChannelReportFilter> reportFilters = new HashMap<>();
+
     /**
      * OSGi service component callback while activation.
      *
@@ -182,6 +191,7 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         final long start = System.currentTimeMillis();
         try {
             this.config = new BaseAssetConfiguration(getOCD(), this.context, properties);
+            this.reportFilters = createReportFilters(this.config.getAssetConfiguration().getAssetChannels());
         } catch (final Exception e) {
             logger.warn("Failed to retrieve properties from config", e);
         }
@@ -328,10 +338,71 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
             throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Driver not attached");
         }
 
+        final List<ChannelRecord> channelRecords = unwrap(submitReadAllChannels(state));
+
+        logger.debug("Reading asset channels...Done");
+        return channelRecords;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletionStage<List<ChannelRecord>> readAllChannelsAsync() {
+        final DriverState state = this.driverState.get();
+
+        if (state == null) {
+            return failedFuture(new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Driver not attached"));
+        }
+
+        return wrapFailure(submitReadAllChannels(state));
+    }
+
+    /**
+     * Reads all the READ and READ_WRITE channels like {@link #readAllChannels()}, but returns only the records that
+     * should be reported according to the deadband and reporting interval configuration of each channel. The records
+     * that are not reported are discarded before scale and offset are applied.
+     *
+     * @return the records to be reported, the list can be empty
+     * @throws KuraException
+     *             if the driver is not attached or the read operation fails
+     * @since 2.6
+     */
+    protected List<ChannelRecord> readAllReportedChannels() throws KuraException {
+        final DriverState state = this.driverState.get();
+
+        if (state == null) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Driver not attached");
+        }
+
+        return unwrap(submitReadAllChannels(state, this.reportFilters));
+    }
+
+    /**
+     * Asynchronous version of {@link #readAllReportedChannels()}.
+     *
+     * @return a {@link CompletionStage} completed with the records to be reported
+     * @since 2.6
+     */
+    protected CompletionStage<List<ChannelRecord>> readAllReportedChannelsAsync() {
+        final DriverState state = this.driverState.get();
+
+        if (state == null) {
+            return failedFuture(new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Driver not attached"));
+        }
+
+        return wrapFailure(submitReadAllChannels(state, this.reportFilters));
+    }
+
+    private CompletableFuture<List<ChannelRecord>> submitReadAllChannels(final DriverState state) {
+        return submitReadAllChannels(state, Collections.emptyMap());
+    }
+
+    private CompletableFuture<List<ChannelRecord>> submitReadAllChannels(final DriverState state,
+            final Map<String, ChannelReportFilter> filters) {
         final BaseAssetConfiguration conf = this.config;
 
-        final List<ChannelRecord> channelRecords = unwrap(this.executor.runIO(() -> {
+        return this.executor.runIO(() -> {
             final List<ChannelRecord> records;
+            final long start = System.nanoTime();
             final PreparedRead preparedRead = state.getPreparedRead();
             if (preparedRead != null) {
                 records = preparedRead.execute();
@@ -341,11 +412,10 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
                     state.getDriver().read(records);
                 }
             }
-            return records;
-        }));
-
-        logger.debug("Reading asset channels...Done");
-        return getFinalRecords(channelRecords, this.config.getAssetConfiguration().getAssetChannels());
+            recordReadLatency(records, System.nanoTime() - start);
+            return getFinalRecords(getReportedRecords(records, filters),
+                    conf.getAssetConfiguration().getAssetChannels());
+        });
     }
 
     private void validateChannel(final Channel channel, final EnumSet<ChannelType> allowedTypes,
@@ -370,6 +440,26 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
             throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Driver not attached");
         }
 
+        final List<ChannelRecord> channelRecords = unwrap(submitRead(state, channelNames));
+
+        logger.debug("Reading asset channels...Done");
+        return channelRecords;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletionStage<List<ChannelRecord>> readAsync(final Set<String> channelNames) {
+        final DriverState state = this.driverState.get();
+
+        if (state == null) {
+            return failedFuture(new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Driver not attached"));
+        }
+
+        return wrapFailure(submitRead(state, channelNames));
+    }
+
+    private CompletableFuture<List<ChannelRecord>> submitRead(final DriverState state,
+            final Set<String> channelNames) {
         final Map<String, Channel> channels = this.config.getAssetConfiguration().getAssetChannels();
 
         final List<ChannelRecord> channelRecords = new ArrayList<>(channelNames.size());
@@ -394,14 +484,77 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
             channelRecords.add(record);
         }
 
-        if (!validRecords.isEmpty()) {
-            unwrap(this.executor.runIO(() -> {
-                state.getDriver().read(validRecords);
-                return null;
-            }));
+        if (validRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(getFinalRecords(channelRecords, channels));
         }
-        logger.debug("Reading asset channels...Done");
-        return getFinalRecords(channelRecords, channels);
+
+        return this.executor.runIO(() -> {
+            final long start = System.nanoTime();
+            state.getDriver().read(validRecords);
+            recordReadLatency(validRecords, System.nanoTime() - start);
+            return getFinalRecords(channelRecords, channels);
+        });
+    }
+
+    /**
+     * Returns the read latency statistics of the channels of this asset that have been read at least once, indexed
+     * by channel name.
+     *
+     * @return the read latency statistics
+     * @since 2.6
+     */
+    public Map<String, ChannelReadLatency> getChannelReadLatencies() {
+        final Map<String, ChannelReadLatency> result = new HashMap<>();
+
+        for (final Map.Entry<String, ChannelReadLatency.Accumulator> e : this.channelReadLatencies.entrySet()) {
+            result.put(e.getKey(), e.getValue().get());
+        }
+
+        return result;
+    }
+
+    private void recordReadLatency(final List<ChannelRecord> records, final long latencyNanos) {
+        for (final ChannelRecord record : records) {
+            final String channelName = record.getChannelName();
+
+            if (channelName != null) {
+                this.channelReadLatencies.computeIfAbsent(channelName, n -> new ChannelReadLatency.Accumulator())
+                        .add(latencyNanos);
+            }
+        }
+    }
+
+    private static Map<String, ChannelReportFilter> createReportFilters(final Map<String, Channel> channels) {
+        final Map<String, ChannelReportFilter> result = new HashMap<>();
+
+        for (final Channel channel : channels.values()) {
+            final ChannelReportFilter filter = ChannelReportFilter.forChannel(channel);
+
+            if (!filter.isPassThrough()) {
+                result.put(channel.getName(), filter);
+            }
+        }
+
+        return result;
+    }
+
+    private static List<ChannelRecord> getReportedRecords(final List<ChannelRecord> records,
+            final Map<String, ChannelReportFilter> filters) {
+        if (filters.isEmpty()) {
+            return records;
+        }
+
+        final List<ChannelRecord> result = new ArrayList<>(records.size());
+
+        for (final ChannelRecord record : records) {
+            final ChannelReportFilter filter = filters.get(record.getChannelName());
+
+            if (filter == null || filter.shouldReport(record)) {
+                result.add(record);
+            }
+        }
+
+        return result;
     }
 
     protected List<ChannelRecord> getFinalRecords(List<ChannelRecord> channelRecords, Map<String, Channel> channels) {
@@ -570,6 +723,30 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         logger.debug("Writing to channels...Done");
     }
 
+    private static <T> CompletableFuture<T> failedFuture(final Throwable error) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        result.completeExceptionally(error);
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> wrapFailure(final CompletableFuture<T> future) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+
+            final Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            result.completeExceptionally(new KuraException(KuraErrorCode.CONNECTION_FAILED, cause, cause.getMessage()));
+        });
+
+        return result;
+    }
+
     private static <T> T unwrap(final CompletableFuture<T> future) throws KuraException {
         try {
             return future.get();
@@ -618,11 +795,13 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
 
         private final ChannelListener listener;
         private final Channel channel;
+        private final ChannelReportFilter reportFilter;
 
         public ChannelListenerHolder(Channel channel,
                 ChannelListener listener) {
             this.channel = channel;
             this.listener = listener;
+            this.reportFilter = ChannelReportFilter.forChannel(channel);
         }
 
         public String getChannelName() {
@@ -637,6 +816,10 @@ public class BaseAsset implements Asset, SelfConfiguringComponent {
         public void onChannelEvent(ChannelEvent event) {
             final ChannelRecord originaRecord = event.getChannelRecord();
 
+            if (!this.reportFilter.shouldReport(originaRecord)) {
+                return;
+            }
+
             if (shouldApplyScaleAndOffset(originaRecord, channel)) {
                 final ChannelRecord cloned = cloneRecord(originaRecord);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,11 @@
  *******************************************************************************/
 package org.eclipse.kura.asset.provider;
 
+import static org.eclipse.kura.asset.provider.AssetConstants.DEADBAND;
+import static org.eclipse.kura.asset.provider.AssetConstants.DEADBAND_TYPE;
 import static org.eclipse.kura.asset.provider.AssetConstants.NAME;
+import static org.eclipse.kura.asset.provider.AssetConstants.REPORT_MAX_INTERVAL;
+import static org.eclipse.kura.asset.provider.AssetConstants.REPORT_MIN_INTERVAL;
 import static org.eclipse.kura.asset.provider.AssetConstants.TYPE;
 import static org.eclipse.kura.asset.provider.AssetConstants.VALUE_OFFSET;
 import static org.eclipse.kura.asset.provider.AssetConstants.VALUE_SCALE;
@@ -29,6 +33,7 @@ import org.eclipse.kura.core.configuration.metatype.Tad;
 import org.eclipse.kura.core.configuration.metatype.Toption;
 import org.eclipse.kura.core.configuration.metatype.Tscalar;
 import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.internal.asset.provider.ChannelReportFilter.DeadbandType;
 import org.eclipse.kura.type.DataType;
 import org.eclipse.kura.util.collection.CollectionUtil;
 
@@ -160,6 +165,57 @@ public class BaseChannelDescriptor implements ChannelDescriptor {
         valueUnit.setDefault("");
 
         this.defaultElements.add(valueUnit);
+
+        final Tad deadbandType = new Tad();
+        deadbandType.setName(DEADBAND_TYPE.value().substring(1));
+        deadbandType.setId(DEADBAND_TYPE.value());
+        deadbandType.setDescription(
+                "Deadband applied to the channel values before reporting them. NONE reports every value, ABSOLUTE"
+                        + " reports a value if it differs from the last reported one by more than deadband,"
+                        + " PERCENT reports a value if it differs from the last reported one by more than"
+                        + " deadband percent of it. Values are compared after applying scale and offset, non"
+                        + " numeric values are reported when they change. Changes of the channel status are"
+                        + " always reported.");
+        deadbandType.setType(Tscalar.STRING);
+        deadbandType.setRequired(false);
+        deadbandType.setDefault(DeadbandType.NONE.name());
+
+        addOptions(deadbandType, DeadbandType.values());
+
+        this.defaultElements.add(deadbandType);
+
+        final Tad deadband = new Tad();
+        deadband.setName(DEADBAND.value().substring(1));
+        deadband.setId(DEADBAND.value());
+        deadband.setDescription(
+                "Deadband value, in channel units for ABSOLUTE or in percent for PERCENT deadband type");
+        deadband.setType(Tscalar.DOUBLE);
+        deadband.setRequired(false);
+        deadband.setDefault("0");
+
+        this.defaultElements.add(deadband);
+
+        final Tad reportMinInterval = new Tad();
+        reportMinInterval.setName(REPORT_MIN_INTERVAL.value().substring(1));
+        reportMinInterval.setId(REPORT_MIN_INTERVAL.value());
+        reportMinInterval.setDescription(
+                "Minimum time in milliseconds between two reported values of the channel, 0 means no limit");
+        reportMinInterval.setType(Tscalar.LONG);
+        reportMinInterval.setRequired(false);
+        reportMinInterval.setDefault("0");
+
+        this.defaultElements.add(reportMinInterval);
+
+        final Tad reportMaxInterval = new Tad();
+        reportMaxInterval.setName(REPORT_MAX_INTERVAL.value().substring(1));
+        reportMaxInterval.setId(REPORT_MAX_INTERVAL.value());
+        reportMaxInterval.setDescription("If the deadband or the minimum reporting interval are enabled, the next value"
+                + " read after this time in milliseconds since the last report is always reported, 0 means disabled");
+        reportMaxInterval.setType(Tscalar.LONG);
+        reportMaxInterval.setRequired(false);
+        reportMaxInterval.setDefault("0");
+
+        this.defaultElements.add(reportMaxInterval);
     }
 
     /** {@inheritDoc} */
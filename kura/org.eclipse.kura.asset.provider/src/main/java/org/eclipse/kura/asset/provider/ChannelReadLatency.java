@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.asset.provider;
+
+/**
+ * Statistics about the time spent by the driver to read a channel.
+ * <br>
+ * The latency of a read operation is the time elapsed between the invocation of the driver read method and its
+ * completion, all the channels read in the same driver request share the same latency.
+ *
+ * @since 2.6
+ */
+public final class ChannelReadLatency {
+
+    private final long readCount;
+    private final long lastLatencyNanos;
+    private final long meanLatencyNanos;
+    private final long maxLatencyNanos;
+
+    ChannelReadLatency(final long readCount, final long lastLatencyNanos, final long meanLatencyNanos,
+            final long maxLatencyNanos) {
+        this.readCount = readCount;
+        this.lastLatencyNanos = lastLatencyNanos;
+        this.meanLatencyNanos = meanLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /**
+     * Returns the number of read operations performed on the channel.
+     *
+     * @return the read count
+     */
+    public long getReadCount() {
+        return this.readCount;
+    }
+
+    /**
+     * Returns the latency of the last read operation, in nanoseconds.
+     *
+     * @return the last latency
+     */
+    public long getLastLatencyNanos() {
+        return this.lastLatencyNanos;
+    }
+
+    /**
+     * Returns the mean latency of the read operations, in nanoseconds.
+     *
+     * @return the mean latency
+     */
+    public long getMeanLatencyNanos() {
+        return this.meanLatencyNanos;
+    }
+
+    /**
+     * Returns the maximum latency of the read operations, in nanoseconds.
+     *
+     * @return the maximum latency
+     */
+    public long getMaxLatencyNanos() {
+        return this.maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelReadLatency [readCount=" + this.readCount + ", lastLatencyNanos=" + this.lastLatencyNanos
+                + ", meanLatencyNanos=" + this.meanLatencyNanos + ", maxLatencyNanos=" + this.maxLatencyNanos + "]";
+    }
+
+    static final class Accumulator {
+
+        private long readCount;
+        private long lastLatencyNanos;
+        private long totalLatencyNanos;
+        private long maxLatencyNanos;
+
+        synchronized void add(final long latencyNanos) {
+            this.readCount++;
+            this.lastLatencyNanos = latencyNanos;
+            this.totalLatencyNanos += latencyNanos;
+            this.maxLatencyNanos = Math.max(this.maxLatencyNanos, latencyNanos);
+        }
+
+        synchronized ChannelReadLatency get() {
+            return new ChannelReadLatency(this.readCount, this.lastLatencyNanos,
+                    this.readCount == 0 ? 0 : this.totalLatencyNanos / this.readCount, this.maxLatencyNanos);
+        }
+    }
+}
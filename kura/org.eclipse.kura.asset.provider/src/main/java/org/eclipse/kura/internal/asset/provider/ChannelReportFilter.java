@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.asset.provider;
+
+import static org.eclipse.kura.asset.provider.AssetConstants.DEADBAND;
+import static org.eclipse.kura.asset.provider.AssetConstants.DEADBAND_TYPE;
+import static org.eclipse.kura.asset.provider.AssetConstants.REPORT_MAX_INTERVAL;
+import static org.eclipse.kura.asset.provider.AssetConstants.REPORT_MIN_INTERVAL;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.channel.Channel;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.type.TypedValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether the records produced by a driver for a channel should be reported, according to the report by
+ * exception settings of the channel.
+ * <br>
+ * A record is reported if one of the following conditions is true:
+ * <ul>
+ * <li>it is the first record seen by the filter</li>
+ * <li>its {@link ChannelFlag} differs from the one of the last reported record</li>
+ * <li>the maximum reporting interval has elapsed since the last report</li>
+ * <li>the minimum reporting interval has elapsed since the last report and its value is outside of the deadband
+ * around the value of the last reported record</li>
+ * </ul>
+ * Numeric values are compared after applying the channel scale and offset, without modifying the record. Non numeric
+ * values are reported whenever they change. Failure records with an unchanged flag are reported only when the maximum
+ * reporting interval elapses.
+ * <br>
+ * Instances are thread safe.
+ */
+public final class ChannelReportFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelReportFilter.class);
+
+    private static final ChannelReportFilter PASS_THROUGH = new ChannelReportFilter(DeadbandType.NONE, 0, 1.0d, 0.0d,
+            0, 0);
+
+    public enum DeadbandType {
+        NONE,
+        ABSOLUTE,
+        PERCENT
+    }
+
+    private final DeadbandType deadbandType;
+    private final double deadband;
+    private final double scale;
+    private final double offset;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+
+    private boolean hasReported;
+    private ChannelFlag lastFlag;
+    private TypedValue<?> lastValue;
+    private long lastReportNanos;
+
+    private ChannelReportFilter(final DeadbandType deadbandType, final double deadband, final double scale,
+            final double offset, final long minIntervalMs, final long maxIntervalMs) {
+        this.deadbandType = deadbandType;
+        this.deadband = Math.abs(deadband);
+        this.scale = scale;
+        this.offset = offset;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minIntervalMs));
+        this.maxIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxIntervalMs));
+    }
+
+    /**
+     * Creates a new filter for the provided channel. The returned filter reports every record if the channel has no
+     * deadband and no minimum reporting interval.
+     *
+     * @param channel
+     *            the channel
+     * @return the filter
+     */
+    public static ChannelReportFilter forChannel(final Channel channel) {
+        final Map<String, Object> properties = channel.getConfiguration();
+
+        if (properties == null) {
+            return PASS_THROUGH;
+        }
+
+        final DeadbandType deadbandType = getDeadbandType(channel.getName(), properties);
+        final long minIntervalMs = getLong(channel.getName(), properties, REPORT_MIN_INTERVAL.value());
+
+        if (deadbandType == DeadbandType.NONE && minIntervalMs <= 0) {
+            return PASS_THROUGH;
+        }
+
+        return new ChannelReportFilter(deadbandType, getDouble(channel.getName(), properties, DEADBAND.value()),
+                channel.getValueScale(), channel.getValueOffset(), minIntervalMs,
+                getLong(channel.getName(), properties, REPORT_MAX_INTERVAL.value()));
+    }
+
+    /**
+     * Returns whether this filter reports every record.
+     *
+     * @return true if every record is reported
+     */
+    public boolean isPassThrough() {
+        return this == PASS_THROUGH;
+    }
+
+    /**
+     * Returns whether the provided record should be reported. If it should, the record becomes the new reference for
+     * subsequent records.
+     *
+     * @param record
+     *            the record, as produced by the driver, before scale and offset are applied
+     * @return true if the record should be reported
+     */
+    public boolean shouldReport(final ChannelRecord record) {
+        if (this == PASS_THROUGH) {
+            return true;
+        }
+
+        final long now = System.nanoTime();
+        final ChannelStatus status = record.getChannelStatus();
+        final ChannelFlag flag = status != null ? status.getChannelFlag() : null;
+        final TypedValue<?> value = record.getValue();
+
+        synchronized (this) {
+            final boolean report;
+
+            if (!this.hasReported || flag != this.lastFlag) {
+                report = true;
+            } else {
+                final long elapsed = now - this.lastReportNanos;
+
+                if (this.maxIntervalNanos > 0 && elapsed >= this.maxIntervalNanos) {
+                    report = true;
+                } else if (elapsed < this.minIntervalNanos || flag != ChannelFlag.SUCCESS) {
+                    report = false;
+                } else {
+                    report = isOutsideDeadband(value);
+                }
+            }
+
+            if (report) {
+                this.hasReported = true;
+                this.lastFlag = flag;
+                this.lastValue = value;
+                this.lastReportNanos = now;
+            }
+
+            return report;
+        }
+    }
+
+    private boolean isOutsideDeadband(final TypedValue<?> value) {
+        if (this.deadbandType == DeadbandType.NONE) {
+            return true;
+        }
+
+        final Object current = value != null ? value.getValue() : null;
+        final Object last = this.lastValue != null ? this.lastValue.getValue() : null;
+
+        if (!(current instanceof Number) || !(last instanceof Number)) {
+            return !Objects.equals(value, this.lastValue);
+        }
+
+        final double currentScaled = ((Number) current).doubleValue() * this.scale + this.offset;
+        final double lastScaled = ((Number) last).doubleValue() * this.scale + this.offset;
+
+        if (Double.isNaN(currentScaled) || Double.isNaN(lastScaled)) {
+            return Double.compare(currentScaled, lastScaled) != 0;
+        }
+
+        final double delta = Math.abs(currentScaled - lastScaled);
+
+        if (this.deadbandType == DeadbandType.PERCENT) {
+            return delta > Math.abs(lastScaled) * this.deadband / 100.0d;
+        }
+
+        return delta > this.deadband;
+    }
+
+    private static DeadbandType getDeadbandType(final String channelName, final Map<String, Object> properties) {
+        final Object value = properties.get(DEADBAND_TYPE.value());
+
+        if (value == null || value.toString().isEmpty()) {
+            return DeadbandType.NONE;
+        }
+
+        try {
+            return DeadbandType.valueOf(value.toString());
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Invalid deadband type {} for channel {}, deadband disabled", value, channelName);
+            return DeadbandType.NONE;
+        }
+    }
+
+    private static double getDouble(final String channelName, final Map<String, Object> properties,
+            final String key) {
+        final Object value = properties.get(key);
+
+        if (value == null || value.toString().isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (final NumberFormatException e) {
+            logger.warn("Invalid value {} for property {} of channel {}, using 0", value, key, channelName);
+            return 0;
+        }
+    }
+
+    private static long getLong(final String channelName, final Map<String, Object> properties, final String key) {
+        final Object value = properties.get(key);
+
+        if (value == null || value.toString().isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(value.toString());
+        } catch (final NumberFormatException e) {
+            logger.warn("Invalid value {} for property {} of channel {}, using 0", value, key, channelName);
+            return 0;
+        }
+    }
+}
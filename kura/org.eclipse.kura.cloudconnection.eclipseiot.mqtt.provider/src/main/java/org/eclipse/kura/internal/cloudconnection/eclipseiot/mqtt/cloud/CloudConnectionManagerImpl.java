@@ -28,6 +28,7 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
@@ -59,6 +60,9 @@ import org.eclipse.kura.cloudconnection.subscriber.listener.CloudSubscriberListe
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.core.data.DataServiceImpl;
+import org.eclipse.kura.core.util.CompressionDictionary;
+import org.eclipse.kura.core.util.CompressionDictionaryTrainer;
+import org.eclipse.kura.core.util.DictionaryDeflateUtil;
 import org.eclipse.kura.data.DataService;
 import org.eclipse.kura.data.listener.DataServiceListener;
 import org.eclipse.kura.internal.cloudconnection.eclipseiot.mqtt.message.MessageType;
@@ -97,6 +101,9 @@ public class CloudConnectionManagerImpl
 
     private static final int NUM_CONCURRENT_CALLBACKS = 2;
 
+    private static final int DICTIONARY_MAX_SIZE = 4096;
+    private static final int DICTIONARY_REFRESH_INTERVAL = 256;
+
     private static ExecutorService callbackExecutor = Executors.newFixedThreadPool(NUM_CONCURRENT_CALLBACKS);
 
     private ComponentContext ctx;
@@ -135,6 +142,9 @@ public class CloudConnectionManagerImpl
     private ScheduledFuture<?> scheduledBirthPublisherFuture;
     private ScheduledExecutorService scheduledBirthPublisher = Executors.newScheduledThreadPool(1);
 
+    private final CompressionDictionaryTrainer dictionaryTrainer = new CompressionDictionaryTrainer(
+            DICTIONARY_MAX_SIZE, DICTIONARY_REFRESH_INTERVAL);
+
     public CloudConnectionManagerImpl() {
         this.messageId = new AtomicInteger();
         this.registeredCloudConnectionListeners = new CopyOnWriteArraySet<>();
@@ -600,6 +610,7 @@ public class CloudConnectionManagerImpl
 
     private void setupCloudConnection(boolean isNewConnection) throws KuraException {
         publishBirthCertificate(isNewConnection);
+        republishDictionary();
         setupDeviceSubscriptions();
     }
 
@@ -627,6 +638,55 @@ public class CloudConnectionManagerImpl
         publishLifeCycleMessage(new LifecycleMessage(this.options, this).asDisconnectCertificateMessage());
     }
 
+    private void republishDictionary() throws KuraException {
+        final Optional<CompressionDictionary> dictionary = this.dictionaryTrainer.getDictionary();
+
+        if (isDictionaryEncodingEnabled() && dictionary.isPresent()) {
+            publishDictionary(dictionary.get());
+        }
+    }
+
+    private boolean isDictionaryEncodingEnabled() {
+        return this.options.getEncodeGzip() && this.options.getEncodeCodec() == CloudPayloadCodec.DICTIONARY;
+    }
+
+    private void publishDictionary(CompressionDictionary dictionary) throws KuraException {
+        DictionaryDeflateUtil.registerDictionary(dictionary);
+
+        // the dictionary message itself must be decodable without the dictionary
+        LifecycleMessage message = new LifecycleMessage(this.options, this).asDictionaryMessage(dictionary);
+        message.getPayload().setTimestamp(new Date());
+
+        byte[] encodedPayload;
+        try {
+            encodedPayload = new CloudPayloadProtoBufEncoderImpl(message.getPayload()).getBytes();
+        } catch (IOException e) {
+            throw new KuraException(KuraErrorCode.ENCODE_ERROR, "KuraPayload", e);
+        }
+
+        this.dataService.publish(message.getTopic(), encodedPayload, this.options.getLifeCycleMessageQos(),
+                this.options.getLifeCycleMessageRetain(), this.options.getLifeCycleMessagePriority());
+    }
+
+    private Optional<CompressionDictionary> getCompressionDictionary(KuraPayload payload) {
+        this.dictionaryTrainer.train(payload.metrics());
+
+        final Optional<CompressionDictionary> newDictionary = this.dictionaryTrainer.refresh();
+
+        if (newDictionary.isPresent()) {
+            try {
+                // publish the dictionary before using it, messages are delivered in store order
+                publishDictionary(newDictionary.get());
+                this.dictionaryTrainer.setDictionary(newDictionary.get());
+                logger.info("Published compression dictionary {}", Integer.toHexString(newDictionary.get().getId()));
+            } catch (KuraException e) {
+                logger.warn("Failed to publish the compression dictionary, keeping the current one", e);
+            }
+        }
+
+        return this.dictionaryTrainer.getDictionary();
+    }
+
     private void publishWithDelay(LifecycleMessage message) {
         if (Objects.nonNull(this.scheduledBirthPublisherFuture)) {
             this.scheduledBirthPublisherFuture.cancel(false);
@@ -674,7 +734,9 @@ public class CloudConnectionManagerImpl
         }
 
         CloudPayloadEncoder encoder = new CloudPayloadProtoBufEncoderImpl(payload);
-        if (this.options.getEncodeGzip()) {
+        if (isDictionaryEncodingEnabled()) {
+            encoder = new CloudPayloadDictionaryEncoder(encoder, getCompressionDictionary(payload));
+        } else if (this.options.getEncodeGzip()) {
             encoder = new CloudPayloadGZipEncoder(encoder);
         }
 
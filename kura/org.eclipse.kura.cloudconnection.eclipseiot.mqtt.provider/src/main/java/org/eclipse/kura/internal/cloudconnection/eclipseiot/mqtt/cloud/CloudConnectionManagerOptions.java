@@ -27,11 +27,13 @@ public class CloudConnectionManagerOptions {
     private static final String TOPIC_BIRTH_SUFFIX = "MQTT/BIRTH";
     private static final String TOPIC_DISCONNECT_SUFFIX = "MQTT/DC";
     private static final String TOPIC_APPS_SUFFIX = "MQTT/APPS";
+    private static final String TOPIC_DICTIONARY_SUFFIX = "MQTT/DICT";
     private static final String TOPIC_WILD_CARD = "#";
 
     private static final String DEVICE_DISPLAY_NAME = "device.display-name";
     private static final String DEVICE_CUSTOM_NAME = "device.custom-name";
     private static final String ENCODE_GZIP = "encode.gzip";
+    private static final String ENCODE_CODEC = "encode.codec";
     private static final String REPUB_BIRTH_ON_GPS_LOCK = "republish.mqtt.birth.cert.on.gps.lock";
     private static final String REPUB_BIRTH_ON_MODEM_DETECT = "republish.mqtt.birth.cert.on.modem.detect";
     private static final String PAYLOAD_ENCODING = "payload.encoding";
@@ -84,7 +86,8 @@ public class CloudConnectionManagerOptions {
 
     /**
      * Returns true if the current CloudService configuration
-     * specifies Gzip compression enabled for outgoing payloads.
+     * specifies compression enabled for outgoing payloads,
+     * with the codec returned by {@link #getEncodeCodec()}.
      *
      * @return a boolean value.
      */
@@ -97,6 +100,24 @@ public class CloudConnectionManagerOptions {
         return encodeGzip;
     }
 
+    /**
+     * Returns the codec used to compress the outgoing payloads when
+     * compression is enabled by {@link #getEncodeGzip()}.
+     *
+     * @return a {@link CloudPayloadCodec}, {@link CloudPayloadCodec#GZIP} if not configured.
+     */
+    public CloudPayloadCodec getEncodeCodec() {
+        CloudPayloadCodec result = CloudPayloadCodec.GZIP;
+        if (this.properties != null && this.properties.get(ENCODE_CODEC) instanceof String) {
+            try {
+                result = CloudPayloadCodec.getCodec((String) this.properties.get(ENCODE_CODEC));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Cannot parse the provided payload codec.", e);
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns true if the current CloudService configuration
      * specifies the cloud client should republish the MQTT birth
@@ -167,6 +188,10 @@ public class CloudConnectionManagerOptions {
         return TOPIC_APPS_SUFFIX;
     }
 
+    public String getTopicDictionarySuffix() {
+        return TOPIC_DICTIONARY_SUFFIX;
+    }
+
     public String getTopicWildCard() {
         return TOPIC_WILD_CARD;
     }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.cloudconnection.eclipseiot.mqtt.cloud;
+
+/**
+ * The codecs that can be used to compress the outgoing message payloads.
+ */
+public enum CloudPayloadCodec {
+    GZIP("gzip"),
+    DICTIONARY("dictionary");
+
+    private final String codecText;
+
+    private CloudPayloadCodec(String codec) {
+        this.codecText = codec;
+    }
+
+    /**
+     * Maps the provided string to the corresponding {@link CloudPayloadCodec}
+     *
+     * @param proposedCodec
+     *            the String that has to be mapped to the corresponding {@link CloudPayloadCodec}
+     * @return the matching {@link CloudPayloadCodec}
+     * @throws IllegalArgumentException
+     *             if the argument cannot be matched to a {@link CloudPayloadCodec}
+     */
+    public static CloudPayloadCodec getCodec(String proposedCodec) {
+        for (CloudPayloadCodec codec : CloudPayloadCodec.values()) {
+            if (codec.codecText.equalsIgnoreCase(proposedCodec)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported codec: " + proposedCodec);
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import java.util.Date;
 
 import org.eclipse.kura.KuraInvalidMessageException;
 import org.eclipse.kura.KuraInvalidMetricTypeException;
+import org.eclipse.kura.core.util.DictionaryDeflateUtil;
 import org.eclipse.kura.core.util.GZipUtil;
 import org.eclipse.kura.internal.cloudconnection.eclipseiot.mqtt.message.protobuf.KuraPayloadProto;
 import org.eclipse.kura.message.KuraPayload;
@@ -47,7 +48,14 @@ public class CloudPayloadProtoBufDecoderImpl {
      */
     public KuraPayload buildFromByteArray() throws IOException {
         // Check if a compressed payload and try to decompress it
-        if (GZipUtil.isCompressed(this.bytes)) {
+        if (DictionaryDeflateUtil.isCompressed(this.bytes)) {
+            try {
+                this.bytes = DictionaryDeflateUtil.decompress(this.bytes);
+            } catch (IOException e) {
+                logger.info("Decompression failed", e);
+                // do not rethrow the exception here, as for gzip the header byte may be a false positive
+            }
+        } else if (GZipUtil.isCompressed(this.bytes)) {
             try {
                 this.bytes = GZipUtil.decompress(this.bytes);
             } catch (IOException e) {
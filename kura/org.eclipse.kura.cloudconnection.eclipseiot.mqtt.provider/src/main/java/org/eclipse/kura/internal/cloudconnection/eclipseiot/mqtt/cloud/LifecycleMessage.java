@@ -12,11 +12,14 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.cloudconnection.eclipseiot.mqtt.cloud;
 
+import org.eclipse.kura.core.util.CompressionDictionary;
 import org.eclipse.kura.internal.cloudconnection.eclipseiot.mqtt.message.MessageType;
 import org.eclipse.kura.message.KuraPayload;
 
 public class LifecycleMessage {
-    
+
+    private static final String DICTIONARY_ID_METRIC = "dictionary.id";
+
     private StringBuilder topicBuilder;
     private CloudConnectionManagerOptions options;
     private LifeCyclePayloadBuilder payloadBuilder;
@@ -38,6 +41,14 @@ public class LifecycleMessage {
         return this;
     }
 
+    public LifecycleMessage asDictionaryMessage(CompressionDictionary dictionary) {
+        this.topicBuilder.append(this.options.getTopicDictionarySuffix());
+        this.payload = new KuraPayload();
+        this.payload.addMetric(DICTIONARY_ID_METRIC, dictionary.getId());
+        this.payload.setBody(dictionary.getContent());
+        return this;
+    }
+
     public LifecycleMessage asDisconnectCertificateMessage() {
         this.topicBuilder.append(this.options.getTopicDisconnectSuffix());
         this.payload = this.payloadBuilder.buildDisconnectPayload();
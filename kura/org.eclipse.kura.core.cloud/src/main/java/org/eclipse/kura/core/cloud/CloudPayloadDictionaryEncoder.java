@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.cloud;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.eclipse.kura.core.util.CompressionDictionary;
+import org.eclipse.kura.core.util.DictionaryDeflateUtil;
+
+/**
+ * Compresses the payload with deflate and a preset dictionary, see {@link DictionaryDeflateUtil}.
+ */
+public class CloudPayloadDictionaryEncoder implements CloudPayloadEncoder {
+
+    private final CloudPayloadEncoder decorated;
+    private final Optional<CompressionDictionary> dictionary;
+
+    public CloudPayloadDictionaryEncoder(CloudPayloadEncoder decorated, Optional<CompressionDictionary> dictionary) {
+        this.decorated = decorated;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        byte[] source = this.decorated.getBytes();
+        byte[] compressed = DictionaryDeflateUtil.compress(source, this.dictionary);
+
+        // Return compressed data only if shorter than uncompressed one
+        return compressed.length < source.length ? compressed : source;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
 package org.eclipse.kura.core.cloud;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.eclipse.kura.core.util.GZipUtil;
 
@@ -26,10 +27,30 @@ public class CloudPayloadGZipEncoder implements CloudPayloadEncoder {
 
     @Override
     public byte[] getBytes() throws IOException {
+        if (this.decorated instanceof CloudPayloadProtoBufEncoderImpl) {
+            return getBytes((CloudPayloadProtoBufEncoderImpl) this.decorated);
+        }
+
         byte[] source = this.decorated.getBytes();
         byte[] compressed = GZipUtil.compress(source);
 
         // Return gzip compressed data only if shorter than uncompressed one
         return compressed.length < source.length ? compressed : source;
     }
+
+    private static byte[] getBytes(final CloudPayloadProtoBufEncoderImpl encoder) throws IOException {
+        final PayloadCodecBuffers buffers = PayloadCodecBuffers.acquire();
+
+        try {
+            // serialize and compress in the pooled buffers, only the returned array is allocated
+            final int length = encoder.encode(buffers);
+            final int compressedLength = buffers.gzip(length);
+
+            // Return gzip compressed data only if shorter than uncompressed one
+            return compressedLength < length ? Arrays.copyOf(buffers.compressed, compressedLength)
+                    : Arrays.copyOf(buffers.raw, length);
+        } finally {
+            PayloadCodecBuffers.release(buffers);
+        }
+    }
 }
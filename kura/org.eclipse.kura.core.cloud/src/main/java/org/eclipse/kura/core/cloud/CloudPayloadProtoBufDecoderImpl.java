@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,24 +13,62 @@
 package org.eclipse.kura.core.cloud;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Date;
 
 import org.eclipse.kura.KuraInvalidMessageException;
 import org.eclipse.kura.KuraInvalidMetricTypeException;
-import org.eclipse.kura.core.message.protobuf.KuraPayloadProto;
+import org.eclipse.kura.core.message.protobuf.KuraPayloadProto.KuraPayload.KuraMetric.ValueType;
+import org.eclipse.kura.core.util.DictionaryDeflateUtil;
 import org.eclipse.kura.core.util.GZipUtil;
 import org.eclipse.kura.message.KuraPayload;
 import org.eclipse.kura.message.KuraPosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UninitializedMessageException;
+import com.google.protobuf.WireFormat;
 
+/**
+ * Decodes a KuraPayload encoded using the Google ProtoBuf binary format.
+ * <br>
+ * The payload is read directly with a {@link CodedInputStream}, without building the intermediate protobuf messages.
+ * Unknown fields are skipped and missing required fields are reported as done by the generated KuraPayloadProto
+ * classes.
+ */
 public class CloudPayloadProtoBufDecoderImpl {
 
     private static final Logger s_logger = LoggerFactory.getLogger(CloudPayloadProtoBufDecoderImpl.class);
 
+    private static final int PAYLOAD_TIMESTAMP = makeTag(1, WireFormat.WIRETYPE_VARINT);
+    private static final int PAYLOAD_POSITION = makeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int PAYLOAD_METRIC = makeTag(5000, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int PAYLOAD_BODY = makeTag(5001, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int METRIC_NAME = makeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int METRIC_TYPE = makeTag(2, WireFormat.WIRETYPE_VARINT);
+    private static final int METRIC_DOUBLE = makeTag(3, WireFormat.WIRETYPE_FIXED64);
+    private static final int METRIC_FLOAT = makeTag(4, WireFormat.WIRETYPE_FIXED32);
+    private static final int METRIC_LONG = makeTag(5, WireFormat.WIRETYPE_VARINT);
+    private static final int METRIC_INT = makeTag(6, WireFormat.WIRETYPE_VARINT);
+    private static final int METRIC_BOOL = makeTag(7, WireFormat.WIRETYPE_VARINT);
+    private static final int METRIC_STRING = makeTag(8, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int METRIC_BYTES = makeTag(9, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int POSITION_LATITUDE = makeTag(1, WireFormat.WIRETYPE_FIXED64);
+    private static final int POSITION_LONGITUDE = makeTag(2, WireFormat.WIRETYPE_FIXED64);
+    private static final int POSITION_ALTITUDE = makeTag(3, WireFormat.WIRETYPE_FIXED64);
+    private static final int POSITION_PRECISION = makeTag(4, WireFormat.WIRETYPE_FIXED64);
+    private static final int POSITION_HEADING = makeTag(5, WireFormat.WIRETYPE_FIXED64);
+    private static final int POSITION_SPEED = makeTag(6, WireFormat.WIRETYPE_FIXED64);
+    private static final int POSITION_TIMESTAMP = makeTag(7, WireFormat.WIRETYPE_VARINT);
+    private static final int POSITION_SATELLITES = makeTag(8, WireFormat.WIRETYPE_VARINT);
+    private static final int POSITION_STATUS = makeTag(9, WireFormat.WIRETYPE_VARINT);
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     private byte[] m_bytes;
 
     public CloudPayloadProtoBufDecoderImpl(byte[] bytes) {
@@ -46,118 +84,226 @@ public class CloudPayloadProtoBufDecoderImpl {
      * @throws IOException
      */
     public KuraPayload buildFromByteArray() throws KuraInvalidMessageException, IOException {
-        // Check if a compressed payload and try to decompress it
-        if (GZipUtil.isCompressed(this.m_bytes)) {
-            try {
-                this.m_bytes = GZipUtil.decompress(this.m_bytes);
-            } catch (IOException e) {
-                s_logger.info("Decompression failed");
-                // do not rethrow the exception here as isCompressed may return some false positives
-            }
-        }
+        final PayloadCodecBuffers buffers = PayloadCodecBuffers.acquire();
 
-        // build the KuraPayloadProto.KuraPayload
-        KuraPayloadProto.KuraPayload protoMsg = null;
         try {
-            protoMsg = KuraPayloadProto.KuraPayload.parseFrom(this.m_bytes);
+            CodedInputStream in = null;
+
+            // Check if a compressed payload and try to decompress it
+            if (DictionaryDeflateUtil.isCompressed(this.m_bytes)) {
+                decompressWithDictionary();
+            } else if (GZipUtil.isCompressed(this.m_bytes)) {
+                in = decompress(buffers);
+            }
+
+            if (in == null) {
+                in = CodedInputStream.newInstance(this.m_bytes);
+            }
+
+            return parsePayload(in);
         } catch (InvalidProtocolBufferException ipbe) {
             throw new KuraInvalidMessageException(ipbe);
+        } finally {
+            PayloadCodecBuffers.release(buffers);
         }
+    }
 
-        // build the KuraPayload
-        KuraPayload kuraMsg = new KuraPayload();
+    private CodedInputStream decompress(final PayloadCodecBuffers buffers) {
+        try {
+            final int length = buffers.gunzip(this.m_bytes);
+            return CodedInputStream.newInstance(buffers.raw, 0, length);
+        } catch (IOException e) {
+            s_logger.debug("Falling back to stream based decompression", e);
+        }
 
-        // set the timestamp
-        if (protoMsg.hasTimestamp()) {
-            kuraMsg.setTimestamp(new Date(protoMsg.getTimestamp()));
+        try {
+            this.m_bytes = GZipUtil.decompress(this.m_bytes);
+        } catch (IOException e) {
+            s_logger.info("Decompression failed");
+            // do not rethrow the exception here as isCompressed may return some false positives
         }
 
-        // set the position
-        if (protoMsg.hasPosition()) {
-            kuraMsg.setPosition(buildFromProtoBuf(protoMsg.getPosition()));
+        return null;
+    }
+
+    private void decompressWithDictionary() {
+        try {
+            this.m_bytes = DictionaryDeflateUtil.decompress(this.m_bytes);
+        } catch (IOException e) {
+            s_logger.info("Decompression failed", e);
+            // do not rethrow the exception here, as for gzip the header byte may be a false positive
         }
+    }
+
+    private KuraPayload parsePayload(final CodedInputStream in) throws IOException {
+        final KuraPayload kuraMsg = new KuraPayload();
 
-        // set the metrics
-        for (int i = 0; i < protoMsg.getMetricCount(); i++) {
-            String name = protoMsg.getMetric(i).getName();
-            try {
-                Object value = getProtoKuraMetricValue(protoMsg.getMetric(i), protoMsg.getMetric(i).getType());
-                kuraMsg.addMetric(name, value);
-            } catch (KuraInvalidMetricTypeException ihte) {
-                s_logger.warn("During deserialization, ignoring metric named: {}. Unrecognized value type: {}", name,
-                        protoMsg.getMetric(i).getType(), ihte);
+        while (true) {
+            final int tag = in.readTag();
+
+            if (tag == 0) {
+                break;
+            } else if (tag == PAYLOAD_TIMESTAMP) {
+                kuraMsg.setTimestamp(new Date(in.readInt64()));
+            } else if (tag == PAYLOAD_POSITION) {
+                final KuraPosition position = kuraMsg.getPosition() != null ? kuraMsg.getPosition()
+                        : new KuraPosition();
+                final int oldLimit = in.pushLimit(in.readRawVarint32());
+                parsePosition(in, position);
+                in.checkLastTagWas(0);
+                in.popLimit(oldLimit);
+                kuraMsg.setPosition(position);
+            } else if (tag == PAYLOAD_METRIC) {
+                final int oldLimit = in.pushLimit(in.readRawVarint32());
+                parseMetric(in, kuraMsg);
+                in.checkLastTagWas(0);
+                in.popLimit(oldLimit);
+            } else if (tag == PAYLOAD_BODY) {
+                kuraMsg.setBody(in.readByteArray());
+            } else if (!in.skipField(tag)) {
+                break;
             }
         }
 
-        // set the body
-        if (protoMsg.hasBody()) {
-            kuraMsg.setBody(protoMsg.getBody().toByteArray());
+        if (kuraMsg.getPosition() != null) {
+            checkPosition(kuraMsg.getPosition());
         }
 
         return kuraMsg;
     }
 
-    private KuraPosition buildFromProtoBuf(KuraPayloadProto.KuraPayload.KuraPosition protoPosition) {
-        KuraPosition position = new KuraPosition();
+    private static void parsePosition(final CodedInputStream in, final KuraPosition position) throws IOException {
+        while (true) {
+            final int tag = in.readTag();
 
-        if (protoPosition.hasLatitude()) {
-            position.setLatitude(protoPosition.getLatitude());
-        }
-        if (protoPosition.hasLongitude()) {
-            position.setLongitude(protoPosition.getLongitude());
-        }
-        if (protoPosition.hasAltitude()) {
-            position.setAltitude(protoPosition.getAltitude());
-        }
-        if (protoPosition.hasPrecision()) {
-            position.setPrecision(protoPosition.getPrecision());
+            if (tag == 0) {
+                return;
+            } else if (tag == POSITION_LATITUDE) {
+                position.setLatitude(in.readDouble());
+            } else if (tag == POSITION_LONGITUDE) {
+                position.setLongitude(in.readDouble());
+            } else if (tag == POSITION_ALTITUDE) {
+                position.setAltitude(in.readDouble());
+            } else if (tag == POSITION_PRECISION) {
+                position.setPrecision(in.readDouble());
+            } else if (tag == POSITION_HEADING) {
+                position.setHeading(in.readDouble());
+            } else if (tag == POSITION_SPEED) {
+                position.setSpeed(in.readDouble());
+            } else if (tag == POSITION_TIMESTAMP) {
+                position.setTimestamp(new Date(in.readInt64()));
+            } else if (tag == POSITION_SATELLITES) {
+                position.setSatellites(in.readInt32());
+            } else if (tag == POSITION_STATUS) {
+                position.setStatus(in.readInt32());
+            } else if (!in.skipField(tag)) {
+                return;
+            }
         }
-        if (protoPosition.hasHeading()) {
-            position.setHeading(protoPosition.getHeading());
+    }
+
+    private static void checkPosition(final KuraPosition position) throws InvalidProtocolBufferException {
+        if (position.getLatitude() == null) {
+            throw missingField("position.latitude");
         }
-        if (protoPosition.hasSpeed()) {
-            position.setSpeed(protoPosition.getSpeed());
+        if (position.getLongitude() == null) {
+            throw missingField("position.longitude");
         }
-        if (protoPosition.hasSatellites()) {
-            position.setSatellites(protoPosition.getSatellites());
+    }
+
+    private static void parseMetric(final CodedInputStream in, final KuraPayload kuraMsg) throws IOException {
+        String name = null;
+        ValueType type = null;
+
+        // the generated classes return the default value of a field if it is not present
+        double doubleValue = 0;
+        float floatValue = 0;
+        long longValue = 0;
+        int intValue = 0;
+        boolean boolValue = false;
+        String stringValue = "";
+        byte[] bytesValue = EMPTY_BYTES;
+
+        while (true) {
+            final int tag = in.readTag();
+
+            if (tag == 0) {
+                break;
+            } else if (tag == METRIC_NAME) {
+                name = in.readString();
+            } else if (tag == METRIC_TYPE) {
+                // unknown enum values are kept as unknown fields by the generated classes, leaving the type unset
+                final ValueType parsedType = ValueType.valueOf(in.readEnum());
+                if (parsedType != null) {
+                    type = parsedType;
+                }
+            } else if (tag == METRIC_DOUBLE) {
+                doubleValue = in.readDouble();
+            } else if (tag == METRIC_FLOAT) {
+                floatValue = in.readFloat();
+            } else if (tag == METRIC_LONG) {
+                longValue = in.readInt64();
+            } else if (tag == METRIC_INT) {
+                intValue = in.readInt32();
+            } else if (tag == METRIC_BOOL) {
+                boolValue = in.readBool();
+            } else if (tag == METRIC_STRING) {
+                stringValue = in.readString();
+            } else if (tag == METRIC_BYTES) {
+                bytesValue = in.readByteArray();
+            } else if (!in.skipField(tag)) {
+                break;
+            }
         }
-        if (protoPosition.hasStatus()) {
-            position.setStatus(protoPosition.getStatus());
+
+        if (name == null) {
+            throw missingField("metric.name");
         }
-        if (protoPosition.hasTimestamp()) {
-            position.setTimestamp(new Date(protoPosition.getTimestamp()));
+        if (type == null) {
+            throw missingField("metric.type");
         }
-        return position;
-    }
 
-    private Object getProtoKuraMetricValue(KuraPayloadProto.KuraPayload.KuraMetric metric,
-            KuraPayloadProto.KuraPayload.KuraMetric.ValueType type) throws KuraInvalidMetricTypeException {
         switch (type) {
 
         case DOUBLE:
-            return metric.getDoubleValue();
+            kuraMsg.addMetric(name, doubleValue);
+            break;
 
         case FLOAT:
-            return metric.getFloatValue();
+            kuraMsg.addMetric(name, floatValue);
+            break;
 
         case INT64:
-            return metric.getLongValue();
+            kuraMsg.addMetric(name, longValue);
+            break;
 
         case INT32:
-            return metric.getIntValue();
+            kuraMsg.addMetric(name, intValue);
+            break;
 
         case BOOL:
-            return metric.getBoolValue();
+            kuraMsg.addMetric(name, boolValue);
+            break;
 
         case STRING:
-            return metric.getStringValue();
+            kuraMsg.addMetric(name, stringValue);
+            break;
 
         case BYTES:
-            ByteString bs = metric.getBytesValue();
-            return bs.toByteArray();
+            kuraMsg.addMetric(name, bytesValue == EMPTY_BYTES ? new byte[0] : bytesValue);
+            break;
 
         default:
-            throw new KuraInvalidMetricTypeException(type);
+            s_logger.warn("During deserialization, ignoring metric named: {}. Unrecognized value type: {}", name,
+                    type, new KuraInvalidMetricTypeException(type));
         }
     }
+
+    private static InvalidProtocolBufferException missingField(final String name) {
+        return new UninitializedMessageException(Collections.singletonList(name)).asInvalidProtocolBufferException();
+    }
+
+    private static int makeTag(final int fieldNumber, final int wireType) {
+        return fieldNumber << 3 | wireType;
+    }
 }
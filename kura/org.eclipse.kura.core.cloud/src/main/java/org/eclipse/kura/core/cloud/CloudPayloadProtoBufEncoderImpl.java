@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,25 +14,61 @@
 package org.eclipse.kura.core.cloud;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.kura.KuraInvalidMetricTypeException;
-import org.eclipse.kura.core.message.protobuf.KuraPayloadProto;
-import org.eclipse.kura.core.message.protobuf.KuraPayloadProto.KuraPayload.KuraMetric;
+import org.eclipse.kura.core.message.protobuf.KuraPayloadProto.KuraPayload.KuraMetric.ValueType;
 import org.eclipse.kura.message.KuraPayload;
 import org.eclipse.kura.message.KuraPosition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UninitializedMessageException;
+import com.google.protobuf.WireFormat;
 
 /**
  * Encodes an KuraPayload class using the Google ProtoBuf binary format.
+ * <br>
+ * The payload is written directly with a {@link CodedOutputStream} into an array of the exact encoded size, without
+ * building the intermediate protobuf messages. The produced bytes are the same as the ones produced by the generated
+ * KuraPayloadProto classes.
  */
 public class CloudPayloadProtoBufEncoderImpl implements CloudPayloadEncoder {
 
     private static final Logger logger = LoggerFactory.getLogger(CloudPayloadProtoBufEncoderImpl.class);
 
+    private static final int MAX_CACHED_METRIC_NAMES = 4096;
+    private static final Map<String, byte[]> metricNames = new ConcurrentHashMap<>();
+
+    private static final int PAYLOAD_TIMESTAMP = 1;
+    private static final int PAYLOAD_POSITION = 2;
+    private static final int PAYLOAD_METRIC = 5000;
+    private static final int PAYLOAD_BODY = 5001;
+
+    private static final int METRIC_NAME = 1;
+    private static final int METRIC_TYPE = 2;
+    private static final int METRIC_DOUBLE = 3;
+    private static final int METRIC_FLOAT = 4;
+    private static final int METRIC_LONG = 5;
+    private static final int METRIC_INT = 6;
+    private static final int METRIC_BOOL = 7;
+    private static final int METRIC_STRING = 8;
+    private static final int METRIC_BYTES = 9;
+
+    private static final int POSITION_LATITUDE = 1;
+    private static final int POSITION_LONGITUDE = 2;
+    private static final int POSITION_ALTITUDE = 3;
+    private static final int POSITION_PRECISION = 4;
+    private static final int POSITION_HEADING = 5;
+    private static final int POSITION_SPEED = 6;
+    private static final int POSITION_TIMESTAMP = 7;
+    private static final int POSITION_SATELLITES = 8;
+    private static final int POSITION_STATUS = 9;
+
     private final KuraPayload kuraPayload;
 
     public CloudPayloadProtoBufEncoderImpl(KuraPayload kuraPayload) {
@@ -46,117 +82,288 @@ public class CloudPayloadProtoBufEncoderImpl implements CloudPayloadEncoder {
      */
     @Override
     public byte[] getBytes() throws IOException {
-        // Build the message
-        KuraPayloadProto.KuraPayload.Builder protoMsg = KuraPayloadProto.KuraPayload.newBuilder();
+        final PayloadCodecBuffers buffers = PayloadCodecBuffers.acquire();
+
+        try {
+            final int size = computeSize(buffers);
+            final byte[] result = new byte[size];
+            final CodedOutputStream out = CodedOutputStream.newInstance(result);
+
+            write(out, buffers.sizes);
+            out.checkNoSpaceLeft();
+
+            return result;
+        } finally {
+            PayloadCodecBuffers.release(buffers);
+        }
+    }
+
+    /**
+     * Serializes the payload into the raw buffer of the provided {@link PayloadCodecBuffers}.
+     *
+     * @param buffers
+     *            the buffers to be used
+     * @return the length of the serialized payload
+     */
+    int encode(final PayloadCodecBuffers buffers) throws IOException {
+        final int size = computeSize(buffers);
+        final CodedOutputStream out = CodedOutputStream.newInstance(buffers.ensureRaw(size), 0, size);
+
+        write(out, buffers.sizes);
+        out.checkNoSpaceLeft();
+
+        return size;
+    }
+
+    //
+    // Size computation, the size of each metric is stored in PayloadCodecBuffers.sizes to be used while writing
+    //
+    private int computeSize(final PayloadCodecBuffers buffers) {
+        int size = 0;
 
-        // set the timestamp
         if (this.kuraPayload.getTimestamp() != null) {
-            protoMsg.setTimestamp(this.kuraPayload.getTimestamp().getTime());
+            size += CodedOutputStream.computeInt64Size(PAYLOAD_TIMESTAMP, this.kuraPayload.getTimestamp().getTime());
         }
 
-        // set the position
-        if (this.kuraPayload.getPosition() != null) {
-            protoMsg.setPosition(buildPositionProtoBuf());
+        final KuraPosition position = this.kuraPayload.getPosition();
+        if (position != null) {
+            final int positionSize = computePositionSize(position);
+            size += CodedOutputStream.computeTagSize(PAYLOAD_POSITION)
+                    + CodedOutputStream.computeUInt32SizeNoTag(positionSize) + positionSize;
         }
 
-        // set the metrics
-        for (final Map.Entry<String, Object> entry : this.kuraPayload.metrics().entrySet()) {
+        final Map<String, Object> metrics = this.kuraPayload.metrics();
+        final int[] metricSizes = buffers.ensureSizes(metrics.size());
+        int index = 0;
+
+        for (final Map.Entry<String, Object> entry : metrics.entrySet()) {
             final String name = entry.getKey();
             final Object value = entry.getValue();
 
-            // build a metric
-            try {
-                KuraMetric.Builder metricB = KuraMetric.newBuilder();
-                metricB.setName(name);
-
-                boolean result = setProtoKuraMetricValue(metricB, value);
-                if (result) {
-                    // add it to the message
-                    protoMsg.addMetric(metricB);
-                }
-            } catch (KuraInvalidMetricTypeException e) {
-                logger.error("During serialization, ignoring metric named: {}. Unrecognized value type: {}.", name,
-                        value != null ? value.getClass().getName() : "<null>");
-                throw new RuntimeException(e);
+            final int metricSize = computeMetricSize(name, value);
+            metricSizes[index++] = metricSize;
+
+            if (metricSize >= 0) {
+                size += CodedOutputStream.computeTagSize(PAYLOAD_METRIC)
+                        + CodedOutputStream.computeUInt32SizeNoTag(metricSize) + metricSize;
             }
         }
 
-        // set the body
         if (this.kuraPayload.getBody() != null) {
-            protoMsg.setBody(ByteString.copyFrom(this.kuraPayload.getBody()));
+            size += CodedOutputStream.computeByteArraySize(PAYLOAD_BODY, this.kuraPayload.getBody());
+        }
+
+        return size;
+    }
+
+    private static int computePositionSize(final KuraPosition position) {
+        if (position.getLatitude() == null || position.getLongitude() == null) {
+            throw new UninitializedMessageException(
+                    Arrays.asList(position.getLatitude() == null ? "latitude" : "longitude"));
+        }
+
+        int size = CodedOutputStream.computeDoubleSize(POSITION_LATITUDE, position.getLatitude())
+                + CodedOutputStream.computeDoubleSize(POSITION_LONGITUDE, position.getLongitude());
+
+        if (position.getAltitude() != null) {
+            size += CodedOutputStream.computeDoubleSize(POSITION_ALTITUDE, position.getAltitude());
+        }
+        if (position.getPrecision() != null) {
+            size += CodedOutputStream.computeDoubleSize(POSITION_PRECISION, position.getPrecision());
+        }
+        if (position.getHeading() != null) {
+            size += CodedOutputStream.computeDoubleSize(POSITION_HEADING, position.getHeading());
+        }
+        if (position.getSpeed() != null) {
+            size += CodedOutputStream.computeDoubleSize(POSITION_SPEED, position.getSpeed());
+        }
+        if (position.getTimestamp() != null) {
+            size += CodedOutputStream.computeInt64Size(POSITION_TIMESTAMP, position.getTimestamp().getTime());
+        }
+        if (position.getSatellites() != null) {
+            size += CodedOutputStream.computeInt32Size(POSITION_SATELLITES, position.getSatellites());
+        }
+        if (position.getStatus() != null) {
+            size += CodedOutputStream.computeInt32Size(POSITION_STATUS, position.getStatus());
         }
+        return size;
+    }
+
+    /**
+     * Returns the encoded size of a metric, or -1 if the metric must not be serialized.
+     */
+    private static int computeMetricSize(final String name, final Object value) {
+        final ValueType type;
+
+        try {
+            type = getValueType(value);
+        } catch (KuraInvalidMetricTypeException e) {
+            logger.error("During serialization, ignoring metric named: {}. Unrecognized value type: {}.", name,
+                    value.getClass().getName());
+            throw new RuntimeException(e);
+        }
+
+        if (type == null) {
+            logger.warn("Received a metric with a null value!");
+            return -1;
+        }
+
+        final int size = CodedOutputStream.computeByteArraySize(METRIC_NAME, getMetricNameBytes(name))
+                + CodedOutputStream.computeEnumSize(METRIC_TYPE, type.getNumber());
 
-        return protoMsg.build().toByteArray();
+        switch (type) {
+        case DOUBLE:
+            return size + CodedOutputStream.computeDoubleSize(METRIC_DOUBLE, (Double) value);
+        case FLOAT:
+            return size + CodedOutputStream.computeFloatSize(METRIC_FLOAT, (Float) value);
+        case INT64:
+            return size + CodedOutputStream.computeInt64Size(METRIC_LONG, (Long) value);
+        case INT32:
+            return size + CodedOutputStream.computeInt32Size(METRIC_INT, (Integer) value);
+        case BOOL:
+            return size + CodedOutputStream.computeBoolSize(METRIC_BOOL, (Boolean) value);
+        case STRING:
+            return size + CodedOutputStream.computeStringSize(METRIC_STRING, (String) value);
+        default:
+            return size + CodedOutputStream.computeByteArraySize(METRIC_BYTES, (byte[]) value);
+        }
     }
 
     //
-    // Helper methods to convert the KuraMetrics
+    // Serialization, fields are written in field number order as done by the generated classes
     //
-    private KuraPayloadProto.KuraPayload.KuraPosition buildPositionProtoBuf() {
-        KuraPayloadProto.KuraPayload.KuraPosition.Builder protoPos = KuraPayloadProto.KuraPayload.KuraPosition
-                .newBuilder();
+    private void write(final CodedOutputStream out, final int[] metricSizes) throws IOException {
+        if (this.kuraPayload.getTimestamp() != null) {
+            out.writeInt64(PAYLOAD_TIMESTAMP, this.kuraPayload.getTimestamp().getTime());
+        }
 
-        KuraPosition position = this.kuraPayload.getPosition();
-        if (position.getLatitude() != null) {
-            protoPos.setLatitude(position.getLatitude());
+        final KuraPosition position = this.kuraPayload.getPosition();
+        if (position != null) {
+            out.writeTag(PAYLOAD_POSITION, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(computePositionSize(position));
+            writePosition(out, position);
         }
-        if (position.getLongitude() != null) {
-            protoPos.setLongitude(position.getLongitude());
+
+        int index = 0;
+
+        for (final Map.Entry<String, Object> entry : this.kuraPayload.metrics().entrySet()) {
+            final int metricSize = metricSizes[index++];
+
+            if (metricSize < 0) {
+                continue;
+            }
+
+            out.writeTag(PAYLOAD_METRIC, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(metricSize);
+            writeMetric(out, entry.getKey(), entry.getValue());
         }
+
+        if (this.kuraPayload.getBody() != null) {
+            out.writeByteArray(PAYLOAD_BODY, this.kuraPayload.getBody());
+        }
+    }
+
+    private static void writePosition(final CodedOutputStream out, final KuraPosition position) throws IOException {
+        out.writeDouble(POSITION_LATITUDE, position.getLatitude());
+        out.writeDouble(POSITION_LONGITUDE, position.getLongitude());
+
         if (position.getAltitude() != null) {
-            protoPos.setAltitude(position.getAltitude());
+            out.writeDouble(POSITION_ALTITUDE, position.getAltitude());
         }
         if (position.getPrecision() != null) {
-            protoPos.setPrecision(position.getPrecision());
+            out.writeDouble(POSITION_PRECISION, position.getPrecision());
         }
         if (position.getHeading() != null) {
-            protoPos.setHeading(position.getHeading());
+            out.writeDouble(POSITION_HEADING, position.getHeading());
         }
         if (position.getSpeed() != null) {
-            protoPos.setSpeed(position.getSpeed());
+            out.writeDouble(POSITION_SPEED, position.getSpeed());
         }
         if (position.getTimestamp() != null) {
-            protoPos.setTimestamp(position.getTimestamp().getTime());
+            out.writeInt64(POSITION_TIMESTAMP, position.getTimestamp().getTime());
         }
         if (position.getSatellites() != null) {
-            protoPos.setSatellites(position.getSatellites());
+            out.writeInt32(POSITION_SATELLITES, position.getSatellites());
         }
         if (position.getStatus() != null) {
-            protoPos.setStatus(position.getStatus());
+            out.writeInt32(POSITION_STATUS, position.getStatus());
+        }
+    }
+
+    private static void writeMetric(final CodedOutputStream out, final String name, final Object value)
+            throws IOException {
+        final ValueType type;
+
+        try {
+            type = getValueType(value);
+        } catch (KuraInvalidMetricTypeException e) {
+            // already checked while computing the size
+            throw new IllegalStateException(e);
+        }
+
+        out.writeByteArray(METRIC_NAME, getMetricNameBytes(name));
+        out.writeEnum(METRIC_TYPE, type.getNumber());
+
+        switch (type) {
+        case DOUBLE:
+            out.writeDouble(METRIC_DOUBLE, (Double) value);
+            break;
+        case FLOAT:
+            out.writeFloat(METRIC_FLOAT, (Float) value);
+            break;
+        case INT64:
+            out.writeInt64(METRIC_LONG, (Long) value);
+            break;
+        case INT32:
+            out.writeInt32(METRIC_INT, (Integer) value);
+            break;
+        case BOOL:
+            out.writeBool(METRIC_BOOL, (Boolean) value);
+            break;
+        case STRING:
+            out.writeString(METRIC_STRING, (String) value);
+            break;
+        default:
+            out.writeByteArray(METRIC_BYTES, (byte[]) value);
+            break;
         }
-        return protoPos.build();
     }
 
-    private static boolean setProtoKuraMetricValue(KuraPayloadProto.KuraPayload.KuraMetric.Builder metric, Object o)
-            throws KuraInvalidMetricTypeException {
+    private static byte[] getMetricNameBytes(final String name) {
+        final byte[] cached = metricNames.get(name);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
 
+        if (metricNames.size() < MAX_CACHED_METRIC_NAMES) {
+            metricNames.put(name, encoded);
+        }
+
+        return encoded;
+    }
+
+    private static ValueType getValueType(final Object o) throws KuraInvalidMetricTypeException {
         if (o instanceof String) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.STRING);
-            metric.setStringValue((String) o);
+            return ValueType.STRING;
         } else if (o instanceof Double) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.DOUBLE);
-            metric.setDoubleValue((Double) o);
+            return ValueType.DOUBLE;
         } else if (o instanceof Integer) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.INT32);
-            metric.setIntValue((Integer) o);
+            return ValueType.INT32;
         } else if (o instanceof Float) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.FLOAT);
-            metric.setFloatValue((Float) o);
+            return ValueType.FLOAT;
         } else if (o instanceof Long) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.INT64);
-            metric.setLongValue((Long) o);
+            return ValueType.INT64;
         } else if (o instanceof Boolean) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.BOOL);
-            metric.setBoolValue((Boolean) o);
+            return ValueType.BOOL;
         } else if (o instanceof byte[]) {
-            metric.setType(KuraPayloadProto.KuraPayload.KuraMetric.ValueType.BYTES);
-            metric.setBytesValue(ByteString.copyFrom((byte[]) o));
+            return ValueType.BYTES;
         } else if (o == null) {
-            logger.warn("Received a metric with a null value!");
-            return false;
+            return null;
         } else {
             throw new KuraInvalidMetricTypeException(o.getClass().getName());
         }
-        return true;
     }
 }
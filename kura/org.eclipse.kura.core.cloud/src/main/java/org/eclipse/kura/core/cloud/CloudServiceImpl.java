@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -77,6 +78,9 @@ import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.core.cloud.publisher.NotificationPublisherImpl;
 import org.eclipse.kura.core.cloud.subscriber.CloudSubscriptionRecord;
 import org.eclipse.kura.core.data.DataServiceImpl;
+import org.eclipse.kura.core.util.CompressionDictionary;
+import org.eclipse.kura.core.util.CompressionDictionaryTrainer;
+import org.eclipse.kura.core.util.DictionaryDeflateUtil;
 import org.eclipse.kura.data.DataService;
 import org.eclipse.kura.data.listener.DataServiceListener;
 import org.eclipse.kura.marshalling.Marshaller;
@@ -123,6 +127,9 @@ public class CloudServiceImpl
 
     private static final int NUM_CONCURRENT_CALLBACKS = 2;
 
+    private static final int DICTIONARY_MAX_SIZE = 4096;
+    private static final int DICTIONARY_REFRESH_INTERVAL = 256;
+
     private static ExecutorService callbackExecutor = Executors.newFixedThreadPool(NUM_CONCURRENT_CALLBACKS);
 
     private ComponentContext ctx;
@@ -173,6 +180,9 @@ public class CloudServiceImpl
     private LifecycleMessage lastBirthMessage;
     private LifecycleMessage lastAppMessage;
 
+    private final CompressionDictionaryTrainer dictionaryTrainer = new CompressionDictionaryTrainer(
+            DICTIONARY_MAX_SIZE, DICTIONARY_REFRESH_INTERVAL);
+
     public CloudServiceImpl() {
         this.cloudClients = new CopyOnWriteArrayList<>();
         this.messageId = new AtomicInteger();
@@ -804,6 +814,7 @@ public class CloudServiceImpl
         }
 
         publishBirthCertificate(isNewConnection);
+        republishDictionary();
 
         // restore or remove default subscriptions
         if (this.options.getEnableDefaultSubscriptions()) {
@@ -838,6 +849,55 @@ public class CloudServiceImpl
         publishWithDelay(new LifecycleMessage(this.options, this).asAppCertificateMessage());
     }
 
+    private void republishDictionary() throws KuraException {
+        final Optional<CompressionDictionary> dictionary = this.dictionaryTrainer.getDictionary();
+
+        if (isDictionaryEncodingEnabled() && dictionary.isPresent()) {
+            publishDictionary(dictionary.get());
+        }
+    }
+
+    private boolean isDictionaryEncodingEnabled() {
+        return this.options.getEncodeGzip() && this.options.getEncodeCodec() == CloudPayloadCodec.DICTIONARY;
+    }
+
+    private void publishDictionary(CompressionDictionary dictionary) throws KuraException {
+        DictionaryDeflateUtil.registerDictionary(dictionary);
+
+        // the dictionary message itself must be decodable without the dictionary
+        LifecycleMessage message = new LifecycleMessage(this.options, this).asDictionaryMessage(dictionary);
+        message.getPayload().setTimestamp(new Date());
+
+        byte[] encodedPayload;
+        try {
+            encodedPayload = new CloudPayloadProtoBufEncoderImpl(message.getPayload()).getBytes();
+        } catch (IOException e) {
+            throw new KuraException(KuraErrorCode.ENCODE_ERROR, "KuraPayload", e);
+        }
+
+        this.dataService.publish(message.getTopic(), encodedPayload, message.getQos(),
+                CloudServiceOptions.getLifeCycleMessageRetain(), CloudServiceOptions.getLifeCycleMessagePriority());
+    }
+
+    private Optional<CompressionDictionary> getCompressionDictionary(KuraPayload payload) {
+        this.dictionaryTrainer.train(payload.metrics());
+
+        final Optional<CompressionDictionary> newDictionary = this.dictionaryTrainer.refresh();
+
+        if (newDictionary.isPresent()) {
+            try {
+                // publish the dictionary before using it, messages are delivered in store order
+                publishDictionary(newDictionary.get());
+                this.dictionaryTrainer.setDictionary(newDictionary.get());
+                logger.info("Published compression dictionary {}", Integer.toHexString(newDictionary.get().getId()));
+            } catch (KuraException e) {
+                logger.warn("Failed to publish the compression dictionary, keeping the current one", e);
+            }
+        }
+
+        return this.dictionaryTrainer.getDictionary();
+    }
+
     private void publishWithDelay(LifecycleMessage message) {
         if (Objects.nonNull(this.scheduledBirthPublisherFuture)) {
             this.scheduledBirthPublisherFuture.cancel(false);
@@ -902,7 +962,9 @@ public class CloudServiceImpl
         }
 
         CloudPayloadEncoder encoder = new CloudPayloadProtoBufEncoderImpl(payload);
-        if (this.options.getEncodeGzip()) {
+        if (isDictionaryEncodingEnabled()) {
+            encoder = new CloudPayloadDictionaryEncoder(encoder, getCompressionDictionary(payload));
+        } else if (this.options.getEncodeGzip()) {
             encoder = new CloudPayloadGZipEncoder(encoder);
         }
 
@@ -12,10 +12,13 @@
  *******************************************************************************/
 package org.eclipse.kura.core.cloud;
 
+import org.eclipse.kura.core.util.CompressionDictionary;
 import org.eclipse.kura.message.KuraPayload;
 
 public class LifecycleMessage {
-    
+
+    private static final String DICTIONARY_ID_METRIC = "dictionary.id";
+
     private StringBuilder topicBuilder;
     private LifeCyclePayloadBuilder payloadBuilder;
     private KuraPayload payload;
@@ -50,6 +53,15 @@ public class LifecycleMessage {
         return this;
     }
 
+    public LifecycleMessage asDictionaryMessage(CompressionDictionary dictionary) {
+        this.topicBuilder.append(CloudServiceOptions.getTopicDictionarySuffix());
+        this.payload = new KuraPayload();
+        this.payload.addMetric(DICTIONARY_ID_METRIC, dictionary.getId());
+        this.payload.setBody(dictionary.getContent());
+        this.qos = 1;
+        return this;
+    }
+
     public LifecycleMessage asDisconnectCertificateMessage() {
         this.topicBuilder.append(CloudServiceOptions.getTopicDisconnectSuffix());
         this.payload = this.payloadBuilder.buildDisconnectPayload();
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.cloud;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reusable buffers, {@link Deflater} and {@link Inflater} used to encode and decode payloads without allocating
+ * intermediate arrays.
+ * <br>
+ * Instances are kept in a small pool, they must be obtained with {@link #acquire()} and returned with
+ * {@link #release(PayloadCodecBuffers)} when no longer used. Buffers larger than {@link #MAX_RETAINED_SIZE} are not
+ * retained by the pool to limit the memory used on constrained devices.
+ */
+final class PayloadCodecBuffers {
+
+    static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final int MAX_POOL_SIZE = 4;
+    private static final int INITIAL_SIZE = 4096;
+
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final byte GZIP_OS_UNKNOWN = (byte) 0xff;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private static final Queue<PayloadCodecBuffers> pool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger poolSize = new AtomicInteger();
+
+    private final CRC32 crc = new CRC32();
+    private Deflater deflater;
+    private Inflater inflater;
+
+    byte[] raw = new byte[INITIAL_SIZE];
+    byte[] compressed = new byte[INITIAL_SIZE];
+    int[] sizes = new int[64];
+
+    private PayloadCodecBuffers() {
+    }
+
+    static PayloadCodecBuffers acquire() {
+        final PayloadCodecBuffers result = pool.poll();
+
+        if (result == null) {
+            return new PayloadCodecBuffers();
+        }
+
+        poolSize.decrementAndGet();
+        return result;
+    }
+
+    static void release(final PayloadCodecBuffers buffers) {
+        if (buffers.raw.length <= MAX_RETAINED_SIZE && buffers.compressed.length <= MAX_RETAINED_SIZE) {
+            if (poolSize.incrementAndGet() <= MAX_POOL_SIZE) {
+                pool.offer(buffers);
+                return;
+            }
+            poolSize.decrementAndGet();
+        }
+
+        buffers.end();
+    }
+
+    byte[] ensureRaw(final int size) {
+        if (this.raw.length < size) {
+            this.raw = new byte[Math.max(size, this.raw.length * 2)];
+        }
+        return this.raw;
+    }
+
+    int[] ensureSizes(final int count) {
+        if (this.sizes.length < count) {
+            this.sizes = new int[Math.max(count, this.sizes.length * 2)];
+        }
+        return this.sizes;
+    }
+
+    /**
+     * Compresses the first {@code length} bytes of {@link #raw} in gzip format into {@link #compressed}.
+     *
+     * @param length
+     *            the number of bytes to compress
+     * @return the length of the compressed data
+     */
+    int gzip(final int length) {
+        if (this.deflater == null) {
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+
+        this.deflater.reset();
+        this.deflater.setInput(this.raw, 0, length);
+        this.deflater.finish();
+
+        ensureCompressed(GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE + length / 2);
+
+        final byte[] header = this.compressed;
+        header[0] = (byte) 0x1f;
+        header[1] = (byte) 0x8b;
+        header[2] = Deflater.DEFLATED;
+        Arrays.fill(header, 3, GZIP_HEADER_SIZE - 1, (byte) 0);
+        header[GZIP_HEADER_SIZE - 1] = GZIP_OS_UNKNOWN;
+
+        int position = GZIP_HEADER_SIZE;
+
+        while (!this.deflater.finished()) {
+            if (position == this.compressed.length) {
+                ensureCompressed(this.compressed.length * 2);
+            }
+            position += this.deflater.deflate(this.compressed, position, this.compressed.length - position);
+        }
+
+        this.crc.reset();
+        this.crc.update(this.raw, 0, length);
+
+        ensureCompressed(position + GZIP_TRAILER_SIZE);
+        writeIntLE(this.compressed, position, (int) this.crc.getValue());
+        writeIntLE(this.compressed, position + 4, length);
+
+        return position + GZIP_TRAILER_SIZE;
+    }
+
+    /**
+     * Decompresses a single member gzip stream into {@link #raw}.
+     *
+     * @param source
+     *            the gzip data
+     * @return the length of the decompressed data
+     * @throws IOException
+     *             if the data is not a valid single member gzip stream
+     */
+    int gunzip(final byte[] source) throws IOException {
+        int position = skipGzipHeader(source);
+
+        if (this.inflater == null) {
+            this.inflater = new Inflater(true);
+        }
+
+        this.inflater.reset();
+        this.inflater.setInput(source, position, source.length - position);
+
+        ensureRaw(source.length * 4);
+
+        int length = 0;
+
+        try {
+            while (!this.inflater.finished()) {
+                if (length == this.raw.length) {
+                    this.raw = Arrays.copyOf(this.raw, this.raw.length * 2);
+                }
+
+                final int count = this.inflater.inflate(this.raw, length, this.raw.length - length);
+
+                if (count == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                    throw new IOException("Truncated gzip data");
+                }
+
+                length += count;
+            }
+        } catch (final DataFormatException e) {
+            throw new IOException(e);
+        }
+
+        position = source.length - this.inflater.getRemaining();
+
+        if (source.length - position != GZIP_TRAILER_SIZE) {
+            throw new IOException("Unsupported gzip trailer");
+        }
+
+        this.crc.reset();
+        this.crc.update(this.raw, 0, length);
+
+        if (readIntLE(source, position) != (int) this.crc.getValue() || readIntLE(source, position + 4) != length) {
+            throw new IOException("Corrupted gzip data");
+        }
+
+        return length;
+    }
+
+    private void ensureCompressed(final int size) {
+        if (this.compressed.length < size) {
+            this.compressed = Arrays.copyOf(this.compressed, Math.max(size, this.compressed.length * 2));
+        }
+    }
+
+    private void end() {
+        if (this.deflater != null) {
+            this.deflater.end();
+        }
+        if (this.inflater != null) {
+            this.inflater.end();
+        }
+    }
+
+    private static int skipGzipHeader(final byte[] source) throws IOException {
+        if (source.length < GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE || source[2] != Deflater.DEFLATED) {
+            throw new IOException("Invalid gzip header");
+        }
+
+        final int flags = source[3] & 0xff;
+        int position = GZIP_HEADER_SIZE;
+
+        if ((flags & FEXTRA) != 0) {
+            position += 2 + ((source[position] & 0xff) | (source[position + 1] & 0xff) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            position = skipZeroTerminated(source, position);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            position = skipZeroTerminated(source, position);
+        }
+        if ((flags & FHCRC) != 0) {
+            position += 2;
+        }
+
+        if (position > source.length - GZIP_TRAILER_SIZE) {
+            throw new IOException("Invalid gzip header");
+        }
+
+        return position;
+    }
+
+    private static int skipZeroTerminated(final byte[] source, int position) throws IOException {
+        while (position < source.length && source[position] != 0) {
+            position++;
+        }
+
+        if (position == source.length) {
+            throw new IOException("Invalid gzip header");
+        }
+
+        return position + 1;
+    }
+
+    private static void writeIntLE(final byte[] dst, final int offset, final int value) {
+        dst[offset] = (byte) value;
+        dst[offset + 1] = (byte) (value >> 8);
+        dst[offset + 2] = (byte) (value >> 16);
+        dst[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static int readIntLE(final byte[] src, final int offset) {
+        return (src[offset] & 0xff) | (src[offset + 1] & 0xff) << 8 | (src[offset + 2] & 0xff) << 16
+                | (src[offset + 3] & 0xff) << 24;
+    }
+}
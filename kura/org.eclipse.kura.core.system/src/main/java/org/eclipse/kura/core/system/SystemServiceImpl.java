@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -46,6 +46,7 @@ import org.apache.commons.io.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.KuraProcessExecutionErrorException;
+import org.eclipse.kura.core.linux.util.SystemMetricsCollector;
 import org.eclipse.kura.executor.Command;
 import org.eclipse.kura.executor.CommandExecutorService;
 import org.eclipse.kura.executor.CommandStatus;
@@ -1009,7 +1010,8 @@ public class SystemServiceImpl extends SuperSystemService implements SystemServi
                     || LINUX_2_6_34_12_WR4_3_0_0_STANDARD.equals(getOsVersion())) {
                 biosVersion = runSystemCommand("eth_vers_bios", false, this.executorService);
             } else {
-                String biosTmp = runSystemCommand("dmidecode -s bios-version", false, this.executorService);
+                String biosTmp = SystemMetricsCollector.getDefault().getDmiValue("bios_version")
+                        .orElseGet(() -> runSystemCommand("dmidecode -s bios-version", false, this.executorService));
                 if (biosTmp.length() > 0 && !biosTmp.contains("Permission denied")) {
                     biosVersion = biosTmp;
                 }
@@ -1047,7 +1049,8 @@ public class SystemServiceImpl extends SuperSystemService implements SystemServi
             }
         } else if (OS_LINUX.equals(getOsName()) || OS_CLOUDBEES.equals(getOsName())
                 || getOsName().toLowerCase().startsWith(OS_WINDOWS)) {
-            String displayTmp = runSystemCommand("hostname", false, this.executorService);
+            String displayTmp = getKernelHostname()
+                    .orElseGet(() -> runSystemCommand("hostname", false, this.executorService));
             if (displayTmp.length() > 0) {
                 deviceName = displayTmp;
             }
@@ -1359,12 +1362,19 @@ public class SystemServiceImpl extends SuperSystemService implements SystemServi
             hostname = runSystemCommand("scutil --get ComputerName", false, this.executorService);
         } else if (OS_LINUX.equals(getOsName()) || OS_CLOUDBEES.equals(getOsName())
                 || getOsName().toLowerCase().startsWith(OS_WINDOWS)) {
-            hostname = runSystemCommand("hostname", false, this.executorService);
+            hostname = getKernelHostname().orElseGet(() -> runSystemCommand("hostname", false, this.executorService));
         }
 
         return hostname;
     }
 
+    private Optional<String> getKernelHostname() {
+        if (!OS_LINUX.equals(getOsName())) {
+            return Optional.empty();
+        }
+        return SystemMetricsCollector.getDefault().getHostname();
+    }
+
     @Override
     public String getNetVirtualDevicesConfig() {
         String status = NetInterfaceStatus.netIPv4StatusDisabled.name();
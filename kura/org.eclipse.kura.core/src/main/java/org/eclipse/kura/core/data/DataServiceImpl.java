@@ -16,13 +16,17 @@ import java.security.SecureRandom;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -30,6 +34,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -46,6 +51,9 @@ import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.connection.listener.ConnectionListener;
 import org.eclipse.kura.core.data.store.MessageStoreState;
 import org.eclipse.kura.core.db.H2DbMessageStoreImpl;
+import org.eclipse.kura.core.internal.data.ConfirmationMeter;
+import org.eclipse.kura.core.internal.data.DrainThroughputMeter;
+import org.eclipse.kura.core.internal.data.PriorityPublishQueues;
 import org.eclipse.kura.core.internal.data.TokenBucket;
 import org.eclipse.kura.data.DataService;
 import org.eclipse.kura.data.DataTransportService;
@@ -101,15 +109,23 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
     private Optional<MessageStoreState> storeState = Optional.empty();
 
-    private Map<DataTransportToken, Integer> inFlightMsgIds = new ConcurrentHashMap<>();
+    private Map<DataTransportToken, InFlightMessage> inFlightMsgIds = new ConcurrentHashMap<>();
+
+    // held while a message is published and its token registered, and while confirmations are resolved
+    private final Object inFlightLock = new Object();
+
+    // confirmations received from the transport, applied to the store by the publisher thread
+    private final Queue<DataTransportToken> pendingConfirmations = new ConcurrentLinkedQueue<>();
+    private final ConfirmationMeter confirmationMeter = new ConfirmationMeter();
 
     private ScheduledExecutorService congestionExecutor;
-    private ScheduledFuture<?> congestionFuture;
+    private final AtomicReference<ScheduledFuture<?>> congestionFuture = new AtomicReference<>();
 
     private CloudConnectionStatusService cloudConnectionStatusService;
     private CloudConnectionStatusEnum notificationStatus = CloudConnectionStatusEnum.OFF;
 
     private TokenBucket throttle;
+    private volatile Optional<PriorityPublishQueues> publishQueues = Optional.empty();
 
     private final Lock lock = new ReentrantLock();
     private boolean notifyPending;
@@ -148,6 +164,7 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         this.congestionExecutor = Executors.newSingleThreadScheduledExecutor();
 
         createThrottle();
+        createPublishQueues();
         submitPublishingWork();
 
         restartDbServiceTracker(this.dataServiceOptions.getDbServiceInstancePid());
@@ -231,8 +248,9 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
                 inFlightMsgs = this.storeState.get().getOrOpenMessageStore().getInFlightMessages();
             }
 
-            // The map associating a DataTransportToken with a message ID
+            // The map associating a DataTransportToken with the in-flight message
             this.inFlightMsgIds = new ConcurrentHashMap<>();
+            this.publishQueues.ifPresent(PriorityPublishQueues::clear);
 
             if (inFlightMsgs != null) {
                 for (StoredMessage message : inFlightMsgs) {
@@ -244,7 +262,7 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
                         continue;
                     }
 
-                    this.inFlightMsgIds.put(token.get(), message.getId());
+                    this.inFlightMsgIds.put(token.get(), new InFlightMessage(message.getId(), message.getTopic(), -1));
 
                     logger.debug("Restored in-fligh messages from store. Topic: {}, ID: {}, MQTT message ID: {}",
                             message.getTopic(), message.getId(), token.get().getMessageId());
@@ -266,6 +284,7 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         this.dataServiceOptions = new DataServiceOptions(properties);
 
         createThrottle();
+        createPublishQueues();
 
         final String currentDbServicePid = this.dataServiceOptions.getDbServiceInstancePid();
 
@@ -449,24 +468,32 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
     private void unpublishOrDropInFlightMessages(boolean publishInFlightMessages) {
 
-        if (publishInFlightMessages && this.storeState.isPresent()) {
-            logger.info("New session established. Unpublishing all in-flight messages. Disregarding the QoS level, "
-                    + "this may cause duplicate messages.");
-            try {
-                this.storeState.get().getOrOpenMessageStore().unpublishAllInFlighMessages();
-                this.inFlightMsgIds.clear();
-            } catch (KuraStoreException e) {
-                logger.error("Failed to unpublish in-flight messages", e);
-                DataServiceImpl.this.disconnectDataTransportAndLog(e);
-            }
-        } else if (this.storeState.isPresent()) {
-            logger.info("New session established. Dropping all in-flight messages.");
-            try {
-                this.storeState.get().getOrOpenMessageStore().dropAllInFlightMessages();
-                this.inFlightMsgIds.clear();
-            } catch (KuraStoreException e) {
-                logger.error("Failed to drop in-flight messages", e);
-                DataServiceImpl.this.disconnectDataTransportAndLog(e);
+        synchronized (this.inFlightLock) {
+            // messages already acknowledged by the broker must be confirmed before the others are unpublished or
+            // dropped
+            applyPendingConfirmations();
+
+            if (publishInFlightMessages && this.storeState.isPresent()) {
+                logger.info("New session established. Unpublishing all in-flight messages. Disregarding the QoS level, "
+                        + "this may cause duplicate messages.");
+                try {
+                    this.storeState.get().getOrOpenMessageStore().unpublishAllInFlighMessages();
+                    this.inFlightMsgIds.clear();
+                    this.publishQueues.ifPresent(PriorityPublishQueues::clear);
+                } catch (KuraStoreException e) {
+                    logger.error("Failed to unpublish in-flight messages", e);
+                    DataServiceImpl.this.disconnectDataTransportAndLog(e);
+                }
+            } else if (this.storeState.isPresent()) {
+                logger.info("New session established. Dropping all in-flight messages.");
+                try {
+                    this.storeState.get().getOrOpenMessageStore().dropAllInFlightMessages();
+                    this.inFlightMsgIds.clear();
+                    this.publishQueues.ifPresent(PriorityPublishQueues::clear);
+                } catch (KuraStoreException e) {
+                    logger.error("Failed to drop in-flight messages", e);
+                    DataServiceImpl.this.disconnectDataTransportAndLog(e);
+                }
             }
         }
 
@@ -529,46 +556,106 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
     }
 
     @Override
-    // It's very important that the publishInternal and messageConfirmed methods are
-    // synchronized
-    public synchronized void onMessageConfirmed(DataTransportToken token) {
+    public void onMessageConfirmed(DataTransportToken token) {
 
         logger.debug("Confirmed message with MQTT message ID: {} on session ID: {}", token.getMessageId(),
                 token.getSessionId());
 
-        Integer messageId = this.inFlightMsgIds.remove(token);
-        if (messageId == null) {
-            logger.info(
-                    "Confirmed message published with MQTT message ID: {} not tracked in the map of in-flight messages",
-                    token.getMessageId());
-        } else {
+        this.pendingConfirmations.add(token);
 
-            Optional<StoredMessage> confirmedMessage = Optional.empty();
-            try {
-                logger.info("Confirmed message ID: {} to store", messageId);
-                if (this.storeState.isPresent()) {
-                    this.storeState.get().getOrOpenMessageStore().markAsConfirmed(messageId);
-                    confirmedMessage = this.storeState.get().getOrOpenMessageStore().get(messageId);
+        signalPublisher();
+    }
+
+    // Tokens are resolved while holding inFlightLock, the same lock held while a message is published and its token
+    // registered, so that a confirmation can never be resolved before the token of its message is tracked. The whole
+    // method runs under the lock so that in-flight messages are not unpublished or dropped while the confirmations
+    // already resolved are being applied to the store.
+    private void applyPendingConfirmations() {
+        if (this.pendingConfirmations.isEmpty()) {
+            return;
+        }
+
+        synchronized (this.inFlightLock) {
+            final List<InFlightMessage> confirmedMessages = new ArrayList<>();
+
+            DataTransportToken token;
+            while ((token = this.pendingConfirmations.poll()) != null) {
+                final InFlightMessage message = this.inFlightMsgIds.remove(token);
+
+                if (message == null) {
+                    logger.info(
+                            "Confirmed message published with MQTT message ID: {} not tracked in the map of in-flight messages",
+                            token.getMessageId());
+                } else {
+                    confirmedMessages.add(message);
                 }
-            } catch (KuraStoreException e) {
-                logger.error("Cannot confirm message to store", e);
-                disconnectDataTransportAndLog(e);
             }
 
-            // Notify the listeners
-            if (confirmedMessage.isPresent()) {
-                String topic = confirmedMessage.get().getTopic();
-                this.dataServiceListeners.onMessageConfirmed(messageId, topic);
-            } else {
-                logger.error("Confirmed Message with ID {} could not be loaded from the DataStore.", messageId);
+            if (!confirmedMessages.isEmpty()) {
+                confirmInStore(confirmedMessages);
             }
         }
 
         if (this.inFlightMsgIds.size() < this.dataServiceOptions.getMaxInFlightMessages()) {
             handleInFlightDecongestion();
         }
+    }
 
-        signalPublisher();
+    private void confirmInStore(final List<InFlightMessage> confirmedMessages) {
+        final List<Integer> msgIds = new ArrayList<>(confirmedMessages.size());
+
+        for (final InFlightMessage message : confirmedMessages) {
+            msgIds.add(message.getId());
+        }
+
+        try {
+            if (!this.storeState.isPresent()) {
+                logger.error("Confirmed messages with IDs {} could not be updated in the DataStore.", msgIds);
+                return;
+            }
+
+            logger.info("Confirmed message IDs: {} to store", msgIds);
+            this.storeState.get().getOrOpenMessageStore().markAsConfirmed(msgIds);
+        } catch (KuraStoreException e) {
+            logger.error("Cannot confirm messages to store", e);
+            disconnectDataTransportAndLog(e);
+            return;
+        }
+
+        final long now = System.nanoTime();
+
+        for (final InFlightMessage message : confirmedMessages) {
+            this.confirmationMeter.onConfirmation(message.getPublishedOnNanos(), now);
+        }
+
+        this.confirmationMeter.onBatchApplied();
+
+        logger.debug("Confirmed batch of {} messages, max confirm latency: {} ms, average confirm latency: {} ms",
+                this.confirmationMeter.getLastBatchSize(), this.confirmationMeter.getLastBatchMaxLatencyMillis(),
+                String.format("%.2f", this.confirmationMeter.getAverageLatencyMillis()));
+
+        // Notify the listeners
+        for (final InFlightMessage message : confirmedMessages) {
+            this.dataServiceListeners.onMessageConfirmed(message.getId(), message.getTopic());
+        }
+    }
+
+    private void logConfirmationStatistics() {
+        final ConfirmationMeter meter = this.confirmationMeter;
+
+        if (meter.getBatchCount() == 0) {
+            return;
+        }
+
+        logger.info(
+                "Confirmed {} messages with {} store updates, average batch size: {}, max batch size: {}, average confirm latency: {} ms, max confirm latency: {} ms",
+                meter.getConfirmedMessageCount(), meter.getBatchCount(),
+                String.format("%.2f", meter.getAverageBatchSize()), meter.getMaxBatchSize(),
+                String.format("%.2f", meter.getAverageLatencyMillis()), meter.getMaxLatencyMillis());
+    }
+
+    ConfirmationMeter getConfirmationMeter() {
+        return this.confirmationMeter;
     }
 
     private void disconnectDataTransportAndLog(Throwable e) {
@@ -676,6 +763,14 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
                     messageId = currentStore.store(topic, payload, qos, retain, priority);
                     logger.info("Stored message on topic: {}, priority: {}", topic, priority);
+
+                    final Optional<PriorityPublishQueues> queues = this.publishQueues;
+
+                    if (queues.isPresent()) {
+                        queues.get().offer(new StoredMessage.Builder(messageId).withTopic(topic).withPayload(payload)
+                                .withQos(qos).withRetain(retain).withPriority(priority).withCreatedOn(new Date())
+                                .build());
+                    }
                 }
 
                 signalPublisher();
@@ -814,15 +909,39 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
     private void createThrottle() {
         if (this.dataServiceOptions.isRateLimitEnabled()) {
-            int publishRate = this.dataServiceOptions.getRateLimitAverageRate();
-            int burstLength = this.dataServiceOptions.getRateLimitBurstSize();
+            this.throttle = newRateLimitTokenBucket();
+        }
+    }
+
+    private TokenBucket newRateLimitTokenBucket() {
+        int publishRate = this.dataServiceOptions.getRateLimitAverageRate();
+        int burstLength = this.dataServiceOptions.getRateLimitBurstSize();
+
+        long publishPeriod = this.dataServiceOptions.getRateLimitTimeUnit() / publishRate;
 
-            long publishPeriod = this.dataServiceOptions.getRateLimitTimeUnit() / publishRate;
+        logger.info("Get Throttle with burst length {} and send a message every {} nanoseconds", burstLength,
+                publishPeriod);
+        return new TokenBucket(burstLength, publishPeriod);
+    }
 
-            logger.info("Get Throttle with burst length {} and send a message every {} nanoseconds", burstLength,
-                    publishPeriod);
-            this.throttle = new TokenBucket(burstLength, publishPeriod);
+    private void createPublishQueues() {
+        if (!this.dataServiceOptions.isPublishPriorityQueuesEnabled()) {
+            this.publishQueues = Optional.empty();
+            return;
         }
+
+        // Priority 0 and 1 messages bypass the other bands, rate limiting only applies to priority 5 or greater
+        final Optional<TokenBucket> normalBandThrottle = this.dataServiceOptions.isRateLimitEnabled()
+                ? Optional.of(newRateLimitTokenBucket())
+                : Optional.empty();
+
+        this.publishQueues = Optional.of(new PriorityPublishQueues(
+                this.dataServiceOptions.getPublishPriorityQueuesCapacity(),
+                Arrays.asList(new PriorityPublishQueues.Band(0, 1, 0, Optional.empty()),
+                        new PriorityPublishQueues.Band(2, 4,
+                                this.dataServiceOptions.getPublishPriorityQueuesHighWeight(), Optional.empty()),
+                        new PriorityPublishQueues.Band(5, Integer.MAX_VALUE,
+                                this.dataServiceOptions.getPublishPriorityQueuesNormalWeight(), normalBandThrottle))));
     }
 
     private void stopConnectionMonitorTask() {
@@ -868,8 +987,10 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
     }
 
     private void handleInFlightDecongestion() {
-        if (this.congestionFuture != null && !this.congestionFuture.isDone()) {
-            this.congestionFuture.cancel(true);
+        final ScheduledFuture<?> future = this.congestionFuture.get();
+
+        if (future != null && !future.isDone()) {
+            future.cancel(true);
         }
     }
 
@@ -954,6 +1075,9 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
     private final class PublishManager implements Runnable {
 
+        private final DrainThroughputMeter drainThroughputMeter = new DrainThroughputMeter();
+        private long batchSleepingTime = -1;
+
         @Override
         public void run() {
             Thread.currentThread().setName("DataServiceImpl:Submit");
@@ -961,9 +1085,22 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
                 long sleepingTime = -1;
                 boolean messagePublished = false;
 
+                applyPendingConfirmations();
+
                 if (DataServiceImpl.this.dataTransportService.isConnected()) {
                     try {
-                        if (DataServiceImpl.this.storeState.isPresent()) {
+                        final Optional<PriorityPublishQueues> queues = DataServiceImpl.this.publishQueues;
+
+                        if (DataServiceImpl.this.storeState.isPresent() && queues.isPresent()) {
+                            messagePublished = publishFromQueues(
+                                    DataServiceImpl.this.storeState.get().getOrOpenMessageStore(), queues.get());
+                            sleepingTime = this.batchSleepingTime;
+                        } else if (DataServiceImpl.this.storeState.isPresent()
+                                && DataServiceImpl.this.dataServiceOptions.isPublishBatchEnabled()) {
+                            messagePublished = publishNextBatch(
+                                    DataServiceImpl.this.storeState.get().getOrOpenMessageStore());
+                            sleepingTime = this.batchSleepingTime;
+                        } else if (DataServiceImpl.this.storeState.isPresent()) {
                             final Optional<StoredMessage> message = DataServiceImpl.this.storeState.get()
                                     .getOrOpenMessageStore().getNextMessage();
 
@@ -996,9 +1133,200 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
                     suspendPublisher(sleepingTime, TimeUnit.NANOSECONDS);
                 }
             }
+            applyPendingConfirmations();
             logger.debug("Exited publisher loop.");
         }
 
+        // Retrieves up to publish.batch.size messages with a single store query, publishes them back to back and
+        // marks the published ones with a single store transaction.
+        private boolean publishNextBatch(final MessageStore store) throws KuraException {
+            this.batchSleepingTime = -1;
+
+            final List<StoredMessage> messages = store
+                    .getNextMessages(DataServiceImpl.this.dataServiceOptions.getPublishBatchSize());
+
+            if (messages.isEmpty()) {
+                onBacklogDrained();
+                return false;
+            }
+
+            final long maxLatencyNanos = DataServiceImpl.this.dataServiceOptions.getPublishBatchMaxLatencyNanos();
+            final long batchStart = System.nanoTime();
+
+            final List<StoredMessage> publishedMessages = new ArrayList<>(messages.size());
+            final List<Integer> publishedMsgIds = new ArrayList<>(messages.size());
+            final Map<Integer, DataTransportToken> inFlightMessages = new HashMap<>();
+
+            try {
+                for (final StoredMessage message : messages) {
+
+                    if (!publishedMessages.isEmpty() && System.nanoTime() - batchStart > maxLatencyNanos) {
+                        break;
+                    }
+
+                    if (message.getQos() > 0 && DataServiceImpl.this.inFlightMsgIds
+                            .size() >= DataServiceImpl.this.dataServiceOptions.getMaxInFlightMessages()) {
+                        if (publishedMessages.isEmpty()) {
+                            checkInFlightMessages(message);
+                        }
+                        break;
+                    }
+
+                    final boolean throttled = DataServiceImpl.this.dataServiceOptions.isRateLimitEnabled()
+                            && message.getPriority() >= 5;
+
+                    if (throttled && !DataServiceImpl.this.throttle.getToken()) {
+                        this.batchSleepingTime = DataServiceImpl.this.throttle.getTokenWaitTime();
+                        break;
+                    }
+
+                    try {
+                        publishBatchMessage(message, publishedMessages, publishedMsgIds, inFlightMessages);
+                    } catch (KuraException e) {
+                        if (throttled) {
+                            DataServiceImpl.this.throttle.returnToken();
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                completeBatch(store, publishedMessages, publishedMsgIds, inFlightMessages);
+            }
+
+            return !publishedMessages.isEmpty();
+        }
+
+        // Publishes the messages selected by the priority queues, up to publish.batch.size messages, and marks the
+        // published ones with a single store transaction.
+        private boolean publishFromQueues(final MessageStore store, final PriorityPublishQueues queues)
+                throws KuraException {
+            this.batchSleepingTime = -1;
+
+            queues.refill(store);
+
+            final int maxMessages = DataServiceImpl.this.dataServiceOptions.getPublishBatchSize();
+            final long maxLatencyNanos = DataServiceImpl.this.dataServiceOptions.getPublishBatchMaxLatencyNanos();
+            final long batchStart = System.nanoTime();
+
+            final List<StoredMessage> publishedMessages = new ArrayList<>(maxMessages);
+            final List<Integer> publishedMsgIds = new ArrayList<>(maxMessages);
+            final Map<Integer, DataTransportToken> inFlightMessages = new HashMap<>();
+
+            StoredMessage polledMessage = null;
+
+            try {
+                while (publishedMessages.size() < maxMessages) {
+
+                    if (!publishedMessages.isEmpty() && System.nanoTime() - batchStart > maxLatencyNanos) {
+                        break;
+                    }
+
+                    final boolean inFlightAvailable = DataServiceImpl.this.inFlightMsgIds
+                            .size() < DataServiceImpl.this.dataServiceOptions.getMaxInFlightMessages();
+
+                    final Optional<StoredMessage> next = queues.poll(inFlightAvailable);
+
+                    if (!next.isPresent()) {
+                        handleEmptyPoll(queues, publishedMessages.isEmpty(), inFlightAvailable);
+                        break;
+                    }
+
+                    polledMessage = next.get();
+                    publishBatchMessage(polledMessage, publishedMessages, publishedMsgIds, inFlightMessages);
+                    polledMessage = null;
+                }
+            } finally {
+                if (polledMessage != null) {
+                    // not published, give back the message and its token
+                    queues.putBack(polledMessage);
+                }
+                completeBatch(store, publishedMessages, publishedMsgIds, inFlightMessages);
+            }
+
+            return !publishedMessages.isEmpty();
+        }
+
+        private void handleEmptyPoll(final PriorityPublishQueues queues, final boolean nothingPublished,
+                final boolean inFlightAvailable) {
+            if (queues.needsRefill()) {
+                // the store has more messages, refill the queues on the next iteration
+                this.batchSleepingTime = 0;
+            } else if (queues.isEmpty()) {
+                if (nothingPublished) {
+                    onBacklogDrained();
+                }
+            } else {
+                if (nothingPublished && !inFlightAvailable) {
+                    logger.warn("The configured maximum number of in-flight messages has been reached");
+                    handleInFlightCongestion();
+                }
+                this.batchSleepingTime = queues.getTokenWaitTime();
+            }
+        }
+
+        private void publishBatchMessage(final StoredMessage message, final List<StoredMessage> publishedMessages,
+                final List<Integer> publishedMsgIds, final Map<Integer, DataTransportToken> inFlightMessages)
+                throws KuraException {
+
+            logger.debug("Publishing message with ID: {} on topic: {}, priority: {}", message.getId(),
+                    message.getTopic(), message.getPriority());
+
+            final DataTransportToken token;
+
+            synchronized (DataServiceImpl.this.inFlightLock) {
+                token = DataServiceImpl.this.dataTransportService.publish(message.getTopic(), message.getPayload(),
+                        message.getQos(), message.isRetain());
+
+                if (token != null && DataServiceImpl.this.inFlightMsgIds.put(token,
+                        new InFlightMessage(message.getId(), message.getTopic(), System.nanoTime())) != null) {
+                    logger.error("Token already tracked: {} - {}", token.getSessionId(), token.getMessageId());
+                }
+            }
+
+            if (token == null) {
+                publishedMsgIds.add(message.getId());
+            } else {
+                inFlightMessages.put(message.getId(), token);
+            }
+
+            publishedMessages.add(message);
+        }
+
+        private void onBacklogDrained() {
+            if (this.drainThroughputMeter.onBacklogDrained()) {
+                logger.info("Published {} messages in {} batches, elapsed: {} ms, throughput: {} messages/s",
+                        this.drainThroughputMeter.getLastDrainMessageCount(),
+                        this.drainThroughputMeter.getLastDrainBatchCount(),
+                        this.drainThroughputMeter.getLastDrainDurationMillis(),
+                        String.format("%.2f", this.drainThroughputMeter.getLastDrainThroughput()));
+                logConfirmationStatistics();
+            }
+        }
+
+        private void completeBatch(final MessageStore store, final List<StoredMessage> publishedMessages,
+                final List<Integer> publishedMsgIds, final Map<Integer, DataTransportToken> inFlightMessages) {
+
+            if (publishedMessages.isEmpty()) {
+                return;
+            }
+
+            try {
+                store.markAsPublished(publishedMsgIds, inFlightMessages);
+                logger.debug("Published batch of {} messages, {} in-flight", publishedMessages.size(),
+                        inFlightMessages.size());
+            } catch (KuraStoreException e) {
+                // the messages have been removed from the queues but are still unpublished in the store, reload them
+                DataServiceImpl.this.publishQueues.ifPresent(PriorityPublishQueues::clear);
+                DataServiceImpl.this.disconnectDataTransportAndLog(e);
+            }
+
+            this.drainThroughputMeter.onBatchPublished(publishedMessages.size());
+
+            for (final StoredMessage message : publishedMessages) {
+                DataServiceImpl.this.dataServiceListeners.onMessagePublished(message.getId(), message.getTopic());
+            }
+        }
+
         private void checkInFlightMessages(StoredMessage message) throws KuraTooManyInflightMessagesException {
             if (message.getQos() > 0 && DataServiceImpl.this.inFlightMsgIds
                     .size() >= DataServiceImpl.this.dataServiceOptions.getMaxInFlightMessages()) {
@@ -1050,21 +1378,20 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
             int timeout = DataServiceImpl.this.dataServiceOptions.getInFlightMessagesCongestionTimeout();
 
             // Do not schedule more that one task at a time
-            if (timeout != 0 && (DataServiceImpl.this.congestionFuture == null
-                    || DataServiceImpl.this.congestionFuture.isDone())) {
+            final ScheduledFuture<?> future = DataServiceImpl.this.congestionFuture.get();
+
+            if (timeout != 0 && (future == null || future.isDone())) {
                 logger.warn("In-flight message congestion timeout started");
-                DataServiceImpl.this.congestionFuture = DataServiceImpl.this.congestionExecutor.schedule(() -> {
+                DataServiceImpl.this.congestionFuture.set(DataServiceImpl.this.congestionExecutor.schedule(() -> {
                     Thread.currentThread().setName("DataServiceImpl:InFlightCongestion");
                     logger.warn("In-flight message congestion timeout elapsed. Disconnecting and reconnecting again");
                     disconnect();
                     startConnectionMonitorTask();
-                }, timeout, TimeUnit.SECONDS);
+                }, timeout, TimeUnit.SECONDS));
             }
         }
 
-        // It's very important that the publishInternal and messageConfirmed methods are
-        // synchronized
-        private synchronized void publishInternal(StoredMessage message) throws KuraException {
+        private void publishInternal(StoredMessage message) throws KuraException {
 
             String topic = message.getTopic();
             byte[] payload = message.getPayload();
@@ -1075,7 +1402,18 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
             logger.debug("Publishing message with ID: {} on topic: {}, priority: {}", msgId, topic,
                     message.getPriority());
 
-            DataTransportToken token = DataServiceImpl.this.dataTransportService.publish(topic, payload, qos, retain);
+            DataTransportToken token;
+
+            synchronized (DataServiceImpl.this.inFlightLock) {
+                token = DataServiceImpl.this.dataTransportService.publish(topic, payload, qos, retain);
+
+                // Check if the token is already tracked in the map (in which case we are in
+                // trouble)
+                if (token != null && DataServiceImpl.this.inFlightMsgIds.put(token,
+                        new InFlightMessage(msgId, topic, System.nanoTime())) != null) {
+                    logger.error("Token already tracked: {} - {}", token.getSessionId(), token.getMessageId());
+                }
+            }
 
             if (DataServiceImpl.this.storeState.isPresent()) {
                 try {
@@ -1083,15 +1421,6 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
                         DataServiceImpl.this.storeState.get().getOrOpenMessageStore().markAsPublished(msgId);
                         logger.debug("Published message with ID: {}", msgId);
                     } else {
-
-                        // Check if the token is already tracked in the map (in which case we are in
-                        // trouble)
-                        Integer trackedMsgId = DataServiceImpl.this.inFlightMsgIds.get(token);
-                        if (trackedMsgId != null) {
-                            logger.error("Token already tracked: {} - {}", token.getSessionId(), token.getMessageId());
-                        }
-
-                        DataServiceImpl.this.inFlightMsgIds.put(token, msgId);
                         DataServiceImpl.this.storeState.get().getOrOpenMessageStore().markAsPublished(msgId, token);
                         logger.debug("Published message with ID: {} and MQTT message ID: {}", msgId,
                                 token.getMessageId());
@@ -1180,4 +1509,32 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         }
     }
 
+
+    static final class InFlightMessage {
+
+        private final int id;
+        private final String topic;
+        private final long publishedOnNanos;
+
+        InFlightMessage(final int id, final String topic, final long publishedOnNanos) {
+            this.id = id;
+            this.topic = topic;
+            this.publishedOnNanos = publishedOnNanos;
+        }
+
+        int getId() {
+            return this.id;
+        }
+
+        String getTopic() {
+            return this.topic;
+        }
+
+        /**
+         * @return the {@link System#nanoTime()} of publication, or -1 if unknown.
+         */
+        long getPublishedOnNanos() {
+            return this.publishedOnNanos;
+        }
+    }
 }
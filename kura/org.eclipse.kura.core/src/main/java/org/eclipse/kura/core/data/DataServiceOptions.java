@@ -36,6 +36,8 @@ public class DataServiceOptions {
     private static final String STORE_HOUSEKEEPER_INTERVAL_PROP_NAME = "store.housekeeper-interval";
     private static final String STORE_PURGE_AGE_PROP_NAME = "store.purge-age";
     private static final String STORE_CAPACITY_PROP_NAME = "store.capacity";
+    private static final String STORE_WRITE_BEHIND_MAX_DELAY_PROP_NAME = "store.write-behind.max-delay";
+    private static final String STORE_WRITE_BEHIND_MAX_MESSAGES_PROP_NAME = "store.write-behind.max-messages";
     private static final String REPUBLISH_IN_FLIGHT_MSGS_PROP_NAME = "in-flight-messages.republish-on-new-session";
     private static final String MAX_IN_FLIGHT_MSGS_PROP_NAME = "in-flight-messages.max-number";
     private static final String IN_FLIGHT_MSGS_CONGESTION_TIMEOUT_PROP_NAME = "in-flight-messages.congestion-timeout";
@@ -51,6 +53,12 @@ public class DataServiceOptions {
     private static final String CONNECTION_SCHEDULE_PRIORITY_OVERRIDE_ENABLE = "connection.schedule.priority.override.enable";
     private static final String CONNECTION_SCHEDULE_PRIORITY_OVERRIDE_THRESHOLD = "connection.schedule.priority.override.threshold";
     private static final String MAXIMUM_PAYLOAD_SIZE = "maximum.payload.size";
+    private static final String PUBLISH_BATCH_SIZE = "publish.batch.size";
+    private static final String PUBLISH_BATCH_MAX_LATENCY = "publish.batch.max-latency";
+    private static final String PUBLISH_PRIORITY_QUEUES_ENABLED = "publish.priority-queues.enabled";
+    private static final String PUBLISH_PRIORITY_QUEUES_CAPACITY = "publish.priority-queues.capacity";
+    private static final String PUBLISH_PRIORITY_QUEUES_HIGH_WEIGHT = "publish.priority-queues.high.weight";
+    private static final String PUBLISH_PRIORITY_QUEUES_NORMAL_WEIGHT = "publish.priority-queues.normal.weight";
 
     private static final boolean AUTOCONNECT_PROP_DEFAULT = false;
     private static final int CONNECT_DELAY_DEFAULT = 60;
@@ -59,6 +67,8 @@ public class DataServiceOptions {
     private static final int STORE_HOUSEKEEPER_INTERVAL_DEFAULT = 900;
     private static final int STORE_PURGE_AGE_DEFAULT = 60;
     private static final int STORE_CAPACITY_DEFAULT = 10000;
+    private static final int STORE_WRITE_BEHIND_MAX_DELAY_DEFAULT = 0;
+    private static final int STORE_WRITE_BEHIND_MAX_MESSAGES_DEFAULT = 100;
     private static final boolean REPUBLISH_IN_FLIGHT_MSGS_DEFAULT = true;
     private static final int MAX_IN_FLIGHT_MSGS_DEFAULT = 9;
     private static final int IN_FLIGHT_MSGS_CONGESTION_TIMEOUT_DEFAULT = 0;
@@ -73,6 +83,12 @@ public class DataServiceOptions {
     private static final boolean CONNECTION_SCHEDULE_PRIORITY_OVERRIDE_ENABLE_DEFAULT = false;
     private static final int CONNECTION_SCHEDULE_PRIORITY_OVERRIDE_THRESHOLD_DEFAULT = 1;
     private static final long MAXIMUM_PAYLOAD_SIZE_DEFAULT = 16777216;
+    private static final int PUBLISH_BATCH_SIZE_DEFAULT = 1;
+    private static final int PUBLISH_BATCH_MAX_LATENCY_DEFAULT = 1000;
+    private static final boolean PUBLISH_PRIORITY_QUEUES_ENABLED_DEFAULT = false;
+    private static final int PUBLISH_PRIORITY_QUEUES_CAPACITY_DEFAULT = 100;
+    private static final int PUBLISH_PRIORITY_QUEUES_HIGH_WEIGHT_DEFAULT = 4;
+    private static final int PUBLISH_PRIORITY_QUEUES_NORMAL_WEIGHT_DEFAULT = 1;
 
     private static final int CONNECT_CRITICAL_COMPONENT_TIMEOUT_MULTIPLIER = 5000;
 
@@ -96,6 +112,20 @@ public class DataServiceOptions {
         return (int) this.properties.getOrDefault(STORE_CAPACITY_PROP_NAME, STORE_CAPACITY_DEFAULT);
     }
 
+    public boolean isStoreWriteBehindEnabled() {
+        return getStoreWriteBehindMaxDelay() > 0;
+    }
+
+    public int getStoreWriteBehindMaxDelay() {
+        return Math.max(0, (int) this.properties.getOrDefault(STORE_WRITE_BEHIND_MAX_DELAY_PROP_NAME,
+                STORE_WRITE_BEHIND_MAX_DELAY_DEFAULT));
+    }
+
+    public int getStoreWriteBehindMaxMessages() {
+        return Math.max(1, (int) this.properties.getOrDefault(STORE_WRITE_BEHIND_MAX_MESSAGES_PROP_NAME,
+                STORE_WRITE_BEHIND_MAX_MESSAGES_DEFAULT));
+    }
+
     public boolean isPublishInFlightMessages() {
         return (boolean) this.properties.getOrDefault(REPUBLISH_IN_FLIGHT_MSGS_PROP_NAME,
                 REPUBLISH_IN_FLIGHT_MSGS_DEFAULT);
@@ -219,4 +249,37 @@ public class DataServiceOptions {
             return MAXIMUM_PAYLOAD_SIZE_DEFAULT;
         }
     }
+
+    public int getPublishBatchSize() {
+        return Math.max(1, (int) this.properties.getOrDefault(PUBLISH_BATCH_SIZE, PUBLISH_BATCH_SIZE_DEFAULT));
+    }
+
+    public boolean isPublishBatchEnabled() {
+        return getPublishBatchSize() > 1;
+    }
+
+    public long getPublishBatchMaxLatencyNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0,
+                (int) this.properties.getOrDefault(PUBLISH_BATCH_MAX_LATENCY, PUBLISH_BATCH_MAX_LATENCY_DEFAULT)));
+    }
+
+    public boolean isPublishPriorityQueuesEnabled() {
+        return (boolean) this.properties.getOrDefault(PUBLISH_PRIORITY_QUEUES_ENABLED,
+                PUBLISH_PRIORITY_QUEUES_ENABLED_DEFAULT);
+    }
+
+    public int getPublishPriorityQueuesCapacity() {
+        return Math.max(1, (int) this.properties.getOrDefault(PUBLISH_PRIORITY_QUEUES_CAPACITY,
+                PUBLISH_PRIORITY_QUEUES_CAPACITY_DEFAULT));
+    }
+
+    public int getPublishPriorityQueuesHighWeight() {
+        return Math.max(1, (int) this.properties.getOrDefault(PUBLISH_PRIORITY_QUEUES_HIGH_WEIGHT,
+                PUBLISH_PRIORITY_QUEUES_HIGH_WEIGHT_DEFAULT));
+    }
+
+    public int getPublishPriorityQueuesNormalWeight() {
+        return Math.max(1, (int) this.properties.getOrDefault(PUBLISH_PRIORITY_QUEUES_NORMAL_WEIGHT,
+                PUBLISH_PRIORITY_QUEUES_NORMAL_WEIGHT_DEFAULT));
+    }
 }
@@ -21,6 +21,7 @@ import org.eclipse.kura.KuraStoreException;
 import org.eclipse.kura.core.data.DataServiceOptions;
 import org.eclipse.kura.message.store.provider.MessageStore;
 import org.eclipse.kura.message.store.provider.MessageStoreProvider;
+import org.eclipse.kura.util.message.store.AbstractJdbcMessageStoreImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,7 +70,24 @@ public class MessageStoreState {
 
     public synchronized MessageStore openMessageStore() throws KuraStoreException {
 
-        final MessageStore result = this.messageStoreProvider.openMessageStore(this.options.getKuraServicePid());
+        final MessageStore opened = this.messageStoreProvider.openMessageStore(this.options.getKuraServicePid());
+        final MessageStore result;
+
+        if (!this.options.isStoreWriteBehindEnabled()) {
+            result = opened;
+        } else if (opened instanceof AbstractJdbcMessageStoreImpl) {
+            try {
+                result = new WriteBehindMessageStore((AbstractJdbcMessageStoreImpl) opened,
+                        this.options.getStoreWriteBehindMaxDelay(), this.options.getStoreWriteBehindMaxMessages());
+            } catch (final KuraStoreException e) {
+                opened.close();
+                throw e;
+            }
+        } else {
+            logger.warn("write-behind is not supported by {}, messages will be persisted immediately",
+                    opened.getClass().getName());
+            result = opened;
+        }
 
         this.messageStore = Optional.of(result);
 
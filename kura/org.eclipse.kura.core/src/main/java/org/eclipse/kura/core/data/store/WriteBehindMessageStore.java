@@ -0,0 +1,422 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.data.DataTransportToken;
+import org.eclipse.kura.message.store.StoredMessage;
+import org.eclipse.kura.message.store.provider.MessageStore;
+import org.eclipse.kura.util.message.store.AbstractJdbcMessageStoreImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link MessageStore} that keeps newly stored messages in memory and writes them to the wrapped store in a single
+ * transaction, after at most {@code maxDelayMs} milliseconds or as soon as {@code maxMessages} messages are pending.
+ * <br>
+ * Message identifiers are assigned by this class starting from the next value of the identity column of the wrapped
+ * store, so that the identifiers of deleted messages are not reused. State changes of pending messages are applied in
+ * memory. QoS 0 messages that are published before being flushed, and
+ * confirmed messages, are never written to the wrapped store.
+ * <br>
+ * Pending messages are lost in case of a crash.
+ */
+public class WriteBehindMessageStore implements MessageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindMessageStore.class);
+
+    private static final Comparator<PendingMessage> PUBLISH_ORDER = Comparator
+            .comparingInt((PendingMessage m) -> m.priority) //
+            .thenComparing(m -> m.createdOn) //
+            .thenComparingInt(m -> m.id);
+
+    private static final Comparator<StoredMessage> STORED_PUBLISH_ORDER = Comparator
+            .comparingInt(StoredMessage::getPriority) //
+            .thenComparing(m -> m.getCreatedOn().orElse(new Date(0))) //
+            .thenComparingInt(StoredMessage::getId);
+
+    private final AbstractJdbcMessageStoreImpl store;
+    private final long maxDelayMs;
+    private final int maxMessages;
+    private final ScheduledExecutorService executor;
+
+    private final Map<Integer, PendingMessage> pending = new LinkedHashMap<>();
+    private Optional<ScheduledFuture<?>> scheduledFlush = Optional.empty();
+    private boolean storeMayHaveUnpublishedMessages = true;
+    private long nextId;
+
+    public WriteBehindMessageStore(final AbstractJdbcMessageStoreImpl store, final long maxDelayMs,
+            final int maxMessages) throws KuraStoreException {
+        this.store = store;
+        this.maxDelayMs = maxDelayMs;
+        this.maxMessages = maxMessages;
+        this.nextId = store.getNextMessageId();
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Override
+    public synchronized int store(String topic, byte[] payload, int qos, boolean retain, int priority)
+            throws KuraStoreException {
+        if (topic == null || topic.trim().length() == 0) {
+            throw new KuraStoreException(null, "topic must be not null and not empty");
+        }
+
+        if (this.pending.size() >= this.maxMessages) {
+            flush();
+        }
+
+        if (this.nextId > Integer.MAX_VALUE) {
+            // let the wrapped store handle identifier exhaustion
+            flush();
+            final int id = this.store.store(topic, payload, qos, retain, priority);
+            this.nextId = (long) id + 1;
+            return id;
+        }
+
+        final PendingMessage message = new PendingMessage((int) this.nextId++, topic, qos, retain, priority, payload);
+
+        this.pending.put(message.id, message);
+
+        if (!this.scheduledFlush.isPresent()) {
+            this.scheduledFlush = Optional
+                    .of(this.executor.schedule(this::scheduledFlush, this.maxDelayMs, TimeUnit.MILLISECONDS));
+        }
+
+        return message.id;
+    }
+
+    @Override
+    public synchronized void markAsPublished(int msgId) throws KuraStoreException {
+        final PendingMessage message = this.pending.get(msgId);
+
+        if (message != null) {
+            message.publishedOn = new Date();
+        } else {
+            this.store.markAsPublished(msgId);
+        }
+    }
+
+    @Override
+    public synchronized void markAsPublished(int msgId, DataTransportToken dataTransportToken)
+            throws KuraStoreException {
+        final PendingMessage message = this.pending.get(msgId);
+
+        if (message != null) {
+            message.publishedOn = new Date();
+            message.dataTransportToken = dataTransportToken;
+        } else {
+            this.store.markAsPublished(msgId, dataTransportToken);
+        }
+    }
+
+    @Override
+    public synchronized void markAsPublished(List<Integer> msgIds, Map<Integer, DataTransportToken> inFlightMessages)
+            throws KuraStoreException {
+        final Date now = new Date();
+
+        final List<Integer> storedMsgIds = new ArrayList<>(msgIds.size());
+        final Map<Integer, DataTransportToken> storedInFlightMessages = new LinkedHashMap<>();
+
+        for (final Integer msgId : msgIds) {
+            final PendingMessage message = this.pending.get(msgId);
+
+            if (message != null) {
+                message.publishedOn = now;
+            } else {
+                storedMsgIds.add(msgId);
+            }
+        }
+
+        for (final Entry<Integer, DataTransportToken> e : inFlightMessages.entrySet()) {
+            final PendingMessage message = this.pending.get(e.getKey());
+
+            if (message != null) {
+                message.publishedOn = now;
+                message.dataTransportToken = e.getValue();
+            } else {
+                storedInFlightMessages.put(e.getKey(), e.getValue());
+            }
+        }
+
+        this.store.markAsPublished(storedMsgIds, storedInFlightMessages);
+    }
+
+    @Override
+    public synchronized void markAsConfirmed(int msgId) throws KuraStoreException {
+        final PendingMessage message = this.pending.get(msgId);
+
+        if (message != null) {
+            message.confirmedOn = new Date();
+        } else {
+            this.store.markAsConfirmed(msgId);
+        }
+    }
+
+    @Override
+    public synchronized void markAsConfirmed(List<Integer> msgIds) throws KuraStoreException {
+        final Date now = new Date();
+        final List<Integer> storedMsgIds = new ArrayList<>(msgIds.size());
+
+        for (final Integer msgId : msgIds) {
+            final PendingMessage message = this.pending.get(msgId);
+
+            if (message != null) {
+                message.confirmedOn = now;
+            } else {
+                storedMsgIds.add(msgId);
+            }
+        }
+
+        this.store.markAsConfirmed(storedMsgIds);
+    }
+
+    @Override
+    public synchronized Optional<StoredMessage> getNextMessage() throws KuraStoreException {
+        final List<StoredMessage> next = getNextMessages(1);
+
+        return next.isEmpty() ? Optional.empty() : Optional.of(next.get(0));
+    }
+
+    @Override
+    public synchronized List<StoredMessage> getNextMessages(int maxCount) throws KuraStoreException {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be greater than 0");
+        }
+
+        final List<StoredMessage> result = new ArrayList<>();
+
+        if (this.storeMayHaveUnpublishedMessages) {
+            result.addAll(this.store.getNextMessages(maxCount));
+            this.storeMayHaveUnpublishedMessages = !result.isEmpty();
+        }
+
+        this.pending.values().stream() //
+                .filter(m -> m.publishedOn == null) //
+                .sorted(PUBLISH_ORDER) //
+                .limit(maxCount) //
+                .forEach(m -> result.add(m.toStoredMessage()));
+
+        result.sort(STORED_PUBLISH_ORDER);
+
+        return result.size() > maxCount ? new ArrayList<>(result.subList(0, maxCount)) : result;
+    }
+
+    @Override
+    public synchronized List<StoredMessage> getNextMessages(int maxCount, int minPriority, int maxPriority)
+            throws KuraStoreException {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be greater than 0");
+        }
+
+        final List<StoredMessage> result = new ArrayList<>();
+
+        if (this.storeMayHaveUnpublishedMessages) {
+            result.addAll(this.store.getNextMessages(maxCount, minPriority, maxPriority));
+        }
+
+        this.pending.values().stream() //
+                .filter(m -> m.publishedOn == null && m.priority >= minPriority && m.priority <= maxPriority) //
+                .sorted(PUBLISH_ORDER) //
+                .limit(maxCount) //
+                .forEach(m -> result.add(m.toStoredMessage()));
+
+        result.sort(STORED_PUBLISH_ORDER);
+
+        return result.size() > maxCount ? new ArrayList<>(result.subList(0, maxCount)) : result;
+    }
+
+    @Override
+    public synchronized Optional<StoredMessage> get(int msgId) throws KuraStoreException {
+        final PendingMessage message = this.pending.get(msgId);
+
+        if (message != null) {
+            return Optional.of(message.toStoredMessage());
+        }
+
+        return this.store.get(msgId);
+    }
+
+    @Override
+    public synchronized int getMessageCount() throws KuraStoreException {
+        return this.store.getMessageCount() + this.pending.size();
+    }
+
+    @Override
+    public synchronized List<StoredMessage> getUnpublishedMessages() throws KuraStoreException {
+        flush();
+        return this.store.getUnpublishedMessages();
+    }
+
+    @Override
+    public synchronized List<StoredMessage> getInFlightMessages() throws KuraStoreException {
+        flush();
+        return this.store.getInFlightMessages();
+    }
+
+    @Override
+    public synchronized List<StoredMessage> getDroppedMessages() throws KuraStoreException {
+        flush();
+        return this.store.getDroppedMessages();
+    }
+
+    @Override
+    public synchronized void unpublishAllInFlighMessages() throws KuraStoreException {
+        flush();
+        this.store.unpublishAllInFlighMessages();
+        this.storeMayHaveUnpublishedMessages = true;
+    }
+
+    @Override
+    public synchronized void dropAllInFlightMessages() throws KuraStoreException {
+        flush();
+        this.store.dropAllInFlightMessages();
+    }
+
+    @Override
+    public synchronized void deleteStaleMessages(int purgeAgeSeconds) throws KuraStoreException {
+        flush();
+        this.store.deleteStaleMessages(purgeAgeSeconds);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            try {
+                flush();
+            } catch (final Exception e) {
+                logger.warn("failed to flush {} pending messages, they will be lost", this.pending.size(), e);
+            }
+        }
+
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            logger.warn("Interrupted while waiting for write-behind executor shutdown", e);
+            Thread.currentThread().interrupt();
+        }
+
+        this.store.close();
+    }
+
+    /**
+     * Writes all pending messages to the wrapped store in a single transaction. Pending messages are retained if the
+     * operation fails.
+     *
+     * @throws KuraStoreException
+     */
+    public synchronized void flush() throws KuraStoreException {
+        if (this.scheduledFlush.isPresent()) {
+            this.scheduledFlush.get().cancel(false);
+            this.scheduledFlush = Optional.empty();
+        }
+
+        if (this.pending.isEmpty()) {
+            return;
+        }
+
+        final List<StoredMessage> toBeStored = new ArrayList<>(this.pending.size());
+        boolean hasUnpublishedMessages = false;
+
+        for (final PendingMessage message : this.pending.values()) {
+            if (message.isDelivered()) {
+                continue;
+            }
+
+            hasUnpublishedMessages |= message.publishedOn == null;
+            toBeStored.add(message.toStoredMessage());
+        }
+
+        this.store.storeAll(toBeStored);
+
+        logger.debug("flushed {} messages, {} discarded", toBeStored.size(), this.pending.size() - toBeStored.size());
+
+        this.pending.clear();
+        this.storeMayHaveUnpublishedMessages |= hasUnpublishedMessages;
+    }
+
+    private synchronized void scheduledFlush() {
+        Thread.currentThread().setName(getClass().getSimpleName());
+
+        this.scheduledFlush = Optional.empty();
+
+        try {
+            flush();
+        } catch (final Exception e) {
+            logger.warn("failed to flush pending messages, retrying in {} ms", this.maxDelayMs, e);
+
+            this.scheduledFlush = Optional
+                    .of(this.executor.schedule(this::scheduledFlush, this.maxDelayMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    synchronized int getPendingMessageCount() {
+        return this.pending.size();
+    }
+
+    private static final class PendingMessage {
+
+        private final int id;
+        private final String topic;
+        private final int qos;
+        private final boolean retain;
+        private final int priority;
+        private final byte[] payload;
+        private final Date createdOn;
+        private Date publishedOn;
+        private Date confirmedOn;
+        private DataTransportToken dataTransportToken;
+
+        PendingMessage(final int id, final String topic, final int qos, final boolean retain, final int priority,
+                final byte[] payload) {
+            this.id = id;
+            this.topic = topic;
+            this.qos = qos;
+            this.retain = retain;
+            this.priority = priority;
+            this.payload = payload;
+            this.createdOn = new Date();
+        }
+
+        boolean isDelivered() {
+            return (this.qos == 0 && this.publishedOn != null) || this.confirmedOn != null;
+        }
+
+        StoredMessage toStoredMessage() {
+            return new StoredMessage.Builder(this.id) //
+                    .withTopic(this.topic) //
+                    .withQos(this.qos) //
+                    .withRetain(this.retain) //
+                    .withPriority(this.priority) //
+                    .withPayload(this.payload) //
+                    .withCreatedOn(this.createdOn) //
+                    .withPublishedOn(this.publishedOn) //
+                    .withConfirmedOn(this.confirmedOn) //
+                    .withDataTransportToken(this.dataTransportToken) //
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.transport.mqtt;
+
+import java.util.ArrayDeque;
+
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Acknowledges the QoS 1 and 2 messages received on a connection in the order they arrived.
+ * <br>
+ * With asynchronous dispatch the messages of different topics complete in any order, while the broker expects the
+ * acknowledgements in the order the messages were sent. Each message is registered when it arrives, and its
+ * acknowledgement is sent only when all the messages registered before it have completed.
+ * <br>
+ * An instance serves a single connection, once closed the pending acknowledgements are discarded and the broker
+ * redelivers the messages.
+ */
+final class InboundAcknowledger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundAcknowledger.class);
+
+    private final MqttAsyncClient client;
+    private final ArrayDeque<Slot> pending = new ArrayDeque<>();
+    private final ArrayDeque<MqttMessage> ready = new ArrayDeque<>();
+    private boolean releasing;
+    private boolean closed;
+
+    InboundAcknowledger(final MqttAsyncClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Registers a message, must be called in the order the messages arrived.
+     *
+     * @param message
+     *            the arrived message
+     * @return the task that marks the message as completed
+     */
+    synchronized Runnable register(final MqttMessage message) {
+        final Slot slot = new Slot(message);
+
+        if (!this.closed) {
+            this.pending.addLast(slot);
+        }
+
+        return () -> complete(slot);
+    }
+
+    synchronized void close() {
+        this.closed = true;
+        this.pending.clear();
+        this.ready.clear();
+    }
+
+    private void complete(final Slot slot) {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            slot.completed = true;
+
+            while (!this.pending.isEmpty() && this.pending.peekFirst().completed) {
+                this.ready.addLast(this.pending.pollFirst().message);
+            }
+
+            if (this.releasing) {
+                // the thread already releasing acknowledgements will send these too
+                return;
+            }
+            this.releasing = true;
+        }
+
+        while (true) {
+            final MqttMessage message;
+
+            synchronized (this) {
+                message = this.ready.pollFirst();
+
+                if (message == null) {
+                    this.releasing = false;
+                    return;
+                }
+            }
+
+            acknowledge(message);
+        }
+    }
+
+    private void acknowledge(final MqttMessage message) {
+        try {
+            this.client.messageArrivedComplete(message.getId(), message.getQos());
+        } catch (final Exception e) {
+            logger.warn("Failed to acknowledge message {}, it will be redelivered by the broker", message.getId(), e);
+        }
+    }
+
+    private static final class Slot {
+
+        private final MqttMessage message;
+        private boolean completed;
+
+        Slot(final MqttMessage message) {
+            this.message = message;
+        }
+    }
+}
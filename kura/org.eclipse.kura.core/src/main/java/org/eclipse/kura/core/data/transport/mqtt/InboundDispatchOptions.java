@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.transport.mqtt;
+
+import java.util.Map;
+
+import org.eclipse.kura.util.configuration.Property;
+
+public class InboundDispatchOptions {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    private static final Property<Boolean> ASYNC_ENABLED = new Property<>("in.dispatch.async.enabled", false);
+    private static final Property<Integer> LANE_CAPACITY = new Property<>("in.dispatch.lane.capacity", 100);
+    private static final Property<String> OVERFLOW_POLICY = new Property<>("in.dispatch.overflow.policy",
+            OverflowPolicy.BLOCK.name());
+    private static final Property<Integer> WORKER_THREADS = new Property<>("in.dispatch.worker.threads", 0);
+
+    private final boolean asyncEnabled;
+    private final int laneCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int workerThreads;
+
+    public InboundDispatchOptions(final Map<String, Object> properties) {
+        this.asyncEnabled = ASYNC_ENABLED.get(properties);
+        this.laneCapacity = Math.max(1, LANE_CAPACITY.get(properties));
+        this.overflowPolicy = parseOverflowPolicy(OVERFLOW_POLICY.get(properties));
+
+        final int configuredWorkerThreads = WORKER_THREADS.get(properties);
+
+        this.workerThreads = configuredWorkerThreads > 0 ? configuredWorkerThreads
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    public boolean isAsyncEnabled() {
+        return this.asyncEnabled;
+    }
+
+    public int getLaneCapacity() {
+        return this.laneCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    public int getWorkerThreads() {
+        return this.workerThreads;
+    }
+
+    private static OverflowPolicy parseOverflowPolicy(final String value) {
+        try {
+            return OverflowPolicy.valueOf(value);
+        } catch (final IllegalArgumentException e) {
+            return OverflowPolicy.BLOCK;
+        }
+    }
+}
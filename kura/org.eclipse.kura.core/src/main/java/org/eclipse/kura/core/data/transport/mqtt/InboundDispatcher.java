@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.transport.mqtt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.eclipse.kura.core.data.transport.mqtt.InboundDispatchOptions.OverflowPolicy;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the messages received by the MQTT client to the transport listeners.
+ * <br>
+ * If asynchronous dispatch is disabled messages are delivered by the calling thread. Otherwise each topic has a bounded
+ * lane of the messages waiting to be delivered, lanes are drained by a shared worker pool, a lane is drained by a
+ * single task at a time so that the messages of a topic are delivered in the order they arrived, while different
+ * topics are served in parallel. When a lane is full the configured {@link OverflowPolicy} is applied, with the
+ * {@link OverflowPolicy#BLOCK} policy the calling thread waits for free space, applying backpressure to the client.
+ * <br>
+ * The acknowledge task of a message is executed after the message has been delivered, or when it is discarded by the
+ * overflow policy. The tasks of different lanes run in any order, see {@link InboundAcknowledger} for sending the
+ * acknowledgements in arrival order.
+ */
+final class InboundDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundDispatcher.class);
+
+    private static final int MAX_DELIVERIES_PER_TASK = 32;
+    private static final int MAX_IDLE_LANES = 1024;
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final BiConsumer<String, MqttMessage> target;
+    private final Map<String, Lane> lanes = new HashMap<>();
+
+    private volatile InboundDispatchOptions options;
+    private ExecutorService executor;
+    private boolean closed;
+
+    InboundDispatcher(final InboundDispatchOptions options, final BiConsumer<String, MqttMessage> target) {
+        this.options = options;
+        this.target = target;
+    }
+
+    InboundDispatchOptions getOptions() {
+        return this.options;
+    }
+
+    synchronized void update(final InboundDispatchOptions newOptions) {
+        final InboundDispatchOptions oldOptions = this.options;
+        this.options = newOptions;
+
+        if (this.executor != null
+                && (!newOptions.isAsyncEnabled() || newOptions.getWorkerThreads() != oldOptions.getWorkerThreads())) {
+            // tasks already submitted to the old pool are still executed
+            this.executor.shutdown();
+            this.executor = null;
+        }
+
+        notifyAll();
+    }
+
+    synchronized void shutdown() {
+        this.closed = true;
+
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+
+        notifyAll();
+    }
+
+    void dispatch(final String topic, final MqttMessage message, final Runnable acknowledge) {
+        final InboundDispatchOptions currentOptions = this.options;
+
+        if (!currentOptions.isAsyncEnabled()) {
+            deliver(topic, message, acknowledge);
+            return;
+        }
+
+        final List<Delivery> dropped = new ArrayList<>(0);
+        final Lane lane;
+        boolean accepted = false;
+
+        synchronized (this) {
+            lane = this.lanes.computeIfAbsent(topic, Lane::new);
+
+            if (makeRoom(lane, dropped)) {
+                lane.queue.addLast(new Delivery(message, acknowledge));
+                lane.maxQueueDepth = Math.max(lane.maxQueueDepth, lane.queue.size());
+                accepted = !lane.draining;
+                lane.draining = true;
+            } else {
+                lane.droppedCount++;
+                dropped.add(new Delivery(message, acknowledge));
+            }
+        }
+
+        for (final Delivery delivery : dropped) {
+            logger.debug("Inbound lane for topic {} is full, discarding message", topic);
+            delivery.acknowledge.run();
+        }
+
+        if (accepted) {
+            execute(lane::drain);
+        }
+    }
+
+    synchronized List<InboundLaneStatistics> getStatistics() {
+        final List<InboundLaneStatistics> result = new ArrayList<>(this.lanes.size());
+
+        for (final Lane lane : this.lanes.values()) {
+            result.add(lane.toStatistics());
+        }
+
+        return result;
+    }
+
+    private boolean makeRoom(final Lane lane, final List<Delivery> dropped) {
+        while (lane.queue.size() >= this.options.getLaneCapacity()) {
+            final OverflowPolicy policy = this.options.getOverflowPolicy();
+
+            if (policy == OverflowPolicy.DROP_NEWEST) {
+                return false;
+            } else if (policy == OverflowPolicy.DROP_OLDEST) {
+                dropped.add(lane.queue.pollFirst());
+                lane.droppedCount++;
+            } else if (this.closed || !this.options.isAsyncEnabled()) {
+                // queued messages are still delivered, do not wait for a pool that is going away
+                return true;
+            } else {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void deliver(final String topic, final MqttMessage message, final Runnable acknowledge) {
+        try {
+            this.target.accept(topic, message);
+        } catch (final Exception e) {
+            logger.warn("Failed to deliver message arrived on topic {}", topic, e);
+        } finally {
+            acknowledge.run();
+        }
+    }
+
+    private void execute(final Runnable task) {
+        final ExecutorService currentExecutor = getExecutor();
+
+        if (currentExecutor == null) {
+            task.run();
+            return;
+        }
+
+        try {
+            currentExecutor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (this.executor == null && !this.closed) {
+            final int threads = this.options.getWorkerThreads();
+            final int poolId = POOL_COUNT.incrementAndGet();
+            final AtomicInteger threadCount = new AtomicInteger();
+
+            final ThreadPoolExecutor newExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        final Thread thread = new Thread(r,
+                                "MqttInbound-" + poolId + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            newExecutor.allowCoreThreadTimeOut(true);
+
+            this.executor = newExecutor;
+        }
+
+        return this.executor;
+    }
+
+    private static final class Delivery {
+
+        private final MqttMessage message;
+        private final Runnable acknowledge;
+        private final long enqueueTime = System.nanoTime();
+
+        Delivery(final MqttMessage message, final Runnable acknowledge) {
+            this.message = message;
+            this.acknowledge = acknowledge;
+        }
+    }
+
+    private final class Lane {
+
+        private final String topic;
+        private final ArrayDeque<Delivery> queue = new ArrayDeque<>();
+        private boolean draining;
+
+        private int maxQueueDepth;
+        private long deliveredCount;
+        private long droppedCount;
+        private long totalLatency;
+        private long maxLatency;
+
+        Lane(final String topic) {
+            this.topic = topic;
+        }
+
+        void drain() {
+            final InboundDispatcher dispatcher = InboundDispatcher.this;
+
+            for (int i = 0; i < MAX_DELIVERIES_PER_TASK; i++) {
+                final Delivery delivery;
+
+                synchronized (dispatcher) {
+                    delivery = this.queue.pollFirst();
+
+                    if (delivery == null) {
+                        this.draining = false;
+
+                        if (dispatcher.lanes.size() > MAX_IDLE_LANES) {
+                            dispatcher.lanes.remove(this.topic);
+                        }
+                        return;
+                    }
+
+                    dispatcher.notifyAll();
+                }
+
+                deliver(this.topic, delivery.message, delivery.acknowledge);
+
+                final long latency = System.nanoTime() - delivery.enqueueTime;
+
+                synchronized (dispatcher) {
+                    this.deliveredCount++;
+                    this.totalLatency += latency;
+                    this.maxLatency = Math.max(this.maxLatency, latency);
+                }
+            }
+
+            // give other lanes a chance to use the worker
+            execute(this::drain);
+        }
+
+        InboundLaneStatistics toStatistics() {
+            return new InboundLaneStatistics(this.topic, this.queue.size(), this.maxQueueDepth, this.deliveredCount,
+                    this.droppedCount, this.deliveredCount == 0 ? 0 : this.totalLatency / this.deliveredCount,
+                    this.maxLatency);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.transport.mqtt;
+
+/**
+ * Snapshot of the statistics of the inbound dispatch lane of a topic.
+ */
+public class InboundLaneStatistics {
+
+    private final String topic;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final long deliveredCount;
+    private final long droppedCount;
+    private final long meanDeliveryLatencyNanos;
+    private final long maxDeliveryLatencyNanos;
+
+    InboundLaneStatistics(final String topic, final int queueDepth, final int maxQueueDepth,
+            final long deliveredCount, final long droppedCount, final long meanDeliveryLatencyNanos,
+            final long maxDeliveryLatencyNanos) {
+        this.topic = topic;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.deliveredCount = deliveredCount;
+        this.droppedCount = droppedCount;
+        this.meanDeliveryLatencyNanos = meanDeliveryLatencyNanos;
+        this.maxDeliveryLatencyNanos = maxDeliveryLatencyNanos;
+    }
+
+    public String getTopic() {
+        return this.topic;
+    }
+
+    /**
+     * @return the number of messages currently waiting to be delivered to the listeners.
+     */
+    public int getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    /**
+     * @return the highest number of messages that have been waiting at the same time.
+     */
+    public int getMaxQueueDepth() {
+        return this.maxQueueDepth;
+    }
+
+    public long getDeliveredCount() {
+        return this.deliveredCount;
+    }
+
+    /**
+     * @return the number of messages discarded by the overflow policy.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * @return the mean time between the arrival of a message and the end of its delivery, in nanoseconds.
+     */
+    public long getMeanDeliveryLatencyNanos() {
+        return this.meanDeliveryLatencyNanos;
+    }
+
+    public long getMaxDeliveryLatencyNanos() {
+        return this.maxDeliveryLatencyNanos;
+    }
+}
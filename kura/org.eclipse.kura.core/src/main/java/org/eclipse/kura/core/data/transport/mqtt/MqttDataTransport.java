@@ -15,6 +15,7 @@ package org.eclipse.kura.core.data.transport.mqtt;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -126,6 +127,10 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
 
     private final Object updateLock = new Object();
 
+    private InboundDispatcher inboundDispatcher;
+    private volatile boolean manualAcks;
+    private volatile InboundAcknowledger inboundAcknowledger;
+
     // ----------------------------------------------------------------
     //
     // Dependencies
@@ -218,6 +223,8 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
             }
 
             this.dataTransportListeners = new DataTransportListenerS(componentContext);
+            this.inboundDispatcher = new InboundDispatcher(new InboundDispatchOptions(this.properties),
+                    this::deliverMessage);
 
             // Do nothing waiting for the connect request from the upper layer.
         }
@@ -236,6 +243,8 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
         if (isConnected()) {
             disconnect(0);
         }
+
+        this.inboundDispatcher.shutdown();
     }
 
     public void updated(Map<String, Object> properties) {
@@ -264,7 +273,7 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
             }
 
             this.properties.putAll(decryptedPropertiesMap);
-
+            this.inboundDispatcher.update(new InboundDispatchOptions(this.properties));
         }
 
         update();
@@ -665,10 +674,29 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
         // Anyway we don't have such a mapping so the listeners are responsible
         // to filter messages.
 
-        // FIXME: the same argument about lost confirms applies to arrived
-        // messages.
+        // With asynchronous dispatch, QoS 1 and 2 messages are acknowledged
+        // only after the listeners have processed them, so that the broker
+        // redelivers them if we crash in between. Lanes complete out of order,
+        // the acknowledger sends the acknowledgements in arrival order.
+        final InboundAcknowledger acknowledger = this.inboundAcknowledger;
+        final Runnable acknowledge = this.manualAcks && message.getQos() > 0 && acknowledger != null
+                ? acknowledger.register(message)
+                : () -> {
+                };
+
+        this.inboundDispatcher.dispatch(topic, message, acknowledge);
+    }
 
-        // notify the listeners
+    /**
+     * Returns the statistics of the lanes used to deliver inbound messages when asynchronous dispatch is enabled.
+     *
+     * @return the statistics of each topic lane
+     */
+    public List<InboundLaneStatistics> getInboundLaneStatistics() {
+        return this.inboundDispatcher.getStatistics();
+    }
+
+    private void deliverMessage(final String topic, final MqttMessage message) {
         this.dataTransportListeners.onMessageArrived(topic, message.getPayload(), message.getQos(),
                 message.isRetained());
     }
@@ -1026,6 +1054,13 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
             }
         }
 
+        // The client acknowledges a message as soon as messageArrived returns,
+        // asynchronously dispatched messages must be acknowledged manually.
+        this.manualAcks = this.inboundDispatcher.getOptions().isAsyncEnabled();
+        this.mqttClient.setManualAcks(this.manualAcks);
+        closeInboundAcknowledger();
+        this.inboundAcknowledger = new InboundAcknowledger(this.mqttClient);
+
         this.newSession = newSessionTemp;
         this.sessionId = generateSessionId();
     }
@@ -1052,6 +1087,17 @@ public class MqttDataTransport implements DataTransportService, MqttCallback, Co
             logger.warn("Cannot close client", e);
         } finally {
             this.mqttClient = null;
+            closeInboundAcknowledger();
+        }
+    }
+
+    private void closeInboundAcknowledger() {
+        final InboundAcknowledger acknowledger = this.inboundAcknowledger;
+
+        if (acknowledger != null) {
+            // messages still being delivered belong to the previous connection, the broker redelivers them
+            acknowledger.close();
+            this.inboundAcknowledger = null;
         }
     }
 
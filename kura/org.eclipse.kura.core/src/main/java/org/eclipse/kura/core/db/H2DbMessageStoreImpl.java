@@ -19,8 +19,11 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.data.DataTransportToken;
 import org.eclipse.kura.message.store.StoredMessage;
 import org.eclipse.kura.message.store.StoredMessage.Builder;
 import org.eclipse.kura.util.jdbc.ConnectionProvider;
@@ -57,6 +60,7 @@ public class H2DbMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
 
     private String sqlSetNextId;
     private String sqlGetFreeId;
+    private String sqlGetNextId;
 
     public H2DbMessageStoreImpl(final ConnectionProvider provider, final String table) throws KuraStoreException {
         super(provider, table);
@@ -68,6 +72,8 @@ public class H2DbMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
         this.sqlSetNextId = ALTER_TABLE + super.escapedTableName + " ALTER COLUMN id RESTART WITH ?;";
         this.sqlGetFreeId = "SELECT A.X FROM SYSTEM_RANGE(1, 2147483647) AS A LEFT OUTER JOIN " + this.escapedTableName
                 + " AS B ON A.X = B.ID WHERE B.ID IS NULL LIMIT 1";
+        this.sqlGetNextId = "SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = SCHEMA()"
+                + " AND TABLE_NAME = ? AND COLUMN_NAME = 'ID'";
 
         super.createTable();
         super.createIndexes();
@@ -83,9 +89,13 @@ public class H2DbMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
                 + "smallPayload VARBINARY, largePayload BLOB(16777216), priority INTEGER,"
                 + " sessionId VARCHAR(32767 CHARACTERS), droppedOn TIMESTAMP);")
                 .withSqlMessageCount("SELECT COUNT(*) FROM " + super.escapedTableName + ";")
+                .withSqlMaxMessageId("SELECT MAX(id) FROM " + super.escapedTableName + ";")
                 .withSqlStore("INSERT INTO " + super.escapedTableName
                         + " (topic, qos, retain, createdOn, publishedOn, publishedMessageId, confirmedOn, smallPayload, largePayload, priority, "
                         + "sessionId, droppedOn) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")
+                .withSqlStoreWithId("INSERT INTO " + super.escapedTableName
+                        + " (id, topic, qos, retain, createdOn, publishedOn, publishedMessageId, confirmedOn, smallPayload, largePayload, priority, "
+                        + "sessionId, droppedOn) OVERRIDING SYSTEM VALUE VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")
                 .withSqlGetMessage(
                         "SELECT id, topic, qos, retain, createdOn, publishedOn, publishedMessageId, confirmedOn, "
                                 + "smallPayload, largePayload, priority, sessionId, droppedOn FROM "
@@ -95,10 +105,22 @@ public class H2DbMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
                         + this.escapedTableName + " AS a JOIN (SELECT id, publishedOn FROM " + super.escapedTableName
                         + " ORDER BY publishedOn ASC NULLS FIRST, priority ASC, createdOn ASC LIMIT 1) AS b "
                         + "WHERE a.id = b.id AND b.publishedOn IS NULL;")
+                .withSqlGetNextMessages("SELECT a.id, a.topic, a.qos, a.retain, a.createdOn, a.publishedOn, "
+                        + "a.publishedMessageId, a.confirmedOn, a.smallPayload, a.largePayload, a.priority, a.sessionId, a.droppedOn FROM "
+                        + this.escapedTableName + " AS a JOIN (SELECT id, publishedOn FROM " + super.escapedTableName
+                        + " ORDER BY publishedOn ASC NULLS FIRST, priority ASC, createdOn ASC, id ASC LIMIT ?) AS b "
+                        + "WHERE a.id = b.id AND b.publishedOn IS NULL ORDER BY a.priority ASC, a.createdOn ASC, a.id ASC;")
+                .withSqlGetNextMessagesInPriorityRange("SELECT a.id, a.topic, a.qos, a.retain, a.createdOn, a.publishedOn, "
+                        + "a.publishedMessageId, a.confirmedOn, a.smallPayload, a.largePayload, a.priority, a.sessionId, a.droppedOn FROM "
+                        + this.escapedTableName + " AS a JOIN (SELECT id FROM " + super.escapedTableName
+                        + " WHERE publishedOn IS NULL AND priority BETWEEN ? AND ?"
+                        + " ORDER BY priority ASC, createdOn ASC, id ASC LIMIT ?) AS b "
+                        + "WHERE a.id = b.id ORDER BY a.priority ASC, a.createdOn ASC, a.id ASC;")
                 .withSqlSetPublishedQoS1(UPDATE + super.escapedTableName
                         + " SET publishedOn = ?, publishedMessageId = ?, sessionId = ? WHERE id = ?;")
                 .withSqlSetPublishedQoS0(UPDATE + super.escapedTableName + " SET publishedOn = ? WHERE id = ?;")
                 .withSqlSetConfirmed(UPDATE + this.escapedTableName + " SET confirmedOn = ? WHERE id = ?;")
+                .withSqlSetConfirmedByIdsPrefix(UPDATE + this.escapedTableName + " SET confirmedOn = ? WHERE id IN ")
                 .withSqlAllUnpublishedMessages(SELECT_MESSAGE_METADATA_FROM + super.escapedTableName
                         + " WHERE publishedOn IS NULL ORDER BY priority ASC, createdOn ASC;")
                 .withSqlAllInFlightMessages(SELECT_MESSAGE_METADATA_FROM + super.escapedTableName
@@ -218,6 +240,61 @@ public class H2DbMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
 
     }
 
+    @Override
+    public long getNextMessageId() throws KuraStoreException {
+
+        return Math.max(super.getNextMessageId(), getIdentityBase());
+    }
+
+    private long getIdentityBase() throws KuraStoreException {
+
+        return super.connectionProvider.withPreparedStatement(this.sqlGetNextId, (c, stmt) -> {
+            stmt.setString(1, super.tableName);
+            return JdbcUtil.getFirstColumnValue(stmt::executeQuery, ResultSet::getLong);
+        }, "Cannot get next message id");
+    }
+
+    @Override
+    public void storeAll(final List<StoredMessage> messages) throws KuraStoreException {
+        super.storeAll(messages);
+
+        // H2 does not advance the identity column when values are provided explicitly,
+        // restart it to avoid conflicts with identifiers generated by store()
+        final int maxId = messages.stream().mapToInt(StoredMessage::getId).max().orElse(0);
+
+        if (maxId > 0 && maxId < Integer.MAX_VALUE && maxId >= getIdentityBase()) {
+            super.execute(this.sqlSetNextId, maxId + 1);
+        }
+    }
+
+    @Override
+    protected void bindStoreWithIdParameters(final PreparedStatement pstmt, final StoredMessage message)
+            throws SQLException {
+        final byte[] payload = message.getPayload();
+        final Optional<DataTransportToken> token = message.getDataTransportToken();
+
+        pstmt.setInt(1, message.getId());
+        pstmt.setString(2, message.getTopic());
+        pstmt.setInt(3, message.getQos());
+        pstmt.setBoolean(4, message.isRetain());
+        pstmt.setTimestamp(5, toTimestamp(message.getCreatedOn()), this.utcCalendar);
+        pstmt.setTimestamp(6, toTimestamp(message.getPublishedOn()), this.utcCalendar);
+        pstmt.setInt(7, token.map(DataTransportToken::getMessageId).orElse(-1));
+        pstmt.setTimestamp(8, toTimestamp(message.getConfirmedOn()), this.utcCalendar);
+
+        if (payload == null || payload.length < PAYLOAD_BYTE_SIZE_THRESHOLD) {
+            pstmt.setBytes(9, payload);
+            pstmt.setNull(10, Types.BLOB);
+        } else {
+            pstmt.setNull(9, Types.VARBINARY);
+            pstmt.setBinaryStream(10, new ByteArrayInputStream(payload), payload.length);
+        }
+
+        pstmt.setInt(11, message.getPriority());
+        pstmt.setString(12, token.map(DataTransportToken::getSessionId).orElse(null));
+        pstmt.setTimestamp(13, toTimestamp(message.getDroppedOn()), this.utcCalendar);
+    }
+
     @Override
     protected Builder buildStoredMessageBuilder(ResultSet rs, boolean includePayload) throws SQLException {
         StoredMessage.Builder result = super.buildStoredMessageBuilder(rs, false);
@@ -34,6 +34,7 @@ import org.eclipse.kura.util.wire.store.JdbcWireRecordStoreQueries;
 public class H2DbWireRecordStoreImpl extends AbstractJdbcWireRecordStoreImpl {
 
     private static final Map<Class<? extends TypedValue<?>>, String> TYPE_MAPPING = buildTypeMapping();
+    private static final Map<Class<? extends TypedValue<?>>, String> REPORTED_TYPE_MAPPING = buildReportedTypeMapping();
 
     public H2DbWireRecordStoreImpl(final ConnectionProvider provider, final String tableName)
             throws KuraStoreException {
@@ -67,6 +68,12 @@ public class H2DbWireRecordStoreImpl extends AbstractJdbcWireRecordStoreImpl {
         return Optional.ofNullable(value).flatMap(v -> Optional.ofNullable(TYPE_MAPPING.get(v.getClass())));
     }
 
+    @Override
+    protected boolean isCorrectColumnType(final TypedValue<?> value, final String mappedType, final String actualType) {
+        // the type names reported by the database metadata differ from the ones used to create the columns
+        return mappedType.equals(actualType) || actualType.equals(REPORTED_TYPE_MAPPING.get(value.getClass()));
+    }
+
     private static Map<Class<? extends TypedValue<?>>, String> buildTypeMapping() {
         final Map<Class<? extends TypedValue<?>>, String> result = new HashMap<>();
 
@@ -81,4 +88,18 @@ public class H2DbWireRecordStoreImpl extends AbstractJdbcWireRecordStoreImpl {
         return Collections.unmodifiableMap(result);
     }
 
+    private static Map<Class<? extends TypedValue<?>>, String> buildReportedTypeMapping() {
+        final Map<Class<? extends TypedValue<?>>, String> result = new HashMap<>();
+
+        result.put(StringValue.class, "CHARACTER VARYING");
+        result.put(IntegerValue.class, "INTEGER");
+        result.put(LongValue.class, "BIGINT");
+        result.put(BooleanValue.class, "BOOLEAN");
+        result.put(DoubleValue.class, "DOUBLE PRECISION");
+        result.put(FloatValue.class, "DOUBLE PRECISION");
+        result.put(ByteArrayValue.class, "BINARY LARGE OBJECT");
+
+        return Collections.unmodifiableMap(result);
+    }
+
 }
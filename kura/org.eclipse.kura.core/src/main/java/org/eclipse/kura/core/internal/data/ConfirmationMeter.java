@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.internal.data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects statistics about the confirmations of in-flight messages applied to the message store.
+ * The confirm latency of a message is the time elapsed between its publication and the moment its confirmation
+ * is applied to the store.
+ * <br>
+ * This class is not thread safe, it is meant to be updated by the thread that applies the confirmations.
+ * Readers from other threads will observe eventually consistent values.
+ */
+public class ConfirmationMeter {
+
+    private volatile long confirmedMessageCount;
+    private volatile long batchCount;
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    private volatile long lastBatchMaxLatencyNanos;
+    private volatile long maxLatencyNanos;
+
+    private volatile long latencySamples;
+    private volatile long totalLatencyNanos;
+
+    private long currentBatchSize;
+    private long currentBatchMaxLatencyNanos;
+
+    public void onConfirmation(final long publishedOnNanos, final long appliedOnNanos) {
+        this.currentBatchSize++;
+
+        if (publishedOnNanos < 0) {
+            return;
+        }
+
+        final long latency = Math.max(0, appliedOnNanos - publishedOnNanos);
+
+        this.currentBatchMaxLatencyNanos = Math.max(this.currentBatchMaxLatencyNanos, latency);
+        this.totalLatencyNanos += latency;
+        this.latencySamples++;
+    }
+
+    public void onBatchApplied() {
+        if (this.currentBatchSize == 0) {
+            return;
+        }
+
+        this.confirmedMessageCount += this.currentBatchSize;
+        this.batchCount++;
+        this.lastBatchSize = (int) this.currentBatchSize;
+        this.maxBatchSize = Math.max(this.maxBatchSize, this.lastBatchSize);
+        this.lastBatchMaxLatencyNanos = this.currentBatchMaxLatencyNanos;
+        this.maxLatencyNanos = Math.max(this.maxLatencyNanos, this.currentBatchMaxLatencyNanos);
+
+        this.currentBatchSize = 0;
+        this.currentBatchMaxLatencyNanos = 0;
+    }
+
+    public long getConfirmedMessageCount() {
+        return this.confirmedMessageCount;
+    }
+
+    public long getBatchCount() {
+        return this.batchCount;
+    }
+
+    public int getLastBatchSize() {
+        return this.lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        final long batches = this.batchCount;
+
+        if (batches == 0) {
+            return 0;
+        }
+
+        return this.confirmedMessageCount / (double) batches;
+    }
+
+    public long getLastBatchMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.lastBatchMaxLatencyNanos);
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxLatencyNanos);
+    }
+
+    public double getAverageLatencyMillis() {
+        final long samples = this.latencySamples;
+
+        if (samples == 0) {
+            return 0;
+        }
+
+        return this.totalLatencyNanos / (double) samples / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.internal.data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rate at which the stored message backlog is drained by the publisher.
+ * A drain starts with the first published batch and ends when the store has no more
+ * messages to publish.
+ */
+public class DrainThroughputMeter {
+
+    private long drainStartNanos = -1;
+    private long messageCount;
+    private long batchCount;
+
+    private long lastDrainMessageCount;
+    private long lastDrainBatchCount;
+    private long lastDrainDurationNanos;
+
+    public void onBatchPublished(final int publishedMessages) {
+        if (publishedMessages <= 0) {
+            return;
+        }
+
+        if (this.drainStartNanos == -1) {
+            this.drainStartNanos = System.nanoTime();
+        }
+
+        this.messageCount += publishedMessages;
+        this.batchCount++;
+    }
+
+    /**
+     * Ends the current drain, if any.
+     *
+     * @return {@code true} if a drain was in progress and its statistics are now available through the
+     *         {@code getLastDrain*} methods, {@code false} otherwise.
+     */
+    public boolean onBacklogDrained() {
+        if (this.drainStartNanos == -1) {
+            return false;
+        }
+
+        this.lastDrainDurationNanos = System.nanoTime() - this.drainStartNanos;
+        this.lastDrainMessageCount = this.messageCount;
+        this.lastDrainBatchCount = this.batchCount;
+
+        this.drainStartNanos = -1;
+        this.messageCount = 0;
+        this.batchCount = 0;
+
+        return true;
+    }
+
+    public long getLastDrainMessageCount() {
+        return this.lastDrainMessageCount;
+    }
+
+    public long getLastDrainBatchCount() {
+        return this.lastDrainBatchCount;
+    }
+
+    public long getLastDrainDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.lastDrainDurationNanos);
+    }
+
+    public double getLastDrainThroughput() {
+        if (this.lastDrainDurationNanos <= 0) {
+            return 0;
+        }
+
+        return this.lastDrainMessageCount * (double) TimeUnit.SECONDS.toNanos(1) / this.lastDrainDurationNanos;
+    }
+}
@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.internal.data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.message.store.StoredMessage;
+import org.eclipse.kura.message.store.provider.MessageStore;
+
+/**
+ * Keeps an in-memory queue of messages ready to be published for each priority band and selects the next message to
+ * publish.
+ * <br>
+ * Each queue contains the first unpublished messages of its band, in publish order. Newly stored messages are offered
+ * to the queue of their band without being read back from the store, a band is refilled from the store with a single
+ * query only when its queue is empty and the store may contain more messages of the band.
+ * <br>
+ * Bands with weight 0 are served in strict priority order before any other band. The remaining bands are served with a
+ * weighted round robin, a band can publish up to weight messages per round. A band is skipped if its next message
+ * cannot be published because the maximum number of in-flight messages has been reached or because its token bucket,
+ * if any, is empty.
+ * <br>
+ * This class is meant to be polled by a single publisher thread, messages can be offered by any thread.
+ */
+public class PriorityPublishQueues {
+
+    private static final Comparator<StoredMessage> PUBLISH_ORDER = Comparator.comparingInt(StoredMessage::getPriority)
+            .thenComparingInt(StoredMessage::getId);
+
+    private final int capacity;
+    private final List<Band> strictBands = new ArrayList<>();
+    private final List<Band> weightedBands = new ArrayList<>();
+    private final List<Band> bands = new ArrayList<>();
+
+    private int nextWeightedBand;
+
+    public PriorityPublishQueues(final int capacity, final List<Band> bands) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+
+        this.capacity = capacity;
+
+        for (final Band band : bands) {
+            for (final Band other : this.bands) {
+                if (band.minPriority <= other.maxPriority && other.minPriority <= band.maxPriority) {
+                    throw new IllegalArgumentException("priority bands must not overlap");
+                }
+            }
+
+            this.bands.add(band);
+
+            if (band.weight == 0) {
+                this.strictBands.add(band);
+            } else {
+                this.weightedBands.add(band);
+            }
+        }
+
+        this.bands.sort(Comparator.comparingInt(b -> b.minPriority));
+        this.strictBands.sort(Comparator.comparingInt(b -> b.minPriority));
+    }
+
+    /**
+     * Offers a newly stored message to the queue of its band. The message is added only if it belongs to the messages
+     * of the band already loaded from the store, otherwise it will be loaded by a subsequent refill.
+     * This method must be called while holding the lock of the store the message has been added to.
+     *
+     * @param message
+     *            the stored message, including its payload.
+     * @return true if the message has been added to a queue.
+     */
+    public synchronized boolean offer(final StoredMessage message) {
+        final Optional<Band> band = getBand(message.getPriority());
+
+        return band.isPresent() && band.get().offer(message, this.capacity);
+    }
+
+    /**
+     * Loads the next messages of the bands with an empty queue that may have more messages in the store.
+     *
+     * @param store
+     *            the message store
+     * @throws KuraStoreException
+     *             if the store cannot be accessed
+     */
+    public void refill(final MessageStore store) throws KuraStoreException {
+        for (final Band band : this.bands) {
+            synchronized (store) {
+                synchronized (this) {
+                    if (band.needsRefill()) {
+                        band.refill(store.getNextMessages(this.capacity, band.minPriority, band.maxPriority),
+                                this.capacity);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the next message that should be published.
+     *
+     * @param inFlightAvailable
+     *            whether a message with QoS greater than 0 can be published.
+     * @return the next message, or an empty optional if no message can be published now.
+     */
+    public synchronized Optional<StoredMessage> poll(final boolean inFlightAvailable) {
+        for (final Band band : this.strictBands) {
+            if (band.canPublish(inFlightAvailable)) {
+                return Optional.of(band.queue.pollFirst());
+            }
+        }
+
+        final int size = this.weightedBands.size();
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < size; i++) {
+                final int index = (this.nextWeightedBand + i) % size;
+                final Band band = this.weightedBands.get(index);
+
+                if (band.credits <= 0 || !band.canPublish(inFlightAvailable)) {
+                    continue;
+                }
+
+                band.credits--;
+                this.nextWeightedBand = band.credits > 0 ? index : (index + 1) % size;
+
+                return Optional.of(band.queue.pollFirst());
+            }
+
+            // no band with credits left can publish, start a new round
+            for (final Band band : this.weightedBands) {
+                band.credits = band.weight;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Puts back a message returned by {@link #poll(boolean)} that has not been published, at the head of the queue of
+     * its band. The token taken from the token bucket of the band, if any, is returned.
+     *
+     * @param message
+     *            the message returned by {@link #poll(boolean)}.
+     */
+    public synchronized void putBack(final StoredMessage message) {
+        final Optional<Band> band = getBand(message.getPriority());
+
+        if (band.isPresent()) {
+            band.get().putBack(message, this.capacity);
+        }
+    }
+
+    /**
+     * Discards all queued messages, the queues will be refilled from the store.
+     * This method must be called when unpublished messages are added to the store by other means than
+     * {@link #offer(StoredMessage)}, for example when in-flight messages are unpublished.
+     */
+    public synchronized void clear() {
+        for (final Band band : this.bands) {
+            band.queue.clear();
+            band.storeMayHaveMore = true;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.bands.stream().allMatch(b -> b.queue.isEmpty());
+    }
+
+    public synchronized boolean needsRefill() {
+        return this.bands.stream().anyMatch(Band::needsRefill);
+    }
+
+    public synchronized int size() {
+        return this.bands.stream().mapToInt(b -> b.queue.size()).sum();
+    }
+
+    /**
+     * Returns the time in nanoseconds to wait for a token to become available in the token bucket of a non empty
+     * band.
+     *
+     * @return the wait time in nanoseconds, or -1 if no non empty band is rate limited.
+     */
+    public synchronized long getTokenWaitTime() {
+        long result = -1;
+
+        for (final Band band : this.bands) {
+            if (band.queue.isEmpty() || !band.throttle.isPresent()) {
+                continue;
+            }
+
+            final long waitTime = band.throttle.get().getTokenWaitTime();
+
+            result = result == -1 ? waitTime : Math.min(result, waitTime);
+        }
+
+        return result;
+    }
+
+    private Optional<Band> getBand(final int priority) {
+        for (final Band band : this.bands) {
+            if (priority >= band.minPriority && priority <= band.maxPriority) {
+                return Optional.of(band);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public static final class Band {
+
+        private final int minPriority;
+        private final int maxPriority;
+        private final int weight;
+        private final Optional<TokenBucket> throttle;
+
+        private final TreeSet<StoredMessage> queue = new TreeSet<>(PUBLISH_ORDER);
+        private boolean storeMayHaveMore = true;
+        private int credits;
+
+        /**
+         * Creates a new priority band.
+         *
+         * @param minPriority
+         *            the minimum message priority of the band, inclusive.
+         * @param maxPriority
+         *            the maximum message priority of the band, inclusive.
+         * @param weight
+         *            the number of messages published by the band for each round, 0 means that the band is served
+         *            with strict priority.
+         * @param throttle
+         *            the token bucket that limits the publish rate of the band, if any.
+         */
+        public Band(final int minPriority, final int maxPriority, final int weight,
+                final Optional<TokenBucket> throttle) {
+            if (minPriority > maxPriority) {
+                throw new IllegalArgumentException("minPriority must not be greater than maxPriority");
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight must not be negative");
+            }
+
+            this.minPriority = minPriority;
+            this.maxPriority = maxPriority;
+            this.weight = weight;
+            this.throttle = throttle;
+            this.credits = weight;
+        }
+
+        private boolean offer(final StoredMessage message, final int capacity) {
+            if (this.storeMayHaveMore
+                    && (this.queue.isEmpty() || PUBLISH_ORDER.compare(message, this.queue.last()) > 0)) {
+                return false;
+            }
+
+            this.queue.add(message);
+
+            if (this.queue.size() > capacity) {
+                this.storeMayHaveMore = true;
+                return this.queue.pollLast() != message;
+            }
+
+            return true;
+        }
+
+        private void putBack(final StoredMessage message, final int capacity) {
+            this.queue.add(message);
+
+            if (this.queue.size() > capacity) {
+                this.storeMayHaveMore = true;
+                this.queue.pollLast();
+            }
+
+            this.throttle.ifPresent(TokenBucket::returnToken);
+        }
+
+        private boolean needsRefill() {
+            return this.queue.isEmpty() && this.storeMayHaveMore;
+        }
+
+        private void refill(final List<StoredMessage> messages, final int capacity) {
+            this.queue.addAll(messages);
+            this.storeMayHaveMore = messages.size() >= capacity;
+        }
+
+        private boolean canPublish(final boolean inFlightAvailable) {
+            if (this.queue.isEmpty()) {
+                return false;
+            }
+
+            if (this.queue.first().getQos() > 0 && !inFlightAvailable) {
+                return false;
+            }
+
+            return !this.throttle.isPresent() || this.throttle.get().getToken();
+        }
+    }
+}
@@ -36,6 +36,15 @@ public class TokenBucket {
         return result;
     }
 
+    /**
+     * Gives back a token obtained with {@link #getToken()} that has not been used.
+     */
+    public void returnToken() {
+        if (this.remainingTokens < this.capacity) {
+            this.remainingTokens++;
+        }
+    }
+
     private boolean isTokenAvailable() {
         return this.remainingTokens != 0;
     }
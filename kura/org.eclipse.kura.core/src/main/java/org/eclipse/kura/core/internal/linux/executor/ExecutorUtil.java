@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2019, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -20,15 +20,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.exec.CommandLine;
@@ -57,8 +64,13 @@ public class ExecutorUtil {
     private static final String FAILED_TO_GET_PID_MESSAGE = "Failed to get pid for command '{}'";
     private static final File TEMP_DIR = new File(System.getProperty("java.io.tmpdir"));
     private static final String DEFAULT_COMMAND_USERNAME = "kura";
+    private static final Path PROC_DIR = Paths.get("/proc");
+    private static final int SHELL_POOL_SIZE = 2;
 
     private String commandUsername;
+    private PersistentShellPool privilegedShells;
+    private PersistentShellPool unprivilegedShells;
+    private ExecutorService asyncExecutor;
 
     public ExecutorUtil() {
         this.commandUsername = DEFAULT_COMMAND_USERNAME;
@@ -96,6 +108,56 @@ public class ExecutorUtil {
         executeAsync(command, commandLine, callback);
     }
 
+    /**
+     * Executes the given commands in order as the command user. Commands without an input stream are piped to a
+     * persistent shell instead of being started as separate processes.
+     *
+     * @param commands
+     *            the commands to execute
+     * @return the status of each command, in the same order
+     */
+    public List<CommandStatus> executeUnprivileged(List<Command> commands) {
+        return executeBatch(commands, getUnprivilegedShells(), this::executeUnprivileged);
+    }
+
+    /**
+     * Executes the given commands in order. Commands without an input stream are piped to a persistent shell instead
+     * of being started as separate processes.
+     *
+     * @param commands
+     *            the commands to execute
+     * @return the status of each command, in the same order
+     */
+    public List<CommandStatus> executePrivileged(List<Command> commands) {
+        return executeBatch(commands, getPrivilegedShells(), this::executePrivileged);
+    }
+
+    public CompletionStage<CommandStatus> executeUnprivilegedAsync(Command command) {
+        return executeAsync(command, getUnprivilegedShells(), this::executeUnprivileged);
+    }
+
+    public CompletionStage<CommandStatus> executePrivilegedAsync(Command command) {
+        return executeAsync(command, getPrivilegedShells(), this::executePrivileged);
+    }
+
+    /**
+     * Terminates the persistent shells and the threads used for asynchronous execution.
+     */
+    public synchronized void close() {
+        if (this.privilegedShells != null) {
+            this.privilegedShells.close();
+            this.privilegedShells = null;
+        }
+        if (this.unprivilegedShells != null) {
+            this.unprivilegedShells.close();
+            this.unprivilegedShells = null;
+        }
+        if (this.asyncExecutor != null) {
+            this.asyncExecutor.shutdown();
+            this.asyncExecutor = null;
+        }
+    }
+
     public boolean stopUnprivileged(Pid pid, Signal signal) {
         boolean isStopped = true;
         if (isRunning(pid)) {
@@ -139,6 +201,12 @@ public class ExecutorUtil {
     }
 
     public boolean isRunning(Pid pid) {
+        Path procDirectory = getProcDirectory();
+        if (Files.isDirectory(procDirectory.resolve("self"))) {
+            return Files.isDirectory(procDirectory.resolve(Integer.toString(pid.getPid())));
+        }
+
+        // procfs not available, ask ps
         boolean isRunning = false;
         String pidString = ((Integer) pid.getPid()).toString();
         String psCommand = "ps -p " + pidString;
@@ -299,6 +367,88 @@ public class ExecutorUtil {
         return new DefaultExecutor();
     }
 
+    protected Path getProcDirectory() {
+        return PROC_DIR;
+    }
+
+    private List<CommandStatus> executeBatch(List<Command> commands, PersistentShellPool shells,
+            Function<Command, CommandStatus> fallback) {
+        List<CommandStatus> result = new ArrayList<>(commands.size());
+
+        // runs of commands without input are written to the shell at once, the others are started as processes
+        int start = 0;
+        for (int i = 0; i <= commands.size(); i++) {
+            if (i < commands.size() && commands.get(i).getInputStream() == null) {
+                continue;
+            }
+            if (i > start) {
+                result.addAll(executeInShell(commands.subList(start, i), shells, fallback));
+            }
+            if (i < commands.size()) {
+                result.add(fallback.apply(commands.get(i)));
+            }
+            start = i + 1;
+        }
+        return result;
+    }
+
+    private List<CommandStatus> executeInShell(List<Command> commands, PersistentShellPool shells,
+            Function<Command, CommandStatus> fallback) {
+        List<CommandStatus> result = new ArrayList<>(commands.size());
+
+        // a shell that terminates, for example because of a timeout, is replaced for the rest of the commands
+        while (result.size() < commands.size()) {
+            List<Command> remaining = commands.subList(result.size(), commands.size());
+            try {
+                result.addAll(shells.execute(remaining));
+            } catch (IOException e) {
+                logger.warn("Failed to start shell, executing commands as separate processes", e);
+                remaining.stream().map(fallback).forEach(result::add);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                remaining.stream().map(command -> {
+                    CommandStatus status = new CommandStatus(command, new LinuxExitStatus(1));
+                    status.setOutputStream(command.getOutputStream());
+                    status.setErrorStream(command.getErrorStream());
+                    return status;
+                }).forEach(result::add);
+            }
+        }
+        return result;
+    }
+
+    private CompletionStage<CommandStatus> executeAsync(Command command, PersistentShellPool shells,
+            Function<Command, CommandStatus> fallback) {
+        return CompletableFuture.supplyAsync(
+                () -> executeBatch(Collections.singletonList(command), shells, fallback).get(0), getAsyncExecutor());
+    }
+
+    private synchronized PersistentShellPool getPrivilegedShells() {
+        if (this.privilegedShells == null) {
+            this.privilegedShells = new PersistentShellPool(() -> new String[] { "/bin/sh" }, SHELL_POOL_SIZE, false);
+        }
+        return this.privilegedShells;
+    }
+
+    private synchronized PersistentShellPool getUnprivilegedShells() {
+        if (this.unprivilegedShells == null) {
+            this.unprivilegedShells = new PersistentShellPool(
+                    () -> new String[] { "su", this.commandUsername, "-c", "/bin/sh" }, SHELL_POOL_SIZE, true);
+        }
+        return this.unprivilegedShells;
+    }
+
+    private synchronized ExecutorService getAsyncExecutor() {
+        if (this.asyncExecutor == null) {
+            this.asyncExecutor = Executors.newFixedThreadPool(SHELL_POOL_SIZE, r -> {
+                Thread thread = new Thread(r, "CommandExecutorAsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.asyncExecutor;
+    }
+
     private void executeAsync(Command command, CommandLine commandLine, Consumer<CommandStatus> callback) {
         CommandStatus commandStatus = new CommandStatus(command, new LinuxExitStatus(0));
         commandStatus.setOutputStream(command.getOutputStream());
@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.internal.linux.executor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.core.linux.executor.LinuxExitStatus;
+import org.eclipse.kura.core.linux.executor.LinuxSignal;
+import org.eclipse.kura.executor.Command;
+import org.eclipse.kura.executor.CommandStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long running shell that executes the commands written to its standard input.
+ * <br>
+ * Running a command through the shell does not require the JVM to start a new process and two stream pumping threads:
+ * the shell forks the command and two reader threads, created once for the whole life of the shell, split its output
+ * into the output of each command. The end of the output of a command is marked by a random token, followed by the
+ * exit value of the command on the standard output.
+ * <br>
+ * Commands are executed one at a time in the order they are submitted, with their standard input redirected from
+ * {@code /dev/null}. Shell commands are passed to a separate {@code /bin/sh -c}, so that a syntax error does not
+ * terminate the persistent shell. Commands with a timeout are run through the {@code timeout} utility, if the shell
+ * does not report the end of a command within its timeout the shell is destroyed and the following commands are not
+ * executed.
+ */
+class PersistentShell implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentShell.class);
+
+    private static final int TIMEOUT_EXIT_VALUE = 124;
+    private static final int SIGNAL_EXIT_VALUE_BASE = 128;
+    private static final int FAILURE_EXIT_VALUE = 1;
+    private static final long TIMEOUT_GRACE_MILLIS = 5000;
+    private static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
+    private static final Segment END_OF_STREAM = new Segment(new byte[0], FAILURE_EXIT_VALUE);
+
+    private final Process process;
+    private final OutputStream stdin;
+    private final String token;
+    private final byte[] marker;
+    private final boolean joinArguments;
+    private final BlockingQueue<Segment> stdout = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Segment> stderr = new LinkedBlockingQueue<>();
+
+    private volatile boolean alive = true;
+
+    /**
+     * Starts a new shell.
+     *
+     * @param shellCommandLine
+     *            the command line of the shell
+     * @param joinArguments
+     *            if {@code true} the arguments of every command are joined with spaces and interpreted by
+     *            {@code /bin/sh -c}, as done by {@code su -c}, otherwise they are passed to the command unchanged
+     * @throws IOException
+     *             if the shell cannot be started
+     */
+    PersistentShell(final String[] shellCommandLine, final boolean joinArguments) throws IOException {
+        this.joinArguments = joinArguments;
+        this.process = new ProcessBuilder(shellCommandLine).directory(new File(TEMP_DIR)).start();
+        this.stdin = this.process.getOutputStream();
+        this.token = "kura-end-" + UUID.randomUUID().toString().replace("-", "") + ":";
+
+        // the marker starts with a control character that does not appear in the rest of the marker
+        this.marker = ("\u001f" + this.token).getBytes(UTF_8);
+
+        startReader(this.process.getInputStream(), this.stdout, "stdout");
+        startReader(this.process.getErrorStream(), this.stderr, "stderr");
+    }
+
+    boolean isAlive() {
+        return this.alive && this.process.isAlive();
+    }
+
+    /**
+     * Executes the given commands in order. The commands are written to the shell all at once, then the output of each
+     * command is collected.
+     *
+     * @param commands
+     *            the commands to execute, none of them can have an input stream
+     * @return the status of each command executed before the shell terminated, the last one is a failure if the
+     *         shell terminated while executing it
+     */
+    synchronized List<CommandStatus> execute(final List<Command> commands) {
+        final List<CommandStatus> result = new ArrayList<>(commands.size());
+
+        try {
+            final StringBuilder script = new StringBuilder();
+            for (final Command command : commands) {
+                appendScript(script, command);
+            }
+            this.stdin.write(script.toString().getBytes(UTF_8));
+            this.stdin.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to write commands to the shell", e);
+            close();
+        }
+
+        for (final Command command : commands) {
+            result.add(awaitStatus(command));
+            if (!this.alive) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void close() {
+        this.alive = false;
+        this.process.destroyForcibly();
+    }
+
+    private CommandStatus awaitStatus(final Command command) {
+        final CommandStatus status = new CommandStatus(command, new LinuxExitStatus(FAILURE_EXIT_VALUE));
+        status.setOutputStream(command.getOutputStream());
+        status.setErrorStream(command.getErrorStream());
+        status.setInputStream(command.getInputStream());
+
+        if (!this.alive) {
+            return status;
+        }
+
+        final Segment out;
+        final Segment err;
+        try {
+            final int timeout = command.getTimeout();
+            out = timeout > 0 ? this.stdout.poll(timeout * 1000L + TIMEOUT_GRACE_MILLIS, TimeUnit.MILLISECONDS)
+                    : this.stdout.take();
+            if (out == null) {
+                logger.warn("Command {} did not complete within {} seconds, destroying shell", command, timeout);
+                close();
+                status.setExitStatus(new LinuxExitStatus(TIMEOUT_EXIT_VALUE));
+                status.setTimedout(true);
+                return status;
+            }
+            err = this.stderr.poll(TIMEOUT_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            return status;
+        }
+
+        if (out == END_OF_STREAM || err == null || err == END_OF_STREAM) {
+            logger.warn("Shell terminated while executing command {}", command);
+            close();
+            return status;
+        }
+
+        copy(out.data, command.getOutputStream());
+        copy(err.data, command.getErrorStream());
+
+        status.setExitStatus(new LinuxExitStatus(out.exitValue));
+        status.setTimedout(command.getTimeout() > 0 && isTimeoutExitValue(out.exitValue, getSignal(command)));
+        return status;
+    }
+
+    /*
+     * timeout exits with 124 when the command times out, unless the signal is SIGKILL: in that case timeout kills
+     * itself too.
+     */
+    private static boolean isTimeoutExitValue(final int exitValue, final LinuxSignal signal) {
+        return exitValue == TIMEOUT_EXIT_VALUE
+                || signal == LinuxSignal.SIGKILL && exitValue == SIGNAL_EXIT_VALUE_BASE + signal.getSignalNumber();
+    }
+
+    private static LinuxSignal getSignal(final Command command) {
+        return command.getSignal() == null ? LinuxSignal.SIGTERM : (LinuxSignal) command.getSignal();
+    }
+
+    private void appendScript(final StringBuilder script, final Command command) {
+        final String directory = command.getDirectory();
+
+        script.append("( cd ");
+        appendQuoted(script, directory == null || directory.isEmpty() || !Files.isDirectory(Paths.get(directory))
+                ? TEMP_DIR
+                : directory);
+
+        final Map<String, String> environment = command.getEnvironment();
+        if (environment != null) {
+            for (final Map.Entry<String, String> entry : environment.entrySet()) {
+                script.append(" && export ").append(entry.getKey()).append('=');
+                appendQuoted(script, entry.getValue());
+            }
+        }
+
+        script.append(" && ");
+        if (command.getTimeout() > 0) {
+            script.append("exec timeout -s ").append(getSignal(command).name()).append(' ').append(command.getTimeout())
+                    .append(' ');
+            appendCommandLine(script, command, true);
+        } else {
+            appendCommandLine(script, command, false);
+        }
+        script.append("\n) </dev/null\n");
+
+        script.append("printf '\\037").append(this.token).append("%d\\n' $?; printf '\\037").append(this.token)
+                .append("\\n' >&2\n");
+    }
+
+    private void appendCommandLine(final StringBuilder script, final Command command, final boolean exec) {
+        if (!exec) {
+            script.append("exec ");
+        }
+
+        if (command.isExecutedInAShell() || this.joinArguments) {
+            script.append("/bin/sh -c ");
+            appendQuoted(script, command.toString());
+            return;
+        }
+
+        for (final String token : command.getCommandLine()) {
+            if (script.charAt(script.length() - 1) != ' ') {
+                script.append(' ');
+            }
+            appendQuoted(script, token);
+        }
+    }
+
+    private static void appendQuoted(final StringBuilder script, final String value) {
+        script.append('\'').append(value.replace("'", "'\\''")).append('\'');
+    }
+
+    private static void copy(final byte[] data, final OutputStream out) {
+        if (out == null || data.length == 0) {
+            return;
+        }
+        try {
+            out.write(data);
+            out.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to write command output", e);
+        }
+    }
+
+    private void startReader(final InputStream in, final BlockingQueue<Segment> queue, final String name) {
+        final Thread reader = new Thread(() -> read(in, queue), "PersistentShell-" + name);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void read(final InputStream in, final BlockingQueue<Segment> queue) {
+        final ByteArrayOutputStream current = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int matched = 0;
+        int exitValue = 0;
+        boolean inTrailer = false;
+
+        try {
+            int count;
+            while ((count = in.read(buffer)) >= 0) {
+                for (int i = 0; i < count; i++) {
+                    final byte b = buffer[i];
+
+                    if (inTrailer) {
+                        if (b == '\n') {
+                            queue.add(new Segment(current.toByteArray(), exitValue));
+                            current.reset();
+                            exitValue = 0;
+                            inTrailer = false;
+                        } else if (b >= '0' && b <= '9') {
+                            exitValue = exitValue * 10 + b - '0';
+                        }
+                    } else if (b == this.marker[matched]) {
+                        matched++;
+                        if (matched == this.marker.length) {
+                            matched = 0;
+                            inTrailer = true;
+                        }
+                    } else {
+                        current.write(this.marker, 0, matched);
+                        matched = b == this.marker[0] ? 1 : 0;
+                        if (matched == 0) {
+                            current.write(b);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Shell stream closed", e);
+        } finally {
+            this.alive = false;
+            queue.add(END_OF_STREAM);
+        }
+    }
+
+    private static final class Segment {
+
+        private final byte[] data;
+        private final int exitValue;
+
+        Segment(final byte[] data, final int exitValue) {
+            this.data = data;
+            this.exitValue = exitValue;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.internal.linux.executor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.kura.executor.Command;
+import org.eclipse.kura.executor.CommandStatus;
+
+/**
+ * A pool of {@link PersistentShell}s. Shells are started when needed, up to the maximum size of the pool, and are
+ * reused until they terminate or the pool is closed.
+ */
+class PersistentShellPool implements Closeable {
+
+    private static final long ACQUIRE_POLL_MILLIS = 100;
+
+    private final Supplier<String[]> shellCommandLine;
+    private final int maxSize;
+    private final boolean joinArguments;
+    private final BlockingQueue<PersistentShell> idleShells = new LinkedBlockingQueue<>();
+    private final List<PersistentShell> shells = new ArrayList<>();
+
+    private boolean closed;
+
+    PersistentShellPool(final Supplier<String[]> shellCommandLine, final int maxSize, final boolean joinArguments) {
+        this.shellCommandLine = shellCommandLine;
+        this.maxSize = maxSize;
+        this.joinArguments = joinArguments;
+    }
+
+    /**
+     * Executes the given commands in order on a single shell of the pool, waiting for a shell to become available if
+     * all of them are busy.
+     *
+     * @param commands
+     *            the commands, none of them can have an input stream
+     * @return the status of each command executed before the shell terminated, see
+     *         {@link PersistentShell#execute(List)}
+     * @throws IOException
+     *             if a new shell cannot be started
+     * @throws InterruptedException
+     *             if interrupted while waiting for a shell
+     */
+    List<CommandStatus> execute(final List<Command> commands) throws IOException, InterruptedException {
+        final PersistentShell shell = acquire();
+
+        try {
+            return shell.execute(commands);
+        } finally {
+            release(shell);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.shells.forEach(PersistentShell::close);
+        this.shells.clear();
+        this.idleShells.clear();
+    }
+
+    private PersistentShell acquire() throws IOException, InterruptedException {
+        while (true) {
+            synchronized (this) {
+                if (this.closed) {
+                    throw new IOException("the shell pool is closed");
+                }
+
+                if (this.shells.size() < this.maxSize && this.idleShells.isEmpty()) {
+                    final PersistentShell shell = new PersistentShell(this.shellCommandLine.get(), this.joinArguments);
+                    this.shells.add(shell);
+                    return shell;
+                }
+            }
+
+            // a busy shell may terminate instead of being released, poll so that a replacement can be started
+            final PersistentShell shell = this.idleShells.poll(ACQUIRE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (shell != null) {
+                if (shell.isAlive()) {
+                    return shell;
+                }
+                release(shell);
+            }
+        }
+    }
+
+    private synchronized void release(final PersistentShell shell) {
+        if (this.closed || !shell.isAlive()) {
+            shell.close();
+            this.shells.remove(shell);
+        } else {
+            this.idleShells.add(shell);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2019, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,11 @@ package org.eclipse.kura.core.linux.executor.privileged;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
 import org.apache.commons.io.Charsets;
@@ -48,6 +52,7 @@ public class PrivilegedExecutorServiceImpl implements PrivilegedExecutorService
 
     public void deactivate(ComponentContext componentContext) {
         logger.info("deactivate...");
+        this.executorUtil.close();
         this.ctx = null;
     }
 
@@ -74,6 +79,46 @@ public class PrivilegedExecutorServiceImpl implements PrivilegedExecutorService
         this.executorUtil.executePrivileged(command, callback);
     }
 
+    @Override
+    public CompletionStage<CommandStatus> executeAsync(Command command) {
+        if (command.getCommandLine() == null || command.getCommandLine().length == 0) {
+            return CompletableFuture.completedFuture(buildErrorStatus(command));
+        }
+        if (command.getSignal() == null) {
+            command.setSignal(DEFAULT_SIGNAL);
+        }
+        return this.executorUtil.executePrivilegedAsync(command);
+    }
+
+    @Override
+    public List<CommandStatus> executeBatch(List<Command> commands) {
+        List<Command> validCommands = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            if (command.getCommandLine() != null && command.getCommandLine().length != 0) {
+                if (command.getSignal() == null) {
+                    command.setSignal(DEFAULT_SIGNAL);
+                }
+                validCommands.add(command);
+            }
+        }
+
+        List<CommandStatus> validStatuses = this.executorUtil.executePrivileged(validCommands);
+        if (validCommands.size() == commands.size()) {
+            return validStatuses;
+        }
+
+        List<CommandStatus> result = new ArrayList<>(commands.size());
+        int next = 0;
+        for (Command command : commands) {
+            if (command.getCommandLine() == null || command.getCommandLine().length == 0) {
+                result.add(buildErrorStatus(command));
+            } else {
+                result.add(validStatuses.get(next++));
+            }
+        }
+        return result;
+    }
+
     @Override
     public boolean stop(Pid pid, Signal signal) {
         boolean isStopped = false;
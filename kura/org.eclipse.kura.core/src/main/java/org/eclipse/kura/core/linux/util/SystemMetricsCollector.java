@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.linux.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects system and network metrics by reading the Linux procfs and sysfs files directly, instead of running
+ * external commands.
+ * <br>
+ * Files are read into a reusable buffer and parsed in place, strings are only created for interface names, which are
+ * reused across samples. Values that cannot change while the system is running, like the DMI identifiers, are read
+ * once and cached.
+ * <br>
+ * The methods of this class are thread safe. A shared instance reading the real {@code /proc} and {@code /sys}
+ * filesystems is returned by {@link #getDefault()}, consumers polling the same counters should use
+ * {@link #getSnapshot(long)} so that a single sample is shared between them.
+ */
+public class SystemMetricsCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemMetricsCollector.class);
+
+    static final int MEM_TOTAL = 0;
+    static final int MEM_FREE = 1;
+    static final int MEM_AVAILABLE = 2;
+    static final int MEM_BUFFERS = 3;
+    static final int MEM_CACHED = 4;
+    static final int MEM_SWAP_TOTAL = 5;
+    static final int MEM_SWAP_FREE = 6;
+
+    private static final byte[][] MEM_KEYS = { ascii("MemTotal"), ascii("MemFree"), ascii("MemAvailable"),
+            ascii("Buffers"), ascii("Cached"), ascii("SwapTotal"), ascii("SwapFree") };
+    private static final byte[] CPU_KEY = ascii("cpu ");
+
+    private static final int CPU_TIMES = 8;
+    private static final int NET_DEV_COUNTERS = 16;
+    private static final int HEADER_LINES = 2;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int MAX_INTERFACE_NAMES = 64;
+
+    private final Path stat;
+    private final Path meminfo;
+    private final Path netDev;
+    private final Path wireless;
+    private final Path hostname;
+    private final Path sysClassNet;
+    private final Path dmiId;
+
+    private final Map<String, Optional<String>> staticValues = new ConcurrentHashMap<>();
+    private final List<String> interfaceNames = new ArrayList<>();
+    private final long[] netDevCounters = new long[NET_DEV_COUNTERS];
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int length;
+    private int position;
+
+    private SystemMetricsSnapshot lastSnapshot;
+
+    public SystemMetricsCollector() {
+        this(Paths.get("/proc"), Paths.get("/sys"));
+    }
+
+    public SystemMetricsCollector(final Path procRoot, final Path sysRoot) {
+        this.stat = procRoot.resolve("stat");
+        this.meminfo = procRoot.resolve("meminfo");
+        this.netDev = procRoot.resolve("net/dev");
+        this.wireless = procRoot.resolve("net/wireless");
+        this.hostname = procRoot.resolve("sys/kernel/hostname");
+        this.sysClassNet = sysRoot.resolve("class/net");
+        this.dmiId = sysRoot.resolve("class/dmi/id");
+    }
+
+    public static SystemMetricsCollector getDefault() {
+        return DefaultInstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the last sample if it is not older than the given age, otherwise takes a new sample.
+     *
+     * @param maxAgeMillis
+     *            the maximum age of the returned sample, in milliseconds
+     * @return the sample
+     */
+    public synchronized SystemMetricsSnapshot getSnapshot(final long maxAgeMillis) {
+        final SystemMetricsSnapshot last = this.lastSnapshot;
+
+        if (last != null && System.currentTimeMillis() - last.getTimestamp() <= maxAgeMillis) {
+            return last;
+        }
+        return sample();
+    }
+
+    /**
+     * Reads the CPU, memory, network and wireless counters.
+     *
+     * @return a new sample
+     */
+    public synchronized SystemMetricsSnapshot sample() {
+        final long timestamp = System.currentTimeMillis();
+        final long[] cpuTimes = readCpuTimes();
+        final long[] memory = readMemory();
+        final Map<String, SystemMetricsSnapshot.NetInterfaceCounters> netInterfaces = readNetDev();
+        final Map<String, SystemMetricsSnapshot.WirelessLinkStats> wirelessLinks = readWireless();
+
+        this.lastSnapshot = new SystemMetricsSnapshot(timestamp, cpuTimes, memory, netInterfaces, wirelessLinks);
+        return this.lastSnapshot;
+    }
+
+    /**
+     * Reads the link statistics of a wireless interface from {@code /proc/net/wireless}, without sampling the other
+     * counters.
+     *
+     * @param interfaceName
+     *            the interface name
+     * @return the link statistics, or an empty optional if the interface is not listed
+     */
+    public synchronized Optional<SystemMetricsSnapshot.WirelessLinkStats> getWirelessLink(final String interfaceName) {
+        return Optional.ofNullable(readWireless().get(interfaceName));
+    }
+
+    /**
+     * @return the kernel host name, read from {@code /proc/sys/kernel/hostname}
+     */
+    public synchronized Optional<String> getHostname() {
+        return readLine(this.hostname);
+    }
+
+    /**
+     * Returns a DMI identifier exposed in {@code /sys/class/dmi/id}, like {@code bios_version} or
+     * {@code product_name}. The value is read once and cached.
+     *
+     * @param name
+     *            the name of the identifier
+     * @return the value, or an empty optional if the identifier is not available or not readable
+     */
+    public Optional<String> getDmiValue(final String name) {
+        return this.staticValues.computeIfAbsent("dmi/" + name, k -> {
+            synchronized (this) {
+                return readLine(this.dmiId.resolve(name));
+            }
+        });
+    }
+
+    /**
+     * @param interfaceName
+     *            the interface name
+     * @return the number of times the carrier of the interface changed state, or an empty optional if it is not
+     *         available
+     */
+    public synchronized OptionalLong getCarrierChanges(final String interfaceName) {
+        if (!read(this.sysClassNet.resolve(interfaceName).resolve("carrier_changes"))) {
+            return OptionalLong.empty();
+        }
+        skipSpaces();
+        if (this.position >= this.length || !isDigit(this.buffer[this.position])) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(parseLong());
+    }
+
+    /**
+     * @param interfaceName
+     *            the interface name
+     * @return true if the interface is a virtual device, like a bridge, a tunnel or a PPP link
+     */
+    public boolean isVirtualInterface(final String interfaceName) {
+        final Path device = this.sysClassNet.resolve(interfaceName);
+
+        try {
+            final Path target = Files.isSymbolicLink(device) ? Files.readSymbolicLink(device) : device.toRealPath();
+            for (final Path element : target) {
+                if ("virtual".equals(element.toString())) {
+                    return true;
+                }
+            }
+        } catch (final IOException e) {
+            logger.debug("failed to resolve {}", device, e);
+        }
+        return false;
+    }
+
+    private long[] readCpuTimes() {
+        final long[] cpuTimes = new long[CPU_TIMES];
+        Arrays.fill(cpuTimes, -1);
+
+        if (!read(this.stat)) {
+            return cpuTimes;
+        }
+
+        do {
+            if (startsWith(CPU_KEY)) {
+                this.position += CPU_KEY.length;
+                parseLongs(cpuTimes);
+                break;
+            }
+        } while (nextLine());
+
+        return cpuTimes;
+    }
+
+    private long[] readMemory() {
+        final long[] memory = new long[MEM_KEYS.length];
+        Arrays.fill(memory, -1);
+
+        if (!read(this.meminfo)) {
+            return memory;
+        }
+
+        do {
+            final int keyEnd = indexOf((byte) ':');
+            if (keyEnd < 0) {
+                continue;
+            }
+            for (int i = 0; i < MEM_KEYS.length; i++) {
+                if (regionEquals(this.position, keyEnd, MEM_KEYS[i])) {
+                    this.position = keyEnd + 1;
+                    skipSpaces();
+                    memory[i] = parseLong();
+                    break;
+                }
+            }
+        } while (nextLine());
+
+        return memory;
+    }
+
+    private Map<String, SystemMetricsSnapshot.NetInterfaceCounters> readNetDev() {
+        final Map<String, SystemMetricsSnapshot.NetInterfaceCounters> result = new LinkedHashMap<>();
+
+        if (!read(this.netDev) || !skipLines(HEADER_LINES)) {
+            return result;
+        }
+
+        do {
+            final String name = parseInterfaceName();
+            if (name == null) {
+                continue;
+            }
+            Arrays.fill(this.netDevCounters, 0);
+            parseLongs(this.netDevCounters);
+            result.put(name, new SystemMetricsSnapshot.NetInterfaceCounters(this.netDevCounters));
+        } while (nextLine());
+
+        return result;
+    }
+
+    private Map<String, SystemMetricsSnapshot.WirelessLinkStats> readWireless() {
+        final Map<String, SystemMetricsSnapshot.WirelessLinkStats> result = new LinkedHashMap<>();
+
+        if (!read(this.wireless) || !skipLines(HEADER_LINES)) {
+            return result;
+        }
+
+        do {
+            final String name = parseInterfaceName();
+            if (name == null) {
+                continue;
+            }
+            // status, link quality, signal level, noise level
+            skipToken();
+            final int quality = (int) parseSignedToken();
+            final int level = toDbm(parseSignedToken());
+            final int noise = toDbm(parseSignedToken());
+            result.put(name, new SystemMetricsSnapshot.WirelessLinkStats(quality, level, noise));
+        } while (nextLine());
+
+        return result;
+    }
+
+    /*
+     * Drivers that do not report the level in dBm use an unsigned 8 bit value, -256 and 0 mean not available.
+     */
+    private static int toDbm(final long value) {
+        if (value == 0 || value <= -256 || value >= 256) {
+            return 0;
+        }
+        return (int) (value > 0 ? value - 256 : value);
+    }
+
+    private Optional<String> readLine(final Path path) {
+        if (!read(path)) {
+            return Optional.empty();
+        }
+
+        final int end = indexOf((byte) '\n');
+        final String value = new String(this.buffer, 0, end < 0 ? this.length : end, US_ASCII).trim();
+
+        return value.isEmpty() ? Optional.empty() : Optional.of(value);
+    }
+
+    private boolean read(final Path path) {
+        this.length = 0;
+        this.position = 0;
+
+        try (InputStream in = Files.newInputStream(path)) {
+            int count;
+            while ((count = in.read(this.buffer, this.length, this.buffer.length - this.length)) >= 0) {
+                this.length += count;
+                if (this.length == this.buffer.length) {
+                    this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                }
+            }
+            return true;
+        } catch (final NoSuchFileException e) {
+            logger.debug("{} not found", path);
+        } catch (final IOException e) {
+            logger.debug("failed to read {}", path, e);
+        }
+        this.length = 0;
+        return false;
+    }
+
+    private String parseInterfaceName() {
+        skipSpaces();
+
+        final int start = this.position;
+        final int end = indexOf((byte) ':');
+
+        if (end <= start) {
+            return null;
+        }
+        this.position = end + 1;
+
+        for (final String name : this.interfaceNames) {
+            if (regionEquals(start, end, name)) {
+                return name;
+            }
+        }
+
+        if (this.interfaceNames.size() >= MAX_INTERFACE_NAMES) {
+            this.interfaceNames.clear();
+        }
+
+        final String name = new String(this.buffer, start, end - start, US_ASCII);
+        this.interfaceNames.add(name);
+        return name;
+    }
+
+    private void parseLongs(final long[] values) {
+        for (int i = 0; i < values.length; i++) {
+            skipSpaces();
+            if (this.position >= this.length || !isDigit(this.buffer[this.position])) {
+                return;
+            }
+            values[i] = parseLong();
+        }
+    }
+
+    private long parseSignedToken() {
+        skipSpaces();
+
+        boolean negative = false;
+        if (this.position < this.length && this.buffer[this.position] == '-') {
+            negative = true;
+            this.position++;
+        }
+        final long value = parseLong();
+        skipToken();
+
+        return negative ? -value : value;
+    }
+
+    private long parseLong() {
+        long value = 0;
+
+        while (this.position < this.length && isDigit(this.buffer[this.position])) {
+            value = value * 10 + this.buffer[this.position++] - '0';
+        }
+        return value;
+    }
+
+    private void skipSpaces() {
+        while (this.position < this.length && isSpace(this.buffer[this.position])) {
+            this.position++;
+        }
+    }
+
+    private void skipToken() {
+        skipSpaces();
+        while (this.position < this.length && !isSpace(this.buffer[this.position])
+                && this.buffer[this.position] != '\n') {
+            this.position++;
+        }
+    }
+
+    private boolean skipLines(final int count) {
+        for (int i = 0; i < count; i++) {
+            if (!nextLine()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextLine() {
+        final int end = indexOf((byte) '\n');
+
+        this.position = end < 0 ? this.length : end + 1;
+        return this.position < this.length;
+    }
+
+    private int indexOf(final byte b) {
+        for (int i = this.position; i < this.length; i++) {
+            if (this.buffer[i] == b) {
+                return i;
+            }
+            if (this.buffer[i] == '\n') {
+                return b == '\n' ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(final byte[] prefix) {
+        return this.position + prefix.length <= this.length
+                && regionEquals(this.position, this.position + prefix.length, prefix);
+    }
+
+    private boolean regionEquals(final int start, final int end, final byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (this.buffer[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(final int start, final int end, final String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (this.buffer[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(final byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static boolean isDigit(final byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static byte[] ascii(final String value) {
+        return value.getBytes(US_ASCII);
+    }
+
+    private static final class DefaultInstanceHolder {
+
+        private static final SystemMetricsCollector INSTANCE = new SystemMetricsCollector();
+    }
+}
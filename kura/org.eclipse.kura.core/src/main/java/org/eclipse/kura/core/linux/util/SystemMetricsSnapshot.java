@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.linux.util;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable sample of the system counters read by {@link SystemMetricsCollector}.
+ * <br>
+ * Memory values are expressed in kB, CPU times in clock ticks as reported by {@code /proc/stat}. Values that are not
+ * available on the running kernel are reported as -1.
+ */
+public final class SystemMetricsSnapshot {
+
+    private final long timestamp;
+    private final long[] cpuTimes;
+    private final long[] memory;
+    private final Map<String, NetInterfaceCounters> netInterfaces;
+    private final Map<String, WirelessLinkStats> wirelessLinks;
+
+    SystemMetricsSnapshot(final long timestamp, final long[] cpuTimes, final long[] memory,
+            final Map<String, NetInterfaceCounters> netInterfaces, final Map<String, WirelessLinkStats> wirelessLinks) {
+        this.timestamp = timestamp;
+        this.cpuTimes = cpuTimes;
+        this.memory = memory;
+        this.netInterfaces = Collections.unmodifiableMap(netInterfaces);
+        this.wirelessLinks = Collections.unmodifiableMap(wirelessLinks);
+    }
+
+    /**
+     * @return the time at which the sample has been taken, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * @return the total CPU time spent since boot, in clock ticks.
+     */
+    public long getCpuTotalTime() {
+        long total = 0;
+        for (final long time : this.cpuTimes) {
+            total += Math.max(time, 0);
+        }
+        return total;
+    }
+
+    /**
+     * @return the CPU time spent idle or waiting for I/O since boot, in clock ticks.
+     */
+    public long getCpuIdleTime() {
+        return Math.max(this.cpuTimes[3], 0) + Math.max(this.cpuTimes[4], 0);
+    }
+
+    /**
+     * Computes the CPU usage between a previous sample and this one.
+     *
+     * @param previous
+     *            a sample taken before this one
+     * @return the fraction of non idle CPU time, between 0 and 1, or -1 if no CPU time elapsed between the two
+     *         samples.
+     */
+    public double getCpuUsageSince(final SystemMetricsSnapshot previous) {
+        final long total = getCpuTotalTime() - previous.getCpuTotalTime();
+        final long idle = getCpuIdleTime() - previous.getCpuIdleTime();
+
+        if (total <= 0) {
+            return -1;
+        }
+        return Math.min(1, Math.max(0, (double) (total - idle) / total));
+    }
+
+    public long getMemTotal() {
+        return this.memory[SystemMetricsCollector.MEM_TOTAL];
+    }
+
+    public long getMemFree() {
+        return this.memory[SystemMetricsCollector.MEM_FREE];
+    }
+
+    /**
+     * @return the memory available for starting new applications, or an estimate based on the free, buffers and
+     *         cached memory on kernels that do not report it.
+     */
+    public long getMemAvailable() {
+        final long available = this.memory[SystemMetricsCollector.MEM_AVAILABLE];
+        if (available >= 0) {
+            return available;
+        }
+        return getMemFree() + Math.max(getBuffers(), 0) + Math.max(getCached(), 0);
+    }
+
+    public long getBuffers() {
+        return this.memory[SystemMetricsCollector.MEM_BUFFERS];
+    }
+
+    public long getCached() {
+        return this.memory[SystemMetricsCollector.MEM_CACHED];
+    }
+
+    public long getSwapTotal() {
+        return this.memory[SystemMetricsCollector.MEM_SWAP_TOTAL];
+    }
+
+    public long getSwapFree() {
+        return this.memory[SystemMetricsCollector.MEM_SWAP_FREE];
+    }
+
+    /**
+     * @return the traffic counters of the network interfaces, by interface name.
+     */
+    public Map<String, NetInterfaceCounters> getNetInterfaces() {
+        return this.netInterfaces;
+    }
+
+    /**
+     * @return the link statistics of the wireless interfaces, by interface name.
+     */
+    public Map<String, WirelessLinkStats> getWirelessLinks() {
+        return this.wirelessLinks;
+    }
+
+    public static final class NetInterfaceCounters {
+
+        private final long rxBytes;
+        private final long rxPackets;
+        private final long rxErrors;
+        private final long rxDropped;
+        private final long txBytes;
+        private final long txPackets;
+        private final long txErrors;
+        private final long txDropped;
+
+        NetInterfaceCounters(final long[] values) {
+            this.rxBytes = values[0];
+            this.rxPackets = values[1];
+            this.rxErrors = values[2];
+            this.rxDropped = values[3];
+            this.txBytes = values[8];
+            this.txPackets = values[9];
+            this.txErrors = values[10];
+            this.txDropped = values[11];
+        }
+
+        public long getRxBytes() {
+            return this.rxBytes;
+        }
+
+        public long getRxPackets() {
+            return this.rxPackets;
+        }
+
+        public long getRxErrors() {
+            return this.rxErrors;
+        }
+
+        public long getRxDropped() {
+            return this.rxDropped;
+        }
+
+        public long getTxBytes() {
+            return this.txBytes;
+        }
+
+        public long getTxPackets() {
+            return this.txPackets;
+        }
+
+        public long getTxErrors() {
+            return this.txErrors;
+        }
+
+        public long getTxDropped() {
+            return this.txDropped;
+        }
+    }
+
+    public static final class WirelessLinkStats {
+
+        private final int linkQuality;
+        private final int signalLevel;
+        private final int noiseLevel;
+
+        WirelessLinkStats(final int linkQuality, final int signalLevel, final int noiseLevel) {
+            this.linkQuality = linkQuality;
+            this.signalLevel = signalLevel;
+            this.noiseLevel = noiseLevel;
+        }
+
+        public int getLinkQuality() {
+            return this.linkQuality;
+        }
+
+        /**
+         * @return the signal level in dBm, or 0 if the driver does not report it.
+         */
+        public int getSignalLevel() {
+            return this.signalLevel;
+        }
+
+        /**
+         * @return the noise level in dBm, or 0 if the driver does not report it.
+         */
+        public int getNoiseLevel() {
+            return this.noiseLevel;
+        }
+    }
+}
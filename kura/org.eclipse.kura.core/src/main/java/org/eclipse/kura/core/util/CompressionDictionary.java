@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.util;
+
+import java.util.Arrays;
+import java.util.zip.Adler32;
+
+/**
+ * A preset dictionary used by {@link DictionaryDeflateUtil}.
+ * <br>
+ * A dictionary is identified by the Adler-32 checksum of its content, which is the same identifier stored by the
+ * zlib format in the header of a stream compressed with a preset dictionary.
+ */
+public final class CompressionDictionary {
+
+    private final byte[] content;
+    private final int id;
+
+    public CompressionDictionary(final byte[] content) {
+        this.content = Arrays.copyOf(content, content.length);
+
+        final Adler32 adler = new Adler32();
+        adler.update(this.content);
+        this.id = (int) adler.getValue();
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public byte[] getContent() {
+        return Arrays.copyOf(this.content, this.content.length);
+    }
+
+    byte[] getContentNoCopy() {
+        return this.content;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CompressionDictionary)) {
+            return false;
+        }
+        final CompressionDictionary other = (CompressionDictionary) obj;
+        return this.id == other.id && Arrays.equals(this.content, other.content);
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds a {@link CompressionDictionary} from the metrics of recently encoded payloads.
+ * <br>
+ * The trainer counts the occurrences of metric names and of short string metric values, the dictionary contains the
+ * fragments with the highest score, encoded as they appear in a KuraPayload protobuf message. The most useful
+ * fragments are placed at the end of the dictionary, where deflate can reference them with the shortest distances.
+ * <br>
+ * A new dictionary is built at most once every {@code refreshInterval} trained payloads, and only if it differs from
+ * the current one.
+ */
+public class CompressionDictionaryTrainer {
+
+    private static final int MAX_TOKENS = 2048;
+    private static final int MAX_STRING_VALUE_LENGTH = 64;
+
+    // KuraMetric name and string_value field tags
+    private static final byte METRIC_NAME_TAG = 0x0a;
+    private static final byte METRIC_STRING_VALUE_TAG = 0x42;
+
+    private final int maxSize;
+    private final int refreshInterval;
+    private final Map<Token, Integer> counts = new HashMap<>();
+
+    private Optional<CompressionDictionary> dictionary = Optional.empty();
+    private int trainedSinceRefresh;
+
+    public CompressionDictionaryTrainer(int maxSize, int refreshInterval) {
+        this.maxSize = maxSize;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public synchronized void train(Map<String, Object> metrics) {
+        for (final Map.Entry<String, Object> entry : metrics.entrySet()) {
+            count(new Token(METRIC_NAME_TAG, entry.getKey()));
+
+            final Object value = entry.getValue();
+            if (value instanceof String && ((String) value).length() <= MAX_STRING_VALUE_LENGTH) {
+                count(new Token(METRIC_STRING_VALUE_TAG, (String) value));
+            }
+        }
+
+        this.trainedSinceRefresh++;
+    }
+
+    public synchronized Optional<CompressionDictionary> getDictionary() {
+        return this.dictionary;
+    }
+
+    /**
+     * Builds a new dictionary if enough payloads have been trained since the last refresh. The returned dictionary
+     * does not replace the current one until {@link #setDictionary(CompressionDictionary)} is called, this allows the
+     * caller to distribute the dictionary before using it.
+     *
+     * @return the new dictionary, or an empty optional if the current one should be kept.
+     */
+    public synchronized Optional<CompressionDictionary> refresh() {
+        if (this.trainedSinceRefresh < this.refreshInterval || this.counts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        this.trainedSinceRefresh = 0;
+
+        final CompressionDictionary candidate = build();
+
+        if (this.dictionary.isPresent() && this.dictionary.get().equals(candidate)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(candidate);
+    }
+
+    public synchronized void setDictionary(CompressionDictionary dictionary) {
+        this.dictionary = Optional.of(dictionary);
+    }
+
+    private CompressionDictionary build() {
+        final List<Map.Entry<Token, Integer>> entries = new ArrayList<>(this.counts.entrySet());
+        entries.sort(Comparator.<Map.Entry<Token, Integer>> comparingLong(e -> score(e.getKey(), e.getValue()))
+                .reversed().thenComparing(e -> e.getKey().text));
+
+        final List<byte[]> selected = new ArrayList<>();
+        int size = 0;
+
+        for (final Map.Entry<Token, Integer> entry : entries) {
+            final byte[] fragment = entry.getKey().encode();
+
+            if (size + fragment.length > this.maxSize) {
+                continue;
+            }
+
+            selected.add(fragment);
+            size += fragment.length;
+        }
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream(size);
+
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            final byte[] fragment = selected.get(i);
+            content.write(fragment, 0, fragment.length);
+        }
+
+        return new CompressionDictionary(content.toByteArray());
+    }
+
+    private void count(final Token token) {
+        this.counts.merge(token, 1, Integer::sum);
+
+        if (this.counts.size() > MAX_TOKENS) {
+            decay();
+        }
+    }
+
+    // halves all counts and forgets the tokens that have not been seen recently
+    private void decay() {
+        final Iterator<Map.Entry<Token, Integer>> iter = this.counts.entrySet().iterator();
+
+        while (iter.hasNext()) {
+            final Map.Entry<Token, Integer> entry = iter.next();
+            final int count = entry.getValue() / 2;
+
+            if (count == 0) {
+                iter.remove();
+            } else {
+                entry.setValue(count);
+            }
+        }
+    }
+
+    private static long score(final Token token, final int count) {
+        return (long) count * token.text.length();
+    }
+
+    private static final class Token {
+
+        private final byte tag;
+        private final String text;
+
+        Token(final byte tag, final String text) {
+            this.tag = tag;
+            this.text = text;
+        }
+
+        byte[] encode() {
+            final byte[] bytes = this.text.getBytes(StandardCharsets.UTF_8);
+            final int length = Math.min(bytes.length, 127);
+            final byte[] result = new byte[length + 2];
+
+            result[0] = this.tag;
+            result[1] = (byte) length;
+            System.arraycopy(bytes, 0, result, 2, length);
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.tag + this.text.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Token)) {
+                return false;
+            }
+            final Token other = (Token) obj;
+            return this.tag == other.tag && this.text.equals(other.text);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses small payloads with deflate and a preset {@link CompressionDictionary}.
+ * <br>
+ * The compressed data is made of the {@link #HEADER} byte followed by a zlib stream. The header byte has the lowest
+ * three bits set, which is not a valid protobuf wire type and not the first byte of a gzip stream, so compressed
+ * payloads can be told apart from plain and gzip compressed KuraPayloads.
+ * <br>
+ * The zlib stream contains the identifier of the dictionary used for compression, the dictionary is resolved while
+ * decompressing among the dictionaries registered with {@link #registerDictionary(CompressionDictionary)}.
+ */
+public class DictionaryDeflateUtil {
+
+    public static final byte HEADER = (byte) 0xd7;
+
+    private static final int MAX_REGISTERED_DICTIONARIES = 16;
+
+    private static final Map<Integer, CompressionDictionary> dictionaries = Collections
+            .synchronizedMap(new LinkedHashMap<Integer, CompressionDictionary>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompressionDictionary> eldest) {
+                    return size() > MAX_REGISTERED_DICTIONARIES;
+                }
+            });
+
+    private DictionaryDeflateUtil() {
+
+    }
+
+    public static boolean isCompressed(byte[] bytes) {
+        return bytes != null && bytes.length > 1 && bytes[0] == HEADER;
+    }
+
+    /**
+     * Makes a dictionary available for decompression. Only the most recently used dictionaries are retained.
+     *
+     * @param dictionary
+     *            the dictionary
+     */
+    public static void registerDictionary(CompressionDictionary dictionary) {
+        dictionaries.put(dictionary.getId(), dictionary);
+    }
+
+    public static Optional<CompressionDictionary> getDictionary(int id) {
+        return Optional.ofNullable(dictionaries.get(id));
+    }
+
+    public static byte[] compress(byte[] source, Optional<CompressionDictionary> dictionary) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+        try {
+            if (dictionary.isPresent()) {
+                deflater.setDictionary(dictionary.get().getContentNoCopy());
+            }
+            deflater.setInput(source);
+            deflater.finish();
+
+            final byte[] buf = new byte[Math.max(64, source.length + 16)];
+            buf[0] = HEADER;
+
+            int length = 1;
+            while (!deflater.finished()) {
+                length += deflater.deflate(buf, length, buf.length - length);
+
+                if (length == buf.length && !deflater.finished()) {
+                    return concat(buf, length, deflater);
+                }
+            }
+
+            final byte[] result = new byte[length];
+            System.arraycopy(buf, 0, result, 0, length);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static byte[] decompress(byte[] source) throws IOException {
+        final Inflater inflater = new Inflater();
+
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream(source.length * 4)) {
+            inflater.setInput(source, 1, source.length - 1);
+
+            final byte[] buf = new byte[1024];
+
+            while (!inflater.finished()) {
+                final int n = inflater.inflate(buf);
+
+                if (n > 0) {
+                    baos.write(buf, 0, n);
+                } else if (inflater.needsDictionary()) {
+                    final int id = inflater.getAdler();
+                    final CompressionDictionary dictionary = getDictionary(id)
+                            .orElseThrow(() -> new IOException("Unknown compression dictionary " + id));
+                    inflater.setDictionary(dictionary.getContentNoCopy());
+                } else if (inflater.needsInput()) {
+                    throw new IOException("Unexpected end of compressed data");
+                }
+            }
+
+            return baos.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] concat(byte[] head, int headLength, Deflater deflater) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(headLength * 2);
+        baos.write(head, 0, headLength);
+
+        while (!deflater.finished()) {
+            final int n = deflater.deflate(head);
+            baos.write(head, 0, n);
+        }
+
+        return baos.toByteArray();
+    }
+}
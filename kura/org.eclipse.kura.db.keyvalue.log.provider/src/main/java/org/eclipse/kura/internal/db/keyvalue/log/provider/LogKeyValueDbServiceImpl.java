@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.db.keyvalue.log.provider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.connection.listener.ConnectionListener;
+import org.eclipse.kura.db.keyvalue.KeyValueDbService;
+import org.eclipse.kura.util.store.listener.ConnectionListenerManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LogKeyValueDbServiceImpl implements KeyValueDbService, ConfigurableComponent {
+
+    private static final Set<String> OPEN_PATHS = new HashSet<>();
+
+    private static final Logger logger = LoggerFactory.getLogger(LogKeyValueDbServiceImpl.class);
+
+    private Optional<DbState> state = Optional.empty();
+    private final ConnectionListenerManager listenerManager = new ConnectionListenerManager();
+
+    public void activate(final Map<String, Object> properties) {
+        logger.info("activating...");
+
+        updated(properties);
+
+        logger.info("activating...done");
+    }
+
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.info("updating...");
+
+        final LogKeyValueDbServiceOptions newOptions = new LogKeyValueDbServiceOptions(properties);
+        final Optional<LogKeyValueDbServiceOptions> oldOptions = this.state.map(DbState::getOptions);
+
+        if (!oldOptions.equals(Optional.of(newOptions))) {
+            shutdown();
+            try {
+                this.state = Optional.of(new DbState(newOptions));
+                this.listenerManager.dispatchConnected();
+            } catch (final Exception e) {
+                logger.warn("Failed to initialize the database instance", e);
+            }
+        }
+
+        logger.info("updating...done");
+    }
+
+    public synchronized void deactivate() {
+        logger.info("deactivating...");
+
+        shutdown();
+        this.listenerManager.shutdown();
+
+        logger.info("deactivating...done");
+    }
+
+    @Override
+    public void addListener(final ConnectionListener listener) {
+        this.listenerManager.add(listener);
+    }
+
+    @Override
+    public void removeListener(final ConnectionListener listener) {
+        this.listenerManager.remove(listener);
+    }
+
+    @Override
+    public synchronized boolean isConnected() {
+        return this.state.isPresent();
+    }
+
+    @Override
+    public void set(final String key, final byte[] value) throws KuraException {
+        Objects.requireNonNull(key, "key cannot be null");
+        Objects.requireNonNull(value, "value cannot be null");
+
+        final DbState currentState = getState();
+
+        try {
+            final long sequence = currentState.store.put(key, value);
+
+            if (currentState.options.isSyncOnWrite()) {
+                currentState.store.sync(sequence);
+            }
+        } catch (final IOException e) {
+            throw new KuraStoreException(e, "failed to set key " + key);
+        }
+    }
+
+    @Override
+    public void set(final String key, final String value) throws KuraException {
+        Objects.requireNonNull(value, "value cannot be null");
+
+        set(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public byte[] get(final String key) throws KuraException {
+        Objects.requireNonNull(key, "key cannot be null");
+
+        try {
+            return getState().store.get(key);
+        } catch (final IOException e) {
+            throw new KuraStoreException(e, "failed to get key " + key);
+        }
+    }
+
+    @Override
+    public String getAsString(final String key) throws KuraException {
+        final byte[] value = get(key);
+
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public void delete(final String key) throws KuraException {
+        Objects.requireNonNull(key, "key cannot be null");
+
+        final DbState currentState = getState();
+
+        try {
+            final long sequence = currentState.store.delete(key);
+
+            if (currentState.options.isSyncOnWrite()) {
+                currentState.store.sync(sequence);
+            }
+        } catch (final IOException e) {
+            throw new KuraStoreException(e, "failed to delete key " + key);
+        }
+    }
+
+    private synchronized DbState getState() throws KuraStoreException {
+        if (!this.state.isPresent()) {
+            throw new KuraStoreException("Database is not initialized");
+        }
+
+        return this.state.get();
+    }
+
+    private void shutdown() {
+        if (this.state.isPresent()) {
+            this.state.get().shutdown();
+            this.state = Optional.empty();
+            this.listenerManager.dispatchDisconnected();
+        }
+    }
+
+    private static class DbState {
+
+        private final LogKeyValueDbServiceOptions options;
+        private final LogStore store;
+        private final Optional<ScheduledExecutorService> executor;
+
+        DbState(final LogKeyValueDbServiceOptions options) throws IOException {
+            this.options = options;
+            tryClaimPath();
+
+            try {
+                logger.info("opening database at {}...", options.getPath());
+
+                this.store = new LogStore(Paths.get(options.getPath()), options.getSegmentSize());
+
+                if (options.isPeriodicSyncEnabled() || options.isPeriodicCompactionEnabled()) {
+                    this.executor = Optional.of(Executors.newSingleThreadScheduledExecutor());
+                } else {
+                    this.executor = Optional.empty();
+                }
+
+                if (options.isPeriodicSyncEnabled()) {
+                    this.executor.get().scheduleWithFixedDelay(this::sync, options.getSyncIntervalMs(),
+                            options.getSyncIntervalMs(), TimeUnit.MILLISECONDS);
+                }
+
+                if (options.isPeriodicCompactionEnabled()) {
+                    this.executor.get().scheduleWithFixedDelay(this::compact, options.getCompactionIntervalSeconds(),
+                            options.getCompactionIntervalSeconds(), TimeUnit.SECONDS);
+                }
+
+                logger.info("opening database at {}...done", options.getPath());
+            } catch (final IOException | RuntimeException e) {
+                releasePath();
+                throw e;
+            }
+        }
+
+        LogKeyValueDbServiceOptions getOptions() {
+            return this.options;
+        }
+
+        private void sync() {
+            try {
+                this.store.sync();
+            } catch (final Exception e) {
+                logger.warn("failed to sync database at {}", this.options.getPath(), e);
+            }
+        }
+
+        private void compact() {
+            try {
+                this.store.compact(this.options.getCompactionGarbageRatio());
+            } catch (final Exception e) {
+                logger.warn("failed to compact database at {}", this.options.getPath(), e);
+            }
+        }
+
+        private void tryClaimPath() {
+            synchronized (OPEN_PATHS) {
+                if (OPEN_PATHS.contains(this.options.getPath())) {
+                    throw new IllegalStateException("Another database instance is managing the same database path");
+                }
+                OPEN_PATHS.add(this.options.getPath());
+            }
+        }
+
+        private void releasePath() {
+            synchronized (OPEN_PATHS) {
+                OPEN_PATHS.remove(this.options.getPath());
+            }
+        }
+
+        void shutdown() {
+            try {
+                if (this.executor.isPresent()) {
+                    this.executor.get().shutdown();
+                    try {
+                        this.executor.get().awaitTermination(120, TimeUnit.SECONDS);
+                    } catch (final InterruptedException e) {
+                        logger.warn("Interrupted while waiting for executor shutdown");
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                logger.info("closing database at {}...", this.options.getPath());
+                this.store.close();
+                logger.info("closing database at {}...done", this.options.getPath());
+            } catch (final IOException e) {
+                logger.warn("failed to close database at {}", this.options.getPath(), e);
+            } finally {
+                releasePath();
+            }
+        }
+    }
+}
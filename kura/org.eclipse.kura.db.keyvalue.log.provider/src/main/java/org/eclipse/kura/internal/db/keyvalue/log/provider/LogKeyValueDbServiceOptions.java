@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.db.keyvalue.log.provider;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.kura.util.configuration.Property;
+
+class LogKeyValueDbServiceOptions {
+
+    private static final Property<String> PATH_PROPERTY = new Property<>("db.path", "/opt/mykvdb");
+    private static final Property<Integer> SEGMENT_SIZE_PROPERTY = new Property<>("db.segment.size.kb", 8192);
+    private static final Property<Long> SYNC_INTERVAL_MS_PROPERTY = new Property<>("db.sync.interval.ms", 1000L);
+    private static final Property<Boolean> SYNC_ON_WRITE_PROPERTY = new Property<>("db.sync.on.write", false);
+    private static final Property<Integer> COMPACTION_THRESHOLD_PROPERTY = new Property<>(
+            "db.compaction.garbage.percent", 50);
+    private static final Property<Long> COMPACTION_INTERVAL_SECONDS_PROPERTY = new Property<>(
+            "db.compaction.interval.seconds", 60L);
+
+    private static final int MAX_SEGMENT_SIZE_KB = 1024 * 1024;
+
+    private final String path;
+    private final int segmentSizeKb;
+    private final long syncIntervalMs;
+    private final boolean syncOnWrite;
+    private final int compactionGarbagePercent;
+    private final long compactionIntervalSeconds;
+
+    public LogKeyValueDbServiceOptions(final Map<String, Object> properties) {
+        this.path = PATH_PROPERTY.get(properties);
+        this.segmentSizeKb = Math.min(MAX_SEGMENT_SIZE_KB, Math.max(1, SEGMENT_SIZE_PROPERTY.get(properties)));
+        this.syncIntervalMs = Math.max(0, SYNC_INTERVAL_MS_PROPERTY.get(properties));
+        this.syncOnWrite = SYNC_ON_WRITE_PROPERTY.get(properties);
+        this.compactionGarbagePercent = Math.min(100, Math.max(0, COMPACTION_THRESHOLD_PROPERTY.get(properties)));
+        this.compactionIntervalSeconds = Math.max(0, COMPACTION_INTERVAL_SECONDS_PROPERTY.get(properties));
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public int getSegmentSize() {
+        return this.segmentSizeKb * 1024;
+    }
+
+    public long getSyncIntervalMs() {
+        return this.syncIntervalMs;
+    }
+
+    public boolean isSyncOnWrite() {
+        return this.syncOnWrite;
+    }
+
+    public double getCompactionGarbageRatio() {
+        return this.compactionGarbagePercent / 100.0;
+    }
+
+    public long getCompactionIntervalSeconds() {
+        return this.compactionIntervalSeconds;
+    }
+
+    public boolean isPeriodicSyncEnabled() {
+        return !this.syncOnWrite && this.syncIntervalMs > 0;
+    }
+
+    public boolean isPeriodicCompactionEnabled() {
+        return this.compactionIntervalSeconds > 0 && this.compactionGarbagePercent < 100;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.compactionGarbagePercent, this.compactionIntervalSeconds, this.path,
+                this.segmentSizeKb, this.syncIntervalMs, this.syncOnWrite);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        LogKeyValueDbServiceOptions other = (LogKeyValueDbServiceOptions) obj;
+        return this.compactionGarbagePercent == other.compactionGarbagePercent
+                && this.compactionIntervalSeconds == other.compactionIntervalSeconds
+                && Objects.equals(this.path, other.path) && this.segmentSizeKb == other.segmentSizeKb
+                && this.syncIntervalMs == other.syncIntervalMs && this.syncOnWrite == other.syncOnWrite;
+    }
+}
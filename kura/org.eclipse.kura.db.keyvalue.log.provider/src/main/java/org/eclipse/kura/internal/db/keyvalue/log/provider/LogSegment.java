@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.db.keyvalue.log.provider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * A file of the key-value log, memory mapped in its entirety.
+ * <br>
+ * The file is allocated with its final size and filled with zeroes, records are appended one after the other with
+ * the following layout:
+ *
+ * <pre>
+ * | size (int) | crc (int) | key length (int) | value length (int) | key | value |
+ * </pre>
+ *
+ * where size is the size of the whole record and the CRC32 covers everything after the crc field. A value length of
+ * -1 marks a deletion. A size of 0 marks the end of the records.
+ */
+final class LogSegment implements Closeable {
+
+    static final int HEADER_SIZE = 16;
+
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private int position;
+    private int garbageBytes;
+
+    private LogSegment(final long id, final Path path, final RandomAccessFile file) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.channel = file.getChannel();
+
+        final long size = this.channel.size();
+
+        if (size > Integer.MAX_VALUE) {
+            this.channel.close();
+            throw new IOException("segment " + path + " is too large");
+        }
+
+        this.capacity = (int) size;
+        this.buffer = this.channel.map(MapMode.READ_WRITE, 0, size);
+    }
+
+    static LogSegment create(final long id, final Path path, final int capacity) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+
+        try {
+            file.setLength(capacity);
+            return new LogSegment(id, path, file);
+        } catch (final IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    static LogSegment open(final long id, final Path path) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+
+        try {
+            return new LogSegment(id, path, file);
+        } catch (final IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    static int recordSize(final byte[] key, final byte[] value) {
+        return HEADER_SIZE + key.length + (value != null ? value.length : 0);
+    }
+
+    long getId() {
+        return this.id;
+    }
+
+    Path getPath() {
+        return this.path;
+    }
+
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    int getPosition() {
+        return this.position;
+    }
+
+    int getGarbageBytes() {
+        return this.garbageBytes;
+    }
+
+    void addGarbage(final int bytes) {
+        this.garbageBytes += bytes;
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value, or null to record a deletion
+     * @return the offset of the record, or -1 if the segment does not have enough space left
+     */
+    int append(final byte[] key, final byte[] value) {
+        final int size = recordSize(key, value);
+
+        if (this.capacity - this.position < size) {
+            return -1;
+        }
+
+        final int offset = this.position;
+        final ByteBuffer record = this.buffer.duplicate();
+        record.position(offset + 8);
+        record.putInt(key.length);
+        record.putInt(value != null ? value.length : -1);
+        record.put(key);
+
+        if (value != null) {
+            record.put(value);
+        }
+
+        record.position(offset + 8);
+        record.limit(offset + size);
+
+        final CRC32 crc = new CRC32();
+        crc.update(record);
+
+        // the size is written last, a torn record is detected by its crc or by a zero size
+        this.buffer.putInt(offset + 4, (int) crc.getValue());
+        this.buffer.putInt(offset, size);
+
+        this.position += size;
+
+        return offset;
+    }
+
+    byte[] read(final int offset, final int length) {
+        final byte[] result = new byte[length];
+        final ByteBuffer source = this.buffer.duplicate();
+
+        source.position(offset);
+        source.get(result);
+
+        return result;
+    }
+
+    /**
+     * Reads the records of the segment, stopping at the first missing or corrupted record. The write position is set
+     * after the last valid record and the remaining space is cleared.
+     *
+     * @param visitor
+     *            the visitor called for each valid record
+     * @return true if the records end cleanly, false if a corrupted record has been found
+     */
+    boolean recover(final RecordVisitor visitor) {
+        final CRC32 crc = new CRC32();
+        final ByteBuffer record = this.buffer.duplicate();
+
+        int offset = 0;
+        boolean clean = true;
+
+        while (this.capacity - offset >= HEADER_SIZE) {
+            final int size = this.buffer.getInt(offset);
+
+            if (size == 0) {
+                break;
+            }
+
+            final int keyLength = this.buffer.getInt(offset + 8);
+            final int valueLength = this.buffer.getInt(offset + 12);
+
+            if (size < HEADER_SIZE || size > this.capacity - offset || keyLength < 0 || valueLength < -1
+                    || size != HEADER_SIZE + keyLength + Math.max(valueLength, 0)) {
+                clean = false;
+                break;
+            }
+
+            record.limit(offset + size);
+            record.position(offset + 8);
+            crc.reset();
+            crc.update(record);
+
+            if ((int) crc.getValue() != this.buffer.getInt(offset + 4)) {
+                clean = false;
+                break;
+            }
+
+            visitor.visit(read(offset + HEADER_SIZE, keyLength), offset, size, valueLength);
+
+            offset += size;
+        }
+
+        this.position = offset;
+
+        // leftovers of a torn write must not be mistaken for records appended later
+        for (int i = offset; i < this.capacity; i++) {
+            if (this.buffer.get(i) != 0) {
+                this.buffer.put(i, (byte) 0);
+            }
+        }
+
+        return clean;
+    }
+
+    /**
+     * Reads the records appended so far, without validating them.
+     *
+     * @param visitor
+     *            the visitor called for each record
+     */
+    void forEach(final RecordVisitor visitor) {
+        int offset = 0;
+
+        while (offset < this.position) {
+            final int size = this.buffer.getInt(offset);
+            final int keyLength = this.buffer.getInt(offset + 8);
+            final int valueLength = this.buffer.getInt(offset + 12);
+
+            visitor.visit(read(offset + HEADER_SIZE, keyLength), offset, size, valueLength);
+
+            offset += size;
+        }
+    }
+
+    void force() {
+        this.buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the mapping is released when the buffer is garbage collected
+        this.channel.close();
+    }
+
+    interface RecordVisitor {
+
+        void visit(byte[] key, int offset, int size, int valueLength);
+    }
+}
@@ -0,0 +1,522 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.db.keyvalue.log.provider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Key-value store backed by an append-only log split into memory mapped {@link LogSegment} files.
+ * <br>
+ * An in-memory hash index maps each key to the location of its latest value, updates and deletions append a new record
+ * and turn the previous one into garbage. When the store is opened the index is rebuilt by replaying the segments in
+ * order, a torn record at the end of the log is discarded.
+ * <br>
+ * Writes are visible to readers as soon as the write method returns, they become durable when the store is synced.
+ * Concurrent calls to {@link #sync(long)} are coalesced, so that a single flush covers the writes of all the waiting
+ * threads.
+ * <br>
+ * Compaction copies the live records of the oldest segment to the end of the log and deletes the segment, it runs
+ * while the ratio of garbage bytes exceeds a threshold. Since the oldest segment is always compacted first, deletion
+ * records can be dropped without resurrecting older values.
+ */
+final class LogStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = this.lock.readLock();
+    private final Lock writeLock = this.lock.writeLock();
+
+    private final Map<String, Location> index = new HashMap<>();
+    private final TreeMap<Long, LogSegment> segments = new TreeMap<>();
+    private final Set<LogSegment> dirtySegments = new HashSet<>();
+    private LogSegment activeSegment;
+    private long totalBytes;
+    private long garbageBytes;
+    private long writeSequence;
+    private boolean closed;
+
+    private final Object syncLock = new Object();
+    private long syncedSequence;
+    private boolean syncing;
+
+    private final Object compactionLock = new Object();
+    private Consumer<Path> segmentDeletionListener = path -> {
+    };
+
+    LogStore(final Path directory, final int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+
+        try {
+            for (final long id : listSegmentIds(directory)) {
+                recoverSegment(LogSegment.open(id, segmentPath(id)));
+            }
+
+            if (this.segments.isEmpty()) {
+                this.activeSegment = LogSegment.create(1, segmentPath(1), segmentSize);
+                this.segments.put(1L, this.activeSegment);
+            } else {
+                this.activeSegment = this.segments.lastEntry().getValue();
+            }
+        } catch (final IOException | RuntimeException e) {
+            closeSegments();
+            throw e;
+        }
+
+        logger.info("opened {}, {} keys in {} segments, garbage ratio {}", directory, this.index.size(),
+                this.segments.size(), getGarbageRatio());
+    }
+
+    /**
+     * Stores a value.
+     *
+     * @return the write sequence number, to be passed to {@link #sync(long)}
+     */
+    long put(final String key, final byte[] value) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        this.writeLock.lock();
+        try {
+            ensureOpen();
+
+            final Location location = append(keyBytes, value);
+            discard(this.index.put(key, location));
+
+            return ++this.writeSequence;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes a value, does nothing if the key is not present.
+     *
+     * @return the write sequence number, to be passed to {@link #sync(long)}
+     */
+    long delete(final String key) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        this.writeLock.lock();
+        try {
+            ensureOpen();
+
+            if (this.index.containsKey(key)) {
+                final Location tombstone = append(keyBytes, null);
+                discard(tombstone);
+                discard(this.index.remove(key));
+                ++this.writeSequence;
+            }
+
+            return this.writeSequence;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    byte[] get(final String key) throws IOException {
+        this.readLock.lock();
+        try {
+            ensureOpen();
+
+            final Location location = this.index.get(key);
+
+            if (location == null) {
+                return null;
+            }
+
+            return location.segment.read(location.offset + LogSegment.HEADER_SIZE + location.keyLength,
+                    location.valueLength);
+        } finally {
+            this.readLock.unlock();
+        }
+    }
+
+    /**
+     * Makes durable all the writes up to the given sequence number. If another thread is already flushing the log,
+     * the calling thread waits for it and then, if needed, flushes the writes performed in the meantime on behalf of
+     * all the waiting threads.
+     *
+     * @param sequence
+     *            the sequence number returned by a write method
+     */
+    void sync(final long sequence) throws IOException {
+        synchronized (this.syncLock) {
+            while (this.syncing && this.syncedSequence < sequence) {
+                try {
+                    this.syncLock.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted while waiting for log sync");
+                }
+            }
+
+            if (this.syncedSequence >= sequence) {
+                return;
+            }
+
+            this.syncing = true;
+        }
+
+        long target = -1;
+        List<LogSegment> toForce = new ArrayList<>();
+
+        try {
+            this.writeLock.lock();
+            try {
+                ensureOpen();
+
+                target = this.writeSequence;
+                toForce.addAll(this.dirtySegments);
+                this.dirtySegments.clear();
+            } finally {
+                this.writeLock.unlock();
+            }
+
+            for (final LogSegment segment : toForce) {
+                segment.force();
+            }
+
+            toForce = null;
+        } finally {
+            if (toForce != null && !toForce.isEmpty()) {
+                restoreDirtySegments(toForce);
+                target = -1;
+            }
+
+            synchronized (this.syncLock) {
+                this.syncing = false;
+                this.syncedSequence = Math.max(this.syncedSequence, target);
+                this.syncLock.notifyAll();
+            }
+        }
+    }
+
+    void sync() throws IOException {
+        final long sequence;
+
+        this.readLock.lock();
+        try {
+            sequence = this.writeSequence;
+        } finally {
+            this.readLock.unlock();
+        }
+
+        sync(sequence);
+    }
+
+    /**
+     * Compacts the oldest segments while the ratio of garbage bytes contained in segments other than the one being
+     * written is greater than the given threshold.
+     *
+     * @param garbageRatioThreshold
+     *            the garbage ratio that triggers compaction, between 0 and 1
+     * @return the number of compacted segments
+     */
+    int compact(final double garbageRatioThreshold) throws IOException {
+        synchronized (this.compactionLock) {
+            int compacted = 0;
+
+            while (true) {
+                final LogSegment oldest;
+
+                this.writeLock.lock();
+                try {
+                    if (this.closed || this.segments.size() < 2
+                            || getSealedGarbageRatio() <= garbageRatioThreshold) {
+                        break;
+                    }
+
+                    oldest = this.segments.firstEntry().getValue();
+                    copyLiveRecords(oldest);
+                } finally {
+                    this.writeLock.unlock();
+                }
+
+                // the copies must be durable before the original records are deleted
+                sync();
+
+                this.writeLock.lock();
+                try {
+                    this.segments.remove(oldest.getId());
+                    this.dirtySegments.remove(oldest);
+                    this.totalBytes -= oldest.getPosition();
+                    this.garbageBytes -= oldest.getGarbageBytes();
+                } finally {
+                    this.writeLock.unlock();
+                }
+
+                oldest.close();
+                this.segmentDeletionListener.accept(oldest.getPath());
+                Files.deleteIfExists(oldest.getPath());
+                compacted++;
+            }
+
+            if (compacted > 0) {
+                logger.debug("compacted {} segments of {}, garbage ratio {}", compacted, this.directory,
+                        getGarbageRatio());
+            }
+
+            return compacted;
+        }
+    }
+
+    int size() {
+        this.readLock.lock();
+        try {
+            return this.index.size();
+        } finally {
+            this.readLock.unlock();
+        }
+    }
+
+    int getDirtySegmentCount() {
+        this.readLock.lock();
+        try {
+            return this.dirtySegments.size();
+        } finally {
+            this.readLock.unlock();
+        }
+    }
+
+    /**
+     * Sets a listener called with the path of each compacted segment right before its file is deleted.
+     */
+    void setSegmentDeletionListener(final Consumer<Path> segmentDeletionListener) {
+        synchronized (this.compactionLock) {
+            this.segmentDeletionListener = segmentDeletionListener;
+        }
+    }
+
+    int getSegmentCount() {
+        this.readLock.lock();
+        try {
+            return this.segments.size();
+        } finally {
+            this.readLock.unlock();
+        }
+    }
+
+    double getGarbageRatio() {
+        this.readLock.lock();
+        try {
+            return this.totalBytes == 0 ? 0 : (double) this.garbageBytes / this.totalBytes;
+        } finally {
+            this.readLock.unlock();
+        }
+    }
+
+    private double getSealedGarbageRatio() {
+        final long sealedGarbageBytes = this.garbageBytes - this.activeSegment.getGarbageBytes();
+
+        return this.totalBytes == 0 ? 0 : (double) sealedGarbageBytes / this.totalBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.compactionLock) {
+            this.writeLock.lock();
+            try {
+                if (this.closed) {
+                    return;
+                }
+
+                this.closed = true;
+
+                for (final LogSegment segment : this.dirtySegments) {
+                    segment.force();
+                }
+                this.dirtySegments.clear();
+                this.index.clear();
+
+                closeSegments();
+            } finally {
+                this.writeLock.unlock();
+            }
+        }
+    }
+
+    private Location append(final byte[] key, final byte[] value) throws IOException {
+        final int size = LogSegment.recordSize(key, value);
+
+        int offset = this.activeSegment.append(key, value);
+
+        if (offset == -1) {
+            final long id = this.activeSegment.getId() + 1;
+
+            this.activeSegment = LogSegment.create(id, segmentPath(id), Math.max(this.segmentSize, size));
+            this.segments.put(id, this.activeSegment);
+
+            offset = this.activeSegment.append(key, value);
+        }
+
+        this.dirtySegments.add(this.activeSegment);
+        this.totalBytes += size;
+
+        return new Location(this.activeSegment, offset, size, key.length, value != null ? value.length : -1);
+    }
+
+    private void discard(final Location location) {
+        if (location != null) {
+            location.segment.addGarbage(location.size);
+            this.garbageBytes += location.size;
+        }
+    }
+
+    private void copyLiveRecords(final LogSegment segment) throws IOException {
+        final List<String> liveKeys = new ArrayList<>();
+
+        segment.forEach((key, offset, size, valueLength) -> {
+            final String keyString = new String(key, StandardCharsets.UTF_8);
+            final Location location = this.index.get(keyString);
+
+            if (location != null && location.segment == segment && location.offset == offset) {
+                liveKeys.add(keyString);
+            }
+        });
+
+        for (final String key : liveKeys) {
+            final Location location = this.index.get(key);
+            final byte[] value = segment.read(location.offset + LogSegment.HEADER_SIZE + location.keyLength,
+                    location.valueLength);
+
+            this.index.put(key, append(key.getBytes(StandardCharsets.UTF_8), value));
+        }
+
+        if (!liveKeys.isEmpty()) {
+            // the copies are writes as well, sync() must not consider them already durable
+            this.writeSequence++;
+        }
+    }
+
+    private void recoverSegment(final LogSegment segment) {
+        this.segments.put(segment.getId(), segment);
+
+        final boolean clean = segment.recover((key, offset, size, valueLength) -> {
+            final String keyString = new String(key, StandardCharsets.UTF_8);
+            final Location location = new Location(segment, offset, size, key.length, valueLength);
+
+            this.totalBytes += size;
+
+            if (valueLength >= 0) {
+                discard(this.index.put(keyString, location));
+            } else {
+                discard(location);
+                discard(this.index.remove(keyString));
+            }
+        });
+
+        if (!clean) {
+            logger.warn("segment {} contains a corrupted record at offset {}, the following records are discarded",
+                    segment.getPath(), segment.getPosition());
+        }
+    }
+
+    private void restoreDirtySegments(final List<LogSegment> segments) {
+        this.writeLock.lock();
+        try {
+            for (final LogSegment segment : segments) {
+                if (this.segments.containsKey(segment.getId())) {
+                    this.dirtySegments.add(segment);
+                }
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    private void closeSegments() {
+        for (final LogSegment segment : this.segments.values()) {
+            try {
+                segment.close();
+            } catch (final IOException e) {
+                logger.warn("failed to close segment {}", segment.getPath(), e);
+            }
+        }
+
+        this.segments.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("store is closed");
+        }
+    }
+
+    private Path segmentPath(final long id) {
+        return this.directory.resolve(String.format("%016d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static List<Long> listSegmentIds(final Path directory) throws IOException {
+        final List<Long> result = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+
+                try {
+                    result.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (final NumberFormatException e) {
+                    logger.warn("ignoring unexpected file {}", path);
+                }
+            }
+        }
+
+        result.sort(null);
+
+        return result;
+    }
+
+    private static final class Location {
+
+        private final LogSegment segment;
+        private final int offset;
+        private final int size;
+        private final int keyLength;
+        private final int valueLength;
+
+        Location(final LogSegment segment, final int offset, final int size, final int keyLength,
+                final int valueLength) {
+            this.segment = segment;
+            this.offset = offset;
+            this.size = size;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+    }
+}
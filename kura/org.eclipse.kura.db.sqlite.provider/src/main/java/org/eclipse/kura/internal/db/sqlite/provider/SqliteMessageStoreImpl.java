@@ -12,8 +12,11 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.db.sqlite.provider;
 
+import java.sql.ResultSet;
+
 import org.eclipse.kura.KuraStoreException;
 import org.eclipse.kura.util.jdbc.ConnectionProvider;
+import org.eclipse.kura.util.jdbc.JdbcUtil;
 import org.eclipse.kura.util.message.store.AbstractJdbcMessageStoreImpl;
 import org.eclipse.kura.util.message.store.JdbcMessageStoreQueries;
 
@@ -31,12 +34,14 @@ public class SqliteMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
 
     private final String sqlResetId;
     private final String sqlDeleteMessage;
+    private final String sqlGetSequence;
 
     public SqliteMessageStoreImpl(final ConnectionProvider provider, final String table) throws KuraStoreException {
         super(provider, table);
 
         this.sqlResetId = UPDATE + " sqlite_sequence SET seq = 0 WHERE name = " + this.escapedTableName + ";";
         this.sqlDeleteMessage = DELETE_FROM + super.escapedTableName + " WHERE id = ?;";
+        this.sqlGetSequence = "SELECT seq FROM sqlite_sequence WHERE name = ?;";
 
         createTable();
         createIndexes();
@@ -51,9 +56,13 @@ public class SqliteMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
                         + "createdOn DATETIME, publishedOn DATETIME, publishedMessageId INTEGER, confirmedOn DATETIME, "
                         + "payload BLOB, priority INTEGER, sessionId VARCHAR, droppedOn DATETIME);")
                 .withSqlMessageCount("SELECT COUNT(*) FROM " + super.escapedTableName + ";")
+                .withSqlMaxMessageId("SELECT MAX(id) FROM " + super.escapedTableName + ";")
                 .withSqlStore("INSERT INTO " + escapedTableName
                         + " (topic, qos, retain, createdOn, publishedOn, publishedMessageId, confirmedOn, payload, priority, "
                         + "sessionId, droppedOn) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")
+                .withSqlStoreWithId("INSERT INTO " + escapedTableName
+                        + " (id, topic, qos, retain, createdOn, publishedOn, publishedMessageId, confirmedOn, payload, priority, "
+                        + "sessionId, droppedOn) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")
                 .withSqlGetMessage(
                         "SELECT id, topic, qos, retain, createdOn, publishedOn, publishedMessageId, confirmedOn, "
                                 + "payload, priority, sessionId, droppedOn FROM " + super.escapedTableName
@@ -63,10 +72,22 @@ public class SqliteMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
                         + escapedTableName + " AS a JOIN (SELECT id, publishedOn FROM " + super.escapedTableName
                         + " ORDER BY publishedOn ASC NULLS FIRST, priority ASC, createdOn ASC LIMIT 1) AS b "
                         + "WHERE a.id = b.id AND b.publishedOn IS NULL;")
+                .withSqlGetNextMessages("SELECT a.id, a.topic, a.qos, a.retain, a.createdOn, a.publishedOn, "
+                        + "a.publishedMessageId, a.confirmedOn, a.payload, a.priority, a.sessionId, a.droppedOn FROM "
+                        + escapedTableName + " AS a JOIN (SELECT id, publishedOn FROM " + super.escapedTableName
+                        + " ORDER BY publishedOn ASC NULLS FIRST, priority ASC, createdOn ASC, id ASC LIMIT ?) AS b "
+                        + "WHERE a.id = b.id AND b.publishedOn IS NULL ORDER BY a.priority ASC, a.createdOn ASC, a.id ASC;")
+                .withSqlGetNextMessagesInPriorityRange("SELECT a.id, a.topic, a.qos, a.retain, a.createdOn, a.publishedOn, "
+                        + "a.publishedMessageId, a.confirmedOn, a.payload, a.priority, a.sessionId, a.droppedOn FROM "
+                        + escapedTableName + " AS a JOIN (SELECT id FROM " + super.escapedTableName
+                        + " WHERE publishedOn IS NULL AND priority BETWEEN ? AND ?"
+                        + " ORDER BY priority ASC, createdOn ASC, id ASC LIMIT ?) AS b "
+                        + "WHERE a.id = b.id ORDER BY a.priority ASC, a.createdOn ASC, a.id ASC;")
                 .withSqlSetPublishedQoS1(UPDATE + super.escapedTableName
                         + " SET publishedOn = ?, publishedMessageId = ?, sessionId = ? WHERE id = ?;")
                 .withSqlSetPublishedQoS0(UPDATE + super.escapedTableName + " SET publishedOn = ? WHERE id = ?;")
                 .withSqlSetConfirmed(UPDATE + escapedTableName + " SET confirmedOn = ? WHERE id = ?;")
+                .withSqlSetConfirmedByIdsPrefix(UPDATE + escapedTableName + " SET confirmedOn = ? WHERE id IN ")
                 .withSqlAllUnpublishedMessages(SELECT_MESSAGE_METADATA_FROM + super.escapedTableName
                         + " WHERE publishedOn IS NULL ORDER BY priority ASC, createdOn ASC;")
                 .withSqlAllInFlightMessages(SELECT_MESSAGE_METADATA_FROM + super.escapedTableName
@@ -99,6 +120,18 @@ public class SqliteMessageStoreImpl extends AbstractJdbcMessageStoreImpl {
                 .build();
     }
 
+    @Override
+    public long getNextMessageId() throws KuraStoreException {
+
+        // sqlite_sequence holds the largest identifier ever used in the table, including deleted ones
+        final long sequence = super.connectionProvider.withPreparedStatement(this.sqlGetSequence, (c, stmt) -> {
+            stmt.setString(1, super.tableName);
+            return JdbcUtil.getFirstColumnValueOrEmpty(stmt::executeQuery, ResultSet::getLong).orElse(0L);
+        }, "Cannot get next message id");
+
+        return Math.max(super.getNextMessageId(), sequence + 1);
+    }
+
     @Override
     public synchronized int store(String topic, byte[] payload, int qos, boolean retain, int priority)
             throws KuraStoreException {
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.util.List;
+
+import org.eclipse.kura.core.configuration.metatype.Tad;
+import org.eclipse.kura.core.configuration.metatype.Toption;
+import org.eclipse.kura.core.configuration.metatype.Tscalar;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.util.collection.CollectionUtil;
+
+/**
+ * Modbus specific channel descriptor. The descriptor contains the following
+ * attribute definition identifiers.
+ *
+ * <ul>
+ * <li>unit.id</li> the Modbus unit identifier
+ * <li>memory.area</li> the Modbus table
+ * <li>address</li> the zero based address of the coil, discrete input or register
+ * <li>modbus.data.type</li> the data type, only used for register tables
+ * </ul>
+ */
+public final class ModbusChannelDescriptor implements ChannelDescriptor {
+
+    public static final String UNIT_ID_ID = "unit.id";
+    public static final String MEMORY_AREA_ID = "memory.area";
+    public static final String ADDRESS_ID = "address";
+    public static final String DATA_TYPE_ID = "modbus.data.type";
+
+    private Toption generateOption(final Enum<?> value) {
+        Toption option = new Toption();
+        option.setLabel(value.name());
+        option.setValue(value.name());
+        return option;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getDescriptor() {
+        final List<Tad> elements = CollectionUtil.newArrayList();
+
+        final Tad unitId = new Tad();
+        unitId.setName(UNIT_ID_ID);
+        unitId.setId(UNIT_ID_ID);
+        unitId.setDescription("Unit ID");
+        unitId.setType(Tscalar.INTEGER);
+        unitId.setRequired(true);
+        unitId.setMin("0");
+        unitId.setMax("255");
+        unitId.setDefault("1");
+
+        elements.add(unitId);
+
+        final Tad memoryArea = new Tad();
+        memoryArea.setName(MEMORY_AREA_ID);
+        memoryArea.setId(MEMORY_AREA_ID);
+        memoryArea.setDescription("Memory Area");
+        memoryArea.setType(Tscalar.STRING);
+        memoryArea.setRequired(true);
+        memoryArea.setDefault(ModbusMemoryArea.HOLDING_REGISTERS.name());
+
+        for (ModbusMemoryArea area : ModbusMemoryArea.values()) {
+            memoryArea.setOption(generateOption(area));
+        }
+
+        elements.add(memoryArea);
+
+        final Tad address = new Tad();
+        address.setName(ADDRESS_ID);
+        address.setId(ADDRESS_ID);
+        address.setDescription("Address");
+        address.setType(Tscalar.INTEGER);
+        address.setRequired(true);
+        address.setMin("0");
+        address.setMax("65535");
+        address.setDefault("0");
+
+        elements.add(address);
+
+        final Tad dataType = new Tad();
+        dataType.setName(DATA_TYPE_ID);
+        dataType.setId(DATA_TYPE_ID);
+        dataType.setDescription("Modbus Data Type, ignored for COILS and DISCRETE_INPUTS");
+        dataType.setType(Tscalar.STRING);
+        dataType.setRequired(true);
+        dataType.setDefault(ModbusDataType.INT16.name());
+
+        for (ModbusDataType t : ModbusDataType.values()) {
+            dataType.setOption(generateOption(t));
+        }
+
+        elements.add(dataType);
+
+        return elements;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import org.eclipse.kura.driver.binary.BinaryData;
+import org.eclipse.kura.driver.binary.BinaryDataTypes;
+
+/**
+ * The data types that can be used for channels that access register tables.
+ */
+public enum ModbusDataType {
+
+    INT16(BinaryDataTypes.INT16_BE),
+    UINT16(BinaryDataTypes.UINT16_BE),
+    INT32(BinaryDataTypes.INT32_BE),
+    UINT32(BinaryDataTypes.UINT32_BE),
+    INT64(BinaryDataTypes.INT64_BE),
+    FLOAT(BinaryDataTypes.FLOAT_BE),
+    DOUBLE(BinaryDataTypes.DOUBLE_BE);
+
+    private final BinaryData<?> binaryData;
+
+    private ModbusDataType(final BinaryData<?> binaryData) {
+        this.binaryData = binaryData;
+    }
+
+    public BinaryData<?> getBinaryData() {
+        return this.binaryData;
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+public class ModbusDomain {
+
+    private final int unitId;
+    private final ModbusMemoryArea area;
+
+    public ModbusDomain(final int unitId, final ModbusMemoryArea area) {
+        this.unitId = unitId;
+        this.area = area;
+    }
+
+    public int getUnitId() {
+        return this.unitId;
+    }
+
+    public ModbusMemoryArea getArea() {
+        return this.area;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.unitId + this.area.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final ModbusDomain other = (ModbusDomain) obj;
+        return this.unitId == other.unitId && this.area == other.area;
+    }
+}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.driver.block.BlockFactory;
+import org.eclipse.kura.driver.block.task.AbstractBlockDriver;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.internal.driver.modbus.task.ModbusTaskBuilder;
+import org.eclipse.kura.internal.driver.modbus.task.ModbusToplevelBlockTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Kura ModbusDriver is a Modbus TCP Driver implementation for Kura Asset-Driver
+ * Topology.<br/>
+ * <br/>
+ *
+ * Channel read and write requests are aggregated into the minimum number of Modbus requests per unit id and memory
+ * area. The requests generated by a single read or write operation are pipelined on the same connection, up to the
+ * configured maximum number of outstanding requests, and matched with their responses using the MBAP transaction id.
+ * <br/>
+ * <br/>
+ *
+ * The required properties are enlisted in {@link ModbusChannelDescriptor} and
+ * the driver connection specific properties are enlisted in
+ * {@link ModbusOptions}
+ *
+ * @see ModbusChannelDescriptor
+ * @see ModbusOptions
+ */
+public class ModbusDriver extends AbstractBlockDriver<ModbusDomain> implements ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusDriver.class);
+
+    private final AtomicReference<ModbusOptions> options = new AtomicReference<>(
+            new ModbusOptions(Collections.emptyMap()));
+
+    private ModbusTcpConnection connection;
+    private ModbusOptions connectionOptions;
+
+    public void activate(final Map<String, Object> properties) {
+        logger.debug("Activating Modbus Driver...");
+        updated(properties);
+        logger.debug("Activating Modbus Driver... Done");
+    }
+
+    public synchronized void deactivate() {
+        logger.debug("Deactivating Modbus Driver...");
+        try {
+            disconnect();
+        } catch (final ConnectionException e) {
+            logger.error("Error while disconnecting...", e);
+        }
+        logger.debug("Deactivating Modbus Driver.....Done");
+    }
+
+    public void updated(final Map<String, Object> properties) {
+        logger.debug("Updating Modbus Driver...");
+        this.options.set(new ModbusOptions(properties));
+        logger.debug("Updating Modbus Driver... Done");
+    }
+
+    @Override
+    public synchronized void connect() throws ConnectionException {
+        final ModbusOptions currentOptions = this.options.get();
+
+        if (this.connection != null && this.connectionOptions != currentOptions) {
+            logger.info("configuration changed, disconnecting...");
+            disconnect();
+            logger.info("configuration changed, disconnecting...Done");
+        }
+
+        if (this.connection == null) {
+            logger.debug("Connecting to Modbus server...");
+            try {
+                this.connection = openConnection(currentOptions);
+                this.connectionOptions = currentOptions;
+            } catch (final Exception e) {
+                throw new ConnectionException("Failed to connect to " + currentOptions.getIp() + ":"
+                        + currentOptions.getPort(), e);
+            }
+            logger.debug("Connecting to Modbus server... Done");
+        }
+    }
+
+    @Override
+    public synchronized void disconnect() throws ConnectionException {
+        if (this.connection != null) {
+            logger.debug("Disconnecting from Modbus server...");
+            try {
+                this.connection.close();
+            } catch (final IOException e) {
+                throw new ConnectionException(e);
+            } finally {
+                this.connection = null;
+            }
+            logger.debug("Disconnecting from Modbus server... Done");
+        }
+    }
+
+    protected ModbusTcpConnection openConnection(final ModbusOptions options) throws IOException {
+        return ModbusTcpConnection.open(options.getIp(), options.getPort(), options.getResponseTimeout());
+    }
+
+    @Override
+    protected int getReadMinimumGapSizeForDomain(final ModbusDomain domain) {
+        return this.options.get().getMinimumGapSize() * domain.getArea().getElementSize();
+    }
+
+    @Override
+    protected BlockFactory<ToplevelBlockTask> getTaskFactoryForDomain(final ModbusDomain domain, final Mode mode) {
+        return (start, end) -> new ModbusToplevelBlockTask(ModbusDriver.this, mode, domain, start, end);
+    }
+
+    @Override
+    protected Stream<Pair<ModbusDomain, BlockTask>> toTasks(final List<ChannelRecord> records, final Mode mode) {
+        return ModbusTaskBuilder.build(records, mode);
+    }
+
+    @Override
+    public ChannelDescriptor getChannelDescriptor() {
+        return new ModbusChannelDescriptor();
+    }
+
+    @Override
+    public synchronized void read(final List<ChannelRecord> records) throws ConnectionException {
+        connect();
+        try {
+            runTasks(optimize(records, Mode.READ));
+        } catch (final Exception e) {
+            logger.warn("Unexpected exception during read", e);
+            fail(records, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(final List<ChannelRecord> records) throws ConnectionException {
+        connect();
+        try {
+            runTasks(optimize(records, Mode.WRITE));
+        } catch (final Exception e) {
+            logger.warn("Unexpected exception during write", e);
+            fail(records, e);
+        }
+    }
+
+    @Override
+    protected PreparedRead createPreparedRead(final List<ChannelRecord> records, final List<BlockTask> tasks) {
+        return new ModbusPreparedRead(records, tasks);
+    }
+
+    @Override
+    protected void runTask(final BlockTask task) {
+        try {
+            task.run();
+        } catch (final IOException e) {
+            handleIOException(e);
+        } catch (final Exception e) {
+            logger.warn("Unexpected exception", e);
+        }
+    }
+
+    /**
+     * Executes the provided transactions on the current connection. If some of them expire the connection is
+     * closed once all of them are completed, and it is reopened by the next call.
+     *
+     * @param transactions
+     *            the transactions
+     * @throws IOException
+     *             if the transactions cannot be executed
+     */
+    public synchronized void execute(final List<ModbusTransaction> transactions) throws IOException {
+        if (this.connection == null) {
+            try {
+                connect();
+            } catch (final ConnectionException e) {
+                throw new IOException("Not connected", e);
+            }
+        }
+
+        final ModbusOptions currentOptions = this.connectionOptions;
+
+        this.connection.execute(transactions, currentOptions.getMaxOutstandingRequests(),
+                currentOptions.getResponseTimeout());
+
+        if (this.connection.hasExpiredTransactions()) {
+            logger.warn("Some requests timed out, disconnecting to discard late responses");
+            try {
+                disconnect();
+            } catch (final ConnectionException e) {
+                logger.warn("Unable to Disconnect...", e);
+            }
+        }
+    }
+
+    private void runTasks(final List<BlockTask> tasks) {
+        final List<ModbusToplevelBlockTask> pipelinedTasks = new ArrayList<>(tasks.size());
+        final List<ModbusTransaction> transactions = new ArrayList<>();
+
+        for (final BlockTask task : tasks) {
+            if (!(task instanceof ModbusToplevelBlockTask)) {
+                runTask(task);
+                continue;
+            }
+
+            final ModbusToplevelBlockTask modbusTask = (ModbusToplevelBlockTask) task;
+
+            try {
+                transactions.addAll(modbusTask.prepareTransactions());
+                pipelinedTasks.add(modbusTask);
+            } catch (final Exception e) {
+                modbusTask.onFailure(e);
+            }
+        }
+
+        try {
+            execute(transactions);
+        } catch (final IOException e) {
+            handleIOException(e);
+        }
+
+        for (final ModbusToplevelBlockTask task : pipelinedTasks) {
+            task.completeTransactions();
+        }
+    }
+
+    private void handleIOException(final IOException e) {
+        logger.warn("Operation failed due to IO error", e);
+        logger.warn("Connection problems detected, disconnecting, will attempt to reconnect at next read/write");
+        try {
+            disconnect();
+        } catch (final ConnectionException e1) {
+            logger.warn("Unable to Disconnect...", e1);
+        }
+    }
+
+    private static void fail(final List<ChannelRecord> records, final Exception e) {
+        for (final ChannelRecord record : records) {
+            record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, e.getMessage(), e));
+            record.setTimestamp(System.currentTimeMillis());
+        }
+    }
+
+    private class ModbusPreparedRead implements PreparedRead {
+
+        private final List<ChannelRecord> records;
+        private final List<BlockTask> tasks;
+
+        ModbusPreparedRead(final List<ChannelRecord> records, final List<BlockTask> tasks) {
+            this.records = records;
+            this.tasks = tasks;
+        }
+
+        @Override
+        public void close() throws Exception {
+            // no need to close
+        }
+
+        @Override
+        public List<ChannelRecord> execute() throws ConnectionException, KuraException {
+            synchronized (ModbusDriver.this) {
+                connect();
+                runTasks(this.tasks);
+                return this.records;
+            }
+        }
+
+        @Override
+        public List<ChannelRecord> getChannelRecords() {
+            return this.records;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+/**
+ * Describes the Modbus data model tables that can be accessed by the driver.
+ * <br>
+ * Block tasks address bit tables using one buffer byte per coil or discrete input and register tables using two
+ * buffer bytes per register, the {@link #getElementSize()} method returns the number of buffer bytes per element.
+ */
+public enum ModbusMemoryArea {
+
+    COILS(0x01, 0x0F, 2000, 1968, true),
+    DISCRETE_INPUTS(0x02, -1, 2000, 0, true),
+    HOLDING_REGISTERS(0x03, 0x10, 125, 123, false),
+    INPUT_REGISTERS(0x04, -1, 125, 0, false);
+
+    private final int readFunctionCode;
+    private final int writeFunctionCode;
+    private final int maxReadCount;
+    private final int maxWriteCount;
+    private final boolean isBitArea;
+
+    private ModbusMemoryArea(final int readFunctionCode, final int writeFunctionCode, final int maxReadCount,
+            final int maxWriteCount, final boolean isBitArea) {
+        this.readFunctionCode = readFunctionCode;
+        this.writeFunctionCode = writeFunctionCode;
+        this.maxReadCount = maxReadCount;
+        this.maxWriteCount = maxWriteCount;
+        this.isBitArea = isBitArea;
+    }
+
+    public int getReadFunctionCode() {
+        return this.readFunctionCode;
+    }
+
+    public int getWriteFunctionCode() {
+        return this.writeFunctionCode;
+    }
+
+    public int getMaxReadCount() {
+        return this.maxReadCount;
+    }
+
+    public int getMaxWriteCount() {
+        return this.maxWriteCount;
+    }
+
+    public boolean isBitArea() {
+        return this.isBitArea;
+    }
+
+    public boolean isWritable() {
+        return this.writeFunctionCode != -1;
+    }
+
+    public int getElementSize() {
+        return this.isBitArea ? 1 : 2;
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.util.Map;
+
+final class ModbusOptions {
+
+    private static final Property<String> IP_PROP = new Property<>("host.ip", "");
+    private static final Property<Integer> PORT_PROP = new Property<>("port", 502);
+    private static final Property<Integer> RESPONSE_TIMEOUT_PROP = new Property<>("response.timeout.ms", 1000);
+    private static final Property<Integer> MAX_OUTSTANDING_REQUESTS_PROP = new Property<>("max.outstanding.requests",
+            8);
+    private static final Property<Integer> MINIMUM_GAP_SIZE_PROP = new Property<>("read.minimum.gap.size", 0);
+
+    private final String ip;
+    private final int port;
+    private final int responseTimeout;
+    private final int maxOutstandingRequests;
+    private final int minimumGapSize;
+
+    ModbusOptions(final Map<String, Object> properties) {
+        this.ip = IP_PROP.get(properties);
+        this.port = PORT_PROP.get(properties);
+        this.responseTimeout = Math.max(1, RESPONSE_TIMEOUT_PROP.get(properties));
+        this.maxOutstandingRequests = Math.max(1, MAX_OUTSTANDING_REQUESTS_PROP.get(properties));
+        this.minimumGapSize = Math.max(0, MINIMUM_GAP_SIZE_PROP.get(properties));
+    }
+
+    String getIp() {
+        return this.ip;
+    }
+
+    int getPort() {
+        return this.port;
+    }
+
+    int getResponseTimeout() {
+        return this.responseTimeout;
+    }
+
+    int getMaxOutstandingRequests() {
+        return this.maxOutstandingRequests;
+    }
+
+    int getMinimumGapSize() {
+        return this.minimumGapSize;
+    }
+
+    private static class Property<T> {
+
+        private final String key;
+        private final T defaultValue;
+
+        public Property(String key, T defaultValue) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(Map<String, Object> properties) {
+            final Object value = properties.get(this.key);
+            if (this.defaultValue.getClass().isInstance(value)) {
+                return (T) value;
+            }
+            return this.defaultValue;
+        }
+    }
+
+}
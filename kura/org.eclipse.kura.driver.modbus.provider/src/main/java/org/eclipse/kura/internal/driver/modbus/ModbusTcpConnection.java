@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Modbus TCP connection that supports multiple outstanding transactions.
+ * <br>
+ * Requests are written to the socket without waiting for the responses of the previous ones, up to a configurable
+ * limit. Responses are read in bulk and matched to the corresponding request using the MBAP transaction identifier,
+ * so the server is allowed to send them in any order.
+ * <br>
+ * Each request has its own response timeout. A request that expires is failed alone while the others proceed, unless
+ * the server does not answer anything for two timeouts in a row, in that case the connection is considered broken.
+ * <br>
+ * This class is not thread safe.
+ */
+public class ModbusTcpConnection implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusTcpConnection.class);
+
+    private static final int MBAP_HEADER_LENGTH = 7;
+    private static final int MAX_PDU_LENGTH = 253;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_TIMEOUTS_WITHOUT_RESPONSE = 2;
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Map<Integer, Outstanding> pending = new LinkedHashMap<>();
+
+    private int nextTransactionId;
+    private int timeoutsWithoutResponse;
+    private boolean expiredTransactions;
+
+    private ModbusTcpConnection(final SocketChannel channel, final Selector selector) throws IOException {
+        this.channel = channel;
+        this.selector = selector;
+        this.key = channel.register(selector, 0);
+    }
+
+    /**
+     * Opens a new connection.
+     *
+     * @param host
+     *            the server host
+     * @param port
+     *            the server port
+     * @param timeoutMs
+     *            the connection timeout in milliseconds
+     * @return the connection
+     * @throws IOException
+     *             if the connection cannot be established
+     */
+    public static ModbusTcpConnection open(final String host, final int port, final long timeoutMs)
+            throws IOException {
+        final SocketChannel channel = SocketChannel.open();
+        Selector selector = null;
+
+        try {
+            selector = Selector.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            final ModbusTcpConnection result = new ModbusTcpConnection(channel, selector);
+
+            if (!channel.connect(new InetSocketAddress(host, port))) {
+                result.await(SelectionKey.OP_CONNECT, timeoutMs);
+                channel.finishConnect();
+            }
+
+            return result;
+        } catch (final IOException e) {
+            channel.close();
+            if (selector != null) {
+                selector.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Executes the provided transactions, keeping at most {@code maxOutstanding} requests in flight. When this method
+     * returns, all transactions are completed either with a response or with an error.
+     * <br>
+     * A transaction whose response is not received within {@code timeoutMs} is failed with a
+     * {@link SocketTimeoutException}, the other transactions are not affected.
+     *
+     * @param transactions
+     *            the transactions to be executed
+     * @param maxOutstanding
+     *            the maximum number of requests sent without having received the response
+     * @param timeoutMs
+     *            the maximum time to wait for the response of each request
+     * @throws IOException
+     *             if an I/O error occurs or the server stops answering, in this case the transactions that have not
+     *             been completed are failed with the same exception and the connection should be closed
+     */
+    public void execute(final List<ModbusTransaction> transactions, final int maxOutstanding, final long timeoutMs)
+            throws IOException {
+        int next = 0;
+
+        this.timeoutsWithoutResponse = 0;
+
+        try {
+            while (next < transactions.size() || !this.pending.isEmpty()) {
+                this.writeBuffer.clear();
+
+                while (next < transactions.size() && this.pending.size() < maxOutstanding) {
+                    final ModbusTransaction transaction = transactions.get(next);
+
+                    if (this.writeBuffer.remaining() < MBAP_HEADER_LENGTH + transaction.getRequestPdu().length) {
+                        break;
+                    }
+
+                    encode(transaction, timeoutMs);
+                    next++;
+                }
+
+                this.writeBuffer.flip();
+                writeFully(timeoutMs);
+
+                receive();
+            }
+        } catch (final IOException e) {
+            for (final Outstanding outstanding : this.pending.values()) {
+                outstanding.transaction.fail(e);
+            }
+            this.pending.clear();
+
+            for (int i = next; i < transactions.size(); i++) {
+                transactions.get(i).fail(e);
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether a transaction executed on this connection has expired. The server could still send the late
+     * responses, so the connection should be replaced once the current transactions are completed.
+     *
+     * @return true if a transaction has expired
+     */
+    public boolean hasExpiredTransactions() {
+        return this.expiredTransactions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.selector.close();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void encode(final ModbusTransaction transaction, final long timeoutMs) {
+        int transactionId;
+
+        do {
+            transactionId = this.nextTransactionId;
+            this.nextTransactionId = (this.nextTransactionId + 1) & 0xffff;
+        } while (this.pending.containsKey(transactionId));
+
+        final byte[] pdu = transaction.getRequestPdu();
+
+        this.writeBuffer.putShort((short) transactionId);
+        this.writeBuffer.putShort((short) 0);
+        this.writeBuffer.putShort((short) (pdu.length + 1));
+        this.writeBuffer.put((byte) transaction.getUnitId());
+        this.writeBuffer.put(pdu);
+
+        this.pending.put(transactionId,
+                new Outstanding(transaction, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs)));
+    }
+
+    private void writeFully(final long timeoutMs) throws IOException {
+        while (this.writeBuffer.hasRemaining()) {
+            if (this.channel.write(this.writeBuffer) == 0) {
+                await(SelectionKey.OP_WRITE, timeoutMs);
+            }
+        }
+    }
+
+    private void receive() throws IOException {
+        while (decodeResponses() == 0 && !this.pending.isEmpty()) {
+            // the oldest request is the first one to expire
+            final long remainingNanos = this.pending.values().iterator().next().deadline - System.nanoTime();
+
+            if (remainingNanos <= 0
+                    || !select(SelectionKey.OP_READ, TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1)) {
+                expireTransactions();
+                return;
+            }
+
+            if (this.channel.read(this.readBuffer) < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+    }
+
+    private void expireTransactions() throws SocketTimeoutException {
+        final SocketTimeoutException timeout = new SocketTimeoutException("Timeout waiting for Modbus server");
+        final long now = System.nanoTime();
+        final Iterator<Outstanding> iterator = this.pending.values().iterator();
+        int expired = 0;
+
+        while (iterator.hasNext()) {
+            final Outstanding outstanding = iterator.next();
+
+            if (outstanding.deadline - now > 0) {
+                break;
+            }
+
+            outstanding.transaction.fail(timeout);
+            iterator.remove();
+            expired++;
+        }
+
+        if (expired == 0) {
+            return;
+        }
+
+        logger.debug("{} transactions expired", expired);
+        this.expiredTransactions = true;
+
+        if (++this.timeoutsWithoutResponse >= MAX_TIMEOUTS_WITHOUT_RESPONSE) {
+            throw timeout;
+        }
+    }
+
+    private int decodeResponses() throws IOException {
+        int count = 0;
+
+        this.readBuffer.flip();
+
+        try {
+            while (this.readBuffer.remaining() >= MBAP_HEADER_LENGTH) {
+                final int position = this.readBuffer.position();
+                final int length = this.readBuffer.getShort(position + 4) & 0xffff;
+
+                if (length < 2 || length > MAX_PDU_LENGTH + 1) {
+                    throw new IOException("Invalid MBAP length: " + length);
+                }
+
+                if (this.readBuffer.remaining() < length + 6) {
+                    break;
+                }
+
+                final int transactionId = this.readBuffer.getShort(position) & 0xffff;
+                final int unitId = this.readBuffer.get(position + 6) & 0xff;
+                final byte[] pdu = new byte[length - 1];
+
+                this.readBuffer.position(position + MBAP_HEADER_LENGTH);
+                this.readBuffer.get(pdu);
+
+                final Outstanding outstanding = this.pending.get(transactionId);
+
+                if (outstanding == null || outstanding.transaction.getUnitId() != unitId) {
+                    logger.debug("Discarding unexpected response, transaction id: {} unit id: {}", transactionId,
+                            unitId);
+                    continue;
+                }
+
+                this.pending.remove(transactionId);
+                outstanding.transaction.complete(pdu);
+                count++;
+            }
+
+            if (count > 0) {
+                this.timeoutsWithoutResponse = 0;
+            }
+        } finally {
+            this.readBuffer.compact();
+        }
+
+        return count;
+    }
+
+    private void await(final int operation, final long timeoutMs) throws IOException {
+        if (!select(operation, timeoutMs)) {
+            throw new SocketTimeoutException("Timeout waiting for Modbus server");
+        }
+    }
+
+    private boolean select(final int operation, final long timeoutMs) throws IOException {
+        this.key.interestOps(operation);
+
+        try {
+            return this.selector.select(timeoutMs) != 0;
+        } finally {
+            this.selector.selectedKeys().clear();
+            this.key.interestOps(0);
+        }
+    }
+
+    private static final class Outstanding {
+
+        private final ModbusTransaction transaction;
+        private final long deadline;
+
+        Outstanding(final ModbusTransaction transaction, final long deadline) {
+            this.transaction = transaction;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.io.IOException;
+
+/**
+ * Represents a Modbus request and the corresponding response or error.
+ */
+public final class ModbusTransaction {
+
+    private final int unitId;
+    private final byte[] requestPdu;
+
+    private byte[] responsePdu;
+    private IOException error;
+
+    public ModbusTransaction(final int unitId, final byte[] requestPdu) {
+        this.unitId = unitId;
+        this.requestPdu = requestPdu;
+    }
+
+    public int getUnitId() {
+        return this.unitId;
+    }
+
+    public byte[] getRequestPdu() {
+        return this.requestPdu;
+    }
+
+    /**
+     * Returns the response PDU received from the server.
+     *
+     * @return the response PDU, including the function code
+     * @throws IOException
+     *             if the transaction failed or if it has not been completed
+     */
+    public byte[] getResponsePdu() throws IOException {
+        if (this.error != null) {
+            throw this.error;
+        }
+        if (this.responsePdu == null) {
+            throw new IOException("Transaction not completed");
+        }
+        return this.responsePdu;
+    }
+
+    public boolean isDone() {
+        return this.responsePdu != null || this.error != null;
+    }
+
+    void complete(final byte[] responsePdu) {
+        this.responsePdu = responsePdu;
+    }
+
+    void fail(final IOException error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.block.task.ChannelBlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.type.BooleanValue;
+
+/**
+ * Reads or writes a single coil or discrete input, stored as a single byte in the buffer of the parent task.
+ */
+public class ModbusBitTask extends ChannelBlockTask {
+
+    public ModbusBitTask(final ChannelRecord record, final int address, final Mode mode) {
+        super(record, address, address + 1, mode);
+    }
+
+    @Override
+    public void run() {
+        final ToplevelBlockTask parent = getParent();
+        final Buffer buffer = parent.getBuffer();
+        final int offset = getStart() - parent.getStart();
+
+        if (getMode() == Mode.READ) {
+            this.record.setValue(new BooleanValue(buffer.get(offset) != 0));
+            onSuccess();
+        } else {
+            final boolean value = (Boolean) this.record.getValue().getValue();
+
+            buffer.put(offset, (byte) (value ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.driver.block.task.AbstractBlockDriver.Pair;
+import org.eclipse.kura.driver.block.task.BinaryDataTask;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.internal.driver.modbus.ModbusChannelDescriptor;
+import org.eclipse.kura.internal.driver.modbus.ModbusDataType;
+import org.eclipse.kura.internal.driver.modbus.ModbusDomain;
+import org.eclipse.kura.internal.driver.modbus.ModbusMemoryArea;
+import org.eclipse.kura.type.DataType;
+
+public final class ModbusTaskBuilder {
+
+    private ModbusTaskBuilder() {
+    }
+
+    private static int getIntProperty(ChannelRecord record, String propertyName, int min, int max,
+            String failureMessage) throws KuraException {
+        final int result;
+        try {
+            result = Integer.parseInt(record.getChannelConfig().get(propertyName).toString());
+        } catch (Exception e) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, failureMessage);
+        }
+        if (result < min || result > max) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, failureMessage);
+        }
+        return result;
+    }
+
+    private static <E extends Enum<E>> E getEnumProperty(ChannelRecord record, String propertyName, Class<E> type,
+            String failureMessage) throws KuraException {
+        try {
+            return Enum.valueOf(type, record.getChannelConfig().get(propertyName).toString());
+        } catch (Exception e) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, failureMessage);
+        }
+    }
+
+    private static ModbusDomain getDomain(ChannelRecord record, Mode mode) throws KuraException {
+        final int unitId = getIntProperty(record, ModbusChannelDescriptor.UNIT_ID_ID, 0, 255,
+                "Error while retrieving Unit ID");
+        final ModbusMemoryArea area = getEnumProperty(record, ModbusChannelDescriptor.MEMORY_AREA_ID,
+                ModbusMemoryArea.class, "Error while retrieving Memory Area");
+
+        if (mode != Mode.READ && !area.isWritable()) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, area + " cannot be written");
+        }
+
+        return new ModbusDomain(unitId, area);
+    }
+
+    private static BlockTask build(ChannelRecord record, ModbusDomain domain, Mode mode) throws KuraException {
+        final Map<String, Object> channelConfig = record.getChannelConfig();
+        final int address = getIntProperty(record, ModbusChannelDescriptor.ADDRESS_ID, 0, 65535,
+                "Error while retrieving Address");
+
+        if (domain.getArea().isBitArea()) {
+            if (record.getValueType() != DataType.BOOLEAN) {
+                throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR,
+                        "Channel Value Type must be " + DataType.BOOLEAN);
+            }
+            return new ModbusBitTask(record, address, mode);
+        }
+
+        final ModbusDataType dataType = getEnumProperty(record, ModbusChannelDescriptor.DATA_TYPE_ID,
+                ModbusDataType.class, "Error while retrieving Modbus Data Type: "
+                        + channelConfig.get(ModbusChannelDescriptor.DATA_TYPE_ID));
+
+        return new BinaryDataTask<>(record, address * 2, dataType.getBinaryData(), record.getValueType(), mode);
+    }
+
+    public static Stream<Pair<ModbusDomain, BlockTask>> build(List<ChannelRecord> records, Mode mode) {
+        return records.stream().map(record -> {
+            try {
+                final ModbusDomain domain = getDomain(record, mode);
+                return new Pair<>(domain, build(record, domain, mode));
+            } catch (Exception e) {
+                record.setTimestamp(System.currentTimeMillis());
+                record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, e.getMessage(), e));
+                return null;
+            }
+        }).filter(Objects::nonNull);
+    }
+
+}
@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.binary.ByteArrayBuffer;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.internal.driver.modbus.ModbusDomain;
+import org.eclipse.kura.internal.driver.modbus.ModbusDriver;
+import org.eclipse.kura.internal.driver.modbus.ModbusMemoryArea;
+import org.eclipse.kura.internal.driver.modbus.ModbusTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transfers a contiguous range of coils, discrete inputs or registers between the device and the task buffer.
+ * <br>
+ * Ranges larger than the maximum quantity allowed by a single Modbus request are split into multiple requests. The
+ * requests can either be executed by {@link #processBuffer()} or collected with {@link #prepareTransactions()} and
+ * executed by the driver together with the requests of other tasks, in this case {@link #completeTransactions()}
+ * must be called after the execution, and a failed request only fails the children it covers.
+ */
+public class ModbusToplevelBlockTask extends ToplevelBlockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusToplevelBlockTask.class);
+
+    private final ModbusDriver driver;
+    private final ModbusDomain domain;
+    private ByteArrayBuffer data;
+    private List<Request> requests = Collections.emptyList();
+
+    public ModbusToplevelBlockTask(ModbusDriver driver, Mode mode, ModbusDomain domain, int start, int end) {
+        super(start, end, mode);
+        this.driver = driver;
+        this.domain = domain;
+    }
+
+    public ModbusDomain getDomain() {
+        return this.domain;
+    }
+
+    /**
+     * Creates the Modbus transactions required by this task. In {@link Mode#WRITE} mode, the children are run first
+     * to fill the buffer.
+     *
+     * @return the transactions to be executed
+     * @throws IOException
+     *             if a child fails to fill the buffer
+     */
+    public List<ModbusTransaction> prepareTransactions() throws IOException {
+        if (getMode() != Mode.READ) {
+            runChildren();
+        }
+
+        return createTransactions();
+    }
+
+    /**
+     * Processes the responses of the transactions returned by {@link #prepareTransactions()} and notifies the
+     * children. The children covered by a failed transaction are failed, the other ones are completed normally.
+     */
+    public void completeTransactions() {
+        boolean failed = false;
+
+        for (final Request request : this.requests) {
+            try {
+                processResponse(request);
+            } catch (final Exception e) {
+                request.error = e;
+                failed = true;
+            }
+        }
+
+        if (!failed) {
+            completeChildren();
+            return;
+        }
+
+        for (final BlockTask child : getChildren()) {
+            final Exception error = getError(child);
+
+            if (error != null) {
+                child.onFailure(error);
+            } else if (getMode() == Mode.READ) {
+                child.setParent(this);
+                runChild(child);
+            } else {
+                child.onSuccess();
+            }
+        }
+    }
+
+    @Override
+    public void processBuffer() throws IOException {
+        this.driver.execute(createTransactions());
+        processResponses();
+    }
+
+    @Override
+    public Buffer getBuffer() {
+        if (this.data == null) {
+            this.data = new ByteArrayBuffer(new byte[getEnd() - getStart()]);
+        }
+        return this.data;
+    }
+
+    private List<ModbusTransaction> createTransactions() {
+        final ModbusMemoryArea area = this.domain.getArea();
+        final int elementSize = area.getElementSize();
+        final int maxCount = getMode() == Mode.READ ? area.getMaxReadCount() : area.getMaxWriteCount();
+        final int count = (getEnd() - getStart()) / elementSize;
+
+        final List<Request> newRequests = new ArrayList<>((count + maxCount - 1) / maxCount);
+        final List<ModbusTransaction> result = new ArrayList<>(newRequests.size());
+
+        for (int i = 0; i < count; i += maxCount) {
+            final int address = getStart() / elementSize + i;
+            final int requestCount = Math.min(maxCount, count - i);
+            final int offset = i * elementSize;
+
+            final byte[] pdu = getMode() == Mode.READ ? readRequest(area, address, requestCount)
+                    : writeRequest(area, address, requestCount, offset);
+
+            logger.debug("{} {}, unit id: {} address: {} count: {}", getMode(), area, this.domain.getUnitId(),
+                    address, requestCount);
+
+            final Request request = new Request(offset, requestCount,
+                    new ModbusTransaction(this.domain.getUnitId(), pdu));
+
+            newRequests.add(request);
+            result.add(request.transaction);
+        }
+
+        this.requests = newRequests;
+        return result;
+    }
+
+    private void completeChildren() {
+        try {
+            if (getMode() == Mode.READ) {
+                runChildren();
+            } else {
+                onSuccess();
+            }
+        } catch (final Exception e) {
+            onFailure(e);
+        }
+    }
+
+    private void runChild(final BlockTask child) {
+        try {
+            child.run();
+        } catch (final Exception e) {
+            child.onFailure(e);
+        }
+    }
+
+    private Exception getError(final BlockTask child) {
+        final int elementSize = this.domain.getArea().getElementSize();
+        final int childStart = child.getStart() - getStart();
+        final int childEnd = child.getEnd() - getStart();
+
+        for (final Request request : this.requests) {
+            final int requestEnd = request.offset + request.count * elementSize;
+
+            if (request.error != null && childStart < requestEnd && request.offset < childEnd) {
+                return request.error;
+            }
+        }
+
+        return null;
+    }
+
+    private void processResponses() throws IOException {
+        for (final Request request : this.requests) {
+            processResponse(request);
+        }
+    }
+
+    private void processResponse(final Request request) throws IOException {
+        final ModbusMemoryArea area = this.domain.getArea();
+        final byte[] buffer = ((ByteArrayBuffer) getBuffer()).getBackingArray();
+        final byte[] pdu = request.transaction.getResponsePdu();
+        final int functionCode = request.transaction.getRequestPdu()[0] & 0xff;
+
+        if ((pdu[0] & 0xff) == (functionCode | 0x80)) {
+            throw new IOException(
+                    "Modbus exception response, function code: " + functionCode + " exception code: " + pdu[1]);
+        }
+        if ((pdu[0] & 0xff) != functionCode) {
+            throw new IOException("Unexpected function code in response: " + (pdu[0] & 0xff));
+        }
+        if (getMode() != Mode.READ) {
+            return;
+        }
+
+        final int byteCount = pdu[1] & 0xff;
+
+        if (area.isBitArea()) {
+            if (byteCount < (request.count + 7) / 8 || pdu.length < 2 + byteCount) {
+                throw new IOException("Invalid response length");
+            }
+            for (int i = 0; i < request.count; i++) {
+                buffer[request.offset + i] = (byte) (pdu[2 + i / 8] >> (i % 8) & 0x01);
+            }
+        } else {
+            if (byteCount != request.count * 2 || pdu.length < 2 + byteCount) {
+                throw new IOException("Invalid response length");
+            }
+            System.arraycopy(pdu, 2, buffer, request.offset, byteCount);
+        }
+    }
+
+    private static byte[] readRequest(final ModbusMemoryArea area, final int address, final int count) {
+        return new byte[] { (byte) area.getReadFunctionCode(), (byte) (address >> 8), (byte) address,
+                (byte) (count >> 8), (byte) count };
+    }
+
+    private byte[] writeRequest(final ModbusMemoryArea area, final int address, final int count, final int offset) {
+        final byte[] buffer = ((ByteArrayBuffer) getBuffer()).getBackingArray();
+        final int byteCount = area.isBitArea() ? (count + 7) / 8 : count * 2;
+        final byte[] pdu = new byte[6 + byteCount];
+
+        pdu[0] = (byte) area.getWriteFunctionCode();
+        pdu[1] = (byte) (address >> 8);
+        pdu[2] = (byte) address;
+        pdu[3] = (byte) (count >> 8);
+        pdu[4] = (byte) count;
+        pdu[5] = (byte) byteCount;
+
+        if (area.isBitArea()) {
+            for (int i = 0; i < count; i++) {
+                if (buffer[offset + i] != 0) {
+                    pdu[6 + i / 8] |= 1 << (i % 8);
+                }
+            }
+        } else {
+            System.arraycopy(buffer, offset, pdu, 6, byteCount);
+        }
+
+        return pdu;
+    }
+
+    private static final class Request {
+
+        private final int offset;
+        private final int count;
+        private final ModbusTransaction transaction;
+        private Exception error;
+
+        Request(final int offset, final int count, final ModbusTransaction transaction) {
+            this.offset = offset;
+            this.count = count;
+            this.transaction = transaction;
+        }
+    }
+}
@@ -379,7 +379,6 @@ public abstract class AbstractLinuxFirewall {
     private void update() throws KuraException {
         synchronized (lock) {
             updateIptablesConfig();
-            this.iptables.clearAllKuraChains();
             applyRules();
             this.iptables.saveKuraChains();
         }
@@ -20,6 +20,7 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
@@ -28,6 +29,7 @@ import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.KuraIOException;
@@ -51,6 +53,9 @@ public class IptablesConfig extends IptablesConfigConstants {
     protected Set<String> additionalNatRules;
     protected Set<String> additionalMangleRules;
     protected CommandExecutorService executorService;
+    private IptablesRuleset appliedRuleset = new IptablesRuleset();
+    private IptablesRuleset appliedLoadedRuleset = new IptablesRuleset();
+    private long lastApplyDuration = -1;
 
     public IptablesConfig() {
         this.localRules = new LinkedHashSet<>();
@@ -259,61 +264,7 @@ public class IptablesConfig extends IptablesConfigConstants {
     public void saveKuraChains() throws KuraException {
         try (FileOutputStream fos = new FileOutputStream(getFirewallConfigTmpFileName());
                 PrintWriter writer = new PrintWriter(fos)) {
-            writer.println(STAR_FILTER);
-            writer.println(IptablesConfigConstants.INPUT_DROP_POLICY);
-            writer.println(IptablesConfigConstants.FORWARD_DROP_POLICY);
-            writer.println(IptablesConfigConstants.OUTPUT_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.INPUT_KURA_POLICY);
-            writer.println(IptablesConfigConstants.OUTPUT_KURA_POLICY);
-            writer.println(IptablesConfigConstants.FORWARD_KURA_POLICY);
-            writer.println(IptablesConfigConstants.FORWARD_KURA_PF_POLICY);
-            writer.println(IptablesConfigConstants.FORWARD_KURA_IPF_POLICY);
-            writer.println(IptablesConfigConstants.ADD_INPUT_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_PF_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_IPF_CHAIN);
-            saveFilterTable(writer);
-            writer.println(COMMIT);
-            writer.println(STAR_NAT);
-            writer.println(IptablesConfigConstants.INPUT_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.OUTPUT_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.PREROUTING_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.POSTROUTING_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.PREROUTING_KURA_POLICY);
-            writer.println(IptablesConfigConstants.PREROUTING_KURA_PF_POLICY);
-            writer.println(IptablesConfigConstants.POSTROUTING_KURA_POLICY);
-            writer.println(IptablesConfigConstants.POSTROUTING_KURA_PF_POLICY);
-            writer.println(IptablesConfigConstants.POSTROUTING_KURA_IPF_POLICY);
-            writer.println(IptablesConfigConstants.INPUT_KURA_POLICY);
-            writer.println(IptablesConfigConstants.OUTPUT_KURA_POLICY);
-            writer.println(IptablesConfigConstants.ADD_PREROUTING_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_PREROUTING_KURA_PF_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_PF_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_IPF_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_INPUT_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN);
-            saveNatTable(writer);
-            writer.println(COMMIT);
-            writer.println(STAR_MANGLE);
-            writer.println(IptablesConfigConstants.INPUT_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.OUTPUT_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.FORWARD_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.PREROUTING_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.POSTROUTING_ACCEPT_POLICY);
-            writer.println(IptablesConfigConstants.PREROUTING_KURA_POLICY);
-            writer.println(IptablesConfigConstants.POSTROUTING_KURA_POLICY);
-            writer.println(IptablesConfigConstants.INPUT_KURA_POLICY);
-            writer.println(IptablesConfigConstants.OUTPUT_KURA_POLICY);
-            writer.println(IptablesConfigConstants.FORWARD_KURA_POLICY);
-            writer.println(IptablesConfigConstants.ADD_PREROUTING_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_INPUT_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN);
-            writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_CHAIN);
-            saveMangleTable(writer);
-            writer.println(COMMIT);
+            writeKuraChains(writer);
         } catch (IOException e) {
             throw new KuraIOException(e, "save() :: failed to create rules file");
         }
@@ -330,6 +281,64 @@ public class IptablesConfig extends IptablesConfigConstants {
 
     }
 
+    private void writeKuraChains(PrintWriter writer) {
+        writer.println(STAR_FILTER);
+        writer.println(IptablesConfigConstants.INPUT_DROP_POLICY);
+        writer.println(IptablesConfigConstants.FORWARD_DROP_POLICY);
+        writer.println(IptablesConfigConstants.OUTPUT_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.INPUT_KURA_POLICY);
+        writer.println(IptablesConfigConstants.OUTPUT_KURA_POLICY);
+        writer.println(IptablesConfigConstants.FORWARD_KURA_POLICY);
+        writer.println(IptablesConfigConstants.FORWARD_KURA_PF_POLICY);
+        writer.println(IptablesConfigConstants.FORWARD_KURA_IPF_POLICY);
+        writer.println(IptablesConfigConstants.ADD_INPUT_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_PF_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_IPF_CHAIN);
+        saveFilterTable(writer);
+        writer.println(COMMIT);
+        writer.println(STAR_NAT);
+        writer.println(IptablesConfigConstants.INPUT_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.OUTPUT_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.PREROUTING_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.POSTROUTING_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.PREROUTING_KURA_POLICY);
+        writer.println(IptablesConfigConstants.PREROUTING_KURA_PF_POLICY);
+        writer.println(IptablesConfigConstants.POSTROUTING_KURA_POLICY);
+        writer.println(IptablesConfigConstants.POSTROUTING_KURA_PF_POLICY);
+        writer.println(IptablesConfigConstants.POSTROUTING_KURA_IPF_POLICY);
+        writer.println(IptablesConfigConstants.INPUT_KURA_POLICY);
+        writer.println(IptablesConfigConstants.OUTPUT_KURA_POLICY);
+        writer.println(IptablesConfigConstants.ADD_PREROUTING_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_PREROUTING_KURA_PF_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_PF_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_IPF_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_INPUT_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN);
+        saveNatTable(writer);
+        writer.println(COMMIT);
+        writer.println(STAR_MANGLE);
+        writer.println(IptablesConfigConstants.INPUT_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.OUTPUT_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.FORWARD_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.PREROUTING_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.POSTROUTING_ACCEPT_POLICY);
+        writer.println(IptablesConfigConstants.PREROUTING_KURA_POLICY);
+        writer.println(IptablesConfigConstants.POSTROUTING_KURA_POLICY);
+        writer.println(IptablesConfigConstants.INPUT_KURA_POLICY);
+        writer.println(IptablesConfigConstants.OUTPUT_KURA_POLICY);
+        writer.println(IptablesConfigConstants.FORWARD_KURA_POLICY);
+        writer.println(IptablesConfigConstants.ADD_PREROUTING_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_POSTROUTING_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_INPUT_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN);
+        writer.println(IptablesConfigConstants.ADD_FORWARD_KURA_CHAIN);
+        saveMangleTable(writer);
+        writer.println(COMMIT);
+    }
+
     private void internalSave(String path) {
         CommandStatus status;
         if (this.executorService != null) {
@@ -347,9 +356,12 @@ public class IptablesConfig extends IptablesConfigConstants {
     }
 
     private CommandStatus execute(String commandLine) {
+        return execute(commandLine, new ByteArrayOutputStream());
+    }
+
+    private CommandStatus execute(String commandLine, ByteArrayOutputStream out) {
         Command command = new Command(commandLine.split(" "));
         command.setExecuteInAShell(true);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
         ByteArrayOutputStream err = new ByteArrayOutputStream();
         command.setErrorStream(err);
         command.setOutputStream(out);
@@ -427,35 +439,16 @@ public class IptablesConfig extends IptablesConfigConstants {
             this.natRules.stream().forEach(natRule -> {
                 List<String> filterForwardChainRules = natRule.getFilterForwardChainRule().toStrings();
                 if (filterForwardChainRules != null && !filterForwardChainRules.isEmpty()) {
-                    filterForwardChainRules.stream()
-                            .forEach(filterForwardChainRule -> writeNatRulesInternal(writer, filterForwardChainRule));
+                    filterForwardChainRules.stream().forEach(writer::println);
                 }
             });
         }
     }
 
-    private void writeNatRulesInternal(PrintWriter writer, String filterForwardChainRule) {
-        if (writer == null) {
-            CommandStatus status = execute((getIptablesCommand() + " " + filterForwardChainRule));
-            if (!status.getExitStatus().isSuccessful()) {
-                logger.error("Failed to apply forward rules to filter table");
-            }
-        } else {
-            writer.println(filterForwardChainRule);
-        }
-    }
-
     private void writeLocalRulesToFilterTable(PrintWriter writer) {
         if (this.localRules != null && !this.localRules.isEmpty()) {
             for (LocalRule lr : this.localRules) {
-                if (writer == null) {
-                    CommandStatus status = execute((getIptablesCommand() + " " + lr));
-                    if (!status.getExitStatus().isSuccessful()) {
-                        logger.error("Failed to apply local rules to filter table");
-                    }
-                } else {
-                    writer.println(lr);
-                }
+                writer.println(lr);
             }
         }
     }
@@ -465,57 +458,26 @@ public class IptablesConfig extends IptablesConfigConstants {
             this.autoNatRules.stream().forEach(autoNatRule -> {
                 List<String> filterForwardChainRules = autoNatRule.getFilterForwardChainRule().toStrings();
                 if (filterForwardChainRules != null && !filterForwardChainRules.isEmpty()) {
-                    filterForwardChainRules.stream().forEach(
-                            filterForwardChainRule -> writeAutoNatRulesInternal(writer, filterForwardChainRule));
+                    filterForwardChainRules.stream().forEach(writer::println);
                 }
             });
         }
     }
 
-    private void writeAutoNatRulesInternal(PrintWriter writer, String filterForwardChainRule) {
-        if (writer == null) {
-            CommandStatus status = execute((getIptablesCommand() + " " + filterForwardChainRule));
-            if (!status.getExitStatus().isSuccessful()) {
-                logger.error("Failed to apply auto nat rules");
-            }
-        } else {
-            writer.println(filterForwardChainRule);
-        }
-    }
-
     private void writePortForwardRulesToFilterTable(PrintWriter writer) {
         if (this.portForwardRules != null && !this.portForwardRules.isEmpty()) {
             this.portForwardRules.stream().forEach(portForwardRule -> {
                 List<String> filterForwardChainRules = portForwardRule.getFilterForwardChainRule().toStrings();
                 if (filterForwardChainRules != null && !filterForwardChainRules.isEmpty()) {
-                    filterForwardChainRules.stream().forEach(
-                            filterForwardChainRule -> writeForwardRulesInternal(writer, filterForwardChainRule));
+                    filterForwardChainRules.stream().forEach(writer::println);
                 }
             });
         }
     }
 
-    private void writeForwardRulesInternal(PrintWriter writer, String filterForwardChainRule) {
-        if (writer == null) {
-            CommandStatus status = execute((getIptablesCommand() + " " + filterForwardChainRule));
-            if (!status.getExitStatus().isSuccessful()) {
-                logger.error("Failed to apply forward rules");
-            }
-        } else {
-            writer.println(filterForwardChainRule);
-        }
-    }
-
     private void writeAdditionalRulesToFilterTable(PrintWriter writer) {
         for (String filterRule : this.additionalFilterRules) {
-            if (writer == null) {
-                CommandStatus status = execute((getIptablesCommand() + " -t " + FILTER + " " + filterRule));
-                if (!status.getExitStatus().isSuccessful()) {
-                    logger.error("Failed to apply additional rules to filter table");
-                }
-            } else {
-                writer.println(filterRule);
-            }
+            writer.println(filterRule);
         }
     }
 
@@ -535,7 +497,7 @@ public class IptablesConfig extends IptablesConfigConstants {
 
     private void writeNatRulesToNatTable(PrintWriter writer) {
         if (this.natRules != null && !this.natRules.isEmpty()) {
-            this.natRules.stream().forEach(natRule -> writePostroutingNatRulesInternal(writer, natRule));
+            this.natRules.stream().forEach(natRule -> writer.println(natRule.getNatPostroutingChainRule()));
         }
     }
 
@@ -551,54 +513,25 @@ public class IptablesConfig extends IptablesConfigConstants {
                                 .equals(natPostroutingChainRule))
                         .count() > 0;
                 if (!found) {
-                    writePostroutingNatRulesInternal(writer, autoNatRule);
+                    writer.println(natPostroutingChainRule);
                     appliedNatPostroutingChainRules.add(natPostroutingChainRule);
                 }
             }
         }
     }
 
-    private void writePostroutingNatRulesInternal(PrintWriter writer, NATRule autoNatRule) {
-        if (writer == null) {
-            CommandStatus status = execute(
-                    (getIptablesCommand() + " -t " + NAT + " " + autoNatRule.getNatPostroutingChainRule()));
-            if (!status.getExitStatus().isSuccessful()) {
-                logger.error("Failed to apply postrouting rules to nat table");
-            }
-        } else {
-            writer.println(autoNatRule.getNatPostroutingChainRule());
-        }
-    }
-
     private void writePortForwardRulesToNatTable(PrintWriter writer) {
         if (this.portForwardRules != null && !this.portForwardRules.isEmpty()) {
             this.portForwardRules.stream().forEach(portForwardRule -> {
-                if (writer == null) {
-                    CommandStatus statusPre = execute(
-                            (getIptablesCommand() + " -t " + NAT + " " + portForwardRule.getNatPreroutingChainRule()));
-                    CommandStatus statusPost = execute(
-                            (getIptablesCommand() + " -t " + NAT + " " + portForwardRule.getNatPostroutingChainRule()));
-                    if (!statusPre.getExitStatus().isSuccessful() || !statusPost.getExitStatus().isSuccessful()) {
-                        logger.error("Failed to apply pre/postrouting rules to nat table");
-                    }
-                } else {
-                    writer.println(portForwardRule.getNatPreroutingChainRule());
-                    writer.println(portForwardRule.getNatPostroutingChainRule());
-                }
+                writer.println(portForwardRule.getNatPreroutingChainRule());
+                writer.println(portForwardRule.getNatPostroutingChainRule());
             });
         }
     }
 
     private void writeAdditionalRulesToNatTable(PrintWriter writer) {
         for (String natRule : this.additionalNatRules) {
-            if (writer == null) {
-                CommandStatus status = execute((getIptablesCommand() + " -t " + NAT + " " + natRule));
-                if (!status.getExitStatus().isSuccessful()) {
-                    logger.error("Failed to apply additional rules to nat table");
-                }
-            } else {
-                writer.println(natRule);
-            }
+            writer.println(natRule);
         }
     }
 
@@ -613,14 +546,7 @@ public class IptablesConfig extends IptablesConfigConstants {
 
     private void writeAdditionalRulesToMangleTable(PrintWriter writer) {
         for (String mangleRule : this.additionalMangleRules) {
-            if (writer == null) {
-                CommandStatus status = execute((getIptablesCommand() + " -t " + MANGLE + " " + mangleRule));
-                if (!status.getExitStatus().isSuccessful()) {
-                    logger.error("Failed to apply prerouting rules to mangle table");
-                }
-            } else {
-                writer.println(mangleRule);
-            }
+            writer.println(mangleRule);
         }
     }
 
@@ -865,331 +791,88 @@ public class IptablesConfig extends IptablesConfigConstants {
      * Applies the rules contained in the localRules, portForwardRules, natRules,
      * and autoNatRules, force the polices for input and forward chains and apply
      * flooding protection rules if needed.
+     * The complete ruleset is generated in memory and compared with the one currently
+     * loaded, only the changed chains are replaced with a single iptables-restore --noflush
+     * transaction, so that the firewall never runs with a partial ruleset.
      */
     public void applyRules() {
-        applyPolicies();
-        createKuraChains();
-        applyLoopbackRules();
-        applyIncomingToOutcomingRules();
-        applyIcmpRules();
-        writeLocalRulesToFilterTable(null);
-        writePortForwardRulesToFilterTable(null);
-        writeAutoNatRulesToFilterTable(null);
-        writeNatRulesToFilterTable(null);
-        writePortForwardRulesToNatTable(null);
-        writeAutoNatRulesToNatTable(null);
-        writeNatRulesToNatTable(null);
-        writeAdditionalRulesToFilterTable(null);
-        writeAdditionalRulesToNatTable(null);
-        writeAdditionalRulesToMangleTable(null);
-        createKuraChainsReturnRules();
-    }
-
-    private void applyPolicies() {
-        if (!execute(getIptablesCommand() + " " + String.join(" ", IptablesConfigConstants.IPTABLES_INPUT_DROP_POLICY))
-                .getExitStatus().isSuccessful()) {
-            logger.error("Failed to apply policy to chain INPUT");
-        }
-        if (!execute(
-                getIptablesCommand() + " " + String.join(" ", IptablesConfigConstants.IPTABLES_FORWARD_DROP_POLICY))
-                .getExitStatus().isSuccessful()) {
-            logger.error("Failed to apply policy to chain FORWARD");
-        }
-    }
-
-    private void createKuraChains() {
-        createKuraFilterChains();
-        createKuraNatChains();
-        createKuraMangleChains();
-    }
-
-    private void createKuraMangleChains() {
-        String rule;
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_INPUT_KURA_CHAIN_MANGLE));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_INPUT_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_INPUT_KURA_CHAIN_MANGLE)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_OUTPUT_KURA_CHAIN_MANGLE));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_OUTPUT_KURA_CHAIN_MANGLE)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_FORWARD_KURA_CHAIN_MANGLE));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_FORWARD_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_FORWARD_KURA_CHAIN_MANGLE)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_PREROUTING_KURA_CHAIN_MANGLE));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_PREROUTING_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_PREROUTING_KURA_CHAIN_MANGLE)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_POSTROUTING_KURA_CHAIN_MANGLE));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_POSTROUTING_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_POSTROUTING_KURA_CHAIN_MANGLE))
-                .getExitStatus().isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-    }
-
-    private void createKuraNatChains() {
-        String rule;
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_INPUT_KURA_CHAIN_NAT));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_INPUT_KURA_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_INPUT_KURA_CHAIN_NAT)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_OUTPUT_KURA_CHAIN_NAT));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_OUTPUT_KURA_CHAIN_NAT)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_PREROUTING_KURA_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_PREROUTING_KURA_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_PREROUTING_KURA_CHAIN)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
+        long start = System.nanoTime();
 
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_PREROUTING_KURA_PF_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_PREROUTING_KURA_PF_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_PREROUTING_KURA_PF_CHAIN)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
+        IptablesRuleset desiredRuleset;
+        try {
+            desiredRuleset = getKuraRuleset();
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to generate firewall rules", e);
+            return;
         }
 
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_POSTROUTING_KURA_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_POSTROUTING_KURA_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_POSTROUTING_KURA_CHAIN)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
+        IptablesRulesetDiff diff = new IptablesRulesetDiff(desiredRuleset, readLoadedRuleset(), this.appliedRuleset,
+                this.appliedLoadedRuleset);
 
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_POSTROUTING_KURA_PF_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_POSTROUTING_KURA_PF_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_POSTROUTING_KURA_PF_CHAIN)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
+        if (!diff.isEmpty()) {
+            if (restoreNoFlush(diff.getRestoreScript())) {
+                this.appliedRuleset = desiredRuleset;
+                this.appliedLoadedRuleset = readLoadedRuleset();
+            } else {
+                this.appliedRuleset = new IptablesRuleset();
+                this.appliedLoadedRuleset = new IptablesRuleset();
+            }
         }
 
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_POSTROUTING_KURA_IPF_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_POSTROUTING_KURA_IPF_CHAIN + " -t " + NAT;
-        if (!execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_POSTROUTING_KURA_IPF_CHAIN)).getExitStatus()
-                .isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
+        this.lastApplyDuration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Firewall rules applied in {} ms, {} chains changed", this.lastApplyDuration,
+                diff.getChangedChainCount());
     }
 
-    private void createKuraFilterChains() {
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_INPUT_KURA_CHAIN));
-        String rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_INPUT_KURA_CHAIN + " -t " + FILTER;
-        if (!execute(
-                getIptablesCommand() + " " + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_INPUT_KURA_CHAIN))
-                .getExitStatus().isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_OUTPUT_KURA_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_OUTPUT_KURA_CHAIN + " -t " + FILTER;
-        if (!execute(
-                getIptablesCommand() + " " + String.join(" ", IptablesConfigConstants.IPTABLES_CHECK_OUTPUT_KURA_CHAIN))
-                .getExitStatus().isSuccessful()
-                && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_FORWARD_KURA_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_FORWARD_KURA_CHAIN + " -t " + FILTER;
-        if (!execute(getIptablesCommand() + " " + String.join(" ", IPTABLES_CHECK_FORWARD_KURA_CHAIN)).getExitStatus()
-                .isSuccessful() && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_FORWARD_KURA_PF_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_FORWARD_KURA_PF_CHAIN + " -t " + FILTER;
-        if (!execute(getIptablesCommand() + " " + String.join(" ", IPTABLES_CHECK_FORWARD_KURA_PF_CHAIN))
-                .getExitStatus().isSuccessful() && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
-
-        execute(getIptablesCommand() + " "
-                + String.join(" ", IptablesConfigConstants.IPTABLES_CREATE_FORWARD_KURA_IPF_CHAIN));
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.ADD_FORWARD_KURA_IPF_CHAIN + " -t " + FILTER;
-        if (!execute(getIptablesCommand() + " " + String.join(" ", IPTABLES_CHECK_FORWARD_KURA_IPF_CHAIN))
-                .getExitStatus().isSuccessful() && !execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_CREATION_FAILED_MESSAGE);
-        }
+    /*
+     * Returns the duration in milliseconds of the last applyRules() call, or -1 if the rules
+     * have never been applied.
+     */
+    public long getLastApplyDuration() {
+        return this.lastApplyDuration;
     }
 
-    private void applyLoopbackRules() {
-        if (!execute(
-                (getIptablesCommand() + " " + IptablesConfigConstants.ALLOW_ALL_TRAFFIC_TO_LOOPBACK + " -t " + FILTER))
-                .getExitStatus().isSuccessful()) {
-            logger.error("Failed to apply rules to loopback interface");
+    /*
+     * Returns the ruleset of the Kura chains generated from the localRules, portForwardRules,
+     * natRules, autoNatRules and additional rules, as it would be saved in /etc/sysconfig/iptables
+     */
+    public IptablesRuleset getKuraRuleset() {
+        StringWriter rules = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(rules)) {
+            writeKuraChains(writer);
         }
+        return IptablesRuleset.parse(rules.toString());
     }
 
-    private void applyIncomingToOutcomingRules() {
-        if (!execute((getIptablesCommand() + " " + IptablesConfigConstants.ALLOW_ONLY_INCOMING_TO_OUTGOING + " -t "
-                + FILTER)).getExitStatus().isSuccessful()) {
-            logger.error("Failed to apply incoming/outcoming rules");
+    private IptablesRuleset readLoadedRuleset() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CommandStatus status = execute(getIptablesCommand() + "-save", out);
+        if (!status.getExitStatus().isSuccessful()) {
+            logger.error("Failed to read the loaded rules");
+            return new IptablesRuleset();
         }
+        return IptablesRuleset.parse(new String(out.toByteArray(), StandardCharsets.UTF_8));
     }
 
-    private void applyIcmpRules() {
-        if (this.allowIcmp) {
-            for (String allowIcmpRule : getAllowIcmp()) {
-                if (!execute((getIptablesCommand() + " " + allowIcmpRule + " -t " + FILTER)).getExitStatus()
-                        .isSuccessful()) {
-                    logger.error("Failed to apply {} rule", allowIcmpRule);
-                }
+    private boolean restoreNoFlush(String script) {
+        String filename = getFirewallConfigTmpFileName();
+        try {
+            Files.write(new File(filename).toPath(), script.getBytes(StandardCharsets.UTF_8));
+            CommandStatus status = execute(getIptablesCommand() + "-restore --noflush " + filename);
+            if (!status.getExitStatus().isSuccessful()) {
+                logger.error("Failed to restore rules from {}", filename);
+                return false;
             }
-        } else {
-            for (String doNotAllowIcmpRule : getNotAllowIcmp()) {
-                if (!execute((getIptablesCommand() + " " + doNotAllowIcmpRule + " -t " + FILTER)).getExitStatus()
-                        .isSuccessful()) {
-                    logger.error("Failed to apply {} rule", doNotAllowIcmpRule);
-                }
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to write rules to {}", filename, e);
+            return false;
+        } finally {
+            try {
+                Files.deleteIfExists(new File(filename).toPath());
+            } catch (IOException e) {
+                logger.error("Cannot delete file {}", filename, e);
             }
         }
     }
-
-    private void createKuraChainsReturnRules() {
-        createKuraChainsReturnFilterRules();
-        createKuraChainsReturnNatRules();
-        createKuraChainsReturnMangleRules();
-    }
-
-    private void createKuraChainsReturnMangleRules() {
-        String rule;
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_INPUT_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_OUTPUT_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_PREROUTING_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_POSTROUTING_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_FORWARD_KURA_CHAIN + " -t " + MANGLE;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-    }
-
-    private void createKuraChainsReturnNatRules() {
-        String rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_INPUT_KURA_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_OUTPUT_KURA_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_PREROUTING_KURA_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_PREROUTING_KURA_PF_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_POSTROUTING_KURA_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_POSTROUTING_KURA_PF_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        rule = getIptablesCommand() + " " + IptablesConfigConstants.RETURN_POSTROUTING_KURA_IPF_CHAIN + " -t " + NAT;
-        if (!execute(rule).getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-    }
-
-    private void createKuraChainsReturnFilterRules() {
-        if (!execute((getIptablesCommand() + " " + IptablesConfigConstants.RETURN_INPUT_KURA_CHAIN)).getExitStatus()
-                .isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        if (!execute((getIptablesCommand() + " " + IptablesConfigConstants.RETURN_OUTPUT_KURA_CHAIN)).getExitStatus()
-                .isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        if (!execute((getIptablesCommand() + " " + IptablesConfigConstants.RETURN_FORWARD_KURA_CHAIN)).getExitStatus()
-                .isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        if (!execute((getIptablesCommand() + " " + IptablesConfigConstants.RETURN_FORWARD_KURA_PF_CHAIN))
-                .getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-        if (!execute((getIptablesCommand() + " " + IptablesConfigConstants.RETURN_FORWARD_KURA_IPF_CHAIN))
-                .getExitStatus().isSuccessful()) {
-            logger.error(CHAIN_RETURN_RULE_FAILED_MESSAGE);
-        }
-    }
 }
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.net.iptables;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An in-memory representation of an iptables ruleset in the iptables-save format.
+ * <br>
+ * For each table the ruleset contains the declared chains, in declaration order, with their policy and their rules.
+ * Rules are stored in the append form (-A chain ...), in the order in which they are listed by iptables-save. Rules
+ * added with the insert form (-I chain ...) are placed at the beginning of their chain, as iptables-restore would do.
+ * Built-in chains have a policy, user defined chains have the "-" policy.
+ */
+public class IptablesRuleset {
+
+    protected static final String USER_CHAIN_POLICY = "-";
+
+    private static final String APPEND = "-A";
+    private static final String INSERT = "-I";
+
+    private final Map<String, Map<String, Chain>> tables = new LinkedHashMap<>();
+
+    /**
+     * Parses a ruleset in the iptables-save format. Comments, counters and empty lines are ignored.
+     *
+     * @param content
+     *            the ruleset text
+     * @return the parsed ruleset
+     */
+    public static IptablesRuleset parse(final String content) {
+        final IptablesRuleset result = new IptablesRuleset();
+
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            String table = null;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                if (line.startsWith("*")) {
+                    table = line.substring(1);
+                    result.addTable(table);
+                } else if (table == null || IptablesConfigConstants.COMMIT.equals(line)) {
+                    table = null;
+                } else if (line.startsWith(":")) {
+                    final String[] tokens = line.substring(1).split(" ");
+                    result.addChain(table, tokens[0], tokens.length > 1 ? tokens[1] : USER_CHAIN_POLICY);
+                } else {
+                    result.addRule(table, line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result;
+    }
+
+    public void addTable(final String table) {
+        this.tables.computeIfAbsent(table, t -> new LinkedHashMap<>());
+    }
+
+    /**
+     * Declares a chain. Declaring an existing chain only updates its policy.
+     *
+     * @param table
+     *            the table name
+     * @param chain
+     *            the chain name
+     * @param policy
+     *            the chain policy, or "-" for a user defined chain
+     */
+    public void addChain(final String table, final String chain, final String policy) {
+        final Map<String, Chain> chains = this.tables.computeIfAbsent(table, t -> new LinkedHashMap<>());
+        chains.computeIfAbsent(chain, c -> new Chain()).policy = policy;
+    }
+
+    /**
+     * Adds a rule in the -A or -I form. The chain of the rule is declared as user defined chain if needed.
+     *
+     * @param table
+     *            the table name
+     * @param rule
+     *            the rule, as it would appear in the iptables-save output
+     * @throws IllegalArgumentException
+     *             if the rule does not start with -A or -I followed by the chain name
+     */
+    public void addRule(final String table, final String rule) {
+        final String[] tokens = rule.trim().split(" ", 3);
+
+        if (tokens.length < 2 || !(APPEND.equals(tokens[0]) || INSERT.equals(tokens[0]))) {
+            throw new IllegalArgumentException("Unsupported rule: " + rule);
+        }
+
+        final String chainName = tokens[1];
+        final Map<String, Chain> chains = this.tables.computeIfAbsent(table, t -> new LinkedHashMap<>());
+        final Chain chain = chains.computeIfAbsent(chainName, c -> new Chain());
+
+        final StringBuilder appendForm = new StringBuilder(APPEND).append(' ').append(chainName);
+        if (tokens.length > 2) {
+            appendForm.append(' ').append(tokens[2]);
+        }
+
+        if (INSERT.equals(tokens[0])) {
+            chain.rules.add(0, appendForm.toString());
+        } else {
+            chain.rules.add(appendForm.toString());
+        }
+    }
+
+    public Set<String> getTables() {
+        return Collections.unmodifiableSet(this.tables.keySet());
+    }
+
+    public Set<String> getChains(final String table) {
+        final Map<String, Chain> chains = this.tables.get(table);
+        return chains == null ? Collections.emptySet() : Collections.unmodifiableSet(chains.keySet());
+    }
+
+    public boolean hasChain(final String table, final String chain) {
+        return getChain(table, chain).isPresent();
+    }
+
+    public Optional<String> getPolicy(final String table, final String chain) {
+        return getChain(table, chain).map(c -> c.policy);
+    }
+
+    public List<String> getRules(final String table, final String chain) {
+        return getChain(table, chain).map(c -> Collections.unmodifiableList(c.rules))
+                .orElse(Collections.emptyList());
+    }
+
+    private Optional<Chain> getChain(final String table, final String chain) {
+        final Map<String, Chain> chains = this.tables.get(table);
+        return chains == null ? Optional.empty() : Optional.ofNullable(chains.get(chain));
+    }
+
+    /**
+     * Returns the ruleset in the iptables-save format, without counters.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        this.tables.forEach((table, chains) -> {
+            builder.append('*').append(table).append('\n');
+            chains.forEach((name, chain) -> builder.append(':').append(name).append(' ').append(chain.policy)
+                    .append(" [0:0]\n"));
+            chains.values().forEach(chain -> chain.rules.forEach(rule -> builder.append(rule).append('\n')));
+            builder.append(IptablesConfigConstants.COMMIT).append('\n');
+        });
+
+        return builder.toString();
+    }
+
+    private static class Chain {
+
+        private String policy = USER_CHAIN_POLICY;
+        private final List<String> rules = new ArrayList<>();
+    }
+}
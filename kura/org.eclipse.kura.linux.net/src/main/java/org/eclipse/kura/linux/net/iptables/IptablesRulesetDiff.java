@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.net.iptables;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Computes the changes needed to bring the loaded ruleset in line with the desired one, and renders them as an
+ * iptables-restore --noflush script.
+ * <br>
+ * User defined chains of the desired ruleset are owned by Kura: a chain is rewritten as a whole if it is missing or if
+ * its rules differ from the loaded ones. Since iptables-save prints rules in a canonical form that can differ from the
+ * generated text, a chain is also considered up to date if its desired rules did not change since the last apply and
+ * the loaded rules are still the ones read back after that apply.
+ * <br>
+ * Built-in chains are shared with the rest of the system and are never flushed: only their policy is updated if it
+ * differs, and the rules of the desired ruleset are inserted if they are not already loaded.
+ */
+public class IptablesRulesetDiff {
+
+    private final Map<String, Set<String>> changedPolicies = new LinkedHashMap<>();
+    private final Map<String, Set<String>> changedChains = new LinkedHashMap<>();
+    private final Map<String, List<String>> missingBuiltInRules = new LinkedHashMap<>();
+    private final IptablesRuleset desired;
+
+    public IptablesRulesetDiff(final IptablesRuleset desired, final IptablesRuleset loaded) {
+        this(desired, loaded, new IptablesRuleset(), new IptablesRuleset());
+    }
+
+    /**
+     * Creates a new diff.
+     *
+     * @param desired
+     *            the ruleset that should be loaded
+     * @param loaded
+     *            the ruleset currently loaded, as reported by iptables-save
+     * @param lastApplied
+     *            the desired ruleset of the last successful apply
+     * @param lastLoaded
+     *            the ruleset reported by iptables-save after the last successful apply
+     */
+    public IptablesRulesetDiff(final IptablesRuleset desired, final IptablesRuleset loaded,
+            final IptablesRuleset lastApplied, final IptablesRuleset lastLoaded) {
+        this.desired = desired;
+
+        for (final String table : desired.getTables()) {
+            for (final String chain : desired.getChains(table)) {
+                final String policy = desired.getPolicy(table, chain).orElse(IptablesRuleset.USER_CHAIN_POLICY);
+                final List<String> rules = desired.getRules(table, chain);
+
+                if (IptablesRuleset.USER_CHAIN_POLICY.equals(policy)) {
+                    if (!loaded.hasChain(table, chain) || !isUpToDate(table, chain, rules, loaded, lastApplied,
+                            lastLoaded)) {
+                        this.changedChains.computeIfAbsent(table, t -> new LinkedHashSet<>()).add(chain);
+                    }
+                    continue;
+                }
+
+                if (!Optional.of(policy).equals(loaded.getPolicy(table, chain))) {
+                    this.changedPolicies.computeIfAbsent(table, t -> new LinkedHashSet<>()).add(chain);
+                }
+
+                final List<String> loadedRules = loaded.getRules(table, chain);
+                for (final String rule : rules) {
+                    if (!loadedRules.contains(rule)) {
+                        this.missingBuiltInRules.computeIfAbsent(table, t -> new ArrayList<>()).add(rule);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isUpToDate(final String table, final String chain, final List<String> rules,
+            final IptablesRuleset loaded, final IptablesRuleset lastApplied, final IptablesRuleset lastLoaded) {
+        final List<String> loadedRules = loaded.getRules(table, chain);
+
+        if (rules.equals(loadedRules)) {
+            return true;
+        }
+
+        return lastApplied.hasChain(table, chain) && lastLoaded.hasChain(table, chain)
+                && rules.equals(lastApplied.getRules(table, chain))
+                && loadedRules.equals(lastLoaded.getRules(table, chain));
+    }
+
+    public boolean isEmpty() {
+        return this.changedPolicies.isEmpty() && this.changedChains.isEmpty() && this.missingBuiltInRules.isEmpty();
+    }
+
+    /**
+     * Returns the user defined chains that must be rewritten, grouped by table.
+     */
+    public Map<String, Set<String>> getChangedChains() {
+        return Collections.unmodifiableMap(this.changedChains);
+    }
+
+    /**
+     * Returns the built-in chains whose policy must be updated, grouped by table.
+     */
+    public Map<String, Set<String>> getChangedPolicies() {
+        return Collections.unmodifiableMap(this.changedPolicies);
+    }
+
+    /**
+     * Returns the rules that must be added to built-in chains, grouped by table.
+     */
+    public Map<String, List<String>> getMissingBuiltInRules() {
+        return Collections.unmodifiableMap(this.missingBuiltInRules);
+    }
+
+    /**
+     * Returns the number of chains that are modified by the restore script.
+     */
+    public int getChangedChainCount() {
+        final Set<String> chains = new LinkedHashSet<>();
+
+        this.changedChains.forEach((table, names) -> names.forEach(name -> chains.add(table + ' ' + name)));
+        this.changedPolicies.forEach((table, names) -> names.forEach(name -> chains.add(table + ' ' + name)));
+        this.missingBuiltInRules.forEach((table, rules) -> rules.forEach(rule -> chains.add(table + ' '
+                + rule.split(" ")[1])));
+
+        return chains.size();
+    }
+
+    /**
+     * Returns the iptables-restore --noflush script that applies the changes. Only the tables with changes are
+     * included. Declaring an existing user defined chain flushes it, so each changed chain is fully replaced in the
+     * same transaction that loads its new rules.
+     *
+     * @return the restore script, empty if there are no changes
+     */
+    public String getRestoreScript() {
+        final StringBuilder builder = new StringBuilder();
+
+        for (final String table : this.desired.getTables()) {
+            final Set<String> policies = this.changedPolicies.getOrDefault(table, Collections.emptySet());
+            final Set<String> chains = this.changedChains.getOrDefault(table, Collections.emptySet());
+            final List<String> builtInRules = this.missingBuiltInRules.getOrDefault(table, Collections.emptyList());
+
+            if (policies.isEmpty() && chains.isEmpty() && builtInRules.isEmpty()) {
+                continue;
+            }
+
+            builder.append('*').append(table).append('\n');
+
+            for (final String chain : policies) {
+                builder.append(':').append(chain).append(' ').append(this.desired.getPolicy(table, chain).orElse(""))
+                        .append(" [0:0]\n");
+            }
+            for (final String chain : chains) {
+                builder.append(':').append(chain).append(' ').append(IptablesRuleset.USER_CHAIN_POLICY)
+                        .append(" [0:0]\n");
+            }
+            // rules are inserted at the beginning of the chain, in reverse order to preserve their relative order
+            for (int i = builtInRules.size() - 1; i >= 0; i--) {
+                builder.append("-I").append(builtInRules.get(i).substring(2)).append('\n');
+            }
+            for (final String chain : chains) {
+                this.desired.getRules(table, chain).forEach(rule -> builder.append(rule).append('\n'));
+            }
+
+            builder.append(IptablesConfigConstants.COMMIT).append('\n');
+        }
+
+        return builder.toString();
+    }
+}
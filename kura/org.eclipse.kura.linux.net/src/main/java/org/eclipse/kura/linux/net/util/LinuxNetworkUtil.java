@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -24,12 +24,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.commons.io.Charsets;
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
+import org.eclipse.kura.core.linux.util.SystemMetricsCollector;
 import org.eclipse.kura.executor.Command;
 import org.eclipse.kura.executor.CommandExecutorService;
 import org.eclipse.kura.executor.CommandStatus;
@@ -1030,17 +1032,12 @@ public class LinuxNetworkUtil {
             return 0;
         }
 
-        StringBuilder sb = new StringBuilder("/sys/class/net/").append(interfaceName);
-        sb.append("/carrier_changes");
-
-        String fileName = sb.toString();
-        try (FileReader fr = new FileReader(fileName); BufferedReader br = new BufferedReader(fr);) {
-            int changes = Integer.parseInt(br.readLine());
-            logger.debug("interface {} carrier changes {}", interfaceName, changes);
-            return changes;
-        } catch (IOException | NumberFormatException e) {
-            logger.warn("error reading {}, error message {}", fileName, e.getMessage());
+        OptionalLong changes = SystemMetricsCollector.getDefault().getCarrierChanges(interfaceName);
+        if (changes.isPresent()) {
+            logger.debug("interface {} carrier changes {}", interfaceName, changes.getAsLong());
+            return (int) changes.getAsLong();
         }
+        logger.warn("error reading carrier changes of interface {}", interfaceName);
         return 0;
     }
 
@@ -1089,19 +1086,7 @@ public class LinuxNetworkUtil {
     }
 
     public boolean isVirtual(String interfaceName) {
-        boolean virtual = false;
-        String[] command = new String[] { "ls", "-all", "/sys/class/net", "|", "grep", interfaceName };
-        CommandStatus status = executeCommand(command);
-        if (status.getExitStatus().isSuccessful()) {
-            virtual = new String(((ByteArrayOutputStream) status.getOutputStream()).toByteArray(), Charsets.UTF_8)
-                    .contains("virtual");
-        } else {
-            if (logger.isWarnEnabled()) {
-                logger.warn("Failed to check if interface is virtual {}",
-                        new String(((ByteArrayOutputStream) status.getErrorStream()).toByteArray(), Charsets.UTF_8));
-            }
-        }
-        return virtual;
+        return SystemMetricsCollector.getDefault().isVirtualInterface(interfaceName);
     }
 
     private Optional<IPAddress> parseGatewayAddress(String commandOutputStream) {
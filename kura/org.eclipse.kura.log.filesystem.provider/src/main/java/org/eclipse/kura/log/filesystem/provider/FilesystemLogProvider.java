@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2021, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -12,15 +12,33 @@
  *******************************************************************************/
 package org.eclipse.kura.log.filesystem.provider;
 
-import java.io.EOFException;
-import java.io.File;
-import java.io.FileNotFoundException;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.log.LogEntry;
@@ -34,7 +52,7 @@ public class FilesystemLogProvider implements ConfigurableComponent, LogProvider
     private static final Logger logger = LoggerFactory.getLogger(FilesystemLogProvider.class);
     public static final String LOG_FILEPATH_PROP_KEY = "logFilePath";
 
-    private final List<LogListener> registeredListeners = new LinkedList<>();
+    private final List<LogListener> registeredListeners = new CopyOnWriteArrayList<>();
     private FileLogReader readerThread;
     private String filePath;
 
@@ -47,7 +65,7 @@ public class FilesystemLogProvider implements ConfigurableComponent, LogProvider
     protected void deactivate() {
         logger.info("Deactivating FilesystemLogProvider...");
         if (this.readerThread != null) {
-            this.readerThread.interrupt();
+            this.readerThread.shutdown();
         }
         logger.info("Deactivating FilesystemLogProvider... Done.");
     }
@@ -55,7 +73,7 @@ public class FilesystemLogProvider implements ConfigurableComponent, LogProvider
     public void updated(Map<String, Object> properties) {
         logger.info("Updated FilesystemLogProvider...");
         if (this.readerThread != null) {
-            this.readerThread.interrupt();
+            this.readerThread.shutdown();
         }
         this.filePath = (String) properties.get(LOG_FILEPATH_PROP_KEY);
         this.readerThread = new FileLogReader(this.filePath);
@@ -73,83 +91,272 @@ public class FilesystemLogProvider implements ConfigurableComponent, LogProvider
         this.registeredListeners.remove(listener);
     }
 
+    /**
+     * Follows the log file and notifies the listeners about new entries.
+     * <br>
+     * The reader waits for changes in the directory containing the file using a {@link WatchService}, that is backed
+     * by inotify on Linux, and reads all the available data in large chunks when the file changes. The directory is
+     * also checked periodically, in case change notifications are not supported by the filesystem.
+     * <br>
+     * Log rotation is detected by comparing the identity of the file at the configured path with the identity of the
+     * file being read. When the file is rotated, the remaining data in the old file is read before switching to the
+     * new one. If the file is truncated, it is read again from the beginning.
+     * <br>
+     * The entries parsed from a chunk are delivered to the listeners as a batch, after the chunk has been processed.
+     * The last message read is kept open for the stacktrace lines that may be written with a later write, it is
+     * delivered when a line that is not part of a stacktrace arrives or when no data is appended for
+     * {@link #PENDING_MESSAGE_TIMEOUT} milliseconds.
+     */
     class FileLogReader extends Thread {
 
-        private static final long SAMPLE_INTERVAL = 100;
-        private final File logFile;
-        private boolean follow = true;
+        private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+        private static final int MAX_BATCH_SIZE = 1024;
+        private static final long MAX_WAIT_INTERVAL = 1000;
+        private static final long PENDING_MESSAGE_TIMEOUT = 200;
+
+        private final String filePath;
+        private final Path logFile;
+        private final ByteBuffer buffer;
+        private final List<LogEntry> batch = new ArrayList<>();
+
+        private byte[] partialLine = new byte[256];
+        private int partialLineLength;
+        private String pendingMessage;
+        private final StringBuilder pendingStacktrace = new StringBuilder();
+        private long lastDataTime;
+
+        private volatile boolean follow = true;
 
         public FileLogReader(String filePath) {
-            this.logFile = new File(filePath);
-            this.follow = true;
+            this(filePath, DEFAULT_BUFFER_SIZE);
+        }
+
+        FileLogReader(String filePath, int bufferSize) {
+            super("FilesystemLogProvider-" + filePath);
+            this.filePath = filePath;
+            this.logFile = Paths.get(filePath).toAbsolutePath();
+            this.buffer = ByteBuffer.allocate(bufferSize);
+        }
+
+        public void shutdown() {
+            this.follow = false;
+            interrupt();
         }
 
         @Override
         public void run() {
-            try (RandomAccessFile file = new RandomAccessFile(this.logFile, "r")) {
-                while (this.follow) {
-                    readLinesAndNotifyListeners(file);
-                    sleep(SAMPLE_INTERVAL);
-                }
-            } catch (FileNotFoundException fnf) {
-                logger.error("File '{}' not found.", this.logFile.getPath());
-            } catch (InterruptedException ie) {
-                // nothing to do
+            try (WatchService watchService = this.logFile.getFileSystem().newWatchService()) {
+                this.logFile.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+                follow(watchService);
+            } catch (NoSuchFileException fnf) {
+                logger.error("File '{}' not found.", this.filePath);
+            } catch (AccessDeniedException e) {
+                logger.error("File '{}' is not accessible.", this.filePath);
+            } catch (InterruptedException | ClosedByInterruptException | ClosedWatchServiceException e) {
+                Thread.currentThread().interrupt();
             } catch (Exception e) {
                 logger.error("Unexpected exception in FilesystemLogProvider.", e);
+            }
+        }
+
+        private void follow(WatchService watchService) throws IOException, InterruptedException {
+            FileChannel channel = openLogFile();
+            Object fileKey = getFileKey();
+
+            try {
+                while (this.follow) {
+                    if (channel != null) {
+                        readAvailable(channel);
+
+                        final Object currentFileKey = getFileKey();
+
+                        if (currentFileKey != null && !currentFileKey.equals(fileKey)) {
+                            logger.debug("File '{}' has been rotated", this.filePath);
+                            readAvailable(channel);
+                            flushPartialLine();
+                            channel.close();
+                            channel = null;
+                        }
+                    }
+
+                    if (channel == null) {
+                        channel = openLogFileIfExists();
+                        fileKey = getFileKey();
+
+                        if (channel != null) {
+                            continue;
+                        }
+                    }
+
+                    awaitChange(watchService);
+                }
             } finally {
-                Thread.currentThread().interrupt();
+                if (channel != null) {
+                    channel.close();
+                }
             }
         }
 
-        private void readLinesAndNotifyListeners(RandomAccessFile file) throws IOException {
-            Optional<String> line = readUntilNewLine(file);
+        private FileChannel openLogFile() throws IOException {
+            return FileChannel.open(this.logFile, StandardOpenOption.READ);
+        }
 
-            if (line.isPresent()) {
-                String stacktrace = readStacktrace(file);
-                notifyListeners(line.get(), stacktrace);
+        private FileChannel openLogFileIfExists() throws IOException {
+            try {
+                return openLogFile();
+            } catch (NoSuchFileException e) {
+                return null;
             }
         }
 
-        private Optional<String> readUntilNewLine(RandomAccessFile file) throws IOException {
-            StringBuilder resultLine = new StringBuilder();
-            long pointerToLastSuccessfulRead = file.getFilePointer();
+        private Object getFileKey() throws IOException {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(this.logFile, BasicFileAttributes.class);
+                final Object fileKey = attributes.fileKey();
 
-            if (pointerToLastSuccessfulRead < file.length()) {
-                char newChar = 0;
+                return fileKey != null ? fileKey : attributes.creationTime();
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
 
-                do {
-                    try {
-                        newChar = (char) file.readByte();
-                        resultLine.append(newChar);
-                        pointerToLastSuccessfulRead = file.getFilePointer();
-                    } catch (EOFException eof) {
-                        file.seek(pointerToLastSuccessfulRead);
-                    }
-                } while (newChar != '\n');
+        private void awaitChange(WatchService watchService) throws InterruptedException {
+            final long waitInterval = getWaitInterval();
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitInterval);
+            long remaining = waitInterval;
+
+            while (remaining > 0) {
+                final WatchKey key = watchService.poll(remaining, TimeUnit.MILLISECONDS);
+
+                if (key == null) {
+                    return;
+                }
+
+                boolean changed = false;
+
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == OVERFLOW || this.logFile.getFileName().equals(event.context());
+                }
+
+                key.reset();
+
+                if (changed) {
+                    return;
+                }
+
+                remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            }
+        }
+
+        private long getWaitInterval() {
+            if (this.pendingMessage == null) {
+                return MAX_WAIT_INTERVAL;
+            }
+
+            // wake up in time to deliver the pending message
+            final long idleTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastDataTime);
+
+            return Math.max(1, PENDING_MESSAGE_TIMEOUT - idleTime);
+        }
+
+        private void readAvailable(FileChannel channel) throws IOException {
+            if (channel.size() < channel.position()) {
+                logger.debug("File '{}' has been truncated", this.filePath);
+                channel.position(0);
+                this.partialLineLength = 0;
+            }
+
+            while (this.follow) {
+                this.buffer.clear();
+
+                if (channel.read(this.buffer) <= 0) {
+                    break;
+                }
+
+                this.lastDataTime = System.nanoTime();
+                this.buffer.flip();
+                processLines();
+
+                if (this.batch.size() >= MAX_BATCH_SIZE) {
+                    notifyListeners();
+                }
+            }
+
+            // the stacktrace of the last message may still be in the process of being written
+            if (System.nanoTime() - this.lastDataTime >= TimeUnit.MILLISECONDS.toNanos(PENDING_MESSAGE_TIMEOUT)) {
+                flushPendingMessage();
+            }
+            notifyListeners();
+        }
+
+        private void processLines() {
+            final byte[] data = this.buffer.array();
+            final int end = this.buffer.limit();
+            int lineStart = this.buffer.position();
+
+            for (int i = lineStart; i < end; i++) {
+                if (data[i] != '\n') {
+                    continue;
+                }
+
+                if (this.partialLineLength > 0) {
+                    appendPartialLine(data, lineStart, i - lineStart);
+                    processLine(this.partialLine, 0, this.partialLineLength);
+                    this.partialLineLength = 0;
+                } else {
+                    processLine(data, lineStart, i - lineStart);
+                }
+
+                lineStart = i + 1;
+            }
+
+            appendPartialLine(data, lineStart, end - lineStart);
+        }
 
-                return Optional.of(resultLine.toString());
-            } else {
-                return Optional.empty();
+        private void flushPartialLine() {
+            if (this.partialLineLength > 0) {
+                processLine(this.partialLine, 0, this.partialLineLength);
+                this.partialLineLength = 0;
+                flushPendingMessage();
+                notifyListeners();
             }
         }
 
-        private String readStacktrace(RandomAccessFile file) throws IOException {
-            StringBuilder stacktrace = new StringBuilder();
-            long lastReadPosition = file.getFilePointer();
+        private void appendPartialLine(byte[] data, int offset, int length) {
+            if (this.partialLineLength + length > this.partialLine.length) {
+                this.partialLine = Arrays.copyOf(this.partialLine,
+                        Math.max(this.partialLine.length * 2, this.partialLineLength + length));
+            }
+
+            System.arraycopy(data, offset, this.partialLine, this.partialLineLength, length);
+            this.partialLineLength += length;
+        }
 
-            Optional<String> maybeStacktrace = readUntilNewLine(file);
+        private void processLine(byte[] data, int offset, int length) {
+            // UTF-8 multi byte sequences never contain '\n', so lines can be decoded independently
+            final int trimmedLength = length > 0 && data[offset + length - 1] == '\r' ? length - 1 : length;
+            final String line = new String(data, offset, trimmedLength, StandardCharsets.UTF_8);
 
-            while (maybeStacktrace.isPresent() && isStacktrace(maybeStacktrace.get())) {
-                stacktrace.append(maybeStacktrace.get());
-                stacktrace.append("\n");
-                lastReadPosition = file.getFilePointer();
-                maybeStacktrace = readUntilNewLine(file);
+            if (this.pendingMessage != null && isStacktrace(line)) {
+                if (this.pendingStacktrace.length() > 0) {
+                    this.pendingStacktrace.append('\n');
+                }
+                this.pendingStacktrace.append(line);
+                return;
             }
 
-            file.seek(lastReadPosition);
+            flushPendingMessage();
+            this.pendingMessage = line;
+        }
 
-            return stacktrace.toString().trim();
+        private void flushPendingMessage() {
+            if (this.pendingMessage != null) {
+                this.batch.add(new KuraLogLineParser(this.pendingMessage, this.filePath,
+                        this.pendingStacktrace.toString().trim()).createLogEntry());
+                this.pendingMessage = null;
+                this.pendingStacktrace.setLength(0);
+            }
         }
 
         private boolean isStacktrace(String line) {
@@ -158,17 +365,41 @@ public class FilesystemLogProvider implements ConfigurableComponent, LogProvider
              * 
              * in kura-audit log file the lines start with a '<'
              */
-            return line.length() > 4 && !line.substring(0, 4).matches("\\d{4}") && !line.startsWith("<");
+            if (line.length() < 4 || line.charAt(0) == '<') {
+                return false;
+            }
+
+            for (int i = 0; i < 4; i++) {
+                if (!Character.isDigit(line.charAt(i))) {
+                    return true;
+                }
+            }
+
+            return false;
         }
 
-        private synchronized void notifyListeners(String message, String stacktrace) {
-            if (message != null) {
+        private void notifyListeners() {
+            if (this.batch.isEmpty()) {
+                return;
+            }
+
+            if (this.follow) {
                 for (LogListener listener : FilesystemLogProvider.this.registeredListeners) {
-                    LogEntry entry = new KuraLogLineParser(message, FilesystemLogProvider.this.filePath, stacktrace)
-                            .createLogEntry();
-                    listener.newLogEntry(entry);
+                    for (LogEntry entry : this.batch) {
+                        notifyListener(listener, entry);
+                    }
                 }
             }
+
+            this.batch.clear();
+        }
+
+        private void notifyListener(LogListener listener, LogEntry entry) {
+            try {
+                listener.newLogEntry(entry);
+            } catch (Exception e) {
+                logger.warn("Unexpected exception notifying log listener", e);
+            }
         }
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
+import org.eclipse.kura.core.linux.util.SystemMetricsCollector;
+import org.eclipse.kura.core.linux.util.SystemMetricsSnapshot;
 import org.eclipse.kura.core.net.AbstractNetInterface;
 import org.eclipse.kura.core.net.NetworkConfiguration;
 import org.eclipse.kura.core.net.WifiInterfaceConfigImpl;
@@ -105,6 +107,7 @@ public class WifiMonitorServiceImpl implements WifiClientMonitorService, EventHa
     private NetworkConfiguration newNetConfiguration;
     private RouteService routeService;
     private LinuxNetworkUtil linuxNetworkUtil;
+    private SystemMetricsCollector systemMetricsCollector = SystemMetricsCollector.getDefault();
     private int rssi;
 
     private WifiDriverService wifiDriverService;
@@ -163,6 +166,10 @@ public class WifiMonitorServiceImpl implements WifiClientMonitorService, EventHa
         this.executorService = null;
     }
 
+    public void setSystemMetricsCollector(SystemMetricsCollector systemMetricsCollector) {
+        this.systemMetricsCollector = systemMetricsCollector;
+    }
+
     protected void activate(ComponentContext componentContext) {
         logger.debug("Activating WifiMonitor Service...");
         this.first = true;
@@ -223,6 +230,11 @@ public class WifiMonitorServiceImpl implements WifiClientMonitorService, EventHa
         return linkTool;
     }
 
+    protected int getWirelessLinkSignalLevel(String interfaceName) {
+        return this.systemMetricsCollector.getWirelessLink(interfaceName)
+                .map(SystemMetricsSnapshot.WirelessLinkStats::getSignalLevel).orElse(0);
+    }
+
     protected NetInterfaceType getNetworkType(String interfaceName) throws KuraException {
         return this.linuxNetworkUtil.getType(interfaceName);
     }
@@ -1011,6 +1023,12 @@ public class WifiMonitorServiceImpl implements WifiClientMonitorService, EventHa
         }
         int signalLevel = 0;
         if (wifiState.isUp()) {
+            signalLevel = getWirelessLinkSignalLevel(interfaceName);
+            if (signalLevel != 0) {
+                logger.debug("getSignalLevelWithLinkTool() :: rssi={} (using /proc/net/wireless)", signalLevel);
+                return signalLevel;
+            }
+
             logger.trace("getSignalLevelWithLinkTool() :: using 'iw dev wlan0 link' command ...");
             LinkTool linkTool = getLinkTool(interfaceName);
 
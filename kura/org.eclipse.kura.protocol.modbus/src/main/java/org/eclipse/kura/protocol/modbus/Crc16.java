@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -32,12 +32,30 @@ public class Crc16 {
      * @return CRC16 as calculated for buff
      */
     public static int getCrc16(byte[] buff, int buffLen, int crcSeed) {
+        return getCrc16(buff, 0, buffLen, crcSeed);
+    }
+
+    /**
+     * calculate the crc for a range of the passed buffer. The CRC of a message received in several parts can be
+     * computed incrementally by passing the result of the previous call as seed.
+     *
+     * @param buff
+     *            byte array to calculate CRC of
+     * @param offset
+     *            index of the first byte to calculate against
+     * @param buffLen
+     *            number of bytes in array to calculate against
+     * @param crcSeed
+     *            starting seed for CRC calculation
+     * @return CRC16 as calculated for the range of buff
+     */
+    public static int getCrc16(byte[] buff, int offset, int buffLen, int crcSeed) {
         int hi, lo, tmp;
 
         lo = crcSeed & 0x0ff;
         hi = crcSeed >> 8 & 0x0ff;
 
-        for (int i = 0; i < buffLen; i++) {
+        for (int i = offset; i < offset + buffLen; i++) {
             tmp = (lo ^ buff[i]) & 0x0ff;
             lo = hi ^ abCrcTbl2[tmp];
             hi = abCrcTbl1[tmp];
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -330,6 +330,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         InputStream in;
         OutputStream out;
         CommConnection conn = null;
+        ModbusRtuTransport rtuTransport;
 
         public SerialCommunicate(ConnectionFactory connFactory, Properties connectionConfig)
                 throws ModbusProtocolException {
@@ -370,6 +371,11 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             } catch (Exception e) {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.CONNECTION_FAILURE, e);
             }
+
+            if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE) {
+                this.rtuTransport = new ModbusRtuTransport(this.in, this.out, ModbusRtuTransport.getFrameGapNanos(baud),
+                        ModbusProtocolDevice.this.respTout);
+            }
             logger.info("Serial connection connected");
         }
 
@@ -382,6 +388,10 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
 
         @Override
         public void disconnect() throws ModbusProtocolException {
+            if (this.rtuTransport != null) {
+                this.rtuTransport.close();
+                this.rtuTransport = null;
+            }
             if (this.conn != null) {
                 try {
                     this.conn.close();
@@ -464,25 +474,18 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
          * bytes for the CRC. It will return a byte array of the response to the
          * message. Validation will include checking the CRC and verifying the
          * command matches.
+         * <p>
+         * RTU mode transactions are performed by a {@link ModbusRtuTransport}.
          */
         @Override
         public byte[] msgTransaction(byte[] msg) throws ModbusProtocolException {
 
-            byte[] cmd = null;
-
             if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE) {
-                cmd = new byte[msg.length + 2];
-                for (int i = 0; i < msg.length; i++) {
-                    cmd[i] = msg[i];
-                }
-                // Add crc calculation to end of message
-                int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
-                cmd[msg.length] = (byte) crc;
-                cmd[msg.length + 1] = (byte) (crc >> 8);
-            } else if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                cmd = convertCommandToAscii(msg);
+                return this.rtuTransport.transact(msg);
             }
 
+            byte[] cmd = convertCommandToAscii(msg);
+
             // Send the message
             try {
                 synchronized (this.out) {
@@ -499,14 +502,10 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                         // wait for and process response
                         byte[] response = new byte[262]; // response buffer
                         int respIndex = 0;
-                        int minimumLength = 5; // default minimum message length
-                        if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                            minimumLength = 11;
-                        }
+                        int minimumLength = 11; // default minimum message length
                         int timeOut = ModbusProtocolDevice.this.respTout;
                         for (int maxLoop = 0; maxLoop < 1000; maxLoop++) {
                             boolean endFrame = false;
-                            // while (respIndex < minimumLength) {
                             while (!endFrame) {
                                 long start = System.currentTimeMillis();
                                 while (this.in.available() == 0) {
@@ -526,50 +525,32 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                                                 failMsg);
                                     }
                                 }
-                                // address byte must match first
+                                // start character must match first
                                 if (respIndex == 0) {
-                                    if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                        if ((response[0] = (byte) this.in.read()) == ':') {
-                                            respIndex++;
-                                        }
-                                    } else {
-                                        if ((response[0] = (byte) this.in.read()) == msg[0]) {
-                                            respIndex++;
-                                        }
+                                    if ((response[0] = (byte) this.in.read()) == ':') {
+                                        respIndex++;
                                     }
                                 } else {
                                     response[respIndex++] = (byte) this.in.read();
                                 }
 
-                                if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE) {
-                                    timeOut = 100; // move to character timeout
-                                    if (respIndex >= minimumLength) {
-                                        endFrame = true;
-                                    }
-                                } else {
-                                    if (response[respIndex - 1] == 10 && response[respIndex - 2] == 13) {
-                                        endFrame = true;
-                                    }
+                                if (response[respIndex - 1] == 10 && response[respIndex - 2] == 13) {
+                                    endFrame = true;
                                 }
                             }
-                            // if ASCII mode convert response
-                            if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                byte lrcRec = asciiLrcCalc(response, respIndex);
-                                response = convertAsciiResponseToBin(response, respIndex);
-                                byte lrcCalc = (byte) binLrcCalc(response);
-                                if (lrcRec != lrcCalc) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Bad LRC");
-                                }
+                            // convert ASCII response
+                            byte lrcRec = asciiLrcCalc(response, respIndex);
+                            response = convertAsciiResponseToBin(response, respIndex);
+                            byte lrcCalc = (byte) binLrcCalc(response);
+                            if (lrcRec != lrcCalc) {
+                                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                                        "Bad LRC");
                             }
 
                             // Check first for an Exception response
                             if ((response[1] & 0x80) == 0x80) {
-                                if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE
-                                        || Crc16.getCrc16(response, 5, 0xffff) == 0) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Exception response = " + Byte.toString(response[2]));
-                                }
+                                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                                        "Exception response = " + Byte.toString(response[2]));
                             } else {
                                 // then check for a valid message
                                 switch (response[1]) {
@@ -580,8 +561,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                                     if (respIndex < 8) {
                                         // wait for more data
                                         minimumLength = 8;
-                                    } else if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE
-                                            || Crc16.getCrc16(response, 8, 0xffff) == 0) {
+                                    } else {
                                         byte[] ret = new byte[6];
                                         for (int i = 0; i < 6; i++) {
                                             ret[i] = response[i];
@@ -593,17 +573,11 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                                 case ModbusFunctionCodes.READ_INPUT_STATUS:
                                 case ModbusFunctionCodes.READ_INPUT_REGS:
                                 case ModbusFunctionCodes.READ_HOLDING_REGS:
-                                    int byteCnt;
-                                    if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                        byteCnt = (response[2] & 0xff) + 3;
-                                    } else {
-                                        byteCnt = (response[2] & 0xff) + 5;
-                                    }
+                                    int byteCnt = (response[2] & 0xff) + 3;
                                     if (respIndex < byteCnt) {
                                         // wait for more data
                                         minimumLength = byteCnt;
-                                    } else if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE
-                                            || Crc16.getCrc16(response, byteCnt, 0xffff) == 0) {
+                                    } else {
                                         byte[] ret = new byte[byteCnt];
                                         for (int i = 0; i < byteCnt; i++) {
                                             ret[i] = response[i];
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules the periodic requests sent to the units connected to the same Modbus RTU bus.
+ * <p>
+ * Only one transaction at a time can be in progress on a RTU bus, so all polls are executed in order of due time by a
+ * single thread. Polls that are due at the same time are served round robin across units. The polls of a unit that
+ * does not respond are deferred with an exponential backoff, so that an unreachable unit does not take the bus time
+ * of the others.
+ */
+public final class ModbusRtuPollPlanner implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusRtuPollPlanner.class);
+
+    private final ModbusRtuTransport transport;
+    private final long maxBackoffNanos;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private final List<Poll> polls = new ArrayList<>();
+    private final Map<Integer, UnitState> units = new HashMap<>();
+    private final Thread worker;
+
+    private long servedCount;
+    private boolean closed;
+
+    /**
+     * Callback that receives the outcome of a poll, it is invoked by the planner thread.
+     */
+    public interface Listener {
+
+        public void onResponse(byte[] response);
+
+        public void onFailure(ModbusProtocolException e);
+    }
+
+    public ModbusRtuPollPlanner(ModbusRtuTransport transport) {
+        this(transport, 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a new planner and starts its thread.
+     *
+     * @param transport
+     *            the transport of the bus
+     * @param maxBackoff
+     *            the maximum delay applied to the polls of a unit that does not respond
+     * @param timeUnit
+     *            the unit of maxBackoff
+     */
+    public ModbusRtuPollPlanner(ModbusRtuTransport transport, long maxBackoff, TimeUnit timeUnit) {
+        this.transport = transport;
+        this.maxBackoffNanos = timeUnit.toNanos(maxBackoff);
+
+        this.worker = new Thread(this::run, "ModbusRtuPollPlanner");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a request to be sent periodically, the first request is sent as soon as possible.
+     *
+     * @param msg
+     *            the request, starting with the unit address and without CRC
+     * @param period
+     *            the poll period
+     * @param timeUnit
+     *            the unit of period
+     * @param listener
+     *            the listener that receives the responses
+     * @return a handle that can be used to cancel the poll
+     */
+    public Poll schedule(byte[] msg, long period, TimeUnit timeUnit, Listener listener) {
+        if (msg.length < 2 || (msg[0] & 0xff) == 0) {
+            throw new IllegalArgumentException("the request must be addressed to a single unit");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+
+        final Poll poll = new Poll(msg.clone(), timeUnit.toNanos(period), listener);
+
+        this.lock.lock();
+        try {
+            this.units.computeIfAbsent(poll.getUnitId(), id -> new UnitState());
+            this.polls.add(poll);
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        return poll;
+    }
+
+    /**
+     * Stops the planner, the transport is not closed.
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.polls.clear();
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void run() {
+        this.lock.lock();
+        try {
+            while (!this.closed) {
+                final Poll next = selectNext();
+
+                if (next == null) {
+                    this.changed.await();
+                    continue;
+                }
+
+                final long wait = dueNanos(next) - System.nanoTime();
+
+                if (wait > 0) {
+                    this.changed.awaitNanos(wait);
+                    continue;
+                }
+
+                this.units.get(next.getUnitId()).lastServed = ++this.servedCount;
+
+                this.lock.unlock();
+                try {
+                    execute(next);
+                } finally {
+                    this.lock.lock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private Poll selectNext() {
+        Poll result = null;
+
+        for (final Poll poll : this.polls) {
+            if (result == null) {
+                result = poll;
+                continue;
+            }
+
+            final long due = dueNanos(poll);
+            final long resultDue = dueNanos(result);
+
+            if (due - resultDue < 0 || due == resultDue
+                    && this.units.get(poll.getUnitId()).lastServed < this.units.get(result.getUnitId()).lastServed) {
+                result = poll;
+            }
+        }
+
+        return result;
+    }
+
+    private long dueNanos(final Poll poll) {
+        final UnitState unit = this.units.get(poll.getUnitId());
+
+        return unit.failures > 0 && unit.backoffUntil - poll.dueNanos > 0 ? unit.backoffUntil : poll.dueNanos;
+    }
+
+    private void execute(final Poll poll) {
+        byte[] response = null;
+        ModbusProtocolException failure = null;
+
+        try {
+            response = this.transport.transact(poll.msg);
+        } catch (ModbusProtocolException e) {
+            failure = e;
+        }
+
+        this.lock.lock();
+        try {
+            final long now = System.nanoTime();
+            final UnitState unit = this.units.get(poll.getUnitId());
+
+            if (failure != null && failure.getCode() == ModbusProtocolErrorCode.RESPONSE_TIMEOUT) {
+                unit.failures++;
+                final long backoff = Long.numberOfLeadingZeros(poll.periodNanos) > unit.failures
+                        ? poll.periodNanos << unit.failures
+                        : Long.MAX_VALUE;
+                unit.backoffUntil = now + Math.min(backoff, this.maxBackoffNanos);
+            } else {
+                unit.failures = 0;
+            }
+
+            poll.dueNanos += poll.periodNanos;
+            if (poll.dueNanos - now < 0) {
+                // the poll is late, skip the missed periods
+                poll.dueNanos = now;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        try {
+            if (failure == null) {
+                poll.listener.onResponse(response);
+            } else {
+                poll.listener.onFailure(failure);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Modbus poll listener failed", e);
+        }
+    }
+
+    private static final class UnitState {
+
+        private long lastServed;
+        private int failures;
+        private long backoffUntil;
+    }
+
+    /**
+     * A request scheduled on a {@link ModbusRtuPollPlanner}.
+     */
+    public final class Poll {
+
+        private final byte[] msg;
+        private final long periodNanos;
+        private final Listener listener;
+        private long dueNanos = System.nanoTime();
+
+        private Poll(byte[] msg, long periodNanos, Listener listener) {
+            this.msg = msg;
+            this.periodNanos = periodNanos;
+            this.listener = listener;
+        }
+
+        public int getUnitId() {
+            return this.msg[0] & 0xff;
+        }
+
+        /**
+         * Cancels the poll, a request already in progress is completed.
+         */
+        public void cancel() {
+            ModbusRtuPollPlanner.this.lock.lock();
+            try {
+                ModbusRtuPollPlanner.this.polls.remove(this);
+                ModbusRtuPollPlanner.this.changed.signalAll();
+            } finally {
+                ModbusRtuPollPlanner.this.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Modbus RTU transport over a pair of byte streams, such as the streams of a serial port.
+ * <p>
+ * Received bytes are read in bulk by a dedicated thread and framed as they arrive. The length of a response is
+ * predicted from its function code and byte count and the CRC is updated incrementally, so the thread waiting for a
+ * response is woken up as soon as the last byte has been received. A silence longer than the inter-frame delay (t3.5)
+ * terminates the responses with an unknown function code. If the bus becomes silent before the predicted length has
+ * been received, for example because of noise preceding the response, the received bytes are searched for a valid
+ * frame. A new request is sent only after the bus has been silent for the inter-frame delay.
+ * <p>
+ * Transactions are serialized, an instance can be shared by the threads that access the same bus. The streams are
+ * not closed by this class, closing the input stream terminates the reader thread.
+ */
+public final class ModbusRtuTransport implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusRtuTransport.class);
+
+    private static final int MAX_FRAME_LENGTH = 256;
+    private static final int LENGTH_PENDING = -1;
+    private static final int LENGTH_UNKNOWN = 0;
+    private static final long MIN_FRAME_GAP_NANOS = TimeUnit.MICROSECONDS.toNanos(1750);
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final long frameGapNanos;
+    private final long responseTimeoutNanos;
+
+    private final Lock transactionLock = new ReentrantLock();
+    private final Lock lock = new ReentrantLock();
+    private final Condition received = this.lock.newCondition();
+    private final byte[] request = new byte[MAX_FRAME_LENGTH];
+    private final byte[] frame = new byte[MAX_FRAME_LENGTH];
+    private final Thread reader;
+
+    private int frameLength;
+    private int expectedLength = LENGTH_PENDING;
+    private int crc = 0xffff;
+    private long lastReceivedNanos;
+    private long silenceCheckedNanos;
+    private int expectedUnitId = -1;
+    private byte[] response;
+    private IOException readFailure;
+    private boolean closed;
+
+    /**
+     * Creates a new transport and starts reading from the input stream.
+     *
+     * @param in
+     *            the stream from which responses are read
+     * @param out
+     *            the stream to which requests are written
+     * @param frameGapNanos
+     *            the inter-frame delay in nanoseconds, see {@link #getFrameGapNanos(int)}
+     * @param responseTimeout
+     *            the maximum time to wait for a complete response in milliseconds
+     */
+    public ModbusRtuTransport(InputStream in, OutputStream out, long frameGapNanos, int responseTimeout) {
+        this.in = in;
+        this.out = out;
+        this.frameGapNanos = frameGapNanos;
+        this.responseTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(responseTimeout);
+        this.lastReceivedNanos = System.nanoTime() - frameGapNanos;
+
+        this.reader = new Thread(this::readLoop, "ModbusRtuReader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Returns the inter-frame delay (3.5 character times) for the given baud rate. As required by the Modbus over
+     * serial line specification, a fixed value of 1.75 ms is used for baud rates greater than 19200.
+     *
+     * @param baudRate
+     *            the baud rate of the serial line
+     * @return the inter-frame delay in nanoseconds
+     */
+    public static long getFrameGapNanos(int baudRate) {
+        if (baudRate <= 0 || baudRate > 19200) {
+            return MIN_FRAME_GAP_NANOS;
+        }
+        // 3.5 characters of 11 bits each
+        return TimeUnit.SECONDS.toNanos(1) * 385 / (10L * baudRate);
+    }
+
+    /**
+     * Sends a request and waits for the corresponding response.
+     *
+     * @param msg
+     *            the request, starting with the unit address and without CRC
+     * @return the response, starting with the unit address and without CRC, or an empty array for a broadcast
+     *         request
+     * @throws ModbusProtocolException
+     *             if the response is not received in time, is an exception response or the streams fail
+     */
+    public byte[] transact(byte[] msg) throws ModbusProtocolException {
+        if (msg.length < 2 || msg.length > MAX_FRAME_LENGTH - 2) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_LENGTH);
+        }
+
+        final int unitId = msg[0] & 0xff;
+
+        this.transactionLock.lock();
+        try {
+            System.arraycopy(msg, 0, this.request, 0, msg.length);
+            final int crc16 = Crc16.getCrc16(msg, msg.length, 0xffff);
+            this.request[msg.length] = (byte) crc16;
+            this.request[msg.length + 1] = (byte) (crc16 >> 8);
+
+            this.lock.lock();
+            try {
+                awaitBusIdle();
+                resetFrame();
+                this.response = null;
+                this.expectedUnitId = unitId == 0 ? -1 : unitId;
+            } finally {
+                this.lock.unlock();
+            }
+
+            try {
+                this.out.write(this.request, 0, msg.length + 2);
+                this.out.flush();
+            } catch (IOException e) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getMessage());
+            }
+
+            if (unitId == 0) {
+                return new byte[0];
+            }
+
+            return checkResponse(msg, awaitResponse());
+        } finally {
+            this.transactionLock.unlock();
+        }
+    }
+
+    /**
+     * Stops delivering responses, pending and subsequent transactions fail.
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.received.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        this.reader.interrupt();
+    }
+
+    private void awaitBusIdle() throws ModbusProtocolException {
+        checkOpen();
+
+        long idle;
+        while ((idle = this.lastReceivedNanos + this.frameGapNanos - System.nanoTime()) > 0) {
+            await(idle);
+            checkOpen();
+        }
+    }
+
+    private byte[] awaitResponse() throws ModbusProtocolException {
+        this.lock.lock();
+        try {
+            final long deadline = System.nanoTime() + this.responseTimeoutNanos;
+
+            while (this.response == null) {
+                checkOpen();
+
+                final long now = System.nanoTime();
+                long wait = deadline - now;
+
+                if (this.frameLength > 0 && this.silenceCheckedNanos != this.lastReceivedNanos) {
+                    final long silence = this.lastReceivedNanos + this.frameGapNanos - now;
+                    if (silence <= 0) {
+                        this.silenceCheckedNanos = this.lastReceivedNanos;
+                        silenceDetected();
+                        continue;
+                    }
+                    wait = Math.min(wait, silence);
+                }
+
+                if (wait <= 0) {
+                    logger.warn("Recv timeout, received {} bytes", this.frameLength);
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, "Recv timeout");
+                }
+
+                await(wait);
+            }
+
+            return this.response;
+        } finally {
+            this.expectedUnitId = -1;
+            this.response = null;
+            resetFrame();
+            this.lock.unlock();
+        }
+    }
+
+    private void await(long nanos) throws ModbusProtocolException {
+        try {
+            this.received.awaitNanos(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Thread interrupted");
+        }
+    }
+
+    private void checkOpen() throws ModbusProtocolException {
+        if (this.closed) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.NOT_CONNECTED);
+        }
+        if (this.readFailure != null) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    this.readFailure.getMessage());
+        }
+    }
+
+    private static byte[] checkResponse(byte[] msg, byte[] resp) throws ModbusProtocolException {
+        if ((resp[1] & 0x80) == 0x80) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "Exception response = " + Byte.toString(resp[2]));
+        }
+        if (resp[1] != msg[1]) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect function number " + String.format("%02X", resp[1]));
+        }
+        return resp;
+    }
+
+    private void readLoop() {
+        final byte[] chunk = new byte[MAX_FRAME_LENGTH];
+
+        try {
+            while (true) {
+                final int count = this.in.read(chunk);
+                if (count < 0) {
+                    throw new EOFException("End of stream");
+                }
+
+                this.lock.lock();
+                try {
+                    if (this.closed) {
+                        return;
+                    }
+                    received(chunk, count, System.nanoTime());
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            this.lock.lock();
+            try {
+                if (!this.closed) {
+                    logger.debug("Modbus RTU reader terminated", e);
+                    this.readFailure = e;
+                }
+                this.received.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private void received(byte[] chunk, int count, long nanos) {
+        if (count == 0) {
+            return;
+        }
+
+        if (this.frameLength > 0 && this.silenceCheckedNanos != this.lastReceivedNanos
+                && nanos - this.lastReceivedNanos > this.frameGapNanos) {
+            silenceDetected();
+        }
+        this.lastReceivedNanos = nanos;
+
+        for (int i = 0; i < count; i++) {
+            append(chunk[i]);
+        }
+
+        this.received.signalAll();
+    }
+
+    private void append(byte b) {
+        if (this.expectedUnitId < 0 || this.response != null) {
+            // no transaction in progress or response already complete
+            return;
+        }
+        if (this.frameLength == 0 && (b & 0xff) != this.expectedUnitId) {
+            return;
+        }
+
+        this.frame[this.frameLength++] = b;
+        this.crc = Crc16.getCrc16(this.frame, this.frameLength - 1, 1, this.crc);
+
+        if (this.expectedLength == LENGTH_PENDING) {
+            this.expectedLength = predictLength(0, this.frameLength);
+        }
+
+        if (this.frameLength == this.expectedLength) {
+            if (this.crc == 0) {
+                this.response = Arrays.copyOf(this.frame, this.frameLength - 2);
+            } else {
+                logger.debug("Bad CRC, dropping first byte");
+                resync();
+            }
+        } else if (this.frameLength == MAX_FRAME_LENGTH) {
+            resync();
+        }
+    }
+
+    private int predictLength(int start, int length) {
+        if (length < 2) {
+            return LENGTH_PENDING;
+        }
+
+        final int functionCode = this.frame[start + 1] & 0xff;
+
+        if ((functionCode & 0x80) == 0x80) {
+            return 5;
+        }
+
+        switch (functionCode) {
+        case ModbusFunctionCodes.READ_COIL_STATUS:
+        case ModbusFunctionCodes.READ_INPUT_STATUS:
+        case ModbusFunctionCodes.READ_HOLDING_REGS:
+        case ModbusFunctionCodes.READ_INPUT_REGS:
+        case ModbusFunctionCodes.GET_COMM_EVENT_LOG:
+            return length < 3 ? LENGTH_PENDING : (this.frame[start + 2] & 0xff) + 5;
+        case ModbusFunctionCodes.FORCE_SINGLE_COIL:
+        case ModbusFunctionCodes.PRESET_SINGLE_REG:
+        case ModbusFunctionCodes.GET_COMM_EVENT_COUNTER:
+        case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
+        case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
+            return 8;
+        case ModbusFunctionCodes.READ_EXCEPTION_STATUS:
+            return 5;
+        default:
+            return LENGTH_UNKNOWN;
+        }
+    }
+
+    private void silenceDetected() {
+        if (this.expectedLength == LENGTH_UNKNOWN) {
+            if (this.frameLength >= 4 && this.crc == 0) {
+                this.response = Arrays.copyOf(this.frame, this.frameLength - 2);
+            } else {
+                logger.debug("Discarding incomplete frame of {} bytes", this.frameLength);
+                resetFrame();
+            }
+            return;
+        }
+
+        // the predicted length may be wrong if the frame started with noise, look for a complete frame
+        for (int start = 1; start < this.frameLength; start++) {
+            if ((this.frame[start] & 0xff) != this.expectedUnitId) {
+                continue;
+            }
+
+            final int available = this.frameLength - start;
+            final int length = predictLength(start, available);
+
+            if (length >= 4 && length <= available && Crc16.getCrc16(this.frame, start, length, 0xffff) == 0) {
+                logger.debug("Skipped {} bytes of noise", start);
+                this.response = Arrays.copyOfRange(this.frame, start, start + length - 2);
+                return;
+            }
+        }
+    }
+
+    private void resync() {
+        final byte[] pending = Arrays.copyOfRange(this.frame, 1, this.frameLength);
+
+        resetFrame();
+
+        for (final byte b : pending) {
+            append(b);
+        }
+    }
+
+    private void resetFrame() {
+        this.frameLength = 0;
+        this.expectedLength = LENGTH_PENDING;
+        this.crc = 0xffff;
+    }
+}
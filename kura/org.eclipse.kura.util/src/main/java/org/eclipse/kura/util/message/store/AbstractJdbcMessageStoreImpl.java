@@ -16,6 +16,7 @@ import static java.util.Objects.requireNonNull;
 import static org.eclipse.kura.util.jdbc.JdbcUtil.getFirstColumnValue;
 import static org.eclipse.kura.util.jdbc.JdbcUtil.getFirstColumnValueOrEmpty;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -24,6 +25,8 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
@@ -34,10 +37,13 @@ import org.eclipse.kura.message.store.StoredMessage;
 import org.eclipse.kura.message.store.provider.MessageStore;
 import org.eclipse.kura.util.jdbc.ConnectionProvider;
 import org.eclipse.kura.util.jdbc.SQLFunction;
+import org.eclipse.kura.util.jdbc.SQLSupplier;
 
 public abstract class AbstractJdbcMessageStoreImpl implements MessageStore {
 
     private static final String TOPIC_ELEMENT = "topic";
+    // keeps the number of statement parameters below the default SQLite limit
+    private static final int MAX_IDS_PER_STATEMENT = 500;
 
     protected final String tableName;
     protected final String escapedTableName;
@@ -87,6 +93,87 @@ public abstract class AbstractJdbcMessageStoreImpl implements MessageStore {
 
     }
 
+    /**
+     * Returns the highest message identifier currently in the store, or 0 if the store is empty.
+     *
+     * @return the highest message identifier.
+     * @throws KuraStoreException
+     */
+    public int getMaxMessageId() throws KuraStoreException {
+
+        return this.connectionProvider.withPreparedStatement(this.queries.getSqlMaxMessageId(),
+                (c, stmt) -> getFirstColumnValue(stmt::executeQuery, ResultSet::getInt),
+                "Cannot get max message id");
+    }
+
+    /**
+     * Returns the identifier that the identity column of the table will assign to the next stored message. Unlike the
+     * highest identifier in the store, this value does not decrease when messages are deleted.
+     * <br>
+     * The default implementation returns the highest identifier in the store plus one, subclasses should override it
+     * to read the state of the identity column.
+     *
+     * @return the next message identifier.
+     * @throws KuraStoreException
+     */
+    public long getNextMessageId() throws KuraStoreException {
+
+        return (long) getMaxMessageId() + 1;
+    }
+
+    /**
+     * Inserts the given messages in a single transaction. Unlike
+     * {@link #store(String, byte[], int, boolean, int)}, the message identifiers and all the message parameters,
+     * including timestamps and {@link DataTransportToken}, are taken from the provided messages.
+     * <br>
+     * The caller is responsible for providing identifiers that are not already in use.
+     *
+     * @param messages the messages to be stored.
+     * @throws KuraStoreException
+     */
+    public void storeAll(final List<StoredMessage> messages) throws KuraStoreException {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        for (final StoredMessage message : messages) {
+            validate(message.getTopic());
+        }
+
+        this.connectionProvider.withConnection(c -> inTransaction(c, () -> {
+            try (final PreparedStatement stmt = c.prepareStatement(this.queries.getSqlStoreWithId())) {
+                for (final StoredMessage message : messages) {
+                    bindStoreWithIdParameters(stmt, message);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            return null;
+        }), "Cannot store messages");
+    }
+
+    protected void bindStoreWithIdParameters(final PreparedStatement pstmt, final StoredMessage message)
+            throws SQLException {
+        final Optional<DataTransportToken> token = message.getDataTransportToken();
+
+        pstmt.setInt(1, message.getId());
+        pstmt.setString(2, message.getTopic());
+        pstmt.setInt(3, message.getQos());
+        pstmt.setBoolean(4, message.isRetain());
+        pstmt.setTimestamp(5, toTimestamp(message.getCreatedOn()), this.utcCalendar);
+        pstmt.setTimestamp(6, toTimestamp(message.getPublishedOn()), this.utcCalendar);
+        pstmt.setInt(7, token.map(DataTransportToken::getMessageId).orElse(-1));
+        pstmt.setTimestamp(8, toTimestamp(message.getConfirmedOn()), this.utcCalendar);
+        pstmt.setBytes(9, message.getPayload());
+        pstmt.setInt(10, message.getPriority());
+        pstmt.setString(11, token.map(DataTransportToken::getSessionId).orElse(null));
+        pstmt.setTimestamp(12, toTimestamp(message.getDroppedOn()), this.utcCalendar);
+    }
+
+    protected static Timestamp toTimestamp(final Optional<Date> date) {
+        return date.map(d -> new Timestamp(d.getTime())).orElse(null);
+    }
+
     protected void validate(String topic) throws KuraStoreException {
         if (topic == null || topic.trim().length() == 0) {
             throw new KuraStoreException(null, "topic must be not null and not empty");
@@ -163,6 +250,103 @@ public abstract class AbstractJdbcMessageStoreImpl implements MessageStore {
                 "Cannot get message next message");
     }
 
+    @Override
+    public List<StoredMessage> getNextMessages(int maxCount) throws KuraStoreException {
+
+        return getNextMessages(maxCount, rs -> buildStoredMessageBuilder(rs, true).build());
+    }
+
+    protected List<StoredMessage> getNextMessages(final int maxCount,
+            final SQLFunction<ResultSet, StoredMessage> messageBuilder) throws KuraStoreException {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be greater than 0");
+        }
+
+        return this.connectionProvider.withPreparedStatement(this.queries.getSqlGetNextMessages(), (c, stmt) -> {
+            stmt.setInt(1, maxCount);
+
+            final List<StoredMessage> messages = new ArrayList<>(maxCount);
+
+            try (final ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(messageBuilder.call(rs));
+                }
+            }
+
+            return messages;
+        }, "Cannot get next messages");
+    }
+
+    @Override
+    public List<StoredMessage> getNextMessages(int maxCount, int minPriority, int maxPriority)
+            throws KuraStoreException {
+
+        return getNextMessages(maxCount, minPriority, maxPriority, rs -> buildStoredMessageBuilder(rs, true).build());
+    }
+
+    protected List<StoredMessage> getNextMessages(final int maxCount, final int minPriority, final int maxPriority,
+            final SQLFunction<ResultSet, StoredMessage> messageBuilder) throws KuraStoreException {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be greater than 0");
+        }
+
+        return this.connectionProvider.withPreparedStatement(this.queries.getSqlGetNextMessagesInPriorityRange(),
+                (c, stmt) -> {
+                    stmt.setInt(1, minPriority);
+                    stmt.setInt(2, maxPriority);
+                    stmt.setInt(3, maxCount);
+
+                    final List<StoredMessage> messages = new ArrayList<>(maxCount);
+
+                    try (final ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            messages.add(messageBuilder.call(rs));
+                        }
+                    }
+
+                    return messages;
+                }, "Cannot get next messages");
+    }
+
+    @Override
+    public void markAsPublished(List<Integer> msgIds, Map<Integer, DataTransportToken> inFlightMessages)
+            throws KuraStoreException {
+        if (msgIds.isEmpty() && inFlightMessages.isEmpty()) {
+            return;
+        }
+
+        final Timestamp now = new Timestamp(new Date().getTime());
+
+        this.connectionProvider.withConnection(c -> inTransaction(c, () -> {
+
+            if (!msgIds.isEmpty()) {
+                try (final PreparedStatement stmt = c.prepareStatement(this.queries.getSqlSetPublishedQoS0())) {
+                    for (final Integer msgId : msgIds) {
+                        stmt.setTimestamp(1, now, this.utcCalendar);
+                        stmt.setInt(2, msgId);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+
+            if (!inFlightMessages.isEmpty()) {
+                try (final PreparedStatement stmt = c.prepareStatement(this.queries.getSqlSetPublishedQoS1())) {
+                    for (final Entry<Integer, DataTransportToken> e : inFlightMessages.entrySet()) {
+                        stmt.setTimestamp(1, now, this.utcCalendar);
+                        stmt.setInt(2, e.getValue().getMessageId());
+                        stmt.setString(3, e.getValue().getSessionId());
+                        stmt.setInt(4, e.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+
+            return null;
+        }), "Cannot update timestamps");
+    }
+
     @Override
     public void markAsPublished(int msgId, DataTransportToken token) throws KuraStoreException {
         final Timestamp now = new Timestamp(new Date().getTime());
@@ -195,6 +379,50 @@ public abstract class AbstractJdbcMessageStoreImpl implements MessageStore {
         updateTimestamp(this.queries.getSqlSetConfirmed(), msgId);
     }
 
+    @Override
+    public void markAsConfirmed(final List<Integer> msgIds) throws KuraStoreException {
+        if (msgIds.isEmpty()) {
+            return;
+        }
+
+        final Timestamp now = new Timestamp(new Date().getTime());
+
+        this.connectionProvider.withConnection(c -> inTransaction(c, () -> {
+
+            for (int start = 0; start < msgIds.size(); start += MAX_IDS_PER_STATEMENT) {
+                final List<Integer> chunk = msgIds.subList(start,
+                        Math.min(msgIds.size(), start + MAX_IDS_PER_STATEMENT));
+
+                final String sql = buildIdListQuery(this.queries.getSqlSetConfirmedByIdsPrefix(), chunk.size());
+
+                try (final PreparedStatement stmt = c.prepareStatement(sql)) {
+                    stmt.setTimestamp(1, now, this.utcCalendar);
+
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(2 + i, chunk.get(i));
+                    }
+
+                    stmt.execute();
+                }
+            }
+
+            return null;
+        }), "Cannot update timestamps");
+    }
+
+    protected static String buildIdListQuery(final String prefix, final int idCount) {
+        final StringBuilder builder = new StringBuilder(prefix.length() + idCount * 3 + 3).append(prefix).append('(');
+
+        for (int i = 0; i < idCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('?');
+        }
+
+        return builder.append(");").toString();
+    }
+
     @Override
     public List<StoredMessage> getUnpublishedMessages() throws KuraStoreException {
 
@@ -294,6 +522,27 @@ public abstract class AbstractJdbcMessageStoreImpl implements MessageStore {
         }, "Cannot execute query");
     }
 
+    protected <T> T inTransaction(final Connection c, final SQLSupplier<T> task) throws SQLException {
+        final boolean autoCommit = c.getAutoCommit();
+
+        if (autoCommit) {
+            c.setAutoCommit(false);
+        }
+
+        try {
+            final T result = task.get();
+            c.commit();
+            return result;
+        } catch (final SQLException | RuntimeException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            if (autoCommit) {
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
     protected List<StoredMessage> buildStoredMessagesNoPayload(ResultSet rs) throws SQLException {
         List<StoredMessage> messages = new ArrayList<>();
         while (rs.next()) {
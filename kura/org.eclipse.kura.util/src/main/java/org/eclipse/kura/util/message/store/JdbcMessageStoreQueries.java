@@ -18,12 +18,17 @@ public final class JdbcMessageStoreQueries {
 
     private final String sqlCreateTable;
     private final String sqlMessageCount;
+    private final String sqlMaxMessageId;
     private final String sqlStore;
+    private final String sqlStoreWithId;
     private final String sqlGetMessage;
     private final String sqlGetNextMessage;
+    private final String sqlGetNextMessages;
+    private final String sqlGetNextMessagesInPriorityRange;
     private final String sqlSetPublishedQoS1;
     private final String sqlSetPublishedQoS0;
     private final String sqlSetConfirmed;
+    private final String sqlSetConfirmedByIdsPrefix;
     private final String sqlAllUnpublishedMessages;
     private final String sqlAllInFlightMessages;
     private final String sqlAllDroppedInFlightMessages;
@@ -40,12 +45,17 @@ public final class JdbcMessageStoreQueries {
     private JdbcMessageStoreQueries(Builder builder) {
         this.sqlCreateTable = requireNonNull(builder.sqlCreateTable);
         this.sqlMessageCount = requireNonNull(builder.sqlMessageCount);
+        this.sqlMaxMessageId = requireNonNull(builder.sqlMaxMessageId);
         this.sqlStore = requireNonNull(builder.sqlStore);
+        this.sqlStoreWithId = requireNonNull(builder.sqlStoreWithId);
         this.sqlGetMessage = requireNonNull(builder.sqlGetMessage);
         this.sqlGetNextMessage = requireNonNull(builder.sqlGetNextMessage);
+        this.sqlGetNextMessages = requireNonNull(builder.sqlGetNextMessages);
+        this.sqlGetNextMessagesInPriorityRange = requireNonNull(builder.sqlGetNextMessagesInPriorityRange);
         this.sqlSetPublishedQoS1 = requireNonNull(builder.sqlSetPublishedQoS1);
         this.sqlSetPublishedQoS0 = requireNonNull(builder.sqlSetPublishedQoS0);
         this.sqlSetConfirmed = requireNonNull(builder.sqlSetConfirmed);
+        this.sqlSetConfirmedByIdsPrefix = requireNonNull(builder.sqlSetConfirmedByIdsPrefix);
         this.sqlAllUnpublishedMessages = requireNonNull(builder.sqlAllUnpublishedMessages);
         this.sqlAllInFlightMessages = requireNonNull(builder.sqlAllInFlightMessages);
         this.sqlAllDroppedInFlightMessages = requireNonNull(builder.sqlAllDroppedInFlightMessages);
@@ -68,10 +78,18 @@ public final class JdbcMessageStoreQueries {
         return sqlMessageCount;
     }
 
+    public String getSqlMaxMessageId() {
+        return sqlMaxMessageId;
+    }
+
     public String getSqlStore() {
         return sqlStore;
     }
 
+    public String getSqlStoreWithId() {
+        return sqlStoreWithId;
+    }
+
     public String getSqlGetMessage() {
         return sqlGetMessage;
     }
@@ -80,6 +98,14 @@ public final class JdbcMessageStoreQueries {
         return sqlGetNextMessage;
     }
 
+    public String getSqlGetNextMessages() {
+        return sqlGetNextMessages;
+    }
+
+    public String getSqlGetNextMessagesInPriorityRange() {
+        return sqlGetNextMessagesInPriorityRange;
+    }
+
     public String getSqlSetPublishedQoS1() {
         return sqlSetPublishedQoS1;
     }
@@ -92,6 +118,16 @@ public final class JdbcMessageStoreQueries {
         return sqlSetConfirmed;
     }
 
+    /**
+     * Returns the prefix of the query that sets the confirmation timestamp of multiple messages. The query is completed
+     * by appending a parenthesized list of id parameters, the first parameter is the confirmation timestamp.
+     *
+     * @return the query prefix.
+     */
+    public String getSqlSetConfirmedByIdsPrefix() {
+        return sqlSetConfirmedByIdsPrefix;
+    }
+
     public String getSqlAllUnpublishedMessages() {
         return sqlAllUnpublishedMessages;
     }
@@ -148,12 +184,17 @@ public final class JdbcMessageStoreQueries {
 
         private String sqlCreateTable;
         private String sqlMessageCount;
+        private String sqlMaxMessageId;
         private String sqlStore;
+        private String sqlStoreWithId;
         private String sqlGetMessage;
         private String sqlGetNextMessage;
+        private String sqlGetNextMessages;
+        private String sqlGetNextMessagesInPriorityRange;
         private String sqlSetPublishedQoS1;
         private String sqlSetPublishedQoS0;
         private String sqlSetConfirmed;
+        private String sqlSetConfirmedByIdsPrefix;
         private String sqlAllUnpublishedMessages;
         private String sqlAllInFlightMessages;
         private String sqlAllDroppedInFlightMessages;
@@ -177,11 +218,21 @@ public final class JdbcMessageStoreQueries {
             return this;
         }
 
+        public Builder withSqlMaxMessageId(String sqlMaxMessageId) {
+            this.sqlMaxMessageId = sqlMaxMessageId;
+            return this;
+        }
+
         public Builder withSqlStore(String sqlStore) {
             this.sqlStore = sqlStore;
             return this;
         }
 
+        public Builder withSqlStoreWithId(String sqlStoreWithId) {
+            this.sqlStoreWithId = sqlStoreWithId;
+            return this;
+        }
+
         public Builder withSqlGetMessage(String sqlGetMessage) {
             this.sqlGetMessage = sqlGetMessage;
             return this;
@@ -192,6 +243,16 @@ public final class JdbcMessageStoreQueries {
             return this;
         }
 
+        public Builder withSqlGetNextMessages(String sqlGetNextMessages) {
+            this.sqlGetNextMessages = sqlGetNextMessages;
+            return this;
+        }
+
+        public Builder withSqlGetNextMessagesInPriorityRange(String sqlGetNextMessagesInPriorityRange) {
+            this.sqlGetNextMessagesInPriorityRange = sqlGetNextMessagesInPriorityRange;
+            return this;
+        }
+
         public Builder withSqlSetPublishedQoS1(String sqlSetPublishedQoS1) {
             this.sqlSetPublishedQoS1 = sqlSetPublishedQoS1;
             return this;
@@ -207,6 +268,11 @@ public final class JdbcMessageStoreQueries {
             return this;
         }
 
+        public Builder withSqlSetConfirmedByIdsPrefix(String sqlSetConfirmedByIdsPrefix) {
+            this.sqlSetConfirmedByIdsPrefix = sqlSetConfirmedByIdsPrefix;
+            return this;
+        }
+
         public Builder withSqlAllUnpublishedMessages(String sqlAllUnpublishedMessages) {
             this.sqlAllUnpublishedMessages = sqlAllUnpublishedMessages;
             return this;
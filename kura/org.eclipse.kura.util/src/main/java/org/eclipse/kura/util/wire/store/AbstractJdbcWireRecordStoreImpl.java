@@ -21,7 +21,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -44,6 +46,7 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
 
     private static final String COLUMN_NAME = "COLUMN_NAME";
     private static final String TYPE_NAME = "TYPE_NAME";
+    private static final int MAX_CACHED_INSERT_QUERIES = 32;
 
     protected final String tableName;
     protected final String escapedTableName;
@@ -52,6 +55,20 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
 
     private Set<ConnectionListener> connectionListeners;
 
+    // escaped column name -> column type, null if the table schema must be probed again
+    private Map<String, String> columnTypesCache;
+    // record property names -> insert query
+    private final Map<List<String>, String> insertQueryCache = new LinkedHashMap<List<String>, String>(16, 0.75f,
+            true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<List<String>, String> eldest) {
+            return size() > MAX_CACHED_INSERT_QUERIES;
+        }
+    };
+
     protected AbstractJdbcWireRecordStoreImpl(final ConnectionProvider connectionProvider, final String tableName) {
         if (tableName == null || tableName.trim().isEmpty()) {
             throw new IllegalArgumentException("Table name cannot be null or empty.");
@@ -125,16 +142,32 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
     public synchronized void insertRecords(final List<WireRecord> records) throws KuraStoreException {
         this.connectionProvider.withConnection(c -> {
 
-            for (final WireRecord r : records) {
+            int start = 0;
+
+            while (start < records.size()) {
+                final Map<String, TypedValue<?>> firstProperties = records.get(start).getProperties();
+                final List<String> propertyNames = new ArrayList<>(firstProperties.keySet());
+
+                int end = start + 1;
+
+                while (end < records.size() && hasSameColumns(records.get(end), firstProperties)) {
+                    end++;
+                }
+
+                final List<WireRecord> group = records.subList(start, end);
+
                 try {
-                    createColumns(c, r);
-                    insertRecord(c, r);
+                    createColumns(c, group);
+                    insertRecords(c, propertyNames, group);
                 } catch (final SQLException e) {
                     logger.info("Reconciling table and columns");
+                    this.columnTypesCache = null;
                     execute(c, this.queries.getSqlCreateTable());
-                    createColumns(c, r);
-                    insertRecord(c, r);
+                    createColumns(c, group);
+                    insertRecords(c, propertyNames, group);
                 }
+
+                start = end;
             }
 
             return null;
@@ -146,14 +179,18 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
         // nothing to close
     }
 
-    protected void createColumns(final Connection c, final WireRecord wireRecord) throws SQLException {
+    protected void createColumns(final Connection c, final List<WireRecord> wireRecords) throws SQLException {
 
-        final Map<String, String> columnTypes = probeColumnTypes(c);
+        if (this.columnTypesCache == null) {
+            this.columnTypesCache = probeColumnTypes(c);
+        }
 
-        for (Entry<String, TypedValue<?>> entry : wireRecord.getProperties().entrySet()) {
+        for (final WireRecord wireRecord : wireRecords) {
+            for (Entry<String, TypedValue<?>> entry : wireRecord.getProperties().entrySet()) {
 
-            createColumn(c, entry.getKey(), entry.getValue(), columnTypes);
+                createColumn(c, entry.getKey(), entry.getValue(), this.columnTypesCache);
 
+            }
         }
     }
 
@@ -173,6 +210,7 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
 
             logger.debug("creating new column: {} {}", name, mappedType.get());
             execute(c, MessageFormat.format(queries.getSqlAddColumn(), escapedColName, mappedType.get()));
+            columnTypes.put(escapedColName, mappedType.get());
 
         } else {
             final String actualColumnType = columnTypes.get(escapedColName);
@@ -183,6 +221,7 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
 
                 execute(c, MessageFormat.format(queries.getSqlDropColumn(), escapedColName));
                 execute(c, MessageFormat.format(queries.getSqlAddColumn(), escapedColName, mappedType.get()));
+                columnTypes.put(escapedColName, mappedType.get());
             }
         }
     }
@@ -217,46 +256,60 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
         return columnMetadata.getString(TYPE_NAME);
     }
 
-    protected void insertRecord(Connection connection, final WireRecord wireRecord) throws SQLException {
+    // inserts records having the given property names, in iteration order, with a single batch
+    protected void insertRecords(Connection connection, final List<String> propertyNames,
+            final List<WireRecord> wireRecords) throws SQLException {
 
-        final String insertQuery = buildInsertQuerySql(wireRecord.getProperties());
+        final String insertQuery = this.insertQueryCache.computeIfAbsent(propertyNames, this::buildInsertQuerySql);
 
-        final long timestamp = System.currentTimeMillis();
+        logger.debug("Storing {} records into table {}...", wireRecords.size(), escapedTableName);
 
-        logger.debug("Storing data into table {}...", escapedTableName);
+        final boolean autoCommit = connection.getAutoCommit();
+
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
 
         try (final PreparedStatement stmt = connection.prepareStatement(insertQuery)) {
-            stmt.setLong(1, timestamp);
+            for (final WireRecord wireRecord : wireRecords) {
+                stmt.setLong(1, System.currentTimeMillis());
 
-            int i = 2;
+                int i = 2;
 
-            for (Entry<String, TypedValue<?>> entry : wireRecord.getProperties().entrySet()) {
+                for (final String propertyName : propertyNames) {
+
+                    setParameterValue(stmt, i, wireRecord.getProperties().get(propertyName).getValue());
 
-                setParameterValue(stmt, i, entry.getValue().getValue());
+                    i++;
+                }
 
-                i++;
+                stmt.addBatch();
             }
 
-            stmt.execute();
+            stmt.executeBatch();
+            connection.commit();
 
-            if (isExplicitCommitEnabled()) {
-                connection.commit();
+            logger.debug("Stored typed values");
+        } catch (final SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
             }
-
-            logger.debug("Stored typed value");
         }
 
     }
 
-    protected String buildInsertQuerySql(final Map<String, TypedValue<?>> properties) {
+    protected String buildInsertQuerySql(final List<String> propertyNames) {
         final StringBuilder sbCols = new StringBuilder();
         final StringBuilder sbVals = new StringBuilder();
 
         sbCols.append("TIMESTAMP");
         sbVals.append("?");
 
-        for (final Entry<String, TypedValue<?>> entry : properties.entrySet()) {
-            final String escapedColName = escapeIdentifier(entry.getKey());
+        for (final String propertyName : propertyNames) {
+            final String escapedColName = escapeIdentifier(propertyName);
             sbCols.append(", ").append(escapedColName);
             sbVals.append(", ?");
         }
@@ -285,6 +338,26 @@ public abstract class AbstractJdbcWireRecordStoreImpl implements WireRecordStore
         }
     }
 
+    // records with the same property names and value types can be inserted with the same batch
+    private static boolean hasSameColumns(final WireRecord wireRecord,
+            final Map<String, TypedValue<?>> otherProperties) {
+        final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+
+        if (properties.size() != otherProperties.size()) {
+            return false;
+        }
+
+        for (final Entry<String, TypedValue<?>> entry : otherProperties.entrySet()) {
+            final TypedValue<?> value = properties.get(entry.getKey());
+
+            if (value == null || entry.getValue() == null || value.getClass() != entry.getValue().getClass()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     protected int getTableSize(final Connection c) throws SQLException {
         try (final Statement stmt = c.createStatement();
                 final ResultSet rset = stmt.executeQuery(this.queries.getSqlRowCount())) {
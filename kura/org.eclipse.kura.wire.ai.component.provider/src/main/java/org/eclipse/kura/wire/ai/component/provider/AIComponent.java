@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -18,12 +18,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.ai.inference.InferenceEngineService;
 import org.eclipse.kura.ai.inference.ModelInfo;
 import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
@@ -47,11 +51,13 @@ public class AIComponent implements WireEmitter, WireReceiver, ConfigurableCompo
     private WireSupport wireSupport;
 
     private AIComponentOptions options;
-    private InferenceEngineService inferenceEngineService;
+    private volatile InferenceEngineService inferenceEngineService;
 
-    private Optional<ModelInfo> infoPre;
-    private Optional<ModelInfo> infoInfer;
-    private Optional<ModelInfo> infoPost;
+    private volatile Optional<ModelInfo> infoPre;
+    private volatile Optional<ModelInfo> infoInfer;
+    private volatile Optional<ModelInfo> infoPost;
+
+    private volatile InferenceBatcher batcher;
 
     public void bindWireHelperService(final WireHelperService wireHelperService) {
         if (this.wireHelperService == null) {
@@ -89,6 +95,7 @@ public class AIComponent implements WireEmitter, WireReceiver, ConfigurableCompo
 
     public void deactivate() {
         logger.info("Deactivating AIComponent...");
+        closeBatcher();
         logger.info("Deactivating AIComponent... Done.");
     }
 
@@ -100,6 +107,11 @@ public class AIComponent implements WireEmitter, WireReceiver, ConfigurableCompo
         this.infoInfer = Optional.empty();
         this.infoPost = Optional.empty();
 
+        closeBatcher();
+        if (this.options.isBatchEnabled()) {
+            this.batcher = new InferenceBatcher(this.options, this::inferBatch, this::emitBatchResult);
+        }
+
         try {
             loadModelInfos();
             logger.info("Updating AIComponent... Done");
@@ -109,9 +121,18 @@ public class AIComponent implements WireEmitter, WireReceiver, ConfigurableCompo
     }
 
     @Override
-    public synchronized void onWireReceive(WireEnvelope wireEnvelope) {
+    public void onWireReceive(WireEnvelope wireEnvelope) {
         requireNonNull(wireEnvelope, "Wire Envelope cannot be null");
 
+        InferenceBatcher currentBatcher = this.batcher;
+        if (currentBatcher != null) {
+            submitToBatcher(currentBatcher, wireEnvelope);
+        } else {
+            process(wireEnvelope);
+        }
+    }
+
+    private synchronized void process(WireEnvelope wireEnvelope) {
         for (WireRecord wireRecord : wireEnvelope.getRecords()) {
             try {
 
@@ -147,6 +168,76 @@ public class AIComponent implements WireEmitter, WireReceiver, ConfigurableCompo
         this.wireSupport.producersConnected(wires);
     }
 
+    private void submitToBatcher(InferenceBatcher currentBatcher, WireEnvelope wireEnvelope) {
+        for (WireRecord wireRecord : wireEnvelope.getRecords()) {
+            try {
+
+                Optional<List<Tensor>> inputs = createInputTensors(wireRecord);
+                if (inputs.isPresent()) {
+                    currentBatcher.submit(inputs.get());
+                }
+
+            } catch (KuraException e) {
+                logger.error("Error processing WireRecord.", e);
+            }
+        }
+    }
+
+    private synchronized Optional<List<Tensor>> createInputTensors(WireRecord wireRecord) throws KuraException {
+        if (this.inferenceEngineService != null && this.inferenceEngineService.isEngineReady()) {
+
+            loadModelInfos();
+
+            ModelInfo first = this.infoPre.isPresent() ? this.infoPre.get() : this.infoInfer.get();
+            return Optional.of(TensorListAdapter.givenDescriptors(first.getInputs()).fromWireRecord(wireRecord));
+        } else {
+            logger.info("Selected InferenceEngineService not ready yet.");
+            return Optional.empty();
+        }
+    }
+
+    private CompletionStage<List<Tensor>> inferBatch(List<Tensor> inputs) {
+        InferenceEngineService engine = this.inferenceEngineService;
+        Optional<ModelInfo> pre = this.infoPre;
+        Optional<ModelInfo> infer = this.infoInfer;
+        Optional<ModelInfo> post = this.infoPost;
+
+        if (engine == null || !infer.isPresent()) {
+            CompletableFuture<List<Tensor>> result = new CompletableFuture<>();
+            result.completeExceptionally(new KuraException(KuraErrorCode.SERVICE_UNAVAILABLE));
+            return result;
+        }
+
+        CompletionStage<List<Tensor>> result = pre.isPresent() ? engine.inferAsync(pre.get(), inputs)
+                : CompletableFuture.completedFuture(inputs);
+
+        result = result.thenCompose(tensors -> engine.inferAsync(infer.get(), tensors));
+
+        if (post.isPresent()) {
+            result = result.thenCompose(tensors -> engine.inferAsync(post.get(), tensors));
+        }
+
+        return result;
+    }
+
+    private void emitBatchResult(List<Tensor> outputs) {
+        try {
+            List<TensorDescriptor> descriptors = outputs.stream().map(Tensor::getDescriptor).collect(Collectors.toList());
+            this.wireSupport.emit(TensorListAdapter.givenDescriptors(descriptors).fromTensorList(outputs));
+        } catch (KuraException e) {
+            logger.error("Error processing inference result.", e);
+        }
+    }
+
+    private void closeBatcher() {
+        InferenceBatcher currentBatcher = this.batcher;
+        this.batcher = null;
+
+        if (currentBatcher != null) {
+            currentBatcher.close();
+        }
+    }
+
     private void loadModelInfos() throws KuraException {
         if (this.inferenceEngineService != null && this.inferenceEngineService.isEngineReady()) {
             Optional<String> namePre = this.options.getPreprocessorModelName();
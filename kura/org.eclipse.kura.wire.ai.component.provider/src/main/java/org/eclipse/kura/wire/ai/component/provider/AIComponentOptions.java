@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,14 @@ public class AIComponentOptions {
     private static final String PREPROCESSOR_MODEL_NAME = "preprocessor.model.name";
     private static final String INFERENCE_MODEL_NAME = "inference.model.name";
     private static final String POSTPROCESSOR_MODEL_NAME = "postprocessor.model.name";
+    private static final String BATCH_ENABLED = "batch.enabled";
+    private static final String BATCH_MAX_SIZE = "batch.max.size";
+    private static final String BATCH_MAX_DELAY_MS = "batch.max.delay.ms";
+    private static final String BATCH_MAX_IN_FLIGHT = "batch.max.in.flight";
+
+    private static final int DEFAULT_BATCH_MAX_SIZE = 8;
+    private static final int DEFAULT_BATCH_MAX_DELAY_MS = 10;
+    private static final int DEFAULT_BATCH_MAX_IN_FLIGHT = 2;
 
     private final Map<String, Object> properties;
 
@@ -45,4 +53,26 @@ public class AIComponentOptions {
         return (value != null && !value.trim().isEmpty()) ? Optional.of(value.trim()) : Optional.empty();
     }
 
+    public boolean isBatchEnabled() {
+        Object value = this.properties.get(BATCH_ENABLED);
+        return value instanceof Boolean && (Boolean) value;
+    }
+
+    public int getBatchMaxSize() {
+        return getInteger(BATCH_MAX_SIZE, DEFAULT_BATCH_MAX_SIZE, 1);
+    }
+
+    public int getBatchMaxDelayMs() {
+        return getInteger(BATCH_MAX_DELAY_MS, DEFAULT_BATCH_MAX_DELAY_MS, 0);
+    }
+
+    public int getBatchMaxInFlight() {
+        return getInteger(BATCH_MAX_IN_FLIGHT, DEFAULT_BATCH_MAX_IN_FLIGHT, 1);
+    }
+
+    private int getInteger(String key, int defaultValue, int minValue) {
+        Object value = this.properties.get(key);
+        return value instanceof Integer ? Math.max(minValue, (Integer) value) : defaultValue;
+    }
+
 }
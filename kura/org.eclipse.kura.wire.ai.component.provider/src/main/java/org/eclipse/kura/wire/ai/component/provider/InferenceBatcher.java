@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.ai.component.provider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.eclipse.kura.ai.inference.Tensor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Accumulates inference requests and runs them as a single batched inference when the maximum batch size is
+ * reached or the maximum delay since the first queued request expires.
+ * <br>
+ * Up to a configurable number of batches can be in progress at the same time, further batches wait for one of
+ * them to complete. The results are delivered in the same order of the requests, regardless of the order in
+ * which the batches complete. If the inputs of a batch cannot be merged, or the batched inference fails, for example
+ * because the model does not accept the batched shape, its requests are run one by one.
+ */
+final class InferenceBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceBatcher.class);
+
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final Semaphore inFlightBatches;
+    private final Function<List<Tensor>, CompletionStage<List<Tensor>>> pipeline;
+    private final Consumer<List<Tensor>> resultConsumer;
+    private final ScheduledExecutorService scheduler;
+
+    private List<List<Tensor>> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    private long nextBatch;
+    private boolean closed;
+
+    private final Object deliveryLock = new Object();
+    private final Map<Long, List<Optional<List<Tensor>>>> completedBatches = new HashMap<>();
+    private long nextBatchToDeliver;
+
+    /**
+     * Creates a new batcher.
+     *
+     * @param options
+     *            the component options, providing the batch size, the delay and the number of batches in flight
+     * @param pipeline
+     *            runs the inference of a list of input tensors
+     * @param resultConsumer
+     *            receives the output tensors of each request, in request order. It is called by a single thread at a
+     *            time.
+     */
+    InferenceBatcher(AIComponentOptions options, Function<List<Tensor>, CompletionStage<List<Tensor>>> pipeline,
+            Consumer<List<Tensor>> resultConsumer) {
+        this.maxBatchSize = options.getBatchMaxSize();
+        this.maxDelayMillis = options.getBatchMaxDelayMs();
+        this.inFlightBatches = new Semaphore(options.getBatchMaxInFlight());
+        this.pipeline = pipeline;
+        this.resultConsumer = resultConsumer;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AIComponentBatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the input tensors of a request.
+     *
+     * @param inputs
+     *            the input tensors
+     */
+    void submit(List<Tensor> inputs) {
+        List<List<Tensor>> batch = null;
+        long batchNumber = 0;
+
+        synchronized (this) {
+            if (this.closed) {
+                logger.warn("Batcher closed, discarding request");
+                return;
+            }
+
+            this.pending.add(inputs);
+
+            if (this.pending.size() >= this.maxBatchSize) {
+                batchNumber = this.nextBatch;
+                batch = takePending();
+            } else if (this.pending.size() == 1) {
+                this.flushTask = this.scheduler.schedule(this::flush, this.maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batch != null) {
+            run(batchNumber, batch);
+        }
+    }
+
+    /**
+     * Runs the queued requests, if any.
+     */
+    void flush() {
+        List<List<Tensor>> batch;
+        long batchNumber;
+
+        synchronized (this) {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+
+            batchNumber = this.nextBatch;
+            batch = takePending();
+        }
+
+        run(batchNumber, batch);
+    }
+
+    /**
+     * Runs the queued requests and stops accepting new ones. Batches in progress are delivered when they complete.
+     */
+    void close() {
+        flush();
+
+        synchronized (this) {
+            this.closed = true;
+        }
+
+        this.scheduler.shutdown();
+    }
+
+    private List<List<Tensor>> takePending() {
+        List<List<Tensor>> batch = this.pending;
+
+        this.pending = new ArrayList<>();
+        this.nextBatch++;
+
+        if (this.flushTask != null) {
+            this.flushTask.cancel(false);
+            this.flushTask = null;
+        }
+
+        return batch;
+    }
+
+    private void run(long batchNumber, List<List<Tensor>> batch) {
+        try {
+            this.inFlightBatches.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for a batch to complete, discarding {} requests", batch.size());
+            deliver(batchNumber, Collections.nCopies(batch.size(), Optional.empty()));
+            return;
+        }
+
+        runBatchedOrOneByOne(batch).whenComplete((outputs, error) -> {
+            this.inFlightBatches.release();
+
+            if (error != null) {
+                logger.error("Error processing batch", error);
+                deliver(batchNumber, Collections.nCopies(batch.size(), Optional.empty()));
+            } else {
+                deliver(batchNumber, outputs);
+            }
+        });
+    }
+
+    private CompletionStage<List<Optional<List<Tensor>>>> runBatchedOrOneByOne(List<List<Tensor>> batch) {
+        CompletionStage<List<Optional<List<Tensor>>>> result;
+
+        try {
+            result = runBatched(batch);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Cannot batch requests, running them one by one", e);
+            return runOneByOne(batch);
+        }
+
+        if (batch.size() == 1) {
+            return result;
+        }
+
+        // the server rejects batches that do not match the model configuration only when they are run
+        return result.handle((outputs, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(outputs);
+            }
+
+            logger.debug("Batched inference failed, running requests one by one", error);
+            return runOneByOne(batch);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletionStage<List<Optional<List<Tensor>>>> runBatched(List<List<Tensor>> batch) {
+        if (batch.size() == 1) {
+            return runPipeline(batch.get(0)).thenApply(outputs -> Collections.singletonList(Optional.of(outputs)));
+        }
+
+        TensorBatch tensorBatch = TensorBatch.of(batch);
+        List<Tensor> inputs = tensorBatch.concat(batch);
+
+        return runPipeline(inputs).thenApply(outputs -> {
+            List<Optional<List<Tensor>>> result = new ArrayList<>(tensorBatch.size());
+            tensorBatch.split(outputs).forEach(output -> result.add(Optional.of(output)));
+            return result;
+        });
+    }
+
+    private CompletionStage<List<Optional<List<Tensor>>>> runOneByOne(List<List<Tensor>> batch) {
+        List<CompletableFuture<Optional<List<Tensor>>>> results = new ArrayList<>(batch.size());
+
+        for (List<Tensor> inputs : batch) {
+            results.add(runPipeline(inputs).toCompletableFuture().handle((outputs, error) -> {
+                if (error != null) {
+                    logger.error("Error processing request", error);
+                    return Optional.<List<Tensor>> empty();
+                }
+                return Optional.of(outputs);
+            }));
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<Optional<List<Tensor>>> result = new ArrayList<>(results.size());
+            results.forEach(r -> result.add(r.join()));
+            return result;
+        });
+    }
+
+    private CompletionStage<List<Tensor>> runPipeline(List<Tensor> inputs) {
+        try {
+            return this.pipeline.apply(inputs);
+        } catch (RuntimeException e) {
+            CompletableFuture<List<Tensor>> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+    }
+
+    private void deliver(long batchNumber, List<Optional<List<Tensor>>> outputs) {
+        synchronized (this.deliveryLock) {
+            this.completedBatches.put(batchNumber, outputs);
+
+            List<Optional<List<Tensor>>> next;
+            while ((next = this.completedBatches.remove(this.nextBatchToDeliver)) != null) {
+                this.nextBatchToDeliver++;
+
+                for (Optional<List<Tensor>> output : next) {
+                    output.ifPresent(this::accept);
+                }
+            }
+        }
+    }
+
+    private void accept(List<Tensor> outputs) {
+        try {
+            this.resultConsumer.accept(outputs);
+        } catch (Exception e) {
+            logger.error("Error delivering inference result", e);
+        }
+    }
+}
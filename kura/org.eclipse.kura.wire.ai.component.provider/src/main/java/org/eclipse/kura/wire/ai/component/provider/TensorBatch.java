@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.ai.component.provider;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
+import org.eclipse.kura.ai.inference.TensorDescriptorBuilder;
+
+/**
+ * Merges the input tensors of several requests into a single batch and splits the batched outputs back.
+ * <br>
+ * The first dimension of every tensor is the batch dimension: the tensors are concatenated along it and the
+ * outputs are split according to the number of rows contributed by each request. A batch dimension with a non
+ * positive size, like the -1 reported for models that accept variable batch sizes, is computed from the number of
+ * elements of the tensor.
+ */
+final class TensorBatch {
+
+    private final int[] rows;
+    private final int totalRows;
+
+    private TensorBatch(int[] rows) {
+        this.rows = rows;
+
+        int total = 0;
+        for (int r : rows) {
+            total += r;
+        }
+        this.totalRows = total;
+    }
+
+    /**
+     * Creates a batch from the input tensors of several requests.
+     *
+     * @param requests
+     *            the input tensors of each request, every request must provide the same tensors in the same order
+     * @return the batch
+     * @throws IllegalArgumentException
+     *             if the tensors cannot be batched
+     */
+    static TensorBatch of(List<List<Tensor>> requests) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("The batch is empty");
+        }
+
+        int[] rows = new int[requests.size()];
+
+        for (int i = 0; i < rows.length; i++) {
+            List<Tensor> tensors = requests.get(i);
+
+            if (tensors.isEmpty() || tensors.size() != requests.get(0).size()) {
+                throw new IllegalArgumentException("All the requests of a batch must have the same inputs");
+            }
+
+            rows[i] = getRows(tensors.get(0));
+
+            for (Tensor tensor : tensors) {
+                if (getRows(tensor) != rows[i]) {
+                    throw new IllegalArgumentException("The inputs of a request have different batch sizes");
+                }
+            }
+        }
+
+        return new TensorBatch(rows);
+    }
+
+    int size() {
+        return this.rows.length;
+    }
+
+    /**
+     * Concatenates the input tensors of the requests.
+     *
+     * @param requests
+     *            the same list used to create the batch
+     * @return the batched input tensors, backed by little endian buffers
+     */
+    List<Tensor> concat(List<List<Tensor>> requests) {
+        List<Tensor> result = new ArrayList<>();
+
+        for (int input = 0; input < requests.get(0).size(); input++) {
+            Tensor first = requests.get(0).get(input);
+            List<Long> innerShape = getInnerShape(first);
+            int elementSize = getElementSize(first.getType());
+
+            int totalElements = 0;
+            for (List<Tensor> request : requests) {
+                Tensor tensor = request.get(input);
+
+                if (tensor.getType() != first.getType()
+                        || !tensor.getDescriptor().getName().equals(first.getDescriptor().getName())
+                        || !getInnerShape(tensor).equals(innerShape)) {
+                    throw new IllegalArgumentException(
+                            "Input " + first.getDescriptor().getName() + " differs between the requests");
+                }
+                totalElements += getElementCount(tensor);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(totalElements * elementSize).order(ByteOrder.LITTLE_ENDIAN);
+
+            for (List<Tensor> request : requests) {
+                put(buffer, request.get(input));
+            }
+
+            buffer.flip();
+
+            result.add(new Tensor(first.getType(), withBatchSize(first.getDescriptor(), this.totalRows), buffer));
+        }
+
+        return result;
+    }
+
+    /**
+     * Splits the batched output tensors.
+     *
+     * @param outputs
+     *            the batched output tensors
+     * @return the output tensors of each request, in the same order used to create the batch
+     * @throws IllegalArgumentException
+     *             if the outputs cannot be split
+     */
+    List<List<Tensor>> split(List<Tensor> outputs) {
+        List<List<Tensor>> result = new ArrayList<>(this.rows.length);
+
+        for (int i = 0; i < this.rows.length; i++) {
+            result.add(new ArrayList<>(outputs.size()));
+        }
+
+        for (Tensor output : outputs) {
+            List<Long> shape = output.getDescriptor().getShape();
+            int elementCount = getElementCount(output);
+
+            if (shape.isEmpty() || shape.get(0) > 0 && shape.get(0) != this.totalRows
+                    || elementCount % this.totalRows != 0) {
+                throw new IllegalArgumentException(
+                        "Output " + output.getDescriptor().getName() + " does not match the batch size");
+            }
+
+            int rowElements = elementCount / this.totalRows;
+            int offset = 0;
+
+            for (int i = 0; i < this.rows.length; i++) {
+                int count = this.rows[i] * rowElements;
+                TensorDescriptor descriptor = withBatchSize(output.getDescriptor(), this.rows[i]);
+
+                result.get(i).add(slice(output, descriptor, offset, count));
+                offset += count;
+            }
+        }
+
+        return result;
+    }
+
+    private static Tensor slice(Tensor tensor, TensorDescriptor descriptor, int offset, int count) {
+        Optional<ByteBuffer> buffer = tensor.getBuffer();
+
+        if (buffer.isPresent()) {
+            int elementSize = getElementSize(tensor.getType());
+            ByteBuffer slice = buffer.get();
+            slice.position(slice.position() + offset * elementSize);
+            slice.limit(slice.position() + count * elementSize);
+
+            return new Tensor(tensor.getType(), descriptor, slice);
+        }
+
+        return subList(tensor, descriptor, offset, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Tensor subList(Tensor tensor, TensorDescriptor descriptor, int offset, int count) {
+        Class<T> type = (Class<T>) tensor.getType();
+        List<T> data = tensor.getData(type).orElseThrow(IllegalArgumentException::new);
+
+        return new Tensor(type, descriptor, data.subList(offset, offset + count));
+    }
+
+    private static void put(ByteBuffer buffer, Tensor tensor) {
+        Class<?> type = tensor.getType();
+        Optional<ByteBuffer> source = tensor.getBuffer();
+
+        if (source.isPresent()) {
+            putBuffer(buffer, type, source.get());
+            return;
+        }
+
+        for (Object value : tensor.getData(type).orElseThrow(IllegalArgumentException::new)) {
+            if (type == Boolean.class) {
+                buffer.put((Boolean) value ? (byte) 1 : (byte) 0);
+            } else if (type == Byte.class) {
+                buffer.put((Byte) value);
+            } else if (type == Short.class) {
+                buffer.putShort((Short) value);
+            } else if (type == Integer.class) {
+                buffer.putInt((Integer) value);
+            } else if (type == Long.class) {
+                buffer.putLong((Long) value);
+            } else if (type == Float.class) {
+                buffer.putFloat((Float) value);
+            } else {
+                buffer.putDouble((Double) value);
+            }
+        }
+    }
+
+    private static void putBuffer(ByteBuffer buffer, Class<?> type, ByteBuffer source) {
+        int elementSize = getElementSize(type);
+        int length = source.remaining();
+
+        if (elementSize == 1 || source.order() == buffer.order()) {
+            buffer.put(source);
+            return;
+        }
+
+        ByteBuffer target = buffer.slice().order(buffer.order());
+
+        if (elementSize == Short.BYTES) {
+            target.asShortBuffer().put(source.asShortBuffer());
+        } else if (elementSize == Integer.BYTES) {
+            target.asIntBuffer().put(source.asIntBuffer());
+        } else {
+            target.asLongBuffer().put(source.asLongBuffer());
+        }
+
+        buffer.position(buffer.position() + length);
+    }
+
+    private static int getRows(Tensor tensor) {
+        List<Long> shape = tensor.getDescriptor().getShape();
+
+        if (shape.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Input " + tensor.getDescriptor().getName() + " does not have a batch dimension");
+        }
+
+        if (shape.get(0) > 0) {
+            return shape.get(0).intValue();
+        }
+
+        long rowElements = 1;
+        for (long dimension : getInnerShape(tensor)) {
+            if (dimension <= 0) {
+                throw new IllegalArgumentException(
+                        "Input " + tensor.getDescriptor().getName() + " has more than one variable dimension");
+            }
+            rowElements *= dimension;
+        }
+
+        int elementCount = getElementCount(tensor);
+
+        if (elementCount == 0 || elementCount % rowElements != 0) {
+            throw new IllegalArgumentException(
+                    "Input " + tensor.getDescriptor().getName() + " does not match its shape");
+        }
+
+        return (int) (elementCount / rowElements);
+    }
+
+    private static List<Long> getInnerShape(Tensor tensor) {
+        List<Long> shape = tensor.getDescriptor().getShape();
+        return shape.subList(1, shape.size());
+    }
+
+    private static int getElementCount(Tensor tensor) {
+        Optional<ByteBuffer> buffer = tensor.getBuffer();
+
+        if (buffer.isPresent()) {
+            return buffer.get().remaining() / getElementSize(tensor.getType());
+        }
+
+        return tensor.getData(tensor.getType()).map(List::size).orElse(0);
+    }
+
+    private static int getElementSize(Class<?> type) {
+        if (type == Boolean.class || type == Byte.class) {
+            return Byte.BYTES;
+        } else if (type == Short.class) {
+            return Short.BYTES;
+        } else if (type == Integer.class || type == Float.class) {
+            return Integer.BYTES;
+        } else if (type == Long.class || type == Double.class) {
+            return Long.BYTES;
+        } else {
+            throw new IllegalArgumentException("Tensors of " + type + " cannot be batched");
+        }
+    }
+
+    private static TensorDescriptor withBatchSize(TensorDescriptor descriptor, int batchSize) {
+        List<Long> shape = new ArrayList<>(descriptor.getShape());
+        shape.set(0, (long) batchSize);
+
+        TensorDescriptorBuilder builder = TensorDescriptor.builder(descriptor.getName(), descriptor.getType(), shape);
+        descriptor.getFormat().ifPresent(builder::format);
+        descriptor.getParameters().forEach(builder::addParameter);
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.asset;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import org.eclipse.kura.driver.Driver;
+
+/**
+ * Limits the number of concurrent read operations issued by asynchronous Wire Assets to the same driver instance.
+ * <br>
+ * Read operations that cannot be started immediately are queued and started in submission order when a running
+ * operation completes. Each operation is started only if the number of running operations is lower than the limit
+ * specified when it has been submitted.
+ */
+final class DriverReadScheduler {
+
+    private static final Map<Driver, DriverReadScheduler> SCHEDULERS = new WeakHashMap<>();
+
+    private final ArrayDeque<PendingRead<?>> pending = new ArrayDeque<>();
+    private int running;
+
+    static synchronized DriverReadScheduler forDriver(final Driver driver) {
+        return SCHEDULERS.computeIfAbsent(driver, d -> new DriverReadScheduler());
+    }
+
+    <T> CompletionStage<T> submit(final int maxConcurrency, final Supplier<CompletionStage<T>> read) {
+        final PendingRead<T> pendingRead = new PendingRead<>(Math.max(1, maxConcurrency), read);
+
+        synchronized (this) {
+            if (!this.pending.isEmpty() || this.running >= pendingRead.maxConcurrency) {
+                this.pending.addLast(pendingRead);
+                return pendingRead.result;
+            }
+
+            this.running++;
+        }
+
+        start(pendingRead);
+
+        return pendingRead.result;
+    }
+
+    synchronized int getRunningCount() {
+        return this.running;
+    }
+
+    synchronized int getPendingCount() {
+        return this.pending.size();
+    }
+
+    private <T> void start(final PendingRead<T> pendingRead) {
+        CompletionStage<T> stage;
+
+        try {
+            stage = pendingRead.read.get();
+        } catch (final Exception e) {
+            final CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            stage = failed;
+        }
+
+        stage.whenComplete((value, error) -> {
+            startNext();
+
+            if (error != null) {
+                pendingRead.result.completeExceptionally(error);
+            } else {
+                pendingRead.result.complete(value);
+            }
+        });
+    }
+
+    private void startNext() {
+        final PendingRead<?> next;
+
+        synchronized (this) {
+            this.running--;
+
+            final PendingRead<?> first = this.pending.peekFirst();
+
+            if (first == null || this.running >= first.maxConcurrency) {
+                return;
+            }
+
+            next = this.pending.pollFirst();
+            this.running++;
+        }
+
+        start(next);
+    }
+
+    private static final class PendingRead<T> {
+
+        private final int maxConcurrency;
+        private final Supplier<CompletionStage<T>> read;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        PendingRead(final int maxConcurrency, final Supplier<CompletionStage<T>> read) {
+            this.maxConcurrency = maxConcurrency;
+            this.read = read;
+        }
+    }
+}
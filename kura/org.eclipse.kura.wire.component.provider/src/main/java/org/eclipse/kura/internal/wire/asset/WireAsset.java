@@ -24,6 +24,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,6 +44,7 @@ import org.eclipse.kura.channel.listener.ChannelEvent;
 import org.eclipse.kura.channel.listener.ChannelListener;
 import org.eclipse.kura.core.configuration.metatype.Tad;
 import org.eclipse.kura.core.configuration.metatype.Tocd;
+import org.eclipse.kura.driver.Driver;
 import org.eclipse.kura.driver.PreparedRead;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.type.TypedValues;
@@ -112,6 +120,11 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
 
     private PreparedEmit preparedEmit;
 
+    private final ExecutorService emitExecutor = new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>());
+
+    private CompletableFuture<Void> pendingRead = CompletableFuture.completedFuture(null);
+
     /**
      * Binds the Wire Helper Service.
      *
@@ -184,6 +197,7 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
     protected void deactivate(final ComponentContext context) {
         logger.debug("Deactivating Wire Asset...");
         super.deactivate(context);
+        this.emitExecutor.shutdown();
         logger.debug("Deactivating Wire Asset...Done");
     }
 
@@ -215,6 +229,9 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
      * Component
      * receives {@code Non Null} {@link WireEnvelop} from its upstream Wire
      * Component(s).
+     * <br/>
+     * If asynchronous reads are enabled, the read operation is only started by
+     * this method and the result is emitted when the driver completes it.
      *
      * @param wireEnvelope
      *                     the received {@link WireEnvelope}
@@ -225,7 +242,11 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
     public void onWireReceive(final WireEnvelope wireEnvelope) {
         requireNonNull(wireEnvelope, "Wire Envelope cannot be null");
 
-        emitAllReadChannels();
+        if (this.options.readAsync()) {
+            startAsyncRead();
+        } else {
+            emitReportedReadChannels();
+        }
 
         final List<WireRecord> records = wireEnvelope.getRecords();
         for (WireRecord wireRecord : records) {
@@ -254,6 +275,46 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
         }
     }
 
+    private void emitReportedReadChannels() {
+        if (hasReadChannels()) {
+            try {
+                emitChannelRecords(readAllReportedChannels());
+            } catch (final Exception e) {
+                logger.error("Error while performing read from the Wire Asset...", e);
+            }
+        }
+    }
+
+    private synchronized void startAsyncRead() {
+        if (!hasReadChannels()) {
+            return;
+        }
+
+        if (!this.pendingRead.isDone()) {
+            logger.debug("Previous read still in progress, skipping read...");
+            return;
+        }
+
+        final Driver driver = getDriver();
+        final CompletionStage<List<ChannelRecord>> read;
+
+        if (driver != null) {
+            read = DriverReadScheduler.forDriver(driver).submit(this.options.getReadMaxConcurrency(),
+                    this::readAllReportedChannelsAsync);
+        } else {
+            read = readAllReportedChannelsAsync();
+        }
+
+        this.pendingRead = read.thenAcceptAsync(this::emitChannelRecords, this.emitExecutor).exceptionally(e -> {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                logger.debug("Wire Asset deactivated, discarding read result");
+            } else {
+                logger.error("Error while performing read from the Wire Asset...", e);
+            }
+            return null;
+        }).toCompletableFuture();
+    }
+
     /**
      * Determine the channels to write
      *
@@ -299,14 +360,9 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
      *                       specification
      * @throws NullPointerException
      *                                  if provided records list is null
-     * @throws IllegalArgumentException
-     *                                  if provided records list is empty
      */
     private void emitChannelRecords(final List<ChannelRecord> channelRecords) {
         requireNonNull(channelRecords, "List of Channel Records cannot be null");
-        if (channelRecords.isEmpty()) {
-            throw new IllegalArgumentException("Channel Records cannot be empty");
-        }
 
         final List<ChannelRecord> toBeEmitted = this.valueChangeCache.map(c -> c.filterRecords(channelRecords))
                 .orElse(channelRecords);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2018, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -47,7 +47,16 @@ public class WireAssetOCD extends BaseAssetOCD {
             + " Channel errors will always be emitted if emit.errors is set to true.";
 
     private static final String EMIT_EMPTY_ENVELOPES_DESCRIPTION = "If set to false, this component will not emit empty envelopes."
-            + " This property can be useful if combined with emit.on.change.";
+            + " This property can be useful if combined with emit.on.change or with channel deadbands.";
+
+    private static final String READ_ASYNC_DESCRIPTION = "If set to true, the read operation triggered by a received"
+            + " envelope is performed asynchronously and the result is emitted when the driver completes it."
+            + " Reads of different assets can run concurrently, a new read is not started if the previous one"
+            + " is still in progress.";
+
+    private static final String READ_MAX_CONCURRENCY_DESCRIPTION = "The maximum number of asynchronous reads that"
+            + " can be in progress at the same time on the driver instance used by this asset,"
+            + " including reads issued by other assets. Only used if read.async is set to true.";
 
     private static void addOptions(Tad target, Enum<?>[] values) {
         final List<Option> options = target.getOption();
@@ -120,6 +129,29 @@ public class WireAssetOCD extends BaseAssetOCD {
 
         addAD(emitEmptyEnvelopesAd);
 
+        final Tad readAsyncAd = new Tad();
+        readAsyncAd.setId(WireAssetOptions.READ_ASYNC_PROP_NAME);
+        readAsyncAd.setName(WireAssetOptions.READ_ASYNC_PROP_NAME);
+        readAsyncAd.setCardinality(0);
+        readAsyncAd.setType(Tscalar.BOOLEAN);
+        readAsyncAd.setDescription(READ_ASYNC_DESCRIPTION);
+        readAsyncAd.setRequired(true);
+        readAsyncAd.setDefault(FALSE);
+
+        addAD(readAsyncAd);
+
+        final Tad readMaxConcurrencyAd = new Tad();
+        readMaxConcurrencyAd.setId(WireAssetOptions.READ_MAX_CONCURRENCY_PROP_NAME);
+        readMaxConcurrencyAd.setName(WireAssetOptions.READ_MAX_CONCURRENCY_PROP_NAME);
+        readMaxConcurrencyAd.setCardinality(0);
+        readMaxConcurrencyAd.setType(Tscalar.INTEGER);
+        readMaxConcurrencyAd.setDescription(READ_MAX_CONCURRENCY_DESCRIPTION);
+        readMaxConcurrencyAd.setRequired(true);
+        readMaxConcurrencyAd.setDefault(Integer.toString(WireAssetOptions.DEFAULT_READ_MAX_CONCURRENCY));
+        readMaxConcurrencyAd.setMin("1");
+
+        addAD(readMaxConcurrencyAd);
+
     }
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2018, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -22,12 +22,18 @@ class WireAssetOptions {
     public static final String EMIT_ERRORS_PROP_NAME = "emit.errors";
     public static final String EMIT_ON_CHANGE_PROP_NAME = "emit.on.change";
     public static final String EMIT_EMPTY_ENVELOPES_PROP_NAME = "emit.empty.envelopes";
+    public static final String READ_ASYNC_PROP_NAME = "read.async";
+    public static final String READ_MAX_CONCURRENCY_PROP_NAME = "read.max.concurrency";
+
+    public static final int DEFAULT_READ_MAX_CONCURRENCY = 1;
 
     private boolean emitAllChannels;
     private TimestampMode timestampMode;
     private boolean emitErrors;
     private boolean emitOnChange;
     private boolean emitEmptyEnvelopes;
+    private boolean readAsync;
+    private int readMaxConcurrency = DEFAULT_READ_MAX_CONCURRENCY;
 
     public WireAssetOptions() {
     }
@@ -37,11 +43,18 @@ class WireAssetOptions {
         final Object emitErrorsProp = properties.get(EMIT_ERRORS_PROP_NAME);
         final Object emitOnChangeProp = properties.get(EMIT_ON_CHANGE_PROP_NAME);
         final Object emitEmptyEnvelopesProp = properties.get(EMIT_EMPTY_ENVELOPES_PROP_NAME);
+        final Object readAsyncProp = properties.get(READ_ASYNC_PROP_NAME);
+        final Object readMaxConcurrencyProp = properties.get(READ_MAX_CONCURRENCY_PROP_NAME);
 
         this.emitAllChannels = emitAllChannelsProp instanceof Boolean && (Boolean) emitAllChannelsProp;
         this.emitErrors = emitErrorsProp instanceof Boolean && (Boolean) emitErrorsProp;
         this.emitOnChange = emitOnChangeProp instanceof Boolean && (Boolean) emitOnChangeProp;
         this.emitEmptyEnvelopes = !(emitEmptyEnvelopesProp instanceof Boolean) || (Boolean) emitEmptyEnvelopesProp;
+        this.readAsync = readAsyncProp instanceof Boolean && (Boolean) readAsyncProp;
+
+        if (readMaxConcurrencyProp instanceof Integer && (Integer) readMaxConcurrencyProp > 0) {
+            this.readMaxConcurrency = (Integer) readMaxConcurrencyProp;
+        }
 
         this.timestampMode = extractTimestampMode(properties);
     }
@@ -66,6 +79,14 @@ class WireAssetOptions {
         return this.emitEmptyEnvelopes;
     }
 
+    public boolean readAsync() {
+        return this.readAsync;
+    }
+
+    public int getReadMaxConcurrency() {
+        return this.readMaxConcurrency;
+    }
+
     private static TimestampMode extractTimestampMode(final Map<String, Object> properties) {
         try {
             return TimestampMode.valueOf(properties.get(TIMESTAMP_MODE_PROP_NAME).toString());
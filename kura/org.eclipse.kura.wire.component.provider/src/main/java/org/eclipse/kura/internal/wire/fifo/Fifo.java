@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -15,12 +15,7 @@ package org.eclipse.kura.internal.wire.fifo;
 import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
 
-import java.util.ArrayList;
 import java.util.Map;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -131,107 +126,81 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
         this.wireSupport.producersConnected(wires);
     }
 
-    private class FifoEmitterThread extends Thread {
+    int getQueueCapacity() {
+        final FifoEmitterThread currentEmitterThread = this.emitterThread;
+        return currentEmitterThread != null ? currentEmitterThread.queue.getCapacity() : 0;
+    }
+
+    int getQueueOccupancy() {
+        final FifoEmitterThread currentEmitterThread = this.emitterThread;
+        return currentEmitterThread != null ? currentEmitterThread.queue.size() : 0;
+    }
 
-        private final Lock lock = new ReentrantLock();
+    long getDroppedEnvelopeCount() {
+        final FifoEmitterThread currentEmitterThread = this.emitterThread;
+        return currentEmitterThread != null ? currentEmitterThread.queue.getDroppedCount() : 0;
+    }
+
+    long getEmittedEnvelopeCount() {
+        final FifoEmitterThread currentEmitterThread = this.emitterThread;
+        return currentEmitterThread != null ? currentEmitterThread.emittedCount : 0;
+    }
 
-        private final Condition producer = this.lock.newCondition();
-        private final Condition consumer = this.lock.newCondition();
+    private class FifoEmitterThread extends Thread {
 
-        private boolean run = true;
-        private final ArrayList<WireEnvelope> queue;
-        private final int queueCapacity;
+        private static final int MAX_BATCH_SIZE = 64;
 
-        private Consumer<WireEnvelope> submitter;
+        private final RingBuffer<WireEnvelope> queue;
+        private final Object[] batch;
+
+        private volatile long emittedCount;
 
         public FifoEmitterThread(String threadName, int queueCapacity, boolean discardEnvelopes) {
-            this.queue = new ArrayList<>();
-            this.queueCapacity = queueCapacity;
+            this.queue = new RingBuffer<>(queueCapacity, discardEnvelopes);
+            this.batch = new Object[Math.min(queueCapacity, MAX_BATCH_SIZE)];
             setName(threadName);
-            if (discardEnvelopes) {
-                this.submitter = getEnvelopeDiscardingSubmitter();
-            } else {
-                this.submitter = getEmitterBlockingSubmitter();
-            }
         }
 
-        private Consumer<WireEnvelope> getEnvelopeDiscardingSubmitter() {
-            return (envelope) -> {
-                try {
-                    this.lock.lock();
-                    if (!this.run || this.queue.size() >= this.queueCapacity) {
-                        logger.debug("envelope discarded");
-                        return;
-                    } else {
-                        this.queue.add(envelope);
-                        this.producer.signal();
-                        logger.debug("envelope submitted");
-                    }
-                } finally {
-                    this.lock.unlock();
-                }
-            };
+        public void shutdown() {
+            this.queue.close();
+            logger.info("{} stopped, emitted envelopes: {}, dropped envelopes: {}", getName(), this.emittedCount,
+                    this.queue.getDroppedCount());
         }
 
-        private Consumer<WireEnvelope> getEmitterBlockingSubmitter() {
-            return (envelope) -> {
-                try {
-                    this.lock.lock();
-                    while (this.run && this.queue.size() >= this.queueCapacity) {
-                        this.consumer.await();
-                    }
-                    if (!this.run) {
-                        return;
-                    }
-                    this.queue.add(envelope);
-                    this.producer.signal();
+        public void submit(WireEnvelope envelope) {
+            try {
+                if (this.queue.offer(envelope)) {
                     logger.debug("envelope submitted");
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Interrupted while adding new envelope to queue", e);
-                } finally {
-                    this.lock.unlock();
+                } else {
+                    logger.debug("envelope discarded");
                 }
-            };
-        }
-
-        public void shutdown() {
-            try {
-                this.lock.lock();
-                this.run = false;
-                this.producer.signalAll();
-                this.consumer.signalAll();
-            } finally {
-                this.lock.unlock();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while adding new envelope to queue", e);
             }
         }
 
-        public void submit(WireEnvelope envelope) {
-            this.submitter.accept(envelope);
-        }
-
         @Override
         public void run() {
-            while (this.run) {
-                try {
-                    WireEnvelope next = null;
+            while (true) {
+                final int count = this.queue.drainTo(this.batch);
+
+                if (count == 0) {
+                    break;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    final WireEnvelope next = (WireEnvelope) this.batch[i];
+                    this.batch[i] = null;
+
                     try {
-                        this.lock.lock();
-                        while (this.run && this.queue.isEmpty()) {
-                            this.producer.await();
-                        }
-                        if (!this.run) {
-                            break;
-                        }
-                        next = this.queue.remove(0);
-                        this.consumer.signal();
-                    } finally {
-                        this.lock.unlock();
+                        Fifo.this.wireSupport.emit(next.getRecords());
+                    } catch (Exception e) {
+                        logger.warn("Unexpected exception while dispatching envelope", e);
                     }
-                    Fifo.this.wireSupport.emit(next.getRecords());
-                } catch (Exception e) {
-                    logger.warn("Unexpected exception while dispatching envelope", e);
                 }
+
+                this.emittedCount += count;
             }
             logger.debug("exiting");
         }
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.fifo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue backed by preallocated arrays, supporting any number of producer threads and a single consumer
+ * thread.
+ * <br>
+ * Each slot has a sequence number that tells whether the slot is free for the producer that claimed the
+ * corresponding position or ready for the consumer. Producers claim positions with a compare and set on the tail
+ * index, that never fails in the single producer case, while the consumer never performs atomic read-modify-write
+ * operations and can remove several elements in a single call.
+ * <br>
+ * A full queue either discards the offered elements or blocks the producer until space is available.
+ *
+ * @param <T>
+ *            the element type
+ */
+class RingBuffer<T> {
+
+    private static final int SPIN_TRIES = 16;
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int slots;
+    private final int capacity;
+    private final boolean discardWhenFull;
+
+    // position of the next element to be read, written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // position of the next element to be written
+    private final AtomicLong tail = new AtomicLong();
+
+    private final Object notFull = new Object();
+    private final AtomicInteger waitingProducers = new AtomicInteger();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean closed;
+    private volatile Thread waitingConsumer;
+
+    RingBuffer(final int capacity, final boolean discardWhenFull) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+
+        // with a single slot the free and ready states of the slot would have the same sequence number
+        this.slots = Math.max(2, capacity);
+        this.elements = new Object[this.slots];
+        this.sequences = new AtomicLongArray(this.slots);
+        this.capacity = capacity;
+        this.discardWhenFull = discardWhenFull;
+
+        for (int i = 0; i < this.slots; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element to the queue.
+     *
+     * @param element
+     *            the element
+     * @return true if the element has been added, false if it has been discarded because the queue is full or closed.
+     * @throws InterruptedException
+     *             if the producer is interrupted while waiting for space
+     */
+    boolean offer(final T element) throws InterruptedException {
+        while (!this.closed) {
+            final long position = this.tail.get();
+            final int index = (int) (position % this.slots);
+            final long difference = this.sequences.get(index) - position;
+
+            final boolean full = difference < 0
+                    || (difference == 0 && this.slots != this.capacity && position - this.head.get() >= this.capacity);
+
+            if (full) {
+                // the slot still contains the element offered one lap before
+                if (this.discardWhenFull) {
+                    break;
+                }
+                awaitNotFull(position);
+            } else if (difference == 0 && this.tail.compareAndSet(position, position + 1)) {
+                this.elements[index] = element;
+                this.sequences.set(index, position + 1);
+                wakeUpConsumer();
+                return true;
+            }
+        }
+
+        this.droppedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Moves up to {@code batch.length} elements to the provided array, waiting for at least one element to be
+     * available. Must be called only by the consumer thread. The elements still in the queue when it is closed are
+     * not returned.
+     *
+     * @param batch
+     *            the destination array
+     * @return the number of elements moved, 0 if the queue has been closed.
+     */
+    int drainTo(final Object[] batch) {
+        long position = this.head.get();
+
+        // producers are likely to offer more elements shortly, avoid parking the consumer for every element
+        for (int i = 0; i < SPIN_TRIES && !isReady(position) && !this.closed; i++) {
+            Thread.yield();
+        }
+
+        while (!isReady(position) || this.closed) {
+            if (this.closed) {
+                return 0;
+            }
+
+            this.waitingConsumer = Thread.currentThread();
+
+            if (!isReady(position) && !this.closed) {
+                LockSupport.park(this);
+            }
+
+            this.waitingConsumer = null;
+        }
+
+        int count = 0;
+
+        while (count < batch.length && isReady(position)) {
+            final int index = (int) (position % this.slots);
+
+            batch[count++] = this.elements[index];
+            this.elements[index] = null;
+            this.sequences.set(index, position + this.slots);
+            position++;
+        }
+
+        this.head.set(position);
+
+        if (this.waitingProducers.get() > 0) {
+            synchronized (this.notFull) {
+                this.notFull.notifyAll();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Closes the queue, elements offered after this call are discarded and the consumer and the blocked producers
+     * are released.
+     */
+    void close() {
+        this.closed = true;
+
+        wakeUpConsumer();
+
+        synchronized (this.notFull) {
+            this.notFull.notifyAll();
+        }
+    }
+
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    int size() {
+        final long currentHead = this.head.get();
+        final long currentTail = this.tail.get();
+
+        return (int) Math.max(0, Math.min(this.capacity, currentTail - currentHead));
+    }
+
+    long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    private boolean isReady(final long position) {
+        return this.sequences.get((int) (position % this.slots)) == position + 1;
+    }
+
+    private void wakeUpConsumer() {
+        final Thread consumer = this.waitingConsumer;
+
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void awaitNotFull(final long position) throws InterruptedException {
+        this.waitingProducers.incrementAndGet();
+
+        try {
+            synchronized (this.notFull) {
+                while (!this.closed && position - this.head.get() >= this.capacity) {
+                    this.notFull.wait();
+                }
+            }
+        } finally {
+            this.waitingProducers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.publisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.kura.message.KuraPayload;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * Encodes multiple {@link WireRecord}s in the metrics of a single {@link KuraPayload} and decodes them back.
+ * <br>
+ * The payload contains the {@value #BATCH_VERSION_METRIC} integer metric with the version of the encoding and the
+ * {@value #BATCH_SIZE_METRIC} integer metric with the number of records, the properties of the record at position
+ * {@code i} are stored as metrics named {@code i.<property name>}. A payload is recognized as a batch only if it has
+ * both metrics and all its other metrics belong to a record of the batch.
+ */
+public final class BatchPayloadCodec {
+
+    public static final String BATCH_VERSION_METRIC = "_batch.version";
+    public static final String BATCH_SIZE_METRIC = "_batch.size";
+
+    private static final int BATCH_VERSION = 1;
+
+    private BatchPayloadCodec() {
+    }
+
+    /**
+     * Adds the properties of the provided records to the metrics of the payload.
+     *
+     * @param payload
+     *            the payload
+     * @param records
+     *            the records
+     */
+    public static void encode(final KuraPayload payload, final List<WireRecord> records) {
+        int index = 0;
+
+        for (final WireRecord record : records) {
+            final String prefix = index + ".";
+
+            for (final Entry<String, TypedValue<?>> e : record.getProperties().entrySet()) {
+                payload.addMetric(prefix + e.getKey(), e.getValue().getValue());
+            }
+
+            index++;
+        }
+
+        payload.addMetric(BATCH_VERSION_METRIC, BATCH_VERSION);
+        payload.addMetric(BATCH_SIZE_METRIC, records.size());
+    }
+
+    /**
+     * Returns whether the provided payload has been created by {@link #encode(KuraPayload, List)}.
+     *
+     * @param payload
+     *            the payload
+     * @return true if the payload contains a batch of records
+     */
+    public static boolean isBatch(final KuraPayload payload) {
+        final Object version = payload.getMetric(BATCH_VERSION_METRIC);
+        final Object size = payload.getMetric(BATCH_SIZE_METRIC);
+
+        if (!(version instanceof Integer) || (Integer) version != BATCH_VERSION || !(size instanceof Integer)
+                || (Integer) size < 0) {
+            return false;
+        }
+
+        for (final String name : payload.metricNames()) {
+            if (name.equals(BATCH_VERSION_METRIC) || name.equals(BATCH_SIZE_METRIC)) {
+                continue;
+            }
+
+            final int index = getIndex(name);
+
+            if (index < 0 || index >= (Integer) size) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Splits the metrics of a batch payload by record. Metrics that do not belong to a record of the batch are
+     * ignored.
+     *
+     * @param payload
+     *            the payload, {@link #isBatch(KuraPayload)} must return true
+     * @return the metrics of each record, in batch order
+     */
+    public static List<Map<String, Object>> decode(final KuraPayload payload) {
+        final int size = (Integer) payload.getMetric(BATCH_SIZE_METRIC);
+        final List<Map<String, Object>> result = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            result.add(new HashMap<>());
+        }
+
+        for (final Entry<String, Object> e : payload.metrics().entrySet()) {
+            final String name = e.getKey();
+            final int index = getIndex(name);
+
+            if (index >= 0 && index < size) {
+                result.get(index).put(name.substring(name.indexOf('.') + 1), e.getValue());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns an estimate of the number of bytes needed to encode the provided record in a batch payload.
+     *
+     * @param record
+     *            the record
+     * @param index
+     *            the position of the record in the batch
+     * @return the estimated size in bytes
+     */
+    static int estimateSize(final WireRecord record, final int index) {
+        final int prefixLength = Integer.toString(index).length() + 1;
+        int result = 0;
+
+        for (final Entry<String, TypedValue<?>> e : record.getProperties().entrySet()) {
+            result += prefixLength + e.getKey().length() + estimateValueSize(e.getValue().getValue());
+        }
+
+        return result;
+    }
+
+    private static int estimateValueSize(final Object value) {
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8).length;
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else {
+            return Long.BYTES;
+        }
+    }
+
+    /**
+     * Returns the index of the record a metric belongs to, or -1 if the metric name does not start with an index.
+     */
+    private static int getIndex(final String name) {
+        final int separator = name.indexOf('.');
+
+        if (separator <= 0) {
+            return -1;
+        }
+
+        int result = 0;
+
+        for (int i = 0; i < separator; i++) {
+            final char c = name.charAt(i);
+
+            if (c < '0' || c > '9' || result > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+
+            result = result * 10 + (c - '0');
+        }
+
+        return result;
+    }
+}
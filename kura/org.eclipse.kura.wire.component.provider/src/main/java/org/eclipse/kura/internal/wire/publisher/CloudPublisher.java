@@ -18,13 +18,18 @@ import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -54,7 +59,12 @@ import org.osgi.service.wireadmin.Wire;
  * <br/>
  *
  * For every {@link WireRecord} as found in {@link WireEnvelope} will be wrapped inside a Kura
- * Payload and will be sent to the Cloud Platform.
+ * Payload and will be sent to the Cloud Platform.<br/>
+ * <br/>
+ *
+ * If batching is enabled, multiple {@link WireRecord}s are encoded in the same Kura Payload using
+ * {@link BatchPayloadCodec}. A batch is published when it reaches the configured number of records or size, or when
+ * its oldest record has waited for the configured maximum latency.
  */
 public final class CloudPublisher implements WireReceiver, ConfigurableComponent {
 
@@ -69,6 +79,13 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
 
     private org.eclipse.kura.cloudconnection.publisher.CloudPublisher cloudConnectionPublisher;
 
+    private final Map<Object, Batch> batches = new HashMap<>();
+    private final Deque<List<WireRecord>> readyBatches = new ArrayDeque<>();
+    private boolean publishing;
+    private ScheduledThreadPoolExecutor batchExecutor;
+    private long publishedRecords;
+    private long publishedMessages;
+
     // ----------------------------------------------------------------
     //
     // Dependencies
@@ -134,9 +151,14 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
      */
     public void updated(final Map<String, Object> properties) {
         logger.debug("Updating Cloud Publisher Wire Component...");
+        flushBatches();
         // Update properties
         this.cloudPublisherOptions = new CloudPublisherOptions(properties);
 
+        if (this.cloudPublisherOptions.getBatchMaxRecords() > 1 && !this.cloudPublisherOptions.isBatchingEnabled()) {
+            logger.warn("Batching is not supported if the message body is set from a property, batching disabled");
+        }
+
         logger.debug("Updating Cloud Publisher Wire Component... Done");
     }
 
@@ -149,6 +171,21 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
     protected void deactivate(final ComponentContext componentContext) {
         logger.debug("Deactivating Cloud Publisher Wire Component...");
 
+        flushBatches();
+
+        synchronized (this.batches) {
+            if (this.publishedMessages > 0) {
+                logger.info("Published {} records in {} batch messages, {} records per message, {} messages saved",
+                        this.publishedRecords, this.publishedMessages, String.format("%.1f", getBatchRatio()),
+                        getMessagesSaved());
+            }
+
+            if (this.batchExecutor != null) {
+                this.batchExecutor.shutdown();
+                this.batchExecutor = null;
+            }
+        }
+
         logger.debug("Deactivating Cloud Publisher Wire Component... Done");
     }
 
@@ -159,7 +196,12 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
 
         if (nonNull(this.cloudConnectionPublisher)) {
             final List<WireRecord> records = wireEnvelope.getRecords();
-            publish(records);
+
+            if (this.cloudPublisherOptions.isBatchingEnabled()) {
+                addToBatches(records);
+            } else {
+                publish(records);
+            }
         }
     }
 
@@ -192,14 +234,7 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
      */
     private KuraPayload buildKuraPayload(final WireRecord wireRecord) {
         requireNonNull(wireRecord, "Wire Record cannot be null");
-        final KuraPayload kuraPayload = new KuraPayload();
-
-        kuraPayload.setTimestamp(new Date());
-
-        if (this.cloudPublisherOptions.getPositionType() != PositionType.NONE) {
-            KuraPosition kuraPosition = getPosition();
-            kuraPayload.setPosition(kuraPosition);
-        }
+        final KuraPayload kuraPayload = newKuraPayload();
 
         final Map<String, TypedValue<?>> wireRecordProperties = wireRecord.getProperties();
 
@@ -216,6 +251,19 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
         return kuraPayload;
     }
 
+    private KuraPayload newKuraPayload() {
+        final KuraPayload kuraPayload = new KuraPayload();
+
+        kuraPayload.setTimestamp(new Date());
+
+        if (this.cloudPublisherOptions.getPositionType() != PositionType.NONE) {
+            KuraPosition kuraPosition = getPosition();
+            kuraPayload.setPosition(kuraPosition);
+        }
+
+        return kuraPayload;
+    }
+
     private void publishBody(final KuraPayload kuraPayload, final Map<String, TypedValue<?>> wireRecordProperties,
             final String bodyProperty) {
         try {
@@ -282,6 +330,136 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
         }
     }
 
+    private void addToBatches(final List<WireRecord> wireRecords) {
+        requireNonNull(wireRecords, "Wire Records cannot be null");
+
+        final CloudPublisherOptions options = this.cloudPublisherOptions;
+        final Optional<String> groupProperty = options.getBatchGroupProperty();
+
+        synchronized (this.batches) {
+            for (final WireRecord wireRecord : wireRecords) {
+                final Object key = groupProperty.map(wireRecord.getProperties()::get).map(TypedValue::getValue)
+                        .orElse(null);
+
+                Batch batch = this.batches.get(key);
+
+                if (batch == null) {
+                    batch = new Batch(key);
+                    this.batches.put(key, batch);
+                    batch.deadline = getBatchExecutor().schedule(batch::flush, options.getBatchMaxLatency(),
+                            TimeUnit.MILLISECONDS);
+                }
+
+                batch.records.add(wireRecord);
+                batch.size += BatchPayloadCodec.estimateSize(wireRecord, batch.records.size() - 1);
+
+                if (batch.records.size() >= options.getBatchMaxRecords() || batch.size >= options.getBatchMaxSize()) {
+                    batch.close();
+                }
+            }
+        }
+
+        publishReadyBatches();
+    }
+
+    private void flushBatches() {
+        synchronized (this.batches) {
+            for (final Batch batch : new ArrayList<>(this.batches.values())) {
+                batch.close();
+            }
+        }
+
+        publishReadyBatches();
+    }
+
+    /**
+     * Publishes the closed batches in the order they have been closed. The cloud publisher is called without holding
+     * the lock on the batches, so that records can be added to the open batches in the meantime. Only one thread at a
+     * time publishes, the others leave their batches to it.
+     */
+    private void publishReadyBatches() {
+        synchronized (this.batches) {
+            if (this.publishing || this.readyBatches.isEmpty()) {
+                return;
+            }
+            this.publishing = true;
+        }
+
+        while (true) {
+            final List<WireRecord> records;
+
+            synchronized (this.batches) {
+                records = this.readyBatches.pollFirst();
+
+                if (records == null) {
+                    this.publishing = false;
+                    return;
+                }
+            }
+
+            publishBatch(records);
+        }
+    }
+
+    private ScheduledThreadPoolExecutor getBatchExecutor() {
+        if (this.batchExecutor == null) {
+            this.batchExecutor = new ScheduledThreadPoolExecutor(1);
+            this.batchExecutor.setRemoveOnCancelPolicy(true);
+        }
+
+        return this.batchExecutor;
+    }
+
+    private void publishBatch(final List<WireRecord> wireRecords) {
+        final org.eclipse.kura.cloudconnection.publisher.CloudPublisher publisher = this.cloudConnectionPublisher;
+
+        if (publisher == null) {
+            logger.warn("Cloud publisher not available, discarding {} records", wireRecords.size());
+            return;
+        }
+
+        try {
+            final KuraPayload kuraPayload = newKuraPayload();
+            BatchPayloadCodec.encode(kuraPayload, wireRecords);
+
+            publisher.publish(new KuraMessage(kuraPayload, buildKuraMessageProperties(wireRecords.get(0))));
+
+            synchronized (this.batches) {
+                this.publishedRecords += wireRecords.size();
+                this.publishedMessages++;
+
+                logger.debug("Published batch of {} records, {} records in {} messages so far, {} messages saved",
+                        wireRecords.size(), this.publishedRecords, this.publishedMessages,
+                        this.publishedRecords - this.publishedMessages);
+            }
+        } catch (final Exception e) {
+            logger.error("Error in publishing wire records using cloud publisher..", e);
+        }
+    }
+
+    /**
+     * Returns the average number of records published in each message since activation, this is the reduction in
+     * the number of messages obtained with batching.
+     *
+     * @return the number of records per message, or 0 if no batch has been published
+     */
+    double getBatchRatio() {
+        synchronized (this.batches) {
+            return this.publishedMessages == 0 ? 0 : (double) this.publishedRecords / this.publishedMessages;
+        }
+    }
+
+    /**
+     * Returns the number of messages that would have been published in addition without batching.
+     *
+     * @return the number of messages saved
+     */
+    long getMessagesSaved() {
+        synchronized (this.batches) {
+            return this.publishedRecords - this.publishedMessages;
+        }
+    }
+
     private Map<String, Object> buildKuraMessageProperties(final WireRecord wireRecord) {
         Map<String, TypedValue<?>> wireRecordProps = wireRecord.getProperties();
 
@@ -300,4 +478,42 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
 
         return properties;
     }
+
+    private class Batch {
+
+        private final Object key;
+        private final List<WireRecord> records = new ArrayList<>();
+        private int size;
+        private ScheduledFuture<?> deadline;
+
+        Batch(final Object key) {
+            this.key = key;
+        }
+
+        void flush() {
+            synchronized (CloudPublisher.this.batches) {
+                close();
+            }
+
+            publishReadyBatches();
+        }
+
+        /**
+         * Moves the records of this batch to the batches ready to be published, must be called holding the lock on
+         * the batches.
+         */
+        void close() {
+            if (CloudPublisher.this.batches.get(this.key) != this) {
+                return;
+            }
+
+            CloudPublisher.this.batches.remove(this.key);
+
+            if (this.deadline != null) {
+                this.deadline.cancel(false);
+            }
+
+            CloudPublisher.this.readyBatches.addLast(this.records);
+        }
+    }
 }
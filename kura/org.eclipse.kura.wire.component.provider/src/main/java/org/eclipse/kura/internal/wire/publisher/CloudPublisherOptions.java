@@ -33,6 +33,15 @@ final class CloudPublisherOptions {
     private static final String CONF_POSITION = "publish.position";
     private static final String CONF_BODY_PROPERTY = "set.body.from.property";
     private static final String CONF_REMOVE_BODY_PROPERTY = "remove.body.from.metrics";
+    private static final String CONF_BATCH_MAX_RECORDS = "batch.max.records";
+    private static final String CONF_BATCH_MAX_SIZE = "batch.max.size";
+    private static final String CONF_BATCH_MAX_LATENCY = "batch.max.latency";
+    private static final String CONF_BATCH_GROUP_PROPERTY = "batch.group.by.property";
+
+    private static final int DEFAULT_BATCH_MAX_RECORDS = 1;
+    private static final int DEFAULT_BATCH_MAX_SIZE = 65536;
+    private static final long DEFAULT_BATCH_MAX_LATENCY = 1000;
+    private static final String DEFAULT_BATCH_GROUP_PROPERTY = "assetName";
 
     private final Map<String, Object> properties;
 
@@ -87,4 +96,70 @@ final class CloudPublisherOptions {
     boolean getRemoveBodyPropertyFromMetrics() {
         return (boolean) this.properties.getOrDefault(CONF_REMOVE_BODY_PROPERTY, false);
     }
+
+    /**
+     * Returns the maximum number of records published in a single message, a value less than 2 disables batching.
+     *
+     * @return the maximum number of records per message
+     */
+    int getBatchMaxRecords() {
+        final Object value = this.properties.get(CONF_BATCH_MAX_RECORDS);
+
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+
+        return DEFAULT_BATCH_MAX_RECORDS;
+    }
+
+    /**
+     * Returns the maximum estimated size in bytes of the metrics of a batch.
+     *
+     * @return the maximum batch size in bytes
+     */
+    int getBatchMaxSize() {
+        final Object value = this.properties.get(CONF_BATCH_MAX_SIZE);
+
+        if (value instanceof Number && ((Number) value).intValue() > 0) {
+            return ((Number) value).intValue();
+        }
+
+        return DEFAULT_BATCH_MAX_SIZE;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a record can wait in a batch before being published.
+     *
+     * @return the maximum batch latency in milliseconds
+     */
+    long getBatchMaxLatency() {
+        final Object value = this.properties.get(CONF_BATCH_MAX_LATENCY);
+
+        if (value instanceof Number && ((Number) value).longValue() >= 0) {
+            return ((Number) value).longValue();
+        }
+
+        return DEFAULT_BATCH_MAX_LATENCY;
+    }
+
+    /**
+     * Returns the name of the record property used to group records in batches, records with different values of
+     * this property are never published in the same message.
+     *
+     * @return the name of the grouping property, if any
+     */
+    Optional<String> getBatchGroupProperty() {
+        final Object propertyRaw = this.properties.getOrDefault(CONF_BATCH_GROUP_PROPERTY,
+                DEFAULT_BATCH_GROUP_PROPERTY);
+
+        if (!(propertyRaw instanceof String) || ((String) propertyRaw).trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of((String) propertyRaw);
+    }
+
+    boolean isBatchingEnabled() {
+        return getBatchMaxRecords() > 1 && !getBodyProperty().isPresent();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.regexfilter;
+
+import static java.util.Objects.requireNonNull;
+import static org.eclipse.kura.internal.wire.regexfilter.FilterType.RETAIN;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The Class {@link KeyFilter} is the compiled form of a {@link RegexFilter} configuration. It decides which keys
+ * of the properties of a Wire Record are retained.
+ * <br>
+ * Regular expressions without metacharacters are matched with {@link String#equals(Object)} and the ones made of
+ * a literal followed by {@code .*} with {@link String#startsWith(String)}. The others are matched with the
+ * compiled {@link Pattern} and the results are memoized, since Wire Records usually carry the same small set of
+ * keys.
+ * <br>
+ * Instances are not thread safe.
+ */
+final class KeyFilter {
+
+    /** Upper bound of the memoized match results, keys beyond it are matched every time */
+    private static final int MAX_MEMOIZED_KEYS = 4096;
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final String ANY_SUFFIX = ".*";
+
+    private final Predicate<String> matcher;
+    private final FilterType type;
+    private final Map<String, Boolean> memoizedResults;
+    private final List<Entry<String, ?>> retainedEntries = new ArrayList<>();
+
+    private KeyFilter(final Predicate<String> matcher, final FilterType type, final boolean memoize) {
+        this.matcher = matcher;
+        this.type = type;
+        this.memoizedResults = memoize ? new HashMap<>() : null;
+    }
+
+    /**
+     * Compiles the provided regular expression
+     *
+     * @param regularExpression
+     *            the regular expression to match
+     * @param type
+     *            the associated type that signifies either to retain matched keys or remove
+     * @return the {@link KeyFilter} instance
+     * @throws NullPointerException
+     *             if any of the arguments is null
+     * @throws java.util.regex.PatternSyntaxException
+     *             If the regular expression's syntax is invalid
+     */
+    static KeyFilter compile(final String regularExpression, final FilterType type) {
+        requireNonNull(regularExpression, "Filter cannot be null");
+        requireNonNull(type, "Filter type cannot be null");
+
+        // anchors are implied, since the whole key has to match
+        String expression = regularExpression;
+        if (expression.startsWith("^")) {
+            expression = expression.substring(1);
+        }
+        if (expression.endsWith("$") && isLiteral(expression.substring(0, expression.length() - 1))) {
+            expression = expression.substring(0, expression.length() - 1);
+        }
+
+        if (ANY_SUFFIX.equals(expression)) {
+            return new KeyFilter(key -> hasNoLineTerminator(key, 0), type, false);
+        }
+        if (isLiteral(expression)) {
+            final String literal = expression;
+            return new KeyFilter(literal::equals, type, false);
+        }
+        if (expression.endsWith(ANY_SUFFIX)
+                && isLiteral(expression.substring(0, expression.length() - ANY_SUFFIX.length()))) {
+            final String prefix = expression.substring(0, expression.length() - ANY_SUFFIX.length());
+            return new KeyFilter(key -> key.startsWith(prefix) && hasNoLineTerminator(key, prefix.length()), type,
+                    false);
+        }
+
+        final Pattern pattern = Pattern.compile(regularExpression);
+        return new KeyFilter(key -> pattern.matcher(key).matches(), type, true);
+    }
+
+    /**
+     * Checks if the provided key is retained
+     *
+     * @param key
+     *            the key to check
+     * @return true if the key is retained, false if it is filtered out
+     */
+    boolean retains(final String key) {
+        return matches(key) == (this.type == RETAIN);
+    }
+
+    /**
+     * Filters out the keys from the provided {@link Map} instance
+     *
+     * @param map
+     *            the {@link Map} instance to filter
+     * @return the provided {@link Map} instance if all of its keys are retained, otherwise a new {@link Map}
+     *         instance comprising the retained keys
+     */
+    <V> Map<String, V> apply(final Map<String, V> map) {
+        // if the properties map is empty, no need to invoke filter mechanism
+        if (map.isEmpty()) {
+            return map;
+        }
+
+        try {
+            for (final Entry<String, V> entry : map.entrySet()) {
+                if (retains(entry.getKey())) {
+                    this.retainedEntries.add(entry);
+                }
+            }
+
+            if (this.retainedEntries.size() == map.size()) {
+                return map;
+            }
+            if (this.retainedEntries.isEmpty()) {
+                return Collections.emptyMap();
+            }
+
+            final Map<String, V> result = new HashMap<>((int) (this.retainedEntries.size() / 0.75f) + 1);
+            for (final Entry<String, ?> entry : this.retainedEntries) {
+                result.put(entry.getKey(), cast(entry.getValue()));
+            }
+            return result;
+        } finally {
+            this.retainedEntries.clear();
+        }
+    }
+
+    private boolean matches(final String key) {
+        if (this.memoizedResults == null) {
+            return this.matcher.test(key);
+        }
+
+        Boolean result = this.memoizedResults.get(key);
+        if (result == null) {
+            result = this.matcher.test(key);
+            if (this.memoizedResults.size() < MAX_MEMOIZED_KEYS) {
+                this.memoizedResults.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(final Object value) {
+        return (V) value;
+    }
+
+    /*
+     * "." does not match line terminators, so ".*" matches the rest of a key only if it has none
+     */
+    private static boolean hasNoLineTerminator(final String key, final int from) {
+        for (int i = from; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLiteral(final String expression) {
+        for (int i = 0; i < expression.length(); i++) {
+            if (METACHARACTERS.indexOf(expression.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Amit Kumar Mondal and others
+ * Copyright (c) 2017, 2023 Amit Kumar Mondal and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,26 +13,16 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.wire.regexfilter;
 
-import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.collectingAndThen;
-import static java.util.stream.Collectors.toMap;
 import static org.eclipse.kura.configuration.ConfigurationService.KURA_SERVICE_PID;
 import static org.eclipse.kura.internal.wire.regexfilter.FilterType.REMOVE;
 import static org.eclipse.kura.internal.wire.regexfilter.FilterType.RETAIN;
-import static org.eclipse.kura.util.collection.CollectionUtil.newArrayList;
-import static org.eclipse.kura.util.collection.CollectionUtil.newHashMap;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.function.Predicate;
-import java.util.function.Supplier;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -74,6 +64,9 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
     /** Associated Filter Type available in the component properties */
     private FilterType filterType;
 
+    /** Compiled form of the filter, null if no valid filter has been associated */
+    private KeyFilter keyFilter;
+
     /** Wire Component PID */
     private String componentPid;
 
@@ -116,6 +109,7 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
         this.filter = String.valueOf(properties.getOrDefault(REGEX_PROP, ""));
         this.componentPid = String.valueOf(properties.get(KURA_SERVICE_PID));
         this.filterType = getType(properties);
+        this.keyFilter = compile(this.filter, this.filterType);
         this.wireSupport = this.wireHelperService.newWireSupport(this,
                 (ServiceReference<WireComponent>) componentContext.getServiceReference());
         logger.debug("Activating Regex Filter... Done");
@@ -131,6 +125,7 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
         logger.debug("Updating Regex Filter...");
         this.filter = String.valueOf(properties.getOrDefault(REGEX_PROP, ""));
         this.filterType = getType(properties);
+        this.keyFilter = compile(this.filter, this.filterType);
         logger.debug("Updating Regex Filter... Done");
     }
 
@@ -162,42 +157,35 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
     @Override
     public synchronized void onWireReceive(final WireEnvelope wireEnvelope) {
         final List<WireRecord> receivedRecords = wireEnvelope.getRecords();
-        if (isNull(this.filter) || this.filter.trim().isEmpty()) {
-            // no filter has been associated
+        if (isNull(this.keyFilter)) {
+            // no valid filter has been associated
             this.wireSupport.emit(receivedRecords);
             return;
         }
 
-        final WireEnvelope filteredWireEnvelope = getFilteredWireEnvelope(receivedRecords, wireEnvelope);
-        this.wireSupport.emit(filteredWireEnvelope.getRecords());
+        this.wireSupport.emit(filter(receivedRecords, this.keyFilter));
     }
 
     /**
-     * Tries to filter the provided list of {@link WireRecord}s that matches the provided filter.
-     * In case of exceptional conditions, it returns the provided non-filtered {@link WireEnvelope}
-     * instance
+     * Compiles the provided filter. In case of an invalid regular expression the Wire Records
+     * will be emitted without filtering.
      *
-     * @param wireRecords
-     *            list of non-filtered {@link WireRecord}s
-     * @param nonFilteredWireEnvelope
-     *            non-filtered {@link WireEnvelope} instance
-     * @return returns A {@link WireEnvelope} instance associating the list of filtered
-     *         {@link WireRecord}s in case of success, otherwise the provided non-filtered
-     *         {@link WireEnvelope} instance
+     * @param filter
+     *            the regular expression to match
+     * @param type
+     *            the associated type that signifies either to retain matched keys or remove
+     * @return the compiled {@link KeyFilter}, or null if the filter is empty or invalid
      */
-    private WireEnvelope getFilteredWireEnvelope(final List<WireRecord> wireRecords,
-            final WireEnvelope nonFilteredWireEnvelope) {
-        WireEnvelope filteredWireEnvelope;
+    private static KeyFilter compile(final String filter, final FilterType type) {
+        if (isNull(filter) || filter.trim().isEmpty()) {
+            return null;
+        }
         try {
-            filteredWireEnvelope = new WireEnvelope(this.componentPid,
-                    filter(wireRecords, this.filter, this.filterType));
-        } catch (final Exception ex) {
-            // if any exception occurs while filtering, just emit the not filtered
-            // Wire Records
-            logger.warn("Error while filtering using provided Regular Expression...", ex);
-            filteredWireEnvelope = nonFilteredWireEnvelope;
+            return KeyFilter.compile(filter, type);
+        } catch (final PatternSyntaxException ex) {
+            logger.warn("Invalid Regular Expression, Wire Records will not be filtered...", ex);
+            return null;
         }
-        return filteredWireEnvelope;
     }
 
     /**
@@ -206,29 +194,24 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
      *
      * @param wireRecords
      *            the list of {@link WireRecord}s
-     * @param filter
-     *            the filter to match
-     * @param type
-     *            the associated type that signifies either to retain matched keys or remove
+     * @param keyFilter
+     *            the compiled filter
      * @return the list of {@link WireRecord}s containing the filtered properties
      * @throws NullPointerException
      *             if any of the arguments is null
-     * @throws java.util.regex.PatternSyntaxException
-     *             If the filter's syntax is invalid
      */
-    private static List<WireRecord> filter(final List<WireRecord> wireRecords, final String filter,
-            final FilterType type) {
+    private static List<WireRecord> filter(final List<WireRecord> wireRecords, final KeyFilter keyFilter) {
         requireNonNull(wireRecords, "Wire Records cannot be null");
-        requireNonNull(filter, "Filter cannot be null");
+        requireNonNull(keyFilter, "Filter cannot be null");
 
-        final List<WireRecord> filteredWireRecords = newArrayList();
+        final List<WireRecord> filteredWireRecords = new ArrayList<>(wireRecords.size());
         for (final WireRecord wireRecord : wireRecords) {
             final Map<String, TypedValue<?>> previousProperties = wireRecord.getProperties();
-            final Map<String, TypedValue<?>> filteredProperties = match(filter, previousProperties, type);
+            final Map<String, TypedValue<?>> filteredProperties = keyFilter.apply(previousProperties);
 
             // If both the maps' references refer to the same map instance, there is no need
             // to create a new Wire Record. This is an optimization functionality, in which
-            // the regular expression filter matches all the provided keys of the properties
+            // the regular expression filter retains all the provided keys of the properties
             // or the properties is empty
             if (previousProperties == filteredProperties) {
                 filteredWireRecords.add(wireRecord);
@@ -240,53 +223,6 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
         return filteredWireRecords;
     }
 
-    /**
-     * Filters out the keys from the provided {@link Map} instance
-     *
-     * @param regularExpression
-     *            the regular expression to match
-     * @param map
-     *            the {@link Map} instance to filter
-     * @param type
-     *            the associated type that signifies either to retain matched keys or remove
-     * @return the {@link Map} instance comprising the keys
-     *         that match the provided regular expression
-     * @throws java.util.regex.PatternSyntaxException
-     *             If the regular expression's syntax is invalid
-     */
-    private static <V> Map<String, V> match(final String regularExpression, final Map<String, V> map,
-            final FilterType type) {
-        // if the properties map is empty, no need to invoke filter mechanism
-        if (map.isEmpty()) {
-            return map;
-        }
-        final Pattern pattern = Pattern.compile(regularExpression);
-        final Set<Entry<String, V>> entrySet = map.entrySet();
-        final Supplier<Stream<Entry<String, V>>> streamSupplier = entrySet::stream;
-        // If the provided regular expression matches all the keys of the provided map,
-        // there is no need to create a new map instance (in case of RETAIN type)
-        final boolean allMatch = streamSupplier.get().allMatch(matches(pattern, type));
-        if (allMatch) {
-            return type == RETAIN ? map : unmodifiableMap(newHashMap());
-        }
-        return streamSupplier.get().filter(matches(pattern, type))
-                .collect(collectingAndThen(toMap(Entry::getKey, Entry::getValue), Collections::unmodifiableMap));
-    }
-
-    /**
-     * The {@link Predicate} instance denoting the provided {@link Pattern} instance to match
-     *
-     * @param pattern
-     *            the {@link Pattern} instance to match
-     * @param type
-     *            the type that signifies either to match entries or not
-     * @return a {@link Predicate} instance
-     */
-    private static <V> Predicate<Entry<String, V>> matches(final Pattern pattern, final FilterType type) {
-        final Predicate<Entry<String, V>> predicate = entry -> pattern.matcher(entry.getKey()).matches();
-        return type == RETAIN ? predicate : predicate.negate();
-    }
-
     /**
      * Returns the associated type of the filter operation
      *
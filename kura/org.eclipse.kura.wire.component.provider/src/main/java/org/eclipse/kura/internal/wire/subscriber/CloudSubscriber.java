@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -29,6 +30,7 @@ import org.apache.logging.log4j.Logger;
 import org.eclipse.kura.cloudconnection.message.KuraMessage;
 import org.eclipse.kura.cloudconnection.subscriber.listener.CloudSubscriberListener;
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.internal.wire.publisher.BatchPayloadCodec;
 import org.eclipse.kura.message.KuraPayload;
 import org.eclipse.kura.type.ByteArrayValue;
 import org.eclipse.kura.type.DataType;
@@ -53,7 +55,11 @@ import org.osgi.service.wireadmin.Wire;
  * For every {@link WireRecord} as found in {@link org.eclipse.kura.wire.WireEnvelope} will be wrapped inside a Kura
  * Payload and will be sent to the Cloud Platform. Unlike Cloud Publisher Wire
  * Component, the user can only avail to wrap every {@link WireRecord} in the default
- * Google Protobuf Payload.
+ * Google Protobuf Payload.<br/>
+ * <br/>
+ *
+ * Payloads containing a batch of records published by the Cloud Publisher Wire Component are split back into one
+ * {@link WireRecord} for each record of the batch.
  */
 public final class CloudSubscriber implements WireEmitter, ConfigurableComponent, CloudSubscriberListener {
 
@@ -175,17 +181,12 @@ public final class CloudSubscriber implements WireEmitter, ConfigurableComponent
     private List<WireRecord> buildWireRecord(final KuraPayload payload) {
         requireNonNull(payload, "Payload cannot be null");
 
-        final Map<String, Object> kuraPayloadProperties = payload.metrics();
-        final Map<String, TypedValue<?>> wireProperties = new HashMap<>();
-
-        for (Entry<String, Object> entry : kuraPayloadProperties.entrySet()) {
-            final String entryKey = entry.getKey();
-            final Object entryValue = entry.getValue();
-
-            final TypedValue<?> convertedValue = TypedValues.newTypedValue(entryValue);
-            wireProperties.put(entryKey, convertedValue);
+        if (BatchPayloadCodec.isBatch(payload)) {
+            return buildBatchWireRecords(payload);
         }
 
+        final Map<String, TypedValue<?>> wireProperties = toWireRecordProperties(payload.metrics());
+
         final Optional<String> bodyProperty = this.options.getBodyProperty();
 
         if (bodyProperty.isPresent()) {
@@ -196,6 +197,31 @@ public final class CloudSubscriber implements WireEmitter, ConfigurableComponent
         return Arrays.asList(wireRecord);
     }
 
+    private List<WireRecord> buildBatchWireRecords(final KuraPayload payload) {
+        final List<Map<String, Object>> batch = BatchPayloadCodec.decode(payload);
+        final List<WireRecord> result = new ArrayList<>(batch.size());
+
+        for (final Map<String, Object> metrics : batch) {
+            result.add(new WireRecord(toWireRecordProperties(metrics)));
+        }
+
+        return result;
+    }
+
+    private static Map<String, TypedValue<?>> toWireRecordProperties(final Map<String, Object> metrics) {
+        final Map<String, TypedValue<?>> wireProperties = new HashMap<>();
+
+        for (Entry<String, Object> entry : metrics.entrySet()) {
+            final String entryKey = entry.getKey();
+            final Object entryValue = entry.getValue();
+
+            final TypedValue<?> convertedValue = TypedValues.newTypedValue(entryValue);
+            wireProperties.put(entryKey, convertedValue);
+        }
+
+        return wireProperties;
+    }
+
     private void emitBody(final Map<String, TypedValue<?>> wireRecordProperties, final KuraPayload payload,
             final String property, final DataType dataType) {
         try {
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a stream of bits written by a {@link BitWriter}.
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final long limit;
+    private long position;
+
+    BitReader(final ByteBuffer buffer, final int offset, final long limit) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    boolean hasRemaining() {
+        return this.position < this.limit;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    long readBits(final int count) {
+        if (this.position + count > this.limit) {
+            throw new IllegalStateException("attempt to read past the end of the bit stream");
+        }
+
+        long result = 0;
+        int left = count;
+
+        while (left > 0) {
+            final int index = this.offset + (int) (this.position >>> 3);
+            final int available = Byte.SIZE - (int) (this.position & 7);
+            final int length = Math.min(available, left);
+            final int bits = (this.buffer.get(index) >>> (available - length)) & ((1 << length) - 1);
+
+            result = result << length | bits;
+
+            this.position += length;
+            left -= length;
+        }
+
+        return result;
+    }
+}
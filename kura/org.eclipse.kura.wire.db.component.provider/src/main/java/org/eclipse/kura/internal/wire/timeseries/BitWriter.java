@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes a stream of bits, most significant bit first, to a region of a {@link ByteBuffer} using absolute
+ * positioning.
+ */
+final class BitWriter {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final long capacity;
+    private long position;
+
+    BitWriter(final ByteBuffer buffer, final int offset, final long position) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.capacity = (long) (buffer.capacity() - offset) * Byte.SIZE;
+        this.position = position;
+    }
+
+    long getPosition() {
+        return this.position;
+    }
+
+    long remaining() {
+        return this.capacity - this.position;
+    }
+
+    void writeBit(final boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Writes the lowest {@code count} bits of the provided value.
+     *
+     * @param value
+     *            the value
+     * @param count
+     *            the number of bits to write, between 0 and 64
+     */
+    void writeBits(final long value, final int count) {
+        if (count > remaining()) {
+            throw new IllegalStateException("not enough space in buffer");
+        }
+
+        int left = count;
+
+        while (left > 0) {
+            final int index = this.offset + (int) (this.position >>> 3);
+            final int free = Byte.SIZE - (int) (this.position & 7);
+            final int length = Math.min(free, left);
+            final int mask = (1 << length) - 1;
+            final int bits = (int) (value >>> (left - length)) & mask;
+            final int shift = free - length;
+
+            final int current = this.buffer.get(index) & ~(mask << shift);
+            this.buffer.put(index, (byte) (current | bits << shift));
+
+            this.position += length;
+            left -= length;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.internal.wire.timeseries.Segment.PointConsumer;
+import org.eclipse.kura.type.TypedValue;
+
+/**
+ * The points of a single channel, stored in a sequence of {@link Segment}s ordered by sequence number. Points are
+ * appended to the last segment, a new segment is started when the last one is full, when it has been loaded from disk
+ * or when the value type of the channel changes.
+ */
+final class ChannelSeries {
+
+    private static final Logger logger = LogManager.getLogger(ChannelSeries.class);
+
+    private static final String DIRECTORY_PREFIX = "c-";
+    private static final String ENCODING = "UTF-8";
+
+    private final String name;
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+
+    private ChannelSeries(final String name, final Path directory, final int segmentSize) {
+        this.name = name;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    static ChannelSeries create(final Path storeDirectory, final String name, final int segmentSize)
+            throws IOException {
+        final Path directory = storeDirectory.resolve(DIRECTORY_PREFIX + URLEncoder.encode(name, ENCODING));
+
+        Files.createDirectories(directory);
+
+        return new ChannelSeries(name, directory, segmentSize);
+    }
+
+    static boolean isChannelDirectory(final Path path) {
+        return Files.isDirectory(path) && path.getFileName().toString().startsWith(DIRECTORY_PREFIX);
+    }
+
+    static ChannelSeries open(final Path directory, final int segmentSize) throws IOException {
+        final String name = URLDecoder.decode(directory.getFileName().toString().substring(DIRECTORY_PREFIX.length()),
+                ENCODING);
+        final ChannelSeries result = new ChannelSeries(name, directory, segmentSize);
+
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Segment.FILE_EXTENSION)) {
+            for (final Path file : files) {
+                try {
+                    final Segment segment = Segment.open(file);
+
+                    if (segment.getCount() == 0) {
+                        segment.delete();
+                    } else {
+                        result.segments.put(segment.getFirstSeq(), segment);
+                    }
+                } catch (final Exception e) {
+                    logger.warn("Failed to load segment {}, skipping", file, e);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    boolean isEmpty() {
+        return this.segments.isEmpty();
+    }
+
+    long getLastSeq() {
+        return this.segments.isEmpty() ? -1 : this.segments.lastEntry().getValue().getLastSeq();
+    }
+
+    void append(final long seq, final long timestamp, final TypedValue<?> value) throws IOException {
+        final Segment last = this.segments.isEmpty() ? null : this.segments.lastEntry().getValue();
+
+        if (last != null) {
+            if (last.append(seq, timestamp, value)) {
+                return;
+            }
+
+            seal(last);
+        }
+
+        final Segment segment = Segment.create(this.directory, seq, value.getType(), this.segmentSize, value);
+
+        segment.append(seq, timestamp, value);
+        this.segments.put(seq, segment);
+    }
+
+    void read(final long fromTimestamp, final long toTimestamp, final long minSeq, final PointConsumer consumer) {
+        final Long start = this.segments.floorKey(minSeq);
+
+        for (final Segment segment : (start != null ? this.segments.tailMap(start, true) : this.segments).values()) {
+            segment.read(fromTimestamp, toTimestamp, minSeq, consumer);
+        }
+    }
+
+    /**
+     * Deletes the segments that only contain points with a sequence number lower than the provided one.
+     */
+    void deleteBefore(final long seq) {
+        final Iterator<Segment> iter = this.segments.values().iterator();
+
+        while (iter.hasNext()) {
+            final Segment segment = iter.next();
+
+            if (segment.getLastSeq() >= seq) {
+                return;
+            }
+
+            try {
+                segment.delete();
+            } catch (final IOException e) {
+                logger.warn("Failed to delete segment of channel {}", this.name, e);
+            }
+
+            iter.remove();
+        }
+    }
+
+    void close() {
+        for (final Segment segment : this.segments.values()) {
+            seal(segment);
+            segment.close();
+        }
+    }
+
+    void delete() {
+        deleteBefore(Long.MAX_VALUE);
+
+        try {
+            Files.deleteIfExists(this.directory);
+        } catch (final IOException e) {
+            logger.warn("Failed to delete directory of channel {}", this.name, e);
+        }
+    }
+
+    private void seal(final Segment segment) {
+        try {
+            segment.seal();
+        } catch (final IOException e) {
+            logger.warn("Failed to truncate segment of channel {}", this.name, e);
+        }
+    }
+}
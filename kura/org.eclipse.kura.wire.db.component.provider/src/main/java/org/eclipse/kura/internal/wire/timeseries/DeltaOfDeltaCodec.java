@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+/**
+ * Encodes a sequence of long values as the difference between consecutive deltas, using the variable length
+ * buckets described in the Gorilla paper. Regularly spaced values, like timestamps sampled at a fixed rate or
+ * monotonic counters, are encoded using a single bit per value.
+ * <br>
+ * The codec is stateful, an instance must be used to either encode or decode a single sequence.
+ */
+final class DeltaOfDeltaCodec {
+
+    static final int MAX_BITS = 4 + Long.SIZE;
+
+    private boolean first = true;
+    private long previous;
+    private long previousDelta;
+
+    void write(final BitWriter writer, final long value) {
+        if (this.first) {
+            writer.writeBits(value, Long.SIZE);
+            this.first = false;
+        } else {
+            final long delta = value - this.previous;
+            final long deltaOfDelta = delta - this.previousDelta;
+            final long zigZag = deltaOfDelta << 1 ^ deltaOfDelta >> 63;
+
+            if (zigZag == 0) {
+                writer.writeBit(false);
+            } else if (zigZag >>> 7 == 0) {
+                writer.writeBits(0b10, 2);
+                writer.writeBits(zigZag, 7);
+            } else if (zigZag >>> 9 == 0) {
+                writer.writeBits(0b110, 3);
+                writer.writeBits(zigZag, 9);
+            } else if (zigZag >>> 12 == 0) {
+                writer.writeBits(0b1110, 4);
+                writer.writeBits(zigZag, 12);
+            } else {
+                writer.writeBits(0b1111, 4);
+                writer.writeBits(zigZag, Long.SIZE);
+            }
+
+            this.previousDelta = delta;
+        }
+
+        this.previous = value;
+    }
+
+    long read(final BitReader reader) {
+        if (this.first) {
+            this.previous = reader.readBits(Long.SIZE);
+            this.first = false;
+            return this.previous;
+        }
+
+        final long zigZag;
+
+        if (!reader.readBit()) {
+            zigZag = 0;
+        } else if (!reader.readBit()) {
+            zigZag = reader.readBits(7);
+        } else if (!reader.readBit()) {
+            zigZag = reader.readBits(9);
+        } else if (!reader.readBit()) {
+            zigZag = reader.readBits(12);
+        } else {
+            zigZag = reader.readBits(Long.SIZE);
+        }
+
+        final long deltaOfDelta = zigZag >>> 1 ^ -(zigZag & 1);
+
+        this.previousDelta += deltaOfDelta;
+        this.previous += this.previousDelta;
+
+        return this.previous;
+    }
+}
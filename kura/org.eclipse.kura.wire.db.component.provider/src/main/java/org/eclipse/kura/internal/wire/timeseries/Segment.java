@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+
+/**
+ * An append-only, memory mapped file containing the points of a channel with a single value type.
+ * <br>
+ * Each point is composed by the sequence number of the record it belongs to, its timestamp and its value. Sequence
+ * numbers and timestamps are encoded using {@link DeltaOfDeltaCodec}, values using the {@link ValueCodec} of the
+ * segment type. The file header contains the sequence number and timestamp ranges of the segment, that are used as a
+ * sparse index to skip segments when reading, and the length of the encoded data. The header is updated after the
+ * data of each point has been written.
+ * <br>
+ * The encoder state is not persisted, segments loaded from disk are sealed and cannot be appended to. When a segment
+ * is sealed or loaded, its file is truncated to the length of the encoded data, so that the space preallocated for
+ * appending is given back.
+ */
+final class Segment {
+
+    static final String FILE_EXTENSION = ".seg";
+
+    private static final int MAGIC = 0x4B545331;
+    private static final byte VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int TYPE_OFFSET = 5;
+    private static final int COUNT_OFFSET = 8;
+    private static final int FIRST_SEQ_OFFSET = 16;
+    private static final int LAST_SEQ_OFFSET = 24;
+    private static final int MIN_TIMESTAMP_OFFSET = 32;
+    private static final int MAX_TIMESTAMP_OFFSET = 40;
+    private static final int BIT_LENGTH_OFFSET = 48;
+    static final int HEADER_SIZE = 64;
+
+    private static final long MAX_POINT_OVERHEAD_BITS = 2L * DeltaOfDeltaCodec.MAX_BITS;
+
+    private final Path file;
+    private final DataType type;
+    private MappedByteBuffer buffer;
+
+    private BitWriter writer;
+    private DeltaOfDeltaCodec seqCodec;
+    private DeltaOfDeltaCodec timestampCodec;
+    private ValueCodec valueCodec;
+
+    private int count;
+    private long firstSeq;
+    private long lastSeq;
+    private long minTimestamp;
+    private long maxTimestamp;
+
+    private Segment(final Path file, final DataType type, final MappedByteBuffer buffer) {
+        this.file = file;
+        this.type = type;
+        this.buffer = buffer;
+    }
+
+    static Segment create(final Path directory, final long firstSeq, final DataType type, final int minSize,
+            final TypedValue<?> firstValue) throws IOException {
+        final long requiredSize = HEADER_SIZE
+                + (MAX_POINT_OVERHEAD_BITS + ValueCodec.forType(type).getMaxBits(firstValue) + 7) / Byte.SIZE;
+
+        if (requiredSize > Integer.MAX_VALUE) {
+            throw new IOException("value too large");
+        }
+
+        final int size = (int) Math.max(minSize, requiredSize);
+        final Path file = directory.resolve(getFileName(firstSeq));
+
+        final MappedByteBuffer buffer;
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(MapMode.READ_WRITE, 0, size);
+        }
+
+        final Segment result = new Segment(file, type, buffer);
+
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.put(VERSION_OFFSET, VERSION);
+        buffer.put(TYPE_OFFSET, ValueCodec.getTypeCode(type));
+
+        result.writer = new BitWriter(buffer, HEADER_SIZE, 0);
+        result.seqCodec = new DeltaOfDeltaCodec();
+        result.timestampCodec = new DeltaOfDeltaCodec();
+        result.valueCodec = ValueCodec.forType(type);
+        result.writeHeader();
+
+        return result;
+    }
+
+    static Segment open(final Path file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("segment file is truncated: " + file);
+            }
+
+            final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.get(VERSION_OFFSET) != VERSION) {
+                release(buffer);
+                throw new IOException("unsupported segment file: " + file);
+            }
+
+            final Segment result = new Segment(file, ValueCodec.fromTypeCode(buffer.get(TYPE_OFFSET)), buffer);
+
+            result.count = buffer.getInt(COUNT_OFFSET);
+            result.firstSeq = buffer.getLong(FIRST_SEQ_OFFSET);
+            result.lastSeq = buffer.getLong(LAST_SEQ_OFFSET);
+            result.minTimestamp = buffer.getLong(MIN_TIMESTAMP_OFFSET);
+            result.maxTimestamp = buffer.getLong(MAX_TIMESTAMP_OFFSET);
+
+            if (result.getBitLength() > (long) (buffer.capacity() - HEADER_SIZE) * Byte.SIZE) {
+                release(buffer);
+                throw new IOException("segment file is corrupted: " + file);
+            }
+
+            // the segment was not sealed, e.g. because of a crash
+            if (result.getUsedSize() < channel.size()) {
+                result.truncate(channel);
+            }
+
+            return result;
+        }
+    }
+
+    static String getFileName(final long firstSeq) {
+        return String.format("%020d", firstSeq) + FILE_EXTENSION;
+    }
+
+    DataType getType() {
+        return this.type;
+    }
+
+    int getCount() {
+        return this.count;
+    }
+
+    long getFirstSeq() {
+        return this.firstSeq;
+    }
+
+    long getLastSeq() {
+        return this.lastSeq;
+    }
+
+    long getMinTimestamp() {
+        return this.minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return this.maxTimestamp;
+    }
+
+    boolean isSealed() {
+        return this.writer == null;
+    }
+
+    /**
+     * Appends a point to this segment.
+     *
+     * @return false if the segment is sealed, if its type is different from the type of the value or if there is not
+     *         enough space left for the point.
+     */
+    boolean append(final long seq, final long timestamp, final TypedValue<?> value) {
+        if (this.writer == null || value.getType() != this.type
+                || this.writer.remaining() < MAX_POINT_OVERHEAD_BITS + this.valueCodec.getMaxBits(value)) {
+            return false;
+        }
+
+        this.seqCodec.write(this.writer, seq);
+        this.timestampCodec.write(this.writer, timestamp);
+        this.valueCodec.write(this.writer, value);
+
+        if (this.count == 0) {
+            this.firstSeq = seq;
+            this.minTimestamp = timestamp;
+            this.maxTimestamp = timestamp;
+        } else {
+            this.minTimestamp = Math.min(this.minTimestamp, timestamp);
+            this.maxTimestamp = Math.max(this.maxTimestamp, timestamp);
+        }
+
+        this.lastSeq = seq;
+        this.count++;
+
+        writeHeader();
+
+        return true;
+    }
+
+    /**
+     * Decodes the points of this segment, in sequence number order, and provides to the consumer the ones with a
+     * timestamp in the given range and a sequence number not lower than {@code minSeq}.
+     */
+    void read(final long fromTimestamp, final long toTimestamp, final long minSeq, final PointConsumer consumer) {
+        if (this.count == 0 || this.lastSeq < minSeq || this.maxTimestamp < fromTimestamp
+                || this.minTimestamp > toTimestamp) {
+            return;
+        }
+
+        final BitReader reader = new BitReader(this.buffer, HEADER_SIZE, getBitLength());
+        final DeltaOfDeltaCodec seqDecoder = new DeltaOfDeltaCodec();
+        final DeltaOfDeltaCodec timestampDecoder = new DeltaOfDeltaCodec();
+        final ValueCodec valueDecoder = ValueCodec.forType(this.type);
+
+        for (int i = 0; i < this.count; i++) {
+            final long seq = seqDecoder.read(reader);
+            final long timestamp = timestampDecoder.read(reader);
+            final TypedValue<?> value = valueDecoder.read(reader);
+
+            if (seq >= minSeq && timestamp >= fromTimestamp && timestamp <= toTimestamp) {
+                consumer.accept(seq, timestamp, value);
+            }
+        }
+    }
+
+    /**
+     * Seals this segment and truncates its file to the length of the encoded data.
+     *
+     * @throws IOException
+     *             if the file cannot be truncated, the segment is sealed anyway.
+     */
+    void seal() throws IOException {
+        if (this.writer != null) {
+            this.buffer.force();
+            this.writer = null;
+            this.seqCodec = null;
+            this.timestampCodec = null;
+            this.valueCodec = null;
+
+            try (final FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                truncate(channel);
+            }
+        }
+    }
+
+    /**
+     * Releases the file mapping of this segment, the segment cannot be used anymore.
+     */
+    void close() {
+        this.writer = null;
+
+        if (this.buffer != null) {
+            release(this.buffer);
+            this.buffer = null;
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(this.file);
+    }
+
+    private long getBitLength() {
+        return this.writer != null ? this.writer.getPosition() : this.buffer.getLong(BIT_LENGTH_OFFSET);
+    }
+
+    private long getUsedSize() {
+        return HEADER_SIZE + (getBitLength() + 7) / Byte.SIZE;
+    }
+
+    private void truncate(final FileChannel channel) throws IOException {
+        final long usedSize = getUsedSize();
+        final MappedByteBuffer truncated = channel.map(MapMode.READ_ONLY, 0, usedSize);
+
+        release(this.buffer);
+        this.buffer = truncated;
+
+        channel.truncate(usedSize);
+    }
+
+    /**
+     * Unmaps a buffer without waiting for it to be garbage collected, the buffer must not be accessed afterwards.
+     * If the JVM does not allow to do this the mapping is released by the garbage collector.
+     */
+    private static void release(final ByteBuffer buffer) {
+        try {
+            try {
+                // Java 9 and later, the class is loaded by the boot class loader as Kura does not set bootdelegation
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe", false, null);
+                final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (final NoSuchMethodException e) {
+                // Java 8
+                final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+
+                final Object cleaner = cleanerMethod.invoke(buffer);
+
+                if (cleaner != null) {
+                    final Method clean = cleaner.getClass().getMethod("clean");
+                    clean.setAccessible(true);
+                    clean.invoke(cleaner);
+                }
+            }
+        } catch (final Exception | LinkageError e) {
+            // left to the garbage collector
+        }
+    }
+
+    private void writeHeader() {
+        this.buffer.putInt(COUNT_OFFSET, this.count);
+        this.buffer.putLong(FIRST_SEQ_OFFSET, this.firstSeq);
+        this.buffer.putLong(LAST_SEQ_OFFSET, this.lastSeq);
+        this.buffer.putLong(MIN_TIMESTAMP_OFFSET, this.minTimestamp);
+        this.buffer.putLong(MAX_TIMESTAMP_OFFSET, this.maxTimestamp);
+        this.buffer.putLong(BIT_LENGTH_OFFSET, this.writer.getPosition());
+    }
+
+    @FunctionalInterface
+    interface PointConsumer {
+
+        void accept(long seq, long timestamp, TypedValue<?> value);
+    }
+}
@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A query on a time series wire record store.
+ * <br>
+ * Queries are expressed as a list of {@code key=value} pairs separated by semicolons, the supported keys are:
+ * <ul>
+ * <li>{@code store}: the name of the store to query, required.</li>
+ * <li>{@code channels}: a comma separated list of the channels to return, all channels are returned if not
+ * specified.</li>
+ * <li>{@code from} and {@code to}: the time range to return, inclusive, as milliseconds since the epoch. Negative
+ * values are relative to the current time, for example {@code from=-3600000} selects the last hour.</li>
+ * <li>{@code interval}: if specified, the points are grouped in time buckets of the given length in milliseconds and
+ * a single record is returned for each bucket.</li>
+ * <li>{@code aggregate}: the function used to compute the value of a channel in a bucket, one of {@code avg},
+ * {@code min}, {@code max}, {@code sum}, {@code count}, {@code first} and {@code last}. Defaults to {@code avg}.</li>
+ * <li>{@code order}: {@code asc} or {@code desc}, defaults to {@code asc}.</li>
+ * <li>{@code limit}: the maximum number of records to return, the records are selected starting from the beginning
+ * or the end of the time range depending on {@code order}.</li>
+ * </ul>
+ * Example: {@code store=WR_data;channels=temperature,pressure;from=-86400000;interval=60000;aggregate=avg}
+ */
+public final class TimeSeriesQuery {
+
+    public enum Aggregate {
+        AVG,
+        MIN,
+        MAX,
+        SUM,
+        COUNT,
+        FIRST,
+        LAST
+    }
+
+    public enum Order {
+        ASC,
+        DESC
+    }
+
+    private final String storeName;
+    private final Set<String> channels;
+    private final long fromTimestamp;
+    private final long toTimestamp;
+    private final long interval;
+    private final Aggregate aggregate;
+    private final Order order;
+    private final int limit;
+
+    private TimeSeriesQuery(final Builder builder) {
+        this.storeName = builder.storeName;
+        this.channels = Collections.unmodifiableSet(builder.channels);
+        this.fromTimestamp = builder.fromTimestamp;
+        this.toTimestamp = builder.toTimestamp;
+        this.interval = builder.interval;
+        this.aggregate = builder.aggregate;
+        this.order = builder.order;
+        this.limit = builder.limit;
+    }
+
+    public String getStoreName() {
+        return this.storeName;
+    }
+
+    public Set<String> getChannels() {
+        return this.channels;
+    }
+
+    public long getFromTimestamp() {
+        return this.fromTimestamp;
+    }
+
+    public long getToTimestamp() {
+        return this.toTimestamp;
+    }
+
+    public long getInterval() {
+        return this.interval;
+    }
+
+    public boolean isDownsampled() {
+        return this.interval > 0;
+    }
+
+    public Aggregate getAggregate() {
+        return this.aggregate;
+    }
+
+    public Order getOrder() {
+        return this.order;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param query
+     *            the query string
+     * @param now
+     *            the current time, used to resolve relative timestamps
+     * @param maxLimit
+     *            the maximum number of records that the query is allowed to return, also used as limit if the query
+     *            does not specify one.
+     * @return the parsed query
+     * @throws IllegalArgumentException
+     *             if the query is not valid
+     */
+    public static TimeSeriesQuery parse(final String query, final long now, final int maxLimit) {
+        final Builder builder = new Builder().withLimit(maxLimit);
+
+        for (final String pair : query.split(";")) {
+            if (pair.trim().isEmpty()) {
+                continue;
+            }
+
+            final int separator = pair.indexOf('=');
+
+            if (separator == -1) {
+                throw new IllegalArgumentException("expected key=value pair: " + pair.trim());
+            }
+
+            final String key = pair.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            final String value = pair.substring(separator + 1).trim();
+
+            switch (key) {
+            case "store":
+                builder.withStoreName(value);
+                break;
+            case "channels":
+                for (final String channel : value.split(",")) {
+                    if (!channel.trim().isEmpty()) {
+                        builder.withChannel(channel.trim());
+                    }
+                }
+                break;
+            case "from":
+                builder.withFromTimestamp(parseTimestamp(key, value, now));
+                break;
+            case "to":
+                builder.withToTimestamp(parseTimestamp(key, value, now));
+                break;
+            case "interval":
+                builder.withInterval(parseLong(key, value));
+                break;
+            case "aggregate":
+                builder.withAggregate(parseEnum(Aggregate.class, key, value));
+                break;
+            case "order":
+                builder.withOrder(parseEnum(Order.class, key, value));
+                break;
+            case "limit":
+                builder.withLimit((int) Math.min(maxLimit, parseLong(key, value)));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown key: " + key);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static long parseTimestamp(final String key, final String value, final long now) {
+        final long timestamp = parseLong(key, value);
+
+        return timestamp < 0 ? now + timestamp : timestamp;
+    }
+
+    private static long parseLong(final String key, final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value for " + key + ": " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(final Class<E> type, final String key, final String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid value for " + key + ": " + value);
+        }
+    }
+
+    public static final class Builder {
+
+        private String storeName;
+        private final Set<String> channels = new LinkedHashSet<>();
+        private long fromTimestamp = Long.MIN_VALUE;
+        private long toTimestamp = Long.MAX_VALUE;
+        private long interval;
+        private Aggregate aggregate = Aggregate.AVG;
+        private Order order = Order.ASC;
+        private int limit = Integer.MAX_VALUE;
+
+        public Builder withStoreName(final String storeName) {
+            this.storeName = storeName;
+            return this;
+        }
+
+        public Builder withChannel(final String channel) {
+            this.channels.add(channel);
+            return this;
+        }
+
+        public Builder withFromTimestamp(final long fromTimestamp) {
+            this.fromTimestamp = fromTimestamp;
+            return this;
+        }
+
+        public Builder withToTimestamp(final long toTimestamp) {
+            this.toTimestamp = toTimestamp;
+            return this;
+        }
+
+        public Builder withInterval(final long interval) {
+            this.interval = interval;
+            return this;
+        }
+
+        public Builder withAggregate(final Aggregate aggregate) {
+            this.aggregate = aggregate;
+            return this;
+        }
+
+        public Builder withOrder(final Order order) {
+            this.order = order;
+            return this;
+        }
+
+        public Builder withLimit(final int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public TimeSeriesQuery build() {
+            if (this.storeName == null || this.storeName.isEmpty()) {
+                throw new IllegalArgumentException("store name must be specified");
+            }
+            if (this.interval < 0) {
+                throw new IllegalArgumentException("interval must not be negative");
+            }
+            if (this.limit <= 0) {
+                throw new IllegalArgumentException("limit must be greater than 0");
+            }
+
+            return new TimeSeriesQuery(this);
+        }
+    }
+}
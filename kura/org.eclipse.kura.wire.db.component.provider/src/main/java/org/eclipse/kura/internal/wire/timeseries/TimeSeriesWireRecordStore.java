@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.internal.wire.timeseries.TimeSeriesQuery.Aggregate;
+import org.eclipse.kura.internal.wire.timeseries.TimeSeriesQuery.Order;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.store.provider.WireRecordStore;
+
+/**
+ * A {@link WireRecordStore} that stores each wire record property as a separate time series.
+ * <br>
+ * Every inserted record is assigned a sequence number and a timestamp, its properties are appended to the
+ * {@link ChannelSeries} with the same name. Records are reconstructed on query by merging the points of the selected
+ * channels with the same sequence number.
+ * <br>
+ * Truncation is performed by advancing the sequence number of the first retained record, which is persisted in a
+ * metadata file, and by deleting the segments that only contain older points. Points older than the first retained
+ * record that are still stored in a segment are filtered out on query.
+ */
+public class TimeSeriesWireRecordStore implements WireRecordStore {
+
+    private static final Logger logger = LogManager.getLogger(TimeSeriesWireRecordStore.class);
+
+    public static final String TIMESTAMP_PROPERTY = "TIMESTAMP";
+
+    private static final String METADATA_FILE_NAME = "store.properties";
+    private static final String FIRST_SEQ_PROPERTY = "first.seq";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final LongSupplier clock;
+    private final Map<String, ChannelSeries> channels = new HashMap<>();
+
+    private long firstSeq;
+    private long nextSeq;
+    private boolean closed;
+
+    public TimeSeriesWireRecordStore(final Path directory, final int segmentSize) throws KuraStoreException {
+        this(directory, segmentSize, System::currentTimeMillis);
+    }
+
+    TimeSeriesWireRecordStore(final Path directory, final int segmentSize, final LongSupplier clock)
+            throws KuraStoreException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.clock = clock;
+
+        try {
+            Files.createDirectories(directory);
+
+            this.firstSeq = readFirstSeq();
+            this.nextSeq = this.firstSeq;
+
+            try (final DirectoryStream<Path> entries = Files.newDirectoryStream(directory,
+                    ChannelSeries::isChannelDirectory)) {
+                for (final Path entry : entries) {
+                    final ChannelSeries channel = ChannelSeries.open(entry, segmentSize);
+
+                    this.channels.put(channel.getName(), channel);
+                    this.nextSeq = Math.max(this.nextSeq, channel.getLastSeq() + 1);
+                }
+            }
+        } catch (final IOException e) {
+            throw new KuraStoreException(e, "Failed to open time series store at " + directory);
+        }
+
+        logger.info("Opened time series store at {}, channels: {}, records: {}", directory, this.channels.size(),
+                this.nextSeq - this.firstSeq);
+    }
+
+    @Override
+    public synchronized void truncate(final int noOfRecordsToKeep) throws KuraStoreException {
+        checkOpen();
+
+        final long newFirstSeq = Math.max(this.firstSeq, this.nextSeq - Math.max(0, noOfRecordsToKeep));
+
+        if (newFirstSeq == this.firstSeq) {
+            return;
+        }
+
+        try {
+            writeFirstSeq(newFirstSeq);
+        } catch (final IOException e) {
+            throw new KuraStoreException(e, "Failed to truncate time series store at " + this.directory);
+        }
+
+        this.firstSeq = newFirstSeq;
+
+        final Iterator<ChannelSeries> iter = this.channels.values().iterator();
+
+        while (iter.hasNext()) {
+            final ChannelSeries channel = iter.next();
+
+            channel.deleteBefore(newFirstSeq);
+
+            if (channel.isEmpty()) {
+                channel.delete();
+                iter.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized int getSize() throws KuraStoreException {
+        checkOpen();
+
+        return (int) Math.min(Integer.MAX_VALUE, this.nextSeq - this.firstSeq);
+    }
+
+    @Override
+    public synchronized void insertRecords(final List<WireRecord> records) throws KuraStoreException {
+        Objects.requireNonNull(records, "Wire records cannot be null");
+        checkOpen();
+
+        try {
+            for (final WireRecord record : records) {
+                final long seq = this.nextSeq++;
+                final long timestamp = this.clock.getAsLong();
+
+                for (final Map.Entry<String, TypedValue<?>> entry : record.getProperties().entrySet()) {
+                    if (entry.getValue() != null) {
+                        getOrCreateChannel(entry.getKey()).append(seq, timestamp, entry.getValue());
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new KuraStoreException(e, "Failed to insert records in time series store at " + this.directory);
+        }
+    }
+
+    /**
+     * Performs a query on this store, the store name specified by the query is ignored.
+     *
+     * @param query
+     *            the query
+     * @return the records matching the query, each record contains a {@link #TIMESTAMP_PROPERTY} property and the
+     *         values of the selected channels. If the query is downsampled the timestamp is the start of the bucket.
+     * @throws KuraStoreException
+     *             if the store has been closed
+     */
+    public synchronized List<WireRecord> query(final TimeSeriesQuery query) throws KuraStoreException {
+        checkOpen();
+
+        final List<ChannelSeries> selected = new ArrayList<>();
+
+        if (query.getChannels().isEmpty()) {
+            selected.addAll(this.channels.values());
+        } else {
+            for (final String name : query.getChannels()) {
+                final ChannelSeries channel = this.channels.get(name);
+
+                if (channel != null) {
+                    selected.add(channel);
+                }
+            }
+        }
+
+        if (query.isDownsampled()) {
+            return queryDownsampled(query, selected);
+        } else {
+            return queryRaw(query, selected);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+
+        for (final ChannelSeries channel : this.channels.values()) {
+            channel.close();
+        }
+
+        this.closed = true;
+    }
+
+    private List<WireRecord> queryRaw(final TimeSeriesQuery query, final Collection<ChannelSeries> selected) {
+        final Window<Map<String, TypedValue<?>>> rows = new Window<>(query.getLimit(), query.getOrder());
+
+        for (final ChannelSeries channel : selected) {
+            final String name = channel.getName();
+
+            channel.read(query.getFromTimestamp(), query.getToTimestamp(), this.firstSeq, (seq, timestamp, value) -> {
+                final Map<String, TypedValue<?>> row = rows.get(seq, () -> {
+                    final Map<String, TypedValue<?>> properties = new LinkedHashMap<>();
+                    properties.put(TIMESTAMP_PROPERTY, TypedValues.newLongValue(timestamp));
+                    return properties;
+                });
+
+                if (row != null) {
+                    row.put(name, value);
+                }
+            });
+        }
+
+        final List<WireRecord> result = new ArrayList<>();
+
+        for (final Map<String, TypedValue<?>> row : rows.values()) {
+            result.add(new WireRecord(row));
+        }
+
+        return result;
+    }
+
+    private List<WireRecord> queryDownsampled(final TimeSeriesQuery query, final Collection<ChannelSeries> selected) {
+        final long interval = query.getInterval();
+        final Window<Map<String, Aggregator>> buckets = new Window<>(query.getLimit(), query.getOrder());
+
+        for (final ChannelSeries channel : selected) {
+            final String name = channel.getName();
+
+            channel.read(query.getFromTimestamp(), query.getToTimestamp(), this.firstSeq, (seq, timestamp, value) -> {
+                final Map<String, Aggregator> bucket = buckets.get(Math.floorDiv(timestamp, interval) * interval,
+                        LinkedHashMap::new);
+
+                if (bucket != null) {
+                    bucket.computeIfAbsent(name, n -> new Aggregator()).add(value);
+                }
+            });
+        }
+
+        final List<WireRecord> result = new ArrayList<>();
+
+        for (final Map.Entry<Long, Map<String, Aggregator>> bucket : buckets.entries()) {
+            final Map<String, TypedValue<?>> properties = new LinkedHashMap<>();
+
+            properties.put(TIMESTAMP_PROPERTY, TypedValues.newLongValue(bucket.getKey()));
+
+            for (final Map.Entry<String, Aggregator> channel : bucket.getValue().entrySet()) {
+                final TypedValue<?> value = channel.getValue().get(query.getAggregate());
+
+                if (value != null) {
+                    properties.put(channel.getKey(), value);
+                }
+            }
+
+            result.add(new WireRecord(properties));
+        }
+
+        return result;
+    }
+
+    private ChannelSeries getOrCreateChannel(final String name) throws IOException {
+        ChannelSeries channel = this.channels.get(name);
+
+        if (channel == null) {
+            channel = ChannelSeries.create(this.directory, name, this.segmentSize);
+            this.channels.put(name, channel);
+        }
+
+        return channel;
+    }
+
+    private long readFirstSeq() throws IOException {
+        final Path file = this.directory.resolve(METADATA_FILE_NAME);
+
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        final Properties properties = new Properties();
+
+        try (final InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+
+        try {
+            return Long.parseLong(properties.getProperty(FIRST_SEQ_PROPERTY, "0"));
+        } catch (final NumberFormatException e) {
+            throw new IOException("invalid store metadata", e);
+        }
+    }
+
+    private void writeFirstSeq(final long value) throws IOException {
+        final Path file = this.directory.resolve(METADATA_FILE_NAME);
+        final Path tmp = this.directory.resolve(METADATA_FILE_NAME + ".tmp");
+
+        final Properties properties = new Properties();
+        properties.setProperty(FIRST_SEQ_PROPERTY, Long.toString(value));
+
+        try (final OutputStream out = Files.newOutputStream(tmp)) {
+            properties.store(out, null);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void checkOpen() throws KuraStoreException {
+        if (this.closed) {
+            throw new KuraStoreException("Time series store at " + this.directory + " is closed");
+        }
+    }
+
+    /**
+     * Keeps at most {@code limit} entries with the lowest keys, or the highest keys if order is descending.
+     */
+    private static final class Window<V> {
+
+        private final TreeMap<Long, V> entries = new TreeMap<>();
+        private final int limit;
+        private final boolean descending;
+        private Long cutoff;
+
+        Window(final int limit, final Order order) {
+            this.limit = limit;
+            this.descending = order == Order.DESC;
+        }
+
+        /**
+         * Returns the entry with the given key, creating it if needed, or null if the key is outside of the window.
+         */
+        V get(final long key, final Supplier<V> factory) {
+            V value = this.entries.get(key);
+
+            if (value != null) {
+                return value;
+            }
+
+            if (this.cutoff != null && (this.descending ? key <= this.cutoff : key >= this.cutoff)) {
+                return null;
+            }
+
+            value = factory.get();
+            this.entries.put(key, value);
+
+            if (this.entries.size() > this.limit) {
+                this.cutoff = this.descending ? this.entries.pollFirstEntry().getKey()
+                        : this.entries.pollLastEntry().getKey();
+
+                if (this.cutoff == key) {
+                    return null;
+                }
+            }
+
+            return value;
+        }
+
+        Collection<V> values() {
+            return this.descending ? this.entries.descendingMap().values() : this.entries.values();
+        }
+
+        Collection<Map.Entry<Long, V>> entries() {
+            return this.descending ? this.entries.descendingMap().entrySet() : this.entries.entrySet();
+        }
+    }
+
+    private static final class Aggregator {
+
+        private long count;
+        private long numericCount;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private TypedValue<?> first;
+        private TypedValue<?> last;
+
+        void add(final TypedValue<?> value) {
+            if (this.first == null) {
+                this.first = value;
+            }
+
+            this.last = value;
+            this.count++;
+
+            final Object raw = value.getValue();
+
+            if (raw instanceof Number) {
+                final double number = ((Number) raw).doubleValue();
+
+                this.numericCount++;
+                this.sum += number;
+                this.min = Math.min(this.min, number);
+                this.max = Math.max(this.max, number);
+            }
+        }
+
+        TypedValue<?> get(final Aggregate aggregate) {
+            switch (aggregate) {
+            case COUNT:
+                return TypedValues.newLongValue(this.count);
+            case FIRST:
+                return this.first;
+            case LAST:
+                return this.last;
+            default:
+                break;
+            }
+
+            if (this.numericCount == 0) {
+                return null;
+            }
+
+            switch (aggregate) {
+            case AVG:
+                return TypedValues.newDoubleValue(this.sum / this.numericCount);
+            case MIN:
+                return TypedValues.newDoubleValue(this.min);
+            case MAX:
+                return TypedValues.newDoubleValue(this.max);
+            case SUM:
+                return TypedValues.newDoubleValue(this.sum);
+            default:
+                throw new IllegalArgumentException("unsupported aggregate: " + aggregate);
+            }
+        }
+    }
+}
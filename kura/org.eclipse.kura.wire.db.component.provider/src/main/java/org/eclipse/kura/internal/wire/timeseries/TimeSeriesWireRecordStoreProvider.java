@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.connection.listener.ConnectionListener;
+import org.eclipse.kura.util.store.listener.ConnectionListenerManager;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.store.provider.QueryableWireRecordStoreProvider;
+import org.eclipse.kura.wire.store.provider.WireRecordStoreProvider;
+import org.eclipse.kura.wire.store.provider.WireRecordStore;
+
+/**
+ * A {@link WireRecordStoreProvider} that stores wire records in a columnar, time series oriented format on the
+ * filesystem, see {@link TimeSeriesWireRecordStore}.
+ * <br>
+ * Each store is kept in a subdirectory of the configured storage directory. Stores with the same name are shared
+ * between all the users of this provider and closed when the last user closes them. Queries are expressed using the
+ * syntax described in {@link TimeSeriesQuery}.
+ */
+public class TimeSeriesWireRecordStoreProvider
+        implements WireRecordStoreProvider, QueryableWireRecordStoreProvider, ConfigurableComponent {
+
+    private static final Logger logger = LogManager.getLogger(TimeSeriesWireRecordStoreProvider.class);
+
+    private final ConnectionListenerManager listenerManager = new ConnectionListenerManager();
+    private final Map<String, SharedStore> stores = new HashMap<>();
+
+    private Optional<TimeSeriesWireRecordStoreProviderOptions> options = Optional.empty();
+
+    public void activate(final Map<String, Object> properties) {
+        logger.info("activating...");
+
+        updated(properties);
+
+        logger.info("activating...done");
+    }
+
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.info("updating...");
+
+        final TimeSeriesWireRecordStoreProviderOptions newOptions = new TimeSeriesWireRecordStoreProviderOptions(
+                properties);
+
+        if (!this.options.equals(Optional.of(newOptions))) {
+            closeStores();
+            this.options = Optional.of(newOptions);
+        }
+
+        logger.info("updating...done");
+    }
+
+    public synchronized void deactivate() {
+        logger.info("deactivating...");
+
+        closeStores();
+        this.options = Optional.empty();
+        this.listenerManager.shutdown();
+
+        logger.info("deactivating...done");
+    }
+
+    @Override
+    public synchronized WireRecordStore openWireRecordStore(final String name) throws KuraStoreException {
+        final SharedStore store = acquire(name);
+
+        return new StoreHandle(store);
+    }
+
+    @Override
+    public List<WireRecord> performQuery(final String query) throws KuraStoreException {
+        final TimeSeriesQuery parsedQuery;
+        final int maxRecords;
+        final SharedStore store;
+
+        synchronized (this) {
+            maxRecords = getOptions().getQueryMaxRecords();
+
+            try {
+                parsedQuery = TimeSeriesQuery.parse(query, System.currentTimeMillis(), maxRecords);
+            } catch (final IllegalArgumentException e) {
+                throw new KuraStoreException(e, "Invalid query: " + e.getMessage());
+            }
+
+            store = acquire(parsedQuery.getStoreName());
+        }
+
+        try {
+            return store.store.query(parsedQuery);
+        } finally {
+            release(store);
+        }
+    }
+
+    @Override
+    public void addListener(final ConnectionListener listener) {
+        this.listenerManager.add(listener);
+    }
+
+    @Override
+    public void removeListener(final ConnectionListener listener) {
+        this.listenerManager.remove(listener);
+    }
+
+    private TimeSeriesWireRecordStoreProviderOptions getOptions() throws KuraStoreException {
+        return this.options.orElseThrow(() -> new KuraStoreException("Time series store provider is not active"));
+    }
+
+    private SharedStore acquire(final String name) throws KuraStoreException {
+        SharedStore store = this.stores.get(name);
+
+        if (store == null) {
+            final TimeSeriesWireRecordStoreProviderOptions currentOptions = getOptions();
+
+            store = new SharedStore(name, new TimeSeriesWireRecordStore(
+                    getStoreDirectory(currentOptions.getStorageDirectory(), name), currentOptions.getSegmentSize()));
+            this.stores.put(name, store);
+        }
+
+        store.references++;
+
+        return store;
+    }
+
+    private synchronized void release(final SharedStore store) {
+        store.references--;
+
+        if (store.references == 0 && this.stores.get(store.name) == store) {
+            this.stores.remove(store.name);
+            store.store.close();
+        }
+    }
+
+    private void closeStores() {
+        if (this.stores.isEmpty()) {
+            return;
+        }
+
+        for (final SharedStore store : this.stores.values()) {
+            store.store.close();
+        }
+
+        this.stores.clear();
+        this.listenerManager.dispatchDisconnected();
+    }
+
+    private static Path getStoreDirectory(final String storageDirectory, final String name)
+            throws KuraStoreException {
+        if (name == null || name.isEmpty() || ".".equals(name) || "..".equals(name)) {
+            throw new KuraStoreException("Invalid store name: " + name);
+        }
+
+        try {
+            return Paths.get(storageDirectory, URLEncoder.encode(name, "UTF-8"));
+        } catch (final UnsupportedEncodingException e) {
+            throw new KuraStoreException(e, "Invalid store name: " + name);
+        }
+    }
+
+    private static final class SharedStore {
+
+        private final String name;
+        private final TimeSeriesWireRecordStore store;
+        private int references;
+
+        SharedStore(final String name, final TimeSeriesWireRecordStore store) {
+            this.name = name;
+            this.store = store;
+        }
+    }
+
+    private final class StoreHandle implements WireRecordStore {
+
+        private final SharedStore store;
+        private boolean closed;
+
+        StoreHandle(final SharedStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void truncate(final int noOfRecordsToKeep) throws KuraStoreException {
+            this.store.store.truncate(noOfRecordsToKeep);
+        }
+
+        @Override
+        public int getSize() throws KuraStoreException {
+            return this.store.store.getSize();
+        }
+
+        @Override
+        public void insertRecords(final List<WireRecord> records) throws KuraStoreException {
+            this.store.store.insertRecords(records);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!this.closed) {
+                this.closed = true;
+                release(this.store);
+            }
+        }
+    }
+}
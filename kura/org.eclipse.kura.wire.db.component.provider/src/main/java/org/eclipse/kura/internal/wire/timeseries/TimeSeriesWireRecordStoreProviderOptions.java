@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.kura.util.configuration.Property;
+
+public final class TimeSeriesWireRecordStoreProviderOptions {
+
+    private static final Property<String> STORAGE_DIRECTORY_PROPERTY = new Property<>("storage.directory",
+            "/opt/timeseries");
+    private static final Property<Integer> SEGMENT_SIZE_PROPERTY = new Property<>("segment.size.kib", 1024);
+    private static final Property<Integer> QUERY_MAX_RECORDS_PROPERTY = new Property<>("query.max.records", 10000);
+
+    private final String storageDirectory;
+    private final int segmentSize;
+    private final int queryMaxRecords;
+
+    public TimeSeriesWireRecordStoreProviderOptions(final Map<String, Object> properties) {
+        this.storageDirectory = STORAGE_DIRECTORY_PROPERTY.get(properties);
+        this.segmentSize = Math.max(4, SEGMENT_SIZE_PROPERTY.get(properties)) * 1024;
+        this.queryMaxRecords = Math.max(1, QUERY_MAX_RECORDS_PROPERTY.get(properties));
+    }
+
+    public String getStorageDirectory() {
+        return this.storageDirectory;
+    }
+
+    /**
+     * Returns the segment size in bytes.
+     */
+    public int getSegmentSize() {
+        return this.segmentSize;
+    }
+
+    public int getQueryMaxRecords() {
+        return this.queryMaxRecords;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(queryMaxRecords, segmentSize, storageDirectory);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TimeSeriesWireRecordStoreProviderOptions)) {
+            return false;
+        }
+        TimeSeriesWireRecordStoreProviderOptions other = (TimeSeriesWireRecordStoreProviderOptions) obj;
+        return queryMaxRecords == other.queryMaxRecords && segmentSize == other.segmentSize
+                && Objects.equals(storageDirectory, other.storageDirectory);
+    }
+
+}
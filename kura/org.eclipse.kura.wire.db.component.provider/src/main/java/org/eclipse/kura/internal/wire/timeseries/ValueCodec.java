@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+
+/**
+ * Encodes the sequence of values of a channel segment. Numeric values are compressed using {@link XorCodec} or
+ * {@link DeltaOfDeltaCodec}, strings and byte arrays are stored as length prefixed byte sequences.
+ * <br>
+ * Codecs are stateful, an instance must be used to either encode or decode a single sequence.
+ */
+abstract class ValueCodec {
+
+    abstract DataType getType();
+
+    /**
+     * Returns an upper bound of the number of bits needed to encode the provided value.
+     */
+    abstract long getMaxBits(TypedValue<?> value);
+
+    abstract void write(BitWriter writer, TypedValue<?> value);
+
+    abstract TypedValue<?> read(BitReader reader);
+
+    static ValueCodec forType(final DataType type) {
+        switch (type) {
+        case BOOLEAN:
+            return new BooleanCodec();
+        case INTEGER:
+            return new IntegerCodec();
+        case LONG:
+            return new LongCodec();
+        case FLOAT:
+            return new FloatCodec();
+        case DOUBLE:
+            return new DoubleCodec();
+        case STRING:
+            return new StringCodec();
+        case BYTE_ARRAY:
+            return new ByteArrayCodec();
+        default:
+            throw new IllegalArgumentException("unsupported type: " + type);
+        }
+    }
+
+    static byte getTypeCode(final DataType type) {
+        switch (type) {
+        case BOOLEAN:
+            return 1;
+        case INTEGER:
+            return 2;
+        case LONG:
+            return 3;
+        case FLOAT:
+            return 4;
+        case DOUBLE:
+            return 5;
+        case STRING:
+            return 6;
+        case BYTE_ARRAY:
+            return 7;
+        default:
+            throw new IllegalArgumentException("unsupported type: " + type);
+        }
+    }
+
+    static DataType fromTypeCode(final byte code) {
+        switch (code) {
+        case 1:
+            return DataType.BOOLEAN;
+        case 2:
+            return DataType.INTEGER;
+        case 3:
+            return DataType.LONG;
+        case 4:
+            return DataType.FLOAT;
+        case 5:
+            return DataType.DOUBLE;
+        case 6:
+            return DataType.STRING;
+        case 7:
+            return DataType.BYTE_ARRAY;
+        default:
+            throw new IllegalArgumentException("unknown type code: " + code);
+        }
+    }
+
+    private static final class BooleanCodec extends ValueCodec {
+
+        @Override
+        DataType getType() {
+            return DataType.BOOLEAN;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            return 1;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            writer.writeBit((Boolean) value.getValue());
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newBooleanValue(reader.readBit());
+        }
+    }
+
+    private static final class IntegerCodec extends ValueCodec {
+
+        private final DeltaOfDeltaCodec codec = new DeltaOfDeltaCodec();
+
+        @Override
+        DataType getType() {
+            return DataType.INTEGER;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            return DeltaOfDeltaCodec.MAX_BITS;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            this.codec.write(writer, (Integer) value.getValue());
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newIntegerValue((int) this.codec.read(reader));
+        }
+    }
+
+    private static final class LongCodec extends ValueCodec {
+
+        private final DeltaOfDeltaCodec codec = new DeltaOfDeltaCodec();
+
+        @Override
+        DataType getType() {
+            return DataType.LONG;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            return DeltaOfDeltaCodec.MAX_BITS;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            this.codec.write(writer, (Long) value.getValue());
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newLongValue(this.codec.read(reader));
+        }
+    }
+
+    private static final class FloatCodec extends ValueCodec {
+
+        // floats are widened to double, the conversion is exact in both directions
+        private final XorCodec codec = new XorCodec();
+
+        @Override
+        DataType getType() {
+            return DataType.FLOAT;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            return XorCodec.MAX_BITS;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            this.codec.write(writer, (Float) value.getValue());
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newFloatValue((float) this.codec.read(reader));
+        }
+    }
+
+    private static final class DoubleCodec extends ValueCodec {
+
+        private final XorCodec codec = new XorCodec();
+
+        @Override
+        DataType getType() {
+            return DataType.DOUBLE;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            return XorCodec.MAX_BITS;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            this.codec.write(writer, (Double) value.getValue());
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newDoubleValue(this.codec.read(reader));
+        }
+    }
+
+    private static class ByteArrayCodec extends ValueCodec {
+
+        @Override
+        DataType getType() {
+            return DataType.BYTE_ARRAY;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            return Integer.SIZE + (long) ((byte[]) value.getValue()).length * Byte.SIZE;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            writeBytes(writer, (byte[]) value.getValue());
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newByteArrayValue(readBytes(reader));
+        }
+
+        static void writeBytes(final BitWriter writer, final byte[] bytes) {
+            writer.writeBits(bytes.length, Integer.SIZE);
+
+            for (final byte b : bytes) {
+                writer.writeBits(b, Byte.SIZE);
+            }
+        }
+
+        static byte[] readBytes(final BitReader reader) {
+            final byte[] result = new byte[(int) reader.readBits(Integer.SIZE)];
+
+            for (int i = 0; i < result.length; i++) {
+                result[i] = (byte) reader.readBits(Byte.SIZE);
+            }
+
+            return result;
+        }
+    }
+
+    private static final class StringCodec extends ValueCodec {
+
+        @Override
+        DataType getType() {
+            return DataType.STRING;
+        }
+
+        @Override
+        long getMaxBits(final TypedValue<?> value) {
+            // a char is encoded using at most 3 bytes in UTF-8
+            return Integer.SIZE + (long) getString(value).length() * 3 * Byte.SIZE;
+        }
+
+        @Override
+        void write(final BitWriter writer, final TypedValue<?> value) {
+            ByteArrayCodec.writeBytes(writer, getString(value).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        TypedValue<?> read(final BitReader reader) {
+            return TypedValues.newStringValue(new String(ByteArrayCodec.readBytes(reader), StandardCharsets.UTF_8));
+        }
+
+        private static String getString(final TypedValue<?> value) {
+            final Object string = value.getValue();
+
+            return string != null ? (String) string : "";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+/**
+ * Encodes a sequence of double values by XOR-ing each value with the previous one and storing only the meaningful
+ * bits of the result, as described in the Gorilla paper. Slowly changing values share most of their sign, exponent
+ * and mantissa bits and are encoded in a few bits, repeated values are encoded using a single bit.
+ * <br>
+ * The codec is stateful, an instance must be used to either encode or decode a single sequence.
+ */
+final class XorCodec {
+
+    static final int MAX_BITS = 2 + 5 + 6 + Long.SIZE;
+
+    private boolean first = true;
+    private long previous;
+    private int leadingZeros = Integer.MAX_VALUE;
+    private int trailingZeros;
+
+    void write(final BitWriter writer, final double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+
+        if (this.first) {
+            writer.writeBits(bits, Long.SIZE);
+            this.first = false;
+            this.previous = bits;
+            return;
+        }
+
+        final long xor = bits ^ this.previous;
+
+        if (xor == 0) {
+            writer.writeBit(false);
+        } else {
+            writer.writeBit(true);
+
+            final int newLeadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            final int newTrailingZeros = Long.numberOfTrailingZeros(xor);
+
+            if (newLeadingZeros >= this.leadingZeros && newTrailingZeros >= this.trailingZeros) {
+                // the meaningful bits fall within the previous window
+                writer.writeBit(false);
+                writer.writeBits(xor >>> this.trailingZeros, Long.SIZE - this.leadingZeros - this.trailingZeros);
+            } else {
+                final int length = Long.SIZE - newLeadingZeros - newTrailingZeros;
+
+                writer.writeBit(true);
+                writer.writeBits(newLeadingZeros, 5);
+                writer.writeBits(length - 1L, 6);
+                writer.writeBits(xor >>> newTrailingZeros, length);
+
+                this.leadingZeros = newLeadingZeros;
+                this.trailingZeros = newTrailingZeros;
+            }
+        }
+
+        this.previous = bits;
+    }
+
+    double read(final BitReader reader) {
+        if (this.first) {
+            this.previous = reader.readBits(Long.SIZE);
+            this.first = false;
+        } else if (reader.readBit()) {
+            if (reader.readBit()) {
+                this.leadingZeros = (int) reader.readBits(5);
+                this.trailingZeros = Long.SIZE - this.leadingZeros - ((int) reader.readBits(6) + 1);
+            }
+
+            final int length = Long.SIZE - this.leadingZeros - this.trailingZeros;
+
+            this.previous ^= reader.readBits(length) << this.trailingZeros;
+        }
+
+        return Double.longBitsToDouble(this.previous);
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared worker pool used to deliver wire envelopes to the components that receive them asynchronously.
+ * <br>
+ * The pool is shared by all the {@link ReceiverMailbox} instances, each mailbox submits a single drain task at a time
+ * so that envelopes are delivered to a component in the order they have been emitted, while different components
+ * are served in parallel.
+ * <br>
+ * If a task cannot be submitted because the pool has been shut down, it is executed by the calling thread.
+ */
+final class DeliveryDispatcher {
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private volatile WireHelperServiceOptions options;
+    private ExecutorService executor;
+    private boolean closed;
+
+    DeliveryDispatcher(final WireHelperServiceOptions options) {
+        this.options = options;
+    }
+
+    WireHelperServiceOptions getOptions() {
+        return this.options;
+    }
+
+    synchronized void update(final WireHelperServiceOptions newOptions) {
+        final WireHelperServiceOptions oldOptions = this.options;
+        this.options = newOptions;
+
+        if (this.executor != null
+                && (!newOptions.isAsyncEnabled() || newOptions.getWorkerThreads() != oldOptions.getWorkerThreads())) {
+            // tasks already submitted to the old pool are still executed
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    synchronized void shutdown() {
+        this.closed = true;
+
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    void execute(final Runnable task) {
+        final ExecutorService currentExecutor = getExecutor();
+
+        if (currentExecutor == null) {
+            task.run();
+            return;
+        }
+
+        try {
+            currentExecutor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    static boolean isWorkerThread() {
+        return Thread.currentThread() instanceof WorkerThread;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (this.executor == null && !this.closed) {
+            final int threads = this.options.getWorkerThreads();
+            final int poolId = POOL_COUNT.incrementAndGet();
+            final AtomicInteger threadCount = new AtomicInteger();
+
+            final ThreadPoolExecutor newExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    r -> new WorkerThread(r, "WireDelivery-" + poolId + "-" + threadCount.incrementAndGet()));
+            newExecutor.allowCoreThreadTimeOut(true);
+
+            this.executor = newExecutor;
+        }
+
+        return this.executor;
+    }
+
+    private static final class WorkerThread extends Thread {
+
+        WorkerThread(final Runnable target, final String name) {
+            super(target, name);
+            setDaemon(true);
+        }
+    }
+}
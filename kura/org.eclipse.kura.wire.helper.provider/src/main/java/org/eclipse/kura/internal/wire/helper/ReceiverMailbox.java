@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.eclipse.kura.wire.graph.Constants.EMITTER_KURA_SERVICE_PID_PROP_NAME;
+import static org.eclipse.kura.wire.graph.Constants.WIRE_EMITTER_PORT_PROP_NAME;
+import static org.eclipse.kura.wire.graph.Constants.WIRE_RECEIVER_PORT_PROP_NAME;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.eclipse.kura.internal.wire.helper.WireHelperServiceOptions.BackpressurePolicy;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.graph.WireDeliveryStatistics;
+import org.osgi.service.wireadmin.Wire;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of the envelopes waiting to be delivered to a wire component.
+ * <br>
+ * Envelopes are delivered by the {@link DeliveryDispatcher} worker pool, in the order they have been offered and one
+ * at a time. When the mailbox is full the configured {@link BackpressurePolicy} is applied. With the
+ * {@link BackpressurePolicy#BLOCK} policy the emitting thread waits for free space, unless it is a worker of the
+ * pool, in this case the envelope is queued beyond the capacity to avoid deadlocks between components that feed each
+ * other.
+ */
+final class ReceiverMailbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiverMailbox.class);
+
+    private static final int MAX_DELIVERIES_PER_TASK = 32;
+
+    private final DeliveryDispatcher dispatcher;
+    private final String receiverPid;
+    private final BiConsumer<Wire, WireEnvelope> target;
+
+    private final ArrayDeque<Delivery> queue = new ArrayDeque<>();
+    private final Map<Wire, WireStatistics> statistics = new HashMap<>();
+    private boolean draining;
+
+    ReceiverMailbox(final DeliveryDispatcher dispatcher, final String receiverPid,
+            final BiConsumer<Wire, WireEnvelope> target) {
+        this.dispatcher = dispatcher;
+        this.receiverPid = receiverPid;
+        this.target = target;
+    }
+
+    void offer(final Wire wire, final WireEnvelope envelope) {
+        final WireHelperServiceOptions options = this.dispatcher.getOptions();
+
+        synchronized (this) {
+            final WireStatistics wireStatistics = this.statistics.computeIfAbsent(wire, WireStatistics::new);
+
+            if (!makeRoom(wireStatistics, options)) {
+                return;
+            }
+
+            this.queue.addLast(new Delivery(wire, envelope, wireStatistics));
+            wireStatistics.queueDepth++;
+
+            if (this.draining) {
+                return;
+            }
+
+            this.draining = true;
+        }
+
+        this.dispatcher.execute(this::drain);
+    }
+
+    synchronized void retainWires(final Collection<Wire> wires) {
+        this.statistics.keySet().retainAll(wires);
+    }
+
+    synchronized List<WireDeliveryStatistics> getStatistics() {
+        final List<WireDeliveryStatistics> result = new ArrayList<>(this.statistics.size());
+
+        for (final WireStatistics wireStatistics : this.statistics.values()) {
+            result.add(wireStatistics.toWireDeliveryStatistics());
+        }
+
+        return result;
+    }
+
+    private boolean makeRoom(final WireStatistics wireStatistics, final WireHelperServiceOptions options) {
+        while (this.queue.size() >= options.getMailboxCapacity()) {
+            final BackpressurePolicy policy = options.getBackpressurePolicy();
+
+            if (policy == BackpressurePolicy.DROP_NEWEST) {
+                wireStatistics.droppedCount++;
+                return false;
+            } else if (policy == BackpressurePolicy.DROP_OLDEST) {
+                final Delivery oldest = this.queue.pollFirst();
+                oldest.statistics.queueDepth--;
+                oldest.statistics.droppedCount++;
+            } else if (DeliveryDispatcher.isWorkerThread()) {
+                return true;
+            } else {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    wireStatistics.droppedCount++;
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void drain() {
+        for (int i = 0; i < MAX_DELIVERIES_PER_TASK; i++) {
+            final Delivery delivery;
+
+            synchronized (this) {
+                delivery = this.queue.pollFirst();
+
+                if (delivery == null) {
+                    this.draining = false;
+                    return;
+                }
+
+                delivery.statistics.queueDepth--;
+                notifyAll();
+            }
+
+            try {
+                this.target.accept(delivery.wire, delivery.envelope);
+            } catch (final Exception e) {
+                logger.warn("Failed to deliver wire envelope to {}", this.receiverPid, e);
+            }
+
+            final long latency = System.nanoTime() - delivery.enqueueTime;
+
+            synchronized (this) {
+                delivery.statistics.onDelivered(latency);
+            }
+        }
+
+        // give other mailboxes a chance to use the worker
+        this.dispatcher.execute(this::drain);
+    }
+
+    private static final class Delivery {
+
+        private final Wire wire;
+        private final WireEnvelope envelope;
+        private final WireStatistics statistics;
+        private final long enqueueTime = System.nanoTime();
+
+        Delivery(final Wire wire, final WireEnvelope envelope, final WireStatistics statistics) {
+            this.wire = wire;
+            this.envelope = envelope;
+            this.statistics = statistics;
+        }
+    }
+
+    private final class WireStatistics {
+
+        private final Wire wire;
+        private int queueDepth;
+        private long deliveredCount;
+        private long droppedCount;
+        private long totalLatency;
+        private long maxLatency;
+
+        WireStatistics(final Wire wire) {
+            this.wire = wire;
+        }
+
+        void onDelivered(final long latency) {
+            this.deliveredCount++;
+            this.totalLatency += latency;
+            this.maxLatency = Math.max(this.maxLatency, latency);
+        }
+
+        WireDeliveryStatistics toWireDeliveryStatistics() {
+            final Dictionary<?, ?> properties = this.wire.getProperties();
+
+            return new WireDeliveryStatistics.Builder(getString(properties, EMITTER_KURA_SERVICE_PID_PROP_NAME.value()),
+                    ReceiverMailbox.this.receiverPid)
+                            .withEmitterPort(getInt(properties, WIRE_EMITTER_PORT_PROP_NAME.value()))
+                            .withReceiverPort(getInt(properties, WIRE_RECEIVER_PORT_PROP_NAME.value()))
+                            .withQueueDepth(this.queueDepth).withDeliveredCount(this.deliveredCount)
+                            .withDroppedCount(this.droppedCount)
+                            .withMeanDeliveryLatencyNanos(
+                                    this.deliveredCount == 0 ? 0 : this.totalLatency / this.deliveredCount)
+                            .withMaxDeliveryLatencyNanos(this.maxLatency).build();
+        }
+    }
+
+    private static String getString(final Dictionary<?, ?> properties, final String key) {
+        final Object value = properties != null ? properties.get(key) : null;
+
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static int getInt(final Dictionary<?, ?> properties, final String key) {
+        final Object value = properties != null ? properties.get(key) : null;
+
+        return value instanceof Integer ? (Integer) value : 0;
+    }
+}
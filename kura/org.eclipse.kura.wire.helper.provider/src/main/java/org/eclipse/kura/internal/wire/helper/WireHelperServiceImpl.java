@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -19,21 +19,64 @@ import static org.eclipse.kura.wire.graph.Constants.EMITTER_PORT_COUNT_PROP_NAME
 import static org.eclipse.kura.wire.graph.Constants.RECEIVER_PORT_COUNT_PROP_NAME;
 import static org.osgi.framework.Constants.SERVICE_PID;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.util.service.ServiceUtil;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireReceiver;
 import org.eclipse.kura.wire.WireSupport;
+import org.eclipse.kura.wire.graph.WireDeliveryStatistics;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The Class WireHelperServiceImpl is the implementation of
  * {@link WireHelperService}
  */
-public final class WireHelperServiceImpl implements WireHelperService {
+public final class WireHelperServiceImpl implements WireHelperService, ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireHelperServiceImpl.class);
+
+    private final DeliveryDispatcher dispatcher = new DeliveryDispatcher(
+            new WireHelperServiceOptions(Collections.emptyMap()));
+
+    private final Set<WireSupportImpl> wireSupports = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    public void activate(final Map<String, Object> properties) {
+        logger.info("Activating Wire Helper Service...");
+        updated(properties);
+        logger.info("Activating Wire Helper Service...Done");
+    }
+
+    public void updated(final Map<String, Object> properties) {
+        logger.info("Updating Wire Helper Service...");
+
+        final WireHelperServiceOptions options = new WireHelperServiceOptions(properties);
+        this.dispatcher.update(options);
+
+        logger.info("Asynchronous delivery enabled: {}, mailbox capacity: {}, backpressure policy: {}, threads: {}",
+                options.isAsyncEnabled(), options.getMailboxCapacity(), options.getBackpressurePolicy(),
+                options.getWorkerThreads());
+        logger.info("Updating Wire Helper Service...Done");
+    }
+
+    public void deactivate() {
+        logger.info("Deactivating Wire Helper Service...");
+        this.dispatcher.shutdown();
+        logger.info("Deactivating Wire Helper Service...Done");
+    }
 
     /** {@inheritDoc} */
     @Override
@@ -156,6 +199,24 @@ public final class WireHelperServiceImpl implements WireHelperService {
         int emitterPortCount = getIntOrDefault(wireComponentRef.getProperty(EMITTER_PORT_COUNT_PROP_NAME.value()),
                 wireComponent instanceof WireEmitter ? 1 : 0);
 
-        return new WireSupportImpl(wireComponent, servicePid, kuraServicePid, receiverPortCount, emitterPortCount);
+        final WireSupportImpl wireSupport = new WireSupportImpl(wireComponent, servicePid, kuraServicePid,
+                receiverPortCount, emitterPortCount, this.dispatcher);
+        this.wireSupports.add(wireSupport);
+        return wireSupport;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<WireDeliveryStatistics> getWireDeliveryStatistics() {
+        final List<WireSupportImpl> currentWireSupports;
+        synchronized (this.wireSupports) {
+            currentWireSupports = new ArrayList<>(this.wireSupports);
+        }
+
+        final List<WireDeliveryStatistics> result = new ArrayList<>();
+        for (final WireSupportImpl wireSupport : currentWireSupports) {
+            result.addAll(wireSupport.getWireDeliveryStatistics());
+        }
+        return result;
     }
 }
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import java.util.Map;
+
+import org.eclipse.kura.util.configuration.Property;
+
+public class WireHelperServiceOptions {
+
+    public enum BackpressurePolicy {
+        BLOCK,
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    private static final Property<Boolean> ASYNC_ENABLED = new Property<>("emit.async.enabled", false);
+    private static final Property<Integer> MAILBOX_CAPACITY = new Property<>("emit.mailbox.capacity", 100);
+    private static final Property<String> BACKPRESSURE_POLICY = new Property<>("emit.backpressure.policy",
+            BackpressurePolicy.BLOCK.name());
+    private static final Property<Integer> WORKER_THREADS = new Property<>("emit.worker.threads", 0);
+
+    private final boolean asyncEnabled;
+    private final int mailboxCapacity;
+    private final BackpressurePolicy backpressurePolicy;
+    private final int workerThreads;
+
+    public WireHelperServiceOptions(final Map<String, Object> properties) {
+        this.asyncEnabled = ASYNC_ENABLED.get(properties);
+        this.mailboxCapacity = Math.max(1, MAILBOX_CAPACITY.get(properties));
+        this.backpressurePolicy = parseBackpressurePolicy(BACKPRESSURE_POLICY.get(properties));
+
+        final int configuredWorkerThreads = WORKER_THREADS.get(properties);
+
+        this.workerThreads = configuredWorkerThreads > 0 ? configuredWorkerThreads
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    public boolean isAsyncEnabled() {
+        return this.asyncEnabled;
+    }
+
+    public int getMailboxCapacity() {
+        return this.mailboxCapacity;
+    }
+
+    public BackpressurePolicy getBackpressurePolicy() {
+        return this.backpressurePolicy;
+    }
+
+    public int getWorkerThreads() {
+        return this.workerThreads;
+    }
+
+    private static BackpressurePolicy parseBackpressurePolicy(final String value) {
+        try {
+            return BackpressurePolicy.valueOf(value);
+        } catch (final IllegalArgumentException e) {
+            return BackpressurePolicy.BLOCK;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -34,6 +34,7 @@ import org.eclipse.kura.wire.graph.EmitterPort;
 import org.eclipse.kura.wire.graph.MultiportWireSupport;
 import org.eclipse.kura.wire.graph.Port;
 import org.eclipse.kura.wire.graph.ReceiverPort;
+import org.eclipse.kura.wire.graph.WireDeliveryStatistics;
 import org.osgi.service.wireadmin.Wire;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,15 +58,22 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
 
     private final Map<Wire, ReceiverPortImpl> receiverPortByWire;
 
+    private final DeliveryDispatcher dispatcher;
+
+    private final ReceiverMailbox mailbox;
+
     WireSupportImpl(final WireComponent wireComponent, final String servicePid, final String kuraServicePid,
-            int inputPortCount, int outputPortCount) {
+            int inputPortCount, int outputPortCount, final DeliveryDispatcher dispatcher) {
         requireNonNull(wireComponent, "Wire component cannot be null");
         requireNonNull(servicePid, "service pid cannot be null");
         requireNonNull(kuraServicePid, "kura service pid cannot be null");
+        requireNonNull(dispatcher, "dispatcher cannot be null");
 
         this.servicePid = servicePid;
         this.kuraServicePid = kuraServicePid;
         this.wireComponent = wireComponent;
+        this.dispatcher = dispatcher;
+        this.mailbox = new ReceiverMailbox(dispatcher, kuraServicePid, this::deliver);
 
         if (inputPortCount < 0) {
             throw new IllegalArgumentException("Input port count must be greater or equal than zero");
@@ -150,6 +158,7 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
                 logger.warn("Failed to assign incomimg wire to port", e);
             }
         }
+        this.mailbox.retainWires(this.receiverPortByWire.keySet());
     }
 
     /** {@inheritDoc} */
@@ -160,11 +169,25 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
             return;
         }
         final WireEnvelope envelope = (WireEnvelope) value;
+        if (this.dispatcher.getOptions().isAsyncEnabled()) {
+            this.mailbox.offer(wire, envelope);
+        } else {
+            deliver(wire, envelope);
+        }
+    }
+
+    List<WireDeliveryStatistics> getWireDeliveryStatistics() {
+        return this.mailbox.getStatistics();
+    }
+
+    private void deliver(final Wire wire, final WireEnvelope envelope) {
         if (wireComponent instanceof WireReceiver) {
             ((WireReceiver) this.wireComponent).onWireReceive(envelope);
         } else {
             final ReceiverPortImpl receiverPort = this.receiverPortByWire.get(wire);
-            receiverPort.consumer.accept(envelope);
+            if (receiverPort != null) {
+                receiverPort.consumer.accept(envelope);
+            }
         }
     }
 
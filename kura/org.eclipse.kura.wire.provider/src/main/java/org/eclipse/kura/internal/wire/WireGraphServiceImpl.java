@@ -48,9 +48,11 @@ import org.eclipse.kura.marshalling.Marshaller;
 import org.eclipse.kura.marshalling.Unmarshaller;
 import org.eclipse.kura.util.service.ServiceUtil;
 import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.graph.Constants;
 import org.eclipse.kura.wire.graph.MultiportWireConfiguration;
 import org.eclipse.kura.wire.graph.WireComponentConfiguration;
+import org.eclipse.kura.wire.graph.WireDeliveryStatistics;
 import org.eclipse.kura.wire.graph.WireGraphConfiguration;
 import org.eclipse.kura.wire.graph.WireGraphService;
 import org.osgi.framework.BundleContext;
@@ -88,6 +90,7 @@ public class WireGraphServiceImpl implements ConfigurableComponent, WireGraphSer
     private ServiceTracker<WireComponent, WireComponent> wireComponentServiceTracker;
 
     private ConfigurationService configurationService;
+    private volatile WireHelperService wireHelperService;
     private BundleContext bundleContext;
 
     private WireGraphConfiguration currentConfiguration;
@@ -128,6 +131,16 @@ public class WireGraphServiceImpl implements ConfigurableComponent, WireGraphSer
         this.configurationService = null;
     }
 
+    public void setWireHelperService(final WireHelperService wireHelperService) {
+        this.wireHelperService = wireHelperService;
+    }
+
+    public void unsetWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == wireHelperService) {
+            this.wireHelperService = null;
+        }
+    }
+
     protected void activate(final ComponentContext componentContext, final Map<String, Object> properties) {
         logger.info("Activating Wire Service...");
         this.bundleContext = componentContext.getBundleContext();
@@ -723,4 +736,14 @@ public class WireGraphServiceImpl implements ConfigurableComponent, WireGraphSer
         }
     }
 
+    @Override
+    public List<WireDeliveryStatistics> getWireDeliveryStatistics() {
+        final WireHelperService currentWireHelperService = this.wireHelperService;
+
+        if (currentWireHelperService == null) {
+            return Collections.emptyList();
+        }
+
+        return currentWireHelperService.getWireDeliveryStatistics();
+    }
 }
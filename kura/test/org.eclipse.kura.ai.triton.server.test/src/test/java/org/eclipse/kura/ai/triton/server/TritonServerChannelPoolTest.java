@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.ai.triton.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.testing.GrpcCleanupRule;
+
+public class TritonServerChannelPoolTest {
+
+    @Rule
+    public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+    private final List<ManagedChannel> channels = new ArrayList<>();
+    private final List<Channel> usedChannels = new ArrayList<>();
+    private TritonServerChannelPool pool;
+    private Exception exception;
+
+    @Test
+    public void shouldUseChannelsInRoundRobin() {
+        givenChannels(3);
+        givenPool();
+
+        whenAsyncStubsAreUsed(4);
+        whenBlockingStubsAreUsed(2);
+
+        thenUsedChannelsAre(0, 1, 2, 0, 1, 2);
+    }
+
+    @Test
+    public void shouldUseFirstChannelForManagement() {
+        givenChannels(2);
+        givenPool();
+
+        whenAsyncStubsAreUsed(1);
+
+        thenManagementChannelIs(0);
+    }
+
+    @Test
+    public void shouldShutdownChannels() {
+        givenChannels(2);
+        givenPool();
+
+        whenPoolIsShutdown();
+
+        thenChannelsAreShutdown();
+    }
+
+    @Test
+    public void shouldCreateConfiguredNumberOfChannels() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("grpc.channels", 3);
+        properties.put("grpc.keepalive.time", 10);
+
+        whenPoolIsCreated(new TritonServerServiceOptions(properties));
+
+        thenPoolSizeIs(3);
+    }
+
+    @Test
+    public void shouldNotCreateEmptyPool() {
+        whenPoolIsCreated(Collections.emptyList());
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenChannels(int count) {
+        for (int i = 0; i < count; i++) {
+            String serverName = InProcessServerBuilder.generateName();
+            this.channels.add(this.grpcCleanup
+                    .register(InProcessChannelBuilder.forName(serverName).directExecutor().build()));
+        }
+    }
+
+    private void givenPool() {
+        this.pool = new TritonServerChannelPool(this.channels);
+    }
+
+    private void whenAsyncStubsAreUsed(int count) {
+        for (int i = 0; i < count; i++) {
+            this.usedChannels.add(this.pool.nextAsyncStub().getChannel());
+        }
+    }
+
+    private void whenBlockingStubsAreUsed(int count) {
+        for (int i = 0; i < count; i++) {
+            this.usedChannels.add(this.pool.nextBlockingStub().getChannel());
+        }
+    }
+
+    private void whenPoolIsShutdown() {
+        this.pool.shutdown();
+    }
+
+    private void whenPoolIsCreated(TritonServerServiceOptions options) {
+        this.pool = TritonServerChannelPool.create("localhost", options);
+    }
+
+    private void whenPoolIsCreated(List<ManagedChannel> poolChannels) {
+        try {
+            this.pool = new TritonServerChannelPool(poolChannels);
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void thenUsedChannelsAre(int... indexes) {
+        assertEquals(indexes.length, this.usedChannels.size());
+        for (int i = 0; i < indexes.length; i++) {
+            assertSame(this.channels.get(indexes[i]), this.usedChannels.get(i));
+        }
+    }
+
+    private void thenManagementChannelIs(int index) {
+        assertSame(this.channels.get(index), this.pool.getManagementStub().getChannel());
+    }
+
+    private void thenChannelsAreShutdown() {
+        this.channels.forEach(channel -> assertTrue(channel.isTerminated()));
+    }
+
+    private void thenPoolSizeIs(int expected) {
+        try {
+            assertEquals(expected, this.pool.size());
+        } finally {
+            this.pool.shutdown();
+        }
+    }
+
+    private void thenExceptionIsThrown(Class<? extends Exception> expected) {
+        assertTrue("expected " + expected + " but got " + this.exception, expected.isInstance(this.exception));
+    }
+}
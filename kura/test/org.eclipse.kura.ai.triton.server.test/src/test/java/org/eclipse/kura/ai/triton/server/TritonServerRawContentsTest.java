@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.ai.triton.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+
+public class TritonServerRawContentsTest {
+
+    private Tensor tensor;
+    private ByteString encoded;
+    private Exception exception;
+
+    @Test
+    public void shouldDecodeLittleEndianValues() {
+        givenEncodedContents(littleEndian(12).putInt(1).putInt(-2).putInt(Integer.MAX_VALUE));
+
+        whenDecoded("INT32");
+
+        thenTensorDataIs(Integer.class, Arrays.asList(1, -2, Integer.MAX_VALUE));
+        thenTensorBufferSizeIs(12);
+    }
+
+    @Test
+    public void shouldDecodeBooleansAsNonZeroBytes() {
+        givenEncodedContents(ByteBuffer.allocate(3).put((byte) 0).put((byte) 1).put((byte) 2));
+
+        whenDecoded("BOOL");
+
+        thenTensorDataIs(Boolean.class, Arrays.asList(false, true, true));
+    }
+
+    @Test
+    public void shouldSkipLengthOfBytesContents() {
+        givenEncodedContents(littleEndian(7).putInt(3).put((byte) 4).put((byte) 5).put((byte) 6));
+
+        whenDecoded("BYTES");
+
+        thenTensorDataIs(Byte.class, Arrays.asList((byte) 4, (byte) 5, (byte) 6));
+        thenTensorBufferSizeIs(3);
+    }
+
+    @Test
+    public void shouldNotDecodeTruncatedBytesContents() {
+        givenEncodedContents(ByteBuffer.allocate(2));
+
+        whenDecoded("BYTES");
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotDecodeUnsupportedDataType() {
+        givenEncodedContents(ByteBuffer.allocate(2));
+
+        whenDecoded("FP16");
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldEncodeBigEndianBufferInLittleEndianOrder() {
+        givenTensor("FP64", Double.class,
+                (ByteBuffer) ByteBuffer.allocate(16).putDouble(1.25d).putDouble(-3.5d).flip());
+
+        whenEncoded();
+
+        thenEncodedContentsAre(littleEndian(16).putDouble(1.25d).putDouble(-3.5d).array());
+    }
+
+    @Test
+    public void shouldEncodeOnlyRemainingBytesOfBuffer() {
+        givenTensor("UINT8", Byte.class, ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }, 1, 2));
+
+        whenEncoded();
+
+        thenEncodedContentsAre(new byte[] { 2, 3 });
+    }
+
+    @Test
+    public void shouldEncodeListValues() {
+        givenTensor("INT64", Long.class, Arrays.asList(1L, -1L));
+
+        whenEncoded();
+
+        thenEncodedContentsAre(littleEndian(16).putLong(1L).putLong(-1L).array());
+    }
+
+    @Test
+    public void shouldNotEncodeBufferWithMismatchingType() {
+        givenTensor("FP32", Integer.class, ByteBuffer.allocate(4));
+
+        whenEncoded();
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotEncodeListWithMismatchingType() {
+        givenTensor("INT8", Long.class, Arrays.asList(1L));
+
+        whenEncoded();
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotCreateTensorWithPartialElements() {
+        whenTensorIsCreated(Long.class, ByteBuffer.allocate(12));
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotCreateTensorWithUnsupportedType() {
+        whenTensorIsCreated(String.class, ByteBuffer.allocate(4));
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotModifyTensorData() {
+        givenTensor("INT32", Integer.class, (ByteBuffer) littleEndian(4).putInt(5).flip());
+
+        whenTensorDataIsModified();
+
+        thenExceptionIsThrown(UnsupportedOperationException.class);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenEncodedContents(ByteBuffer contents) {
+        contents.flip();
+        this.encoded = ByteString.copyFrom(contents);
+    }
+
+    private void givenTensor(String dataType, Class<?> type, ByteBuffer data) {
+        this.tensor = new Tensor(type, descriptor(dataType), data);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void givenTensor(String dataType, Class<?> type, List<?> data) {
+        this.tensor = new Tensor((Class) type, descriptor(dataType), (List) data);
+    }
+
+    private void whenDecoded(String dataType) {
+        try {
+            this.tensor = TritonServerRawContents.decode(this.encoded, descriptor(dataType));
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenEncoded() {
+        try {
+            this.encoded = TritonServerRawContents.encode(this.tensor);
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenTensorIsCreated(Class<?> type, ByteBuffer data) {
+        try {
+            this.tensor = new Tensor(type, descriptor("INT64"), data);
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenTensorDataIsModified() {
+        try {
+            this.tensor.getData(Integer.class).get().set(0, 1);
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private <T> void thenTensorDataIs(Class<T> type, List<T> expected) {
+        assertEquals(Optional.of(expected), this.tensor.getData(type));
+    }
+
+    private void thenTensorBufferSizeIs(int expected) {
+        ByteBuffer buffer = this.tensor.getBuffer().get();
+
+        assertTrue(buffer.isReadOnly());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+        assertEquals(expected, buffer.remaining());
+    }
+
+    private void thenEncodedContentsAre(byte[] expected) {
+        assertArrayEquals(expected, this.encoded.toByteArray());
+    }
+
+    private void thenExceptionIsThrown(Class<? extends Exception> expected) {
+        assertTrue("expected " + expected + " but got " + this.exception, expected.isInstance(this.exception));
+    }
+
+    private static TensorDescriptor descriptor(String dataType) {
+        return new TensorDescriptor("tensor", dataType, Optional.empty(), Arrays.asList(1L), new HashMap<>());
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
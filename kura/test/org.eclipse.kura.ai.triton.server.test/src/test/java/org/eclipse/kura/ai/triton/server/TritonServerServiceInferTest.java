@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,15 @@
 package org.eclipse.kura.ai.triton.server;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
 
+import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
 import org.junit.Test;
 
 public class TritonServerServiceInferTest extends TritonServerServiceStepDefinitions {
@@ -26,6 +34,106 @@ public class TritonServerServiceInferTest extends TritonServerServiceStepDefinit
         whenInferData(exampleModel(), exampleInputData());
 
         thenTensorsAreReturned();
+        thenInferRequestHasNoRawInputContents();
+    }
+
+    @Test
+    public void shouldInferDataAsync() throws IOException, InterruptedException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenInferDataAsync(exampleModel(), exampleInputData());
+
+        thenNoExceptionIsCaught();
+        thenTensorsAreReturned();
+        thenReturnedTensorDataIs("name4", Float.class, Arrays.asList(134.76f));
+    }
+
+    @Test
+    public void shouldCollectModelStatistics() throws IOException, InterruptedException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenInferData(exampleModel(), exampleInputData());
+        whenInferDataAsync(exampleModel(), exampleInputData());
+        whenInferDataAsync(exampleModel(), Arrays.asList(listTensor("in1", "FP16", Float.class, Arrays.asList(1f))));
+
+        thenModelStatisticsAre(exampleModel().getName(), 2, 0);
+    }
+
+    @Test
+    public void shouldCompleteAsyncInferenceExceptionallyWithInvalidInputs() throws IOException, InterruptedException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenInferDataAsync(exampleModel(), Arrays.asList(listTensor("in1", "FP16", Float.class, Arrays.asList(1f))));
+
+        thenExceptionIsCaught();
+    }
+
+    @Test
+    public void shouldReturnBufferBackedOutputs() throws IOException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenInferData(exampleModel(), exampleInputData());
+
+        thenReturnedTensorIsBufferBacked("name1");
+        thenReturnedTensorDataIs("name1", Double.class, Arrays.asList(34.76d));
+        thenReturnedTensorDataIs("name2", Boolean.class, Arrays.asList(true));
+        thenReturnedTensorDataIs("name3", Byte.class, Arrays.asList());
+        thenReturnedTensorDataIs("name4", Float.class, Arrays.asList(134.76f));
+        thenReturnedTensorDataIs("name5", Long.class, Arrays.asList(56436L));
+        thenReturnedTensorDataIs("name6", Integer.class, Arrays.asList(45465));
+    }
+
+    @Test
+    public void shouldSendBufferBackedInputsAsRawContents() throws IOException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenInferData(exampleModel(), Arrays.asList(
+                bufferTensor("in1", "FP32", Float.class,
+                        ByteBuffer.allocateDirect(8).order(ByteOrder.LITTLE_ENDIAN).putFloat(1.5f).putFloat(-2f)),
+                bufferTensor("in2", "INT16", Short.class,
+                        ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN).putShort((short) 1).putShort((short) -2)),
+                bufferTensor("in3", "BYTES", Byte.class, ByteBuffer.allocate(2).put((byte) 7).put((byte) 8))));
+
+        thenTensorsAreReturned();
+        thenInferRequestHasRawInputContents(3);
+        thenRawInputContentsAre(0, littleEndian(8).putFloat(1.5f).putFloat(-2f).array());
+        thenRawInputContentsAre(1, littleEndian(4).putShort((short) 1).putShort((short) -2).array());
+        thenRawInputContentsAre(2, littleEndian(6).putInt(2).put((byte) 7).put((byte) 8).array());
+    }
+
+    @Test
+    public void shouldSendListInputsAsRawContentsWhenMixedWithBufferBackedInputs() throws IOException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenInferData(exampleModel(), Arrays.asList(
+                bufferTensor("in1", "UINT8", Byte.class, ByteBuffer.allocate(2).put((byte) 1).put((byte) 2)),
+                listTensor("in2", "INT32", Integer.class, Arrays.asList(3, 4)),
+                listTensor("in3", "UINT16", Integer.class, Arrays.asList(5)),
+                listTensor("in4", "BOOL", Boolean.class, Arrays.asList(true, false))));
+
+        thenTensorsAreReturned();
+        thenInferRequestHasRawInputContents(4);
+        thenRawInputContentsAre(0, new byte[] { 1, 2 });
+        thenRawInputContentsAre(1, littleEndian(8).putInt(3).putInt(4).array());
+        thenRawInputContentsAre(2, littleEndian(2).putShort((short) 5).array());
+        thenRawInputContentsAre(3, new byte[] { 1, 0 });
+    }
+
+    private static <T> Tensor bufferTensor(String name, String dataType, Class<T> type, ByteBuffer data) {
+        data.flip();
+        return new Tensor(type, descriptor(name, dataType), data);
+    }
+
+    private static <T> Tensor listTensor(String name, String dataType, Class<T> type, List<T> data) {
+        return new Tensor(type, descriptor(name, dataType), data);
+    }
+
+    private static TensorDescriptor descriptor(String name, String dataType) {
+        return new TensorDescriptor(name, dataType, Optional.empty(), Arrays.asList(1L), new HashMap<>());
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
     }
 
 }
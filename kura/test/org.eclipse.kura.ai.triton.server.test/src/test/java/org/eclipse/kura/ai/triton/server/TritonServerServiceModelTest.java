@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -84,4 +84,63 @@ public class TritonServerServiceModelTest extends TritonServerServiceStepDefinit
         thenModelInfoExists();
     }
 
+    @Test
+    public void shouldCacheModelMetadata() throws IOException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenGetModelInfo("myModel");
+        whenGetModelInfo("myModel");
+
+        thenModelInfoExists();
+        thenModelMetadataIsRequested(1);
+    }
+
+    @Test
+    public void shouldRequestModelMetadataAgainAfterLoad() throws IOException, KuraException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenGetModelInfo("myModel");
+        whenLoadModel("myModel");
+        whenGetModelInfo("myModel");
+
+        thenModelMetadataIsRequested(2);
+    }
+
+    @Test
+    public void shouldNotCacheModelReadyState() throws IOException, KuraException {
+        givenTritonServerServiceImpl(defaultProperties());
+        givenModelIsReady("myModel");
+
+        whenGetModelLoadState("myModel");
+        whenGetModelLoadState("myModel");
+
+        thenNoExceptionIsCaught();
+        thenModelReadyIsRequested(2);
+    }
+
+    @Test
+    public void shouldReportModelUnloadedByAnotherClient() throws IOException, KuraException {
+        givenTritonServerServiceImpl(defaultProperties());
+        givenModelIsReady("myModel");
+
+        whenGetModelLoadState("myModel");
+        whenModelIsUnloadedRemotely("myModel");
+
+        thenNoExceptionIsCaught();
+        thenModelIsReported(false);
+    }
+
+    @Test
+    public void shouldRequestModelMetadataAgainAfterServerIsDown() throws IOException, KuraException {
+        givenTritonServerServiceImpl(defaultProperties());
+
+        whenGetModelInfo("myModel");
+        whenServerIsDown();
+        whenAskingIfEngineIsReady();
+        whenServerIsUp();
+        whenGetModelInfo("myModel");
+
+        thenModelMetadataIsRequested(2);
+    }
+
 }
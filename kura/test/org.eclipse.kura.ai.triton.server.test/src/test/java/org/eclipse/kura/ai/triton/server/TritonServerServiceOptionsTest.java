@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -227,6 +227,31 @@ public class TritonServerServiceOptionsTest {
         thenGrpcMaxMessageSizeIsEqualTo(4194304);
     }
 
+    @Test
+    public void shouldReturnInputGrpcChannelOptions() {
+        givenPropertyWith("server.address", "localhost");
+        givenPropertyWith("server.ports", new Integer[] { 4000, 4001, 4002 });
+        givenPropertyWith("enable.local", Boolean.FALSE);
+        givenPropertyWith("grpc.channels", 4);
+        givenPropertyWith("grpc.keepalive.time", 30);
+        givenPropertyWith("grpc.keepalive.timeout", 5);
+        givenPropertyWith("grpc.flow.control.window", 8388608);
+        givenServiceOptionsBuiltWith(this.properties);
+
+        thenGrpcChannelOptionsAre(4, 30, 5, 8388608);
+    }
+
+    @Test
+    public void shouldReturnDefaultGrpcChannelOptions() {
+        givenPropertyWith("server.address", "localhost");
+        givenPropertyWith("server.ports", new Integer[] { 4000, 4001, 4002 });
+        givenPropertyWith("enable.local", Boolean.FALSE);
+        givenPropertyWith("grpc.channels", 0);
+        givenServiceOptionsBuiltWith(this.properties);
+
+        thenGrpcChannelOptionsAre(1, 0, 20, 1048576);
+    }
+
     @Test
     public void shouldReturnNotPresentForOptionalParametersIfNotSet() {
         givenPropertyWith("server.address", "localhost");
@@ -401,6 +426,14 @@ public class TritonServerServiceOptionsTest {
         assertEquals(expectedValue, this.options.getGrpcMaxMessageSize());
     }
 
+    private void thenGrpcChannelOptionsAre(int channels, int keepAliveTime, int keepAliveTimeout,
+            int flowControlWindow) {
+        assertEquals(channels, this.options.getGrpcChannels());
+        assertEquals(keepAliveTime, this.options.getGrpcKeepAliveTime());
+        assertEquals(keepAliveTimeout, this.options.getGrpcKeepAliveTimeout());
+        assertEquals(flowControlWindow, this.options.getGrpcFlowControlWindow());
+    }
+
     private void thenEqualsMethodShouldReturn(boolean value) {
         assertEquals(value, this.equalsResult);
     }
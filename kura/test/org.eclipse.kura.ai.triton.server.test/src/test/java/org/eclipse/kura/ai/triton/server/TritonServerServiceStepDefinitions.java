@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,23 +13,33 @@
 
 package org.eclipse.kura.ai.triton.server;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import org.eclipse.kura.KuraException;
@@ -56,6 +66,8 @@ import inference.GrpcService.ModelInferResponse.InferOutputTensor;
 import inference.GrpcService.ModelMetadataRequest;
 import inference.GrpcService.ModelMetadataResponse;
 import inference.GrpcService.ModelMetadataResponse.TensorMetadata;
+import inference.GrpcService.ModelReadyRequest;
+import inference.GrpcService.ModelReadyResponse;
 import inference.GrpcService.RepositoryIndexRequest;
 import inference.GrpcService.RepositoryIndexResponse;
 import inference.GrpcService.RepositoryIndexResponse.ModelIndex;
@@ -80,8 +92,13 @@ public abstract class TritonServerServiceStepDefinitions {
     protected boolean methodCalled;
     protected boolean exceptionCaught;
     protected Optional<ModelInfo> modelInfo;
+    protected ModelInferRequest lastInferRequest;
 
     private List<String> tritonModelRepoStub;
+    private Set<String> readyModels = new HashSet<>();
+    private Set<String> unloadedModels = new HashSet<>();
+    private boolean serverDown;
+    private GRPCInferenceServiceGrpc.GRPCInferenceServiceImplBase grpcService;
 
     private Command startTritonServerCmd = new Command(new String[] { "tritonserver",
             "--model-repository=/fake-repository-path", "--backend-directory=/fake-backends-path", "--http-port=4001",
@@ -124,6 +141,23 @@ public abstract class TritonServerServiceStepDefinitions {
         this.tritonServerService = createTritonServerServiceImpl(null, tritonModelRepoStub, false);
     }
 
+    protected void givenModelIsReady(String modelName) {
+        this.readyModels.add(modelName);
+    }
+
+    protected void whenModelIsUnloadedRemotely(String modelName) {
+        this.readyModels.remove(modelName);
+        this.unloadedModels.add(modelName);
+    }
+
+    protected void whenServerIsDown() {
+        this.serverDown = true;
+    }
+
+    protected void whenServerIsUp() {
+        this.serverDown = false;
+    }
+
     protected void whenLoadModel(String modelName) throws KuraIOException {
         try {
             this.tritonServerService.loadModel(modelName, Optional.empty());
@@ -172,6 +206,15 @@ public abstract class TritonServerServiceStepDefinitions {
         }
     }
 
+    protected void whenInferDataAsync(ModelInfo modelInfo, List<Tensor> inputData) throws InterruptedException {
+        try {
+            this.tensorList = this.tritonServerService.inferAsync(modelInfo, inputData).toCompletableFuture().get(5,
+                    TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            this.exceptionCaught = true;
+        }
+    }
+
     protected void whenAskingIfEngineIsReady() {
         this.isEngineReady = this.tritonServerService.isEngineReady();
     }
@@ -236,6 +279,55 @@ public abstract class TritonServerServiceStepDefinitions {
         assertFalse(this.tensorList.isEmpty());
     }
 
+    protected <T> void thenReturnedTensorDataIs(String name, Class<T> type, List<T> expectedData) {
+        assertEquals(Optional.of(expectedData), findReturnedTensor(name).getData(type));
+    }
+
+    protected void thenReturnedTensorIsBufferBacked(String name) {
+        assertTrue(findReturnedTensor(name).getBuffer().isPresent());
+    }
+
+    protected void thenInferRequestHasRawInputContents(int count) {
+        assertEquals(count, this.lastInferRequest.getRawInputContentsCount());
+        this.lastInferRequest.getInputsList().forEach(input -> assertFalse(input.hasContents()));
+    }
+
+    protected void thenInferRequestHasNoRawInputContents() {
+        assertEquals(0, this.lastInferRequest.getRawInputContentsCount());
+    }
+
+    protected void thenRawInputContentsAre(int index, byte[] expected) {
+        assertArrayEquals(expected, this.lastInferRequest.getRawInputContents(index).toByteArray());
+    }
+
+    private Tensor findReturnedTensor(String name) {
+        return this.tensorList.stream().filter(t -> t.getDescriptor().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("tensor " + name + " not found"));
+    }
+
+    protected void thenModelMetadataIsRequested(int count) {
+        verify(this.grpcService, times(count)).modelMetadata(any(), any());
+    }
+
+    protected void thenModelReadyIsRequested(int count) {
+        verify(this.grpcService, times(count)).modelReady(any(), any());
+    }
+
+    protected void thenModelIsReported(boolean expected) throws KuraException {
+        assertEquals(expected, this.tritonServerService.isModelLoaded("myModel"));
+    }
+
+    protected void thenModelStatisticsAre(String modelName, long completed, long failed) {
+        TritonServerModelStatistics statistics = this.tritonServerService.getModelStatistics().stream()
+                .filter(s -> s.getModelName().equals(modelName)).findFirst()
+                .orElseThrow(() -> new AssertionError("no statistics for " + modelName));
+
+        assertEquals(0, statistics.getInFlightCount());
+        assertEquals(completed, statistics.getCompletedCount());
+        assertEquals(failed, statistics.getFailedCount());
+        assertEquals(completed + failed, Arrays.stream(statistics.getLatencyBucketCounts()).sum());
+    }
+
     protected void thenAfterWaiting(long millisecondsToWait) throws InterruptedException {
         Thread.sleep(millisecondsToWait);
     }
@@ -356,13 +448,14 @@ public abstract class TritonServerServiceStepDefinitions {
         }
 
         GRPCInferenceServiceGrpc.GRPCInferenceServiceImplBase serviceImpl = createGRPCMock(tritonModelRepoStub);
+        this.grpcService = serviceImpl;
 
         String serverName = InProcessServerBuilder.generateName();
         grpcCleanup.register(
                 InProcessServerBuilder.forName(serverName).directExecutor().addService(serviceImpl).build().start());
         ManagedChannel channel = grpcCleanup
                 .register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
-        tritonServerServiceImpl.setGrpcStub(GRPCInferenceServiceGrpc.newBlockingStub(channel));
+        tritonServerServiceImpl.setGrpcChannels(Collections.singletonList(channel));
 
         return tritonServerServiceImpl;
     }
@@ -385,13 +478,14 @@ public abstract class TritonServerServiceStepDefinitions {
         }
 
         GRPCInferenceServiceGrpc.GRPCInferenceServiceImplBase serviceImpl = createGRPCMock(tritonModelRepoStub);
+        this.grpcService = serviceImpl;
 
         String serverName = InProcessServerBuilder.generateName();
         grpcCleanup.register(
                 InProcessServerBuilder.forName(serverName).directExecutor().addService(serviceImpl).build().start());
         ManagedChannel channel = grpcCleanup
                 .register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
-        tritonServerServiceImpl.setGrpcStub(GRPCInferenceServiceGrpc.newBlockingStub(channel));
+        tritonServerServiceImpl.setGrpcChannels(Collections.singletonList(channel));
 
         return tritonServerServiceImpl;
     }
@@ -414,13 +508,14 @@ public abstract class TritonServerServiceStepDefinitions {
         }
 
         GRPCInferenceServiceGrpc.GRPCInferenceServiceImplBase serviceImpl = createGRPCMock(tritonModelRepoStub);
+        this.grpcService = serviceImpl;
 
         String serverName = InProcessServerBuilder.generateName();
         grpcCleanup.register(
                 InProcessServerBuilder.forName(serverName).directExecutor().addService(serviceImpl).build().start());
         ManagedChannel channel = grpcCleanup
                 .register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
-        tritonServerServiceImpl.setGrpcStub(GRPCInferenceServiceGrpc.newBlockingStub(channel));
+        tritonServerServiceImpl.setGrpcChannels(Collections.singletonList(channel));
 
         return tritonServerServiceImpl;
     }
@@ -452,13 +547,14 @@ public abstract class TritonServerServiceStepDefinitions {
         }
 
         GRPCInferenceServiceGrpc.GRPCInferenceServiceImplBase serviceImpl = createGRPCMock(tritonModelRepoStub);
+        this.grpcService = serviceImpl;
 
         String serverName = InProcessServerBuilder.generateName();
         grpcCleanup.register(
                 InProcessServerBuilder.forName(serverName).directExecutor().addService(serviceImpl).build().start());
         ManagedChannel channel = grpcCleanup
                 .register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
-        tritonServerServiceImpl.setGrpcStub(GRPCInferenceServiceGrpc.newBlockingStub(channel));
+        tritonServerServiceImpl.setGrpcChannels(Collections.singletonList(channel));
 
         return tritonServerServiceImpl;
     }
@@ -528,6 +624,7 @@ public abstract class TritonServerServiceStepDefinitions {
                             StreamObserver<ModelInferResponse> responseObserver) {
 
                         TritonServerServiceStepDefinitions.this.methodCalled = true;
+                        TritonServerServiceStepDefinitions.this.lastInferRequest = request;
 
                         List<InferOutputTensor> outputTensor = new ArrayList<>();
                         outputTensor.add(InferOutputTensor.newBuilder().setDatatype("FP64").setName("name1")
@@ -573,12 +670,29 @@ public abstract class TritonServerServiceStepDefinitions {
                         responseObserver.onCompleted();
                     }
 
+                    @Override
+                    public void modelReady(ModelReadyRequest request,
+                            StreamObserver<ModelReadyResponse> responseObserver) {
+                        TritonServerServiceStepDefinitions.this.methodCalled = true;
+
+                        if (TritonServerServiceStepDefinitions.this.readyModels.contains(request.getName())) {
+                            responseObserver.onNext(ModelReadyResponse.newBuilder().setReady(true).build());
+                            responseObserver.onCompleted();
+                        } else if (TritonServerServiceStepDefinitions.this.unloadedModels.contains(request.getName())) {
+                            responseObserver.onNext(ModelReadyResponse.newBuilder().setReady(false).build());
+                            responseObserver.onCompleted();
+                        } else {
+                            super.modelReady(request, responseObserver);
+                        }
+                    }
+
                     @Override
                     public void serverLive(ServerLiveRequest request,
                             StreamObserver<ServerLiveResponse> responseObserver) {
                         TritonServerServiceStepDefinitions.this.methodCalled = true;
 
-                        ServerLiveResponse response = ServerLiveResponse.newBuilder().setLive(true).build();
+                        ServerLiveResponse response = ServerLiveResponse.newBuilder()
+                                .setLive(!TritonServerServiceStepDefinitions.this.serverDown).build();
                         responseObserver.onNext(response);
                         responseObserver.onCompleted();
                     }
@@ -592,6 +706,10 @@ public abstract class TritonServerServiceStepDefinitions {
         this.methodCalled = false;
         this.modelsFound.clear();
         this.modelInfo = Optional.empty();
+        this.lastInferRequest = null;
+        this.readyModels.clear();
+        this.unloadedModels.clear();
+        this.serverDown = false;
         this.tensorList.clear();
         this.isEngineReady = false;
 
@@ -602,14 +720,14 @@ public abstract class TritonServerServiceStepDefinitions {
 
     private byte[] convertDoubleToByteArray(Double value) {
 
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Double.BYTES);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
         byteBuffer.putDouble(value);
         return byteBuffer.array();
     }
 
     private byte[] convertFloatToByteArray(Float value) {
 
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
         byteBuffer.putFloat(value);
         return byteBuffer.array();
     }
@@ -630,13 +748,13 @@ public abstract class TritonServerServiceStepDefinitions {
     }
 
     private byte[] convertLongToByteArray(Long value) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Long.BYTES);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
         byteBuffer.putLong(value);
         return byteBuffer.array();
     }
 
     private byte[] convertIntegerToByteArray(Integer value) {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
         byteBuffer.putInt(value);
         return byteBuffer.array();
     }
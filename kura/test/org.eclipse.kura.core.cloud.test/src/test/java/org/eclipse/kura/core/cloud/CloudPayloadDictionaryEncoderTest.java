@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.cloud;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Optional;
+
+import org.eclipse.kura.KuraInvalidMessageException;
+import org.eclipse.kura.core.util.CompressionDictionary;
+import org.eclipse.kura.core.util.CompressionDictionaryTrainer;
+import org.eclipse.kura.core.util.DictionaryDeflateUtil;
+import org.eclipse.kura.message.KuraPayload;
+import org.junit.Test;
+
+public class CloudPayloadDictionaryEncoderTest {
+
+    private static final String[] CHANNELS = { "temperature", "humidity", "pressure", "flow.rate", "valve.position",
+            "motor.speed", "motor.current", "tank.level" };
+
+    private final CompressionDictionaryTrainer trainer = new CompressionDictionaryTrainer(4096, 10);
+
+    private Optional<CompressionDictionary> refreshedDictionary = Optional.empty();
+    private KuraPayload payload;
+    private byte[] encoded;
+    private KuraPayload decoded;
+    private Exception exception;
+
+    @Test
+    public void shouldBuildDictionaryAfterRefreshInterval() {
+        givenTrainedPayloads(9);
+
+        whenDictionaryIsRefreshed();
+
+        thenNoDictionaryIsBuilt();
+
+        givenTrainedPayloads(1);
+
+        whenDictionaryIsRefreshed();
+
+        thenDictionaryIsBuilt();
+    }
+
+    @Test
+    public void shouldNotRebuildUnchangedDictionary() {
+        givenTrainedPayloads(10);
+        givenRefreshedDictionaryInUse();
+        givenTrainedPayloads(10);
+
+        whenDictionaryIsRefreshed();
+
+        thenNoDictionaryIsBuilt();
+    }
+
+    @Test
+    public void shouldDecodePayloadCompressedWithRegisteredDictionary() throws IOException {
+        givenTrainedPayloads(10);
+        givenRefreshedDictionaryInUse();
+        givenDictionaryRegistered();
+        givenPayload(42);
+
+        whenPayloadIsEncoded();
+        whenPayloadIsDecoded();
+
+        thenPayloadIsCompressedWithDictionary();
+        thenDecodedPayloadIsEqualToPayload();
+    }
+
+    @Test
+    public void shouldDecodePayloadCompressedWithoutDictionary() throws IOException {
+        givenPayload(42);
+
+        whenPayloadIsEncoded();
+        whenPayloadIsDecoded();
+
+        thenPayloadIsCompressedWithDictionary();
+        thenDecodedPayloadIsEqualToPayload();
+    }
+
+    @Test
+    public void shouldNotDecodePayloadCompressedWithUnknownDictionary() throws IOException {
+        givenTrainedPayloads(10);
+        givenRefreshedDictionaryInUse();
+        givenPayload(42);
+
+        whenPayloadIsEncoded();
+        whenPayloadIsDecoded();
+
+        thenDecodingFailed();
+    }
+
+    @Test
+    public void shouldCompressBetterThanGzip() throws IOException {
+        givenTrainedPayloads(10);
+        givenRefreshedDictionaryInUse();
+        givenPayload(42);
+
+        whenPayloadIsEncoded();
+
+        thenEncodedPayloadIsSmallerThanGzip();
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenTrainedPayloads(final int count) {
+        for (int i = 0; i < count; i++) {
+            this.trainer.train(buildAssetPayload(i).metrics());
+        }
+    }
+
+    private void givenRefreshedDictionaryInUse() {
+        whenDictionaryIsRefreshed();
+        thenDictionaryIsBuilt();
+
+        this.trainer.setDictionary(this.refreshedDictionary.get());
+    }
+
+    private void givenDictionaryRegistered() {
+        DictionaryDeflateUtil.registerDictionary(this.refreshedDictionary.get());
+    }
+
+    private void givenPayload(final int sample) {
+        this.payload = buildAssetPayload(sample);
+    }
+
+    private void whenDictionaryIsRefreshed() {
+        this.refreshedDictionary = this.trainer.refresh();
+    }
+
+    private void whenPayloadIsEncoded() throws IOException {
+        this.encoded = new CloudPayloadDictionaryEncoder(new CloudPayloadProtoBufEncoderImpl(this.payload),
+                this.trainer.getDictionary()).getBytes();
+    }
+
+    private void whenPayloadIsDecoded() {
+        try {
+            this.decoded = new CloudPayloadProtoBufDecoderImpl(this.encoded).buildFromByteArray();
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void thenNoDictionaryIsBuilt() {
+        assertFalse(this.refreshedDictionary.isPresent());
+    }
+
+    private void thenDictionaryIsBuilt() {
+        assertTrue(this.refreshedDictionary.isPresent());
+    }
+
+    private void thenPayloadIsCompressedWithDictionary() {
+        assertTrue(DictionaryDeflateUtil.isCompressed(this.encoded));
+    }
+
+    private void thenDecodedPayloadIsEqualToPayload() {
+        assertNull(this.exception);
+        assertEquals(this.payload.getTimestamp(), this.decoded.getTimestamp());
+        assertEquals(this.payload.metrics(), this.decoded.metrics());
+    }
+
+    private void thenDecodingFailed() {
+        assertTrue(this.exception instanceof KuraInvalidMessageException);
+    }
+
+    private void thenEncodedPayloadIsSmallerThanGzip() throws IOException {
+        final byte[] gzipped = new CloudPayloadGZipEncoder(new CloudPayloadProtoBufEncoderImpl(this.payload))
+                .getBytes();
+
+        assertTrue(this.encoded.length + " >= " + gzipped.length, this.encoded.length < gzipped.length);
+    }
+
+    private static KuraPayload buildAssetPayload(final int sample) {
+        final KuraPayload result = new KuraPayload();
+        final long timestamp = 1672531200000L + sample * 1000L;
+
+        result.setTimestamp(new Date(timestamp));
+        result.addMetric("assetName", "modbus-asset");
+
+        for (int i = 0; i < CHANNELS.length; i++) {
+            result.addMetric(CHANNELS[i], 20.0d + i + sample * 0.1d);
+            result.addMetric(CHANNELS[i] + "_timestamp", timestamp + i);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.cloud;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+
+import org.eclipse.kura.KuraInvalidMessageException;
+import org.eclipse.kura.core.message.protobuf.KuraPayloadProto;
+import org.eclipse.kura.core.message.protobuf.KuraPayloadProto.KuraPayload.KuraMetric;
+import org.eclipse.kura.core.message.protobuf.KuraPayloadProto.KuraPayload.KuraMetric.ValueType;
+import org.eclipse.kura.core.util.GZipUtil;
+import org.eclipse.kura.message.KuraPayload;
+import org.eclipse.kura.message.KuraPosition;
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UninitializedMessageException;
+
+public class CloudPayloadProtoBufCodecTest {
+
+    private KuraPayload payload = new KuraPayload();
+    private byte[] encoded;
+    private KuraPayload decoded;
+    private Exception exception;
+
+    @Test
+    public void shouldEncodeLikeGeneratedClasses() throws IOException {
+        givenMetricsOfAllTypes();
+        givenPosition(true);
+        givenTimestampAndBody();
+
+        whenPayloadIsEncoded();
+
+        thenEncodedBytesAre(encodeWithGeneratedClasses(this.payload));
+    }
+
+    @Test
+    public void shouldEncodeManyMetricsLikeGeneratedClasses() throws IOException {
+        givenManyMetrics(1000);
+
+        whenPayloadIsEncoded();
+
+        thenEncodedBytesAre(encodeWithGeneratedClasses(this.payload));
+    }
+
+    @Test
+    public void shouldSkipNullMetrics() throws IOException {
+        givenMetric("foo", 1);
+        givenMetric("bar", null);
+
+        whenPayloadIsEncoded();
+
+        thenEncodedBytesAre(encodeWithGeneratedClasses(this.payload));
+    }
+
+    @Test
+    public void shouldRejectUnsupportedMetricType() {
+        givenMetric("foo", new Object());
+
+        whenPayloadIsEncoded();
+
+        thenExceptionIs(RuntimeException.class);
+    }
+
+    @Test
+    public void shouldRejectPositionWithoutCoordinates() {
+        givenPosition(false);
+
+        whenPayloadIsEncoded();
+
+        thenExceptionIs(UninitializedMessageException.class);
+    }
+
+    @Test
+    public void shouldCompressLikeGZipUtil() throws IOException {
+        givenManyMetrics(50);
+
+        whenPayloadIsCompressed();
+
+        thenCompressedBytesAre(GZipUtil.compress(encodeWithGeneratedClasses(this.payload)));
+    }
+
+    @Test
+    public void shouldNotCompressIfLonger() throws IOException {
+        givenMetric("foo", 1);
+
+        whenPayloadIsCompressed();
+
+        thenEncodedBytesAre(encodeWithGeneratedClasses(this.payload));
+    }
+
+    @Test
+    public void shouldDecodeEncodedPayload() throws IOException {
+        givenMetricsOfAllTypes();
+        givenPosition(true);
+        givenTimestampAndBody();
+        givenEncodedPayload();
+
+        whenPayloadIsDecoded();
+
+        thenDecodedPayloadIsEqualToPayload();
+    }
+
+    @Test
+    public void shouldDecodeCompressedPayload() throws IOException {
+        givenManyMetrics(1000);
+        givenCompressedPayload();
+
+        whenPayloadIsDecoded();
+
+        thenDecodedPayloadIsEqualToPayload();
+    }
+
+    @Test
+    public void shouldSkipUnknownFieldsAndUseDefaultValues() throws IOException {
+        givenEncodedBytes(encodeMetric("foo", ValueType.STRING, true));
+
+        whenPayloadIsDecoded();
+
+        thenDecodedMetricIs("foo", "");
+    }
+
+    @Test
+    public void shouldRejectMetricWithoutType() throws IOException {
+        givenEncodedBytes(encodeMetric("foo", null, false));
+
+        whenPayloadIsDecoded();
+
+        thenExceptionIs(KuraInvalidMessageException.class);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenMetric(final String name, final Object value) {
+        this.payload.addMetric(name, value);
+    }
+
+    private void givenMetricsOfAllTypes() {
+        givenMetric("double", 1.5d);
+        givenMetric("float", -2.5f);
+        givenMetric("long", Long.MIN_VALUE);
+        givenMetric("int", -1);
+        givenMetric("bool", true);
+        givenMetric("string", "café 😀");
+        givenMetric("bytes", new byte[] { 1, 2, 3 });
+        givenMetric("métrique", 0);
+    }
+
+    private void givenManyMetrics(final int count) {
+        for (int i = 0; i < count; i++) {
+            givenMetric("asset.channel" + i, i % 2 == 0 ? (Object) (i * 1.1d) : (Object) ("value" + i));
+        }
+    }
+
+    private void givenPosition(final boolean withCoordinates) {
+        final KuraPosition position = new KuraPosition();
+
+        if (withCoordinates) {
+            position.setLatitude(46.0);
+            position.setLongitude(13.2);
+        }
+        position.setAltitude(120.5);
+        position.setPrecision(0.5);
+        position.setHeading(270.0);
+        position.setSpeed(12.0);
+        position.setTimestamp(new Date(1672531200000L));
+        position.setSatellites(8);
+        position.setStatus(4);
+
+        this.payload.setPosition(position);
+    }
+
+    private void givenTimestampAndBody() {
+        this.payload.setTimestamp(new Date(1672531200123L));
+        this.payload.setBody(new byte[] { 4, 5, 6 });
+    }
+
+    private void givenEncodedPayload() throws IOException {
+        this.encoded = new CloudPayloadProtoBufEncoderImpl(this.payload).getBytes();
+    }
+
+    private void givenCompressedPayload() throws IOException {
+        this.encoded = new CloudPayloadGZipEncoder(new CloudPayloadProtoBufEncoderImpl(this.payload)).getBytes();
+        assertTrue(GZipUtil.isCompressed(this.encoded));
+    }
+
+    private void givenEncodedBytes(final byte[] bytes) {
+        this.encoded = bytes;
+    }
+
+    private void whenPayloadIsEncoded() {
+        try {
+            this.encoded = new CloudPayloadProtoBufEncoderImpl(this.payload).getBytes();
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenPayloadIsCompressed() {
+        try {
+            this.encoded = new CloudPayloadGZipEncoder(new CloudPayloadProtoBufEncoderImpl(this.payload)).getBytes();
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenPayloadIsDecoded() {
+        try {
+            this.decoded = new CloudPayloadProtoBufDecoderImpl(this.encoded).buildFromByteArray();
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void thenEncodedBytesAre(final byte[] expected) {
+        assertNull(this.exception);
+        assertArrayEquals(expected, this.encoded);
+    }
+
+    private void thenCompressedBytesAre(final byte[] expected) {
+        assertNull(this.exception);
+        assertEquals(expected.length, this.encoded.length);
+
+        // the OS field of the gzip header depends on the JVM version
+        this.encoded[9] = expected[9];
+        assertArrayEquals(expected, this.encoded);
+    }
+
+    private void thenExceptionIs(final Class<? extends Exception> expected) {
+        assertTrue(expected.isInstance(this.exception));
+    }
+
+    private void thenDecodedPayloadIsEqualToPayload() {
+        assertNull(this.exception);
+        assertEquals(this.payload.getTimestamp(), this.decoded.getTimestamp());
+        assertArrayEquals(this.payload.getBody(), this.decoded.getBody());
+        assertEquals(this.payload.metrics().size(), this.decoded.metrics().size());
+
+        for (final Map.Entry<String, Object> entry : this.payload.metrics().entrySet()) {
+            thenDecodedMetricIs(entry.getKey(), entry.getValue());
+        }
+
+        final KuraPosition expected = this.payload.getPosition();
+        final KuraPosition actual = this.decoded.getPosition();
+
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getAltitude(), actual.getAltitude());
+        assertEquals(expected.getPrecision(), actual.getPrecision());
+        assertEquals(expected.getHeading(), actual.getHeading());
+        assertEquals(expected.getSpeed(), actual.getSpeed());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getSatellites(), actual.getSatellites());
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+
+    private void thenDecodedMetricIs(final String name, final Object expected) {
+        assertNull(this.exception);
+
+        final Object actual = this.decoded.getMetric(name);
+
+        if (expected instanceof byte[]) {
+            assertArrayEquals((byte[]) expected, (byte[]) actual);
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+
+    /*
+     * Utilities
+     */
+
+    private static byte[] encodeWithGeneratedClasses(final KuraPayload payload) {
+        final KuraPayloadProto.KuraPayload.Builder builder = KuraPayloadProto.KuraPayload.newBuilder();
+
+        if (payload.getTimestamp() != null) {
+            builder.setTimestamp(payload.getTimestamp().getTime());
+        }
+
+        final KuraPosition position = payload.getPosition();
+        if (position != null) {
+            builder.setPosition(KuraPayloadProto.KuraPayload.KuraPosition.newBuilder()
+                    .setLatitude(position.getLatitude()).setLongitude(position.getLongitude())
+                    .setAltitude(position.getAltitude()).setPrecision(position.getPrecision())
+                    .setHeading(position.getHeading()).setSpeed(position.getSpeed())
+                    .setTimestamp(position.getTimestamp().getTime()).setSatellites(position.getSatellites())
+                    .setStatus(position.getStatus()));
+        }
+
+        for (final Map.Entry<String, Object> entry : payload.metrics().entrySet()) {
+            final KuraMetric.Builder metric = KuraMetric.newBuilder().setName(entry.getKey());
+            final Object value = entry.getValue();
+
+            if (value instanceof String) {
+                metric.setType(ValueType.STRING).setStringValue((String) value);
+            } else if (value instanceof Double) {
+                metric.setType(ValueType.DOUBLE).setDoubleValue((Double) value);
+            } else if (value instanceof Integer) {
+                metric.setType(ValueType.INT32).setIntValue((Integer) value);
+            } else if (value instanceof Float) {
+                metric.setType(ValueType.FLOAT).setFloatValue((Float) value);
+            } else if (value instanceof Long) {
+                metric.setType(ValueType.INT64).setLongValue((Long) value);
+            } else if (value instanceof Boolean) {
+                metric.setType(ValueType.BOOL).setBoolValue((Boolean) value);
+            } else if (value instanceof byte[]) {
+                metric.setType(ValueType.BYTES).setBytesValue(ByteString.copyFrom((byte[]) value));
+            } else {
+                continue;
+            }
+
+            builder.addMetric(metric);
+        }
+
+        if (payload.getBody() != null) {
+            builder.setBody(ByteString.copyFrom(payload.getBody()));
+        }
+
+        return builder.build().toByteArray();
+    }
+
+    private static byte[] encodeMetric(final String name, final ValueType type, final boolean withUnknownFields)
+            throws IOException {
+        final ByteArrayOutputStream metric = new ByteArrayOutputStream();
+        final CodedOutputStream metricOut = CodedOutputStream.newInstance(metric);
+
+        metricOut.writeString(1, name);
+        if (type != null) {
+            metricOut.writeEnum(2, type.getNumber());
+        }
+        if (withUnknownFields) {
+            metricOut.writeInt32(100, 12);
+        }
+        metricOut.flush();
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final CodedOutputStream out = CodedOutputStream.newInstance(result);
+
+        if (withUnknownFields) {
+            out.writeString(3, "extension");
+        }
+        out.writeByteArray(5000, metric.toByteArray());
+        out.flush();
+
+        return result.toByteArray();
+    }
+}
@@ -36,6 +36,7 @@ public class CloudServiceOptionsTest {
     private static final String DEVICE_DISPLAY_NAME = "device.display-name";
     private static final String DEVICE_CUSTOM_NAME = "device.custom-name";
     private static final String ENCODE_GZIP = "encode.gzip";
+    private static final String ENCODE_CODEC = "encode.codec";
     private static final String REPUB_BIRTH_ON_GPS_LOCK = "republish.mqtt.birth.cert.on.gps.lock";
     private static final String REPUB_BIRTH_ON_MODEM_DETECT = "republish.mqtt.birth.cert.on.modem.detect";
     private static final String ENABLE_DFLT_SUBSCRIPTIONS = "enable.default.subscriptions";
@@ -208,6 +209,39 @@ public class CloudServiceOptionsTest {
         assertTrue(gzip);
     }
 
+    @Test
+    public void testGetEncodeCodecNullProps() {
+        CloudServiceOptions options = new CloudServiceOptions(null, systemService);
+
+        CloudPayloadCodec codec = options.getEncodeCodec();
+
+        assertEquals(CloudPayloadCodec.GZIP, codec);
+    }
+
+    @Test
+    public void testGetEncodeCodecInvalid() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ENCODE_CODEC, "invalid");
+
+        CloudServiceOptions options = new CloudServiceOptions(properties, systemService);
+
+        CloudPayloadCodec codec = options.getEncodeCodec();
+
+        assertEquals(CloudPayloadCodec.GZIP, codec);
+    }
+
+    @Test
+    public void testGetEncodeCodec() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ENCODE_CODEC, "dictionary");
+
+        CloudServiceOptions options = new CloudServiceOptions(properties, systemService);
+
+        CloudPayloadCodec codec = options.getEncodeCodec();
+
+        assertEquals(CloudPayloadCodec.DICTIONARY, codec);
+    }
+
     @Test
     public void testGetRepubBirthCertOnGpsLockNullProps() {
         CloudServiceOptions options = new CloudServiceOptions(null, systemService);
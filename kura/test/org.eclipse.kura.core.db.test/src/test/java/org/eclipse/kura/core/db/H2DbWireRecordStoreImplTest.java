@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.core.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.util.jdbc.ConnectionProvider;
+import org.eclipse.kura.util.jdbc.SQLFunction;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.After;
+import org.junit.Test;
+
+public class H2DbWireRecordStoreImplTest {
+
+    private static final String TABLE_NAME = "test-table";
+
+    private Connection connection;
+    private H2DbWireRecordStoreImpl store;
+    private final List<WireRecord> records = new ArrayList<>();
+
+    @Test
+    public void shouldInsertAllRecordsOfABatch() throws KuraStoreException, SQLException {
+        givenStore();
+        givenRecords(1000, "foo", TypedValues.newDoubleValue(1.5d));
+
+        whenRecordsAreInserted();
+
+        thenStoreSizeIs(1000);
+        thenColumnValueIs(1, "foo", 1.5d);
+        thenColumnValueIs(1000, "foo", 1.5d);
+    }
+
+    @Test
+    public void shouldKeepValuesOfExistingColumns() throws KuraStoreException, SQLException {
+        givenStore();
+        givenRecords(1, "foo", TypedValues.newStringValue("first"));
+        givenRecordsInserted();
+        givenStoreReopened();
+        givenRecords(1, "foo", TypedValues.newStringValue("second"));
+
+        whenRecordsAreInserted();
+
+        thenStoreSizeIs(2);
+        thenColumnValueIs(1, "foo", "first");
+        thenColumnValueIs(2, "foo", "second");
+    }
+
+    @Test
+    public void shouldAddColumnWhenNewPropertyAppears() throws KuraStoreException, SQLException {
+        givenStore();
+        givenRecords(2, "foo", TypedValues.newIntegerValue(1));
+        givenRecords(2, "bar", TypedValues.newIntegerValue(2));
+
+        whenRecordsAreInserted();
+
+        thenStoreSizeIs(4);
+        thenColumnValueIs(1, "foo", 1);
+        thenColumnValueIs(1, "bar", null);
+        thenColumnValueIs(3, "bar", 2);
+    }
+
+    @Test
+    public void shouldChangeColumnType() throws KuraStoreException, SQLException {
+        givenStore();
+        givenRecords(1, "foo", TypedValues.newIntegerValue(1));
+        givenRecords(1, "foo", TypedValues.newStringValue("bar"));
+
+        whenRecordsAreInserted();
+
+        thenStoreSizeIs(2);
+        thenColumnValueIs(1, "foo", null);
+        thenColumnValueIs(2, "foo", "bar");
+    }
+
+    @Test
+    public void shouldRecreateDroppedTable() throws KuraStoreException, SQLException {
+        givenStore();
+        givenRecords(1, "foo", TypedValues.newLongValue(1));
+        givenRecordsInserted();
+        givenTableDropped();
+        givenRecords(1, "foo", TypedValues.newLongValue(1));
+
+        whenRecordsAreInserted();
+
+        thenStoreSizeIs(1);
+        thenColumnValueIs(1, "foo", 1L);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws SQLException {
+        this.connection.close();
+    }
+
+    private void givenStore() throws KuraStoreException {
+        try {
+            this.connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID());
+        } catch (final SQLException e) {
+            throw new KuraStoreException(e, "cannot create connection");
+        }
+
+        givenStoreReopened();
+    }
+
+    private void givenStoreReopened() throws KuraStoreException {
+        this.store = new H2DbWireRecordStoreImpl(new ConnectionProvider() {
+
+            @Override
+            public <T> T withConnection(SQLFunction<Connection, T> task) throws SQLException {
+                return task.call(H2DbWireRecordStoreImplTest.this.connection);
+            }
+        }, TABLE_NAME);
+    }
+
+    private void givenRecords(final int count, final String name, final TypedValue<?> value) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put(name, value);
+
+        for (int i = 0; i < count; i++) {
+            this.records.add(new WireRecord(properties));
+        }
+    }
+
+    private void givenRecordsInserted() throws KuraStoreException {
+        whenRecordsAreInserted();
+        this.records.clear();
+    }
+
+    private void givenTableDropped() throws SQLException {
+        try (final Statement stmt = this.connection.createStatement()) {
+            stmt.execute("DROP TABLE \"" + TABLE_NAME + "\";");
+        }
+    }
+
+    private void whenRecordsAreInserted() throws KuraStoreException {
+        this.store.insertRecords(Collections.unmodifiableList(this.records));
+    }
+
+    private void thenStoreSizeIs(final int expected) throws KuraStoreException {
+        assertEquals(expected, this.store.getSize());
+    }
+
+    private void thenColumnValueIs(final long id, final String column, final Object expected) throws SQLException {
+        try (final Statement stmt = this.connection.createStatement();
+                final ResultSet rs = stmt
+                        .executeQuery("SELECT \"" + column + "\" FROM \"" + TABLE_NAME + "\" WHERE ID = " + id + ";")) {
+            rs.next();
+
+            final Object actual = rs.getObject(1);
+
+            if (expected == null) {
+                assertNull(actual);
+            } else {
+                assertEquals(expected, actual);
+            }
+        }
+    }
+}
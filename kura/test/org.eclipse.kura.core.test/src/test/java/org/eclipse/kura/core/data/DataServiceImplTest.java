@@ -22,22 +22,26 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.KuraConnectException;
+import org.eclipse.kura.KuraException;
 import org.eclipse.kura.KuraStoreException;
 import org.eclipse.kura.core.testutil.TestUtil;
 import org.eclipse.kura.data.DataTransportService;
@@ -52,6 +56,7 @@ import org.eclipse.paho.client.mqttv3.MqttException;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
@@ -166,6 +171,77 @@ public class DataServiceImplTest {
         thenExceptionMessageContains("size exceeds");
     }
 
+    @Test
+    public void shouldPublishStoredMessagesInBatches() throws KuraException {
+        givenDataService();
+        givenMessageStoreProvider();
+        givenNextMessages(storedMessage(1, "foo", 0), storedMessage(2, "bar", 0), storedMessage(3, "baz", 1));
+        givenDataTrasportServiceConnected();
+        givenPublishToken("baz", new DataTransportToken(12, "session"));
+        givenConfigurationProperty("publish.batch.size", 10);
+        givenIsActive();
+
+        thenMessagesArePublished("foo", "bar", "baz");
+        thenMessagesAreMarkedAsPublished(Arrays.asList(1, 2),
+                Collections.singletonMap(3, new DataTransportToken(12, "session")));
+    }
+
+    @Test
+    public void shouldNotExceedMaxInFlightMessagesInBatch() throws KuraException {
+        givenDataService();
+        givenMessageStoreProvider();
+        givenNextMessages(storedMessage(1, "foo", 1), storedMessage(2, "bar", 1), storedMessage(3, "baz", 1));
+        givenDataTrasportServiceConnected();
+        givenPublishToken("foo", new DataTransportToken(1, "session"));
+        givenPublishToken("bar", new DataTransportToken(2, "session"));
+        givenConfigurationProperty("publish.batch.size", 10);
+        givenConfigurationProperty("in-flight-messages.max-number", 2);
+        givenIsActive();
+
+        thenMessagesAreMarkedAsPublished(Collections.emptyList(), inFlightMessages(1, 1, 2, 2));
+        thenMessageIsNotPublished("baz");
+    }
+
+    private void givenNextMessages(final StoredMessage... messages) throws KuraStoreException {
+        when(this.messageStore.getNextMessages(ArgumentMatchers.anyInt())).thenReturn(Arrays.asList(messages))
+                .thenReturn(Collections.emptyList());
+    }
+
+    private void givenPublishToken(final String topic, final DataTransportToken token) throws KuraException {
+        when(this.dataTransportServiceMock.publish(ArgumentMatchers.eq(topic), ArgumentMatchers.any(),
+                ArgumentMatchers.anyInt(), ArgumentMatchers.anyBoolean())).thenReturn(token);
+    }
+
+    private void thenMessagesArePublished(final String... topics) throws KuraException {
+        for (final String topic : topics) {
+            verify(this.dataTransportServiceMock, timeout(5000)).publish(ArgumentMatchers.eq(topic),
+                    ArgumentMatchers.any(), ArgumentMatchers.anyInt(), ArgumentMatchers.anyBoolean());
+        }
+    }
+
+    private void thenMessageIsNotPublished(final String topic) throws KuraException {
+        verify(this.dataTransportServiceMock, times(0)).publish(ArgumentMatchers.eq(topic), ArgumentMatchers.any(),
+                ArgumentMatchers.anyInt(), ArgumentMatchers.anyBoolean());
+    }
+
+    private void thenMessagesAreMarkedAsPublished(final List<Integer> msgIds,
+            final Map<Integer, DataTransportToken> inFlightMessages) throws KuraStoreException {
+        verify(this.messageStore, timeout(5000)).markAsPublished(msgIds, inFlightMessages);
+    }
+
+    private static StoredMessage storedMessage(final int id, final String topic, final int qos) {
+        return new StoredMessage.Builder(id).withTopic(topic).withPayload(new byte[1]).withQos(qos).withPriority(4)
+                .build();
+    }
+
+    private static Map<Integer, DataTransportToken> inFlightMessages(final int id1, final int mqttId1,
+            final int id2, final int mqttId2) {
+        final Map<Integer, DataTransportToken> result = new HashMap<>();
+        result.put(id1, new DataTransportToken(mqttId1, "session"));
+        result.put(id2, new DataTransportToken(mqttId2, "session"));
+        return result;
+    }
+
     private void givenConfigurationProperty(final String key, final Object value) {
         this.properties.put(key, value);
     }
@@ -336,12 +412,12 @@ public class DataServiceImplTest {
         verify(messageStoreProviderMock, times(1)).openMessageStore("foo");
 
         @SuppressWarnings("unchecked")
-        Map<DataTransportToken, Integer> ifMsgs = (Map<DataTransportToken, Integer>) TestUtil.getFieldValue(svc,
-                "inFlightMsgIds");
+        Map<DataTransportToken, DataServiceImpl.InFlightMessage> ifMsgs = (Map<DataTransportToken, DataServiceImpl.InFlightMessage>) TestUtil
+                .getFieldValue(svc, "inFlightMsgIds");
 
         assertEquals(1, ifMsgs.size());
         ifMsgs.forEach((key, value) -> {
-            assertEquals(id, (int) value);
+            assertEquals(id, value.getId());
             assertEquals(pmi, key.getMessageId());
             assertEquals(sessionId, key.getSessionId());
         });
@@ -383,6 +459,46 @@ public class DataServiceImplTest {
         verify(inFlightMsgIds, times(1)).clear();
     }
 
+    @Test
+    public void testConnectionEstablishedConfirmsPendingConfirmationsBeforeDropping()
+            throws NoSuchFieldException, KuraStoreException {
+        // new session, a confirmation received before the reconnection has not been applied yet
+
+        DataServiceImpl svc = new DataServiceImpl();
+
+        CloudConnectionStatusService ccssMock = mock(CloudConnectionStatusService.class);
+        svc.setCloudConnectionStatusService(ccssMock);
+
+        MessageStoreProvider messageStoreProviderMock = mock(MessageStoreProvider.class);
+        MessageStore messageStoreMock = mock(MessageStore.class);
+        initMockMessageStore(messageStoreProviderMock, messageStoreMock);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        DataServiceListenerS dataServiceListeners = new DataServiceListenerS(ctxMock);
+        TestUtil.setFieldValue(svc, "dataServiceListeners", dataServiceListeners);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("in-flight-messages.republish-on-new-session", false);
+        DataServiceOptions dataServiceOptions = new DataServiceOptions(properties);
+
+        TestUtil.setFieldValue(svc, "dataServiceOptions", dataServiceOptions);
+
+        svc.setMessageStoreProvider(messageStoreProviderMock);
+
+        DataTransportToken token = new DataTransportToken(1, "session");
+        Map<DataTransportToken, DataServiceImpl.InFlightMessage> inFlightMsgIds = new ConcurrentHashMap<>();
+        inFlightMsgIds.put(token, new DataServiceImpl.InFlightMessage(42, "foo", System.nanoTime()));
+        TestUtil.setFieldValue(svc, "inFlightMsgIds", inFlightMsgIds);
+
+        svc.onMessageConfirmed(token);
+        svc.onConnectionEstablished(true);
+
+        InOrder inOrder = Mockito.inOrder(messageStoreMock);
+        inOrder.verify(messageStoreMock).markAsConfirmed(Collections.singletonList(42));
+        inOrder.verify(messageStoreMock).dropAllInFlightMessages();
+        assertTrue(inFlightMsgIds.isEmpty());
+    }
+
     @Test
     public void testConnectionEstablishedErrorLog() throws NoSuchFieldException, KuraStoreException {
         // new session, don't publish in-flight messages, trigger error log
@@ -643,7 +759,7 @@ public class DataServiceImplTest {
     }
 
     @Test
-    public void testMessageConfirmedNoMessageFound() throws NoSuchFieldException {
+    public void testMessageConfirmedNoMessageFound() throws Throwable {
         // invokes the logger - inflight message not found
 
         DataServiceImpl svc = new DataServiceImpl();
@@ -652,7 +768,7 @@ public class DataServiceImplTest {
         String sessionId = "sess1234";
         DataTransportToken token = new DataTransportToken(msgId, sessionId);
 
-        Map<DataTransportToken, Integer> inFlightMsgIds = new HashMap<>();
+        Map<DataTransportToken, DataServiceImpl.InFlightMessage> inFlightMsgIds = new HashMap<>();
         TestUtil.setFieldValue(svc, "inFlightMsgIds", inFlightMsgIds);
 
         Map<String, Object> properties = new HashMap<>();
@@ -662,10 +778,13 @@ public class DataServiceImplTest {
         TestUtil.setFieldValue(svc, "dataServiceOptions", dataServiceOptions);
 
         svc.onMessageConfirmed(token);
+        TestUtil.invokePrivate(svc, "applyPendingConfirmations");
+
+        assertEquals(0, svc.getConfirmationMeter().getConfirmedMessageCount());
     }
 
     @Test
-    public void testMessageConfirmedConfirmedMessageException() throws NoSuchFieldException, KuraStoreException {
+    public void testMessageConfirmedConfirmedMessageException() throws Throwable {
         // invokes the logger - confirmed message not found
 
         DataServiceImpl svc = new DataServiceImpl();
@@ -679,7 +798,8 @@ public class DataServiceImplTest {
         DataTransportService dataTransportServiceMock = mock(DataTransportService.class);
         initMockMessageStore(messageStoreProviderMock, messageStoreMock);
 
-        doThrow(new KuraStoreException("test")).when(messageStoreMock).markAsConfirmed(msgId);
+        doThrow(new KuraStoreException("test")).when(messageStoreMock)
+                .markAsConfirmed(Collections.singletonList(msgId));
 
         Map<String, Object> properties = new HashMap<>();
         properties.put("in-flight-messages.max-number", 0);
@@ -690,13 +810,55 @@ public class DataServiceImplTest {
 
         svc.setMessageStoreProvider(messageStoreProviderMock);
 
-        Map<DataTransportToken, Integer> inFlightMsgIds = new HashMap<>();
-        inFlightMsgIds.put(token, msgId);
+        Map<DataTransportToken, DataServiceImpl.InFlightMessage> inFlightMsgIds = new HashMap<>();
+        inFlightMsgIds.put(token, new DataServiceImpl.InFlightMessage(msgId, "topic", -1));
         TestUtil.setFieldValue(svc, "inFlightMsgIds", inFlightMsgIds);
 
         svc.onMessageConfirmed(token);
+        TestUtil.invokePrivate(svc, "applyPendingConfirmations");
+
+        verify(messageStoreMock, times(1)).markAsConfirmed(Collections.singletonList(msgId));
+        assertEquals(0, svc.getConfirmationMeter().getConfirmedMessageCount());
+    }
+
+    @Test
+    public void testMessageConfirmationsAppliedInBatch() throws Throwable {
+        DataServiceImpl svc = new DataServiceImpl();
+
+        MessageStoreProvider messageStoreProviderMock = mock(MessageStoreProvider.class);
+        MessageStore messageStoreMock = mock(MessageStore.class);
+        initMockMessageStore(messageStoreProviderMock, messageStoreMock);
+
+        DataServiceListenerS dataServiceListeners = mock(DataServiceListenerS.class);
+        TestUtil.setFieldValue(svc, "dataServiceListeners", dataServiceListeners);
+
+        TestUtil.setFieldValue(svc, "dataServiceOptions", new DataServiceOptions(Collections.emptyMap()));
+        svc.setMessageStoreProvider(messageStoreProviderMock);
+
+        DataTransportToken token1 = new DataTransportToken(1, "session");
+        DataTransportToken token2 = new DataTransportToken(2, "session");
+        DataTransportToken untracked = new DataTransportToken(3, "session");
+
+        Map<DataTransportToken, DataServiceImpl.InFlightMessage> inFlightMsgIds = new HashMap<>();
+        inFlightMsgIds.put(token1, new DataServiceImpl.InFlightMessage(10, "foo", System.nanoTime()));
+        inFlightMsgIds.put(token2, new DataServiceImpl.InFlightMessage(11, "bar", -1));
+        TestUtil.setFieldValue(svc, "inFlightMsgIds", inFlightMsgIds);
+
+        svc.onMessageConfirmed(token2);
+        svc.onMessageConfirmed(untracked);
+        svc.onMessageConfirmed(token1);
+
+        verify(messageStoreMock, times(0)).markAsConfirmed(ArgumentMatchers.<List<Integer>> any());
+
+        TestUtil.invokePrivate(svc, "applyPendingConfirmations");
 
-        verify(messageStoreMock, times(1)).markAsConfirmed(msgId);
+        verify(messageStoreMock, times(1)).markAsConfirmed(Arrays.asList(11, 10));
+        verify(messageStoreMock, times(0)).markAsConfirmed(ArgumentMatchers.anyInt());
+        verify(dataServiceListeners, times(1)).onMessageConfirmed(10, "foo");
+        verify(dataServiceListeners, times(1)).onMessageConfirmed(11, "bar");
+        assertTrue(inFlightMsgIds.isEmpty());
+        assertEquals(2, svc.getConfirmationMeter().getLastBatchSize());
+        assertEquals(1, svc.getConfirmationMeter().getBatchCount());
     }
 
     @Test
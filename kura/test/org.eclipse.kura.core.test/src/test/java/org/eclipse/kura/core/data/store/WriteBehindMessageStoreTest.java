@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.db.H2DbMessageStoreImpl;
+import org.eclipse.kura.data.DataTransportToken;
+import org.eclipse.kura.message.store.StoredMessage;
+import org.eclipse.kura.util.jdbc.ConnectionProvider;
+import org.eclipse.kura.util.jdbc.SQLFunction;
+import org.junit.After;
+import org.junit.Test;
+
+public class WriteBehindMessageStoreTest {
+
+    private static final String TABLE_NAME = "test-table";
+
+    private Connection connection;
+    private H2DbMessageStoreImpl jdbcStore;
+    private WriteBehindMessageStore store;
+    private final List<Integer> ids = new ArrayList<>();
+
+    @Test
+    public void shouldNotWriteMessagesBeforeDelay() throws KuraStoreException {
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(3, 1);
+
+        thenJdbcStoreMessageCountIs(0);
+        thenPendingMessageCountIs(3);
+        thenMessageCountIs(3);
+    }
+
+    @Test
+    public void shouldWriteMessagesAfterDelay() throws KuraStoreException, InterruptedException {
+        givenWriteBehindStore(100, 100);
+
+        whenMessagesAreStored(3, 1);
+        whenTimePasses(1000);
+
+        thenJdbcStoreMessageCountIs(3);
+        thenPendingMessageCountIs(0);
+    }
+
+    @Test
+    public void shouldWriteMessagesWhenMaxMessagesIsReached() throws KuraStoreException {
+        givenWriteBehindStore(60000, 5);
+
+        whenMessagesAreStored(6, 1);
+
+        thenJdbcStoreMessageCountIs(5);
+        thenPendingMessageCountIs(1);
+    }
+
+    @Test
+    public void shouldAssignIdentifiersAfterExistingMessages() throws KuraStoreException {
+        givenJdbcStoreWithMessages(3);
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(2, 1);
+        whenFlushed();
+
+        thenIdsAre(4, 5);
+        thenJdbcStoreMessageCountIs(5);
+    }
+
+    @Test
+    public void shouldNotReuseIdentifiersOfDeletedMessages() throws KuraStoreException {
+        givenJdbcStoreWithMessages(3);
+        givenDeletedMessagesWithIdGreaterThan(1);
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(2, 1);
+        whenFlushed();
+
+        thenIdsAre(4, 5);
+    }
+
+    @Test
+    public void shouldNotReuseIdentifiersAfterRestart() throws KuraStoreException {
+        givenWriteBehindStore(60000, 100);
+        whenMessagesAreStored(2, 1);
+        whenClosed();
+        givenDeletedMessagesWithIdGreaterThan(0);
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(1, 1);
+
+        thenIdsAre(1, 2, 3);
+    }
+
+    @Test
+    public void shouldReturnPendingAndStoredMessagesInPublishOrder() throws KuraStoreException {
+        givenJdbcStoreWithMessages(2);
+        givenWriteBehindStore(60000, 100);
+
+        whenMessageIsStored("pending", 0, 0);
+
+        thenNextMessagesTopicsAre(10, "pending", "topic", "topic");
+    }
+
+    @Test
+    public void shouldNotPersistPublishedQoS0Messages() throws KuraStoreException {
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(2, 0);
+        whenMarkedAsPublished(this.ids.get(0));
+        whenFlushed();
+
+        thenJdbcStoreMessageCountIs(1);
+        thenNextMessagesTopicsAre(10, "topic");
+    }
+
+    @Test
+    public void shouldPersistInFlightMessages() throws KuraStoreException {
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(1, 1);
+        whenMarkedAsPublished(this.ids.get(0), new DataTransportToken(5, "session"));
+        whenFlushed();
+
+        thenJdbcStoreMessageCountIs(1);
+        thenInFlightMessageCountIs(1);
+        thenNextMessagesTopicsAre(10);
+    }
+
+    @Test
+    public void shouldApplyBatchMarkAsPublishedToPendingAndStoredMessages() throws KuraStoreException {
+        givenJdbcStoreWithMessages(1);
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(1, 0);
+        whenMarkedAsPublished(Collections.singletonList(1), this.ids.get(0));
+
+        thenNextMessagesTopicsAre(10);
+        thenMessageIsPublished(1);
+        thenMessageIsPublished(this.ids.get(0));
+    }
+
+    @Test
+    public void shouldFlushOnClose() throws KuraStoreException {
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(3, 1);
+        whenClosed();
+
+        thenJdbcStoreMessageCountIs(3);
+    }
+
+    @Test
+    public void shouldFlushBeforeListingUnpublishedMessages() throws KuraStoreException {
+        givenWriteBehindStore(60000, 100);
+
+        whenMessagesAreStored(3, 1);
+
+        thenUnpublishedMessageCountIs(3);
+        thenPendingMessageCountIs(0);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws SQLException {
+        if (this.store != null) {
+            this.store.close();
+        }
+        this.connection.close();
+    }
+
+    private void givenJdbcStore() throws KuraStoreException {
+        if (this.jdbcStore != null) {
+            return;
+        }
+
+        try {
+            this.connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID());
+        } catch (final SQLException e) {
+            throw new KuraStoreException(e, "cannot create connection");
+        }
+
+        this.jdbcStore = new H2DbMessageStoreImpl(new ConnectionProvider() {
+
+            @Override
+            public <T> T withConnection(SQLFunction<Connection, T> task) throws SQLException {
+                return task.call(WriteBehindMessageStoreTest.this.connection);
+            }
+        }, TABLE_NAME);
+    }
+
+    private void givenJdbcStoreWithMessages(final int count) throws KuraStoreException {
+        givenJdbcStore();
+
+        for (int i = 0; i < count; i++) {
+            this.jdbcStore.store("topic", new byte[] { 1 }, 1, false, 5);
+        }
+    }
+
+    private void givenDeletedMessagesWithIdGreaterThan(final int id) throws KuraStoreException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DELETE FROM \"" + TABLE_NAME + "\" WHERE id > " + id);
+        } catch (final SQLException e) {
+            throw new KuraStoreException(e, "cannot delete messages");
+        }
+    }
+
+    private void givenWriteBehindStore(final long maxDelayMs, final int maxMessages) throws KuraStoreException {
+        givenJdbcStore();
+
+        this.store = new WriteBehindMessageStore(this.jdbcStore, maxDelayMs, maxMessages);
+    }
+
+    private void whenMessagesAreStored(final int count, final int qos) throws KuraStoreException {
+        for (int i = 0; i < count; i++) {
+            whenMessageIsStored("topic", qos, 5);
+        }
+    }
+
+    private void whenMessageIsStored(final String topic, final int qos, final int priority)
+            throws KuraStoreException {
+        this.ids.add(this.store.store(topic, new byte[] { 1, 2, 3 }, qos, false, priority));
+    }
+
+    private void whenTimePasses(final long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    private void whenFlushed() throws KuraStoreException {
+        this.store.flush();
+    }
+
+    private void whenClosed() {
+        this.store.close();
+        this.store = null;
+    }
+
+    private void whenMarkedAsPublished(final int id) throws KuraStoreException {
+        this.store.markAsPublished(id);
+    }
+
+    private void whenMarkedAsPublished(final int id, final DataTransportToken token) throws KuraStoreException {
+        this.store.markAsPublished(id, token);
+    }
+
+    private void whenMarkedAsPublished(final List<Integer> ids, final int inFlightId) throws KuraStoreException {
+        this.store.markAsPublished(ids, Collections.singletonMap(inFlightId, new DataTransportToken(1, "session")));
+    }
+
+    private void thenJdbcStoreMessageCountIs(final int expected) throws KuraStoreException {
+        assertEquals(expected, this.jdbcStore.getMessageCount());
+    }
+
+    private void thenPendingMessageCountIs(final int expected) {
+        assertEquals(expected, this.store.getPendingMessageCount());
+    }
+
+    private void thenMessageCountIs(final int expected) throws KuraStoreException {
+        assertEquals(expected, this.store.getMessageCount());
+    }
+
+    private void thenInFlightMessageCountIs(final int expected) throws KuraStoreException {
+        assertEquals(expected, this.store.getInFlightMessages().size());
+    }
+
+    private void thenUnpublishedMessageCountIs(final int expected) throws KuraStoreException {
+        assertEquals(expected, this.store.getUnpublishedMessages().size());
+    }
+
+    private void thenIdsAre(final Integer... expected) {
+        assertEquals(Arrays.asList(expected), this.ids);
+    }
+
+    private void thenNextMessagesTopicsAre(final int maxCount, final String... expected) throws KuraStoreException {
+        final List<String> topics = this.store.getNextMessages(maxCount).stream().map(StoredMessage::getTopic)
+                .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList(expected), topics);
+        assertEquals(expected.length > 0, this.store.getNextMessage().isPresent());
+    }
+
+    private void thenMessageIsPublished(final int id) throws KuraStoreException {
+        final Optional<StoredMessage> message = this.store.get(id);
+
+        if (!message.isPresent()) {
+            fail("message " + id + " not found");
+        }
+
+        assertTrue(message.get().getPublishedOn().isPresent());
+        assertFalse(message.get().getDroppedOn().isPresent());
+    }
+}
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.core.data.transport.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.After;
+import org.junit.Test;
+
+public class InboundDispatcherTest {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, List<Integer>> deliveredByTopic = new HashMap<>();
+    private final List<String> deliveryThreads = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blockedTopicReleased = new CountDownLatch(1);
+    private final CountDownLatch blockedTopicEntered = new CountDownLatch(1);
+    private final AtomicInteger dispatchedCount = new AtomicInteger();
+
+    private InboundDispatcher dispatcher;
+    private String blockedTopic;
+    private Thread dispatchingThread;
+
+    @Test
+    public void shouldDeliverOnCallingThreadIfAsyncIsDisabled() {
+        givenDispatcher(false, 10, "BLOCK", 2);
+
+        whenDispatched("foo", 1);
+
+        thenEventsAre("deliver foo 1", "ack foo 1");
+        thenDeliveryThreadIsCallingThread(true);
+    }
+
+    @Test
+    public void shouldDeliverMessagesOfATopicInOrder() throws InterruptedException {
+        givenDispatcher(true, 10, "BLOCK", 4);
+
+        for (int i = 0; i < 500; i++) {
+            whenDispatched("foo", i);
+            whenDispatched("bar", i);
+            whenDispatched("baz", i);
+        }
+        whenDispatcherIsIdle();
+
+        thenMessagesAreDeliveredInOrder("foo", 500);
+        thenMessagesAreDeliveredInOrder("bar", 500);
+        thenMessagesAreDeliveredInOrder("baz", 500);
+        thenDeliveryThreadIsCallingThread(false);
+    }
+
+    @Test
+    public void shouldDeliverOtherTopicsWhileATopicIsBusy() throws InterruptedException {
+        givenDispatcher(true, 10, "BLOCK", 2);
+        givenBlockedTopic("slow");
+
+        whenDispatched("slow", 0);
+        whenBlockedTopicIsEntered();
+        whenDispatched("fast", 0);
+        whenDispatched("fast", 1);
+        whenMessagesAreDelivered("fast", 2);
+
+        thenMessagesAreDeliveredInOrder("fast", 2);
+        thenMessagesAreDeliveredInOrder("slow", 0);
+
+        whenBlockedTopicIsReleased();
+        whenDispatcherIsIdle();
+
+        thenMessagesAreDeliveredInOrder("slow", 1);
+    }
+
+    @Test
+    public void shouldDropOldestMessageIfLaneIsFull() throws InterruptedException {
+        givenDispatcher(true, 2, "DROP_OLDEST", 2);
+        givenBlockedTopic("foo");
+
+        whenDispatched("foo", 0);
+        whenBlockedTopicIsEntered();
+        whenDispatched("foo", 1);
+        whenDispatched("foo", 2);
+        whenDispatched("foo", 3);
+        whenBlockedTopicIsReleased();
+        whenDispatcherIsIdle();
+
+        thenDeliveredMessagesAre("foo", 0, 2, 3);
+        thenMessageIsAcknowledged("foo", 1);
+        thenLaneStatisticsAre("foo", 3, 1, 2);
+    }
+
+    @Test
+    public void shouldDropNewestMessageIfLaneIsFull() throws InterruptedException {
+        givenDispatcher(true, 2, "DROP_NEWEST", 2);
+        givenBlockedTopic("foo");
+
+        whenDispatched("foo", 0);
+        whenBlockedTopicIsEntered();
+        whenDispatched("foo", 1);
+        whenDispatched("foo", 2);
+        whenDispatched("foo", 3);
+        whenBlockedTopicIsReleased();
+        whenDispatcherIsIdle();
+
+        thenDeliveredMessagesAre("foo", 0, 1, 2);
+        thenMessageIsAcknowledged("foo", 3);
+        thenLaneStatisticsAre("foo", 3, 1, 2);
+    }
+
+    @Test
+    public void shouldBlockCallerIfLaneIsFull() throws InterruptedException {
+        givenDispatcher(true, 1, "BLOCK", 2);
+        givenBlockedTopic("foo");
+
+        whenDispatched("foo", 0);
+        whenBlockedTopicIsEntered();
+        whenDispatched("foo", 1);
+        whenDispatchedFromAnotherThread("foo", 2);
+
+        thenDispatchingThreadIsBlocked(true);
+
+        whenBlockedTopicIsReleased();
+
+        thenDispatchingThreadIsBlocked(false);
+
+        whenDispatcherIsIdle();
+
+        thenDeliveredMessagesAre("foo", 0, 1, 2);
+        thenLaneStatisticsAre("foo", 3, 0, 1);
+    }
+
+    @Test
+    public void shouldAcknowledgeAfterDelivery() throws InterruptedException {
+        givenDispatcher(true, 10, "BLOCK", 2);
+
+        whenDispatched("foo", 1);
+        whenDispatched("foo", 2);
+        whenDispatcherIsIdle();
+
+        thenEventsAre("deliver foo 1", "ack foo 1", "deliver foo 2", "ack foo 2");
+    }
+
+    @Test
+    public void shouldDeliverOnCallingThreadAfterShutdown() {
+        givenDispatcher(true, 10, "BLOCK", 2);
+        givenDispatcherShutdown();
+
+        whenDispatched("foo", 1);
+
+        thenEventsAre("deliver foo 1", "ack foo 1");
+        thenDeliveryThreadIsCallingThread(true);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        this.blockedTopicReleased.countDown();
+
+        if (this.dispatcher != null) {
+            this.dispatcher.shutdown();
+        }
+    }
+
+    private void givenDispatcher(final boolean asyncEnabled, final int laneCapacity, final String overflowPolicy,
+            final int workerThreads) {
+        this.properties.put("in.dispatch.async.enabled", asyncEnabled);
+        this.properties.put("in.dispatch.lane.capacity", laneCapacity);
+        this.properties.put("in.dispatch.overflow.policy", overflowPolicy);
+        this.properties.put("in.dispatch.worker.threads", workerThreads);
+
+        this.dispatcher = new InboundDispatcher(new InboundDispatchOptions(this.properties), this::deliver);
+    }
+
+    private void givenBlockedTopic(final String topic) {
+        this.blockedTopic = topic;
+    }
+
+    private void givenDispatcherShutdown() {
+        this.dispatcher.shutdown();
+    }
+
+    private void whenDispatched(final String topic, final int id) {
+        final MqttMessage message = new MqttMessage(new byte[] { 1 });
+        message.setId(id);
+        message.setQos(1);
+
+        this.dispatchedCount.incrementAndGet();
+        this.dispatcher.dispatch(topic, message, () -> this.events.add("ack " + topic + " " + id));
+    }
+
+    private void whenDispatchedFromAnotherThread(final String topic, final int id) {
+        this.dispatchingThread = new Thread(() -> whenDispatched(topic, id));
+        this.dispatchingThread.start();
+    }
+
+    private void whenBlockedTopicIsEntered() throws InterruptedException {
+        assertTrue(this.blockedTopicEntered.await(30, TimeUnit.SECONDS));
+    }
+
+    private void whenBlockedTopicIsReleased() {
+        this.blockedTopicReleased.countDown();
+    }
+
+    private void whenMessagesAreDelivered(final String topic, final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (getDelivered(topic).size() < count) {
+            assertTrue("timed out waiting for delivery", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private void whenDispatcherIsIdle() throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (getAcknowledgedCount() < this.dispatchedCount.get()) {
+            assertTrue("timed out waiting for dispatcher", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private void thenEventsAre(final String... expected) {
+        assertEquals(Arrays.asList(expected), this.events);
+    }
+
+    private void thenDeliveryThreadIsCallingThread(final boolean expected) {
+        assertFalse(this.deliveryThreads.isEmpty());
+
+        for (final String thread : this.deliveryThreads) {
+            if (expected) {
+                assertEquals(Thread.currentThread().getName(), thread);
+            } else {
+                assertNotEquals(Thread.currentThread().getName(), thread);
+            }
+        }
+    }
+
+    private void thenMessagesAreDeliveredInOrder(final String topic, final int count) {
+        final List<Integer> delivered = getDelivered(topic);
+
+        assertEquals(count, delivered.size());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) delivered.get(i));
+        }
+    }
+
+    private void thenDeliveredMessagesAre(final String topic, final Integer... expected) {
+        assertEquals(Arrays.asList(expected), getDelivered(topic));
+    }
+
+    private void thenMessageIsAcknowledged(final String topic, final int id) {
+        assertTrue(this.events.contains("ack " + topic + " " + id));
+    }
+
+    private void thenLaneStatisticsAre(final String topic, final long deliveredCount, final long droppedCount,
+            final int maxQueueDepth) {
+        final InboundLaneStatistics statistics = this.dispatcher.getStatistics().stream()
+                .filter(s -> s.getTopic().equals(topic)).findAny().orElseThrow(IllegalStateException::new);
+
+        assertEquals(deliveredCount, statistics.getDeliveredCount());
+        assertEquals(droppedCount, statistics.getDroppedCount());
+        assertEquals(maxQueueDepth, statistics.getMaxQueueDepth());
+        assertEquals(0, statistics.getQueueDepth());
+    }
+
+    private void thenDispatchingThreadIsBlocked(final boolean expected) throws InterruptedException {
+        this.dispatchingThread.join(expected ? 200 : 30000);
+
+        assertEquals(expected, this.dispatchingThread.isAlive());
+    }
+
+    private void deliver(final String topic, final MqttMessage message) {
+        this.deliveryThreads.add(Thread.currentThread().getName());
+
+        if (topic.equals(this.blockedTopic) && this.blockedTopicEntered.getCount() > 0) {
+            this.blockedTopicEntered.countDown();
+
+            try {
+                this.blockedTopicReleased.await(30, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.events.add("deliver " + topic + " " + message.getId());
+
+        synchronized (this.deliveredByTopic) {
+            this.deliveredByTopic.computeIfAbsent(topic, t -> new ArrayList<>()).add(message.getId());
+        }
+    }
+
+    private List<Integer> getDelivered(final String topic) {
+        synchronized (this.deliveredByTopic) {
+            return new ArrayList<>(this.deliveredByTopic.getOrDefault(topic, Collections.emptyList()));
+        }
+    }
+
+    private long getAcknowledgedCount() {
+        synchronized (this.events) {
+            return this.events.stream().filter(e -> e.startsWith("ack")).count();
+        }
+    }
+}
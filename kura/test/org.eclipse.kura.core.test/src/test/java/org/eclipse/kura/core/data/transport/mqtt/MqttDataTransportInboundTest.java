@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.core.data.transport.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.data.DataTransportListener;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.service.component.ComponentContext;
+
+public class MqttDataTransportInboundTest {
+
+    private final List<Integer> acknowledged = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blockedTopicEntered = new CountDownLatch(1);
+    private final CountDownLatch blockedTopicReleased = new CountDownLatch(1);
+
+    private MqttDataTransport transport;
+    private String blockedTopic;
+
+    @Test
+    public void shouldAcknowledgeInArrivalOrderAcrossTopics() throws Throwable {
+        givenTransportWithManualAcks();
+        givenBlockedTopic("slow");
+
+        whenMessageArrived("slow", 1, 1);
+        whenBlockedTopicIsEntered();
+        whenMessageArrived("fast", 2, 1);
+        whenMessageArrived("fast", 3, 2);
+        whenMessagesAreDelivered(2);
+
+        thenAcknowledgedMessagesAre();
+
+        whenBlockedTopicIsReleased();
+        whenMessagesAreAcknowledged(3);
+
+        thenAcknowledgedMessagesAre(1, 2, 3);
+    }
+
+    @Test
+    public void shouldAcknowledgeCompletedPrefix() throws Throwable {
+        givenTransportWithManualAcks();
+        givenBlockedTopic("slow");
+
+        whenMessageArrived("fast", 1, 1);
+        whenMessageArrived("slow", 2, 1);
+        whenBlockedTopicIsEntered();
+        whenMessageArrived("fast", 3, 1);
+        whenMessagesAreDelivered(2);
+        whenMessagesAreAcknowledged(1);
+
+        thenAcknowledgedMessagesAre(1);
+
+        whenBlockedTopicIsReleased();
+        whenMessagesAreAcknowledged(3);
+
+        thenAcknowledgedMessagesAre(1, 2, 3);
+    }
+
+    @Test
+    public void shouldNotAcknowledgeQos0Messages() throws Throwable {
+        givenTransportWithManualAcks();
+
+        whenMessageArrived("foo", 1, 0);
+        whenMessageArrived("foo", 2, 1);
+        whenMessagesAreAcknowledged(1);
+
+        thenAcknowledgedMessagesAre(2);
+    }
+
+    @Test
+    public void shouldDiscardAcknowledgementsOfPreviousConnection() throws Throwable {
+        givenTransportWithManualAcks();
+        givenBlockedTopic("slow");
+
+        whenMessageArrived("slow", 1, 1);
+        whenBlockedTopicIsEntered();
+        whenConnectionIsClosed();
+        whenBlockedTopicIsReleased();
+        whenMessagesAreDelivered(1);
+        whenMessageArrived("foo", 2, 1);
+        whenMessagesAreDelivered(2);
+
+        thenAcknowledgedMessagesAre();
+    }
+
+    @After
+    public void tearDown() {
+        this.blockedTopicReleased.countDown();
+
+        if (this.transport != null) {
+            this.transport.deactivate(null);
+        }
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenTransportWithManualAcks() throws Exception {
+        final DataTransportListener listener = mock(DataTransportListener.class);
+        doAnswer(invocation -> {
+            final String topic = invocation.getArgument(0);
+            final byte[] payload = invocation.getArgument(1);
+
+            if (topic.equals(this.blockedTopic)) {
+                this.blockedTopicEntered.countDown();
+                this.blockedTopicReleased.await();
+            }
+
+            this.delivered.add((int) payload[0]);
+            return null;
+        }).when(listener).onMessageArrived(anyString(), any(), anyInt(), anyBoolean());
+
+        final ComponentContext componentContext = mock(ComponentContext.class);
+        when(componentContext.locateServices("DataTransportListener")).thenReturn(new Object[] { listener });
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("in.dispatch.async.enabled", true);
+        properties.put("in.dispatch.worker.threads", 2);
+
+        final MqttAsyncClient client = mock(MqttAsyncClient.class);
+        doAnswer(invocation -> {
+            this.acknowledged.add(invocation.getArgument(0));
+            return null;
+        }).when(client).messageArrivedComplete(anyInt(), anyInt());
+
+        this.transport = new MqttDataTransport();
+        this.transport.activate(componentContext, properties);
+
+        TestUtil.setFieldValue(this.transport, "mqttClient", client);
+        TestUtil.setFieldValue(this.transport, "manualAcks", true);
+        TestUtil.setFieldValue(this.transport, "inboundAcknowledger", new InboundAcknowledger(client));
+    }
+
+    private void givenBlockedTopic(final String topic) {
+        this.blockedTopic = topic;
+    }
+
+    private void whenMessageArrived(final String topic, final int id, final int qos) throws Exception {
+        final MqttMessage message = new MqttMessage(new byte[] { (byte) id });
+        message.setId(id);
+        message.setQos(qos);
+
+        this.transport.messageArrived(topic, message);
+    }
+
+    private void whenBlockedTopicIsEntered() throws InterruptedException {
+        assertTrue(this.blockedTopicEntered.await(30, TimeUnit.SECONDS));
+    }
+
+    private void whenBlockedTopicIsReleased() {
+        this.blockedTopicReleased.countDown();
+    }
+
+    private void whenConnectionIsClosed() throws Throwable {
+        TestUtil.invokePrivate(this.transport, "closeInboundAcknowledger");
+    }
+
+    private void whenMessagesAreDelivered(final int count) throws InterruptedException {
+        waitFor(this.delivered, count);
+    }
+
+    private void whenMessagesAreAcknowledged(final int count) throws InterruptedException {
+        waitFor(this.acknowledged, count);
+    }
+
+    private void thenAcknowledgedMessagesAre(final Integer... expected) throws InterruptedException {
+        // acknowledgements are sent by the delivering threads, give them a chance to run
+        Thread.sleep(100);
+
+        synchronized (this.acknowledged) {
+            assertEquals(Arrays.asList(expected), new ArrayList<>(this.acknowledged));
+        }
+    }
+
+    private static void waitFor(final List<Integer> list, final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (list.size() < count) {
+            assertTrue("timed out waiting for " + count + " messages", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.core.internal.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.message.store.StoredMessage;
+import org.eclipse.kura.message.store.provider.MessageStore;
+import org.junit.Test;
+
+public class PriorityPublishQueuesTest {
+
+    private static final int CAPACITY = 100;
+
+    private final TreeSet<StoredMessage> storedMessages = new TreeSet<>(
+            Comparator.comparingInt(StoredMessage::getPriority).thenComparingInt(StoredMessage::getId));
+    private final MessageStore store = mock(MessageStore.class);
+    private final List<StoredMessage> publishedMessages = new ArrayList<>();
+
+    private PriorityPublishQueues queues;
+    private int nextId = 1;
+    private int storeQueryCount;
+    private boolean lastOfferResult;
+
+    @Test
+    public void shouldPublishLifecycleMessagesImmediatelyWhileDrainingBacklog() throws KuraStoreException {
+        givenPublishQueues(Optional.empty());
+        givenStoredMessages(20000, 7, 0);
+
+        final List<Integer> pollsToDeliver = new ArrayList<>();
+
+        while (!this.storedMessages.isEmpty()) {
+            whenMessagesArePublished(500);
+
+            final int lifecycleMessageId = whenMessageIsStoredAndOffered(0, 1);
+            pollsToDeliver.add(whenPublishingUntilDelivered(lifecycleMessageId));
+        }
+
+        thenEveryMessageIsDeliveredWithinPolls(pollsToDeliver, 1);
+        thenStoreQueryCountIsAtMost(20000 / CAPACITY + 4);
+    }
+
+    @Test
+    public void shouldServeWeightedBandsProportionally() throws KuraStoreException {
+        givenPublishQueues(Optional.empty());
+        givenStoredMessages(100, 7, 0);
+        givenStoredMessages(100, 3, 0);
+
+        whenMessagesArePublished(50);
+
+        thenPublishedMessageCountWithPriorityIs(3, 40);
+        thenPublishedMessageCountWithPriorityIs(7, 10);
+    }
+
+    @Test
+    public void shouldPublishInPriorityOrderWithinBand() throws KuraStoreException {
+        givenPublishQueues(Optional.empty());
+        givenStoredMessages(2, 4, 0);
+        givenStoredMessages(2, 2, 0);
+
+        whenMessagesArePublished(4);
+
+        thenPublishedPrioritiesAre(2, 2, 4, 4);
+    }
+
+    @Test
+    public void shouldRateLimitOnlyTheThrottledBand() throws KuraStoreException {
+        givenPublishQueues(Optional.of(new TokenBucket(1, TimeUnit.HOURS.toNanos(1))));
+        givenStoredMessages(10, 7, 0);
+        givenStoredMessages(10, 3, 0);
+
+        whenMessagesArePublished(30);
+
+        thenPublishedMessageCountWithPriorityIs(3, 10);
+        thenPublishedMessageCountWithPriorityIs(7, 1);
+        thenTokenWaitTimeIsPositive();
+    }
+
+    @Test
+    public void shouldNotBlockQoS0MessagesWhenInFlightMessagesAreExhausted() throws KuraStoreException {
+        givenPublishQueues(Optional.empty());
+        givenStoredMessages(1, 0, 1);
+        givenStoredMessages(1, 7, 0);
+
+        whenRefilled();
+
+        thenPolledPriorityIs(false, Optional.of(7));
+        thenPolledPriorityIs(false, Optional.empty());
+        thenPolledPriorityIs(true, Optional.of(0));
+    }
+
+    @Test
+    public void shouldNotQueueOfferedMessagesBeforeRefill() throws KuraStoreException {
+        givenPublishQueues(Optional.empty());
+        givenStoredMessages(1, 5, 0);
+
+        whenMessageIsStoredAndOffered(5, 0);
+
+        thenOfferedMessageWasQueued(false);
+        thenQueuesNeedRefill(true);
+    }
+
+    @Test
+    public void shouldRefillAfterClear() throws KuraStoreException {
+        givenPublishQueues(Optional.empty());
+        givenStoredMessages(3, 5, 0);
+
+        whenRefilled();
+        whenCleared();
+
+        thenQueuesNeedRefill(true);
+        thenQueueSizeIs(0);
+
+        whenRefilled();
+
+        thenQueueSizeIs(3);
+    }
+
+    @Test
+    public void shouldReturnTokenOfMessagePutBack() throws KuraStoreException {
+        givenPublishQueues(Optional.of(new TokenBucket(1, TimeUnit.HOURS.toNanos(1))));
+        givenStoredMessages(2, 7, 0);
+
+        whenRefilled();
+        whenPolledMessageIsPutBack();
+
+        thenPolledPriorityIs(true, Optional.of(7));
+        thenPolledPriorityIs(true, Optional.empty());
+        thenQueueSizeIs(1);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenPublishQueues(final Optional<TokenBucket> normalBandThrottle) throws KuraStoreException {
+        when(this.store.getNextMessages(anyInt(), anyInt(), anyInt())).thenAnswer(i -> {
+            final int maxCount = i.getArgument(0);
+            final int minPriority = i.getArgument(1);
+            final int maxPriority = i.getArgument(2);
+
+            this.storeQueryCount++;
+
+            return this.storedMessages.stream()
+                    .filter(m -> m.getPriority() >= minPriority && m.getPriority() <= maxPriority).limit(maxCount)
+                    .collect(Collectors.toList());
+        });
+
+        this.queues = new PriorityPublishQueues(CAPACITY,
+                Arrays.asList(new PriorityPublishQueues.Band(0, 1, 0, Optional.empty()),
+                        new PriorityPublishQueues.Band(2, 4, 4, Optional.empty()),
+                        new PriorityPublishQueues.Band(5, Integer.MAX_VALUE, 1, normalBandThrottle)));
+    }
+
+    private void givenStoredMessages(final int count, final int priority, final int qos) {
+        for (int i = 0; i < count; i++) {
+            this.storedMessages.add(buildMessage(priority, qos));
+        }
+    }
+
+    private int whenMessageIsStoredAndOffered(final int priority, final int qos) {
+        final StoredMessage message = buildMessage(priority, qos);
+
+        this.storedMessages.add(message);
+        this.lastOfferResult = this.queues.offer(message);
+
+        return message.getId();
+    }
+
+    private void whenRefilled() throws KuraStoreException {
+        this.queues.refill(this.store);
+    }
+
+    private void whenCleared() {
+        this.queues.clear();
+    }
+
+    private void whenPolledMessageIsPutBack() {
+        this.queues.putBack(this.queues.poll(true).get());
+    }
+
+    private void whenMessagesArePublished(final int count) throws KuraStoreException {
+        for (int i = 0; i < count; i++) {
+            if (!publishNext().isPresent()) {
+                return;
+            }
+        }
+    }
+
+    private int whenPublishingUntilDelivered(final int messageId) throws KuraStoreException {
+        int polls = 0;
+
+        while (true) {
+            final Optional<StoredMessage> message = publishNext();
+            polls++;
+
+            if (!message.isPresent()) {
+                return Integer.MAX_VALUE;
+            }
+
+            if (message.get().getId() == messageId) {
+                return polls;
+            }
+        }
+    }
+
+    private Optional<StoredMessage> publishNext() throws KuraStoreException {
+        this.queues.refill(this.store);
+
+        final Optional<StoredMessage> message = this.queues.poll(true);
+
+        if (message.isPresent()) {
+            this.storedMessages.remove(message.get());
+            this.publishedMessages.add(message.get());
+        }
+
+        return message;
+    }
+
+    private void thenEveryMessageIsDeliveredWithinPolls(final List<Integer> pollsToDeliver, final int maxPolls) {
+        assertFalse(pollsToDeliver.isEmpty());
+
+        for (final int polls : pollsToDeliver) {
+            assertEquals(maxPolls, polls);
+        }
+    }
+
+    private void thenStoreQueryCountIsAtMost(final int expected) {
+        assertTrue("store queried " + this.storeQueryCount + " times", this.storeQueryCount <= expected);
+    }
+
+    private void thenPublishedMessageCountWithPriorityIs(final int priority, final long expected) {
+        assertEquals(expected, this.publishedMessages.stream().filter(m -> m.getPriority() == priority).count());
+    }
+
+    private void thenPublishedPrioritiesAre(final Integer... priorities) {
+        assertEquals(Arrays.asList(priorities),
+                this.publishedMessages.stream().map(StoredMessage::getPriority).collect(Collectors.toList()));
+    }
+
+    private void thenTokenWaitTimeIsPositive() {
+        assertTrue(this.queues.getTokenWaitTime() > 0);
+    }
+
+    private void thenPolledPriorityIs(final boolean inFlightAvailable, final Optional<Integer> priority) {
+        assertEquals(priority, this.queues.poll(inFlightAvailable).map(StoredMessage::getPriority));
+    }
+
+    private void thenOfferedMessageWasQueued(final boolean expected) {
+        assertEquals(expected, this.lastOfferResult);
+    }
+
+    private void thenQueuesNeedRefill(final boolean expected) {
+        assertEquals(expected, this.queues.needsRefill());
+    }
+
+    private void thenQueueSizeIs(final int expected) {
+        assertEquals(expected, this.queues.size());
+    }
+
+    private StoredMessage buildMessage(final int priority, final int qos) {
+        return new StoredMessage.Builder(this.nextId++).withTopic("topic").withPayload(new byte[] { 1 })
+                .withPriority(priority).withQos(qos).build();
+    }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.internal.linux.executor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.kura.core.linux.executor.LinuxSignal;
+import org.eclipse.kura.executor.Command;
+import org.eclipse.kura.executor.CommandStatus;
+import org.junit.After;
+import org.junit.Test;
+
+public class ExecutorUtilBatchTest {
+
+    private final ExecutorUtil executorUtil = new ExecutorUtil();
+    private final List<Command> commands = new ArrayList<>();
+    private List<CommandStatus> statuses;
+
+    @Test
+    public void shouldExecuteCommandsInOrder() {
+        givenCommand("echo", "first");
+        givenCommand("echo", "second");
+        givenCommand("printf", "no newline");
+
+        whenBatchIsExecuted();
+
+        thenExitValueIs(0, 0);
+        thenOutputIs(0, "first\n");
+        thenOutputIs(1, "second\n");
+        thenOutputIs(2, "no newline");
+    }
+
+    @Test
+    public void shouldReportExitValueAndErrorOutputOfEachCommand() {
+        givenShellCommand("echo out; echo err >&2; exit 3");
+        givenCommand("true");
+
+        whenBatchIsExecuted();
+
+        thenExitValueIs(0, 3);
+        thenOutputIs(0, "out\n");
+        thenErrorOutputIs(0, "err\n");
+        thenExitValueIs(1, 0);
+        thenErrorOutputIs(1, "");
+    }
+
+    @Test
+    public void shouldNotInterpretArguments() {
+        givenCommand("echo", "it's", "$HOME", "a;b");
+
+        whenBatchIsExecuted();
+
+        thenOutputIs(0, "it's $HOME a;b\n");
+    }
+
+    @Test
+    public void shouldApplyEnvironmentAndDirectory() {
+        final Command command = givenShellCommand("echo $FOO; pwd");
+        command.setEnvironment(Collections.singletonMap("FOO", "bar baz"));
+        command.setDirectory("/");
+
+        whenBatchIsExecuted();
+
+        thenOutputIs(0, "bar baz\n/\n");
+    }
+
+    @Test
+    public void shouldNotLeakStateBetweenCommands() {
+        final Command command = givenShellCommand("cd /; FOO=bar; export FOO");
+        command.setEnvironment(Collections.singletonMap("BAR", "baz"));
+        givenShellCommand("echo \"$FOO$BAR\"; pwd");
+
+        whenBatchIsExecuted();
+
+        thenOutputIs(1, "\n" + System.getProperty("java.io.tmpdir") + "\n");
+    }
+
+    @Test
+    public void shouldTimeOutCommands() {
+        final Command command = givenCommand("sleep", "10");
+        command.setTimeout(1);
+        command.setSignal(LinuxSignal.SIGKILL);
+        givenCommand("echo", "next");
+
+        whenBatchIsExecuted();
+
+        thenCommandTimedOut(0);
+        thenOutputIs(1, "next\n");
+    }
+
+    @Test
+    public void shouldExecuteRemainingCommandsWhenShellIsDestroyed() {
+        final Command command = givenShellCommand("trap '' TERM; sleep 30");
+        command.setTimeout(1);
+        command.setSignal(LinuxSignal.SIGTERM);
+        givenCommand("echo", "next");
+
+        whenBatchIsExecuted();
+
+        thenCommandTimedOut(0);
+        thenExitValueIs(1, 0);
+        thenOutputIs(1, "next\n");
+    }
+
+    @Test
+    public void shouldIsolateSyntaxErrors() {
+        givenShellCommand("echo a (");
+        givenCommand("echo", "next");
+
+        whenBatchIsExecuted();
+
+        thenExitValueIs(0, 2);
+        thenExitValueIs(1, 0);
+        thenOutputIs(1, "next\n");
+    }
+
+    @Test
+    public void shouldExecuteCommandsWithInputAsProcesses() {
+        givenCommand("echo", "before");
+        final Command command = givenCommand("cat");
+        command.setInputStream(new ByteArrayInputStream("input".getBytes(UTF_8)));
+        givenCommand("echo", "after");
+
+        whenBatchIsExecuted();
+
+        thenOutputIs(0, "before\n");
+        thenOutputIs(1, "input");
+        thenOutputIs(2, "after\n");
+    }
+
+    @Test
+    public void shouldExecuteAsynchronously() throws InterruptedException, ExecutionException, TimeoutException {
+        final Command command = givenCommand("echo", "async");
+
+        final CommandStatus status = this.executorUtil.executePrivilegedAsync(command).toCompletableFuture().get(10,
+                TimeUnit.SECONDS);
+
+        assertEquals(0, status.getExitStatus().getExitCode());
+        assertEquals("async\n", new String(((ByteArrayOutputStream) status.getOutputStream()).toByteArray(), UTF_8));
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        this.executorUtil.close();
+    }
+
+    private Command givenCommand(final String... commandLine) {
+        final Command command = new Command(commandLine);
+        command.setOutputStream(new ByteArrayOutputStream());
+        command.setErrorStream(new ByteArrayOutputStream());
+        this.commands.add(command);
+        return command;
+    }
+
+    private Command givenShellCommand(final String commandLine) {
+        final Command command = givenCommand(commandLine);
+        command.setExecuteInAShell(true);
+        return command;
+    }
+
+    private void whenBatchIsExecuted() {
+        this.statuses = this.executorUtil.executePrivileged(this.commands);
+    }
+
+    private void thenExitValueIs(final int index, final int expected) {
+        assertEquals(expected, this.statuses.get(index).getExitStatus().getExitCode());
+    }
+
+    private void thenOutputIs(final int index, final String expected) {
+        assertEquals(expected,
+                new String(((ByteArrayOutputStream) this.statuses.get(index).getOutputStream()).toByteArray(), UTF_8));
+    }
+
+    private void thenErrorOutputIs(final int index, final String expected) {
+        assertEquals(expected,
+                new String(((ByteArrayOutputStream) this.statuses.get(index).getErrorStream()).toByteArray(), UTF_8));
+    }
+
+    private void thenCommandTimedOut(final int index) {
+        assertTrue(this.statuses.get(index).isTimedout());
+        assertFalse(this.statuses.get(index).getExitStatus().isSuccessful());
+    }
+}
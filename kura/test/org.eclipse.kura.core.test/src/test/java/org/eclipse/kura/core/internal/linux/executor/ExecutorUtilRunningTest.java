@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2021, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -22,13 +22,19 @@ import static org.mockito.Mockito.when;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.commons.exec.DefaultExecutor;
 import org.apache.commons.exec.Executor;
 import org.eclipse.kura.core.linux.executor.LinuxPid;
 import org.eclipse.kura.executor.Pid;
+import org.junit.After;
 import org.junit.Test;
 
 public class ExecutorUtilRunningTest {
@@ -39,6 +45,16 @@ public class ExecutorUtilRunningTest {
     private ExecutorUtil executorUtil;
     private boolean isRunning;
     private Map<String, Pid> pids = new HashMap<>();
+    private Path procDirectory = Paths.get("/nonexistent");
+
+    @After
+    public void cleanUp() throws IOException {
+        if (Files.exists(this.procDirectory)) {
+            try (Stream<Path> paths = Files.walk(this.procDirectory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
 
     @Test
     public void shouldNotBeRunningPid() {
@@ -58,6 +74,26 @@ public class ExecutorUtilRunningTest {
         thenCommandIsRunning();
     }
 
+    @Test
+    public void shouldNotBeRunningPidWithoutProcDirectory() throws IOException {
+        givenProcDirectory(1);
+        givenExecutor();
+
+        whenCheckIfRunning(new LinuxPid(12345));
+
+        thenCommandIsNotRunning();
+    }
+
+    @Test
+    public void shouldBeRunningPidWithProcDirectory() throws IOException {
+        givenProcDirectory(1234);
+        givenExecutor();
+
+        whenCheckIfRunning(new LinuxPid(1234));
+
+        thenCommandIsRunning();
+    }
+
     @Test
     public void shouldNotBeRunningCommandLine() {
         givenExecutor();
@@ -107,10 +143,21 @@ public class ExecutorUtilRunningTest {
             protected ByteArrayOutputStream createStream() {
                 return ExecutorUtilRunningTest.out;
             }
+
+            @Override
+            protected Path getProcDirectory() {
+                return ExecutorUtilRunningTest.this.procDirectory;
+            }
         };
         configureMock(deMock);
     }
 
+    private void givenProcDirectory(int pid) throws IOException {
+        this.procDirectory = Files.createTempDirectory("proc");
+        Files.createDirectory(this.procDirectory.resolve("self"));
+        Files.createDirectory(this.procDirectory.resolve(Integer.toString(pid)));
+    }
+
     private void whenCheckIfRunning(Pid pid) {
         this.isRunning = this.executorUtil.isRunning(pid);
     }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2021, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,8 @@ import static org.mockito.Mockito.when;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.apache.commons.exec.DefaultExecutor;
 import org.apache.commons.exec.ExecuteWatchdog;
@@ -89,6 +91,12 @@ public class ExecutorUtilTerminationTest {
             protected ByteArrayOutputStream createStream() {
                 return ExecutorUtilTerminationTest.out;
             }
+
+            @Override
+            protected Path getProcDirectory() {
+                // no procfs, liveness is checked with ps
+                return Paths.get("/nonexistent");
+            }
         };
         configureMock(deMock);
     }
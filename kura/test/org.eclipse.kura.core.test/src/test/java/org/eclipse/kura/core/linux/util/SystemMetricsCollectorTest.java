@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.linux.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SystemMetricsCollectorTest {
+
+    private static final String STAT = "cpu  100 20 30 800 50 0 0 0 0 0\n" //
+            + "cpu0 50 10 15 400 25 0 0 0 0 0\n" //
+            + "intr 12345\n";
+    private static final String MEMINFO = "MemTotal:        1024000 kB\n" //
+            + "MemFree:          256000 kB\n" //
+            + "MemAvailable:     512000 kB\n" //
+            + "Buffers:           16000 kB\n" //
+            + "Cached:           128000 kB\n" //
+            + "SwapCached:            0 kB\n" //
+            + "SwapTotal:        102400 kB\n" //
+            + "SwapFree:          51200 kB\n";
+    private static final String NET_DEV = "Inter-|   Receive                    |  Transmit\n"
+            + " face |bytes    packets errs drop fifo frame compressed multicast"
+            + "|bytes    packets errs drop fifo colls carrier compressed\n"
+            + "    lo:    1000      10    0    0    0     0          0         0"
+            + "     1000      10    0    0    0     0       0          0\n"
+            + "  eth0: 2000000    3000    1    2    0     0          0        12"
+            + "   400000    1500    3    4    0     0       0          0\n"
+            + " wlan0:12345678   10000    0    0    0     0          0         0"
+            + "  8765432    9000    0    0    0     0       0          0\n";
+    private static final String WIRELESS = "Inter-| sta-|   Quality        |   Discarded packets     | Missed | WE\n"
+            + " face | tus | link level noise |  nwid  crypt   frag  retry   misc | beacon | 22\n"
+            + " wlan0: 0000   54.  -56.  -256        0      0      0      0      0        0\n"
+            + " wlan1: 0000   40.  200.  -256        0      0      0      0      0        0\n";
+
+    private Path root;
+    private SystemMetricsCollector collector;
+    private SystemMetricsSnapshot snapshotBefore;
+    private SystemMetricsSnapshot snapshot;
+
+    @Test
+    public void shouldParseCpuTimes() throws IOException {
+        givenProcFile("stat", STAT);
+
+        whenSampled();
+
+        assertEquals(1000, this.snapshot.getCpuTotalTime());
+        assertEquals(850, this.snapshot.getCpuIdleTime());
+    }
+
+    @Test
+    public void shouldComputeCpuUsageBetweenSamples() throws IOException {
+        givenProcFile("stat", STAT);
+        givenSampled();
+        givenProcFile("stat", "cpu  160 20 30 830 60 0 0 0 0 0\n");
+
+        whenSampled();
+
+        assertEquals(0.6, this.snapshot.getCpuUsageSince(this.snapshotBefore), 0.0001);
+    }
+
+    @Test
+    public void shouldParseMemory() throws IOException {
+        givenProcFile("meminfo", MEMINFO);
+
+        whenSampled();
+
+        assertEquals(1024000, this.snapshot.getMemTotal());
+        assertEquals(256000, this.snapshot.getMemFree());
+        assertEquals(512000, this.snapshot.getMemAvailable());
+        assertEquals(128000, this.snapshot.getCached());
+        assertEquals(102400, this.snapshot.getSwapTotal());
+        assertEquals(51200, this.snapshot.getSwapFree());
+    }
+
+    @Test
+    public void shouldEstimateAvailableMemoryOnOlderKernels() throws IOException {
+        givenProcFile("meminfo", "MemTotal: 1000 kB\nMemFree: 100 kB\nBuffers: 20 kB\nCached: 30 kB\n");
+
+        whenSampled();
+
+        assertEquals(150, this.snapshot.getMemAvailable());
+        assertEquals(-1, this.snapshot.getSwapTotal());
+    }
+
+    @Test
+    public void shouldParseNetworkCounters() throws IOException {
+        givenProcFile("net/dev", NET_DEV);
+
+        whenSampled();
+
+        assertEquals(3, this.snapshot.getNetInterfaces().size());
+
+        final SystemMetricsSnapshot.NetInterfaceCounters eth0 = this.snapshot.getNetInterfaces().get("eth0");
+        assertEquals(2000000, eth0.getRxBytes());
+        assertEquals(3000, eth0.getRxPackets());
+        assertEquals(1, eth0.getRxErrors());
+        assertEquals(2, eth0.getRxDropped());
+        assertEquals(400000, eth0.getTxBytes());
+        assertEquals(1500, eth0.getTxPackets());
+        assertEquals(3, eth0.getTxErrors());
+        assertEquals(4, eth0.getTxDropped());
+        assertEquals(12345678, this.snapshot.getNetInterfaces().get("wlan0").getRxBytes());
+    }
+
+    @Test
+    public void shouldReuseInterfaceNamesAcrossSamples() throws IOException {
+        givenProcFile("net/dev", NET_DEV);
+        givenSampled();
+
+        whenSampled();
+
+        assertSame(this.snapshotBefore.getNetInterfaces().keySet().iterator().next(),
+                this.snapshot.getNetInterfaces().keySet().iterator().next());
+    }
+
+    @Test
+    public void shouldParseWirelessLinks() throws IOException {
+        givenProcFile("net/wireless", WIRELESS);
+
+        whenSampled();
+
+        final SystemMetricsSnapshot.WirelessLinkStats wlan0 = this.snapshot.getWirelessLinks().get("wlan0");
+        assertEquals(54, wlan0.getLinkQuality());
+        assertEquals(-56, wlan0.getSignalLevel());
+        assertEquals(0, wlan0.getNoiseLevel());
+        assertEquals(-56, this.snapshot.getWirelessLinks().get("wlan1").getSignalLevel());
+        assertEquals(-56, this.collector.getWirelessLink("wlan0").get().getSignalLevel());
+        assertFalse(this.collector.getWirelessLink("wlan2").isPresent());
+    }
+
+    @Test
+    public void shouldReportMissingValuesWhenFilesAreNotAvailable() throws IOException {
+        givenCollector();
+
+        whenSampled();
+
+        assertEquals(0, this.snapshot.getCpuTotalTime());
+        assertEquals(-1, this.snapshot.getMemTotal());
+        assertTrue(this.snapshot.getNetInterfaces().isEmpty());
+        assertFalse(this.collector.getHostname().isPresent());
+        assertFalse(this.collector.getCarrierChanges("eth0").isPresent());
+    }
+
+    @Test
+    public void shouldReturnCachedSnapshotWithinMaxAge() throws IOException {
+        givenProcFile("stat", STAT);
+        givenSampled();
+
+        final SystemMetricsSnapshot cached = this.collector.getSnapshot(60000);
+
+        assertSame(this.snapshotBefore, cached);
+    }
+
+    @Test
+    public void shouldReadHostname() throws IOException {
+        givenProcFile("sys/kernel/hostname", "kura-gateway\n");
+
+        assertEquals(Optional.of("kura-gateway"), this.collector.getHostname());
+    }
+
+    @Test
+    public void shouldCacheDmiValues() throws IOException {
+        givenSysFile("class/dmi/id/bios_version", "1.2.3\n");
+
+        final Optional<String> first = this.collector.getDmiValue("bios_version");
+        givenSysFile("class/dmi/id/bios_version", "4.5.6\n");
+
+        assertEquals(Optional.of("1.2.3"), first);
+        assertEquals(Optional.of("1.2.3"), this.collector.getDmiValue("bios_version"));
+    }
+
+    @Test
+    public void shouldReadCarrierChanges() throws IOException {
+        givenSysFile("devices/platform/eth0/net/eth0/carrier_changes", "7\n");
+        givenNetClassLink("eth0", "../../devices/platform/eth0/net/eth0");
+
+        assertEquals(OptionalLong.of(7), this.collector.getCarrierChanges("eth0"));
+    }
+
+    @Test
+    public void shouldDetectVirtualInterfaces() throws IOException {
+        givenSysFile("devices/virtual/net/ppp0/carrier_changes", "0\n");
+        givenSysFile("devices/platform/eth0/net/eth0/carrier_changes", "0\n");
+        givenNetClassLink("ppp0", "../../devices/virtual/net/ppp0");
+        givenNetClassLink("eth0", "../../devices/platform/eth0/net/eth0");
+
+        assertTrue(this.collector.isVirtualInterface("ppp0"));
+        assertFalse(this.collector.isVirtualInterface("eth0"));
+        assertFalse(this.collector.isVirtualInterface("wlan0"));
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws IOException {
+        if (this.root == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(this.root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void givenCollector() throws IOException {
+        if (this.root == null) {
+            this.root = Files.createTempDirectory("metrics");
+            this.collector = new SystemMetricsCollector(this.root.resolve("proc"), this.root.resolve("sys"));
+        }
+    }
+
+    private void givenProcFile(final String name, final String content) throws IOException {
+        givenFile("proc/" + name, content);
+    }
+
+    private void givenSysFile(final String name, final String content) throws IOException {
+        givenFile("sys/" + name, content);
+    }
+
+    private void givenFile(final String name, final String content) throws IOException {
+        givenCollector();
+
+        final Path path = this.root.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void givenNetClassLink(final String name, final String target) throws IOException {
+        givenCollector();
+
+        final Path link = this.root.resolve("sys/class/net").resolve(name);
+        Files.createDirectories(link.getParent());
+        Files.createSymbolicLink(link, link.getFileSystem().getPath(target));
+    }
+
+    private void givenSampled() {
+        this.snapshotBefore = this.collector.sample();
+    }
+
+    private void whenSampled() {
+        this.snapshot = this.collector.sample();
+    }
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.db.keyvalue.log.provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.connection.listener.ConnectionListener;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogKeyValueDbServiceImplTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final ConnectionListener listener = mock(ConnectionListener.class);
+    private LogKeyValueDbServiceImpl service;
+    private LogKeyValueDbServiceImpl otherService;
+
+    @Test
+    public void shouldSetAndGetValues() throws KuraException {
+        givenService();
+
+        whenValueIsSet("foo", new byte[] { 1, 2, 3 });
+        whenValueIsSet("bar", "baz");
+
+        thenValueIs("foo", new byte[] { 1, 2, 3 });
+        thenStringValueIs("bar", "baz");
+        thenStringValueIs("missing", null);
+    }
+
+    @Test
+    public void shouldDeleteValues() throws KuraException {
+        givenService();
+        givenValue("foo", "bar");
+
+        whenValueIsDeleted("foo");
+
+        thenStringValueIs("foo", null);
+    }
+
+    @Test
+    public void shouldKeepValuesAcrossRestarts() throws KuraException {
+        givenProperty("db.sync.on.write", true);
+        givenService();
+        givenValue("foo", "bar");
+
+        whenServiceIsRestarted();
+
+        thenStringValueIs("foo", "bar");
+    }
+
+    @Test
+    public void shouldReopenDatabaseWhenPathChanges() throws KuraException {
+        givenService();
+        givenValue("foo", "bar");
+
+        whenPropertyIsUpdated("db.path", this.temporaryFolder.getRoot().toPath().resolve("other").toString());
+
+        thenStringValueIs("foo", null);
+    }
+
+    @Test
+    public void shouldNotifyListeners() throws KuraException {
+        givenService();
+        givenListener();
+
+        whenServiceIsDeactivated();
+
+        thenListenerIsDisconnected();
+        thenServiceIsConnected(false);
+    }
+
+    @Test
+    public void shouldFailIfNotInitialized() {
+        givenService();
+
+        whenServiceIsDeactivated();
+
+        thenGetFails("foo");
+    }
+
+    @Test
+    public void shouldNotOpenPathUsedByAnotherInstance() {
+        givenService();
+
+        whenOtherServiceIsActivatedOnSamePath();
+
+        thenServiceIsConnected(true);
+        thenOtherServiceIsConnected(false);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        if (this.service != null) {
+            this.service.deactivate();
+        }
+
+        if (this.otherService != null) {
+            this.otherService.deactivate();
+        }
+    }
+
+    private void givenProperty(final String key, final Object value) {
+        this.properties.put(key, value);
+    }
+
+    private void givenService() {
+        this.properties.putIfAbsent("db.path", this.temporaryFolder.getRoot().toPath().resolve("db").toString());
+
+        this.service = new LogKeyValueDbServiceImpl();
+        this.service.activate(this.properties);
+    }
+
+    private void givenValue(final String key, final String value) throws KuraException {
+        whenValueIsSet(key, value);
+    }
+
+    private void givenListener() {
+        this.service.addListener(this.listener);
+    }
+
+    private void whenValueIsSet(final String key, final byte[] value) throws KuraException {
+        this.service.set(key, value);
+    }
+
+    private void whenValueIsSet(final String key, final String value) throws KuraException {
+        this.service.set(key, value);
+    }
+
+    private void whenValueIsDeleted(final String key) throws KuraException {
+        this.service.delete(key);
+    }
+
+    private void whenServiceIsRestarted() {
+        this.service.deactivate();
+        givenService();
+    }
+
+    private void whenServiceIsDeactivated() {
+        this.service.deactivate();
+    }
+
+    private void whenPropertyIsUpdated(final String key, final Object value) {
+        this.properties.put(key, value);
+        this.service.updated(this.properties);
+    }
+
+    private void whenOtherServiceIsActivatedOnSamePath() {
+        this.otherService = new LogKeyValueDbServiceImpl();
+        this.otherService.activate(this.properties);
+    }
+
+    private void thenValueIs(final String key, final byte[] expected) throws KuraException {
+        assertArrayEquals(expected, this.service.get(key));
+    }
+
+    private void thenStringValueIs(final String key, final String expected) throws KuraException {
+        if (expected == null) {
+            assertNull(this.service.getAsString(key));
+        } else {
+            assertEquals(expected, this.service.getAsString(key));
+        }
+    }
+
+    private void thenListenerIsDisconnected() {
+        verify(this.listener, timeout(10000)).disconnected();
+    }
+
+    private void thenServiceIsConnected(final boolean expected) {
+        assertEquals(expected, this.service.isConnected());
+    }
+
+    private void thenOtherServiceIsConnected(final boolean expected) {
+        assertEquals(expected, this.otherService.isConnected());
+    }
+
+    private void thenGetFails(final String key) {
+        try {
+            this.service.get(key);
+            fail("exception expected");
+        } catch (final KuraStoreException e) {
+            assertTrue(e.getMessage() != null);
+        } catch (final KuraException e) {
+            fail("unexpected exception " + e);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.db.keyvalue.log.provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+    private LogStore store;
+    private int segmentSize = 64 * 1024;
+    private final List<Integer> dirtySegmentCountsOnDeletion = new ArrayList<>();
+
+    @Test
+    public void shouldGetStoredValue() throws IOException {
+        givenStore();
+        givenValue("foo", "bar");
+
+        thenValueIs("foo", "bar");
+        thenValueIs("baz", null);
+    }
+
+    @Test
+    public void shouldReturnLatestValue() throws IOException {
+        givenStore();
+        givenValue("foo", "bar");
+        givenValue("foo", "baz");
+
+        thenValueIs("foo", "baz");
+        thenSizeIs(1);
+    }
+
+    @Test
+    public void shouldNotReturnDeletedValue() throws IOException {
+        givenStore();
+        givenValue("foo", "bar");
+        givenDeleted("foo");
+
+        thenValueIs("foo", null);
+        thenSizeIs(0);
+    }
+
+    @Test
+    public void shouldStoreEmptyValue() throws IOException {
+        givenStore();
+        givenValue("foo", "");
+
+        whenStoreIsReopened();
+
+        thenValueIs("foo", "");
+    }
+
+    @Test
+    public void shouldRecoverValuesByReplayingTheLog() throws IOException {
+        givenStore();
+        givenValue("foo", "1");
+        givenValue("bar", "2");
+        givenValue("foo", "3");
+        givenDeleted("bar");
+        givenValue("baz", "4");
+
+        whenStoreIsReopened();
+
+        thenValueIs("foo", "3");
+        thenValueIs("bar", null);
+        thenValueIs("baz", "4");
+        thenSizeIs(2);
+    }
+
+    @Test
+    public void shouldDiscardTornRecordOnRecovery() throws IOException {
+        givenStore();
+        givenValue("foo", "1");
+        givenValue("bar", "2");
+        givenStoreClosed();
+        givenLastByteOfRecordCorrupted(1);
+
+        whenStoreIsReopened();
+        whenValueIsSet("baz", "3");
+        whenStoreIsReopened();
+
+        thenValueIs("foo", "1");
+        thenValueIs("bar", null);
+        thenValueIs("baz", "3");
+    }
+
+    @Test
+    public void shouldCreateNewSegmentWhenFull() throws IOException {
+        givenSegmentSize(1024);
+        givenStore();
+
+        for (int i = 0; i < 100; i++) {
+            givenValue("key" + i, "value" + i);
+        }
+
+        whenStoreIsReopened();
+
+        thenSegmentCountIsAtLeast(3);
+        for (int i = 0; i < 100; i++) {
+            thenValueIs("key" + i, "value" + i);
+        }
+    }
+
+    @Test
+    public void shouldStoreValueLargerThanSegment() throws IOException {
+        givenSegmentSize(1024);
+        givenStore();
+        givenValue("foo", new String(new char[5000]).replace('\0', 'a'));
+
+        whenStoreIsReopened();
+
+        thenValueLengthIs("foo", 5000);
+    }
+
+    @Test
+    public void shouldCompactOldestSegments() throws IOException {
+        givenSegmentSize(1024);
+        givenStore();
+        givenValue("deleted", "value");
+
+        for (int i = 0; i < 500; i++) {
+            givenValue("key" + i % 10, "value" + i);
+        }
+        givenDeleted("deleted");
+
+        final int segmentCount = this.store.getSegmentCount();
+
+        whenCompacted(0.5);
+
+        thenSegmentCountIsLessThan(segmentCount);
+        thenSegmentFileCountIs(this.store.getSegmentCount());
+
+        whenStoreIsReopened();
+
+        thenValueIs("deleted", null);
+        for (int i = 490; i < 500; i++) {
+            thenValueIs("key" + i % 10, "value" + i);
+        }
+    }
+
+    @Test
+    public void shouldSyncCopiesBeforeDeletingCompactedSegments() throws IOException {
+        givenSegmentSize(1024);
+        givenStore();
+        givenSegmentDeletionsAreTracked();
+        givenValue("live", "value");
+
+        for (int i = 0; i < 500; i++) {
+            givenValue("key" + i % 10, "value" + i);
+        }
+        givenSynced();
+
+        whenCompacted(0.5);
+
+        thenSegmentsAreDeleted();
+        thenNoSegmentIsDirtyOnDeletion();
+
+        whenStoreIsReopened();
+
+        thenValueIs("live", "value");
+    }
+
+    @Test
+    public void shouldNotCompactBelowThreshold() throws IOException {
+        givenSegmentSize(1024);
+        givenStore();
+
+        for (int i = 0; i < 100; i++) {
+            givenValue("key" + i, "value" + i);
+        }
+
+        final int segmentCount = this.store.getSegmentCount();
+
+        whenCompacted(0.5);
+
+        thenSegmentCountIsAtLeast(segmentCount);
+    }
+
+    @Test
+    public void shouldSyncConcurrentWriters() throws Exception {
+        givenStore();
+
+        whenWritersSetAndSyncValues(8, 200);
+        whenStoreIsReopened();
+
+        thenSizeIs(8 * 200);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws IOException {
+        if (this.store != null) {
+            this.store.close();
+        }
+    }
+
+    private void givenSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    private void givenStore() throws IOException {
+        this.directory = this.temporaryFolder.getRoot().toPath().resolve("db");
+        this.store = new LogStore(this.directory, this.segmentSize);
+    }
+
+    private void givenValue(final String key, final String value) throws IOException {
+        whenValueIsSet(key, value);
+    }
+
+    private void givenDeleted(final String key) throws IOException {
+        this.store.delete(key);
+    }
+
+    private void givenSynced() throws IOException {
+        this.store.sync();
+    }
+
+    private void givenSegmentDeletionsAreTracked() {
+        this.store.setSegmentDeletionListener(
+                path -> this.dirtySegmentCountsOnDeletion.add(this.store.getDirtySegmentCount()));
+    }
+
+    private void givenStoreClosed() throws IOException {
+        this.store.close();
+    }
+
+    private void givenLastByteOfRecordCorrupted(final int recordIndex) throws IOException {
+        final Path segment = listSegments().get(0);
+
+        try (final RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int offset = 0;
+
+            for (int i = 0; i < recordIndex; i++) {
+                file.seek(offset);
+                offset += file.readInt();
+            }
+
+            file.seek(offset);
+            final int size = file.readInt();
+
+            file.seek(offset + size - 1L);
+            final int last = file.read();
+            file.seek(offset + size - 1L);
+            file.write(last ^ 0xff);
+        }
+    }
+
+    private void whenValueIsSet(final String key, final String value) throws IOException {
+        this.store.put(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void whenStoreIsReopened() throws IOException {
+        this.store.close();
+        this.store = new LogStore(this.directory, this.segmentSize);
+    }
+
+    private void whenCompacted(final double threshold) throws IOException {
+        this.store.compact(threshold);
+    }
+
+    private void whenWritersSetAndSyncValues(final int writers, final int count)
+            throws InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        final List<Future<?>> results = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < count; i++) {
+                    this.store.sync(this.store.put(writer + "-" + i, new byte[] { 1, 2, 3 }));
+                }
+                return null;
+            }));
+        }
+
+        for (final Future<?> result : results) {
+            result.get();
+        }
+
+        executor.shutdown();
+    }
+
+    private void thenValueIs(final String key, final String expected) throws IOException {
+        final byte[] value = this.store.get(key);
+
+        if (expected == null) {
+            assertNull(value);
+        } else {
+            assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), value);
+        }
+    }
+
+    private void thenValueLengthIs(final String key, final int expected) throws IOException {
+        assertEquals(expected, this.store.get(key).length);
+    }
+
+    private void thenSizeIs(final int expected) {
+        assertEquals(expected, this.store.size());
+    }
+
+    private void thenSegmentCountIsAtLeast(final int expected) {
+        assertTrue(this.store.getSegmentCount() >= expected);
+    }
+
+    private void thenSegmentCountIsLessThan(final int expected) {
+        assertTrue(this.store.getSegmentCount() < expected);
+    }
+
+    private void thenSegmentFileCountIs(final int expected) throws IOException {
+        assertEquals(expected, listSegments().size());
+    }
+
+    private void thenSegmentsAreDeleted() {
+        assertTrue(!this.dirtySegmentCountsOnDeletion.isEmpty());
+    }
+
+    private void thenNoSegmentIsDirtyOnDeletion() {
+        for (final int dirtySegmentCount : this.dirtySegmentCountsOnDeletion) {
+            assertEquals(0, dirtySegmentCount);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (final Stream<Path> files = Files.list(this.directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.driver.modbus;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.junit.After;
+import org.junit.Test;
+
+public class ModbusDriverTest {
+
+    private ModbusTcpSimulator simulator;
+    private ModbusDriver driver;
+    private final List<ChannelRecord> records = new ArrayList<>();
+    private final Map<String, Object> driverProperties = new HashMap<>();
+
+    @Test
+    public void shouldReadRegistersWithDifferentDataTypes() throws Exception {
+        givenSimulator();
+        givenHoldingRegisters(10, (short) -2, (short) 0x0001, (short) 0x0002, (short) 0x4048, (short) 0xF5C3);
+        givenDriver();
+        givenRegisterChannel("a", ModbusMemoryArea.HOLDING_REGISTERS, 10, ModbusDataType.INT16, DataType.INTEGER);
+        givenRegisterChannel("b", ModbusMemoryArea.HOLDING_REGISTERS, 11, ModbusDataType.UINT32, DataType.LONG);
+        givenRegisterChannel("c", ModbusMemoryArea.HOLDING_REGISTERS, 13, ModbusDataType.FLOAT, DataType.FLOAT);
+
+        whenChannelsAreRead();
+
+        thenChannelValueIs("a", TypedValues.newIntegerValue(-2));
+        thenChannelValueIs("b", TypedValues.newLongValue(0x00010002L));
+        thenChannelValueIs("c", TypedValues.newFloatValue(3.14f));
+        thenRequestCountIs(1);
+    }
+
+    @Test
+    public void shouldReadCoilsAndDiscreteInputs() throws Exception {
+        givenSimulator();
+        givenCoil(3, true);
+        givenDiscreteInput(9, true);
+        givenDriver();
+        givenBitChannel("coil3", ModbusMemoryArea.COILS, 3);
+        givenBitChannel("coil4", ModbusMemoryArea.COILS, 4);
+        givenBitChannel("input9", ModbusMemoryArea.DISCRETE_INPUTS, 9);
+
+        whenChannelsAreRead();
+
+        thenChannelValueIs("coil3", TypedValues.newBooleanValue(true));
+        thenChannelValueIs("coil4", TypedValues.newBooleanValue(false));
+        thenChannelValueIs("input9", TypedValues.newBooleanValue(true));
+        thenRequestCountIs(2);
+    }
+
+    @Test
+    public void shouldSplitLargeRangesIntoMultipleRequests() throws Exception {
+        givenSimulator();
+        givenDriver();
+        givenConsecutiveRegisterChannels(ModbusMemoryArea.INPUT_REGISTERS, 0, 300);
+
+        whenChannelsAreRead();
+
+        thenAllChannelsSucceeded();
+        thenRequestCountIs(3);
+    }
+
+    @Test
+    public void shouldPipelineRequests() throws Exception {
+        givenSimulator();
+        givenSimulatorLatency(5);
+        givenMaxOutstandingRequests(4);
+        givenDriver();
+        givenConsecutiveRegisterChannels(ModbusMemoryArea.HOLDING_REGISTERS, 0, 1000);
+
+        whenChannelsAreRead();
+
+        thenAllChannelsSucceeded();
+        thenRequestCountIs(8);
+        thenMaxInFlightIs(4);
+    }
+
+    @Test
+    public void shouldMatchOutOfOrderResponses() throws Exception {
+        givenSimulator();
+        givenSimulatorLatency(5);
+        givenSimulatorJitter();
+        givenMaxOutstandingRequests(16);
+        givenHoldingRegistersSequence(2000);
+        givenDriver();
+        givenConsecutiveRegisterChannels(ModbusMemoryArea.HOLDING_REGISTERS, 0, 2000);
+
+        whenChannelsAreRead();
+
+        thenAllChannelsSucceeded();
+        thenChannelValuesAreSequence();
+    }
+
+    @Test
+    public void shouldUsePreparedRead() throws Exception {
+        givenSimulator();
+        givenHoldingRegisters(0, (short) 5);
+        givenDriver();
+        givenRegisterChannel("a", ModbusMemoryArea.HOLDING_REGISTERS, 0, ModbusDataType.INT16, DataType.INTEGER);
+
+        whenPreparedReadIsExecuted(2);
+
+        thenChannelValueIs("a", TypedValues.newIntegerValue(5));
+        thenRequestCountIs(2);
+    }
+
+    @Test
+    public void shouldWriteRegistersAndCoils() throws Exception {
+        givenSimulator();
+        givenDriver();
+        givenRegisterChannel("a", ModbusMemoryArea.HOLDING_REGISTERS, 100, ModbusDataType.INT32, DataType.INTEGER);
+        givenBitChannel("coil", ModbusMemoryArea.COILS, 7);
+        givenChannelValue("a", TypedValues.newIntegerValue(0x12345678));
+        givenChannelValue("coil", TypedValues.newBooleanValue(true));
+
+        whenChannelsAreWritten();
+
+        thenAllChannelsSucceeded();
+        thenHoldingRegisterIs(100, (short) 0x1234);
+        thenHoldingRegisterIs(101, (short) 0x5678);
+        thenCoilIs(7, true);
+    }
+
+    @Test
+    public void shouldFailOnlyChannelsAffectedByExceptionResponse() throws Exception {
+        givenSimulator();
+        givenSimulatorFailingAddress(1);
+        givenDriver();
+        givenRegisterChannel("a", ModbusMemoryArea.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER);
+        givenRegisterChannel("b", ModbusMemoryArea.HOLDING_REGISTERS, 5, ModbusDataType.INT16, DataType.INTEGER);
+
+        whenChannelsAreRead();
+
+        thenChannelFlagIs("a", ChannelFlag.FAILURE);
+        thenChannelValueIs("b", TypedValues.newIntegerValue(0));
+        thenConnectionCountIs(1);
+    }
+
+    @Test
+    public void shouldReconnectAfterTimeout() throws Exception {
+        givenSimulator();
+        givenResponseTimeout(100);
+        givenSimulatorDroppingResponses();
+        givenDriver();
+        givenRegisterChannel("a", ModbusMemoryArea.HOLDING_REGISTERS, 0, ModbusDataType.INT16, DataType.INTEGER);
+        givenChannelsRead();
+        givenSimulatorNotDroppingResponses();
+
+        whenChannelsAreRead();
+
+        thenAllChannelsSucceeded();
+        thenConnectionCountIs(2);
+    }
+
+    @Test
+    public void shouldFailOnlyChannelsAffectedByTimeout() throws Exception {
+        givenSimulator();
+        givenResponseTimeout(200);
+        givenSimulatorDroppingAddress(130);
+        givenDriver();
+        givenConsecutiveRegisterChannels(ModbusMemoryArea.HOLDING_REGISTERS, 0, 300);
+
+        whenChannelsAreRead();
+
+        thenRequestCountIs(3);
+        thenChannelFlagsAre(0, 125, ChannelFlag.SUCCESS);
+        thenChannelFlagsAre(125, 250, ChannelFlag.FAILURE);
+        thenChannelFlagsAre(250, 300, ChannelFlag.SUCCESS);
+        thenConnectionCountIs(1);
+    }
+
+    @Test
+    public void shouldFailOnlyChannelsAffectedByTimeoutWithoutPipelining() throws Exception {
+        givenSimulator();
+        givenResponseTimeout(200);
+        givenMaxOutstandingRequests(1);
+        givenSimulatorDroppingAddress(0);
+        givenDriver();
+        givenConsecutiveRegisterChannels(ModbusMemoryArea.HOLDING_REGISTERS, 0, 300);
+
+        whenChannelsAreRead();
+
+        thenChannelFlagsAre(0, 125, ChannelFlag.FAILURE);
+        thenChannelFlagsAre(125, 300, ChannelFlag.SUCCESS);
+    }
+
+    @Test
+    public void shouldReconnectAfterRequestTimeout() throws Exception {
+        givenSimulator();
+        givenResponseTimeout(200);
+        givenSimulatorDroppingAddress(130);
+        givenDriver();
+        givenConsecutiveRegisterChannels(ModbusMemoryArea.HOLDING_REGISTERS, 0, 300);
+        givenChannelsRead();
+        givenSimulatorDroppingAddress(-1);
+
+        whenChannelsAreRead();
+
+        thenAllChannelsSucceeded();
+        thenConnectionCountIs(2);
+    }
+
+    @Test
+    public void shouldRejectWritesToReadOnlyAreas() throws Exception {
+        givenSimulator();
+        givenDriver();
+        givenBitChannel("input", ModbusMemoryArea.DISCRETE_INPUTS, 0);
+        givenChannelValue("input", TypedValues.newBooleanValue(true));
+
+        whenChannelsAreWritten();
+
+        thenChannelFlagIs("input", ChannelFlag.FAILURE);
+        thenRequestCountIs(0);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws Exception {
+        if (this.driver != null) {
+            this.driver.deactivate();
+        }
+        if (this.simulator != null) {
+            this.simulator.close();
+        }
+    }
+
+    private void givenSimulator() throws IOException {
+        this.simulator = new ModbusTcpSimulator();
+    }
+
+    private void givenSimulatorLatency(final long millis) {
+        this.simulator.setLatency(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void givenSimulatorJitter() {
+        this.simulator.setJitter(true);
+    }
+
+    private void givenSimulatorFailingAddress(final int address) {
+        this.simulator.setFailingAddress(address);
+    }
+
+    private void givenSimulatorDroppingResponses() {
+        this.simulator.setDropResponses(true);
+    }
+
+    private void givenSimulatorDroppingAddress(final int address) {
+        this.simulator.setDroppedAddress(address);
+    }
+
+    private void givenSimulatorNotDroppingResponses() {
+        this.simulator.setDropResponses(false);
+    }
+
+    private void givenHoldingRegisters(final int address, final short... values) {
+        System.arraycopy(values, 0, this.simulator.getHoldingRegisters(), address, values.length);
+    }
+
+    private void givenHoldingRegistersSequence(final int count) {
+        for (int i = 0; i < count; i++) {
+            this.simulator.getHoldingRegisters()[i] = (short) i;
+        }
+    }
+
+    private void givenCoil(final int address, final boolean value) {
+        this.simulator.getCoils()[address] = value;
+    }
+
+    private void givenDiscreteInput(final int address, final boolean value) {
+        this.simulator.getDiscreteInputs()[address] = value;
+    }
+
+    private void givenMaxOutstandingRequests(final int value) {
+        this.driverProperties.put("max.outstanding.requests", value);
+    }
+
+    private void givenResponseTimeout(final int value) {
+        this.driverProperties.put("response.timeout.ms", value);
+    }
+
+    private void givenDriver() {
+        this.driverProperties.put("host.ip", "127.0.0.1");
+        this.driverProperties.put("port", this.simulator.getPort());
+
+        this.driver = new ModbusDriver();
+        this.driver.activate(this.driverProperties);
+    }
+
+    private void givenRegisterChannel(final String name, final ModbusMemoryArea area, final int address,
+            final ModbusDataType modbusDataType, final DataType dataType) {
+        final Map<String, Object> config = channelConfig(area, address);
+        config.put(ModbusChannelDescriptor.DATA_TYPE_ID, modbusDataType.name());
+
+        final ChannelRecord record = ChannelRecord.createReadRecord(name, dataType);
+        record.setChannelConfig(config);
+
+        this.records.add(record);
+    }
+
+    private void givenBitChannel(final String name, final ModbusMemoryArea area, final int address) {
+        final ChannelRecord record = ChannelRecord.createReadRecord(name, DataType.BOOLEAN);
+        record.setChannelConfig(channelConfig(area, address));
+
+        this.records.add(record);
+    }
+
+    private void givenConsecutiveRegisterChannels(final ModbusMemoryArea area, final int address, final int count) {
+        for (int i = 0; i < count; i++) {
+            givenRegisterChannel("r" + (address + i), area, address + i, ModbusDataType.UINT16, DataType.INTEGER);
+        }
+    }
+
+    private void givenChannelValue(final String name, final TypedValue<?> value) {
+        getRecord(name).setValue(value);
+    }
+
+    private void givenChannelsRead() throws ConnectionException {
+        whenChannelsAreRead();
+    }
+
+    private void whenChannelsAreRead() throws ConnectionException {
+        this.driver.read(this.records);
+    }
+
+    private void whenChannelsAreWritten() throws ConnectionException {
+        this.driver.write(this.records);
+    }
+
+    private void whenPreparedReadIsExecuted(final int times) throws Exception {
+        try (final PreparedRead preparedRead = this.driver.prepareRead(this.records)) {
+            for (int i = 0; i < times; i++) {
+                preparedRead.execute();
+            }
+        }
+    }
+
+    private void thenChannelValueIs(final String name, final TypedValue<?> expected) {
+        final ChannelRecord record = getRecord(name);
+
+        assertEquals(ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+        assertEquals(expected, record.getValue());
+    }
+
+    private void thenChannelFlagIs(final String name, final ChannelFlag expected) {
+        assertEquals(expected, getRecord(name).getChannelStatus().getChannelFlag());
+    }
+
+    private void thenChannelFlagsAre(final int from, final int to, final ChannelFlag expected) {
+        for (int i = from; i < to; i++) {
+            thenChannelFlagIs("r" + i, expected);
+        }
+    }
+
+    private void thenAllChannelsSucceeded() {
+        for (final ChannelRecord record : this.records) {
+            assertEquals(record.getChannelName(), ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+        }
+    }
+
+    private void thenChannelValuesAreSequence() {
+        for (int i = 0; i < this.records.size(); i++) {
+            assertEquals(TypedValues.newIntegerValue(i), this.records.get(i).getValue());
+        }
+    }
+
+    private void thenRequestCountIs(final int expected) {
+        assertEquals(expected, this.simulator.getRequestCount());
+    }
+
+    private void thenMaxInFlightIs(final int expected) {
+        assertEquals(expected, this.simulator.getMaxInFlight());
+    }
+
+    private void thenConnectionCountIs(final int expected) {
+        assertEquals(expected, this.simulator.getConnectionCount());
+    }
+
+    private void thenHoldingRegisterIs(final int address, final short expected) {
+        assertEquals(expected, this.simulator.getHoldingRegisters()[address]);
+    }
+
+    private void thenCoilIs(final int address, final boolean expected) {
+        assertEquals(expected, this.simulator.getCoils()[address]);
+    }
+
+    private ChannelRecord getRecord(final String name) {
+        return this.records.stream().filter(r -> r.getChannelName().equals(name)).findAny()
+                .orElseThrow(() -> new IllegalStateException("channel not found: " + name));
+    }
+
+    private static Map<String, Object> channelConfig(final ModbusMemoryArea area, final int address) {
+        final Map<String, Object> config = new HashMap<>();
+
+        config.put(ModbusChannelDescriptor.UNIT_ID_ID, 1);
+        config.put(ModbusChannelDescriptor.MEMORY_AREA_ID, area.name());
+        config.put(ModbusChannelDescriptor.ADDRESS_ID, address);
+
+        return config;
+    }
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal Modbus TCP server that supports persistent connections and multiple outstanding requests. Each response
+ * can be delayed to simulate the latency of a real device, if jitter is enabled the delay is randomized and responses
+ * can be sent in a different order than the requests.
+ */
+final class ModbusTcpSimulator implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ScheduledExecutorService responseExecutor = Executors.newScheduledThreadPool(4);
+    private final CopyOnWriteArrayList<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final Random random = new Random(0);
+
+    private final short[] holdingRegisters = new short[65536];
+    private final short[] inputRegisters = new short[65536];
+    private final boolean[] coils = new boolean[65536];
+    private final boolean[] discreteInputs = new boolean[65536];
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private volatile long latencyMicros;
+    private volatile boolean jitter;
+    private volatile boolean dropResponses;
+    private volatile int failingAddress = -1;
+    private volatile int droppedAddress = -1;
+
+    ModbusTcpSimulator() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        final Thread acceptor = new Thread(this::accept, "ModbusTcpSimulator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    void setLatency(final long latency, final TimeUnit unit) {
+        this.latencyMicros = unit.toMicros(latency);
+    }
+
+    void setJitter(final boolean jitter) {
+        this.jitter = jitter;
+    }
+
+    void setDropResponses(final boolean dropResponses) {
+        this.dropResponses = dropResponses;
+    }
+
+    void setFailingAddress(final int failingAddress) {
+        this.failingAddress = failingAddress;
+    }
+
+    void setDroppedAddress(final int droppedAddress) {
+        this.droppedAddress = droppedAddress;
+    }
+
+    short[] getHoldingRegisters() {
+        return this.holdingRegisters;
+    }
+
+    short[] getInputRegisters() {
+        return this.inputRegisters;
+    }
+
+    boolean[] getCoils() {
+        return this.coils;
+    }
+
+    boolean[] getDiscreteInputs() {
+        return this.discreteInputs;
+    }
+
+    int getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    int getMaxInFlight() {
+        return this.maxInFlight.get();
+    }
+
+    int getConnectionCount() {
+        return this.connectionCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.responseExecutor.shutdownNow();
+        for (final Socket socket : this.sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+
+                this.sockets.add(socket);
+                this.connectionCount.incrementAndGet();
+
+                final Thread handler = new Thread(() -> handle(socket), "ModbusTcpSimulatorConnection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (final IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void handle(final Socket socket) {
+        try {
+            final DataInputStream in = new DataInputStream(socket.getInputStream());
+            final OutputStream out = socket.getOutputStream();
+
+            while (true) {
+                final byte[] header = new byte[7];
+                in.readFully(header);
+
+                final int length = (header[4] & 0xff) << 8 | header[5] & 0xff;
+                final byte[] pdu = new byte[length - 1];
+                in.readFully(pdu);
+
+                this.requestCount.incrementAndGet();
+                this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+
+                if (this.dropResponses || covers(pdu, this.droppedAddress)) {
+                    continue;
+                }
+
+                final byte[] response = buildFrame(header, process(pdu));
+                final long delay = this.jitter ? (long) (this.latencyMicros * (0.5 + this.random.nextDouble()))
+                        : this.latencyMicros;
+
+                if (delay == 0) {
+                    send(out, response);
+                } else {
+                    this.responseExecutor.schedule(() -> send(out, response), delay, TimeUnit.MICROSECONDS);
+                }
+            }
+        } catch (final EOFException | SocketException e) {
+            // connection closed
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            this.sockets.remove(socket);
+        }
+    }
+
+    private void send(final OutputStream out, final byte[] response) {
+        this.inFlight.decrementAndGet();
+        try {
+            synchronized (out) {
+                out.write(response);
+            }
+        } catch (final IOException e) {
+            // connection closed
+        }
+    }
+
+    private static byte[] buildFrame(final byte[] header, final byte[] pdu) {
+        final byte[] frame = new byte[7 + pdu.length];
+
+        System.arraycopy(header, 0, frame, 0, 4);
+        frame[4] = (byte) (pdu.length + 1 >> 8);
+        frame[5] = (byte) (pdu.length + 1);
+        frame[6] = header[6];
+        System.arraycopy(pdu, 0, frame, 7, pdu.length);
+
+        return frame;
+    }
+
+    private static boolean covers(final byte[] pdu, final int target) {
+        final int address = (pdu[1] & 0xff) << 8 | pdu[2] & 0xff;
+        final int count = (pdu[3] & 0xff) << 8 | pdu[4] & 0xff;
+
+        return target >= address && target < address + count;
+    }
+
+    private byte[] process(final byte[] pdu) {
+        final int functionCode = pdu[0] & 0xff;
+        final int address = (pdu[1] & 0xff) << 8 | pdu[2] & 0xff;
+        final int count = (pdu[3] & 0xff) << 8 | pdu[4] & 0xff;
+
+        if (covers(pdu, this.failingAddress)) {
+            return new byte[] { (byte) (functionCode | 0x80), 2 };
+        }
+
+        synchronized (this) {
+            switch (functionCode) {
+            case 1:
+                return readBits(functionCode, this.coils, address, count);
+            case 2:
+                return readBits(functionCode, this.discreteInputs, address, count);
+            case 3:
+                return readRegisters(functionCode, this.holdingRegisters, address, count);
+            case 4:
+                return readRegisters(functionCode, this.inputRegisters, address, count);
+            case 15:
+                for (int i = 0; i < count; i++) {
+                    this.coils[address + i] = (pdu[6 + i / 8] >> (i % 8) & 0x01) != 0;
+                }
+                return new byte[] { pdu[0], pdu[1], pdu[2], pdu[3], pdu[4] };
+            case 16:
+                for (int i = 0; i < count; i++) {
+                    this.holdingRegisters[address + i] = (short) ((pdu[6 + 2 * i] & 0xff) << 8
+                            | pdu[7 + 2 * i] & 0xff);
+                }
+                return new byte[] { pdu[0], pdu[1], pdu[2], pdu[3], pdu[4] };
+            default:
+                return new byte[] { (byte) (functionCode | 0x80), 1 };
+            }
+        }
+    }
+
+    private static byte[] readBits(final int functionCode, final boolean[] table, final int address,
+            final int count) {
+        final int byteCount = (count + 7) / 8;
+        final byte[] result = new byte[2 + byteCount];
+
+        result[0] = (byte) functionCode;
+        result[1] = (byte) byteCount;
+
+        for (int i = 0; i < count; i++) {
+            if (table[address + i]) {
+                result[2 + i / 8] |= 1 << (i % 8);
+            }
+        }
+
+        return result;
+    }
+
+    private static byte[] readRegisters(final int functionCode, final short[] table, final int address,
+            final int count) {
+        final byte[] result = new byte[2 + count * 2];
+
+        result[0] = (byte) functionCode;
+        result[1] = (byte) (count * 2);
+
+        for (int i = 0; i < count; i++) {
+            result[2 + 2 * i] = (byte) (table[address + i] >> 8);
+            result[3 + 2 * i] = (byte) table[address + i];
+        }
+
+        return result;
+    }
+}
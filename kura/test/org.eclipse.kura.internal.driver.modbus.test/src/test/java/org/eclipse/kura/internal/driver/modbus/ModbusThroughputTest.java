@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.driver.modbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolDevice;
+import org.eclipse.kura.protocol.modbus.ModbusTransmissionMode;
+import org.eclipse.kura.type.DataType;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the driver and the legacy {@link ModbusProtocolDevice} reading from a local simulator that adds a fixed
+ * latency to each response.
+ * <br>
+ * The wall clock comparison depends on the load of the machine, it only runs if the {@code kura.test.performance}
+ * system property is set to {@code true}.
+ */
+public class ModbusThroughputTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusThroughputTest.class);
+
+    private static final int REGISTER_COUNT = 1000;
+    private static final long MEASUREMENT_DURATION_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final String PERFORMANCE_TESTS_PROPERTY = "kura.test.performance";
+
+    private ModbusTcpSimulator simulator;
+    private ModbusDriver driver;
+    private ModbusProtocolDevice legacyDevice;
+
+    private double driverThroughput;
+    private double legacyThroughput;
+
+    @Test
+    public void shouldKeepOutstandingRequestsInFlight() throws Exception {
+        givenSimulatorWithLatency(50);
+        givenDriver(8);
+
+        whenDriverReadsAllRegisters();
+
+        thenSimulatorReceived(8, 8);
+    }
+
+    @Test
+    public void shouldSendRequestsOfLegacyDeviceOneAtATime() throws Exception {
+        givenSimulatorWithLatency(50);
+        givenLegacyDevice();
+
+        whenLegacyDeviceReadsAllRegisters();
+
+        thenSimulatorReceived(8, 1);
+    }
+
+    @Test
+    public void shouldReadMoreRegistersPerSecondThanLegacyDevice() throws Exception {
+        assumeTrue("Only run performance tests if " + PERFORMANCE_TESTS_PROPERTY + " is set",
+                Boolean.getBoolean(PERFORMANCE_TESTS_PROPERTY));
+
+        givenSimulatorWithLatency(1);
+        givenDriver(8);
+        givenLegacyDevice();
+
+        whenDriverThroughputIsMeasured();
+        whenLegacyThroughputIsMeasured();
+
+        thenDriverIsFasterThanLegacyDevice();
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws Exception {
+        if (this.driver != null) {
+            this.driver.deactivate();
+        }
+        if (this.legacyDevice != null) {
+            this.legacyDevice.disconnect();
+        }
+        if (this.simulator != null) {
+            this.simulator.close();
+        }
+    }
+
+    private void givenSimulatorWithLatency(final long millis) throws IOException {
+        this.simulator = new ModbusTcpSimulator();
+        this.simulator.setLatency(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void givenDriver(final int maxOutstandingRequests) {
+        final Map<String, Object> properties = new HashMap<>();
+
+        properties.put("host.ip", "127.0.0.1");
+        properties.put("port", this.simulator.getPort());
+        properties.put("max.outstanding.requests", maxOutstandingRequests);
+
+        this.driver = new ModbusDriver();
+        this.driver.activate(properties);
+    }
+
+    private void givenLegacyDevice() throws Exception {
+        final Properties properties = new Properties();
+
+        properties.setProperty("connectionType", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_ETHER_TCP);
+        properties.setProperty("transmissionMode", ModbusTransmissionMode.RTU);
+        properties.setProperty("respTimeout", "1000");
+        properties.setProperty("ipAddress", "127.0.0.1");
+        properties.setProperty("ethport", Integer.toString(this.simulator.getPort()));
+
+        this.legacyDevice = new ModbusProtocolDevice();
+        this.legacyDevice.configureConnection(properties);
+        this.legacyDevice.connect();
+    }
+
+    private void whenDriverReadsAllRegisters() throws Exception {
+        try (final PreparedRead preparedRead = this.driver.prepareRead(createReadRecords())) {
+            for (final ChannelRecord record : preparedRead.execute()) {
+                assertEquals(ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+            }
+        }
+    }
+
+    private void whenLegacyDeviceReadsAllRegisters() throws Exception {
+        for (int address = 0; address < REGISTER_COUNT; address += 125) {
+            final int count = Math.min(125, REGISTER_COUNT - address);
+            assertEquals(count, this.legacyDevice.readHoldingRegisters(1, address, count).length);
+        }
+    }
+
+    private void whenDriverThroughputIsMeasured() throws Exception {
+        long registers = 0;
+
+        try (final PreparedRead preparedRead = this.driver.prepareRead(createReadRecords())) {
+            final long start = System.nanoTime();
+
+            while (System.nanoTime() - start < MEASUREMENT_DURATION_NANOS) {
+                for (final ChannelRecord record : preparedRead.execute()) {
+                    assertEquals(ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+                }
+                registers += REGISTER_COUNT;
+            }
+
+            this.driverThroughput = registers * 1e9 / (System.nanoTime() - start);
+        }
+    }
+
+    private void whenLegacyThroughputIsMeasured() throws Exception {
+        long registers = 0;
+
+        final long start = System.nanoTime();
+
+        while (System.nanoTime() - start < MEASUREMENT_DURATION_NANOS) {
+            for (int address = 0; address < REGISTER_COUNT; address += 125) {
+                final int count = Math.min(125, REGISTER_COUNT - address);
+                registers += this.legacyDevice.readHoldingRegisters(1, address, count).length;
+            }
+        }
+
+        this.legacyThroughput = registers * 1e9 / (System.nanoTime() - start);
+    }
+
+    private void thenSimulatorReceived(final int requestCount, final int maxInFlight) {
+        assertEquals(requestCount, this.simulator.getRequestCount());
+        assertEquals(maxInFlight, this.simulator.getMaxInFlight());
+    }
+
+    private void thenDriverIsFasterThanLegacyDevice() {
+        logger.info("Modbus TCP throughput, driver: {} registers/s, legacy device: {} registers/s",
+                Math.round(this.driverThroughput), Math.round(this.legacyThroughput));
+
+        assertTrue(this.driverThroughput > this.legacyThroughput);
+    }
+
+    private static List<ChannelRecord> createReadRecords() {
+        final List<ChannelRecord> records = new ArrayList<>(REGISTER_COUNT);
+
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            final Map<String, Object> config = new HashMap<>();
+            config.put(ModbusChannelDescriptor.UNIT_ID_ID, 1);
+            config.put(ModbusChannelDescriptor.MEMORY_AREA_ID, ModbusMemoryArea.HOLDING_REGISTERS.name());
+            config.put(ModbusChannelDescriptor.ADDRESS_ID, i);
+            config.put(ModbusChannelDescriptor.DATA_TYPE_ID, ModbusDataType.UINT16.name());
+
+            final ChannelRecord record = ChannelRecord.createReadRecord("r" + i, DataType.INTEGER);
+            record.setChannelConfig(config);
+            records.add(record);
+        }
+
+        return records;
+    }
+}
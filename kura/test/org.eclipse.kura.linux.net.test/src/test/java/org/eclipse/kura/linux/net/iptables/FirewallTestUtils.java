@@ -15,6 +15,9 @@ package org.eclipse.kura.linux.net.iptables;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -51,11 +54,14 @@ public class FirewallTestUtils {
     protected static Command commandFlushForwardMangle;
     protected static Command commandIcmpAccept1;
     protected static Command commandIcmpAccept2;
-    protected static List<Command> commandApplyList;
-    protected static List<Command> testCommandList;
+    protected static Command commandSaveLoaded;
+    protected static Command commandRestoreNoFlushTmp;
+    protected static String loadedRules = "";
+    protected static List<String> restoreScripts;
 
     protected static void setUpMock() {
         executorServiceMock = mock(CommandExecutorService.class);
+        loadedRules = "";
         IptablesConfig iptablesConfig = new IptablesConfig();
         commandRestore = new Command(new String[] { "iptables-restore", iptablesConfig.getFirewallConfigFileName() });
         commandRestore.setExecuteInAShell(true);
@@ -137,161 +143,22 @@ public class FirewallTestUtils {
                         .split(" "));
         commandIcmpAccept2.setExecuteInAShell(true);
         when(executorServiceMock.execute(commandIcmpAccept2)).thenReturn(successStatus);
-        commandApplyList = new ArrayList<>();
-        commandApplyList.add(new Command("iptables -P INPUT DROP".split(" ")));
-        commandApplyList.add(new Command("iptables -P FORWARD DROP".split(" ")));
-        commandApplyList.add(new Command("iptables -N input-kura -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -N output-kura -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -N forward-kura -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -N forward-kura-pf -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -N forward-kura-ipf -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -N input-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N output-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N prerouting-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N prerouting-kura-pf -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N postrouting-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N postrouting-kura-pf -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N postrouting-kura-ipf -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -N input-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -N output-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -N prerouting-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -N postrouting-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -C INPUT -j input-kura -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -C OUTPUT -j output-kura -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -C FORWARD -j forward-kura -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -C forward-kura -j forward-kura-pf -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -C forward-kura -j forward-kura-ipf -t filter".split(" ")));
-        commandApplyList.add(new Command("iptables -C INPUT -j input-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C OUTPUT -j output-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C PREROUTING -j prerouting-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C prerouting-kura -j prerouting-kura-pf -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C POSTROUTING -j postrouting-kura -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C postrouting-kura -j postrouting-kura-pf -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C postrouting-kura -j postrouting-kura-ipf -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -C INPUT -j input-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -C OUTPUT -j output-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -C FORWARD -j forward-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -C PREROUTING -j prerouting-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -C POSTROUTING -j postrouting-kura -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -A input-kura -j RETURN".split(" ")));
-        commandApplyList.add(new Command("iptables -A output-kura -j RETURN".split(" ")));
-        commandApplyList.add(new Command("iptables -A forward-kura -j RETURN".split(" ")));
-        commandApplyList.add(new Command("iptables -A forward-kura-pf -j RETURN".split(" ")));
-        commandApplyList.add(new Command("iptables -A forward-kura-ipf -j RETURN".split(" ")));
-        commandApplyList.add(new Command("iptables -A input-kura -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A output-kura -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A prerouting-kura -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A prerouting-kura-pf -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A postrouting-kura -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A postrouting-kura-pf -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A postrouting-kura-ipf -j RETURN -t nat".split(" ")));
-        commandApplyList.add(new Command("iptables -A input-kura -j RETURN -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -A output-kura -j RETURN -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -A forward-kura -j RETURN -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -A prerouting-kura -j RETURN -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -A postrouting-kura -j RETURN -t mangle".split(" ")));
-        commandApplyList.add(new Command("iptables -A input-kura -i lo -j ACCEPT -t filter".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -A input-kura -m state --state RELATED,ESTABLISHED -j ACCEPT -t filter".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -A input-kura -p icmp -m icmp --icmp-type 8 -m state --state NEW,RELATED,ESTABLISHED -j DROP -t filter"
-                        .split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -A output-kura -p icmp -m icmp --icmp-type 0 -m state --state RELATED,ESTABLISHED -j DROP -t filter"
-                        .split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -m conntrack --ctstate INVALID -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp ! --syn -m conntrack --ctstate NEW -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp -m conntrack --ctstate NEW -m tcpmss ! --mss 536:65535 -j DROP"
-                        .split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp --tcp-flags FIN,SYN FIN,SYN -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp --tcp-flags SYN,RST SYN,RST -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp --tcp-flags FIN,RST FIN,RST -j DROP".split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -p tcp --tcp-flags FIN,ACK FIN -j DROP".split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ACK,URG URG -j DROP".split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ACK,FIN FIN -j DROP".split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ACK,PSH PSH -j DROP".split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ALL ALL -j DROP".split(" ")));
-        commandApplyList.add(
-                new Command("iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ALL NONE -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ALL FIN,PSH,URG -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ALL SYN,FIN,PSH,URG -j DROP".split(" ")));
-        commandApplyList.add(new Command(
-                "iptables -t mangle -A prerouting-kura -p tcp --tcp-flags ALL SYN,RST,ACK,FIN,URG -j DROP".split(" ")));
-        commandApplyList.add(new Command("iptables -t mangle -A prerouting-kura -p icmp -j DROP".split(" ")));
-        commandApplyList.add(new Command("iptables -t mangle -A prerouting-kura -f -j DROP".split(" ")));
-        commandApplyList.add(new Command("iptables -t filter -A input-kura -p tcp -f -j DROP".split(" ")));
-        commandApplyList.add(new Command("iptables -t nat -A prerouting-kura -p tcp -f -j DROP".split(" ")));
-        commandApplyList.stream().forEach(c -> c.setExecuteInAShell(true));
-        commandApplyList.stream().forEach(c -> when(executorServiceMock.execute(c)).thenReturn(successStatus));
-
-        testCommandList = new ArrayList<>();
-        testCommandList.add(new Command("iptables -t nat -A postrouting-kura -o eth1 -j MASQUERADE".split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A input-kura -p tcp -s 0.0.0.0/0 -i eth0 -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100:10200 --dport 5400 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A input-kura -p tcp -s 0.0.0.0/0 -i eth0 -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100 --dport 5400 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura -i eth1 -o eth0 -m state --state RELATED,ESTABLISHED -j ACCEPT".split(" ")));
-        testCommandList.add(new Command("iptables -A forward-kura -i eth0 -o eth1 -j ACCEPT".split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-ipf -s 172.16.0.100/32 -d 172.16.0.1/32 -i eth0 -o eth1 -p tcp -m tcp -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100:10200 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-ipf -s 172.16.0.100/32 -d 172.16.0.1/32 -i eth0 -o eth1 -p tcp -m tcp -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100:10100 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-pf -s 172.16.0.100/32 -d 172.16.0.1/32 -i eth0 -o eth1 -p tcp -m tcp -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100:10200 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-pf -s 172.16.0.100/32 -d 172.16.0.1/32 -i eth0 -o eth1 -p tcp -m tcp -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100:10100 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-pf -s 172.16.0.1/32 -i eth1 -o eth0 -p tcp -m state --state RELATED,ESTABLISHED -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-ipf -s 172.16.0.1/32 -i eth1 -o eth0 -p tcp -m state --state RELATED,ESTABLISHED -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -t nat -A prerouting-kura-pf -s 172.16.0.100/32 -i eth0 -p tcp -m mac --mac-source 00:11:22:33:44:55:66 -m tcp --sport 10100:10200 --dport 3040 -j DNAT --to-destination 172.16.0.1:4050"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -t nat -A prerouting-kura-pf -s 172.16.0.100/32 -i eth0 -p tcp -m mac --mac-source 00:11:22:33:44:55:66 -m tcp --sport 10100:10100 --dport 3040 -j DNAT --to-destination 172.16.0.1:4050"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -t nat -A postrouting-kura-pf -s 172.16.0.100/32 -d 172.16.0.1/32 -o eth1 -p tcp -j MASQUERADE"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-ipf -s 172.16.0.1/32 -d 172.16.0.2/32 -i eth0 -o eth1 -p tcp -m tcp -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A forward-kura-ipf -s 172.16.0.2/32 -i eth1 -o eth0 -p tcp -m state --state RELATED,ESTABLISHED -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -t nat -A postrouting-kura-ipf -s 172.16.0.1/32 -d 172.16.0.2/32 -o eth1 -p tcp -j MASQUERADE"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A input-kura -p tcp -s 0.0.0.0/0 -i eth0 -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100:10200 --dport 5400 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.add(new Command(
-                "iptables -A input-kura -p tcp -s 0.0.0.0/0 -i eth0 -m mac --mac-source 00:11:22:33:44:55:66 --sport 10100 --dport 5400 -j ACCEPT"
-                        .split(" ")));
-        testCommandList.stream().forEach(c -> c.setExecuteInAShell(true));
-        testCommandList.stream().forEach(c -> when(executorServiceMock.execute(c)).thenReturn(successStatus));
+        commandSaveLoaded = new Command(new String[] { "iptables-save" });
+        commandSaveLoaded.setExecuteInAShell(true);
+        when(executorServiceMock.execute(commandSaveLoaded)).thenAnswer(invocation -> {
+            Command command = invocation.getArgument(0);
+            command.getOutputStream().write(loadedRules.getBytes(StandardCharsets.UTF_8));
+            return successStatus;
+        });
+        commandRestoreNoFlushTmp = new Command(
+                new String[] { "iptables-restore", "--noflush", iptablesConfig.getFirewallConfigTmpFileName() });
+        commandRestoreNoFlushTmp.setExecuteInAShell(true);
+        restoreScripts = new ArrayList<>();
+        when(executorServiceMock.execute(commandRestoreNoFlushTmp)).thenAnswer(invocation -> {
+            restoreScripts.add(new String(Files.readAllBytes(Paths.get(iptablesConfig.getFirewallConfigTmpFileName())),
+                    StandardCharsets.UTF_8));
+            return successStatus;
+        });
     }
 
     protected static final String IPTABLES_FILE_CONTENT = "*filter\n"
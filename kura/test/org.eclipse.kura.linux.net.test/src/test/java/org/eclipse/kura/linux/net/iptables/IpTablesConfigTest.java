@@ -14,7 +14,7 @@ package org.eclipse.kura.linux.net.iptables;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -33,7 +33,6 @@ import java.util.stream.Stream;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.KuraIOException;
-import org.eclipse.kura.executor.Command;
 import org.eclipse.kura.net.IP4Address;
 import org.eclipse.kura.net.IPAddress;
 import org.eclipse.kura.net.NetworkPair;
@@ -232,10 +231,49 @@ public class IpTablesConfigTest extends FirewallTestUtils {
         iptablesConfig.setAdditionalMangleRules(mangleRules);
         iptablesConfig.applyRules();
 
-        for (Command c : commandApplyList) {
-            System.out.println(c);
-            verify(executorServiceMock, atLeast(1)).execute(c);
-        }
+        verify(executorServiceMock, times(1)).execute(commandRestoreNoFlushTmp);
+        assertEquals(1, restoreScripts.size());
+        String script = restoreScripts.get(0);
+        assertTrue(script.contains("*filter\n:INPUT DROP [0:0]\n:FORWARD DROP [0:0]\n:OUTPUT ACCEPT [0:0]\n"));
+        assertTrue(script.contains(":input-kura - [0:0]\n"));
+        assertTrue(script.contains("-I INPUT -j input-kura\n"));
+        assertTrue(script.contains("-A input-kura -i lo -j ACCEPT\n"));
+        assertTrue(script.contains("-A input-kura -p tcp -f -j DROP\n-A input-kura -j RETURN\n"));
+        assertTrue(script.contains("-A forward-kura -j forward-kura-ipf\n-A forward-kura -j forward-kura-pf\n"));
+        assertTrue(script.contains("-A prerouting-kura -p tcp -f -j DROP\n"));
+        assertTrue(script.contains("-A prerouting-kura -f -j DROP\n"));
+        assertTrue(iptablesConfig.getLastApplyDuration() >= 0);
+    }
+
+    @Test
+    public void applyRulesShouldNotRestoreIfRulesAreLoaded() {
+        setUpMock();
+
+        IptablesConfig iptablesConfig = new IptablesConfig(executorServiceMock);
+        loadedRules = iptablesConfig.getKuraRuleset().toString();
+        iptablesConfig.applyRules();
+
+        verify(executorServiceMock, times(1)).execute(commandSaveLoaded);
+        verify(executorServiceMock, never()).execute(commandRestoreNoFlushTmp);
+    }
+
+    @Test
+    public void applyRulesShouldOnlyReplaceChangedChains() {
+        setUpMock();
+
+        IptablesConfig iptablesConfig = new IptablesConfig(executorServiceMock);
+        loadedRules = iptablesConfig.getKuraRuleset().toString();
+        iptablesConfig.setAdditionalNatRules(
+                new LinkedHashSet<>(Arrays.asList("-A postrouting-kura -o eth1 -j MASQUERADE")));
+        iptablesConfig.applyRules();
+
+        assertEquals(Arrays.asList("*nat\n" //
+                + ":postrouting-kura - [0:0]\n" //
+                + "-A postrouting-kura -j postrouting-kura-ipf\n" //
+                + "-A postrouting-kura -j postrouting-kura-pf\n" //
+                + "-A postrouting-kura -o eth1 -j MASQUERADE\n" //
+                + "-A postrouting-kura -j RETURN\n" //
+                + "COMMIT\n"), restoreScripts);
     }
 
     @Test
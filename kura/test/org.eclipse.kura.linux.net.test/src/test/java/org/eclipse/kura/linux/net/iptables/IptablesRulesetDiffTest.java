@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.linux.net.iptables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class IptablesRulesetDiffTest {
+
+    private static final String DESIRED = "*filter\n" //
+            + ":INPUT DROP [0:0]\n" //
+            + ":input-kura - [0:0]\n" //
+            + ":forward-kura - [0:0]\n" //
+            + ":forward-kura-pf - [0:0]\n" //
+            + "-I INPUT -j input-kura\n" //
+            + "-I forward-kura -j forward-kura-pf\n" //
+            + "-A input-kura -i lo -j ACCEPT\n" //
+            + "-A input-kura -p tcp -m tcp --dport 22 -j ACCEPT\n" //
+            + "-A input-kura -j RETURN\n" //
+            + "-A forward-kura -j RETURN\n" //
+            + "-A forward-kura-pf -j RETURN\n" //
+            + "COMMIT\n" //
+            + "*nat\n" //
+            + ":POSTROUTING ACCEPT [0:0]\n" //
+            + ":postrouting-kura - [0:0]\n" //
+            + "-I POSTROUTING -j postrouting-kura\n" //
+            + "-A postrouting-kura -o eth1 -j MASQUERADE\n" //
+            + "-A postrouting-kura -j RETURN\n" //
+            + "COMMIT\n";
+
+    private static final String LOADED = "# Generated by iptables-save v1.8.7\n" //
+            + "*filter\n" //
+            + ":INPUT DROP [120:4512]\n" //
+            + ":FORWARD ACCEPT [0:0]\n" //
+            + ":OUTPUT ACCEPT [97:8812]\n" //
+            + ":DOCKER - [0:0]\n" //
+            + ":input-kura - [0:0]\n" //
+            + ":forward-kura - [0:0]\n" //
+            + ":forward-kura-pf - [0:0]\n" //
+            + "-A INPUT -s 10.0.0.1/32 -j ACCEPT\n" //
+            + "-A INPUT -j input-kura\n" //
+            + "-A FORWARD -j DOCKER\n" //
+            + "-A forward-kura -j forward-kura-pf\n" //
+            + "-A forward-kura -j RETURN\n" //
+            + "-A forward-kura-pf -j RETURN\n" //
+            + "-A input-kura -i lo -j ACCEPT\n" //
+            + "-A input-kura -p tcp -m tcp --dport 22 -j ACCEPT\n" //
+            + "-A input-kura -j RETURN\n" //
+            + "COMMIT\n" //
+            + "# Completed\n" //
+            + "*nat\n" //
+            + ":PREROUTING ACCEPT [0:0]\n" //
+            + ":POSTROUTING ACCEPT [3:180]\n" //
+            + ":postrouting-kura - [0:0]\n" //
+            + "-A POSTROUTING -j postrouting-kura\n" //
+            + "-A postrouting-kura -o eth1 -j MASQUERADE\n" //
+            + "-A postrouting-kura -j RETURN\n" //
+            + "COMMIT\n";
+
+    private IptablesRuleset desired;
+    private IptablesRuleset loaded;
+    private IptablesRuleset lastApplied = new IptablesRuleset();
+    private IptablesRuleset lastLoaded = new IptablesRuleset();
+    private IptablesRulesetDiff diff;
+
+    @Test
+    public void shouldParseIptablesSaveOutput() {
+        givenLoadedRuleset(LOADED);
+
+        thenLoadedTablesAre("filter", "nat");
+        thenLoadedPolicyIs("filter", "INPUT", "DROP");
+        thenLoadedPolicyIs("filter", "DOCKER", "-");
+        thenLoadedRulesAre("filter", "INPUT", "-A INPUT -s 10.0.0.1/32 -j ACCEPT", "-A INPUT -j input-kura");
+        thenLoadedRulesAre("nat", "postrouting-kura", "-A postrouting-kura -o eth1 -j MASQUERADE",
+                "-A postrouting-kura -j RETURN");
+    }
+
+    @Test
+    public void shouldPlaceInsertedRulesAtTheBeginningOfTheChain() {
+        givenDesiredRuleset("*filter\n-A forward-kura -j RETURN\n-I forward-kura -j forward-kura-pf\n"
+                + "-I forward-kura -j forward-kura-ipf\nCOMMIT\n");
+
+        thenDesiredRulesAre("filter", "forward-kura", "-A forward-kura -j forward-kura-ipf",
+                "-A forward-kura -j forward-kura-pf", "-A forward-kura -j RETURN");
+    }
+
+    @Test
+    public void shouldPrintRulesetInIptablesSaveFormat() {
+        givenDesiredRuleset("*nat\n:POSTROUTING ACCEPT [3:180]\n-I POSTROUTING -j postrouting-kura\n"
+                + ":postrouting-kura - [0:0]\n-A postrouting-kura -j RETURN\nCOMMIT\n");
+
+        thenDesiredRulesetTextIs("*nat\n" //
+                + ":POSTROUTING ACCEPT [0:0]\n" //
+                + ":postrouting-kura - [0:0]\n" //
+                + "-A POSTROUTING -j postrouting-kura\n" //
+                + "-A postrouting-kura -j RETURN\n" //
+                + "COMMIT\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedRules() {
+        givenDesiredRuleset("*filter\n-D input-kura -j RETURN\nCOMMIT\n");
+    }
+
+    @Test
+    public void shouldCreateEverythingWhenNothingIsLoaded() {
+        givenDesiredRuleset(DESIRED);
+        givenLoadedRuleset("");
+
+        whenDiffIsComputed();
+
+        thenChangedChainsAre("filter", "input-kura", "forward-kura", "forward-kura-pf");
+        thenChangedChainsAre("nat", "postrouting-kura");
+        thenChangedPoliciesAre("filter", "INPUT");
+        thenChangedPoliciesAre("nat", "POSTROUTING");
+        thenRestoreScriptIs("*filter\n" //
+                + ":INPUT DROP [0:0]\n" //
+                + ":input-kura - [0:0]\n" //
+                + ":forward-kura - [0:0]\n" //
+                + ":forward-kura-pf - [0:0]\n" //
+                + "-I INPUT -j input-kura\n" //
+                + "-A input-kura -i lo -j ACCEPT\n" //
+                + "-A input-kura -p tcp -m tcp --dport 22 -j ACCEPT\n" //
+                + "-A input-kura -j RETURN\n" //
+                + "-A forward-kura -j forward-kura-pf\n" //
+                + "-A forward-kura -j RETURN\n" //
+                + "-A forward-kura-pf -j RETURN\n" //
+                + "COMMIT\n" //
+                + "*nat\n" //
+                + ":POSTROUTING ACCEPT [0:0]\n" //
+                + ":postrouting-kura - [0:0]\n" //
+                + "-I POSTROUTING -j postrouting-kura\n" //
+                + "-A postrouting-kura -o eth1 -j MASQUERADE\n" //
+                + "-A postrouting-kura -j RETURN\n" //
+                + "COMMIT\n");
+    }
+
+    @Test
+    public void shouldReportNoChangesWhenDesiredRulesetIsLoaded() {
+        givenDesiredRuleset(DESIRED);
+        givenLoadedRuleset(LOADED);
+
+        whenDiffIsComputed();
+
+        thenDiffIsEmpty();
+        thenRestoreScriptIs("");
+    }
+
+    @Test
+    public void shouldReplaceOnlyTheChangedChain() {
+        givenDesiredRuleset(DESIRED);
+        givenLoadedRuleset(LOADED.replace("--dport 22", "--dport 23"));
+
+        whenDiffIsComputed();
+
+        thenChangedChainCountIs(1);
+        thenRestoreScriptIs("*filter\n" //
+                + ":input-kura - [0:0]\n" //
+                + "-A input-kura -i lo -j ACCEPT\n" //
+                + "-A input-kura -p tcp -m tcp --dport 22 -j ACCEPT\n" //
+                + "-A input-kura -j RETURN\n" //
+                + "COMMIT\n");
+    }
+
+    @Test
+    public void shouldUpdatePolicyWithoutFlushingBuiltInChain() {
+        givenDesiredRuleset(DESIRED);
+        givenLoadedRuleset(LOADED.replace(":INPUT DROP [120:4512]", ":INPUT ACCEPT [120:4512]"));
+
+        whenDiffIsComputed();
+
+        thenChangedPoliciesAre("filter", "INPUT");
+        thenRestoreScriptIs("*filter\n:INPUT DROP [0:0]\nCOMMIT\n");
+    }
+
+    @Test
+    public void shouldInsertOnlyMissingJumps() {
+        givenDesiredRuleset(DESIRED);
+        givenLoadedRuleset(LOADED.replace("-A POSTROUTING -j postrouting-kura\n", ""));
+
+        whenDiffIsComputed();
+
+        thenChangedChainCountIs(1);
+        thenRestoreScriptIs("*nat\n-I POSTROUTING -j postrouting-kura\nCOMMIT\n");
+    }
+
+    @Test
+    public void shouldConsiderChainRewrittenByIptablesUpToDate() {
+        givenDesiredRuleset(DESIRED.replace("-m tcp --dport 22", "--dport 22"));
+        givenLastApply(DESIRED.replace("-m tcp --dport 22", "--dport 22"), LOADED);
+        givenLoadedRuleset(LOADED);
+
+        whenDiffIsComputed();
+
+        thenDiffIsEmpty();
+    }
+
+    @Test
+    public void shouldReplaceChainRewrittenByIptablesIfModifiedAfterLastApply() {
+        givenDesiredRuleset(DESIRED.replace("-m tcp --dport 22", "--dport 22"));
+        givenLastApply(DESIRED.replace("-m tcp --dport 22", "--dport 22"), LOADED);
+        givenLoadedRuleset(LOADED.replace("-A input-kura -i lo -j ACCEPT\n", ""));
+
+        whenDiffIsComputed();
+
+        thenChangedChainsAre("filter", "input-kura");
+        thenChangedChainCountIs(1);
+    }
+
+    @Test
+    public void shouldReplaceChainRewrittenByIptablesIfDesiredRulesChanged() {
+        givenDesiredRuleset(DESIRED.replace("-m tcp --dport 22", "--dport 2222"));
+        givenLastApply(DESIRED.replace("-m tcp --dport 22", "--dport 22"), LOADED);
+        givenLoadedRuleset(LOADED);
+
+        whenDiffIsComputed();
+
+        thenChangedChainsAre("filter", "input-kura");
+        thenChangedChainCountIs(1);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenDesiredRuleset(final String content) {
+        this.desired = IptablesRuleset.parse(content);
+    }
+
+    private void givenLoadedRuleset(final String content) {
+        this.loaded = IptablesRuleset.parse(content);
+    }
+
+    private void givenLastApply(final String applied, final String loadedAfterApply) {
+        this.lastApplied = IptablesRuleset.parse(applied);
+        this.lastLoaded = IptablesRuleset.parse(loadedAfterApply);
+    }
+
+    private void whenDiffIsComputed() {
+        this.diff = new IptablesRulesetDiff(this.desired, this.loaded, this.lastApplied, this.lastLoaded);
+    }
+
+    private void thenLoadedTablesAre(final String... tables) {
+        assertEquals(new LinkedHashSet<>(Arrays.asList(tables)), this.loaded.getTables());
+    }
+
+    private void thenLoadedPolicyIs(final String table, final String chain, final String policy) {
+        assertEquals(Optional.of(policy), this.loaded.getPolicy(table, chain));
+    }
+
+    private void thenLoadedRulesAre(final String table, final String chain, final String... rules) {
+        assertEquals(Arrays.asList(rules), this.loaded.getRules(table, chain));
+    }
+
+    private void thenDesiredRulesAre(final String table, final String chain, final String... rules) {
+        assertEquals(Arrays.asList(rules), this.desired.getRules(table, chain));
+    }
+
+    private void thenDesiredRulesetTextIs(final String expected) {
+        assertEquals(expected, this.desired.toString());
+    }
+
+    private void thenChangedChainsAre(final String table, final String... chains) {
+        assertEquals(new LinkedHashSet<>(Arrays.asList(chains)),
+                this.diff.getChangedChains().getOrDefault(table, Collections.emptySet()));
+    }
+
+    private void thenChangedPoliciesAre(final String table, final String... chains) {
+        assertEquals(new LinkedHashSet<>(Arrays.asList(chains)),
+                this.diff.getChangedPolicies().getOrDefault(table, Collections.emptySet()));
+    }
+
+    private void thenChangedChainCountIs(final int expected) {
+        assertFalse(this.diff.isEmpty());
+        assertEquals(expected, this.diff.getChangedChainCount());
+    }
+
+    private void thenDiffIsEmpty() {
+        assertTrue(this.diff.isEmpty());
+        assertEquals(0, this.diff.getChangedChainCount());
+    }
+
+    private void thenRestoreScriptIs(final String expected) {
+        assertEquals(expected, this.diff.getRestoreScript());
+    }
+}
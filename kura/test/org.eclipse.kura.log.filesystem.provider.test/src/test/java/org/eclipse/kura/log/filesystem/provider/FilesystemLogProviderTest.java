@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2021, 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2021, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -12,16 +12,23 @@
  ******************************************************************************/
 package org.eclipse.kura.log.filesystem.provider;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +36,7 @@ import java.util.Map;
 import org.eclipse.kura.log.LogEntry;
 import org.eclipse.kura.log.listener.LogListener;
 
+import org.junit.After;
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
 
@@ -42,6 +50,7 @@ public class FilesystemLogProviderTest {
     private boolean exceptionOccured = false;
     private FilesystemLogProvider logProvider;
     private List<LogListener> listeners;
+    private final List<LogEntry> receivedEntries = Collections.synchronizedList(new ArrayList<>());
 
     /*
      * Scenarios
@@ -135,10 +144,99 @@ public class FilesystemLogProviderTest {
         thenListenersAreNotCalled();
     }
 
+    @Test
+    public void shouldDecodeMultiByteCharactersInLongLines() {
+        givenFile("kuratest");
+        givenPropertiesWithLogFilePath();
+        givenFilesystemLogProvider();
+        givenRecordingLogListener();
+
+        whenRegisteringLogListeners();
+        whenActivate();
+        whenLineIsAppendedToFile(repeat("2021 \u00e8\u00e9\u20ac ", 20000));
+
+        thenEntriesAreReceived(this.nLogLines);
+        thenLastMessageIs(repeat("2021 \u00e8\u00e9\u20ac ", 20000));
+    }
+
+    @Test
+    public void shouldGroupStacktraceLines() {
+        givenFile("kuratest");
+        givenPropertiesWithLogFilePath();
+        givenFilesystemLogProvider();
+        givenRecordingLogListener();
+
+        whenRegisteringLogListeners();
+        whenActivate();
+
+        thenEntriesAreReceived(this.nLogLines);
+        thenStacktraceOfEntryIs(4, "exception on line05\nexception on line05\nexception on line05");
+    }
+
+    @Test
+    public void shouldFollowRotatedFile() {
+        givenFile("kuratest");
+        givenPropertiesWithLogFilePath();
+        givenFilesystemLogProvider();
+        givenRecordingLogListener();
+
+        whenRegisteringLogListeners();
+        whenActivate();
+        thenEntriesAreReceived(this.nLogLines);
+        whenFileIsRotated();
+        whenLineIsAppendedToFile("2021 after rotation");
+
+        thenEntriesAreReceived(this.nLogLines);
+        thenLastMessageIs("2021 after rotation");
+    }
+
+    @Test
+    public void shouldGroupStacktraceLinesWrittenSeparately() {
+        givenFile("kuratest");
+        givenPropertiesWithLogFilePath();
+        givenFilesystemLogProvider();
+        givenRecordingLogListener();
+
+        whenRegisteringLogListeners();
+        whenActivate();
+        thenEntriesAreReceived(this.nLogLines);
+        whenTextIsAppendedToFile("2021 failure\n\tat foo\n");
+        whenTextIsAppendedToFile("\tat bar\n");
+        whenTextIsAppendedToFile("Caused by: baz\n2021 next\n");
+
+        thenEntriesAreReceived(this.nLogLines + 2);
+        thenMessageOfEntryIs(this.nLogLines, "2021 failure");
+        thenStacktraceOfEntryIs(this.nLogLines, "at foo\n\tat bar\nCaused by: baz");
+        thenLastMessageIs("2021 next");
+    }
+
+    @Test
+    public void shouldDeliverAllLinesWrittenInChunks() {
+        givenFile("kuratest");
+        givenPropertiesWithLogFilePath();
+        givenFilesystemLogProvider();
+        givenRecordingLogListener();
+
+        whenRegisteringLogListeners();
+        whenActivate();
+        thenEntriesAreReceived(this.nLogLines);
+        whenLinesAreAppendedInChunks(20000, 1000);
+
+        thenEntriesAreReceived(this.nLogLines);
+        thenLinesAreReceivedInOrder(this.nLogLines - 20000, 20000);
+    }
+
     /*
      * Steps
      */
 
+    @After
+    public void cleanUp() {
+        if (this.logProvider != null) {
+            this.logProvider.deactivate();
+        }
+    }
+
     /*
      * Given
      */
@@ -190,6 +288,10 @@ public class FilesystemLogProviderTest {
         }
     }
 
+    private void givenRecordingLogListener() {
+        this.listeners = Collections.singletonList(this.receivedEntries::add);
+    }
+
     private void givenFileBecomesNotReadable() {
         this.file.setReadable(false);
         this.file.setWritable(false);
@@ -240,6 +342,58 @@ public class FilesystemLogProviderTest {
         }
     }
 
+    private void whenLineIsAppendedToFile(String line) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(this.file, true), StandardCharsets.UTF_8)) {
+            writer.write(line + "\n");
+            this.nLogLines++;
+        } catch (IOException e) {
+            this.exceptionOccured = true;
+        }
+    }
+
+    private void whenFileIsRotated() {
+        File rotated = new File(this.file.getAbsolutePath() + ".1");
+        rotated.deleteOnExit();
+
+        assertTrue(this.file.renameTo(rotated));
+    }
+
+    private void whenTextIsAppendedToFile(String text) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(this.file, true), StandardCharsets.UTF_8)) {
+            writer.write(text);
+        } catch (IOException e) {
+            this.exceptionOccured = true;
+        }
+
+        try {
+            // shorter than the time the provider waits for the rest of a stacktrace
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void whenLinesAreAppendedInChunks(int nLines, int linesPerWrite) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(this.file, true), StandardCharsets.UTF_8)) {
+            StringBuilder chunk = new StringBuilder();
+
+            for (int i = 0; i < nLines; i++) {
+                chunk.append("2021 - line ").append(i).append('\n');
+
+                if ((i + 1) % linesPerWrite == 0) {
+                    writer.write(chunk.toString());
+                    writer.flush();
+                    chunk.setLength(0);
+                }
+            }
+
+            writer.write(chunk.toString());
+            this.nLogLines += nLines;
+        } catch (IOException e) {
+            this.exceptionOccured = true;
+        }
+    }
+
     private void whenUnregisteringLogListeners() {
         for (LogListener listener : this.listeners) {
             verify(listener, timeout(LISTENER_CALL_TIMEOUT).times(this.nLogLines))
@@ -265,6 +419,49 @@ public class FilesystemLogProviderTest {
         }
     }
 
+    private void thenEntriesAreReceived(int count) {
+        final long deadline = System.currentTimeMillis() + 30000;
+
+        while (this.receivedEntries.size() < count && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        assertEquals(count, this.receivedEntries.size());
+    }
+
+    private void thenLastMessageIs(String message) {
+        assertEquals(message, this.receivedEntries.get(this.receivedEntries.size() - 1).getProperties().get("MESSAGE"));
+    }
+
+    private void thenMessageOfEntryIs(int index, String message) {
+        assertEquals(message, this.receivedEntries.get(index).getProperties().get("MESSAGE"));
+    }
+
+    private void thenLinesAreReceivedInOrder(int firstIndex, int nLines) {
+        for (int i = 0; i < nLines; i++) {
+            thenMessageOfEntryIs(firstIndex + i, "2021 - line " + i);
+        }
+    }
+
+    private void thenStacktraceOfEntryIs(int index, String stacktrace) {
+        assertEquals(stacktrace, this.receivedEntries.get(index).getProperties().get("STACKTRACE"));
+    }
+
+    private static String repeat(String value, int times) {
+        StringBuilder result = new StringBuilder();
+
+        for (int i = 0; i < times; i++) {
+            result.append(value);
+        }
+
+        return result.toString();
+    }
+
     private void thenNoExceptionsOccurred() {
         assertFalse(this.exceptionOccured);
     }
@@ -19,13 +19,18 @@ import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.eclipse.kura.KuraStoreException;
 import org.eclipse.kura.configuration.ConfigurationService;
@@ -276,6 +281,122 @@ public class MessageStoreProviderTest {
         thenNextMessageDataTransportTokenIsNotSet();
     }
 
+    @Test
+    public void shouldReturnNextMessagesInPublishOrder() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("2", byteArray(2, 2, 3, 4), 2, false, 2);
+        givenStoredMessage("3", byteArray(3, 2, 3, 4), 0, true, 2);
+        givenStoredMessage("4", byteArray(4, 2, 3, 4), 1, false, 1);
+        givenStoredMessage("5", byteArray(5, 2, 3, 4), 1, true, 3);
+
+        whenMessageIsMarkedAsPublished(3);
+        whenNextMessagesAreRetrieved(10);
+
+        thenRetrievedMessageTopicsAre("2", "3", "5", "1");
+        thenRetrievedMessagePayloadIs(0, byteArray(2, 2, 3, 4));
+    }
+
+    @Test
+    public void shouldLimitNextMessages() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("2", byteArray(2, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("3", byteArray(3, 2, 3, 4), 1, true, 7);
+
+        whenNextMessagesAreRetrieved(2);
+
+        thenRetrievedMessageTopicsAre("1", "2");
+    }
+
+    @Test
+    public void shouldReturnNextMessagesInPriorityRange() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("2", byteArray(2, 2, 3, 4), 2, false, 4);
+        givenStoredMessage("3", byteArray(3, 2, 3, 4), 0, true, 2);
+        givenStoredMessage("4", byteArray(4, 2, 3, 4), 1, false, 1);
+        givenStoredMessage("5", byteArray(5, 2, 3, 4), 1, true, 3);
+        givenStoredMessage("6", byteArray(6, 2, 3, 4), 1, true, 2);
+
+        whenMessageIsMarkedAsPublished(5);
+        whenNextMessagesAreRetrieved(10, 2, 4);
+
+        thenRetrievedMessageTopicsAre("3", "5", "2");
+        thenRetrievedMessagePayloadIs(0, byteArray(3, 2, 3, 4));
+    }
+
+    @Test
+    public void shouldLimitNextMessagesInPriorityRange() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 1, true, 0);
+        givenStoredMessage("2", byteArray(2, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("3", byteArray(3, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("4", byteArray(4, 2, 3, 4), 1, true, 7);
+
+        whenNextMessagesAreRetrieved(2, 5, Integer.MAX_VALUE);
+
+        thenRetrievedMessageTopicsAre("2", "3");
+    }
+
+    @Test
+    public void shouldReturnNoNextMessagesIfAllPublished() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 0, true, 7);
+
+        whenMessageIsMarkedAsPublished(0);
+        whenNextMessagesAreRetrieved(10);
+
+        thenRetrievedMessageTopicsAre();
+    }
+
+    @Test
+    public void shouldSupportBatchMarkAsPublished() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 0, true, 7);
+        givenStoredMessage("2", byteArray(2, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("3", byteArray(3, 2, 3, 4), 1, true, 7);
+
+        whenMessagesAreMarkedAsPublished(Arrays.asList(0),
+                Collections.singletonMap(1, new DataTransportToken(23, "foo")));
+
+        thenMessagePublishedOnIsInThePast(0);
+        thenDataTransportTokenIsNotSet(0);
+        thenMessagePublishedOnIsInThePast(1);
+        thenDataTransportTokenIs(1, new DataTransportToken(23, "foo"));
+        thenMessagePublishedOnIsNotSet(2);
+        thenNextMessageTopicIs("3");
+    }
+
+    @Test
+    public void shouldSupportBatchMarkAsConfirmed() throws KuraStoreException {
+        givenMessageStore();
+        givenStoredMessage("1", byteArray(1, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("2", byteArray(2, 2, 3, 4), 1, true, 7);
+        givenStoredMessage("3", byteArray(3, 2, 3, 4), 1, true, 7);
+
+        whenMessagesAreMarkedAsConfirmed(0, 2);
+
+        thenMessageConfirmedOnIsInThePast(0);
+        thenMessageConfirmedOnIsNotSet(1);
+        thenMessageConfirmedOnIsInThePast(2);
+    }
+
+    @Test
+    public void shouldSupportBatchMarkAsConfirmedWithManyMessages() throws KuraStoreException {
+        givenMessageStore();
+
+        for (int i = 0; i < 1200; i++) {
+            givenStoredMessage("topic", byteArray(1), 1, false, 7);
+        }
+
+        whenAllMessagesAreMarkedAsConfirmed();
+
+        thenMessageConfirmedOnIsInThePast(0);
+        thenMessageConfirmedOnIsInThePast(600);
+        thenMessageConfirmedOnIsInThePast(1199);
+    }
+
     @Test
     public void shouldRetireveUnpublishedMessageList() throws KuraStoreException {
         givenMessageStore();
@@ -517,10 +638,49 @@ public class MessageStoreProviderTest {
         this.messageStore.markAsPublished(this.messageIds.get(messageIndex), token);
     }
 
+    private void whenMessagesAreMarkedAsPublished(final List<Integer> messageIndexes,
+            final Map<Integer, DataTransportToken> inFlightMessageIndexes) throws KuraStoreException {
+        final List<Integer> msgIds = new ArrayList<>();
+        final Map<Integer, DataTransportToken> inFlightMessages = new HashMap<>();
+
+        for (final int index : messageIndexes) {
+            msgIds.add(this.messageIds.get(index));
+        }
+
+        for (final Entry<Integer, DataTransportToken> e : inFlightMessageIndexes.entrySet()) {
+            inFlightMessages.put(this.messageIds.get(e.getKey()), e.getValue());
+        }
+
+        this.messageStore.markAsPublished(msgIds, inFlightMessages);
+    }
+
+    private void whenNextMessagesAreRetrieved(final int maxCount) throws KuraStoreException {
+        this.retrievedMessages = Optional.of(this.messageStore.getNextMessages(maxCount));
+    }
+
+    private void whenNextMessagesAreRetrieved(final int maxCount, final int minPriority, final int maxPriority)
+            throws KuraStoreException {
+        this.retrievedMessages = Optional.of(this.messageStore.getNextMessages(maxCount, minPriority, maxPriority));
+    }
+
     private void whenMessageIsMarkedAsConfirmed(final int messageIndex) throws KuraStoreException {
         this.messageStore.markAsConfirmed(this.messageIds.get(messageIndex));
     }
 
+    private void whenMessagesAreMarkedAsConfirmed(final int... messageIndexes) throws KuraStoreException {
+        final List<Integer> msgIds = new ArrayList<>();
+
+        for (final int index : messageIndexes) {
+            msgIds.add(this.messageIds.get(index));
+        }
+
+        this.messageStore.markAsConfirmed(msgIds);
+    }
+
+    private void whenAllMessagesAreMarkedAsConfirmed() throws KuraStoreException {
+        this.messageStore.markAsConfirmed(new ArrayList<>(this.messageIds));
+    }
+
     private void whenInFlightMessagesAreDropped() throws KuraStoreException {
         this.messageStore.dropAllInFlightMessages();
     }
@@ -548,6 +708,20 @@ public class MessageStoreProviderTest {
         }
     }
 
+    private void thenRetrievedMessageTopicsAre(final String... topics) {
+        final List<StoredMessage> messages = this.retrievedMessages
+                .orElseThrow(() -> new IllegalStateException("no messages have been retrieved"));
+
+        assertEquals(Arrays.asList(topics), messages.stream().map(StoredMessage::getTopic).collect(Collectors.toList()));
+    }
+
+    private void thenRetrievedMessagePayloadIs(final int index, final byte[] payload) {
+        final List<StoredMessage> messages = this.retrievedMessages
+                .orElseThrow(() -> new IllegalStateException("no messages have been retrieved"));
+
+        assertArrayEquals(payload, messages.get(index).getPayload());
+    }
+
     private void thenMessageTopicIs(final int messageIndex, final String topic) throws KuraStoreException {
         assertEquals(topic, getStoredMessage(0).getTopic());
     }
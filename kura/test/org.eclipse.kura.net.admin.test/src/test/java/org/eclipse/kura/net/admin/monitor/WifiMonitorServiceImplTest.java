@@ -19,9 +19,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +32,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -37,6 +42,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
@@ -46,6 +52,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.core.linux.executor.LinuxExitStatus;
+import org.eclipse.kura.core.linux.util.SystemMetricsCollector;
 import org.eclipse.kura.core.net.NetworkConfiguration;
 import org.eclipse.kura.core.net.WifiAccessPointImpl;
 import org.eclipse.kura.core.net.WifiInterfaceAddressConfigImpl;
@@ -761,9 +768,16 @@ public class WifiMonitorServiceImplTest {
                 };
             }
         };
+        svc.setSystemMetricsCollector(getMetricsCollectorWithoutWirelessLinks());
         return svc;
     }
 
+    private SystemMetricsCollector getMetricsCollectorWithoutWirelessLinks() {
+        SystemMetricsCollector collectorMock = mock(SystemMetricsCollector.class);
+        when(collectorMock.getWirelessLink(anyString())).thenReturn(Optional.empty());
+        return collectorMock;
+    }
+
     @Test
     public void testIsAccessPointAvailableNegativeStrength() throws Throwable {
         // negative strength also makes AP available
@@ -823,6 +837,7 @@ public class WifiMonitorServiceImplTest {
         when(esMock.execute(any())).thenReturn(status);
         WifiMonitorServiceImpl svc = new WifiMonitorServiceImpl();
         svc.setExecutorService(esMock);
+        svc.setSystemMetricsCollector(getMetricsCollectorWithoutWirelessLinks());
 
         Map<String, InterfaceState> stats = new HashMap<>();
         TestUtil.setFieldValue(svc, "interfaceStatuses", stats);
@@ -859,6 +874,38 @@ public class WifiMonitorServiceImplTest {
         assertEquals(5, level);
     }
 
+    @Test
+    public void testGetSignalLevelProcWireless() throws NoSuchFieldException, KuraException, IOException {
+        // signal level reported by /proc/net/wireless => link tool is not used
+
+        String wlan1 = "wlan1";
+        String ssid = "mySSID";
+
+        Path root = Files.createTempDirectory("wifimonitor");
+        Path wireless = root.resolve("net/wireless");
+        Files.createDirectories(wireless.getParent());
+        Files.write(wireless, ("Inter-| sta-|   Quality        |   Discarded packets     | Missed | WE\n"
+                + " face | tus | link level noise |  nwid  crypt   frag  retry   misc | beacon | 22\n"
+                + " wlan1: 0000   54.  -56.  -256        0      0      0      0      0        0\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+
+        LinkTool ltMock = mock(LinkTool.class);
+
+        WifiMonitorServiceImpl svc = getServiceWithScanTool(ssid, 0, ltMock);
+        svc.setSystemMetricsCollector(new SystemMetricsCollector(root, root));
+
+        Map<String, InterfaceState> stats = new HashMap<>();
+        stats.put(wlan1, new InterfaceState(wlan1, true, true, IPAddress.parseHostAddress("10.10.0.1"), 2));
+
+        TestUtil.setFieldValue(svc, "interfaceStatuses", stats);
+
+        int level = svc.getSignalLevel(wlan1, ssid);
+
+        verify(ltMock, never()).getSignal();
+
+        assertEquals(-56, level);
+    }
+
     @Test
     public void testGetSignalLevelNegativeStrength() throws NoSuchFieldException, UnknownHostException, KuraException {
         // strength of the selected interface is negative => signal level remains 0
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.protocol.modbus.test.LoopbackCommConnection;
+import org.eclipse.kura.protocol.modbus.test.RtuLoopback;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ModbusRtuTransportTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusRtuTransportTest.class);
+
+    private static final byte[] READ_TWO_REGISTERS = { 1, 3, 0, 10, 0, 2 };
+
+    private RtuLoopback loopback;
+    private ModbusRtuTransport transport;
+    private ModbusRtuPollPlanner planner;
+    private ModbusProtocolDevice device;
+
+    private byte[] response;
+    private ModbusProtocolException exception;
+    private int[] registers;
+    private long[] roundTripNanos;
+
+    @Test
+    public void shouldReadHoldingRegistersOverSerialConnection() throws Exception {
+        givenLoopback(1);
+        givenSerialDevice();
+
+        whenRegistersAreReadFromDevice(1, 100, 3);
+
+        thenRegistersAre(100, 101, 102);
+    }
+
+    @Test
+    public void shouldReassembleResponseReceivedInChunks() throws IOException {
+        givenLoopback(1);
+        givenResponsesSentInChunks(3, 5);
+        givenTransport(1000);
+
+        whenTransactionIsPerformed(READ_TWO_REGISTERS);
+
+        thenResponseIs(1, 3, 4, 0, 10, 0, 11);
+    }
+
+    @Test
+    public void shouldSkipNoiseBeforeResponse() throws IOException {
+        givenLoopback(1);
+        givenNoiseBeforeResponses(0x01, 0x03, 0x7f, 0x55);
+        givenTransport(1000);
+
+        whenTransactionIsPerformed(READ_TWO_REGISTERS);
+
+        thenResponseIs(1, 3, 4, 0, 10, 0, 11);
+    }
+
+    @Test
+    public void shouldTimeOutOnResponseWithBadCrc() throws IOException {
+        givenLoopback(1);
+        givenCorruptedResponses();
+        givenTransport(100);
+
+        whenTransactionIsPerformed(READ_TWO_REGISTERS);
+
+        thenTransactionFailedWith(ModbusProtocolErrorCode.RESPONSE_TIMEOUT);
+    }
+
+    @Test
+    public void shouldReportExceptionResponse() throws IOException {
+        givenLoopback(1);
+        givenFirstIllegalAddress(5);
+        givenTransport(1000);
+
+        whenTransactionIsPerformed(READ_TWO_REGISTERS);
+
+        thenTransactionFailedWith(ModbusProtocolErrorCode.TRANSACTION_FAILURE);
+    }
+
+    @Test
+    public void shouldCompleteTransactionsWithoutPollingDelay() throws Exception {
+        givenLoopback(1);
+        givenResponseDelay(1);
+        givenSerialDevice();
+
+        whenRoundTripTimeIsMeasured(500);
+
+        thenMeanRoundTripTimeIsBelow(5, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldKeepPollingRespondingUnitsWhenOneIsOffline() throws Exception {
+        givenLoopback(1, 2);
+        givenTransport(50);
+        givenPlanner();
+
+        whenUnitsArePolled(1000, 20, 1, 2, 3);
+
+        thenRequestCountIsAtLeast(1, 40);
+        thenRequestCountIsAtLeast(2, 40);
+        thenRequestCountIsAtMost(3, 8);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() throws Exception {
+        if (this.planner != null) {
+            this.planner.close();
+        }
+        if (this.device != null) {
+            this.device.disconnect();
+        }
+        if (this.transport != null) {
+            this.transport.close();
+        }
+        if (this.loopback != null) {
+            this.loopback.close();
+        }
+    }
+
+    private void givenLoopback(final int... unitIds) throws IOException {
+        this.loopback = new RtuLoopback(unitIds);
+    }
+
+    private void givenResponseDelay(final long millis) {
+        this.loopback.setResponseDelay(millis);
+    }
+
+    private void givenResponsesSentInChunks(final int chunkSize, final long pauseMillis) {
+        this.loopback.setChunks(chunkSize, pauseMillis);
+    }
+
+    private void givenNoiseBeforeResponses(final int... noise) {
+        final byte[] bytes = new byte[noise.length];
+
+        for (int i = 0; i < noise.length; i++) {
+            bytes[i] = (byte) noise[i];
+        }
+
+        this.loopback.setNoise(bytes);
+    }
+
+    private void givenCorruptedResponses() {
+        this.loopback.setCorruptCrc(true);
+    }
+
+    private void givenFirstIllegalAddress(final int address) {
+        this.loopback.setFirstIllegalAddress(address);
+    }
+
+    private void givenTransport(final int responseTimeout) {
+        this.transport = new ModbusRtuTransport(this.loopback.getInputStream(), this.loopback.getOutputStream(),
+                ModbusRtuTransport.getFrameGapNanos(115200), responseTimeout);
+    }
+
+    private void givenPlanner() {
+        this.planner = new ModbusRtuPollPlanner(this.transport);
+    }
+
+    private void givenSerialDevice() throws ModbusProtocolException {
+        final LoopbackCommConnection connection = new LoopbackCommConnection(this.loopback);
+
+        this.device = new ModbusProtocolDevice();
+        this.device.setConnectionFactory((name, mode, timeouts) -> connection);
+
+        final Properties connectionConfig = new Properties();
+        connectionConfig.setProperty("connectionType", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_SERIAL);
+        connectionConfig.setProperty("port", "/dev/null");
+        connectionConfig.setProperty("baudRate", "115200");
+        connectionConfig.setProperty("stopBits", "1");
+        connectionConfig.setProperty("parity", "0");
+        connectionConfig.setProperty("bitsPerWord", "8");
+        connectionConfig.setProperty("respTimeout", "1000");
+        connectionConfig.setProperty("transmissionMode", ModbusTransmissionMode.RTU);
+
+        this.device.configureConnection(connectionConfig);
+        this.device.connect();
+    }
+
+    private void whenTransactionIsPerformed(final byte[] msg) {
+        try {
+            this.response = this.transport.transact(msg);
+        } catch (ModbusProtocolException e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenRegistersAreReadFromDevice(final int unitId, final int address, final int count)
+            throws ModbusProtocolException {
+        this.registers = this.device.readHoldingRegisters(unitId, address, count);
+    }
+
+    private void whenRoundTripTimeIsMeasured(final int count) throws ModbusProtocolException {
+        this.roundTripNanos = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            final long start = System.nanoTime();
+            this.device.readHoldingRegisters(1, 0, 10);
+            this.roundTripNanos[i] = System.nanoTime() - start;
+        }
+    }
+
+    private void whenUnitsArePolled(final long durationMillis, final long periodMillis, final int... unitIds)
+            throws InterruptedException {
+        for (final int unitId : unitIds) {
+            this.planner.schedule(new byte[] { (byte) unitId, 3, 0, 0, 0, 1 }, periodMillis, TimeUnit.MILLISECONDS,
+                    new ModbusRtuPollPlanner.Listener() {
+
+                        @Override
+                        public void onResponse(byte[] response) {
+                            // not needed
+                        }
+
+                        @Override
+                        public void onFailure(ModbusProtocolException e) {
+                            // not needed
+                        }
+                    });
+        }
+
+        Thread.sleep(durationMillis);
+    }
+
+    private void thenResponseIs(final int... expected) {
+        assertNotNull(this.response);
+
+        final byte[] bytes = new byte[expected.length];
+
+        for (int i = 0; i < expected.length; i++) {
+            bytes[i] = (byte) expected[i];
+        }
+
+        assertArrayEquals(bytes, this.response);
+    }
+
+    private void thenRegistersAre(final int... expected) {
+        assertArrayEquals(expected, this.registers);
+    }
+
+    private void thenTransactionFailedWith(final ModbusProtocolErrorCode code) {
+        if (this.exception == null) {
+            fail("transaction did not fail");
+        }
+
+        assertEquals(code, this.exception.getCode());
+    }
+
+    private void thenMeanRoundTripTimeIsBelow(final long value, final TimeUnit unit) {
+        final long[] sorted = this.roundTripNanos.clone();
+        Arrays.sort(sorted);
+
+        final double mean = Arrays.stream(sorted).average().orElse(0);
+        final long p99 = sorted[sorted.length * 99 / 100];
+
+        logger.info("Modbus RTU round trip time, mean: {} us, p99: {} us", (long) mean / 1000, p99 / 1000);
+
+        assertTrue(mean < unit.toNanos(value));
+    }
+
+    private void thenRequestCountIsAtLeast(final int unitId, final int expected) {
+        final int actual = this.loopback.getRequestCount(unitId);
+
+        assertTrue("unit " + unitId + " polled " + actual + " times", actual >= expected);
+    }
+
+    private void thenRequestCountIsAtMost(final int unitId, final int expected) {
+        final int actual = this.loopback.getRequestCount(unitId);
+
+        assertTrue("unit " + unitId + " polled " + actual + " times", actual <= expected);
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus.test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.eclipse.kura.comm.CommConnection;
+import org.eclipse.kura.comm.CommURI;
+
+/**
+ * A {@link CommConnection} that exposes the streams of a {@link RtuLoopback}. The piped streams are wrapped, so that
+ * locking the returned streams does not block the simulated units.
+ */
+public class LoopbackCommConnection implements CommConnection {
+
+    private final RtuLoopback loopback;
+    private final InputStream in;
+    private final OutputStream out;
+
+    public LoopbackCommConnection(RtuLoopback loopback) {
+        this.loopback = loopback;
+        this.in = new FilterInputStream(loopback.getInputStream()) {
+        };
+        this.out = new FilterOutputStream(loopback.getOutputStream()) {
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+        return this.in;
+    }
+
+    @Override
+    public DataInputStream openDataInputStream() throws IOException {
+        return new DataInputStream(openInputStream());
+    }
+
+    @Override
+    public OutputStream openOutputStream() throws IOException {
+        return this.out;
+    }
+
+    @Override
+    public DataOutputStream openDataOutputStream() throws IOException {
+        return new DataOutputStream(openOutputStream());
+    }
+
+    @Override
+    public CommURI getURI() {
+        return null;
+    }
+
+    @Override
+    public void sendMessage(byte[] message) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] sendCommand(byte[] command, int timeout) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] sendCommand(byte[] command, int timeout, int demark) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] flushSerialBuffer() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.loopback.close();
+    }
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus.test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kura.protocol.modbus.Crc16;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates the units connected to a Modbus RTU serial line over a pair of piped streams. The simulated units answer
+ * to read holding registers requests with the register address as value and echo write single register requests.
+ */
+public class RtuLoopback implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RtuLoopback.class);
+
+    private final PipedInputStream masterIn = new PipedInputStream(1024);
+    private final PipedOutputStream slaveOut = new PipedOutputStream();
+    private final PipedInputStream slaveIn = new PipedInputStream(1024);
+    private final PipedOutputStream masterOut = new PipedOutputStream();
+    private final Set<Integer> unitIds = new HashSet<>();
+    private final Map<Integer, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Thread slave;
+
+    private volatile long responseDelay;
+    private volatile int chunkSize = Integer.MAX_VALUE;
+    private volatile long chunkPause;
+    private volatile byte[] noise = new byte[0];
+    private volatile boolean corruptCrc;
+    private volatile int firstIllegalAddress = 0x10000;
+    private volatile boolean closed;
+
+    public RtuLoopback(int... unitIds) throws IOException {
+        this.masterIn.connect(this.slaveOut);
+        this.slaveIn.connect(this.masterOut);
+
+        for (final int unitId : unitIds) {
+            this.unitIds.add(unitId);
+        }
+
+        this.slave = new Thread(this::run, "RtuLoopback");
+        this.slave.setDaemon(true);
+        this.slave.start();
+    }
+
+    public InputStream getInputStream() {
+        return this.masterIn;
+    }
+
+    public OutputStream getOutputStream() {
+        return this.masterOut;
+    }
+
+    /**
+     * Sets the time taken by the units to process a request.
+     */
+    public void setResponseDelay(long responseDelayMillis) {
+        this.responseDelay = responseDelayMillis;
+    }
+
+    /**
+     * Sends responses in chunks, pausing between them.
+     */
+    public void setChunks(int chunkSize, long pauseMillis) {
+        this.chunkSize = chunkSize;
+        this.chunkPause = pauseMillis;
+    }
+
+    /**
+     * Sends the given bytes before each response.
+     */
+    public void setNoise(byte[] noise) {
+        this.noise = noise.clone();
+    }
+
+    public void setCorruptCrc(boolean corruptCrc) {
+        this.corruptCrc = corruptCrc;
+    }
+
+    /**
+     * Responds with an illegal data address exception to requests for addresses greater than or equal to the given
+     * one.
+     */
+    public void setFirstIllegalAddress(int firstIllegalAddress) {
+        this.firstIllegalAddress = firstIllegalAddress;
+    }
+
+    public int getRequestCount(int unitId) {
+        final AtomicInteger count = this.requestCounts.get(unitId);
+
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.slave.interrupt();
+        this.masterOut.close();
+        this.slaveOut.close();
+    }
+
+    private void run() {
+        final DataInputStream in = new DataInputStream(this.slaveIn);
+        final byte[] request = new byte[8];
+
+        try {
+            while (!this.closed) {
+                in.readFully(request);
+
+                if (Crc16.getCrc16(request, request.length, 0xffff) != 0) {
+                    logger.warn("Bad request CRC");
+                    continue;
+                }
+
+                final int unitId = request[0] & 0xff;
+
+                this.requestCounts.computeIfAbsent(unitId, id -> new AtomicInteger()).incrementAndGet();
+
+                if (!this.unitIds.contains(unitId)) {
+                    // no such unit on the line
+                    continue;
+                }
+
+                respond(buildResponse(request));
+            }
+        } catch (IOException e) {
+            if (!this.closed) {
+                logger.warn("RtuLoopback terminated", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] buildResponse(byte[] request) {
+        final int address = (request[2] & 0xff) << 8 | request[3] & 0xff;
+
+        if (address >= this.firstIllegalAddress) {
+            return new byte[] { request[0], (byte) (request[1] | 0x80), 2 };
+        }
+
+        switch (request[1]) {
+        case 3:
+            final int count = (request[4] & 0xff) << 8 | request[5] & 0xff;
+            final byte[] response = new byte[3 + count * 2];
+
+            response[0] = request[0];
+            response[1] = request[1];
+            response[2] = (byte) (count * 2);
+            for (int i = 0; i < count; i++) {
+                response[3 + i * 2] = (byte) (address + i >> 8);
+                response[4 + i * 2] = (byte) (address + i);
+            }
+            return response;
+        case 6:
+            return Arrays.copyOf(request, 6);
+        default:
+            return new byte[] { request[0], (byte) (request[1] | 0x80), 1 };
+        }
+    }
+
+    private void respond(byte[] response) throws IOException, InterruptedException {
+        if (this.responseDelay > 0) {
+            Thread.sleep(this.responseDelay);
+        }
+
+        final byte[] frame = new byte[this.noise.length + response.length + 2];
+        System.arraycopy(this.noise, 0, frame, 0, this.noise.length);
+        System.arraycopy(response, 0, frame, this.noise.length, response.length);
+
+        final int crc = Crc16.getCrc16(response, response.length, 0xffff) ^ (this.corruptCrc ? 0xffff : 0);
+        frame[frame.length - 2] = (byte) crc;
+        frame[frame.length - 1] = (byte) (crc >> 8);
+
+        for (int offset = 0; offset < frame.length; offset += this.chunkSize) {
+            if (offset > 0) {
+                Thread.sleep(this.chunkPause);
+            }
+            this.slaveOut.write(frame, offset, Math.min(this.chunkSize, frame.length - offset));
+            this.slaveOut.flush();
+        }
+    }
+}
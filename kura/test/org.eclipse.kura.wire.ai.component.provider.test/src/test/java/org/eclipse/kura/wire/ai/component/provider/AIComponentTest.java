@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -26,6 +29,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.eclipse.kura.ai.inference.ModelInfo;
+import org.eclipse.kura.ai.inference.Tensor;
 import org.eclipse.kura.ai.inference.TensorDescriptor;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.type.TypedValues;
@@ -35,6 +39,7 @@ import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.WireSupport;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,11 +51,15 @@ public class AIComponentTest {
     private static final String PREPROCESSOR_MODEL_NAME = "preprocessor.model.name";
     private static final String INFERENCE_MODEL_NAME = "inference.model.name";
     private static final String POSTPROCESSOR_MODEL_NAME = "postprocessor.model.name";
+    private static final String BATCH_ENABLED = "batch.enabled";
+    private static final String BATCH_MAX_SIZE = "batch.max.size";
 
     private AIComponent aiComponent;
     private Map<String, Object> compProperties;
     private InferenceEngineServiceMock engine;
+    private WireSupport wireSupport;
     private WireEnvelope inputEnvelope;
+    private final List<WireEnvelope> numericEnvelopes = new ArrayList<>();
     private boolean exceptionsOccurred;
 
     /*
@@ -130,6 +139,60 @@ public class AIComponentTest {
         thenNoExceptionsOccurred();
     }
 
+    @Test
+    public void shouldInferThroughBatcherWhenBatchingIsEnabled() {
+        givenInferenceEngine();
+        givenInputEnvelope();
+        givenWireProperties("preprocessor", "infer", "");
+        givenBatching(3);
+        givenModelInfo("preprocessor");
+        givenModelInfo("infer");
+        givenActivate();
+
+        whenOnWireReceive(this.inputEnvelope);
+        whenOnWireReceive(this.inputEnvelope);
+        whenOnWireReceive(this.inputEnvelope);
+
+        thenInferIsCalled(6);
+        thenEmitIsCalled(3);
+        thenNoExceptionsOccurred();
+    }
+
+    @Test
+    public void shouldInferOncePerStageWhenNumericRecordsAreBatched() {
+        givenEchoInferenceEngine();
+        givenWireProperties("preprocessor", "infer", "");
+        givenBatching(3);
+        givenNumericModelInfo("preprocessor");
+        givenNumericModelInfo("infer");
+        givenActivate();
+        givenNumericInputEnvelopes(1.5f, 2.5f, 3.5f);
+
+        whenAllNumericEnvelopesAreReceived();
+
+        thenInferAsyncIsCalled(2);
+        thenEachInferAsyncHasRows(3);
+        thenEmittedValuesAre(1.5f, 2.5f, 3.5f);
+        thenNoExceptionsOccurred();
+    }
+
+    @Test
+    public void shouldRunPendingBatchOnDeactivate() {
+        givenInferenceEngine();
+        givenInputEnvelope();
+        givenWireProperties("", "infer", "");
+        givenBatching(3);
+        givenModelInfo("infer");
+        givenActivate();
+
+        whenOnWireReceive(this.inputEnvelope);
+        whenDeactivate();
+
+        thenInferIsCalled(1);
+        thenEmitIsCalled(1);
+        thenNoExceptionsOccurred();
+    }
+
     /*
      * Steps
      */
@@ -144,6 +207,11 @@ public class AIComponentTest {
         this.aiComponent.bindInferenceEngineService(this.engine);
     }
 
+    private void givenEchoInferenceEngine() {
+        givenInferenceEngine();
+        this.engine.setEchoInputs();
+    }
+
     private void givenNotReadyInferenceEngine() {
         this.engine = new InferenceEngineServiceMock();
         this.engine.setEngineNotReady();
@@ -170,6 +238,11 @@ public class AIComponentTest {
         }
     }
 
+    private void givenBatching(int maxSize) {
+        this.compProperties.put(BATCH_ENABLED, true);
+        this.compProperties.put(BATCH_MAX_SIZE, maxSize);
+    }
+
     private void givenActivate() {
         ComponentContext mockContext = mock(ComponentContext.class);
         this.aiComponent.activate(mockContext, this.compProperties);
@@ -227,6 +300,38 @@ public class AIComponentTest {
         this.engine.addModelInfo(info);
     }
 
+    private void givenNumericModelInfo(String modelName) {
+        List<Long> shape = new ArrayList<>();
+        shape.add((long) -1);
+
+        List<TensorDescriptor> inDescs = new ArrayList<>();
+        inDescs.add(TensorDescriptor.builder("IN_FLOAT", "FP32", shape).build());
+        inDescs.add(TensorDescriptor.builder("IN_INT", "INT32", shape).build());
+
+        List<TensorDescriptor> outDescs = new ArrayList<>();
+        outDescs.add(TensorDescriptor.builder("OUT_FLOAT", "FP32", shape).build());
+        outDescs.add(TensorDescriptor.builder("OUT_INT", "INT32", shape).build());
+
+        ModelInfo info = mock(ModelInfo.class);
+        when(info.getName()).thenReturn(modelName);
+        when(info.getInputs()).thenReturn(inDescs);
+        when(info.getOutputs()).thenReturn(outDescs);
+
+        this.engine.addModelInfo(info);
+    }
+
+    private void givenNumericInputEnvelopes(float... values) {
+        for (float value : values) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<>();
+            recordProps.put("IN_FLOAT", TypedValues.newFloatValue(value));
+            recordProps.put("IN_INT", TypedValues.newIntegerValue((int) (value * 10)));
+
+            List<WireRecord> records = new ArrayList<>();
+            records.add(new WireRecord(recordProps));
+            this.numericEnvelopes.add(new WireEnvelope("example_asset_pid", records));
+        }
+    }
+
     /*
      * When
      */
@@ -240,6 +345,16 @@ public class AIComponentTest {
         }
     }
 
+    private void whenAllNumericEnvelopesAreReceived() {
+        for (WireEnvelope env : this.numericEnvelopes) {
+            whenOnWireReceive(env);
+        }
+    }
+
+    private void whenDeactivate() {
+        this.aiComponent.deactivate();
+    }
+
     /*
      * Then
      */
@@ -253,6 +368,38 @@ public class AIComponentTest {
         }
     }
 
+    private void thenEmitIsCalled(int nTimes) {
+        verify(this.wireSupport, times(nTimes)).emit(any());
+    }
+
+    private void thenInferAsyncIsCalled(int nTimes) {
+        assertEquals(nTimes, this.engine.wasCalledAsyncTimes());
+    }
+
+    private void thenEachInferAsyncHasRows(int rows) {
+        for (List<Tensor> inputs : this.engine.getAsyncInputs()) {
+            for (Tensor input : inputs) {
+                assertEquals(rows, input.getData(input.getType()).get().size());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void thenEmittedValuesAre(float... values) {
+        ArgumentCaptor<List<WireRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.wireSupport, atLeastOnce()).emit(captor.capture());
+
+        List<List<WireRecord>> emitted = captor.getAllValues();
+        assertEquals(values.length, emitted.size());
+
+        for (int i = 0; i < values.length; i++) {
+            List<WireRecord> records = emitted.get(i);
+            assertEquals(2, records.size());
+            assertEquals(values[i], records.get(0).getProperties().get("OUT_FLOAT").getValue());
+            assertEquals((int) (values[i] * 10), records.get(1).getProperties().get("OUT_INT").getValue());
+        }
+    }
+
     private void thenNoExceptionsOccurred() {
         assertFalse(this.exceptionsOccurred);
     }
@@ -271,8 +418,8 @@ public class AIComponentTest {
 
         // wire dependencies
         WireHelperService wireHelperService = mock(WireHelperService.class);
-        WireSupport wireSupport = mock(WireSupport.class);
-        when(wireHelperService.newWireSupport(any(), any())).thenReturn(wireSupport);
+        this.wireSupport = mock(WireSupport.class);
+        when(wireHelperService.newWireSupport(any(), any())).thenReturn(this.wireSupport);
         this.aiComponent.bindWireHelperService(wireHelperService);
 
         this.exceptionsOccurred = false;
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.ai.component.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
+import org.junit.After;
+import org.junit.Test;
+
+public class InferenceBatcherTest {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final List<List<Tensor>> pipelineInputs = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<List<Tensor>>> pipelineResults = new CopyOnWriteArrayList<>();
+    private final List<List<Tensor>> results = new CopyOnWriteArrayList<>();
+    private InferenceBatcher batcher;
+
+    /*
+     * Scenarios
+     */
+
+    @Test
+    public void shouldRunSingleBatchWhenMaxSizeIsReached() {
+        givenBatcher(3, 60000, 2);
+
+        whenSubmitted(1f, 2f, 3f);
+
+        thenPipelineIsCalled(1);
+        thenPipelineInputIs(0, Arrays.asList(1f, 2f, 3f));
+    }
+
+    @Test
+    public void shouldRunBatchWhenMaxDelayExpires() throws InterruptedException {
+        givenBatcher(8, 10, 2);
+
+        whenSubmitted(1f, 2f);
+
+        thenPipelineIsEventuallyCalled(1);
+        thenPipelineInputIs(0, Arrays.asList(1f, 2f));
+    }
+
+    @Test
+    public void shouldSplitResults() {
+        givenBatcher(2, 60000, 2);
+
+        whenSubmitted(1f, 2f);
+        whenPipelineCompletes(0);
+
+        thenResultsAre(Arrays.asList(10f, 20f));
+    }
+
+    @Test
+    public void shouldDeliverResultsInRequestOrder() {
+        givenBatcher(1, 60000, 2);
+
+        whenSubmitted(1f, 2f);
+        whenPipelineCompletes(1);
+
+        thenResultsAre(Collections.emptyList());
+
+        whenPipelineCompletes(0);
+
+        thenResultsAre(Arrays.asList(10f, 20f));
+    }
+
+    @Test
+    public void shouldDeliverNextBatchesWhenABatchFails() {
+        givenBatcher(1, 60000, 2);
+
+        whenSubmitted(1f, 2f);
+        whenPipelineCompletes(1);
+        whenPipelineFails(0);
+
+        thenResultsAre(Arrays.asList(20f));
+    }
+
+    @Test
+    public void shouldRunRequestsOneByOneWhenTheyCannotBeBatched() {
+        givenBatcher(2, 60000, 2);
+
+        whenSubmitted(stringRequest("a"), stringRequest("b"));
+
+        thenPipelineIsCalled(2);
+    }
+
+    @Test
+    public void shouldRunRequestsOneByOneWhenBatchedInferenceFails() {
+        givenBatcher(2, 60000, 2);
+
+        whenSubmitted(1f, 2f);
+        whenPipelineFails(0);
+
+        thenPipelineIsCalled(3);
+        thenPipelineInputIs(1, Arrays.asList(1f));
+        thenPipelineInputIs(2, Arrays.asList(2f));
+
+        whenPipelineCompletes(2);
+        whenPipelineCompletes(1);
+
+        thenResultsAre(Arrays.asList(10f, 20f));
+    }
+
+    @Test
+    public void shouldRunPendingRequestsWhenClosed() {
+        givenBatcher(8, 60000, 2);
+
+        whenSubmitted(1f);
+        whenClosed();
+
+        thenPipelineIsCalled(1);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenBatcher(int maxSize, int maxDelayMs, int maxInFlight) {
+        this.properties.put("batch.enabled", true);
+        this.properties.put("batch.max.size", maxSize);
+        this.properties.put("batch.max.delay.ms", maxDelayMs);
+        this.properties.put("batch.max.in.flight", maxInFlight);
+
+        this.batcher = new InferenceBatcher(new AIComponentOptions(this.properties), this::pipeline,
+                this.results::add);
+    }
+
+    private void whenSubmitted(Float... values) {
+        for (Float value : values) {
+            this.batcher.submit(Collections.singletonList(
+                    new Tensor(Float.class, descriptor("IN", "FP32"), Collections.singletonList(value))));
+        }
+    }
+
+    @SafeVarargs
+    private final void whenSubmitted(List<Tensor>... requests) {
+        for (List<Tensor> request : requests) {
+            this.batcher.submit(request);
+        }
+    }
+
+    private void whenPipelineCompletes(int call) {
+        List<Float> outputs = new ArrayList<>();
+        for (Tensor input : this.pipelineInputs.get(call)) {
+            input.getData(Float.class).get().forEach(value -> outputs.add(value * 10));
+        }
+
+        this.pipelineResults.get(call).complete(Collections.singletonList(new Tensor(Float.class,
+                new TensorDescriptor("OUT", "FP32", Optional.empty(), Arrays.asList((long) outputs.size()),
+                        new HashMap<>()),
+                outputs)));
+    }
+
+    private void whenPipelineFails(int call) {
+        this.pipelineResults.get(call).completeExceptionally(new IllegalStateException("failed"));
+    }
+
+    private void whenClosed() {
+        this.batcher.close();
+        this.batcher = null;
+    }
+
+    private void thenPipelineIsCalled(int expected) {
+        assertEquals(expected, this.pipelineInputs.size());
+    }
+
+    private void thenPipelineIsEventuallyCalled(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.pipelineInputs.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        thenPipelineIsCalled(expected);
+    }
+
+    private void thenPipelineInputIs(int call, List<Float> expected) {
+        Tensor input = this.pipelineInputs.get(call).get(0);
+
+        assertEquals(Optional.of(expected), input.getData(Float.class));
+        assertEquals(Arrays.asList((long) expected.size()), input.getDescriptor().getShape());
+    }
+
+    private void thenResultsAre(List<Float> expected) {
+        List<Float> actual = new ArrayList<>();
+        for (List<Tensor> result : this.results) {
+            assertEquals(1, result.size());
+            assertEquals(1, result.get(0).getDescriptor().getShape().get(0).intValue());
+            actual.addAll(result.get(0).getData(Float.class).get());
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    /*
+     * Utilities
+     */
+
+    private CompletionStage<List<Tensor>> pipeline(List<Tensor> inputs) {
+        CompletableFuture<List<Tensor>> result = new CompletableFuture<>();
+
+        this.pipelineInputs.add(inputs);
+        this.pipelineResults.add(result);
+
+        if (inputs.get(0).getType() == String.class) {
+            result.complete(inputs);
+        }
+
+        return result;
+    }
+
+    private static List<Tensor> stringRequest(String value) {
+        return Collections.singletonList(
+                new Tensor(String.class, descriptor("IN", "STRING"), Collections.singletonList(value)));
+    }
+
+    private static TensorDescriptor descriptor(String name, String type) {
+        return new TensorDescriptor(name, type, Optional.empty(), Arrays.asList(1L), new HashMap<>());
+    }
+
+    @After
+    public void tearDown() {
+        if (this.batcher != null) {
+            this.batcher.close();
+        }
+    }
+}
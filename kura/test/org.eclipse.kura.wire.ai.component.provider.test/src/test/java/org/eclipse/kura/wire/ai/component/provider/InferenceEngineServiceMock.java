@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@ package org.eclipse.kura.wire.ai.component.provider;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
 import org.eclipse.kura.KuraErrorCode;
 import org.eclipse.kura.KuraException;
@@ -29,6 +30,8 @@ public class InferenceEngineServiceMock implements InferenceEngineService {
     private List<ModelInfo> models;
     private boolean isEngineReady;
     private int timesCalled = 0;
+    private boolean echoInputs;
+    private final List<List<Tensor>> asyncInputs = new ArrayList<>();
 
     public InferenceEngineServiceMock() {
         this.models = new ArrayList<>();
@@ -47,10 +50,28 @@ public class InferenceEngineServiceMock implements InferenceEngineService {
         this.models.add(info);
     }
 
+    public void setEchoInputs() {
+        this.echoInputs = true;
+    }
+
     public int wasCalledTimes() {
         return this.timesCalled;
     }
 
+    public int wasCalledAsyncTimes() {
+        return this.asyncInputs.size();
+    }
+
+    public List<List<Tensor>> getAsyncInputs() {
+        return this.asyncInputs;
+    }
+
+    @Override
+    public CompletionStage<List<Tensor>> inferAsync(ModelInfo modelInfo, List<Tensor> inputData) {
+        this.asyncInputs.add(inputData);
+        return InferenceEngineService.super.inferAsync(modelInfo, inputData);
+    }
+
     @Override
     public List<Tensor> infer(ModelInfo modelInfo, List<Tensor> inputData) throws KuraException {
         this.timesCalled++;
@@ -59,6 +80,10 @@ public class InferenceEngineServiceMock implements InferenceEngineService {
             throw new KuraException(KuraErrorCode.BAD_REQUEST);
         }
 
+        if (this.echoInputs) {
+            return echo(modelInfo, inputData);
+        }
+
         List<Tensor> inferResult = new ArrayList<>();
 
         for (ModelInfo model : this.models) {
@@ -72,6 +97,25 @@ public class InferenceEngineServiceMock implements InferenceEngineService {
         return inferResult;
     }
 
+    private List<Tensor> echo(ModelInfo modelInfo, List<Tensor> inputData) {
+        List<Tensor> echoResult = new ArrayList<>();
+
+        for (int i = 0; i < inputData.size(); i++) {
+            Tensor input = inputData.get(i);
+            TensorDescriptor outDesc = modelInfo.getOutputs().get(i);
+            TensorDescriptor descriptor = TensorDescriptor
+                    .builder(outDesc.getName(), outDesc.getType(), input.getDescriptor().getShape()).build();
+
+            echoResult.add(copy(input.getType(), descriptor, input));
+        }
+
+        return echoResult;
+    }
+
+    private static <T> Tensor copy(Class<T> type, TensorDescriptor descriptor, Tensor input) {
+        return new Tensor(type, descriptor, new ArrayList<>(input.getData(type).orElseGet(ArrayList::new)));
+    }
+
     @Override
     public Optional<ModelInfo> getModelInfo(String modelName) throws KuraException {
         if (!this.isEngineReady) {
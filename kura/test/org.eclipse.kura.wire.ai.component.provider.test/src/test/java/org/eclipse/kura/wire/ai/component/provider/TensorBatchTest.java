@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.ai.component.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.kura.ai.inference.Tensor;
+import org.eclipse.kura.ai.inference.TensorDescriptor;
+import org.junit.Test;
+
+public class TensorBatchTest {
+
+    private final List<List<Tensor>> requests = new ArrayList<>();
+    private TensorBatch batch;
+    private List<Tensor> concatenated;
+    private List<List<Tensor>> split;
+    private Exception exception;
+
+    /*
+     * Scenarios
+     */
+
+    @Test
+    public void shouldConcatenateListTensors() {
+        givenRequest(listTensor("IN", Arrays.asList(1L, 2L), 1f, 2f));
+        givenRequest(listTensor("IN", Arrays.asList(1L, 2L), 3f, 4f));
+
+        whenConcatenated();
+
+        thenBatchSizeIs(2);
+        thenConcatenatedShapeIs(0, Arrays.asList(2L, 2L));
+        thenConcatenatedDataIs(0, Float.class, Arrays.asList(1f, 2f, 3f, 4f));
+    }
+
+    @Test
+    public void shouldConcatenateBuffersWithDifferentByteOrder() {
+        givenRequest(bufferTensor("IN", Arrays.asList(1L, 2L), ByteOrder.BIG_ENDIAN, 1, 2));
+        givenRequest(bufferTensor("IN", Arrays.asList(1L, 2L), ByteOrder.LITTLE_ENDIAN, 3, 4));
+
+        whenConcatenated();
+
+        thenConcatenatedDataIs(0, Integer.class, Arrays.asList(1, 2, 3, 4));
+        thenConcatenatedIsLittleEndianBuffer(0);
+    }
+
+    @Test
+    public void shouldComputeVariableBatchDimension() {
+        givenRequest(listTensor("IN", Arrays.asList(-1L, 2L), 1f, 2f, 3f, 4f));
+        givenRequest(listTensor("IN", Arrays.asList(-1L, 2L), 5f, 6f));
+
+        whenConcatenated();
+        whenSplit(listTensor("OUT", Arrays.asList(-1L, 1L), 10f, 20f, 30f));
+
+        thenConcatenatedShapeIs(0, Arrays.asList(3L, 2L));
+        thenSplitShapeIs(0, 0, Arrays.asList(2L, 1L));
+        thenSplitDataIs(0, 0, Float.class, Arrays.asList(10f, 20f));
+        thenSplitShapeIs(1, 0, Arrays.asList(1L, 1L));
+        thenSplitDataIs(1, 0, Float.class, Arrays.asList(30f));
+    }
+
+    @Test
+    public void shouldSplitBufferOutputs() {
+        givenRequest(listTensor("IN", Arrays.asList(1L, 1L), 1f));
+        givenRequest(listTensor("IN", Arrays.asList(1L, 1L), 2f));
+
+        whenConcatenated();
+        whenSplit(bufferTensor("OUT", Arrays.asList(2L, 2L), ByteOrder.LITTLE_ENDIAN, 1, 2, 3, 4));
+
+        thenSplitDataIs(0, 0, Integer.class, Arrays.asList(1, 2));
+        thenSplitDataIs(1, 0, Integer.class, Arrays.asList(3, 4));
+    }
+
+    @Test
+    public void shouldNotBatchStringTensors() {
+        givenRequest(stringTensor("IN"));
+        givenRequest(stringTensor("IN"));
+
+        whenConcatenated();
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotBatchTensorsWithDifferentShape() {
+        givenRequest(listTensor("IN", Arrays.asList(1L, 2L), 1f, 2f));
+        givenRequest(listTensor("IN", Arrays.asList(1L, 1L), 3f));
+
+        whenConcatenated();
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldNotSplitOutputsWithDifferentBatchSize() {
+        givenRequest(listTensor("IN", Arrays.asList(1L), 1f));
+        givenRequest(listTensor("IN", Arrays.asList(1L), 2f));
+
+        whenConcatenated();
+        whenSplit(listTensor("OUT", Arrays.asList(1L), 1f));
+
+        thenExceptionIsThrown(IllegalArgumentException.class);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenRequest(Tensor... tensors) {
+        this.requests.add(Arrays.asList(tensors));
+    }
+
+    private void whenConcatenated() {
+        try {
+            this.batch = TensorBatch.of(this.requests);
+            this.concatenated = this.batch.concat(this.requests);
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenSplit(Tensor... outputs) {
+        try {
+            this.split = this.batch.split(Arrays.asList(outputs));
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void thenBatchSizeIs(int expected) {
+        assertEquals(expected, this.batch.size());
+    }
+
+    private void thenConcatenatedShapeIs(int input, List<Long> expected) {
+        assertEquals(expected, this.concatenated.get(input).getDescriptor().getShape());
+    }
+
+    private <T> void thenConcatenatedDataIs(int input, Class<T> type, List<T> expected) {
+        assertEquals(Optional.of(expected), this.concatenated.get(input).getData(type));
+    }
+
+    private void thenConcatenatedIsLittleEndianBuffer(int input) {
+        assertEquals(ByteOrder.LITTLE_ENDIAN, this.concatenated.get(input).getBuffer().get().order());
+    }
+
+    private void thenSplitShapeIs(int request, int output, List<Long> expected) {
+        assertEquals(expected, this.split.get(request).get(output).getDescriptor().getShape());
+    }
+
+    private <T> void thenSplitDataIs(int request, int output, Class<T> type, List<T> expected) {
+        assertEquals(Optional.of(expected), this.split.get(request).get(output).getData(type));
+    }
+
+    private void thenExceptionIsThrown(Class<? extends Exception> expected) {
+        assertTrue("expected " + expected + " but got " + this.exception, expected.isInstance(this.exception));
+    }
+
+    /*
+     * Utilities
+     */
+
+    private static Tensor listTensor(String name, List<Long> shape, Float... values) {
+        return new Tensor(Float.class, descriptor(name, "FP32", shape), Arrays.asList(values));
+    }
+
+    private static Tensor bufferTensor(String name, List<Long> shape, ByteOrder order, int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(order);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        buffer.flip();
+
+        return new Tensor(Integer.class, descriptor(name, "INT32", shape), buffer);
+    }
+
+    private static Tensor stringTensor(String name) {
+        return new Tensor(String.class, descriptor(name, "STRING", Arrays.asList(1L)), Arrays.asList("value"));
+    }
+
+    private static TensorDescriptor descriptor(String name, String type, List<Long> shape) {
+        return new TensorDescriptor(name, type, Optional.empty(), shape, new HashMap<>());
+    }
+}
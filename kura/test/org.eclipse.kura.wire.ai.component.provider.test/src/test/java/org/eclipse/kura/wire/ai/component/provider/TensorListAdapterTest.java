@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Eurotech and/or its affiliates and others
+ * Copyright (c) 2022, 2023 Eurotech and/or its affiliates and others
  *
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -208,6 +209,32 @@ public class TensorListAdapterTest {
         thenResultingNamedWireRecordPropertiesAreEqualTo("OUTPUT0", new ByteArrayValue(new byte[] { 1, 2, 3 }));
     }
 
+    @Test
+    public void adapterShouldWorkWithBufferBackedByteArrayTensor() {
+        givenTensorDescriptorWith("OUTPUT0", "BYTES", Arrays.asList(1L, 1L));
+        givenBufferBackedTensorWith("OUTPUT0", "BYTES", Arrays.asList(1L, 1L), Byte.class,
+                ByteBuffer.wrap(new byte[] { 0, 1, 2, 3 }, 1, 3));
+
+        whenTensorListAdapterConvertsFromTensorList();
+
+        thenNoExceptionOccurred();
+        thenResultingWireRecordIsSize(1);
+        thenAllWireRecordsHaveSingleProperty();
+        thenResultingNamedWireRecordPropertiesAreEqualTo("OUTPUT0", new ByteArrayValue(new byte[] { 1, 2, 3 }));
+    }
+
+    @Test
+    public void adapterShouldCreateBufferBackedTensorFromByteArrayWiredRecord() {
+        givenWireRecordPropWith("INPUT0", new ByteArrayValue(new byte[] { 1, 2, 3, 4 }));
+        givenWireRecord();
+        givenTensorDescriptorWith("INPUT0", "BYTES", Arrays.asList(1L, 1L));
+
+        whenTensorListAdapterConvertsFromWireRecord();
+
+        thenNoExceptionOccurred();
+        thenResultingNamedTensorIsBufferBacked("INPUT0", 4);
+    }
+
     @Test
     public void adapterShouldWorkWithFloatTensor() {
         givenTensorDescriptorWith("OUTPUT0", "FP32", Arrays.asList(1L, 1L));
@@ -340,6 +367,13 @@ public class TensorListAdapterTest {
         this.inputTensors.add(tensor);
     }
 
+    private <T> void givenBufferBackedTensorWith(String name, String type, List<Long> shape, Class<T> classType,
+            ByteBuffer data) {
+        TensorDescriptor descriptor = new TensorDescriptor(name, type, Optional.empty(), shape, new HashMap<>());
+
+        this.inputTensors.add(new Tensor(classType, descriptor, data));
+    }
+
     /*
      * When
      */
@@ -392,6 +426,14 @@ public class TensorListAdapterTest {
         }
     }
 
+    private void thenResultingNamedTensorIsBufferBacked(String name, int expectedSize) {
+        Tensor tensor = findTensorByName(name, outputTensors);
+
+        assertNotNull(tensor);
+        assertTrue(tensor.getBuffer().isPresent());
+        assertEquals(expectedSize, tensor.getBuffer().get().remaining());
+    }
+
     private <T> void thenResultingNamedTensorIsEqualTo(String name, Class<T> type, List<T> expectedData) {
         Tensor tensor = findTensorByName(name, outputTensors);
 
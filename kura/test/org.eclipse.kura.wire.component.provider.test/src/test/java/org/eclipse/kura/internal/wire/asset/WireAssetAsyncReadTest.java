@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.asset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.asset.provider.AssetConstants;
+import org.eclipse.kura.asset.provider.ChannelReadLatency;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.channel.ChannelType;
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+public class WireAssetAsyncReadTest {
+
+    private final List<WireAsset> assets = new ArrayList<>();
+    private final List<WireSupport> wireSupports = new ArrayList<>();
+    private final Map<Driver, Semaphore> startedReads = new HashMap<>();
+    private final CountDownLatch readsReleased = new CountDownLatch(1);
+
+    @Test
+    public void shouldReadAssetsOfDifferentDriversConcurrently() throws ConnectionException {
+        final Driver first = givenBlockingDriver();
+        final Driver second = givenBlockingDriver();
+        givenAsyncWireAsset(first, 1);
+        givenAsyncWireAsset(second, 1);
+
+        whenEnvelopeIsReceived(0);
+        whenEnvelopeIsReceived(1);
+
+        thenReadIsStarted(first);
+        thenReadIsStarted(second);
+
+        whenReadsAreReleased();
+
+        thenEnvelopeIsEmitted(0, 1);
+        thenEnvelopeIsEmitted(1, 1);
+    }
+
+    @Test
+    public void shouldLimitConcurrentReadsOnTheSameDriver() throws ConnectionException {
+        final Driver driver = givenBlockingDriver();
+        givenAsyncWireAsset(driver, 1);
+        givenAsyncWireAsset(driver, 1);
+
+        whenEnvelopeIsReceived(0);
+        whenEnvelopeIsReceived(1);
+
+        thenReadIsStarted(driver);
+        thenNoOtherReadIsStarted(driver);
+
+        whenReadsAreReleased();
+
+        thenReadIsStarted(driver);
+        thenEnvelopeIsEmitted(0, 1);
+        thenEnvelopeIsEmitted(1, 1);
+    }
+
+    @Test
+    public void shouldAllowConfiguredConcurrentReadsOnTheSameDriver() throws ConnectionException {
+        final Driver driver = givenBlockingDriver();
+        givenAsyncWireAsset(driver, 2);
+        givenAsyncWireAsset(driver, 2);
+
+        whenEnvelopeIsReceived(0);
+        whenEnvelopeIsReceived(1);
+
+        thenReadIsStarted(driver);
+        thenReadIsStarted(driver);
+    }
+
+    @Test
+    public void shouldSkipReadWhilePreviousReadIsInProgress() throws ConnectionException {
+        final Driver driver = givenBlockingDriver();
+        givenAsyncWireAsset(driver, 1);
+
+        whenEnvelopeIsReceived(0);
+        thenReadIsStarted(driver);
+        whenEnvelopeIsReceived(0);
+        whenReadsAreReleased();
+
+        thenEnvelopeIsEmitted(0, 1);
+        thenDriverReadCountIs(driver, 1);
+    }
+
+    @Test
+    public void shouldTrackChannelReadLatency() throws ConnectionException {
+        final Driver driver = givenBlockingDriver();
+        givenAsyncWireAsset(driver, 1);
+        givenReadsReleased();
+
+        whenEnvelopeIsReceived(0);
+
+        thenEnvelopeIsEmitted(0, 1);
+        thenReadLatencyIsTracked(0, "readChannel", 1);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        this.readsReleased.countDown();
+
+        for (final WireAsset asset : this.assets) {
+            asset.deactivate(mock(ComponentContext.class));
+        }
+    }
+
+    private Driver givenBlockingDriver() throws ConnectionException {
+        final Driver driver = mock(Driver.class);
+        final Semaphore started = new Semaphore(0);
+
+        when(driver.getChannelDescriptor()).thenReturn(Collections::emptyList);
+
+        doAnswer(invocation -> {
+            started.release();
+            this.readsReleased.await();
+
+            final List<ChannelRecord> records = invocation.getArgument(0);
+
+            for (final ChannelRecord record : records) {
+                record.setValue(TypedValues.newBooleanValue(true));
+                record.setTimestamp(42);
+                record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+            }
+
+            return null;
+        }).when(driver).read(any());
+
+        this.startedReads.put(driver, started);
+
+        return driver;
+    }
+
+    private void givenAsyncWireAsset(final Driver driver, final int maxConcurrency) {
+        final Map<String, Object> properties = new HashMap<>();
+
+        properties.put(AssetConstants.ASSET_DESC_PROP.value(), "description");
+        properties.put(AssetConstants.ASSET_DRIVER_PROP.value(), "driverPid");
+        properties.put(ConfigurationService.KURA_SERVICE_PID, "asset" + this.assets.size());
+        properties.put(WireAssetOptions.READ_ASYNC_PROP_NAME, true);
+        properties.put(WireAssetOptions.READ_MAX_CONCURRENCY_PROP_NAME, maxConcurrency);
+        properties.put("readChannel#+name", "readChannel");
+        properties.put("readChannel#+type", ChannelType.READ.name());
+        properties.put("readChannel#+value.type", DataType.BOOLEAN.name());
+        properties.put("readChannel#+enabled", "true");
+
+        final WireAsset asset = new WireAsset();
+        final WireSupport wireSupport = mock(WireSupport.class);
+        final WireHelperService wireHelperService = mock(WireHelperService.class);
+        final ComponentContext componentContext = mock(ComponentContext.class);
+
+        when(wireHelperService.newWireSupport(any(), any())).thenReturn(wireSupport);
+        when(componentContext.getBundleContext()).thenReturn(mock(BundleContext.class));
+
+        asset.bindWireHelperService(wireHelperService);
+        asset.activate(componentContext, properties);
+        asset.setDriver(driver);
+        sync(asset);
+
+        this.assets.add(asset);
+        this.wireSupports.add(wireSupport);
+    }
+
+    private void givenReadsReleased() {
+        whenReadsAreReleased();
+    }
+
+    private void whenEnvelopeIsReceived(final int assetIndex) {
+        this.assets.get(assetIndex).onWireReceive(new WireEnvelope("emitter", Collections.emptyList()));
+    }
+
+    private void whenReadsAreReleased() {
+        this.readsReleased.countDown();
+    }
+
+    private void thenReadIsStarted(final Driver driver) {
+        try {
+            assertTrue("read not started", this.startedReads.get(driver).tryAcquire(10, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for read");
+        }
+    }
+
+    private void thenNoOtherReadIsStarted(final Driver driver) {
+        try {
+            assertFalse("unexpected read", this.startedReads.get(driver).tryAcquire(500, TimeUnit.MILLISECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for read");
+        }
+    }
+
+    private void thenEnvelopeIsEmitted(final int assetIndex, final int times) {
+        verify(this.wireSupports.get(assetIndex), timeout(10000).times(times)).emit(any());
+    }
+
+    private void thenDriverReadCountIs(final Driver driver, final int expected) throws ConnectionException {
+        verify(driver, times(expected)).read(any());
+    }
+
+    private void thenReadLatencyIsTracked(final int assetIndex, final String channelName, final long readCount) {
+        final ChannelReadLatency latency = this.assets.get(assetIndex).getChannelReadLatencies().get(channelName);
+
+        assertEquals(readCount, latency.getReadCount());
+        assertTrue(latency.getMaxLatencyNanos() >= latency.getLastLatencyNanos());
+    }
+
+    private static void sync(final WireAsset asset) {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        asset.getBaseAssetExecutor().runConfig(latch::countDown);
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted during sync");
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.asset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.kura.asset.provider.AssetConstants;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.channel.ChannelType;
+import org.eclipse.kura.channel.listener.ChannelEvent;
+import org.eclipse.kura.channel.listener.ChannelListener;
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.driver.Driver;
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+public class WireAssetDeadbandTest {
+
+    private static final String CHANNEL_NAME = "channel";
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final Queue<Optional<Number>> driverResults = new ArrayDeque<>();
+    private final WireSupport wireSupport = mock(WireSupport.class);
+
+    private Driver driver;
+    private ChannelListener driverListener;
+    private WireAsset asset;
+
+    @Test
+    public void shouldReportEveryValueByDefault() throws ConnectionException {
+        givenChannel(DataType.DOUBLE);
+        givenWireAsset();
+        givenDriverValues(10.0d, 10.0d, 10.1d);
+
+        whenEnvelopesAreReceived(3);
+
+        thenEmittedValuesAre(10.0d, 10.0d, 10.1d);
+    }
+
+    @Test
+    public void shouldDropPolledValuesInsideAbsoluteDeadband() throws ConnectionException {
+        givenChannel(DataType.DOUBLE);
+        givenChannelProperty(AssetConstants.DEADBAND_TYPE, "ABSOLUTE");
+        givenChannelProperty(AssetConstants.DEADBAND, "0.5");
+        givenWireAsset();
+        givenDriverValues(10.0d, 10.4d, 9.6d, 10.6d, 10.7d, 11.2d);
+
+        whenEnvelopesAreReceived(6);
+
+        thenEmittedValuesAre(10.0d, 10.6d, 11.2d);
+    }
+
+    @Test
+    public void shouldApplyPercentDeadbandToScaledValues() throws ConnectionException {
+        givenChannel(DataType.INTEGER);
+        givenChannelProperty(AssetConstants.VALUE_SCALE, "10");
+        givenChannelProperty(AssetConstants.DEADBAND_TYPE, "PERCENT");
+        givenChannelProperty(AssetConstants.DEADBAND, "5");
+        givenWireAsset();
+        givenDriverValues(100, 104, 96, 106);
+
+        whenEnvelopesAreReceived(4);
+
+        thenEmittedValuesAre(1000, 1060);
+    }
+
+    @Test
+    public void shouldReportStatusChangesInsideDeadband() throws ConnectionException {
+        givenChannel(DataType.DOUBLE);
+        givenChannelProperty(AssetConstants.DEADBAND_TYPE, "ABSOLUTE");
+        givenChannelProperty(AssetConstants.DEADBAND, "100");
+        givenWireAsset();
+        givenDriverValues(1.0d);
+        givenDriverFailures(2);
+        givenDriverValues(1.0d, 1.0d);
+
+        whenEnvelopesAreReceived(5);
+
+        thenEmittedFlagsAre(ChannelFlag.SUCCESS, ChannelFlag.FAILURE, ChannelFlag.SUCCESS);
+    }
+
+    @Test
+    public void shouldReportValueAfterMaxInterval() throws ConnectionException, InterruptedException {
+        givenChannel(DataType.DOUBLE);
+        givenChannelProperty(AssetConstants.DEADBAND_TYPE, "ABSOLUTE");
+        givenChannelProperty(AssetConstants.DEADBAND, "100");
+        givenChannelProperty(AssetConstants.REPORT_MAX_INTERVAL, "50");
+        givenWireAsset();
+        givenDriverValues(1.0d, 1.0d, 1.0d);
+
+        whenEnvelopesAreReceived(2);
+        whenTimePasses(100);
+        whenEnvelopesAreReceived(1);
+
+        thenEmittedValuesAre(1.0d, 1.0d);
+    }
+
+    @Test
+    public void shouldLimitReportRateWithMinInterval() throws ConnectionException {
+        givenChannel(DataType.DOUBLE);
+        givenChannelProperty(AssetConstants.REPORT_MIN_INTERVAL, "60000");
+        givenWireAsset();
+        givenDriverValues(1.0d, 2.0d, 3.0d);
+
+        whenEnvelopesAreReceived(3);
+
+        thenEmittedValuesAre(1.0d);
+    }
+
+    @Test
+    public void shouldFilterChannelListenerEvents() throws ConnectionException {
+        givenChannel(DataType.DOUBLE);
+        givenChannelProperty(AssetConstants.DEADBAND_TYPE, "ABSOLUTE");
+        givenChannelProperty(AssetConstants.DEADBAND, "1");
+        givenChannelProperty("+listen", "true");
+        givenWireAsset();
+
+        whenDriverEventsAreDispatched(5.0d, 5.5d, 6.5d, 6.0d);
+
+        thenEmittedValuesAre(5.0d, 6.5d);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        if (this.asset != null) {
+            this.asset.deactivate(mock(ComponentContext.class));
+        }
+    }
+
+    private void givenChannel(final DataType dataType) {
+        givenChannelProperty(AssetConstants.NAME, CHANNEL_NAME);
+        givenChannelProperty(AssetConstants.TYPE, ChannelType.READ.name());
+        givenChannelProperty(AssetConstants.VALUE_TYPE, dataType.name());
+        givenChannelProperty(AssetConstants.ENABLED, "true");
+    }
+
+    private void givenChannelProperty(final AssetConstants property, final String value) {
+        givenChannelProperty(property.value(), value);
+    }
+
+    private void givenChannelProperty(final String property, final String value) {
+        this.properties.put(CHANNEL_NAME + AssetConstants.CHANNEL_PROPERTY_SEPARATOR.value() + property, value);
+    }
+
+    private void givenWireAsset() throws ConnectionException {
+        this.driver = mock(Driver.class);
+
+        when(this.driver.getChannelDescriptor()).thenReturn(Collections::emptyList);
+
+        doAnswer(invocation -> {
+            final List<ChannelRecord> records = invocation.getArgument(0);
+            final Optional<Number> result = this.driverResults.remove();
+
+            for (final ChannelRecord record : records) {
+                record.setTimestamp(System.currentTimeMillis());
+
+                if (result.isPresent()) {
+                    record.setValue(toTypedValue(record.getValueType(), result.get()));
+                    record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+                } else {
+                    record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, "read failed", null));
+                }
+            }
+
+            return null;
+        }).when(this.driver).read(any());
+
+        doAnswer(invocation -> {
+            this.driverListener = invocation.getArgument(1);
+            return null;
+        }).when(this.driver).registerChannelListener(any(), any());
+
+        this.properties.put(AssetConstants.ASSET_DESC_PROP.value(), "description");
+        this.properties.put(AssetConstants.ASSET_DRIVER_PROP.value(), "driverPid");
+        this.properties.put(ConfigurationService.KURA_SERVICE_PID, "asset");
+        this.properties.put(WireAssetOptions.EMIT_EMPTY_ENVELOPES_PROP_NAME, false);
+
+        final WireHelperService wireHelperService = mock(WireHelperService.class);
+        final ComponentContext componentContext = mock(ComponentContext.class);
+
+        when(wireHelperService.newWireSupport(any(), any())).thenReturn(this.wireSupport);
+        when(componentContext.getBundleContext()).thenReturn(mock(BundleContext.class));
+
+        this.asset = new WireAsset();
+        this.asset.bindWireHelperService(wireHelperService);
+        this.asset.activate(componentContext, this.properties);
+        this.asset.setDriver(this.driver);
+        sync(this.asset);
+    }
+
+    private void givenDriverValues(final Number... values) {
+        for (final Number value : values) {
+            this.driverResults.add(Optional.of(value));
+        }
+    }
+
+    private void givenDriverFailures(final int count) {
+        for (int i = 0; i < count; i++) {
+            this.driverResults.add(Optional.empty());
+        }
+    }
+
+    private void whenEnvelopesAreReceived(final int count) {
+        for (int i = 0; i < count; i++) {
+            this.asset.onWireReceive(new WireEnvelope("emitter", Collections.emptyList()));
+        }
+    }
+
+    private void whenTimePasses(final long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    private void whenDriverEventsAreDispatched(final double... values) {
+        assertNotNull("channel listener not registered", this.driverListener);
+
+        for (final double value : values) {
+            final ChannelRecord record = ChannelRecord.createReadRecord(CHANNEL_NAME, DataType.DOUBLE);
+
+            record.setValue(TypedValues.newDoubleValue(value));
+            record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+            record.setTimestamp(System.currentTimeMillis());
+
+            this.driverListener.onChannelEvent(new ChannelEvent(record));
+        }
+    }
+
+    private void thenEmittedValuesAre(final Object... expected) {
+        final List<Object> actual = new ArrayList<>();
+
+        for (final WireRecord record : getEmittedRecords()) {
+            actual.add(record.getProperties().get(CHANNEL_NAME).getValue());
+        }
+
+        assertEquals(Arrays.asList(expected), actual);
+    }
+
+    private void thenEmittedFlagsAre(final ChannelFlag... expected) {
+        final List<ChannelFlag> actual = new ArrayList<>();
+
+        for (final WireRecord record : getEmittedRecords()) {
+            actual.add(record.getProperties().containsKey(CHANNEL_NAME) ? ChannelFlag.SUCCESS : ChannelFlag.FAILURE);
+        }
+
+        assertEquals(Arrays.asList(expected), actual);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<WireRecord> getEmittedRecords() {
+        final ArgumentCaptor<List<WireRecord>> captor = ArgumentCaptor.forClass(List.class);
+
+        verify(this.wireSupport, atLeast(0)).emit(captor.capture());
+
+        final List<WireRecord> result = new ArrayList<>();
+
+        for (final List<WireRecord> records : captor.getAllValues()) {
+            result.addAll(records);
+        }
+
+        return result;
+    }
+
+    private static TypedValue<?> toTypedValue(final DataType dataType, final Number value) {
+        switch (dataType) {
+        case INTEGER:
+            return TypedValues.newIntegerValue(value.intValue());
+        case LONG:
+            return TypedValues.newLongValue(value.longValue());
+        case FLOAT:
+            return TypedValues.newFloatValue(value.floatValue());
+        default:
+            return TypedValues.newDoubleValue(value.doubleValue());
+        }
+    }
+
+    private static void sync(final WireAsset asset) {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        asset.getBaseAssetExecutor().runConfig(latch::countDown);
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted during sync");
+        }
+    }
+}
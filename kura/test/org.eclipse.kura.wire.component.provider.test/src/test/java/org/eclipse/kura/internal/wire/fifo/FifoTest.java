@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,11 @@ package org.eclipse.kura.internal.wire.fifo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -187,6 +191,58 @@ public class FifoTest {
         assertEquals(1, wiresLatch.getCount());
     }
 
+    @Test
+    public void testQueueCounters() throws InterruptedException {
+        CountDownLatch emitStarted = new CountDownLatch(1);
+        CountDownLatch emitReleased = new CountDownLatch(1);
+
+        Fifo fifo = new Fifo();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        fifo.bindWireHelperService(wireHelperServiceMock);
+
+        WireSupport wireSupportMock = mock(WireSupport.class);
+        doAnswer(invocation -> {
+            emitStarted.countDown();
+            emitReleased.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(wireSupportMock).emit(any());
+        when(wireHelperServiceMock.newWireSupport(fifo, null)).thenReturn(wireSupportMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("discard.envelopes", true);
+        properties.put("queue.capacity", 5);
+
+        fifo.activate(properties, mock(ComponentContext.class));
+
+        try {
+            fifo.onWireReceive(createWireEnvelope());
+            assertTrue(emitStarted.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 9; i++) {
+                fifo.onWireReceive(createWireEnvelope());
+            }
+
+            assertEquals(5, fifo.getQueueCapacity());
+            assertEquals(5, fifo.getQueueOccupancy());
+            assertEquals(4, fifo.getDroppedEnvelopeCount());
+
+            emitReleased.countDown();
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (fifo.getEmittedEnvelopeCount() < 6 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(6, fifo.getEmittedEnvelopeCount());
+            assertEquals(0, fifo.getQueueOccupancy());
+            verify(wireSupportMock, times(6)).emit(any());
+        } finally {
+            emitReleased.countDown();
+            fifo.deactivate();
+        }
+    }
+
     private WireEnvelope createWireEnvelope() {
         String emitterPid = "emitter";
         List<WireRecord> wireRecords = new ArrayList<WireRecord>();
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.fifo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RingBufferTest {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private RingBuffer<long[]> buffer;
+    private final List<Thread> producers = new ArrayList<>();
+    private final List<long[]> received = new ArrayList<>();
+    private final List<Boolean> offerResults = new ArrayList<>();
+
+    @Test
+    public void shouldDrainInOfferOrder() throws InterruptedException {
+        givenRingBuffer(4, false);
+
+        whenOffered(0, 0, 3);
+
+        thenDrainedBatchSizeIs(8, 3);
+        thenReceivedSequencesAre(0, 0, 1, 2);
+    }
+
+    @Test
+    public void shouldWrapAround() throws InterruptedException {
+        givenRingBuffer(3, false);
+
+        for (int i = 0; i < 10; i++) {
+            whenOffered(0, i * 2, 2);
+            thenDrainedBatchSizeIs(8, 2);
+        }
+
+        thenReceivedSequencesAre(0, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19);
+    }
+
+    @Test
+    public void shouldLimitDrainedBatchSize() throws InterruptedException {
+        givenRingBuffer(10, false);
+
+        whenOffered(0, 0, 10);
+
+        thenDrainedBatchSizeIs(4, 4);
+        thenSizeIs(6);
+    }
+
+    @Test
+    public void shouldDiscardWhenFull() throws InterruptedException {
+        givenRingBuffer(2, true);
+
+        whenOffered(0, 0, 4);
+
+        thenOfferResultsAre(true, true, false, false);
+        thenSizeIs(2);
+        thenDroppedCountIs(2);
+        thenDrainedBatchSizeIs(8, 2);
+        thenReceivedSequencesAre(0, 0, 1);
+    }
+
+    @Test
+    public void shouldBlockProducerWhenFull() throws InterruptedException {
+        givenRingBuffer(2, false);
+        givenOffered(0, 0, 2);
+
+        whenProducersAreStarted(1, 1);
+
+        thenProducersAreBlocked();
+
+        whenDrained(2);
+
+        thenProducersComplete();
+        thenSizeIs(1);
+        thenDroppedCountIs(0);
+    }
+
+    @Test
+    public void shouldReleaseBlockedProducersOnClose() throws InterruptedException {
+        givenRingBuffer(1, false);
+        givenOffered(0, 0, 1);
+
+        whenProducersAreStarted(2, 1);
+        whenClosed();
+
+        thenProducersComplete();
+        thenDroppedCountIs(2);
+        thenDrainedBatchSizeIs(8, 0);
+    }
+
+    @Test
+    public void shouldPreserveOrderOfEachProducer() throws InterruptedException {
+        givenRingBuffer(100, false);
+
+        whenProducersAreStarted(4, 250_000);
+        whenDrained(1_000_000);
+
+        thenProducersComplete();
+        thenEachProducerSequenceIsOrdered(4, 250_000);
+        thenSizeIs(0);
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        if (this.buffer != null) {
+            this.buffer.close();
+        }
+    }
+
+    private void givenRingBuffer(final int capacity, final boolean discardWhenFull) {
+        this.buffer = new RingBuffer<>(capacity, discardWhenFull);
+    }
+
+    private void givenOffered(final int producer, final long firstSequence, final int count)
+            throws InterruptedException {
+        whenOffered(producer, firstSequence, count);
+    }
+
+    private void whenOffered(final int producer, final long firstSequence, final int count)
+            throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            this.offerResults.add(this.buffer.offer(new long[] { producer, firstSequence + i }));
+        }
+    }
+
+    private void whenProducersAreStarted(final int producerCount, final int count) {
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        this.buffer.offer(new long[] { producer, i });
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            this.producers.add(thread);
+            thread.start();
+        }
+    }
+
+    private void whenDrained(final int expectedCount) {
+        final Object[] batch = new Object[64];
+
+        while (this.received.size() < expectedCount) {
+            final int count = this.buffer.drainTo(batch);
+
+            for (int i = 0; i < count; i++) {
+                this.received.add((long[]) batch[i]);
+            }
+        }
+    }
+
+    private void whenClosed() {
+        this.buffer.close();
+    }
+
+    private void thenDrainedBatchSizeIs(final int batchSize, final int expected) {
+        final Object[] batch = new Object[batchSize];
+
+        final int count = this.buffer.drainTo(batch);
+
+        for (int i = 0; i < count; i++) {
+            this.received.add((long[]) batch[i]);
+        }
+
+        assertEquals(expected, count);
+    }
+
+    private void thenReceivedSequencesAre(final int producer, final long... expected) {
+        final long[] actual = this.received.stream().filter(e -> e[0] == producer).mapToLong(e -> e[1]).toArray();
+
+        assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+    }
+
+    private void thenEachProducerSequenceIsOrdered(final int producerCount, final int count) {
+        final Map<Long, Long> nextSequences = new HashMap<>();
+
+        for (final long[] element : this.received) {
+            final long expected = nextSequences.getOrDefault(element[0], 0L);
+
+            assertEquals(expected, element[1]);
+            nextSequences.put(element[0], expected + 1);
+        }
+
+        assertEquals(producerCount, nextSequences.size());
+
+        for (final long next : nextSequences.values()) {
+            assertEquals(count, next);
+        }
+    }
+
+    private void thenOfferResultsAre(final Boolean... expected) {
+        assertEquals(Arrays.asList(expected), this.offerResults);
+    }
+
+    private void thenSizeIs(final int expected) {
+        assertEquals(expected, this.buffer.size());
+    }
+
+    private void thenDroppedCountIs(final long expected) {
+        assertEquals(expected, this.buffer.getDroppedCount());
+    }
+
+    private void thenProducersAreBlocked() throws InterruptedException {
+        for (final Thread producer : this.producers) {
+            producer.join(200);
+            assertTrue(producer.isAlive());
+        }
+    }
+
+    private void thenProducersComplete() throws InterruptedException {
+        for (final Thread producer : this.producers) {
+            producer.join(TIMEOUT_MILLIS);
+            assertFalse(producer.isAlive());
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.publisher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.cloudconnection.message.KuraMessage;
+import org.eclipse.kura.message.KuraPayload;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+public class CloudPublisherBatchTest {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final org.eclipse.kura.cloudconnection.publisher.CloudPublisher cloudConnectionPublisher = mock(
+            org.eclipse.kura.cloudconnection.publisher.CloudPublisher.class);
+
+    private final CountDownLatch publishEntered = new CountDownLatch(1);
+    private final CountDownLatch publishReleased = new CountDownLatch(1);
+
+    private CloudPublisher cloudPublisher;
+
+    @Test
+    public void shouldPublishEachRecordSeparatelyByDefault() throws KuraException {
+        givenCloudPublisher();
+
+        whenRecordsAreReceived("asset", 5);
+
+        thenPublishedMessageCountIs(5);
+        thenNoMessageIsBatch();
+    }
+
+    @Test
+    public void shouldPublishFullBatches() throws KuraException {
+        givenBatchOptions(10, 65536, 60000);
+        givenCloudPublisher();
+
+        whenRecordsAreReceived("asset", 25);
+
+        thenPublishedMessageCountIs(2);
+        thenBatchSizesAre(10, 10);
+        thenBatchRatioIs(10.0d);
+        thenMessagesSavedAre(18);
+    }
+
+    @Test
+    public void shouldPublishPartialBatchAfterMaxLatency() throws KuraException {
+        givenBatchOptions(100, 65536, 50);
+        givenCloudPublisher();
+
+        whenRecordsAreReceived("asset", 3);
+
+        thenPublishedMessageCountEventuallyIs(1);
+        thenBatchSizesAre(3);
+    }
+
+    @Test
+    public void shouldPublishBatchWhenMaxSizeIsReached() throws KuraException {
+        givenBatchOptions(100, 100, 60000);
+        givenCloudPublisher();
+
+        whenRecordsAreReceived("asset", 10);
+
+        thenBatchSizesAre(4, 4);
+    }
+
+    @Test
+    public void shouldNotMixGroupsInTheSameBatch() throws KuraException {
+        givenBatchOptions(2, 65536, 60000);
+        givenCloudPublisher();
+
+        whenRecordsAreReceived("first", 1);
+        whenRecordsAreReceived("second", 1);
+        whenRecordsAreReceived("first", 1);
+        whenRecordsAreReceived("second", 1);
+
+        thenPublishedMessageCountIs(2);
+        thenBatchAssetNamesAre("first", "second");
+    }
+
+    @Test
+    public void shouldPublishPendingRecordsOnDeactivation() throws KuraException {
+        givenBatchOptions(100, 65536, 60000);
+        givenCloudPublisher();
+        givenRecordsReceived("asset", 7);
+
+        whenDeactivated();
+
+        thenBatchSizesAre(7);
+    }
+
+    @Test
+    public void shouldEncodeRecordPropertiesInBatch() throws KuraException {
+        givenBatchOptions(2, 65536, 60000);
+        givenCloudPublisher();
+
+        whenRecordsAreReceived("asset", 2);
+
+        thenDecodedRecordIs(0, "asset", 0);
+        thenDecodedRecordIs(1, "asset", 1);
+    }
+
+    @Test
+    public void shouldReceiveRecordsWhileABatchIsPublished() throws Exception {
+        givenBatchOptions(2, 65536, 60000);
+        givenCloudPublisher();
+        givenBlockingCloudPublisher();
+        givenRecordsReceivedAsynchronously("first", 2);
+        givenPublishIsEntered();
+
+        whenRecordsAreReceived("second", 2);
+        whenPublishIsReleased();
+
+        thenPublishedMessageCountEventuallyIs(2);
+        thenBatchAssetNamesAre("first", "second");
+    }
+
+    @Test
+    public void shouldNotTreatPlainPayloadsAsBatches() {
+        final KuraPayload payload = new KuraPayload();
+        payload.addMetric(BatchPayloadCodec.BATCH_SIZE_METRIC, 1);
+        payload.addMetric("temperature", 20.0d);
+
+        assertFalse(BatchPayloadCodec.isBatch(payload));
+
+        payload.removeMetric("temperature");
+        payload.addMetric("0.temperature", 20.0d);
+
+        assertFalse(BatchPayloadCodec.isBatch(payload));
+
+        payload.addMetric(BatchPayloadCodec.BATCH_VERSION_METRIC, 1);
+
+        assertTrue(BatchPayloadCodec.isBatch(payload));
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        this.publishReleased.countDown();
+
+        if (this.cloudPublisher != null) {
+            this.cloudPublisher.deactivate(mock(ComponentContext.class));
+        }
+    }
+
+    private void givenBatchOptions(final int maxRecords, final int maxSize, final long maxLatency) {
+        this.properties.put("batch.max.records", maxRecords);
+        this.properties.put("batch.max.size", maxSize);
+        this.properties.put("batch.max.latency", maxLatency);
+    }
+
+    private void givenCloudPublisher() {
+        final WireHelperService wireHelperService = mock(WireHelperService.class);
+        final ComponentContext componentContext = mock(ComponentContext.class);
+
+        when(componentContext.getBundleContext()).thenReturn(mock(BundleContext.class));
+
+        this.properties.put("publish.position", "none");
+
+        this.cloudPublisher = new CloudPublisher();
+        this.cloudPublisher.bindWireHelperService(wireHelperService);
+        this.cloudPublisher.activate(componentContext, this.properties);
+        this.cloudPublisher.setCloudPublisher(this.cloudConnectionPublisher);
+    }
+
+    private void givenBlockingCloudPublisher() throws KuraException {
+        doAnswer(invocation -> {
+            this.publishEntered.countDown();
+            this.publishReleased.await();
+            return null;
+        }).when(this.cloudConnectionPublisher).publish(any());
+    }
+
+    private void givenRecordsReceivedAsynchronously(final String assetName, final int count) {
+        CompletableFuture.runAsync(() -> whenRecordsAreReceived(assetName, count));
+    }
+
+    private void givenPublishIsEntered() throws InterruptedException {
+        assertTrue(this.publishEntered.await(30, TimeUnit.SECONDS));
+    }
+
+    private void whenPublishIsReleased() {
+        this.publishReleased.countDown();
+    }
+
+    private void givenRecordsReceived(final String assetName, final int count) {
+        whenRecordsAreReceived(assetName, count);
+    }
+
+    private void whenRecordsAreReceived(final String assetName, final int count) {
+        final List<WireRecord> records = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            final Map<String, TypedValue<?>> recordProperties = new HashMap<>();
+
+            recordProperties.put("assetName", TypedValues.newStringValue(assetName));
+            recordProperties.put("value", TypedValues.newIntegerValue(i));
+
+            records.add(new WireRecord(recordProperties));
+        }
+
+        this.cloudPublisher.onWireReceive(new WireEnvelope("emitter", records));
+    }
+
+    private void whenDeactivated() {
+        this.cloudPublisher.deactivate(mock(ComponentContext.class));
+        this.cloudPublisher = null;
+    }
+
+    private void thenPublishedMessageCountIs(final int expected) throws KuraException {
+        verify(this.cloudConnectionPublisher, times(expected)).publish(any());
+    }
+
+    private void thenPublishedMessageCountEventuallyIs(final int expected) throws KuraException {
+        verify(this.cloudConnectionPublisher, timeout(10000).times(expected)).publish(any());
+    }
+
+    private void thenNoMessageIsBatch() throws KuraException {
+        for (final KuraMessage message : getPublishedMessages()) {
+            assertEquals(false, BatchPayloadCodec.isBatch(message.getPayload()));
+        }
+    }
+
+    private void thenBatchSizesAre(final Integer... expected) throws KuraException {
+        final List<Integer> actual = new ArrayList<>();
+
+        for (final KuraMessage message : getPublishedMessages()) {
+            actual.add(BatchPayloadCodec.decode(message.getPayload()).size());
+        }
+
+        assertEquals(Arrays.asList(expected), actual);
+    }
+
+    private void thenBatchAssetNamesAre(final String... expected) throws KuraException {
+        final List<String> actual = new ArrayList<>();
+
+        for (final KuraMessage message : getPublishedMessages()) {
+            assertEquals(message.getProperties().get("assetName"), message.getPayload().getMetric("0.assetName"));
+
+            for (final Map<String, Object> record : BatchPayloadCodec.decode(message.getPayload())) {
+                assertEquals(message.getProperties().get("assetName"), record.get("assetName"));
+            }
+
+            actual.add((String) message.getProperties().get("assetName"));
+        }
+
+        assertEquals(Arrays.asList(expected), actual);
+    }
+
+    private void thenDecodedRecordIs(final int index, final String assetName, final int value)
+            throws KuraException {
+        final KuraPayload payload = getPublishedMessages().get(0).getPayload();
+        final Map<String, Object> record = BatchPayloadCodec.decode(payload).get(index);
+
+        assertEquals(2, record.size());
+        assertEquals(assetName, record.get("assetName"));
+        assertEquals(value, record.get("value"));
+    }
+
+    private void thenBatchRatioIs(final double expected) {
+        assertEquals(expected, this.cloudPublisher.getBatchRatio(), 0.001d);
+    }
+
+    private void thenMessagesSavedAre(final long expected) {
+        assertEquals(expected, this.cloudPublisher.getMessagesSaved());
+    }
+
+    private List<KuraMessage> getPublishedMessages() throws KuraException {
+        final ArgumentCaptor<KuraMessage> captor = ArgumentCaptor.forClass(KuraMessage.class);
+
+        verify(this.cloudConnectionPublisher, atLeast(0)).publish(captor.capture());
+
+        return captor.getAllValues();
+    }
+}
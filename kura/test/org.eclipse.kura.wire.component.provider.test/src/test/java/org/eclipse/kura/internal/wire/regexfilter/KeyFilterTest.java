@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.internal.wire.regexfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+public class KeyFilterTest {
+
+    private final Map<String, Integer> properties = new HashMap<>();
+    private KeyFilter keyFilter;
+    private Map<String, Integer> result;
+    private Exception exception;
+
+    /*
+     * Scenarios
+     */
+
+    @Test
+    public void shouldRetainLiteralKey() {
+        givenProperties("foo", "foobar", "bar");
+        givenKeyFilter("foo", FilterType.RETAIN);
+
+        whenApplied();
+
+        thenResultKeysAre("foo");
+    }
+
+    @Test
+    public void shouldRetainKeysWithPrefix() {
+        givenProperties("foo", "foobar", "bar");
+        givenKeyFilter("^foo.*", FilterType.RETAIN);
+
+        whenApplied();
+
+        thenResultKeysAre("foo", "foobar");
+    }
+
+    @Test
+    public void shouldRemoveAnchoredLiteralKey() {
+        givenProperties("foo", "foobar", "bar");
+        givenKeyFilter("^foo$", FilterType.REMOVE);
+
+        whenApplied();
+
+        thenResultKeysAre("foobar", "bar");
+    }
+
+    @Test
+    public void shouldMatchRegularExpression() {
+        givenProperties("t1", "t22", "tx");
+        givenKeyFilter("t\\d+", FilterType.RETAIN);
+
+        whenApplied();
+        whenApplied();
+
+        thenResultKeysAre("t1", "t22");
+    }
+
+    @Test
+    public void shouldNotMatchLineTerminatorsWithPrefix() {
+        givenProperties("foo\nbar", "foobar");
+        givenKeyFilter("foo.*", FilterType.RETAIN);
+
+        whenApplied();
+
+        thenResultKeysAre("foobar");
+    }
+
+    @Test
+    public void shouldReturnSameMapWhenAllKeysAreRetained() {
+        givenProperties("foo", "bar");
+        givenKeyFilter(".*", FilterType.RETAIN);
+
+        whenApplied();
+
+        thenResultIsSameMap();
+    }
+
+    @Test
+    public void shouldReturnSameMapWhenNoKeyIsRemoved() {
+        givenProperties("foo", "bar");
+        givenKeyFilter("baz", FilterType.REMOVE);
+
+        whenApplied();
+
+        thenResultIsSameMap();
+    }
+
+    @Test
+    public void shouldRemoveAllKeys() {
+        givenProperties("foo", "bar");
+        givenKeyFilter("foo|bar", FilterType.REMOVE);
+
+        whenApplied();
+
+        thenResultKeysAre();
+    }
+
+    @Test
+    public void shouldRejectInvalidRegularExpression() {
+        givenKeyFilter("foo(", FilterType.RETAIN);
+
+        thenExceptionIsThrown(PatternSyntaxException.class);
+    }
+
+    /*
+     * Steps
+     */
+
+    private void givenProperties(String... keys) {
+        for (int i = 0; i < keys.length; i++) {
+            this.properties.put(keys[i], i);
+        }
+    }
+
+    private void givenKeyFilter(String regularExpression, FilterType type) {
+        try {
+            this.keyFilter = KeyFilter.compile(regularExpression, type);
+        } catch (Exception e) {
+            this.exception = e;
+        }
+    }
+
+    private void whenApplied() {
+        this.result = this.keyFilter.apply(this.properties);
+    }
+
+    private void thenResultKeysAre(String... keys) {
+        assertEquals(new HashSet<>(Arrays.asList(keys)), this.result.keySet());
+        this.result.forEach((key, value) -> assertEquals(this.properties.get(key), value));
+    }
+
+    private void thenResultIsSameMap() {
+        assertSame(this.properties, this.result);
+    }
+
+    private void thenExceptionIsThrown(Class<? extends Exception> expected) {
+        assertTrue("expected " + expected + " but got " + this.exception, expected.isInstance(this.exception));
+    }
+}
@@ -22,15 +22,18 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.cloudconnection.message.KuraMessage;
+import org.eclipse.kura.internal.wire.publisher.BatchPayloadCodec;
 import org.eclipse.kura.message.KuraPayload;
 import org.eclipse.kura.type.DataType;
 import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.WireSupport;
@@ -113,6 +116,64 @@ public class CloudSubscriberTest {
         verify(wsMock, times(1)).emit(any());
     }
 
+    @Test
+    public void testOnBatchMessageArrived() throws InvalidSyntaxException {
+        // test arrival of a batch payload published by the cloud publisher and its split into WireRecords
+
+        CloudSubscriber cs = new CloudSubscriber();
+
+        List<WireRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, TypedValue<?>> recordProperties = new HashMap<>();
+            recordProperties.put("assetName", TypedValues.newStringValue("asset"));
+            recordProperties.put("value", TypedValues.newIntegerValue(i));
+            batch.add(new WireRecord(recordProperties));
+        }
+
+        KuraPayload payload = new KuraPayload();
+        BatchPayloadCodec.encode(payload, batch);
+
+        KuraMessage message = new KuraMessage(payload);
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cs.bindWireHelperService(wireHelperServiceMock);
+
+        WireSupport wsMock = mock(WireSupport.class);
+        when(wireHelperServiceMock.newWireSupport(cs, null)).thenReturn(wsMock);
+
+        doAnswer(invocation -> {
+            List<?> wireRecords = invocation.getArgument(0, List.class);
+
+            assertNotNull(wireRecords);
+            assertEquals(3, wireRecords.size());
+
+            for (int i = 0; i < 3; i++) {
+                Map<String, TypedValue<?>> properties = ((WireRecord) wireRecords.get(i)).getProperties();
+                assertEquals(2, properties.size());
+                assertEquals("asset", properties.get("assetName").getValue());
+                assertEquals(i, properties.get("value").getValue());
+            }
+
+            return null;
+        }).when(wsMock).emit(any());
+
+        BundleContext bundleCtxMock = mock(BundleContext.class);
+        Filter filter = mock(Filter.class);
+        when(bundleCtxMock.createFilter(anyString())).thenReturn(filter);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        when(ctxMock.getBundleContext()).thenReturn(bundleCtxMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("CloudSubscriber.target", "cspid");
+
+        cs.activate(ctxMock, properties);
+
+        cs.onMessageArrived(message);
+
+        verify(wsMock, times(1)).emit(any());
+    }
+
     @Test
     public void testActivateDeactivate() throws NoSuchFieldException, InvalidSyntaxException, KuraException {
         // test activation and deactivation in a sequence
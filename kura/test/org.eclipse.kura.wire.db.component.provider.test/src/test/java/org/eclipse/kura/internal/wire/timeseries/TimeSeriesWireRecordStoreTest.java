@@ -0,0 +1,357 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timeseries;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TimeSeriesWireRecordStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+    private TimeSeriesWireRecordStore store;
+    private long now = 1_000_000L;
+    private List<WireRecord> result;
+
+    @Test
+    public void shouldReadBackAllValueTypes() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecord(value("double", TypedValues.newDoubleValue(1.25d)), value("float", TypedValues.newFloatValue(2.5f)),
+                value("long", TypedValues.newLongValue(Long.MIN_VALUE)),
+                value("int", TypedValues.newIntegerValue(-12)), value("bool", TypedValues.newBooleanValue(true)),
+                value("string", TypedValues.newStringValue("héllo")),
+                value("bytes", TypedValues.newByteArrayValue(new byte[] { 1, 2, 3 })));
+        givenRecord(value("double", TypedValues.newDoubleValue(-1.0e300d)),
+                value("float", TypedValues.newFloatValue(Float.NaN)),
+                value("long", TypedValues.newLongValue(Long.MAX_VALUE)),
+                value("int", TypedValues.newIntegerValue(Integer.MAX_VALUE)),
+                value("bool", TypedValues.newBooleanValue(false)), value("string", TypedValues.newStringValue("")),
+                value("bytes", TypedValues.newByteArrayValue(new byte[0])));
+
+        whenQueried("store=test");
+
+        thenResultSizeIs(2);
+        thenValueIs(0, "double", TypedValues.newDoubleValue(1.25d));
+        thenValueIs(0, "float", TypedValues.newFloatValue(2.5f));
+        thenValueIs(0, "long", TypedValues.newLongValue(Long.MIN_VALUE));
+        thenValueIs(0, "int", TypedValues.newIntegerValue(-12));
+        thenValueIs(0, "bool", TypedValues.newBooleanValue(true));
+        thenValueIs(0, "string", TypedValues.newStringValue("héllo"));
+        thenBytesAre(0, "bytes", new byte[] { 1, 2, 3 });
+        thenValueIs(1, "double", TypedValues.newDoubleValue(-1.0e300d));
+        thenValueIs(1, "float", TypedValues.newFloatValue(Float.NaN));
+        thenValueIs(1, "long", TypedValues.newLongValue(Long.MAX_VALUE));
+        thenValueIs(1, "int", TypedValues.newIntegerValue(Integer.MAX_VALUE));
+        thenValueIs(1, "bool", TypedValues.newBooleanValue(false));
+        thenValueIs(1, "string", TypedValues.newStringValue(""));
+        thenBytesAre(1, "bytes", new byte[0]);
+    }
+
+    @Test
+    public void shouldCompressRegularSeriesInASingleSegment() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(5000, i -> TypedValues.newLongValue(i * 10L));
+
+        whenQueried("store=test;limit=10000");
+
+        thenResultSizeIs(5000);
+        thenValueIs(4999, "value", TypedValues.newLongValue(49990L));
+        thenSegmentCountIs("value", 1);
+    }
+
+    @Test
+    public void shouldReadAcrossSegmentsAfterReopen() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(3000, i -> TypedValues.newDoubleValue(Math.sin(i)));
+        givenStoreReopened();
+        givenRecords(10, i -> TypedValues.newDoubleValue(i));
+
+        whenQueried("store=test;limit=10000");
+
+        thenStoreSizeIs(3010);
+        thenResultSizeIs(3010);
+        thenValueIs(1234, "value", TypedValues.newDoubleValue(Math.sin(1234)));
+        thenValueIs(3009, "value", TypedValues.newDoubleValue(9));
+        thenSegmentCountIsGreaterThan("value", 2);
+    }
+
+    @Test
+    public void shouldReturnRecordsInTimeRange() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(100, i -> TypedValues.newIntegerValue(i));
+
+        whenQueried("store=test;from=1000010;to=1000019");
+
+        thenResultSizeIs(10);
+        thenValueIs(0, "value", TypedValues.newIntegerValue(10));
+        thenValueIs(0, TimeSeriesWireRecordStore.TIMESTAMP_PROPERTY, TypedValues.newLongValue(1000010L));
+    }
+
+    @Test
+    public void shouldReturnLatestRecordsWithDescendingOrder() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(100, i -> TypedValues.newIntegerValue(i));
+
+        whenQueried("store=test;order=desc;limit=3");
+
+        thenResultSizeIs(3);
+        thenValueIs(0, "value", TypedValues.newIntegerValue(99));
+        thenValueIs(2, "value", TypedValues.newIntegerValue(97));
+    }
+
+    @Test
+    public void shouldDownsample() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(100, i -> TypedValues.newIntegerValue(i));
+
+        whenQueried("store=test;interval=10;aggregate=avg");
+
+        thenResultSizeIs(10);
+        thenValueIs(0, TimeSeriesWireRecordStore.TIMESTAMP_PROPERTY, TypedValues.newLongValue(1000000L));
+        thenValueIs(0, "value", TypedValues.newDoubleValue(4.5d));
+        thenValueIs(9, "value", TypedValues.newDoubleValue(94.5d));
+    }
+
+    @Test
+    public void shouldOnlyReturnSelectedChannels() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecord(value("foo", TypedValues.newIntegerValue(1)), value("bar", TypedValues.newIntegerValue(2)));
+
+        whenQueried("store=test;channels=bar");
+
+        thenResultSizeIs(1);
+        thenPropertyNamesAre(0, TimeSeriesWireRecordStore.TIMESTAMP_PROPERTY, "bar");
+    }
+
+    @Test
+    public void shouldHandleValueTypeChange() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecord(value("value", TypedValues.newIntegerValue(1)));
+        givenRecord(value("value", TypedValues.newStringValue("foo")));
+
+        whenQueried("store=test");
+
+        thenResultSizeIs(2);
+        thenValueIs(0, "value", TypedValues.newIntegerValue(1));
+        thenValueIs(1, "value", TypedValues.newStringValue("foo"));
+    }
+
+    @Test
+    public void shouldTruncateAndKeepSizeAfterReopen() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(3000, i -> TypedValues.newDoubleValue(Math.sin(i)));
+
+        whenTruncated(100);
+        givenStoreReopened();
+        whenQueried("store=test;limit=10000");
+
+        thenStoreSizeIs(100);
+        thenResultSizeIs(100);
+        thenValueIs(0, "value", TypedValues.newDoubleValue(Math.sin(2900)));
+        thenSegmentCountIs("value", 1);
+    }
+
+    @Test
+    public void shouldRemoveChannelsOnTruncateAll() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(10, i -> TypedValues.newIntegerValue(i));
+
+        whenTruncated(0);
+        givenStoreReopened();
+        givenRecords(1, i -> TypedValues.newIntegerValue(42));
+        whenQueried("store=test");
+
+        thenStoreSizeIs(1);
+        thenResultSizeIs(1);
+        thenValueIs(0, "value", TypedValues.newIntegerValue(42));
+    }
+
+    @Test
+    public void shouldTruncateSegmentsOnClose() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(10, i -> TypedValues.newIntegerValue(i));
+
+        givenStoreReopened();
+        whenQueried("store=test");
+
+        thenResultSizeIs(10);
+        thenValueIs(9, "value", TypedValues.newIntegerValue(9));
+        thenSegmentFilesAreSmallerThan("value", SEGMENT_SIZE);
+    }
+
+    @Test
+    public void shouldTruncateUnsealedSegmentsOnOpen() throws KuraStoreException, IOException {
+        givenStore();
+        givenRecords(10, i -> TypedValues.newIntegerValue(i));
+
+        givenStoreReopenedWithoutClosing();
+        whenQueried("store=test");
+
+        thenResultSizeIs(10);
+        thenValueIs(9, "value", TypedValues.newIntegerValue(9));
+        thenSegmentFilesAreSmallerThan("value", SEGMENT_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownQueryKeys() {
+        TimeSeriesQuery.parse("store=test;foo=bar", 0, 10);
+    }
+
+    @Test
+    public void shouldResolveRelativeTimestamps() {
+        final TimeSeriesQuery query = TimeSeriesQuery.parse("store=test; from=-1000; limit=100", 5000, 10);
+
+        assertEquals(4000, query.getFromTimestamp());
+        assertEquals(Long.MAX_VALUE, query.getToTimestamp());
+        assertEquals(10, query.getLimit());
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        if (this.store != null) {
+            this.store.close();
+        }
+    }
+
+    private void givenStore() throws KuraStoreException, IOException {
+        this.directory = this.temporaryFolder.newFolder().toPath();
+        this.store = new TimeSeriesWireRecordStore(this.directory, SEGMENT_SIZE, () -> this.now++);
+    }
+
+    private void givenStoreReopened() throws KuraStoreException {
+        this.store.close();
+        this.store = new TimeSeriesWireRecordStore(this.directory, SEGMENT_SIZE, () -> this.now++);
+    }
+
+    private void givenStoreReopenedWithoutClosing() throws KuraStoreException {
+        this.store = new TimeSeriesWireRecordStore(this.directory, SEGMENT_SIZE, () -> this.now++);
+    }
+
+    private void givenRecords(final int count, final ValueFactory factory) throws KuraStoreException {
+        final List<WireRecord> records = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            records.add(new WireRecord(Collections.singletonMap("value", factory.create(i))));
+        }
+
+        this.store.insertRecords(records);
+    }
+
+    @SafeVarargs
+    private final void givenRecord(final Map.Entry<String, TypedValue<?>>... values) throws KuraStoreException {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+
+        for (final Map.Entry<String, TypedValue<?>> value : values) {
+            properties.put(value.getKey(), value.getValue());
+        }
+
+        this.store.insertRecords(Collections.singletonList(new WireRecord(properties)));
+    }
+
+    private void whenQueried(final String query) throws KuraStoreException {
+        this.result = this.store.query(TimeSeriesQuery.parse(query, this.now, 10000));
+    }
+
+    private void whenTruncated(final int keep) throws KuraStoreException {
+        this.store.truncate(keep);
+    }
+
+    private void thenResultSizeIs(final int expected) {
+        assertEquals(expected, this.result.size());
+    }
+
+    private void thenStoreSizeIs(final int expected) throws KuraStoreException {
+        assertEquals(expected, this.store.getSize());
+    }
+
+    private void thenValueIs(final int index, final String name, final TypedValue<?> expected) {
+        assertEquals(expected, this.result.get(index).getProperties().get(name));
+    }
+
+    private void thenBytesAre(final int index, final String name, final byte[] expected) {
+        assertArrayEquals(expected, (byte[]) this.result.get(index).getProperties().get(name).getValue());
+    }
+
+    private void thenPropertyNamesAre(final int index, final String... expected) {
+        assertEquals(Stream.of(expected).collect(Collectors.toSet()),
+                this.result.get(index).getProperties().keySet());
+    }
+
+    private void thenSegmentCountIs(final String channel, final long expected) throws IOException {
+        assertEquals(expected, getSegmentCount(channel));
+    }
+
+    private void thenSegmentCountIsGreaterThan(final String channel, final long expected) throws IOException {
+        assertTrue(getSegmentCount(channel) > expected);
+    }
+
+    private void thenSegmentFilesAreSmallerThan(final String channel, final long size) throws IOException {
+        for (final Path file : getSegmentFiles(channel)) {
+            assertTrue(Files.size(file) < size);
+        }
+    }
+
+    private long getSegmentCount(final String channel) throws IOException {
+        return getSegmentFiles(channel).size();
+    }
+
+    private List<Path> getSegmentFiles(final String channel) throws IOException {
+        final Path channelDirectory = this.directory.resolve("c-" + channel);
+
+        assertFalse(Files.notExists(channelDirectory));
+
+        try (final Stream<Path> files = Files.list(channelDirectory)) {
+            return files.filter(p -> p.toString().endsWith(Segment.FILE_EXTENSION)).collect(Collectors.toList());
+        }
+    }
+
+    private static Map.Entry<String, TypedValue<?>> value(final String name, final TypedValue<?> value) {
+        return new SimpleEntry<>(name, value);
+    }
+
+    private interface ValueFactory {
+
+        TypedValue<?> create(int index);
+    }
+}
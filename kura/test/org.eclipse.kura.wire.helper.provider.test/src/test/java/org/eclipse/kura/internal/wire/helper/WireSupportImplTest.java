@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireSupport;
+import org.eclipse.kura.wire.graph.Constants;
+import org.eclipse.kura.wire.graph.WireDeliveryStatistics;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.wireadmin.Wire;
+
+public class WireSupportImplTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final WireHelperServiceImpl wireHelperService = new WireHelperServiceImpl();
+    private final Map<String, TestReceiver> receivers = new HashMap<>();
+    private final Map<String, Wire> wires = new HashMap<>();
+    private Thread emitterThread;
+
+    @Test
+    public void shouldDeliverSynchronouslyByDefault() {
+        givenWireHelperService(Collections.emptyMap());
+        givenReceiver("receiver");
+        givenWire("emitter", "receiver");
+
+        whenEnvelopesAreEmitted("emitter", "receiver", 1);
+
+        thenReceivedEnvelopeCountIs("receiver", 1);
+        thenDeliveryThreadIs("receiver", Thread.currentThread());
+        thenNoStatisticsAreReported();
+    }
+
+    @Test
+    public void shouldDeliverInEmissionOrderWhenAsync() throws InterruptedException {
+        givenWireHelperService(asyncOptions(10, "BLOCK"));
+        givenReceiver("receiver");
+        givenWire("emitter", "receiver");
+
+        whenEnvelopesAreEmitted("emitter", "receiver", 1000);
+
+        thenEnvelopesAreReceivedInOrder("receiver", 0, 1000);
+        thenDeliveryThreadIsNot("receiver", Thread.currentThread());
+    }
+
+    @Test
+    public void shouldNotBlockFastReceiverOnSlowReceiver() throws InterruptedException {
+        givenWireHelperService(asyncOptions(1000, "BLOCK"));
+        givenBlockedReceiver("slow");
+        givenReceiver("fast");
+        givenWire("emitter", "slow");
+        givenWire("emitter", "fast");
+
+        whenEnvelopesAreEmitted("emitter", "slow", 10);
+        whenEnvelopesAreEmitted("emitter", "fast", 10);
+
+        thenEnvelopesAreReceivedInOrder("fast", 0, 10);
+        thenReceivedEnvelopeCountIs("slow", 0);
+
+        whenReceiverIsReleased("slow");
+
+        thenEnvelopesAreReceivedInOrder("slow", 0, 10);
+    }
+
+    @Test
+    public void shouldDropNewestEnvelopesWhenMailboxIsFull() throws InterruptedException {
+        givenWireHelperService(asyncOptions(2, "DROP_NEWEST"));
+        givenBlockedReceiver("receiver");
+        givenWire("emitter", "receiver");
+        givenReceiverBusyWithFirstEnvelope("emitter", "receiver");
+
+        whenEnvelopesAreEmitted("emitter", "receiver", 4);
+        whenReceiverIsReleased("receiver");
+
+        thenReceivedEnvelopesAre("receiver", 0, 1, 2);
+        thenStatistics("emitter", "receiver", 3, 2);
+    }
+
+    @Test
+    public void shouldDropOldestEnvelopesWhenMailboxIsFull() throws InterruptedException {
+        givenWireHelperService(asyncOptions(2, "DROP_OLDEST"));
+        givenBlockedReceiver("receiver");
+        givenWire("emitter", "receiver");
+        givenReceiverBusyWithFirstEnvelope("emitter", "receiver");
+
+        whenEnvelopesAreEmitted("emitter", "receiver", 4);
+        whenReceiverIsReleased("receiver");
+
+        thenReceivedEnvelopesAre("receiver", 0, 3, 4);
+        thenStatistics("emitter", "receiver", 3, 2);
+    }
+
+    @Test
+    public void shouldBlockEmitterWhenMailboxIsFull() throws InterruptedException {
+        givenWireHelperService(asyncOptions(2, "BLOCK"));
+        givenBlockedReceiver("receiver");
+        givenWire("emitter", "receiver");
+        givenReceiverBusyWithFirstEnvelope("emitter", "receiver");
+
+        whenEnvelopesAreEmittedInBackground("emitter", "receiver", 4);
+
+        thenEmitterIsBlocked();
+
+        whenReceiverIsReleased("receiver");
+
+        thenEmitterCompletes();
+        thenEnvelopesAreReceivedInOrder("receiver", 0, 5);
+        thenStatistics("emitter", "receiver", 5, 0);
+    }
+
+    @Test
+    public void shouldReportDeliveryLatency() throws InterruptedException {
+        givenWireHelperService(asyncOptions(10, "BLOCK"));
+        givenReceiver("receiver");
+        givenWire("emitter", "receiver");
+
+        whenEnvelopesAreEmitted("emitter", "receiver", 10);
+
+        thenEnvelopesAreReceivedInOrder("receiver", 0, 10);
+        thenStatistics("emitter", "receiver", 10, 0);
+        thenLatencyIsReported("emitter", "receiver");
+    }
+
+    /*
+     * Steps
+     */
+
+    @After
+    public void cleanUp() {
+        for (final TestReceiver receiver : this.receivers.values()) {
+            receiver.release.countDown();
+        }
+
+        this.wireHelperService.deactivate();
+    }
+
+    private void givenWireHelperService(final Map<String, Object> properties) {
+        this.wireHelperService.activate(properties);
+    }
+
+    private void givenReceiver(final String pid) {
+        final TestReceiver receiver = new TestReceiver();
+        receiver.release.countDown();
+
+        addReceiver(pid, receiver);
+    }
+
+    private void givenBlockedReceiver(final String pid) {
+        addReceiver(pid, new TestReceiver());
+    }
+
+    private void givenWire(final String emitterPid, final String receiverPid) {
+        final Hashtable<String, Object> properties = new Hashtable<>();
+        properties.put(Constants.EMITTER_KURA_SERVICE_PID_PROP_NAME.value(), emitterPid);
+        properties.put(Constants.RECEIVER_KURA_SERVICE_PID_PROP_NAME.value(), receiverPid);
+        properties.put(Constants.WIRE_EMITTER_PORT_PROP_NAME.value(), 0);
+        properties.put(Constants.WIRE_RECEIVER_PORT_PROP_NAME.value(), 0);
+
+        final Wire wire = mock(Wire.class);
+        when(wire.getProperties()).thenReturn(properties);
+
+        this.wires.put(emitterPid + "->" + receiverPid, wire);
+        this.receivers.get(receiverPid).wireSupport.producersConnected(new Wire[] { wire });
+    }
+
+    private void givenReceiverBusyWithFirstEnvelope(final String emitterPid, final String receiverPid)
+            throws InterruptedException {
+        whenEnvelopesAreEmitted(emitterPid, receiverPid, 1);
+
+        assertTrue(this.receivers.get(receiverPid).busy.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private void whenEnvelopesAreEmitted(final String emitterPid, final String receiverPid, final int count) {
+        final TestReceiver receiver = this.receivers.get(receiverPid);
+        final Wire wire = this.wires.get(emitterPid + "->" + receiverPid);
+
+        for (int i = 0; i < count; i++) {
+            final WireEnvelope envelope = new WireEnvelope(emitterPid, Collections.emptyList());
+            synchronized (receiver) {
+                receiver.emitted.add(envelope);
+            }
+            receiver.wireSupport.updated(wire, envelope);
+        }
+    }
+
+    private void whenEnvelopesAreEmittedInBackground(final String emitterPid, final String receiverPid,
+            final int count) {
+        this.emitterThread = new Thread(() -> whenEnvelopesAreEmitted(emitterPid, receiverPid, count));
+        this.emitterThread.start();
+    }
+
+    private void whenReceiverIsReleased(final String pid) {
+        this.receivers.get(pid).release.countDown();
+    }
+
+    private void thenReceivedEnvelopeCountIs(final String pid, final int expected) {
+        final TestReceiver receiver = this.receivers.get(pid);
+
+        synchronized (receiver) {
+            assertEquals(expected, receiver.received.size());
+        }
+    }
+
+    private void thenEnvelopesAreReceivedInOrder(final String pid, final int first, final int count)
+            throws InterruptedException {
+        thenReceivedEnvelopesAre(pid, IntStream.range(first, first + count).toArray());
+    }
+
+    private void thenReceivedEnvelopesAre(final String pid, final int... expected) throws InterruptedException {
+        final TestReceiver receiver = this.receivers.get(pid);
+        final List<Integer> expectedList = IntStream.of(expected).boxed().collect(Collectors.toList());
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+
+        while (System.nanoTime() < deadline && receivedCount(receiver) < expected.length) {
+            Thread.sleep(10);
+        }
+
+        // give the mailbox a chance to deliver unexpected envelopes
+        Thread.sleep(50);
+
+        synchronized (receiver) {
+            assertEquals(expectedList, receiver.received);
+        }
+    }
+
+    private void thenDeliveryThreadIs(final String pid, final Thread expected) {
+        assertEquals(expected, this.receivers.get(pid).deliveryThread);
+    }
+
+    private void thenDeliveryThreadIsNot(final String pid, final Thread expected) {
+        assertNotEquals(expected, this.receivers.get(pid).deliveryThread);
+    }
+
+    private void thenNoStatisticsAreReported() {
+        assertTrue(this.wireHelperService.getWireDeliveryStatistics().isEmpty());
+    }
+
+    private void thenEmitterIsBlocked() throws InterruptedException {
+        this.emitterThread.join(200);
+
+        assertTrue(this.emitterThread.isAlive());
+    }
+
+    private void thenEmitterCompletes() throws InterruptedException {
+        this.emitterThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+        assertFalse(this.emitterThread.isAlive());
+    }
+
+    private void thenStatistics(final String emitterPid, final String receiverPid, final long expectedDelivered,
+            final long expectedDropped) {
+        final WireDeliveryStatistics statistics = getStatistics(emitterPid, receiverPid);
+
+        assertEquals(0, statistics.getEmitterPort());
+        assertEquals(0, statistics.getReceiverPort());
+        assertEquals(0, statistics.getQueueDepth());
+        assertEquals(expectedDelivered, statistics.getDeliveredCount());
+        assertEquals(expectedDropped, statistics.getDroppedCount());
+    }
+
+    private void thenLatencyIsReported(final String emitterPid, final String receiverPid) {
+        final WireDeliveryStatistics statistics = getStatistics(emitterPid, receiverPid);
+
+        assertTrue(statistics.getMeanDeliveryLatencyNanos() > 0);
+        assertTrue(statistics.getMaxDeliveryLatencyNanos() >= statistics.getMeanDeliveryLatencyNanos());
+    }
+
+    private WireDeliveryStatistics getStatistics(final String emitterPid, final String receiverPid) {
+        final List<WireDeliveryStatistics> matching = new ArrayList<>();
+
+        for (final WireDeliveryStatistics statistics : this.wireHelperService.getWireDeliveryStatistics()) {
+            if (emitterPid.equals(statistics.getEmitterPid()) && receiverPid.equals(statistics.getReceiverPid())) {
+                matching.add(statistics);
+            }
+        }
+
+        assertEquals(1, matching.size());
+
+        return matching.get(0);
+    }
+
+    private static int receivedCount(final TestReceiver receiver) {
+        synchronized (receiver) {
+            return receiver.received.size();
+        }
+    }
+
+    private static Map<String, Object> asyncOptions(final int capacity, final String policy) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("emit.async.enabled", true);
+        properties.put("emit.mailbox.capacity", capacity);
+        properties.put("emit.backpressure.policy", policy);
+        properties.put("emit.worker.threads", 2);
+        return properties;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addReceiver(final String pid, final TestReceiver receiver) {
+        final ServiceReference<WireComponent> reference = mock(ServiceReference.class);
+        when(reference.getProperty(org.osgi.framework.Constants.SERVICE_PID)).thenReturn(pid);
+        when(reference.getProperty(ConfigurationService.KURA_SERVICE_PID)).thenReturn(pid);
+
+        receiver.wireSupport = this.wireHelperService.newWireSupport(receiver, reference);
+
+        this.receivers.put(pid, receiver);
+    }
+
+    private static final class TestReceiver implements WireReceiver {
+
+        private final CountDownLatch busy = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<WireEnvelope> emitted = new ArrayList<>();
+        private final List<Integer> received = new ArrayList<>();
+        private WireSupport wireSupport;
+        private volatile Thread deliveryThread;
+
+        @Override
+        public void onWireReceive(final WireEnvelope wireEnvelope) {
+            this.deliveryThread = Thread.currentThread();
+            this.busy.countDown();
+
+            try {
+                this.release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            synchronized (this) {
+                for (int i = 0; i < this.emitted.size(); i++) {
+                    if (this.emitted.get(i) == wireEnvelope) {
+                        this.received.add(i);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void producersConnected(final Wire[] wires) {
+            this.wireSupport.producersConnected(wires);
+        }
+
+        @Override
+        public void updated(final Wire wire, final Object value) {
+            this.wireSupport.updated(wire, value);
+        }
+    }
+}